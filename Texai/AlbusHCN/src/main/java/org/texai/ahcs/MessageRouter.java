@@ -124,8 +124,7 @@ public class MessageRouter extends AbstractAlbusHCSMessageHandler implements Mes
             x509SecurityInfo,
             new AlbusHCSMessageHandlerFactory(this),
             null, // httpRequestHandlerFactory
-            nodeRuntime.getExecutor(), // bossExecutor,
-            nodeRuntime.getExecutor(), // workerExecutor
+            nodeRuntime.getNettyIOThreadPools(),
             true); // isHTTPS
   }
 
@@ -176,8 +175,7 @@ public class MessageRouter extends AbstractAlbusHCSMessageHandler implements Mes
             inetSocketAddress,
             x509SecurityInfo, //
             this, //albusHCSMessageHandler
-            nodeRuntime.getExecutor(), // bossExecutor
-            nodeRuntime.getExecutor()); // workerExecutor
+            nodeRuntime.getNettyIOThreadPools());
     synchronized (containerChannelDictionary) {
       containerChannelDictionary.put(containerName, channel);
     }
@@ -211,8 +209,7 @@ public class MessageRouter extends AbstractAlbusHCSMessageHandler implements Mes
             inetSocketAddress,
             reconnectionInfo.x509SecurityInfo, //
             this, //albusHCSMessageHandler
-            nodeRuntime.getExecutor(), // bossExecutor
-            nodeRuntime.getExecutor()); // workerExecutor
+            nodeRuntime.getNettyIOThreadPools());
     synchronized (containerChannelDictionary) {
       containerChannelDictionary.put(reconnectionInfo.containerName, channel);
     }
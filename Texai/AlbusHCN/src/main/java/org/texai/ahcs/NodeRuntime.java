@@ -35,6 +35,7 @@ import org.texai.ahcsSupport.AHCSConstants;
 import org.texai.ahcsSupport.skill.BasicNodeRuntime;
 import org.texai.ahcsSupport.Message;
 import org.texai.ahcsSupport.domainEntity.Role;
+import org.texai.network.netty.utils.NettyIOThreadPools;
 import org.texai.util.ArraySet;
 import org.texai.util.NetworkUtils;
 import org.texai.util.StringUtils;
@@ -58,6 +59,8 @@ public class NodeRuntime extends BasicNodeRuntime {
   private final Map<String, X509Certificate> x509CertificateDictionary = new HashMap<>();
   // the name of the cache for the X.509 certificates, remote role id --> X.509 certificate
   public static final String CACHE_X509_CERTIFICATES = "X.509 certificates";
+  // the Netty I/O thread pools shared by the message router's server and client channels
+  private final NettyIOThreadPools nettyIOThreadPools;
   // the message router
   private final MessageRouter messageRouter;
   // the indicator to quit this application
@@ -89,6 +92,7 @@ public class NodeRuntime extends BasicNodeRuntime {
           final String containerName,
           final String networkName) {
     super(containerName, networkName);
+    nettyIOThreadPools = NettyIOThreadPools.newInstance(containerName);
     messageRouter = new MessageRouter(this);
   }
 
@@ -101,6 +105,16 @@ public class NodeRuntime extends BasicNodeRuntime {
     if (messageRouter != null) {
       messageRouter.finalization();
     }
+    nettyIOThreadPools.releaseExternalResources();
+  }
+
+  /**
+   * Gets the Netty I/O thread pools shared by the message router's server and client channels.
+   *
+   * @return the Netty I/O thread pools
+   */
+  public NettyIOThreadPools getNettyIOThreadPools() {
+    return nettyIOThreadPools;
   }
 
   /**
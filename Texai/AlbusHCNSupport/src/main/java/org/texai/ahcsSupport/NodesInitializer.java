@@ -530,7 +530,7 @@ public final class NodesInitializer {
           });
         }
       });
-      repositoryConnection.commit();
+      nodeAccess.getRDFEntityManager().commit(repositoryConnection);
     } catch (RepositoryException ex) {
       throw new TexaiException(ex);
     }
@@ -588,6 +588,10 @@ public final class AICOperation extends AbstractSkill {
         localBitcoindAdapter.shutDown();
       });
     }
+    if (bitcoinRPCAccess != null) {
+      // close the kept-alive RPC connections
+      bitcoinRPCAccess.shutDown();
+    }
 
     String[] cmdArray = {
       "sh",
@@ -1,44 +1,33 @@
 package org.texai.skill.aicoin.support;
 
 import com.google.bitcoin.core.NetworkParameters;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.UUID;
-import org.apache.http.HttpResponse;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.HttpEntity;
-import org.apache.http.auth.Credentials;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.util.EntityUtils;
-import org.apache.log4j.Logger;
-import org.json.simple.JSONArray;
+import net.jcip.annotations.ThreadSafe;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.texai.util.StringUtils;
 import org.texai.util.TexaiException;
 
 /**
  * BitcoinRPCAccess.java
  *
- * Description:
+ * Description: Accesses the bitcoind (aicoind) instance by remote procedure calls, over the connections which are kept alive by a
+ * long-lived RPC client.
  *
  * Copyright (C) May 29, 2015, Stephen L. Reed.
  */
+@ThreadSafe
 public class BitcoinRPCAccess {
 
-  // the logger
-  private static final Logger LOGGER = Logger.getLogger(BitcoinRPCAccess.class);
   private static final String COMMAND_GET_BALANCE = "getbalance";
   private static final String COMMAND_GET_INFO = "getinfo";
   private static final String COMMAND_GET_NEW_ADDRESS = "getnewaddress";
 
   // the network parameters
   final NetworkParameters networkParameters;
+  // the RPC client, which is created at the first call
+  private BitcoinRPCClient bitcoinRPCClient;
 
   /**
    * Creates a new instance of BitcoinRPCAccess.
@@ -58,11 +47,7 @@ public class BitcoinRPCAccess {
    * @return the bitcoind (aicoind) wallet balance
    */
   public int getBlocks() {
-    JSONObject json = invokeRPC(
-            UUID.randomUUID().toString(), // id
-            COMMAND_GET_INFO, // method
-            null); // params
-    final JSONObject result = (JSONObject) json.get("result");
+    final JSONObject result = getInfo();
     final long blocks = (long) result.get("blocks");
     return (int) blocks;
   }
@@ -78,12 +63,32 @@ public class BitcoinRPCAccess {
     //Preconditions
     assert StringUtils.isNonEmptyString(account) : "account must be a non-empty string";
 
-    final String[] params = {account};
-    final JSONObject jsonObject = invokeRPC(
-            UUID.randomUUID().toString(), // id
+    final Number result = (Number) getBitcoinRPCClient().call(
             COMMAND_GET_BALANCE, // method
-            Arrays.asList(params)); // params
-    return (Double) jsonObject.get("result");
+            Arrays.asList(account)); // params
+    return result.doubleValue();
+  }
+
+  /**
+   * Returns the bitcoind (aicoind) wallet account balances, using one batch request.
+   *
+   * @param accounts the accounts
+   *
+   * @return the bitcoind (aicoind) wallet balances, in the order of the accounts
+   */
+  public List<Double> getBalances(final List<String> accounts) {
+    //Preconditions
+    assert accounts != null : "accounts must not be null";
+
+    final List<BitcoinRPCClient.RPCCall> rpcCalls = new ArrayList<>(accounts.size());
+    accounts.stream().forEach((account) -> {
+      rpcCalls.add(new BitcoinRPCClient.RPCCall(COMMAND_GET_BALANCE, Arrays.asList(account)));
+    });
+    final List<Double> balances = new ArrayList<>(accounts.size());
+    getBitcoinRPCClient().callBatch(rpcCalls).stream().forEach((result) -> {
+      balances.add(((Number) result).doubleValue());
+    });
+    return balances;
   }
 
   /**
@@ -97,12 +102,9 @@ public class BitcoinRPCAccess {
     //Preconditions
     assert StringUtils.isNonEmptyString(account) : "account must be a non-empty string";
 
-    final String[] params = {account};
-    final JSONObject jsonObject = invokeRPC(
-            UUID.randomUUID().toString(), // id
+    return (String) getBitcoinRPCClient().call(
             COMMAND_GET_NEW_ADDRESS, // method
-            Arrays.asList(params)); // params
-    return (String) jsonObject.get("result");
+            Arrays.asList(account)); // params
   }
 
   /**
@@ -111,47 +113,19 @@ public class BitcoinRPCAccess {
    * @return the bitcoind (aicoind) information
    */
   public JSONObject getInfo() {
-    final JSONObject jsonObject = invokeRPC(
-            UUID.randomUUID().toString(), // id
+    return (JSONObject) getBitcoinRPCClient().call(
             COMMAND_GET_INFO, // method
             null); // params
-    return (JSONObject) jsonObject.get("result");
   }
 
   /**
-   * Performs the remote procedure call to the bitcoind (aicoind) instance.
+   * Gets the RPC client, creating it at the first call. The RPC client keeps its connections to the bitcoind (aicoind) instance alive
+   * between calls, and may be used directly for batch, asynchronous and streaming calls.
    *
-   * @param id the unique id string
-   * @param method the rpc method
-   * @param params the method parameters
-   *
-   * @return the result of the method call
+   * @return the RPC client
    */
-  @SuppressWarnings("unchecked")
-  private JSONObject invokeRPC(
-          final String id,
-          final String method,
-          final List<String> params) {
-    //Preconditions
-    assert StringUtils.isNonEmptyString(id) : "id must be a non-empty string";
-    assert StringUtils.isNonEmptyString(method) : "method must be a non-empty string";
-
-    final DefaultHttpClient httpclient = new DefaultHttpClient();
-
-    final JSONObject jsonObject = new JSONObject();
-    jsonObject.put("id", id);
-    jsonObject.put("method", method);
-    if (params != null) {
-      final JSONArray jsonArray = new JSONArray();
-      jsonArray.addAll(params);
-      jsonObject.put("params", params);
-    }
-    JSONObject responseJSONObject = null;
-    try {
-      final int rpcPort = networkParameters.getPort() - 1;
-      final AuthScope authScope = new AuthScope(
-              "localhost", // host
-              rpcPort); // port
+  public synchronized BitcoinRPCClient getBitcoinRPCClient() {
+    if (bitcoinRPCClient == null) {
       final String rpcuser = System.getenv("RPC_USER");
       if (!StringUtils.isNonEmptyString(rpcuser)) {
         throw new TexaiException("the RPC_USER environment variable must be assigned a value");
@@ -160,37 +134,24 @@ public class BitcoinRPCAccess {
       if (!StringUtils.isNonEmptyString(rpcpassword)) {
         throw new TexaiException("the RPC_PASSWORD environment variable must be assigned a value");
       }
+      bitcoinRPCClient = new BitcoinRPCClient(
+              "localhost", // host
+              networkParameters.getPort() - 1, // port
+              rpcuser,
+              rpcpassword,
+              BitcoinRPCClient.DEFAULT_MAX_CONNECTIONS); // maxConnections
+    }
+    return bitcoinRPCClient;
+  }
 
-      final Credentials credentials = new UsernamePasswordCredentials(
-              rpcuser, // userName
-              rpcpassword); // password
-      httpclient.getCredentialsProvider().setCredentials(
-              authScope,
-              credentials);
-      final StringEntity stringEntity = new StringEntity(jsonObject.toJSONString());
-      LOGGER.info(jsonObject.toString());
-      final HttpPost httppost = new HttpPost("http://localhost:" + rpcPort);
-      httppost.setEntity(stringEntity);
-
-      LOGGER.info("executing request" + httppost.getRequestLine());
-      final HttpResponse response = httpclient.execute(httppost);
-      HttpEntity entity = response.getEntity();
-
-      LOGGER.info("----------------------------------------");
-      LOGGER.info(response.getStatusLine());
-      assert entity != null;
-      LOGGER.info("Response content length: " + entity.getContentLength());
-      final String jsonString = EntityUtils.toString(entity);
-      LOGGER.info(jsonString);
-      final JSONParser jsonParser = new JSONParser();
-      responseJSONObject = (JSONObject) jsonParser.parse(jsonString);
-    } catch (ParseException | IOException e) {
-      throw new TexaiException(e);
-    } finally {
-      // release resources
-      httpclient.getConnectionManager().shutdown();
+  /**
+   * Shuts down the RPC client, closing its connections.
+   */
+  public synchronized void shutDown() {
+    if (bitcoinRPCClient != null) {
+      bitcoinRPCClient.shutDown();
+      bitcoinRPCClient = null;
     }
-    return responseJSONObject;
   }
 
 }
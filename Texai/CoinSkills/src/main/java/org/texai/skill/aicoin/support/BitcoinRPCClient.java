@@ -0,0 +1,538 @@
+package org.texai.skill.aicoin.support;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.apache.log4j.Logger;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.texai.util.StringUtils;
+import org.texai.util.TexaiException;
+
+/**
+ * BitcoinRPCClient.java
+ *
+ * Description: Provides a pooled, keep-alive JSON-RPC client for a bitcoind (aicoind) instance.
+ *
+ * The client keeps a bounded pool of persistent HTTP connections, and sends the basic authorization with each request so that a call
+ * is one round trip. Several calls may be sent as a JSON-RPC batch in one request, calls may be made asynchronously, and a large result
+ * may be streamed to a JSON content handler as it is parsed rather than being built as a JSON object.
+ *
+ * Copyright (C) Oct 20, 2026, Stephen L. Reed.
+ */
+@ThreadSafe
+public final class BitcoinRPCClient {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(BitcoinRPCClient.class);
+  // the default maximum number of pooled connections
+  public static final int DEFAULT_MAX_CONNECTIONS = 4;
+  // the RPC server URI
+  private final String uri;
+  // the basic authorization header value
+  private final String authorization;
+  // the pooling connection manager
+  private final PoolingHttpClientConnectionManager connectionManager;
+  // the HTTP client, which is shared by all calls
+  private final CloseableHttpClient httpClient;
+  // the executor of the asynchronous calls
+  private final ExecutorService executorService;
+  // the request id generator
+  private final AtomicLong idGenerator = new AtomicLong();
+  // the number of HTTP requests
+  private final AtomicLong requestCount = new AtomicLong();
+  // the number of calls
+  private final AtomicLong callCount = new AtomicLong();
+
+  /**
+   * Creates a new instance of BitcoinRPCClient.
+   *
+   * @param host the RPC server host
+   * @param port the RPC server port
+   * @param rpcUser the RPC user
+   * @param rpcPassword the RPC password
+   * @param maxConnections the maximum number of pooled connections, which is also the number of asynchronous call threads
+   */
+  public BitcoinRPCClient(
+          final String host,
+          final int port,
+          final String rpcUser,
+          final String rpcPassword,
+          final int maxConnections) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(host) : "host must be a non-empty string";
+    assert port > 0 : "port must be positive";
+    assert StringUtils.isNonEmptyString(rpcUser) : "rpcUser must be a non-empty string";
+    assert rpcPassword != null : "rpcPassword must not be null";
+    assert maxConnections > 0 : "maxConnections must be positive";
+
+    uri = "http://" + host + ":" + port + "/";
+    authorization = "Basic " + Base64.getEncoder().encodeToString(
+            (rpcUser + ":" + rpcPassword).getBytes(StandardCharsets.UTF_8));
+    connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnections);
+    httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .build();
+    final AtomicInteger threadNumber = new AtomicInteger();
+    executorService = Executors.newFixedThreadPool(maxConnections, (Runnable runnable) -> {
+      final Thread thread = new Thread(runnable, "bitcoin-rpc-" + port + "-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Calls the given RPC method.
+   *
+   * @param method the RPC method
+   * @param params the method parameters, or null if none
+   *
+   * @return the result of the call
+   */
+  public Object call(
+          final String method,
+          final List<?> params) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(method) : "method must be a non-empty string";
+
+    final long id = idGenerator.incrementAndGet();
+    final JSONObject responseJSONObject = (JSONObject) post(createRequest(id, method, params).toJSONString(), 1);
+    return getResult(method, responseJSONObject);
+  }
+
+  /**
+   * Calls the given RPC methods in one batch request.
+   *
+   * @param rpcCalls the RPC calls
+   *
+   * @return the results of the calls, in the order of the calls
+   */
+  @SuppressWarnings("unchecked")
+  public List<Object> callBatch(final List<RPCCall> rpcCalls) {
+    //Preconditions
+    assert rpcCalls != null : "rpcCalls must not be null";
+
+    if (rpcCalls.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final long firstId = idGenerator.getAndAdd(rpcCalls.size()) + 1;
+    final JSONArray requestJSONArray = new JSONArray();
+    for (int i = 0; i < rpcCalls.size(); i++) {
+      final RPCCall rpcCall = rpcCalls.get(i);
+      requestJSONArray.add(createRequest(firstId + i, rpcCall.method, rpcCall.params));
+    }
+    final Object response = post(requestJSONArray.toJSONString(), rpcCalls.size());
+    if (!(response instanceof JSONArray)) {
+      // a server which rejects the whole batch responds with a single error
+      throw new TexaiException("batch request failed: " + response);
+    }
+
+    // the responses may arrive in any order
+    final Map<Long, JSONObject> responseDictionary = new HashMap<>();
+    for (final Object responseJSONObject : (JSONArray) response) {
+      final Object id = ((JSONObject) responseJSONObject).get("id");
+      if (id instanceof Number) {
+        responseDictionary.put(((Number) id).longValue(), (JSONObject) responseJSONObject);
+      }
+    }
+    final List<Object> results = new ArrayList<>(rpcCalls.size());
+    for (int i = 0; i < rpcCalls.size(); i++) {
+      final String method = rpcCalls.get(i).method;
+      final JSONObject responseJSONObject = responseDictionary.get(firstId + i);
+      if (responseJSONObject == null) {
+        throw new TexaiException("no response for the batched call " + method);
+      }
+      results.add(getResult(method, responseJSONObject));
+    }
+    return results;
+  }
+
+  /**
+   * Calls the given RPC method asynchronously.
+   *
+   * @param method the RPC method
+   * @param params the method parameters, or null if none
+   *
+   * @return the future result of the call
+   */
+  public Future<Object> callAsync(
+          final String method,
+          final List<?> params) {
+    return executorService.submit(() -> call(method, params));
+  }
+
+  /**
+   * Calls the given RPC methods asynchronously in one batch request.
+   *
+   * @param rpcCalls the RPC calls
+   *
+   * @return the future results of the calls, in the order of the calls
+   */
+  public Future<List<Object>> callBatchAsync(final List<RPCCall> rpcCalls) {
+    return executorService.submit(() -> callBatch(rpcCalls));
+  }
+
+  /**
+   * Calls the given RPC method, and streams its result to the given content handler as the response is parsed, so that a large result
+   * such as a block listing is not held in memory as a JSON object. The content handler receives the result as a JSON document,
+   * starting with startJSON and ending with endJSON.
+   *
+   * @param method the RPC method
+   * @param params the method parameters, or null if none
+   * @param resultContentHandler the content handler of the result
+   */
+  public void callStreaming(
+          final String method,
+          final List<?> params,
+          final ContentHandler resultContentHandler) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(method) : "method must be a non-empty string";
+    assert resultContentHandler != null : "resultContentHandler must not be null";
+
+    final long id = idGenerator.incrementAndGet();
+    final ResultContentHandler responseContentHandler = new ResultContentHandler(resultContentHandler);
+    execute(createRequest(id, method, params).toJSONString(), 1, (Reader reader) -> {
+      new JSONParser().parse(reader, responseContentHandler);
+      return null;
+    });
+    if (responseContentHandler.errorMessage != null) {
+      throw new TexaiException(method + " failed: " + responseContentHandler.errorMessage);
+    }
+  }
+
+  /**
+   * Shuts down this client, closing its pooled connections.
+   */
+  public void shutDown() {
+    executorService.shutdown();
+    try {
+      executorService.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      // ignore
+    }
+    try {
+      httpClient.close();
+    } catch (IOException ex) {
+      LOGGER.warn("cannot close the RPC client, " + ex.getMessage());
+    }
+  }
+
+  /**
+   * Creates a JSON-RPC request object.
+   *
+   * @param id the request id
+   * @param method the RPC method
+   * @param params the method parameters, or null if none
+   *
+   * @return the JSON-RPC request object
+   */
+  @SuppressWarnings("unchecked")
+  private static JSONObject createRequest(
+          final long id,
+          final String method,
+          final List<?> params) {
+    final JSONObject jsonObject = new JSONObject();
+    jsonObject.put("jsonrpc", "2.0");
+    jsonObject.put("id", id);
+    jsonObject.put("method", method);
+    final JSONArray jsonArray = new JSONArray();
+    if (params != null) {
+      jsonArray.addAll(params);
+    }
+    jsonObject.put("params", jsonArray);
+    return jsonObject;
+  }
+
+  /**
+   * Gets the result of the given JSON-RPC response object.
+   *
+   * @param method the RPC method
+   * @param responseJSONObject the JSON-RPC response object
+   *
+   * @return the result
+   */
+  private static Object getResult(
+          final String method,
+          final JSONObject responseJSONObject) {
+    final Object error = responseJSONObject.get("error");
+    if (error != null) {
+      throw new TexaiException(method + " failed: " + error);
+    }
+    return responseJSONObject.get("result");
+  }
+
+  /**
+   * Posts the given request, and parses the response.
+   *
+   * @param requestJSONString the request
+   * @param nbrCalls the number of calls in the request
+   *
+   * @return the response, which is a JSON object, or a JSON array for a batch request
+   */
+  private Object post(
+          final String requestJSONString,
+          final int nbrCalls) {
+    return execute(requestJSONString, nbrCalls, (Reader reader) -> {
+      return new JSONParser().parse(reader);
+    });
+  }
+
+  /**
+   * Posts the given request over a pooled connection, and parses the response from the connection as it is read. The response is fully
+   * consumed so that the connection returns to the pool.
+   *
+   * @param requestJSONString the request
+   * @param nbrCalls the number of calls in the request
+   * @param responseParser the response parser
+   *
+   * @return the parsed response
+   */
+  private Object execute(
+          final String requestJSONString,
+          final int nbrCalls,
+          final ResponseParser responseParser) {
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("request: " + requestJSONString);
+    }
+    requestCount.incrementAndGet();
+    callCount.addAndGet(nbrCalls);
+    final HttpPost httpPost = new HttpPost(uri);
+    httpPost.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+    httpPost.setEntity(new StringEntity(requestJSONString, ContentType.APPLICATION_JSON));
+    try (final CloseableHttpResponse httpResponse = httpClient.execute(httpPost)) {
+      final int statusCode = httpResponse.getStatusLine().getStatusCode();
+      final HttpEntity httpEntity = httpResponse.getEntity();
+      if (statusCode == HttpStatus.SC_UNAUTHORIZED || httpEntity == null) {
+        EntityUtils.consume(httpEntity);
+        throw new TexaiException("RPC request failed: " + httpResponse.getStatusLine());
+      }
+      // bitcoind reports an RPC error with an error status and a JSON-RPC error response
+      final Object response;
+      try (final Reader reader = new InputStreamReader(httpEntity.getContent(), StandardCharsets.UTF_8)) {
+        response = responseParser.parse(reader);
+        EntityUtils.consume(httpEntity);
+      } catch (ParseException ex) {
+        throw new TexaiException("cannot parse the RPC response, status: " + httpResponse.getStatusLine() + ", " + ex);
+      }
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("response: " + httpResponse.getStatusLine() + " " + response);
+      }
+      return response;
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /**
+   * Gets the number of HTTP requests.
+   *
+   * @return the number of HTTP requests
+   */
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  /**
+   * Gets the number of calls, counting each call of a batch.
+   *
+   * @return the number of calls
+   */
+  public long getCallCount() {
+    return callCount.get();
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[BitcoinRPCClient " + uri + ", requests: " + requestCount.get() + ", calls: " + callCount.get()
+            + ", connections: " + connectionManager.getTotalStats() + "]";
+  }
+
+  /**
+   * Contains a call of an RPC method, for a batch request.
+   */
+  @Immutable
+  public static final class RPCCall {
+
+    // the RPC method
+    private final String method;
+    // the method parameters, or null if none
+    private final List<?> params;
+
+    /**
+     * Creates a new instance of RPCCall.
+     *
+     * @param method the RPC method
+     * @param params the method parameters, or null if none
+     */
+    public RPCCall(
+            final String method,
+            final List<?> params) {
+      //Preconditions
+      assert StringUtils.isNonEmptyString(method) : "method must be a non-empty string";
+
+      this.method = method;
+      this.params = params;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+      return "[RPCCall " + method + " " + params + "]";
+    }
+  }
+
+  /**
+   * Defines a parser of the response read from a connection.
+   */
+  @FunctionalInterface
+  private interface ResponseParser {
+
+    /**
+     * Parses the response.
+     *
+     * @param reader the response reader
+     *
+     * @return the parsed response
+     *
+     * @throws IOException when the response cannot be read
+     * @throws ParseException when the response is not JSON
+     */
+    Object parse(final Reader reader) throws IOException, ParseException;
+  }
+
+  /**
+   * Provides a content handler of a JSON-RPC response object, which forwards the value of its result entry to the result content handler,
+   * and keeps the message of its error entry.
+   */
+  @NotThreadSafe
+  private static final class ResultContentHandler implements ContentHandler {
+
+    // the result content handler
+    private final ContentHandler resultContentHandler;
+    // the number of open objects and arrays
+    private int depth = 0;
+    // the indicator whether the result entry is being forwarded
+    private boolean isForwardingResult = false;
+    // the indicator whether the error entry is being read
+    private boolean isReadingError = false;
+    // the error message, or null if the response has no error
+    private String errorMessage;
+
+    /**
+     * Creates a new instance of ResultContentHandler.
+     *
+     * @param resultContentHandler the result content handler
+     */
+    ResultContentHandler(final ContentHandler resultContentHandler) {
+      this.resultContentHandler = resultContentHandler;
+    }
+
+    @Override
+    public void startJSON() throws ParseException, IOException {
+    }
+
+    @Override
+    public void endJSON() throws ParseException, IOException {
+    }
+
+    @Override
+    public boolean startObject() throws ParseException, IOException {
+      depth++;
+      return !isForwardingResult || resultContentHandler.startObject();
+    }
+
+    @Override
+    public boolean endObject() throws ParseException, IOException {
+      depth--;
+      return !isForwardingResult || resultContentHandler.endObject();
+    }
+
+    @Override
+    public boolean startObjectEntry(final String key) throws ParseException, IOException {
+      if (depth == 1) {
+        if (key.equals("result")) {
+          isForwardingResult = true;
+          resultContentHandler.startJSON();
+        } else if (key.equals("error")) {
+          isReadingError = true;
+        }
+        return true;
+      }
+      return !isForwardingResult || resultContentHandler.startObjectEntry(key);
+    }
+
+    @Override
+    public boolean endObjectEntry() throws ParseException, IOException {
+      if (depth == 1) {
+        if (isForwardingResult) {
+          isForwardingResult = false;
+          resultContentHandler.endJSON();
+        }
+        isReadingError = false;
+        return true;
+      }
+      return !isForwardingResult || resultContentHandler.endObjectEntry();
+    }
+
+    @Override
+    public boolean startArray() throws ParseException, IOException {
+      depth++;
+      return !isForwardingResult || resultContentHandler.startArray();
+    }
+
+    @Override
+    public boolean endArray() throws ParseException, IOException {
+      depth--;
+      return !isForwardingResult || resultContentHandler.endArray();
+    }
+
+    @Override
+    public boolean primitive(final Object value) throws ParseException, IOException {
+      if (isReadingError && value != null) {
+        errorMessage = errorMessage == null ? value.toString() : errorMessage + " " + value;
+      }
+      return !isForwardingResult || resultContentHandler.primitive(value);
+    }
+  }
+}
@@ -0,0 +1,353 @@
+package org.texai.skill.aicoin.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import org.apache.log4j.Logger;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.texai.util.TexaiException;
+
+/**
+ * BitcoinRPCClientTest.java
+ *
+ * Description: Tests the pooled JSON-RPC client against a local stub RPC server.
+ *
+ * Copyright (C) Oct 20, 2026, Stephen L. Reed.
+ */
+public class BitcoinRPCClientTest {
+
+  // the log4j logger
+  private static final Logger LOGGER = Logger.getLogger(BitcoinRPCClientTest.class);
+  // the RPC user
+  private static final String RPC_USER = "test-user";
+  // the RPC password
+  private static final String RPC_PASSWORD = "test-password";
+  // the stub RPC server
+  private static HttpServer httpServer;
+  // the remote addresses of the connections accepted by the stub RPC server
+  private static final Set<InetSocketAddress> remoteAddresses = ConcurrentHashMap.newKeySet();
+  // the RPC client
+  private static BitcoinRPCClient bitcoinRPCClient;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    httpServer.createContext("/", BitcoinRPCClientTest::handleRequest);
+    httpServer.start();
+    bitcoinRPCClient = new BitcoinRPCClient(
+            "localhost", // host
+            httpServer.getAddress().getPort(), // port
+            RPC_USER,
+            RPC_PASSWORD,
+            2); // maxConnections
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws Exception {
+    bitcoinRPCClient.shutDown();
+    httpServer.stop(0);
+  }
+
+  /**
+   * Creates a new instance of BitcoinRPCClientTest.
+   */
+  public BitcoinRPCClientTest() {
+  }
+
+  /**
+   * Test of call method, of class BitcoinRPCClient.
+   */
+  @Test
+  public void testCall() {
+    LOGGER.info("testCall");
+
+    final long requestCount = bitcoinRPCClient.getRequestCount();
+    remoteAddresses.clear();
+    for (int i = 0; i < 20; i++) {
+      final JSONObject info = (JSONObject) bitcoinRPCClient.call("getinfo", null);
+      assertEquals(42L, info.get("blocks"));
+    }
+    assertEquals(1.5d, ((Number) bitcoinRPCClient.call("getbalance", Arrays.asList("test"))).doubleValue(), 0.0d);
+    assertEquals(requestCount + 21, bitcoinRPCClient.getRequestCount());
+    // sequential calls reuse one kept-alive connection
+    assertEquals(1, remoteAddresses.size());
+
+    try {
+      bitcoinRPCClient.call("nosuchmethod", null);
+      fail();
+    } catch (TexaiException ex) {
+      assertTrue(ex.getMessage().contains("Method not found"));
+    }
+    // the error response leaves the connection reusable
+    assertEquals(42L, ((JSONObject) bitcoinRPCClient.call("getinfo", null)).get("blocks"));
+    assertEquals(1, remoteAddresses.size());
+  }
+
+  /**
+   * Test of callBatch and callBatchAsync methods, of class BitcoinRPCClient.
+   *
+   * @throws Exception when an error occurs
+   */
+  @Test
+  public void testCallBatch() throws Exception {
+    LOGGER.info("testCallBatch");
+
+    final long requestCount = bitcoinRPCClient.getRequestCount();
+    final List<BitcoinRPCClient.RPCCall> rpcCalls = new ArrayList<>();
+    rpcCalls.add(new BitcoinRPCClient.RPCCall("echo", Arrays.asList("a")));
+    rpcCalls.add(new BitcoinRPCClient.RPCCall("getbalance", Arrays.asList("test")));
+    rpcCalls.add(new BitcoinRPCClient.RPCCall("echo", Arrays.asList("c")));
+    // the stub server answers a batch in reverse order
+    final List<Object> results = bitcoinRPCClient.callBatch(rpcCalls);
+    assertEquals(3, results.size());
+    assertEquals("a", results.get(0));
+    assertEquals(1.5d, ((Number) results.get(1)).doubleValue(), 0.0d);
+    assertEquals("c", results.get(2));
+    assertEquals(requestCount + 1, bitcoinRPCClient.getRequestCount());
+
+    final Future<List<Object>> future = bitcoinRPCClient.callBatchAsync(rpcCalls);
+    assertEquals(results, future.get());
+    assertTrue(bitcoinRPCClient.callBatch(Collections.emptyList()).isEmpty());
+
+    rpcCalls.add(new BitcoinRPCClient.RPCCall("nosuchmethod", null));
+    try {
+      bitcoinRPCClient.callBatch(rpcCalls);
+      fail();
+    } catch (TexaiException ex) {
+      assertTrue(ex.getMessage().startsWith("nosuchmethod failed"));
+    }
+  }
+
+  /**
+   * Test of callAsync method, of class BitcoinRPCClient.
+   *
+   * @throws Exception when an error occurs
+   */
+  @Test
+  public void testCallAsync() throws Exception {
+    LOGGER.info("testCallAsync");
+
+    remoteAddresses.clear();
+    final List<Future<Object>> futures = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      futures.add(bitcoinRPCClient.callAsync("echo", Arrays.asList("value-" + i)));
+    }
+    for (int i = 0; i < 50; i++) {
+      assertEquals("value-" + i, futures.get(i).get());
+    }
+    // the connections are bounded by the pool
+    assertTrue(remoteAddresses.size() <= 2);
+  }
+
+  /**
+   * Test of callStreaming method, of class BitcoinRPCClient.
+   */
+  @Test
+  public void testCallStreaming() {
+    LOGGER.info("testCallStreaming");
+
+    final BlockCountingContentHandler blockCountingContentHandler = new BlockCountingContentHandler();
+    bitcoinRPCClient.callStreaming("listblocks", Arrays.asList(1000L), blockCountingContentHandler);
+    assertEquals(1000, blockCountingContentHandler.blockCount);
+    assertEquals(999L * 1000L / 2L, blockCountingContentHandler.heightSum);
+    assertEquals(1, blockCountingContentHandler.jsonCount);
+
+    try {
+      bitcoinRPCClient.callStreaming("nosuchmethod", null, new BlockCountingContentHandler());
+      fail();
+    } catch (TexaiException ex) {
+      assertTrue(ex.getMessage().contains("Method not found"));
+    }
+  }
+
+  /**
+   * Handles a request to the stub RPC server.
+   *
+   * @param httpExchange the HTTP exchange
+   *
+   * @throws IOException when an input/output error occurs
+   */
+  @SuppressWarnings("unchecked")
+  private static void handleRequest(final HttpExchange httpExchange) throws IOException {
+    remoteAddresses.add(httpExchange.getRemoteAddress());
+    final String expectedAuthorization = "Basic " + Base64.getEncoder().encodeToString(
+            (RPC_USER + ":" + RPC_PASSWORD).getBytes(StandardCharsets.UTF_8));
+    if (!expectedAuthorization.equals(httpExchange.getRequestHeaders().getFirst("Authorization"))) {
+      httpExchange.sendResponseHeaders(401, -1);
+      httpExchange.close();
+      return;
+    }
+    final Object request;
+    try {
+      request = new JSONParser().parse(new InputStreamReader(httpExchange.getRequestBody(), StandardCharsets.UTF_8));
+    } catch (ParseException ex) {
+      throw new IOException(ex);
+    }
+    final Object response;
+    int statusCode = 200;
+    if (request instanceof JSONArray) {
+      final JSONArray responseJSONArray = new JSONArray();
+      for (final Object call : (JSONArray) request) {
+        responseJSONArray.add(0, respond((JSONObject) call));
+      }
+      response = responseJSONArray;
+    } else {
+      final JSONObject responseJSONObject = respond((JSONObject) request);
+      if (responseJSONObject.get("error") != null) {
+        // as bitcoind does
+        statusCode = 500;
+      }
+      response = responseJSONObject;
+    }
+    final byte[] responseBytes = toJSONString(response).getBytes(StandardCharsets.UTF_8);
+    httpExchange.getResponseHeaders().set("Content-Type", "application/json");
+    httpExchange.sendResponseHeaders(statusCode, responseBytes.length);
+    try (final OutputStream outputStream = httpExchange.getResponseBody()) {
+      outputStream.write(responseBytes);
+    }
+  }
+
+  /**
+   * Returns the JSON string of the given JSON value.
+   *
+   * @param value the JSON value
+   *
+   * @return the JSON string
+   */
+  private static String toJSONString(final Object value) {
+    return value instanceof JSONArray ? ((JSONArray) value).toJSONString() : ((JSONObject) value).toJSONString();
+  }
+
+  /**
+   * Responds to the given call.
+   *
+   * @param call the call
+   *
+   * @return the response
+   */
+  @SuppressWarnings("unchecked")
+  private static JSONObject respond(final JSONObject call) {
+    final JSONObject response = new JSONObject();
+    response.put("id", call.get("id"));
+    final JSONArray params = (JSONArray) call.get("params");
+    switch ((String) call.get("method")) {
+      case "getinfo":
+        final JSONObject info = new JSONObject();
+        info.put("version", 90300L);
+        info.put("blocks", 42L);
+        response.put("result", info);
+        response.put("error", null);
+        break;
+      case "getbalance":
+        response.put("result", 1.5d);
+        response.put("error", null);
+        break;
+      case "echo":
+        response.put("result", params.get(0));
+        response.put("error", null);
+        break;
+      case "listblocks":
+        final JSONArray blocks = new JSONArray();
+        for (long height = 0; height < (Long) params.get(0); height++) {
+          final JSONObject block = new JSONObject();
+          block.put("height", height);
+          block.put("hash", Long.toHexString(height * 7919L));
+          blocks.add(block);
+        }
+        response.put("result", blocks);
+        response.put("error", null);
+        break;
+      default:
+        final JSONObject error = new JSONObject();
+        error.put("code", -32601L);
+        error.put("message", "Method not found");
+        response.put("result", null);
+        response.put("error", error);
+    }
+    return response;
+  }
+
+  /**
+   * Counts the blocks of a streamed block listing.
+   */
+  private static final class BlockCountingContentHandler implements ContentHandler {
+
+    // the number of blocks
+    private int blockCount = 0;
+    // the sum of the block heights
+    private long heightSum = 0;
+    // the number of JSON documents
+    private int jsonCount = 0;
+    // the current object entry key
+    private String key;
+
+    @Override
+    public void startJSON() {
+      jsonCount++;
+    }
+
+    @Override
+    public void endJSON() {
+    }
+
+    @Override
+    public boolean startObject() {
+      blockCount++;
+      return true;
+    }
+
+    @Override
+    public boolean endObject() {
+      return true;
+    }
+
+    @Override
+    public boolean startObjectEntry(final String key) {
+      this.key = key;
+      return true;
+    }
+
+    @Override
+    public boolean endObjectEntry() {
+      return true;
+    }
+
+    @Override
+    public boolean startArray() {
+      return true;
+    }
+
+    @Override
+    public boolean endArray() {
+      return true;
+    }
+
+    @Override
+    public boolean primitive(final Object value) {
+      if ("height".equals(key)) {
+        heightSum += (Long) value;
+      }
+      return true;
+    }
+  }
+}
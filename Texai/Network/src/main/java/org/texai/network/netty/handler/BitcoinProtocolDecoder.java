@@ -11,9 +11,10 @@
 package org.texai.network.netty.handler;
 
 import com.google.bitcoin.core.BitcoinSerializer;
+import com.google.bitcoin.core.Message;
 import com.google.bitcoin.core.NetworkParameters;
+import com.google.bitcoin.core.ProtocolException;
 import static com.google.bitcoin.core.Utils.bytesToHexString;
-import java.io.IOException;
 import java.nio.ByteBuffer;
 import net.jcip.annotations.NotThreadSafe;
 import org.apache.log4j.Logger;
@@ -21,12 +22,14 @@ import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.handler.codec.frame.FrameDecoder;
-import org.texai.util.ByteUtils;
 import org.texai.util.TexaiException;
 
 /**
  * Provides a Bitcoin protocol message decoder.
  *
+ * The message frame is not copied. The bitcoin serializer reads it through a byte buffer view of the cumulated channel buffer, and
+ * verifies the payload checksum as it copies out the payload.
+ *
  * @author reed
  */
 @NotThreadSafe
@@ -34,10 +37,22 @@ public class BitcoinProtocolDecoder extends FrameDecoder {
 
   // the logger
   private static final Logger LOGGER = Logger.getLogger(BitcoinProtocolDecoder.class);
+  // the message header length, magic bytes (4), command (12), payload length (4) and checksum (4)
+  static final int HEADER_LENGTH = 24;
+  // the offset of the command within the message header
+  private static final int COMMAND_OFFSET = 4;
+  // the offset of the payload length within the message header
+  private static final int PAYLOAD_LENGTH_OFFSET = 16;
+  // the length of the command within the message header
+  private static final int COMMAND_LENGTH = 12;
   // the bitcoin serializer
   private final BitcoinSerializer bitcoinSerializer;
   // the protocol magic bytes
   final byte[] magicBytes = new byte[4];
+  // the number of decoded messages
+  private long decodedMessageCount = 0;
+  // the number of bytes discarded while searching for the protocol magic bytes, or as undecodable messages
+  private long discardedByteCount = 0;
 
   /**
    * Creates a new decoder with the specified maximum object size.
@@ -63,104 +78,136 @@ public class BitcoinProtocolDecoder extends FrameDecoder {
    * @param channelBuffer the cumulative buffer of received packets so far. Note that the buffer might be empty, which means you should not
    * make an assumption that the buffer contains at least one byte in your decoder implementation.
    *
-   * byte 0 ... 1 (object serialization protocol for port unification) bytes 1-5 ... 32 bit integer length, the maximum is a bit more than
-   * 8K
+   * bytes 0-3 ... network magic bytes, bytes 4-15 ... null padded command, bytes 16-19 ... 32 bit little endian payload length, bytes
+   * 20-23 ... payload checksum, followed by the payload
    *
    * @return the object if all its bytes were contained in the buffer. null if there's not enough data in the buffer to decode an object.
-   * @throws IOException if an input/output error occurs
-   * @throws ClassNotFoundException if the serialized object's class cannot be found
+   * @throws Exception if an error occurs
    */
   @Override
   protected Object decode(
           final ChannelHandlerContext channelHandlerContext,
           final Channel channel,
-          final ChannelBuffer channelBuffer) throws IOException, ClassNotFoundException {
+          final ChannelBuffer channelBuffer) throws Exception {
     //Preconditions
     assert channelHandlerContext != null : "channelHandlerContext must not be null";
     assert channel != null : "channel must not be null";
     assert channelBuffer != null : "channelBuffer must not be null";
 
-    if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("Receiving message:  " + bytesToHexString(channelBuffer.toByteBuffer(0, channelBuffer.readableBytes()).array()));
-    }
-
-    channelBuffer.markReaderIndex();
-    if (channelBuffer.readableBytes() < 20) {
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("not enough bytes received in the buffer to decode the payload length");
-      }
-      channelBuffer.resetReaderIndex();
+    if (channelBuffer.readableBytes() < HEADER_LENGTH) {
       // indicate that this frame is incomplete
       return null;
     }
-    // network magic bytes
-    final byte protocolByte1 = channelBuffer.readByte();
-    final byte protocolByte2 = channelBuffer.readByte();
-    final byte protocolByte3 = channelBuffer.readByte();
-    final byte protocolByte4 = channelBuffer.readByte();
-    final boolean isProtocolOK = protocolByte1 == magicBytes[0]
-            || protocolByte2 == magicBytes[1]
-            || protocolByte3 == magicBytes[2]
-            || protocolByte4 == magicBytes[3];
-
-    // the command bytes
-    final StringBuilder stringBuilder = new StringBuilder();
-    for (int i = 0; i < 12; i++) {
-      final byte commandByte = channelBuffer.readByte();
-      if (commandByte != 0) {
-        stringBuilder.append((char) commandByte);
-      }
+    final int frameIndex = channelBuffer.readerIndex();
+    if (!hasMagicBytesAt(channelBuffer, frameIndex)) {
+      // skip to the next occurrence of the magic bytes, the remaining bytes are decoded when the frame decoder calls again
+      final int skippedLength = skipToMagicBytes(channelBuffer);
+      discardedByteCount += skippedLength;
+      LOGGER.warn("wrong Bitcoin protocol bytes, skipped " + skippedLength + " bytes");
+      return null;
     }
-    if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("command: " + stringBuilder.toString());
+    final long payloadLength = 0xFFFFFFFFL & Integer.reverseBytes(channelBuffer.getInt(frameIndex + PAYLOAD_LENGTH_OFFSET));
+    if (payloadLength > Message.MAX_SIZE) {
+      throw new TexaiException("invalid Bitcoin message length " + payloadLength);
     }
-    final byte[] lengthBytes = new byte[4];
-    lengthBytes[0] = channelBuffer.readByte();
-    lengthBytes[1] = channelBuffer.readByte();
-    lengthBytes[2] = channelBuffer.readByte();
-    lengthBytes[3] = channelBuffer.readByte();
-    final long payloadLength = ByteUtils.toUint32LittleEndian(lengthBytes);
-    if (!isProtocolOK) {
-      LOGGER.warn("wrong Bitcoin protocol bytes, found " + protocolByte1
-              + ", " + protocolByte2
-              + ", " + protocolByte3
-              + ", " + protocolByte4
-              + ", payloadLength: " + payloadLength);
-    } else if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("payloadLength: " + payloadLength);
+    final int totalLength = HEADER_LENGTH + (int) payloadLength;
+    if (LOGGER.isDebugEnabled()) {
+      final byte[] headerBytes = new byte[HEADER_LENGTH];
+      channelBuffer.getBytes(frameIndex, headerBytes);
+      LOGGER.debug("command: " + getCommand(channelBuffer, frameIndex)
+              + ", payloadLength: " + payloadLength
+              + ", header: " + bytesToHexString(headerBytes));
     }
-    final long totalLength = payloadLength + 24;
-    if (channelBuffer.readableBytes() < payloadLength + 4) {
+    if (channelBuffer.readableBytes() < totalLength) {
       if (LOGGER.isDebugEnabled()) {
         LOGGER.debug("not enough bytes received in the buffer, " + channelBuffer.readableBytes()
                 + ",  to decode the Bitcoin message " + totalLength);
       }
-      channelBuffer.resetReaderIndex();
       // indicate that this frame is incomplete
       return null;
     }
 
-    // bypass the checksum which the bitcoin serializer will subsequently verify
-    channelBuffer.skipBytes(4);
-    // populate the byte buffer with the entire serialized Bitcoin message bytes.
-    if (totalLength > Integer.MAX_VALUE) {
-      throw new TexaiException("invalid Bitcoin message length " + totalLength);
+    // a heap channel buffer wraps its backing array without copying
+    final ByteBuffer byteBuffer = channelBuffer.toByteBuffer(frameIndex, totalLength);
+    channelBuffer.skipBytes(totalLength);
+    try {
+      // the serializer verifies the checksum
+      final Message message = bitcoinSerializer.deserialize(byteBuffer);
+      decodedMessageCount++;
+      return message;
+    } catch (ProtocolException ex) {
+      discardedByteCount += totalLength;
+      LOGGER.warn("discarding the undecodable Bitcoin message " + getCommand(channelBuffer, frameIndex) + ", " + ex.getMessage());
+      return null;
     }
-    final ByteBuffer byteBuffer = ByteBuffer.allocateDirect((int) totalLength);
-    byteBuffer.mark();
-    channelBuffer.resetReaderIndex();
-    for (long i = 0; i < totalLength; i++) {
-      final byte byte1 = channelBuffer.readByte();
-      byteBuffer.put(byte1);
+  }
+
+  /**
+   * Gets the number of decoded messages.
+   *
+   * @return the number of decoded messages
+   */
+  public long getDecodedMessageCount() {
+    return decodedMessageCount;
+  }
+
+  /**
+   * Gets the number of bytes discarded while searching for the protocol magic bytes, or as undecodable messages.
+   *
+   * @return the number of discarded bytes
+   */
+  public long getDiscardedByteCount() {
+    return discardedByteCount;
+  }
+
+  /**
+   * Returns whether the protocol magic bytes are at the given index of the given channel buffer.
+   *
+   * @param channelBuffer the given channel buffer
+   * @param index the given index
+   * @return whether the protocol magic bytes are at the given index
+   */
+  private boolean hasMagicBytesAt(final ChannelBuffer channelBuffer, final int index) {
+    return channelBuffer.getByte(index) == magicBytes[0]
+            && channelBuffer.getByte(index + 1) == magicBytes[1]
+            && channelBuffer.getByte(index + 2) == magicBytes[2]
+            && channelBuffer.getByte(index + 3) == magicBytes[3];
+  }
+
+  /**
+   * Skips the readable bytes which precede the next occurrence of the protocol magic bytes. If there is none, all but the last three
+   * readable bytes are skipped, as they may begin the magic bytes of a message not yet received.
+   *
+   * @param channelBuffer the given channel buffer
+   * @return the number of skipped bytes
+   */
+  private int skipToMagicBytes(final ChannelBuffer channelBuffer) {
+    final int readerIndex = channelBuffer.readerIndex();
+    final int lastIndex = channelBuffer.writerIndex() - magicBytes.length;
+    int index = readerIndex + 1;
+    while (index <= lastIndex && !hasMagicBytesAt(channelBuffer, index)) {
+      index++;
     }
-    byteBuffer.reset();
+    channelBuffer.readerIndex(index);
+    return index - readerIndex;
+  }
 
-    if (isProtocolOK) {
-      // return the deserialized Bitcoin message
-      return bitcoinSerializer.deserialize(byteBuffer);
-    } else {
-      return null;
+  /**
+   * Gets the command of the message header at the given index of the given channel buffer.
+   *
+   * @param channelBuffer the given channel buffer
+   * @param frameIndex the index of the message header
+   * @return the command
+   */
+  private static String getCommand(final ChannelBuffer channelBuffer, final int frameIndex) {
+    final StringBuilder stringBuilder = new StringBuilder(COMMAND_LENGTH);
+    for (int i = 0; i < COMMAND_LENGTH; i++) {
+      final byte commandByte = channelBuffer.getByte(frameIndex + COMMAND_OFFSET + i);
+      if (commandByte != 0) {
+        stringBuilder.append((char) commandByte);
+      }
     }
+    return stringBuilder.toString();
   }
 
 }
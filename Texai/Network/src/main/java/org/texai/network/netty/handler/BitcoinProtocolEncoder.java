@@ -32,6 +32,11 @@ public class BitcoinProtocolEncoder extends OneToOneEncoder {
   private static final Logger LOGGER = Logger.getLogger(BitcoinProtocolEncoder.class);
   // the bitcoin message serializer
   private final BitcoinSerializer bitcoinSerializer;
+  // the encoded length predictor, which starts small because most messages are much shorter than a block
+  private final EncodedLengthPredictor encodedLengthPredictor = new EncodedLengthPredictor(
+          256, // minimumLength
+          1024, // initialLength
+          Message.MAX_SIZE); // maximumLength
 
   /**
    * Creates a new BitcoinProtocolEncoder instance.
@@ -71,14 +76,13 @@ public class BitcoinProtocolEncoder extends OneToOneEncoder {
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("encoding: " + obj);
     }
-    // 1 MB Bitcoin maximum block size;
-    final int estimatedLength = 1024 * 1024;
     final ChannelBufferOutputStream channelBufferOutputStream = new ChannelBufferOutputStream(dynamicBuffer(
-            estimatedLength,
+            encodedLengthPredictor.nextLength(),
             channelHandlerContext.getChannel().getConfig().getBufferFactory()));
     // serialize the given Bitcoin message to its wire protocol
     bitcoinSerializer.serialize((Message) obj, channelBufferOutputStream);
     final ChannelBuffer encoded = channelBufferOutputStream.buffer();
+    encodedLengthPredictor.record(encoded.writerIndex());
     return encoded;
   }
 }
@@ -0,0 +1,114 @@
+/*
+ * EncodedLengthPredictor.java
+ *
+ * Created on Oct 19, 2026, 8:52:31 PM
+ *
+ * Description: Predicts the byte length of the next encoded message from the lengths of the recently encoded ones.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.network.netty.handler;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Predicts the byte length of the next encoded message from the lengths of the recently encoded ones, so that an encoder can allocate
+ * a buffer which neither expands nor wastes much space. The prediction is a power of two. It grows at once to fit a longer message,
+ * and halves only after a run of messages that would each fit in a quarter of it.
+ *
+ * @author reed
+ */
+@ThreadSafe
+public final class EncodedLengthPredictor {
+
+  // the number of consecutive short messages after which the prediction halves
+  static final int SHRINK_THRESHOLD = 16;
+  // the minimum predicted length
+  private final int minimumLength;
+  // the maximum predicted length
+  private final int maximumLength;
+  // the predicted length
+  private int predictedLength;
+  // the number of consecutive messages that would fit in a quarter of the predicted length
+  private int shortMessageCount = 0;
+
+  /**
+   * Constructs a new EncodedLengthPredictor instance.
+   *
+   * @param minimumLength the minimum predicted length
+   * @param initialLength the initial predicted length
+   * @param maximumLength the maximum predicted length
+   */
+  public EncodedLengthPredictor(
+          final int minimumLength,
+          final int initialLength,
+          final int maximumLength) {
+    //Preconditions
+    if (minimumLength <= 0 || initialLength < minimumLength || maximumLength < initialLength) {
+      throw new IllegalArgumentException("invalid lengths, minimum: " + minimumLength
+              + ", initial: " + initialLength
+              + ", maximum: " + maximumLength);
+    }
+
+    this.minimumLength = roundUpToPowerOfTwo(minimumLength);
+    this.maximumLength = roundUpToPowerOfTwo(maximumLength);
+    predictedLength = roundUpToPowerOfTwo(initialLength);
+  }
+
+  /**
+   * Gets the predicted byte length of the next encoded message.
+   *
+   * @return the predicted length
+   */
+  public synchronized int nextLength() {
+    return predictedLength;
+  }
+
+  /**
+   * Records the byte length of an encoded message.
+   *
+   * @param encodedLength the encoded message length
+   */
+  public synchronized void record(final int encodedLength) {
+    //Preconditions
+    assert encodedLength >= 0 : "encodedLength must not be negative";
+
+    if (encodedLength > predictedLength) {
+      predictedLength = Math.min(maximumLength, roundUpToPowerOfTwo(encodedLength));
+      shortMessageCount = 0;
+    } else if (encodedLength <= predictedLength >>> 2 && predictedLength > minimumLength) {
+      if (++shortMessageCount >= SHRINK_THRESHOLD) {
+        predictedLength >>>= 1;
+        shortMessageCount = 0;
+      }
+    } else {
+      shortMessageCount = 0;
+    }
+  }
+
+  /**
+   * Returns the least power of two that is not less than the given length.
+   *
+   * @param length the given length
+   * @return the least power of two that is not less than the given length
+   */
+  static int roundUpToPowerOfTwo(final int length) {
+    if (length <= 1) {
+      return 1;
+    } else if (length > 1 << 30) {
+      return 1 << 30;
+    } else {
+      return Integer.highestOneBit(length - 1) << 1;
+    }
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public synchronized String toString() {
+    return "[EncodedLengthPredictor " + predictedLength + "]";
+  }
+}
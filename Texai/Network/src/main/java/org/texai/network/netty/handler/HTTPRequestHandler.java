@@ -8,11 +8,10 @@
  */
 package org.texai.network.netty.handler;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
-import net.jcip.annotations.NotThreadSafe;
+import net.jcip.annotations.ThreadSafe;
 import org.apache.log4j.Logger;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelHandler;
@@ -20,7 +19,10 @@ import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ExceptionEvent;
 import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.handler.codec.http.HttpChunk;
 import org.jboss.netty.handler.codec.http.HttpChunkAggregator;
+import org.jboss.netty.handler.codec.http.HttpHeaders;
+import org.jboss.netty.handler.codec.http.HttpMethod;
 import org.jboss.netty.handler.codec.http.HttpRequest;
 import org.jboss.netty.handler.codec.http.HttpRequestDecoder;
 import org.jboss.netty.handler.codec.http.HttpResponseEncoder;
@@ -29,17 +31,18 @@ import org.texai.util.StringUtils;
 import org.texai.util.TexaiException;
 
 /**
- * Provides a multiplexed HTTP request handler.
+ * Provides a multiplexed HTTP request handler, which offers each request to the registered Texai HTTP request handlers whose routes
+ * match its method and path.
  *
  * @author reed
  */
-@NotThreadSafe
+@ThreadSafe
 public final class HTTPRequestHandler extends AbstractHTTPRequestHandler {
 
   // the logger
   private static final Logger LOGGER = Logger.getLogger(HTTPRequestHandler.class);
-  // the Texai HTTP request handler chain
-  private final List<TexaiHTTPRequestHandler> texaiHTTPRequestHandlers = new ArrayList<>();
+  // the route table, which is replaced rather than modified when a handler is registered or deregistered
+  private volatile HTTPRouteTable httpRouteTable = HTTPRouteTable.EMPTY;
 
   /**
    * Constructs a new HTTPRequestHandler instance.
@@ -59,38 +62,45 @@ public final class HTTPRequestHandler extends AbstractHTTPRequestHandler {
           final MessageEvent messageEvent) {
     //Preconditions
     assert messageEvent != null : "messageEvent must not be null";
-    assert !texaiHTTPRequestHandlers.isEmpty() : "texaiHTTPRequestHandlers must not be empty";
 
+    if (messageEvent.getMessage() instanceof HttpChunk) {
+      httpChunkReceived(channelHandlerContext, (HttpChunk) messageEvent.getMessage());
+      return;
+    }
     final HttpRequest httpRequest = (HttpRequest) messageEvent.getMessage();
-    LOGGER.info("---------------------------------------------------------------------");
-    LOGGER.info("listening port: " + channelHandlerContext.getChannel().getLocalAddress().toString());
-    LOGGER.info("httpRequest: " + httpRequest);
-    LOGGER.info("method: " + httpRequest.getMethod());
-    LOGGER.info("protocol version: " + httpRequest.getProtocolVersion());
-    LOGGER.info("method: " + httpRequest.getMethod());
-    LOGGER.info("uri: " + httpRequest.getUri());
-    boolean isUpgradeWebsocket = false;
-    for (final String headerName : httpRequest.getHeaderNames()) {
-      final String header = httpRequest.getHeader(headerName);
-      LOGGER.info("header: " + headerName + " " + header);
-      if (headerName.equals("Upgrade") && header.toLowerCase(Locale.ENGLISH).equals("websocket")) {
-        isUpgradeWebsocket = true;
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("---------------------------------------------------------------------");
+      LOGGER.debug("listening port: " + channelHandlerContext.getChannel().getLocalAddress().toString());
+      LOGGER.debug("httpRequest: " + httpRequest);
+      for (final String headerName : httpRequest.getHeaderNames()) {
+        LOGGER.debug("header: " + headerName + " " + httpRequest.getHeader(headerName));
       }
     }
-
-    if (isUpgradeWebsocket) {
+    final String upgradeHeader = httpRequest.getHeader(HttpHeaders.Names.UPGRADE);
+    if (upgradeHeader != null && upgradeHeader.toLowerCase(Locale.ENGLISH).equals("websocket")) {
       switchToWebSocket(httpRequest, channelHandlerContext);
       return;
     }
 
+    // parse the URI once for the route lookup and for the handlers
+    final ParsedHTTPRequest parsedHTTPRequest = new ParsedHTTPRequest(httpRequest);
+    LOGGER.info(httpRequest.getMethod() + " " + httpRequest.getUri());
     final Channel channel = messageEvent.getChannel();
-    synchronized (texaiHTTPRequestHandlers) {
-      for (final TexaiHTTPRequestHandler texaiHTTPRequestHandler : texaiHTTPRequestHandlers) {
-        final boolean isHandled = texaiHTTPRequestHandler.httpRequestReceived(httpRequest, channel);
-        if (isHandled) {
-          LOGGER.info(texaiHTTPRequestHandler.getClass().getName() + " handled the request");
-          return;
+    final HTTPRouteTable httpRouteTable1 = httpRouteTable;
+    assert httpRouteTable1.size() > 0 : "no Texai HTTP request handlers are registered";
+    for (final TexaiHTTPRequestHandler texaiHTTPRequestHandler : httpRouteTable1.lookup(
+            httpRequest.getMethod(),
+            parsedHTTPRequest.getPath())) {
+      final boolean isHandled = texaiHTTPRequestHandler.httpRequestReceived(parsedHTTPRequest, channel);
+      if (isHandled) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug(texaiHTTPRequestHandler.getClass().getName() + " handled the request");
+        }
+        if (httpRequest.isChunked()) {
+          // the body of a streamed request follows as HTTP chunks, which are given to the same handler
+          channelHandlerContext.setAttachment(texaiHTTPRequestHandler);
         }
+        return;
       }
     }
     LOGGER.info("no handler for the request: " + httpRequest);
@@ -98,21 +108,66 @@ public final class HTTPRequestHandler extends AbstractHTTPRequestHandler {
   }
 
   /**
-   * Registers the given Texai HTTP request handler.
+   * Gives a received HTTP chunk of a streamed request body to the Texai HTTP request handler which handled the request. The handler is
+   * kept in the channel handler context, which belongs to the channel, because this handler is shared by the channels.
+   *
+   * @param channelHandlerContext the channel handler context
+   * @param httpChunk the HTTP chunk
+   */
+  private void httpChunkReceived(
+          final ChannelHandlerContext channelHandlerContext,
+          final HttpChunk httpChunk) {
+    final TexaiHTTPRequestHandler texaiHTTPRequestHandler = (TexaiHTTPRequestHandler) channelHandlerContext.getAttachment();
+    if (texaiHTTPRequestHandler == null) {
+      throw new TexaiException("HTTP chunk received without a chunked request");
+    }
+    if (httpChunk.isLast()) {
+      channelHandlerContext.setAttachment(null);
+    }
+    final boolean isHandled = texaiHTTPRequestHandler.httpChunkReceived(channelHandlerContext.getChannel(), httpChunk);
+    if (!isHandled && LOGGER.isDebugEnabled()) {
+      LOGGER.debug(texaiHTTPRequestHandler.getClass().getName() + " discarded an HTTP chunk");
+    }
+  }
+
+  /**
+   * Registers the given Texai HTTP request handler for every request. Such handlers are offered a request after the handlers registered
+   * for a longer matching path prefix, and in their registration order.
    *
    * @param texaiHTTPRequestHandler the given Texai HTTP request handler
    */
   public void register(final TexaiHTTPRequestHandler texaiHTTPRequestHandler) {
+    register(
+            texaiHTTPRequestHandler,
+            null, // httpMethod
+            "/"); // pathPrefix
+  }
+
+  /**
+   * Registers the given Texai HTTP request handler for the requests having the given method and path prefix. A request is offered first
+   * to the handlers registered for its longest matching prefix, in their registration order, and then to those of shorter prefixes
+   * until one of them handles it.
+   *
+   * @param texaiHTTPRequestHandler the given Texai HTTP request handler
+   * @param httpMethod the HTTP method, or null to match any method
+   * @param pathPrefix the path prefix, whose segments must lead those of a matching request path, e.g. "/chat" matches "/chat/login"
+   */
+  public void register(
+          final TexaiHTTPRequestHandler texaiHTTPRequestHandler,
+          final HttpMethod httpMethod,
+          final String pathPrefix) {
     //Preconditions
     assert texaiHTTPRequestHandler != null : "texaiHTTPRequestHandler must not be null";
+    assert pathPrefix != null : "pathPrefix must not be null";
+    assert pathPrefix.startsWith("/") : "pathPrefix must start with a slash";
 
-    synchronized (texaiHTTPRequestHandlers) {
-      texaiHTTPRequestHandlers.add(texaiHTTPRequestHandler);
+    synchronized (this) {
+      httpRouteTable = httpRouteTable.add(texaiHTTPRequestHandler, httpMethod, pathPrefix);
     }
   }
 
   /**
-   * Deregisters the given Texai HTTP request handler.
+   * Deregisters the given Texai HTTP request handler from all its routes.
    *
    * @param texaiHTTPRequestHandler the given Texai HTTP request handler
    */
@@ -120,8 +175,8 @@ public final class HTTPRequestHandler extends AbstractHTTPRequestHandler {
     //Preconditions
     assert texaiHTTPRequestHandler != null : "texaiHTTPRequestHandler must not be null";
 
-    synchronized (texaiHTTPRequestHandlers) {
-      texaiHTTPRequestHandlers.remove(texaiHTTPRequestHandler);
+    synchronized (this) {
+      httpRouteTable = httpRouteTable.remove(texaiHTTPRequestHandler);
     }
   }
 
@@ -179,11 +234,12 @@ public final class HTTPRequestHandler extends AbstractHTTPRequestHandler {
   }
 
   /**
-   * Gets the Texai HTTP request handler chain. Caller should synchronized on this.
+   * Gets the registered Texai HTTP request handlers in registration order. The returned list is an unmodifiable snapshot, which later
+   * registrations do not change.
    *
-   * @return the Texai HTTP request handler chain
+   * @return the registered Texai HTTP request handlers
    */
   public List<TexaiHTTPRequestHandler> getTexaiHTTPRequestHandlers() {
-    return texaiHTTPRequestHandlers;
+    return httpRouteTable.getTexaiHTTPRequestHandlers();
   }
 }
@@ -0,0 +1,258 @@
+/*
+ * HTTPRouteTable.java
+ *
+ * Created on Oct 19, 2026, 11:58:13 PM
+ *
+ * Description: Provides an immutable table of HTTP routes, indexed by a trie of path segments.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.network.netty.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.jcip.annotations.Immutable;
+import org.jboss.netty.handler.codec.http.HttpMethod;
+
+/**
+ * Provides an immutable table of HTTP routes, indexed by a trie of path segments. A route's path prefix matches a request path whose
+ * leading segments equal the prefix segments, so "/chat" matches "/chat" and "/chat/login" but not "/chatter", and "/" matches every
+ * path. The HTTP request handler replaces its table with a new one whenever a Texai HTTP request handler is registered or deregistered,
+ * so that request dispatch reads a table without locking.
+ *
+ * @author reed
+ */
+@Immutable
+final class HTTPRouteTable {
+
+  // the empty route table
+  static final HTTPRouteTable EMPTY = new HTTPRouteTable(Collections.<Route>emptyList());
+  // the routes in registration order
+  private final List<Route> routes;
+  // the distinct registered handlers in registration order
+  private final List<TexaiHTTPRequestHandler> texaiHTTPRequestHandlers;
+  // the root trie node, whose routes have the prefix "/"
+  private final Node root = new Node();
+
+  /**
+   * Constructs a new HTTPRouteTable instance.
+   *
+   * @param routes the routes in registration order
+   */
+  private HTTPRouteTable(final List<Route> routes) {
+    this.routes = Collections.unmodifiableList(routes);
+    final List<TexaiHTTPRequestHandler> texaiHTTPRequestHandlers1 = new ArrayList<>();
+    for (final Route route : routes) {
+      if (!texaiHTTPRequestHandlers1.contains(route.texaiHTTPRequestHandler)) {
+        texaiHTTPRequestHandlers1.add(route.texaiHTTPRequestHandler);
+      }
+      Node node = root;
+      for (final String segment : route.segments) {
+        Node child = node.children.get(segment);
+        if (child == null) {
+          child = new Node();
+          node.children.put(segment, child);
+        }
+        node = child;
+      }
+      node.routes.add(route);
+    }
+    texaiHTTPRequestHandlers = Collections.unmodifiableList(texaiHTTPRequestHandlers1);
+  }
+
+  /**
+   * Returns a new route table having the routes of this one and the given route.
+   *
+   * @param texaiHTTPRequestHandler the Texai HTTP request handler
+   * @param httpMethod the HTTP method, or null to match any method
+   * @param pathPrefix the path prefix
+   *
+   * @return the new route table
+   */
+  HTTPRouteTable add(
+          final TexaiHTTPRequestHandler texaiHTTPRequestHandler,
+          final HttpMethod httpMethod,
+          final String pathPrefix) {
+    //Preconditions
+    assert texaiHTTPRequestHandler != null : "texaiHTTPRequestHandler must not be null";
+    assert pathPrefix != null : "pathPrefix must not be null";
+    assert pathPrefix.startsWith("/") : "pathPrefix must start with a slash";
+
+    final List<Route> routes1 = new ArrayList<>(routes);
+    routes1.add(new Route(texaiHTTPRequestHandler, httpMethod, splitPath(pathPrefix)));
+    return new HTTPRouteTable(routes1);
+  }
+
+  /**
+   * Returns a new route table having the routes of this one except those of the given handler.
+   *
+   * @param texaiHTTPRequestHandler the given Texai HTTP request handler
+   *
+   * @return the new route table
+   */
+  HTTPRouteTable remove(final TexaiHTTPRequestHandler texaiHTTPRequestHandler) {
+    //Preconditions
+    assert texaiHTTPRequestHandler != null : "texaiHTTPRequestHandler must not be null";
+
+    final List<Route> routes1 = new ArrayList<>(routes.size());
+    for (final Route route : routes) {
+      if (!route.texaiHTTPRequestHandler.equals(texaiHTTPRequestHandler)) {
+        routes1.add(route);
+      }
+    }
+    return new HTTPRouteTable(routes1);
+  }
+
+  /**
+   * Returns the handlers whose routes match the given method and path, those of longer path prefixes first, and in registration order
+   * for equal prefixes. A handler having several matching routes is returned once.
+   *
+   * @param httpMethod the request method
+   * @param path the request path
+   *
+   * @return the matching handlers in the order in which the request is offered to them
+   */
+  List<TexaiHTTPRequestHandler> lookup(
+          final HttpMethod httpMethod,
+          final String path) {
+    //Preconditions
+    assert httpMethod != null : "httpMethod must not be null";
+    assert path != null : "path must not be null";
+
+    // collect the trie nodes along the path
+    final List<Node> matchedNodes = new ArrayList<>();
+    matchedNodes.add(root);
+    Node node = root;
+    int segmentStart = 0;
+    final int pathLength = path.length();
+    while (segmentStart < pathLength && !node.children.isEmpty()) {
+      int segmentEnd = path.indexOf('/', segmentStart);
+      if (segmentEnd < 0) {
+        segmentEnd = pathLength;
+      }
+      if (segmentEnd > segmentStart) {
+        node = node.children.get(path.substring(segmentStart, segmentEnd));
+        if (node == null) {
+          break;
+        }
+        matchedNodes.add(node);
+      }
+      segmentStart = segmentEnd + 1;
+    }
+
+    final List<TexaiHTTPRequestHandler> matchedHandlers = new ArrayList<>();
+    for (int i = matchedNodes.size() - 1; i >= 0; i--) {
+      for (final Route route : matchedNodes.get(i).routes) {
+        if ((route.httpMethod == null || route.httpMethod.equals(httpMethod))
+                && !matchedHandlers.contains(route.texaiHTTPRequestHandler)) {
+          matchedHandlers.add(route.texaiHTTPRequestHandler);
+        }
+      }
+    }
+    return matchedHandlers;
+  }
+
+  /**
+   * Gets the distinct registered handlers in registration order.
+   *
+   * @return the unmodifiable list of registered handlers
+   */
+  List<TexaiHTTPRequestHandler> getTexaiHTTPRequestHandlers() {
+    return texaiHTTPRequestHandlers;
+  }
+
+  /**
+   * Gets the number of routes.
+   *
+   * @return the number of routes
+   */
+  int size() {
+    return routes.size();
+  }
+
+  /**
+   * Splits the given path into its non-empty segments.
+   *
+   * @param path the given path
+   *
+   * @return the path segments
+   */
+  static List<String> splitPath(final String path) {
+    final List<String> segments = new ArrayList<>();
+    for (final String segment : path.split("/")) {
+      if (!segment.isEmpty()) {
+        segments.add(segment);
+      }
+    }
+    return segments;
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[HTTPRouteTable " + routes + "]";
+  }
+
+  /** Contains a route, which offers the matching requests to a Texai HTTP request handler. */
+  @Immutable
+  private static final class Route {
+
+    // the Texai HTTP request handler
+    private final TexaiHTTPRequestHandler texaiHTTPRequestHandler;
+    // the HTTP method, or null to match any method
+    private final HttpMethod httpMethod;
+    // the path prefix segments
+    private final List<String> segments;
+
+    /**
+     * Constructs a new Route instance.
+     *
+     * @param texaiHTTPRequestHandler the Texai HTTP request handler
+     * @param httpMethod the HTTP method, or null to match any method
+     * @param segments the path prefix segments
+     */
+    Route(
+            final TexaiHTTPRequestHandler texaiHTTPRequestHandler,
+            final HttpMethod httpMethod,
+            final List<String> segments) {
+      this.texaiHTTPRequestHandler = texaiHTTPRequestHandler;
+      this.httpMethod = httpMethod;
+      this.segments = segments;
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+      final StringBuilder stringBuilder = new StringBuilder();
+      stringBuilder.append(httpMethod == null ? "*" : httpMethod).append(' ');
+      if (segments.isEmpty()) {
+        stringBuilder.append('/');
+      }
+      for (final String segment : segments) {
+        stringBuilder.append('/').append(segment);
+      }
+      stringBuilder.append(" --> ").append(texaiHTTPRequestHandler.getClass().getSimpleName());
+      return stringBuilder.toString();
+    }
+  }
+
+  /** Contains a trie node, whose routes have the path prefix spelled by the segments leading to it. */
+  private static final class Node {
+
+    // the child nodes, path segment --> node
+    private final Map<String, Node> children = new HashMap<>();
+    // the routes ending at this node, in registration order
+    private final List<Route> routes = new ArrayList<>();
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * ParsedHTTPRequest.java
+ *
+ * Created on Oct 19, 2026, 11:52:40 PM
+ *
+ * Description: Contains an HTTP request together with its once-parsed URI path and query parameters.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.network.netty.handler;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.Map;
+import net.jcip.annotations.Immutable;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+import org.texai.util.HTTPUtils;
+import org.texai.util.TexaiException;
+
+/**
+ * Contains an HTTP request together with its URI path and query parameters, which are parsed once by the HTTP request handler and then
+ * shared by the route lookup and by each Texai HTTP request handler to which the request is offered.
+ *
+ * @author reed
+ */
+@Immutable
+public final class ParsedHTTPRequest {
+
+  // the HTTP request
+  private final HttpRequest httpRequest;
+  // the decoded URI path
+  private final String path;
+  // the raw URI query, or null if absent
+  private final String rawQuery;
+  // the query parameter dictionary, name --> value
+  private final Map<String, String> parameterDictionary;
+
+  /**
+   * Constructs a new ParsedHTTPRequest instance.
+   *
+   * @param httpRequest the HTTP request
+   */
+  public ParsedHTTPRequest(final HttpRequest httpRequest) {
+    //Preconditions
+    assert httpRequest != null : "httpRequest must not be null";
+
+    this.httpRequest = httpRequest;
+    final URI uri;
+    try {
+      uri = new URI(httpRequest.getUri());
+    } catch (URISyntaxException ex) {
+      throw new TexaiException(ex);
+    }
+    final String path1 = uri.getPath();
+    path = path1 == null ? "" : path1;
+    rawQuery = uri.getRawQuery();
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      parameterDictionary = Collections.emptyMap();
+    } else {
+      parameterDictionary = Collections.unmodifiableMap(HTTPUtils.getQueryMap(rawQuery));
+    }
+  }
+
+  /**
+   * Gets the HTTP request.
+   *
+   * @return the HTTP request
+   */
+  public HttpRequest getHttpRequest() {
+    return httpRequest;
+  }
+
+  /**
+   * Gets the decoded URI path.
+   *
+   * @return the URI path
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Gets the raw URI query.
+   *
+   * @return the raw URI query, or null if absent
+   */
+  public String getRawQuery() {
+    return rawQuery;
+  }
+
+  /**
+   * Gets the query parameter dictionary.
+   *
+   * @return the unmodifiable query parameter dictionary, name --> value
+   */
+  public Map<String, String> getParameterDictionary() {
+    return parameterDictionary;
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[" + httpRequest.getMethod() + " " + path + (rawQuery == null ? "" : "?" + rawQuery) + "]";
+  }
+}
@@ -16,6 +16,11 @@
 package org.texai.network.netty.handler;
 
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.net.ssl.SSLEngine;
+import net.jcip.annotations.ThreadSafe;
 import org.apache.log4j.Logger;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
@@ -29,13 +34,20 @@ import org.jboss.netty.handler.codec.http.HttpRequestDecoder;
 import org.jboss.netty.handler.codec.http.HttpResponseEncoder;
 import org.jboss.netty.handler.ssl.SslHandler;
 import org.texai.network.netty.NetworkConstants;
+import org.texai.ssl.TexaiSSLContextFactory;
 import org.texai.util.StringUtils;
 import org.texai.util.TexaiException;
+import org.texai.x509.X509SecurityInfo;
 
 /**
  * Manipulates the current pipeline dynamically to switch protocols that share the single port. Web socket protocol switching is performed
  * within the HTTP request handler.
  *
+ * An Albus frame is recognized by its first byte together with a valid serialized object length in the four bytes which follow. A TLS
+ * ClientHello received on an unencrypted port is recognized by its record header when TLS is configured, in which case an SslHandler and a
+ * new port unification handler are inserted to recognize the protocol of the decrypted bytes. An HTTP request is given either an
+ * aggregating pipeline, which buffers whole bodies, or a streaming pipeline, which delivers a large body as HTTP chunks.
+ *
  * @author reed
  *
  */
@@ -43,11 +55,27 @@ public class PortUnificationHandler extends FrameDecoder {
 
   // the logger
   private static final Logger LOGGER = Logger.getLogger(PortUnificationHandler.class);
+  // the maximum HTTP body length which the aggregating HTTP pipeline buffers
+  private static final int MAX_AGGREGATED_CONTENT_LENGTH = 1048576;
+  // the TLS handshake record content type
+  private static final int TLS_HANDSHAKE_RECORD_TYPE = 0x16;
+  // the TLS record major version, which is 3 for SSLv3 and every TLS version
+  private static final int TLS_MAJOR_VERSION = 3;
   // dependency injection of the business logic handlers enables the substitution of stubs for unit testing this class
   // the Albus hierarchical control network channel handler
   private AbstractAlbusHCSMessageHandler albusHCNMessageHandler;
   // the HTTP request handler
   private AbstractHTTPRequestHandler httpRequestHandler;
+  // the indicator whether HTTP bodies are streamed as HTTP chunks rather than aggregated
+  private boolean isHTTPStreaming = false;
+  // the X.509 security information for a TLS connection recognized on an unencrypted port, or null if TLS is not recognized
+  private X509SecurityInfo x509SecurityInfo;
+  // the indicator whether a recognized TLS connection must authenticate the client's certificate
+  private boolean needClientAuth;
+  // the indicator whether a recognized TLS connection uses strong ciphers
+  private boolean isStrongCiphers;
+  // the protocol counters, which are shared by the port's connections, or null if protocols are not counted
+  private ProtocolCounters protocolCounters;
 
   /**
    * Constructs a new PortUnificationHandler instance.
@@ -72,26 +100,41 @@ public class PortUnificationHandler extends FrameDecoder {
           final ChannelBuffer channelBuffer) {
 
     final int readableBytes = channelBuffer.readableBytes();
-    LOGGER.info("readable bytes: " + readableBytes);
-
-    // use the first two bytes of the channel buffer to detect the protocol
-    if (readableBytes < 2) {
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("readable bytes: " + readableBytes);
+    }
+    if (readableBytes < 1) {
       return null;
     }
 
+    // an Albus frame is recognized by its first byte, and by the serialized object length which follows it
     final int magic1 = channelBuffer.getUnsignedByte(channelBuffer.readerIndex());
-    final int magic2 = channelBuffer.getUnsignedByte(channelBuffer.readerIndex() + 1);
-
     if (isSerializedObject(magic1)) {
+      if (readableBytes < 5) {
+        return null;
+      }
+      if (!isValidObjectLength(channelBuffer.getInt(channelBuffer.readerIndex() + 1))) {
+        return closeUnknownProtocol(channelHandlerContext, channelBuffer);
+      }
+      count(Protocol.ALBUS_HCN);
       switchToAlbusHCN(channelHandlerContext);
-    } else if (isHttp(magic1, magic2)) {
+      return channelBuffer.readBytes(channelBuffer.readableBytes());
+    }
+
+    // use the first two bytes of the channel buffer to detect the other protocols
+    if (readableBytes < 2) {
+      return null;
+    }
+    final int magic2 = channelBuffer.getUnsignedByte(channelBuffer.readerIndex() + 1);
+
+    if (isHttp(magic1, magic2)) {
+      count(isHTTPStreaming ? Protocol.STREAMING_HTTP : Protocol.HTTP);
       switchToHttp(channelHandlerContext);
+    } else if (isTLS(magic1, magic2) && x509SecurityInfo != null && channelHandlerContext.getPipeline().get(SslHandler.class) == null) {
+      count(Protocol.TLS);
+      switchToTLS(channelHandlerContext);
     } else {
-      LOGGER.info("unknown protocol");
-      // unknown protocol; discard everything and close the connection
-      channelBuffer.skipBytes(channelBuffer.readableBytes());
-      channelHandlerContext.getChannel().close();
-      return null;
+      return closeUnknownProtocol(channelHandlerContext, channelBuffer);
     }
 
     // forward the current read buffer as-is to the new handlers
@@ -109,6 +152,58 @@ public class PortUnificationHandler extends FrameDecoder {
     return magic1 == NetworkConstants.OBJECT_SERIALIZATION_PROTOCOL;
   }
 
+  /**
+   * Returns whether the given length of an Albus frame is valid.
+   *
+   * @param objectLength the serialized object length which follows the protocol byte
+   *
+   * @return whether the length is valid
+   */
+  private boolean isValidObjectLength(final int objectLength) {
+    return objectLength > 0 && objectLength <= TaggedObjectDecoder.DEFAULT_MAX_OBJECT_SIZE;
+  }
+
+  /**
+   * Returns whether this is a TLS ClientHello, whose record header begins with the handshake content type and major version 3.
+   *
+   * @param magic1 the first byte of the message
+   * @param magic2 the second byte of the message
+   *
+   * @return whether this is a TLS ClientHello
+   */
+  private boolean isTLS(final int magic1, final int magic2) {
+    return magic1 == TLS_HANDSHAKE_RECORD_TYPE && magic2 == TLS_MAJOR_VERSION;
+  }
+
+  /**
+   * Discards the received bytes of an unknown protocol and closes the connection.
+   *
+   * @param channelHandlerContext the channel handler context
+   * @param channelBuffer the cumulative buffer of received packets so far
+   *
+   * @return null, as nothing is forwarded
+   */
+  private Object closeUnknownProtocol(
+          final ChannelHandlerContext channelHandlerContext,
+          final ChannelBuffer channelBuffer) {
+    LOGGER.info("unknown protocol");
+    count(Protocol.UNKNOWN);
+    channelBuffer.skipBytes(channelBuffer.readableBytes());
+    channelHandlerContext.getChannel().close();
+    return null;
+  }
+
+  /**
+   * Counts a connection of the given protocol.
+   *
+   * @param protocol the recognized protocol
+   */
+  private void count(final Protocol protocol) {
+    if (protocolCounters != null) {
+      protocolCounters.increment(protocol);
+    }
+  }
+
   /**
    * Returns whether this is an HTTP message.
    *
@@ -139,19 +234,54 @@ public class PortUnificationHandler extends FrameDecoder {
     assert channelHandlerContext != null : "channelHandlerContext must not be null";
 
     final ChannelPipeline channelPipeline = channelHandlerContext.getPipeline();
-    LOGGER.info("switching to HTTP channel pipeline from: " + channelPipeline);
-    final Collection<ChannelHandler> channelHandlers = channelPipeline.toMap().values();
-    for (final ChannelHandler channelHandler : channelHandlers) {
-      if (!(SslHandler.class.isAssignableFrom(channelHandler.getClass())
-              || PortUnificationHandler.class.isAssignableFrom(channelHandler.getClass()))) {
-      }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("switching to HTTP channel pipeline from: " + channelPipeline);
     }
     channelPipeline.addLast("encoder", new HttpResponseEncoder());
     channelPipeline.addLast("decoder", new HttpRequestDecoder());
-    channelPipeline.addLast("aggregator", new HttpChunkAggregator(1048576));
+    if (!isHTTPStreaming) {
+      channelPipeline.addLast("aggregator", new HttpChunkAggregator(MAX_AGGREGATED_CONTENT_LENGTH));
+    }
     channelPipeline.addLast("http-request-handler", httpRequestHandler);
     channelPipeline.remove(this);
-    LOGGER.info("HTTP channel pipeline: " + channelPipeline);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("HTTP channel pipeline: " + channelPipeline);
+    }
+  }
+
+  /**
+   * Dynamically switches the channel pipeline to decrypt a TLS connection, followed by a new port unification handler which recognizes the
+   * protocol of the decrypted bytes.
+   *
+   * @param channelHandlerContext the channel handler context
+   */
+  private void switchToTLS(final ChannelHandlerContext channelHandlerContext) {
+    //Preconditions
+    assert channelHandlerContext != null : "channelHandlerContext must not be null";
+    assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
+
+    final ChannelPipeline channelPipeline = channelHandlerContext.getPipeline();
+    final SSLEngine sslEngine = TexaiSSLContextFactory.createSSLEngine(
+            x509SecurityInfo,
+            null, // peerHost
+            -1); // peerPort
+    TexaiSSLContextFactory.configureSSLEngine(
+            sslEngine,
+            false, // useClientMode
+            needClientAuth,
+            isStrongCiphers);
+    final PortUnificationHandler portUnificationHandler = new PortUnificationHandler();
+    portUnificationHandler.albusHCNMessageHandler = albusHCNMessageHandler;
+    portUnificationHandler.httpRequestHandler = httpRequestHandler;
+    portUnificationHandler.isHTTPStreaming = isHTTPStreaming;
+    portUnificationHandler.protocolCounters = protocolCounters;
+    // the decrypted connection is not examined for a nested TLS ClientHello
+    channelPipeline.addLast("ssl", new SslHandler(sslEngine));
+    channelPipeline.addLast("tls-port-unification", portUnificationHandler);
+    channelPipeline.remove(this);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("TLS channel pipeline: " + channelPipeline);
+    }
   }
 
   /**
@@ -166,7 +296,9 @@ public class PortUnificationHandler extends FrameDecoder {
     assert albusHCNMessageHandler != null : "albusHCNMessageHandler must not be null";
 
     final ChannelPipeline channelPipeline = channelHandlerContext.getPipeline();
-    LOGGER.info("switching to Albus HCN channel pipeline from: " + channelPipeline);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("switching to Albus HCN channel pipeline from: " + channelPipeline);
+    }
     final Collection<ChannelHandler> channelHandlers = channelPipeline.toMap().values();
     for (final ChannelHandler channelHandler : channelHandlers) {
       if (!(SslHandler.class.isAssignableFrom(channelHandler.getClass())
@@ -179,7 +311,9 @@ public class PortUnificationHandler extends FrameDecoder {
     channelPipeline.addLast("encoder", new TaggedObjectEncoder());
     channelPipeline.addLast("albus-handler", albusHCNMessageHandler);
     channelPipeline.remove(this);
-    LOGGER.info("Albus HCN pipeline: " + channelPipeline.toString());
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Albus HCN pipeline: " + channelPipeline.toString());
+    }
   }
 
   /**
@@ -236,4 +370,121 @@ public class PortUnificationHandler extends FrameDecoder {
 
     this.httpRequestHandler = httpRequestHandler;
   }
+
+  /**
+   * Sets whether HTTP bodies are streamed to the HTTP request handler as HTTP chunks rather than aggregated into the request, so that a
+   * large upload is not buffered in the heap.
+   *
+   * @param isHTTPStreaming the indicator whether HTTP bodies are streamed
+   */
+  public void setHTTPStreaming(final boolean isHTTPStreaming) {
+    this.isHTTPStreaming = isHTTPStreaming;
+  }
+
+  /**
+   * Configures the recognition of a TLS connection on an unencrypted port.
+   *
+   * @param x509SecurityInfo the X.509 security information
+   * @param needClientAuth the indicator whether the client's certificate is authenticated
+   * @param isStrongCiphers the indicator whether strong ciphers are used
+   */
+  public void setTLSConfiguration(
+          final X509SecurityInfo x509SecurityInfo,
+          final boolean needClientAuth,
+          final boolean isStrongCiphers) {
+    //Preconditions
+    assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
+
+    this.x509SecurityInfo = x509SecurityInfo;
+    this.needClientAuth = needClientAuth;
+    this.isStrongCiphers = isStrongCiphers;
+  }
+
+  /**
+   * Sets the protocol counters, which are shared by the port's connections.
+   *
+   * @param protocolCounters the protocol counters
+   */
+  public void setProtocolCounters(final ProtocolCounters protocolCounters) {
+    //Preconditions
+    assert protocolCounters != null : "protocolCounters must not be null";
+
+    this.protocolCounters = protocolCounters;
+  }
+
+  /**
+   * The protocols recognized by the port unification handler.
+   */
+  public enum Protocol {
+
+    /**
+     * a serialized object message of the Albus hierarchical control network
+     */
+    ALBUS_HCN,
+    /**
+     * an HTTP request whose body is aggregated
+     */
+    HTTP,
+    /**
+     * an HTTP request whose body is streamed as HTTP chunks
+     */
+    STREAMING_HTTP,
+    /**
+     * a TLS connection on an unencrypted port, whose decrypted protocol is counted again
+     */
+    TLS,
+    /**
+     * an unknown protocol, whose connection is closed
+     */
+    UNKNOWN
+  }
+
+  /**
+   * Counts the connections of each protocol recognized on a port.
+   */
+  @ThreadSafe
+  public static final class ProtocolCounters {
+
+    // the connection counts, protocol --> count
+    private final Map<Protocol, AtomicLong> countDictionary = new EnumMap<>(Protocol.class);
+
+    /**
+     * Creates a new instance of ProtocolCounters.
+     */
+    public ProtocolCounters() {
+      for (final Protocol protocol : Protocol.values()) {
+        countDictionary.put(protocol, new AtomicLong());
+      }
+    }
+
+    /**
+     * Counts a connection of the given protocol.
+     *
+     * @param protocol the protocol
+     */
+    public void increment(final Protocol protocol) {
+      countDictionary.get(protocol).incrementAndGet();
+    }
+
+    /**
+     * Gets the number of connections of the given protocol.
+     *
+     * @param protocol the protocol
+     *
+     * @return the number of connections
+     */
+    public long getCount(final Protocol protocol) {
+      return countDictionary.get(protocol).get();
+    }
+
+    /**
+     * Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+      return "[ProtocolCounters " + countDictionary + "]";
+    }
+  }
 }
@@ -0,0 +1,905 @@
+/*
+ * StaticFileHandler.java
+ *
+ * Created on Oct 19, 2026, 10:58:27 PM
+ *
+ * Description: Provides a Texai HTTP request handler which serves static files from a bounded cache of encoded responses.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.network.netty.handler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.DefaultFileRegion;
+import org.jboss.netty.handler.codec.http.DefaultHttpResponse;
+import org.jboss.netty.handler.codec.http.HttpHeaders;
+import org.jboss.netty.handler.codec.http.HttpMethod;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+import org.jboss.netty.handler.codec.http.HttpResponse;
+import org.jboss.netty.handler.codec.http.HttpResponseStatus;
+import org.jboss.netty.handler.codec.http.HttpVersion;
+import org.jboss.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.jboss.netty.handler.ssl.SslHandler;
+import org.texai.network.netty.utils.NettyHTTPUtils;
+import org.texai.util.TexaiException;
+
+/**
+ * Provides a Texai HTTP request handler which serves static files beneath a root directory. Files no longer than the cacheable length
+ * are kept in a least-recently-used cache bounded by a byte budget, together with their gzip encoding when that is smaller, and are
+ * revalidated against the file's modification time and length on each request. Responses carry an ETag and Last-Modified header, and
+ * conditional requests which match them are answered with 304 Not Modified. The gzip encoding has its own ETag, and the responses for a
+ * file having a gzip encoding vary by the Accept-Encoding header.
+ *
+ * Longer files are not cached. Without SSL they are transferred from the file to the socket by a zero-copy file region; with SSL they
+ * are written in pieces, each read when the previous one has been written, so that a large file does not occupy the heap.
+ *
+ * @author reed
+ */
+@ThreadSafe
+public final class StaticFileHandler implements TexaiHTTPRequestHandler {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(StaticFileHandler.class);
+  // the default cache byte budget
+  public static final long DEFAULT_CACHE_BYTE_BUDGET = 32L * 1024 * 1024;
+  // the default length of the longest cached file
+  public static final int DEFAULT_MAXIMUM_CACHED_FILE_LENGTH = 1024 * 1024;
+  // the length of the pieces in which a long file is written to an SSL channel
+  static final int PIECE_LENGTH = 64 * 1024;
+  // the HTTP date format, which is not thread-safe
+  private static final String HTTP_DATE_FORMAT = "EEE, dd MMM yyyy HH:mm:ss zzz";
+  // the content type dictionary, file extension --> content type
+  private static final Map<String, String> CONTENT_TYPE_DICTIONARY = new HashMap<>();
+
+  static {
+    CONTENT_TYPE_DICTIONARY.put("html", "text/html; charset=UTF-8");
+    CONTENT_TYPE_DICTIONARY.put("htm", "text/html; charset=UTF-8");
+    CONTENT_TYPE_DICTIONARY.put("css", "text/css; charset=UTF-8");
+    CONTENT_TYPE_DICTIONARY.put("js", "application/javascript; charset=UTF-8");
+    CONTENT_TYPE_DICTIONARY.put("json", "application/json; charset=UTF-8");
+    CONTENT_TYPE_DICTIONARY.put("txt", "text/plain; charset=UTF-8");
+    CONTENT_TYPE_DICTIONARY.put("xml", "text/xml; charset=UTF-8");
+    CONTENT_TYPE_DICTIONARY.put("svg", "image/svg+xml");
+    CONTENT_TYPE_DICTIONARY.put("png", "image/png");
+    CONTENT_TYPE_DICTIONARY.put("jpg", "image/jpeg");
+    CONTENT_TYPE_DICTIONARY.put("jpeg", "image/jpeg");
+    CONTENT_TYPE_DICTIONARY.put("gif", "image/gif");
+    CONTENT_TYPE_DICTIONARY.put("ico", "image/x-icon");
+  }
+
+  // the root directory
+  private final File rootDirectory;
+  // the canonical path of the root directory with a trailing separator, which prefixes the path of every served file
+  private final String canonicalRootPath;
+  // the cache byte budget
+  private final long cacheByteBudget;
+  // the length of the longest cached file
+  private final int maximumCachedFileLength;
+  // the cache in least-recently-used order, path --> cached file
+  private final LinkedHashMap<String, CachedFile> cache = new LinkedHashMap<>(
+          16, // initialCapacity
+          0.75f, // loadFactor
+          true); // accessOrder
+  // the number of bytes held by the cache, guarded by the cache
+  private long cachedByteCount = 0L;
+  // the number of responses served from the cache
+  private final AtomicLong cacheHitCount = new AtomicLong();
+  // the number of responses which read their file
+  private final AtomicLong cacheMissCount = new AtomicLong();
+  // the number of 304 Not Modified responses
+  private final AtomicLong notModifiedCount = new AtomicLong();
+  // the number of files evicted from the cache to stay within its byte budget
+  private final AtomicLong evictionCount = new AtomicLong();
+  // the number of gzip encoded responses
+  private final AtomicLong gzipResponseCount = new AtomicLong();
+  // the number of responses transferred by a zero-copy file region
+  private final AtomicLong zeroCopyResponseCount = new AtomicLong();
+  // the number of response content bytes served
+  private final AtomicLong bytesServed = new AtomicLong();
+
+  /**
+   * Constructs a new StaticFileHandler instance having the default cache byte budget and cacheable file length.
+   *
+   * @param rootDirectory the root directory
+   */
+  public StaticFileHandler(final File rootDirectory) {
+    this(rootDirectory, DEFAULT_CACHE_BYTE_BUDGET, DEFAULT_MAXIMUM_CACHED_FILE_LENGTH);
+  }
+
+  /**
+   * Constructs a new StaticFileHandler instance.
+   *
+   * @param rootDirectory the root directory
+   * @param cacheByteBudget the cache byte budget
+   * @param maximumCachedFileLength the length of the longest cached file
+   */
+  public StaticFileHandler(
+          final File rootDirectory,
+          final long cacheByteBudget,
+          final int maximumCachedFileLength) {
+    //Preconditions
+    assert rootDirectory != null : "rootDirectory must not be null";
+    if (cacheByteBudget < 0) {
+      throw new IllegalArgumentException("cacheByteBudget: " + cacheByteBudget);
+    }
+    if (maximumCachedFileLength < 0) {
+      throw new IllegalArgumentException("maximumCachedFileLength: " + maximumCachedFileLength);
+    }
+
+    this.rootDirectory = rootDirectory;
+    try {
+      canonicalRootPath = rootDirectory.getCanonicalPath() + File.separator;
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    this.cacheByteBudget = cacheByteBudget;
+    this.maximumCachedFileLength = maximumCachedFileLength;
+  }
+
+  /**
+   * Handles the HTTP request by serving the file at the request path.
+   *
+   * @param httpRequest the HTTP request
+   * @param channel the channel
+   *
+   * @return the indicator whether the HTTP request was handled, which is false if it is neither GET nor HEAD, or if there is no such file
+   */
+  @Override
+  public boolean httpRequestReceived(
+          final HttpRequest httpRequest,
+          final Channel channel) {
+    return httpRequestReceived(new ParsedHTTPRequest(httpRequest), channel);
+  }
+
+  /**
+   * Handles the HTTP request whose URI has been parsed by serving the file at the request path.
+   *
+   * @param parsedHTTPRequest the HTTP request and its parsed URI
+   * @param channel the channel
+   *
+   * @return the indicator whether the HTTP request was handled, which is false if it is neither GET nor HEAD, or if there is no such file
+   */
+  @Override
+  public boolean httpRequestReceived(
+          final ParsedHTTPRequest parsedHTTPRequest,
+          final Channel channel) {
+    //Preconditions
+    assert parsedHTTPRequest != null : "parsedHTTPRequest must not be null";
+    assert channel != null : "channel must not be null";
+
+    final HttpRequest httpRequest = parsedHTTPRequest.getHttpRequest();
+    if (!httpRequest.getMethod().equals(HttpMethod.GET) && !httpRequest.getMethod().equals(HttpMethod.HEAD)) {
+      return false;
+    }
+    try {
+      return serveFile(httpRequest, parsedHTTPRequest.getPath(), channel);
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /**
+   * Handles a received text web socket frame, which is not for this handler.
+   *
+   * @param channel the channel
+   * @param textWebSocketFrame the text web socket frame
+   *
+   * @return false
+   */
+  @Override
+  public boolean textWebSocketFrameReceived(
+          final Channel channel,
+          final TextWebSocketFrame textWebSocketFrame) {
+    return false;
+  }
+
+  /**
+   * Serves the file at the given path beneath the root directory in response to the given request, which for example may be a form POST
+   * whose response is a page.
+   *
+   * @param httpRequest the HTTP request
+   * @param path the path of the file relative to the root directory, using forward slashes
+   * @param channel the channel
+   *
+   * @return the indicator whether the file was served, which is false if there is no such file
+   * @throws IOException if the file cannot be read
+   */
+  public boolean serveFile(
+          final HttpRequest httpRequest,
+          final String path,
+          final Channel channel) throws IOException {
+    //Preconditions
+    assert httpRequest != null : "httpRequest must not be null";
+    assert path != null : "path must not be null";
+    assert channel != null : "channel must not be null";
+
+    final boolean isHead = httpRequest.getMethod().equals(HttpMethod.HEAD);
+    final File file = new File(rootDirectory, path.replace('/', File.separatorChar));
+    if (!file.isFile() || !file.getCanonicalPath().startsWith(canonicalRootPath)) {
+      return false;
+    }
+    final long lastModified = file.lastModified();
+    final long length = file.length();
+
+    CachedFile cachedFile;
+    synchronized (cache) {
+      cachedFile = cache.get(path);
+      if (cachedFile != null && (cachedFile.lastModified != lastModified || cachedFile.content.length != length)) {
+        // the file has changed since it was cached
+        removeCachedFile(path);
+        cachedFile = null;
+      }
+    }
+    if (cachedFile == null) {
+      cacheMissCount.incrementAndGet();
+      if (length <= maximumCachedFileLength) {
+        cachedFile = new CachedFile(
+                getContentType(path),
+                Files.readAllBytes(file.toPath()),
+                lastModified);
+        if (cachedFile.content.length != length) {
+          // the file changed while it was read, so serve what was read without caching it
+          serveCachedFile(httpRequest, cachedFile, isHead, channel);
+          return true;
+        }
+        addCachedFile(path, cachedFile);
+      } else {
+        serveLongFile(httpRequest, file, getContentType(path), lastModified, length, isHead, channel);
+        return true;
+      }
+    } else {
+      cacheHitCount.incrementAndGet();
+    }
+    serveCachedFile(httpRequest, cachedFile, isHead, channel);
+    return true;
+  }
+
+  /**
+   * Writes the response for the given cached file.
+   *
+   * @param httpRequest the HTTP request
+   * @param cachedFile the given cached file
+   * @param isHead the indicator whether the request is HEAD, whose response has no content
+   * @param channel the channel
+   */
+  private void serveCachedFile(
+          final HttpRequest httpRequest,
+          final CachedFile cachedFile,
+          final boolean isHead,
+          final Channel channel) {
+    // each content coding is a distinct representation having its own entity tag
+    final boolean isGzip = cachedFile.gzippedContent != null && isGzipAccepted(httpRequest);
+    final String eTag = isGzip ? cachedFile.gzipETag : cachedFile.eTag;
+    final boolean isVaried = cachedFile.gzippedContent != null;
+    if (isNotModified(httpRequest, eTag, cachedFile.lastModified)) {
+      writeNotModifiedResponse(httpRequest, eTag, cachedFile.lastModifiedString, isVaried, channel);
+      return;
+    }
+    final byte[] content = isGzip ? cachedFile.gzippedContent : cachedFile.content;
+    final HttpResponse httpResponse = createResponse(
+            httpRequest,
+            cachedFile.contentType,
+            eTag,
+            cachedFile.lastModifiedString,
+            content.length);
+    if (isVaried) {
+      httpResponse.setHeader(HttpHeaders.Names.VARY, HttpHeaders.Names.ACCEPT_ENCODING);
+    }
+    if (isGzip) {
+      httpResponse.setHeader(HttpHeaders.Names.CONTENT_ENCODING, HttpHeaders.Values.GZIP);
+      gzipResponseCount.incrementAndGet();
+    }
+    if (!isHead) {
+      // the cached array is shared by the responses, which do not modify it
+      httpResponse.setContent(ChannelBuffers.wrappedBuffer(content));
+      bytesServed.addAndGet(content.length);
+    }
+    closeIfRequired(httpRequest, channel.write(httpResponse));
+  }
+
+  /**
+   * Writes the response for a file which is too long to cache.
+   *
+   * @param httpRequest the HTTP request
+   * @param file the file
+   * @param contentType the content type
+   * @param lastModified the file modification time
+   * @param length the file length
+   * @param isHead the indicator whether the request is HEAD, whose response has no content
+   * @param channel the channel
+   *
+   * @throws IOException if the file cannot be opened
+   */
+  private void serveLongFile(
+          final HttpRequest httpRequest,
+          final File file,
+          final String contentType,
+          final long lastModified,
+          final long length,
+          final boolean isHead,
+          final Channel channel) throws IOException {
+    final String eTag = createETag(lastModified, length);
+    final String lastModifiedString = formatHTTPDate(lastModified);
+    if (isNotModified(httpRequest, eTag, lastModified)) {
+      writeNotModifiedResponse(httpRequest, eTag, lastModifiedString, false, channel);
+      return;
+    }
+    final HttpResponse httpResponse = createResponse(
+            httpRequest,
+            contentType,
+            eTag,
+            lastModifiedString,
+            length);
+    if (isHead) {
+      closeIfRequired(httpRequest, channel.write(httpResponse));
+      return;
+    }
+    final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+    channel.write(httpResponse);
+    final ChannelFuture channelFuture;
+    if (channel.getPipeline().get(SslHandler.class) == null) {
+      // transfer the file to the socket without copying it through the heap
+      final DefaultFileRegion fileRegion = new DefaultFileRegion(randomAccessFile.getChannel(), 0, length);
+      channelFuture = channel.write(fileRegion);
+      channelFuture.addListener((final ChannelFuture future) -> {
+        fileRegion.releaseExternalResources();
+      });
+      zeroCopyResponseCount.incrementAndGet();
+      bytesServed.addAndGet(length);
+    } else {
+      // the SSL handler must encrypt the content, so write it in pieces
+      final PieceWriter pieceWriter = new PieceWriter(randomAccessFile, length, channel);
+      pieceWriter.writeNextPiece();
+      channelFuture = pieceWriter.completionFuture;
+    }
+    closeIfRequired(httpRequest, channelFuture);
+  }
+
+  /**
+   * Creates an OK response having the given headers.
+   *
+   * @param httpRequest the HTTP request
+   * @param contentType the content type
+   * @param eTag the entity tag
+   * @param lastModifiedString the formatted file modification time
+   * @param contentLength the content length
+   *
+   * @return the response
+   */
+  private static HttpResponse createResponse(
+          final HttpRequest httpRequest,
+          final String contentType,
+          final String eTag,
+          final String lastModifiedString,
+          final long contentLength) {
+    final HttpResponse httpResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+    NettyHTTPUtils.setAccessControl(httpRequest, httpResponse);
+    httpResponse.setHeader(HttpHeaders.Names.CONTENT_TYPE, contentType);
+    httpResponse.setHeader(HttpHeaders.Names.CONTENT_LENGTH, String.valueOf(contentLength));
+    httpResponse.setHeader(HttpHeaders.Names.ETAG, eTag);
+    httpResponse.setHeader(HttpHeaders.Names.LAST_MODIFIED, lastModifiedString);
+    httpResponse.setHeader(HttpHeaders.Names.CACHE_CONTROL, HttpHeaders.Values.NO_CACHE);
+    return httpResponse;
+  }
+
+  /**
+   * Writes a 304 Not Modified response.
+   *
+   * @param httpRequest the HTTP request
+   * @param eTag the entity tag
+   * @param lastModifiedString the formatted file modification time
+   * @param isVaried the indicator whether the representation depends upon the Accept-Encoding request header
+   * @param channel the channel
+   */
+  private void writeNotModifiedResponse(
+          final HttpRequest httpRequest,
+          final String eTag,
+          final String lastModifiedString,
+          final boolean isVaried,
+          final Channel channel) {
+    notModifiedCount.incrementAndGet();
+    final HttpResponse httpResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_MODIFIED);
+    NettyHTTPUtils.setAccessControl(httpRequest, httpResponse);
+    httpResponse.setHeader(HttpHeaders.Names.ETAG, eTag);
+    httpResponse.setHeader(HttpHeaders.Names.LAST_MODIFIED, lastModifiedString);
+    if (isVaried) {
+      httpResponse.setHeader(HttpHeaders.Names.VARY, HttpHeaders.Names.ACCEPT_ENCODING);
+    }
+    httpResponse.setHeader(HttpHeaders.Names.CONTENT_LENGTH, "0");
+    closeIfRequired(httpRequest, channel.write(httpResponse));
+  }
+
+  /**
+   * Closes the channel when the given write completes, unless the request asks to keep the connection alive, in which case the channel is
+   * closed only if the write fails, because the client cannot tell where the truncated response ends.
+   *
+   * @param httpRequest the HTTP request
+   * @param channelFuture the future of the last write of the response
+   */
+  private static void closeIfRequired(
+          final HttpRequest httpRequest,
+          final ChannelFuture channelFuture) {
+    if (HttpHeaders.isKeepAlive(httpRequest)) {
+      channelFuture.addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+    } else {
+      channelFuture.addListener(ChannelFutureListener.CLOSE);
+    }
+  }
+
+  /**
+   * Returns whether the given request's conditional headers match the file, so that it need not be sent. An If-None-Match header takes
+   * precedence over an If-Modified-Since header.
+   *
+   * @param httpRequest the HTTP request
+   * @param eTag the entity tag of the file
+   * @param lastModified the file modification time
+   *
+   * @return whether the requester's copy of the file is current
+   */
+  static boolean isNotModified(
+          final HttpRequest httpRequest,
+          final String eTag,
+          final long lastModified) {
+    final String ifNoneMatch = httpRequest.getHeader(HttpHeaders.Names.IF_NONE_MATCH);
+    if (ifNoneMatch != null) {
+      for (final String candidateETag : ifNoneMatch.split(",")) {
+        final String candidateETag1 = candidateETag.trim();
+        if (candidateETag1.equals("*") || candidateETag1.equals(eTag) || candidateETag1.equals("W/" + eTag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    final String ifModifiedSince = httpRequest.getHeader(HttpHeaders.Names.IF_MODIFIED_SINCE);
+    if (ifModifiedSince != null) {
+      try {
+        // HTTP dates have a precision of one second
+        return lastModified / 1000 <= createHTTPDateFormat().parse(ifModifiedSince).getTime() / 1000;
+      } catch (ParseException ex) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the given request accepts a gzip encoded response.
+   *
+   * @param httpRequest the HTTP request
+   *
+   * @return whether the request accepts a gzip encoded response
+   */
+  private static boolean isGzipAccepted(final HttpRequest httpRequest) {
+    final String acceptEncoding = httpRequest.getHeader(HttpHeaders.Names.ACCEPT_ENCODING);
+    return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ENGLISH).contains(HttpHeaders.Values.GZIP);
+  }
+
+  /**
+   * Adds the given file to the cache, evicting the least recently used files to stay within the byte budget.
+   *
+   * @param path the file path
+   * @param cachedFile the given cached file
+   */
+  private void addCachedFile(
+          final String path,
+          final CachedFile cachedFile) {
+    if (cachedFile.getByteCount() > cacheByteBudget) {
+      return;
+    }
+    synchronized (cache) {
+      removeCachedFile(path);
+      cache.put(path, cachedFile);
+      cachedByteCount += cachedFile.getByteCount();
+      final Iterator<CachedFile> cachedFiles_iter = cache.values().iterator();
+      while (cachedByteCount > cacheByteBudget && cachedFiles_iter.hasNext()) {
+        final CachedFile evictedFile = cachedFiles_iter.next();
+        cachedFiles_iter.remove();
+        cachedByteCount -= evictedFile.getByteCount();
+        evictionCount.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Removes the file having the given path from the cache. The caller synchronizes on the cache.
+   *
+   * @param path the file path
+   */
+  private void removeCachedFile(final String path) {
+    final CachedFile removedFile = cache.remove(path);
+    if (removedFile != null) {
+      cachedByteCount -= removedFile.getByteCount();
+    }
+  }
+
+  /**
+   * Clears the cache.
+   */
+  public void clearCache() {
+    synchronized (cache) {
+      cache.clear();
+      cachedByteCount = 0L;
+    }
+  }
+
+  /**
+   * Gets the content type of the file having the given path.
+   *
+   * @param path the file path
+   *
+   * @return the content type
+   */
+  static String getContentType(final String path) {
+    final int index = path.lastIndexOf('.');
+    if (index >= 0) {
+      final String contentType = CONTENT_TYPE_DICTIONARY.get(path.substring(index + 1).toLowerCase(Locale.ENGLISH));
+      if (contentType != null) {
+        return contentType;
+      }
+    }
+    return "application/octet-stream";
+  }
+
+  /**
+   * Returns whether the given content type is textual, and worth compressing.
+   *
+   * @param contentType the given content type
+   *
+   * @return whether the content type is compressible
+   */
+  private static boolean isCompressible(final String contentType) {
+    return contentType.startsWith("text/")
+            || contentType.startsWith("application/javascript")
+            || contentType.startsWith("application/json")
+            || contentType.startsWith("image/svg+xml");
+  }
+
+  /**
+   * Returns the gzip encoding of the given content.
+   *
+   * @param content the given content
+   *
+   * @return the gzip encoding
+   */
+  private static byte[] gzip(final byte[] content) {
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(content.length / 2 + 32);
+    try (final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+      gzipOutputStream.write(content);
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  /**
+   * Creates the entity tag of a file having the given modification time and length.
+   *
+   * @param lastModified the file modification time
+   * @param length the file length
+   *
+   * @return the entity tag
+   */
+  static String createETag(
+          final long lastModified,
+          final long length) {
+    return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+  }
+
+  /**
+   * Creates the entity tag of the gzip encoding of a file, given the entity tag of the file.
+   *
+   * @param eTag the entity tag of the file
+   *
+   * @return the entity tag of the gzip encoding
+   */
+  static String createGzipETag(final String eTag) {
+    return eTag.substring(0, eTag.length() - 1) + "-gz\"";
+  }
+
+  /**
+   * Formats the given time as an HTTP date.
+   *
+   * @param time the given milliseconds time
+   *
+   * @return the HTTP date
+   */
+  static String formatHTTPDate(final long time) {
+    return createHTTPDateFormat().format(new Date(time));
+  }
+
+  /**
+   * Creates an HTTP date format.
+   *
+   * @return an HTTP date format
+   */
+  private static SimpleDateFormat createHTTPDateFormat() {
+    final SimpleDateFormat simpleDateFormat = new SimpleDateFormat(HTTP_DATE_FORMAT, Locale.US);
+    simpleDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+    return simpleDateFormat;
+  }
+
+  /**
+   * Gets the number of responses served from the cache.
+   *
+   * @return the number of cache hits
+   */
+  public long getCacheHitCount() {
+    return cacheHitCount.get();
+  }
+
+  /**
+   * Gets the number of responses which read their file.
+   *
+   * @return the number of cache misses
+   */
+  public long getCacheMissCount() {
+    return cacheMissCount.get();
+  }
+
+  /**
+   * Gets the number of 304 Not Modified responses.
+   *
+   * @return the number of 304 Not Modified responses
+   */
+  public long getNotModifiedCount() {
+    return notModifiedCount.get();
+  }
+
+  /**
+   * Gets the number of files evicted from the cache to stay within its byte budget.
+   *
+   * @return the number of evictions
+   */
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  /**
+   * Gets the number of gzip encoded responses.
+   *
+   * @return the number of gzip encoded responses
+   */
+  public long getGzipResponseCount() {
+    return gzipResponseCount.get();
+  }
+
+  /**
+   * Gets the number of responses transferred by a zero-copy file region.
+   *
+   * @return the number of zero-copy responses
+   */
+  public long getZeroCopyResponseCount() {
+    return zeroCopyResponseCount.get();
+  }
+
+  /**
+   * Gets the number of response content bytes served.
+   *
+   * @return the number of bytes served
+   */
+  public long getBytesServed() {
+    return bytesServed.get();
+  }
+
+  /**
+   * Gets the number of bytes held by the cache.
+   *
+   * @return the number of cached bytes
+   */
+  public long getCachedByteCount() {
+    synchronized (cache) {
+      return cachedByteCount;
+    }
+  }
+
+  /**
+   * Gets the number of cached files.
+   *
+   * @return the number of cached files
+   */
+  public int getCachedFileCount() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[StaticFileHandler " + rootDirectory
+            + ", cached files: " + getCachedFileCount()
+            + ", cached bytes: " + getCachedByteCount()
+            + ", hits: " + cacheHitCount.get()
+            + ", misses: " + cacheMissCount.get()
+            + ", not modified: " + notModifiedCount.get()
+            + ", evictions: " + evictionCount.get()
+            + ", gzip: " + gzipResponseCount.get()
+            + ", zero-copy: " + zeroCopyResponseCount.get()
+            + ", bytes served: " + bytesServed.get() + "]";
+  }
+
+  /** Contains a cached file and its encoded response headers. */
+  private static final class CachedFile {
+
+    // the content type
+    private final String contentType;
+    // the file content
+    private final byte[] content;
+    // the gzip encoded file content, or null if the content is not compressible or compresses poorly
+    private final byte[] gzippedContent;
+    // the file modification time
+    private final long lastModified;
+    // the formatted file modification time
+    private final String lastModifiedString;
+    // the entity tag
+    private final String eTag;
+    // the entity tag of the gzip encoded content
+    private final String gzipETag;
+
+    /**
+     * Constructs a new CachedFile instance.
+     *
+     * @param contentType the content type
+     * @param content the file content
+     * @param lastModified the file modification time
+     */
+    CachedFile(
+            final String contentType,
+            final byte[] content,
+            final long lastModified) {
+      this.contentType = contentType;
+      this.content = content;
+      this.lastModified = lastModified;
+      lastModifiedString = formatHTTPDate(lastModified);
+      eTag = createETag(lastModified, content.length);
+      gzipETag = createGzipETag(eTag);
+      if (isCompressible(contentType) && content.length > 256) {
+        final byte[] gzippedContent1 = gzip(content);
+        // keep the encoding only if it saves at least an eighth
+        gzippedContent = gzippedContent1.length < content.length - (content.length >>> 3) ? gzippedContent1 : null;
+      } else {
+        gzippedContent = null;
+      }
+    }
+
+    /**
+     * Gets the number of cached bytes.
+     *
+     * @return the number of cached bytes
+     */
+    long getByteCount() {
+      return content.length + (gzippedContent == null ? 0 : gzippedContent.length);
+    }
+  }
+
+  /**
+   * Writes a long file to an SSL channel in pieces, reading each piece when the previous one has been written, and closes the file when
+   * done.
+   */
+  private final class PieceWriter implements ChannelFutureListener {
+
+    // the file
+    private final RandomAccessFile randomAccessFile;
+    // the file length
+    private final long length;
+    // the channel
+    private final Channel channel;
+    // the future which completes when the file has been written or the writing has failed
+    private final ChannelFuture completionFuture;
+    // the position of the next piece
+    private long position = 0L;
+    // the indicator whether a piece is being written
+    private boolean isWriting = false;
+    // the indicator whether the previous piece was written while this writer was writing it
+    private boolean isNextPiecePending = false;
+
+    /**
+     * Constructs a new PieceWriter instance.
+     *
+     * @param randomAccessFile the file
+     * @param length the file length
+     * @param channel the channel
+     */
+    PieceWriter(
+            final RandomAccessFile randomAccessFile,
+            final long length,
+            final Channel channel) {
+      this.randomAccessFile = randomAccessFile;
+      this.length = length;
+      this.channel = channel;
+      completionFuture = Channels.future(channel);
+    }
+
+    /**
+     * Reads and writes the next piece of the file, or completes if there is none. A write which completes immediately notifies its
+     * listener from within this method, which then continues the loop here rather than recursing.
+     */
+    synchronized void writeNextPiece() {
+      if (isWriting) {
+        isNextPiecePending = true;
+        return;
+      }
+      isWriting = true;
+      try {
+        do {
+          isNextPiecePending = false;
+          if (position >= length) {
+            finish(null);
+            return;
+          }
+          final byte[] piece = new byte[(int) Math.min(PIECE_LENGTH, length - position)];
+          try {
+            randomAccessFile.readFully(piece);
+          } catch (IOException ex) {
+            finish(ex);
+            return;
+          }
+          position += piece.length;
+          bytesServed.addAndGet(piece.length);
+          channel.write(ChannelBuffers.wrappedBuffer(piece)).addListener(this);
+        } while (isNextPiecePending);
+      } finally {
+        isWriting = false;
+      }
+    }
+
+    /**
+     * Continues with the next piece when the previous one has been written.
+     *
+     * @param channelFuture the future of the previous piece
+     */
+    @Override
+    public void operationComplete(final ChannelFuture channelFuture) {
+      if (channelFuture.isSuccess()) {
+        writeNextPiece();
+      } else {
+        finish(channelFuture.getCause());
+      }
+    }
+
+    /**
+     * Closes the file and completes the writing.
+     *
+     * @param cause the cause of the failure, or null if the file was written
+     */
+    private void finish(final Throwable cause) {
+      try {
+        randomAccessFile.close();
+      } catch (IOException ex) {
+        LOGGER.warn("cannot close the served file: " + ex.getMessage());
+      }
+      if (cause == null) {
+        completionFuture.setSuccess();
+      } else {
+        LOGGER.info("cannot write the served file: " + cause.getMessage());
+        completionFuture.setFailure(cause);
+      }
+    }
+  }
+}
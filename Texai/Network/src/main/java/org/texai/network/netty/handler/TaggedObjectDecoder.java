@@ -32,6 +32,8 @@ public class TaggedObjectDecoder extends FrameDecoder {
 
   // the logger
   private static final Logger LOGGER = Logger.getLogger(TaggedObjectDecoder.class);
+  // the default maximum object size
+  public static final int DEFAULT_MAX_OBJECT_SIZE = 1048576;
   // the maximum object size
   private final int maxObjectSize;
 
@@ -40,7 +42,7 @@ public class TaggedObjectDecoder extends FrameDecoder {
    * StreamCorruptedException will be raised.
    */
   public TaggedObjectDecoder() {
-    this(1048576);
+    this(DEFAULT_MAX_OBJECT_SIZE);
   }
 
   /**
@@ -21,6 +21,7 @@ import static org.jboss.netty.buffer.ChannelBuffers.dynamicBuffer;
 import java.io.ObjectOutputStream;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.log4j.Logger;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBufferOutputStream;
@@ -33,6 +34,9 @@ import org.texai.network.netty.NetworkConstants;
 /**
  * An encoder which prepends a protocol identification byte and serializes a Java object into a {@link ChannelBuffer}.
  * <p>
+ * The initial capacity of each encoding buffer is predicted from the lengths of the recently encoded objects, and the buffer is
+ * obtained from the channel's buffer factory.
+ * <p>
  *
  * @author <a href="http://www.jboss.org/netty/">The Netty Project</a>
  * @author <a href="http://gleamynode.net/">Trustin Lee</a>
@@ -46,11 +50,21 @@ public class TaggedObjectEncoder extends OneToOneEncoder {
   private static final Logger LOGGER = Logger.getLogger(TaggedObjectEncoder.class);
   // the length placeholder bytes
   private static final byte[] LENGTH_PLACEHOLDER = new byte[4];
-  // the estimated length of the encoded output
-  private final int estimatedLength;
+  // the minimum predicted length of the encoded output
+  private static final int MINIMUM_LENGTH = 64;
+  // the maximum predicted length of the encoded output, which is the default maximum object size of the tagged object decoder
+  private static final int MAXIMUM_LENGTH = 1048576;
+  // the encoded length predictor
+  private final EncodedLengthPredictor encodedLengthPredictor;
+  // the number of encoded objects
+  private final AtomicLong encodedCount = new AtomicLong();
+  // the number of encoded bytes
+  private final AtomicLong encodedByteCount = new AtomicLong();
+  // the number of encoding buffer expansions, each of which copies the bytes written so far
+  private final AtomicLong expansionCount = new AtomicLong();
 
   /**
-   * Creates a new encoder with the estimated length of 512 bytes.
+   * Creates a new encoder with the initial estimated length of 512 bytes.
    */
   public TaggedObjectEncoder() {
     this(512);
@@ -59,9 +73,9 @@ public class TaggedObjectEncoder extends OneToOneEncoder {
   /**
    * Creates a new encoder.
    *
-   * @param estimatedLength the estimated byte length of the serialized form of an object. If the length of the serialized form exceeds this
-   * value, the internal buffer will be expanded automatically at the cost of memory bandwidth. If this value is too big, it will also waste
-   * memory bandwidth. To avoid unnecessary memory copy or allocation cost, please specify the properly estimated value.
+   * @param estimatedLength the initial estimated byte length of the serialized form of an object. The estimate subsequently adapts to
+   * the lengths of the encoded objects. If the length of the serialized form exceeds the estimate, the internal buffer will be expanded
+   * automatically at the cost of memory bandwidth.
    */
   public TaggedObjectEncoder(final int estimatedLength) {
     //Preconditions
@@ -69,7 +83,10 @@ public class TaggedObjectEncoder extends OneToOneEncoder {
       throw new IllegalArgumentException("estimatedLength: " + estimatedLength);
     }
 
-    this.estimatedLength = estimatedLength;
+    encodedLengthPredictor = new EncodedLengthPredictor(
+            MINIMUM_LENGTH,
+            Math.min(MAXIMUM_LENGTH, Math.max(MINIMUM_LENGTH, estimatedLength)),
+            MAXIMUM_LENGTH);
   }
 
   /**
@@ -99,8 +116,9 @@ public class TaggedObjectEncoder extends OneToOneEncoder {
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("encoding: " + obj);
     }
+    final int predictedLength = encodedLengthPredictor.nextLength();
     final ChannelBufferOutputStream channelBufferOutputStream = new ChannelBufferOutputStream(dynamicBuffer(
-            estimatedLength,
+            predictedLength,
             channelHandlerContext.getChannel().getConfig().getBufferFactory()));
     channelBufferOutputStream.write(NetworkConstants.OBJECT_SERIALIZATION_PROTOCOL);
     channelBufferOutputStream.write(LENGTH_PLACEHOLDER);
@@ -112,6 +130,50 @@ public class TaggedObjectEncoder extends OneToOneEncoder {
     final ChannelBuffer encoded = channelBufferOutputStream.buffer();
     // set the data length in bytes 1-5, and do not include the protocol field nor the length field when calculating the data length
     encoded.setInt(1, encoded.writerIndex() - 5);
+
+    encodedLengthPredictor.record(encoded.writerIndex());
+    encodedCount.incrementAndGet();
+    encodedByteCount.addAndGet(encoded.writerIndex());
+    if (encoded.capacity() > predictedLength) {
+      // the dynamic buffer doubles its capacity when it expands
+      expansionCount.addAndGet(Integer.numberOfLeadingZeros(predictedLength) - Integer.numberOfLeadingZeros(encoded.capacity()));
+    }
     return encoded;
   }
+
+  /**
+   * Gets the number of encoded objects.
+   *
+   * @return the number of encoded objects
+   */
+  public long getEncodedCount() {
+    return encodedCount.get();
+  }
+
+  /**
+   * Gets the number of encoded bytes.
+   *
+   * @return the number of encoded bytes
+   */
+  public long getEncodedByteCount() {
+    return encodedByteCount.get();
+  }
+
+  /**
+   * Gets the number of times that an encoding buffer doubled its capacity, each of which copies the bytes written so far.
+   *
+   * @return the number of encoding buffer expansions
+   */
+  public long getExpansionCount() {
+    return expansionCount.get();
+  }
+
+  /**
+   * Gets the predicted byte length of the next encoded object.
+   *
+   * @return the predicted length
+   */
+  public int getPredictedLength() {
+    return encodedLengthPredictor.nextLength();
+  }
 }
@@ -21,8 +21,10 @@
 package org.texai.network.netty.handler;
 
 import org.jboss.netty.channel.Channel;
+import org.jboss.netty.handler.codec.http.HttpChunk;
 import org.jboss.netty.handler.codec.http.HttpRequest;
 import org.jboss.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.jboss.netty.handler.codec.http.websocketx.WebSocketFrame;
 
 /** Defines a Texai HTTP request handler.  The handlers are arranged in a chain such that a handler returns false if
  * it cannot process the given HTTP request, and returns true after successfully handling the request.  The driving
@@ -42,6 +44,19 @@ public interface TexaiHTTPRequestHandler {
           final HttpRequest httpRequest,
           final Channel channel);
 
+  /** Handles the HTTP request whose URI the driving HTTP request handler has already parsed. Handlers override this method to use
+   * the parsed path and query parameters rather than parsing the URI again; by default the parsed URI is ignored.
+   *
+   * @param parsedHTTPRequest the HTTP request and its parsed URI
+   * @param channel the channel
+   * @return the indicator whether the HTTP request was handled
+   */
+  default boolean httpRequestReceived(
+          final ParsedHTTPRequest parsedHTTPRequest,
+          final Channel channel) {
+    return httpRequestReceived(parsedHTTPRequest.getHttpRequest(), channel);
+  }
+
   /** Handles a received text web socket frame.
    *
    * @param channel the channel handler context
@@ -51,4 +66,30 @@ public interface TexaiHTTPRequestHandler {
   boolean textWebSocketFrameReceived(
           final Channel channel,
           final TextWebSocketFrame textWebSocketFrame);
+
+  /** Handles a received binary web socket frame, or a continuation frame of a fragmented binary message, so that a handler can stream a
+   * large message as its fragments arrive rather than after it has been reassembled. By default binary frames are not handled.
+   *
+   * @param channel the channel
+   * @param webSocketFrame the binary frame or continuation frame, whose final fragment indicator marks the end of the message
+   * @return the indicator whether the web socket frame was handled
+   */
+  default boolean binaryWebSocketFrameReceived(
+          final Channel channel,
+          final WebSocketFrame webSocketFrame) {
+    return false;
+  }
+
+  /** Handles a received chunk of the body of a chunked HTTP request which this handler handled, when the port streams HTTP bodies rather
+   * than aggregating them, so that a handler can stream a large upload as it arrives. By default chunks are discarded.
+   *
+   * @param channel the channel
+   * @param httpChunk the HTTP chunk, whose last chunk indicator marks the end of the body
+   * @return the indicator whether the HTTP chunk was handled
+   */
+  default boolean httpChunkReceived(
+          final Channel channel,
+          final HttpChunk httpChunk) {
+    return false;
+  }
 }
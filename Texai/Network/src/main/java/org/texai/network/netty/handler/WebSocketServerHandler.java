@@ -19,7 +19,9 @@ import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
 import org.jboss.netty.handler.codec.http.HttpHeaders;
 import org.jboss.netty.handler.codec.http.HttpRequest;
+import org.jboss.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 import org.jboss.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
+import org.jboss.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
 import org.jboss.netty.handler.codec.http.websocketx.PingWebSocketFrame;
 import org.jboss.netty.handler.codec.http.websocketx.PongWebSocketFrame;
 import org.jboss.netty.handler.codec.http.websocketx.TextWebSocketFrame;
@@ -136,20 +138,33 @@ public class WebSocketServerHandler extends SimpleChannelUpstreamHandler {
       return;
     } else if ((webSocketFrame instanceof TextWebSocketFrame)) {
       final List<TexaiHTTPRequestHandler> texaiHTTPRequestHandlers = httpRequestHandler.getTexaiHTTPRequestHandlers();
-      synchronized (texaiHTTPRequestHandlers) {
-        for (final TexaiHTTPRequestHandler texaiHTTPRequestHandler : texaiHTTPRequestHandlers) {
-          final boolean isHandled = texaiHTTPRequestHandler.textWebSocketFrameReceived(
-                  channelHandlerContext.getChannel(),
-                  (TextWebSocketFrame) webSocketFrame);
-          if (isHandled) {
-            if (LOGGER.isDebugEnabled()) {
-              LOGGER.debug(texaiHTTPRequestHandler.getClass().getName() + " handled the request");
-            }
-            return;
+      for (final TexaiHTTPRequestHandler texaiHTTPRequestHandler : texaiHTTPRequestHandlers) {
+        final boolean isHandled = texaiHTTPRequestHandler.textWebSocketFrameReceived(
+                channelHandlerContext.getChannel(),
+                (TextWebSocketFrame) webSocketFrame);
+        if (isHandled) {
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(texaiHTTPRequestHandler.getClass().getName() + " handled the request");
           }
+          return;
         }
       }
       assert false : "no handler for the web socket frame: " + webSocketFrame;
+    } else if (webSocketFrame instanceof BinaryWebSocketFrame || webSocketFrame instanceof ContinuationWebSocketFrame) {
+      // the fragments of a binary message are offered as they arrive
+      final List<TexaiHTTPRequestHandler> texaiHTTPRequestHandlers = httpRequestHandler.getTexaiHTTPRequestHandlers();
+      for (final TexaiHTTPRequestHandler texaiHTTPRequestHandler : texaiHTTPRequestHandlers) {
+        final boolean isHandled = texaiHTTPRequestHandler.binaryWebSocketFrameReceived(
+                channelHandlerContext.getChannel(),
+                webSocketFrame);
+        if (isHandled) {
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(texaiHTTPRequestHandler.getClass().getName() + " handled the binary frame");
+          }
+          return;
+        }
+      }
+      throw new UnsupportedOperationException("no handler for the binary web socket frame");
     } else {
       throw new UnsupportedOperationException(String.format("%s frame types not supported", webSocketFrame.getClass().getName()));
     }
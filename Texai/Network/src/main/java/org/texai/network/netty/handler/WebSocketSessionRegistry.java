@@ -0,0 +1,512 @@
+/*
+ * WebSocketSessionRegistry.java
+ *
+ * Created on Oct 20, 2026, 1:14:52 AM
+ *
+ * Description: Provides a registry of web socket sessions, which sends and broadcasts text frames with bounded pending writes.
+ *
+ * Copyright (C) Oct 20, 2026 Stephen L. Reed.
+ */
+package org.texai.network.netty.handler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.jboss.netty.util.CharsetUtil;
+import org.texai.util.StringUtils;
+
+/**
+ * Provides a registry of web socket sessions, indexed both by channel and by session name, e.g. the logged-in username.
+ *
+ * Each session bounds the bytes that it has written to its channel but which the channel has not yet flushed to the socket. Netty's
+ * channel write buffer serves as the session's send queue, and a client which reads too slowly to keep that queue under the bound is
+ * disconnected rather than buffered without limit.
+ *
+ * A broadcast encodes its text once into a single buffer, and writes a frame holding a duplicate of that buffer to each recipient, so
+ * that the recipients share the encoded content but not its reader index.
+ *
+ * A session is removed when its channel closes.
+ *
+ * Session names are returned by getNames, so they must not be secrets such as session cookies. They are nevertheless kept out of the
+ * log, where a session is identified by its channel.
+ *
+ * @author reed
+ */
+@ThreadSafe
+public final class WebSocketSessionRegistry {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(WebSocketSessionRegistry.class);
+  // the default maximum number of written but unflushed bytes per session
+  public static final long DEFAULT_MAX_PENDING_BYTE_COUNT = 4L * 1024L * 1024L;
+  // the session dictionary, channel --> session
+  private final ConcurrentHashMap<Channel, WebSocketSession> channelSessionDictionary = new ConcurrentHashMap<>();
+  // the session dictionary, session name --> session
+  private final ConcurrentHashMap<String, WebSocketSession> nameSessionDictionary = new ConcurrentHashMap<>();
+  // the maximum number of written but unflushed bytes per session
+  private final long maxPendingByteCount;
+  // the number of frames written
+  private final AtomicLong framesSentCount = new AtomicLong();
+  // the number of frame bytes written
+  private final AtomicLong bytesSentCount = new AtomicLong();
+  // the number of broadcasts
+  private final AtomicLong broadcastCount = new AtomicLong();
+  // the number of frames dropped because the recipient was not connected or was too slow
+  private final AtomicLong framesDroppedCount = new AtomicLong();
+  // the number of slow clients disconnected
+  private final AtomicLong slowClientDisconnectCount = new AtomicLong();
+
+  /**
+   * Constructs a new WebSocketSessionRegistry instance having the default bound on pending bytes per session.
+   */
+  public WebSocketSessionRegistry() {
+    this(DEFAULT_MAX_PENDING_BYTE_COUNT);
+  }
+
+  /**
+   * Constructs a new WebSocketSessionRegistry instance.
+   *
+   * @param maxPendingByteCount the maximum number of written but unflushed bytes per session, beyond which the client is disconnected
+   */
+  public WebSocketSessionRegistry(final long maxPendingByteCount) {
+    //Preconditions
+    assert maxPendingByteCount > 0 : "maxPendingByteCount must be positive";
+
+    this.maxPendingByteCount = maxPendingByteCount;
+  }
+
+  /**
+   * Registers the given channel under the given session name, replacing any previous name of the channel, and any previous channel
+   * registered under the name.
+   *
+   * @param channel the web socket channel
+   * @param name the session name, e.g. the logged-in username, which must not be a secret such as a session cookie
+   *
+   * @return the session
+   */
+  public WebSocketSession register(
+          final Channel channel,
+          final String name) {
+    //Preconditions
+    assert channel != null : "channel must not be null";
+    assert StringUtils.isNonEmptyString(name) : "name must be a non-empty string";
+
+    final WebSocketSession webSocketSession;
+    final boolean isNewChannel;
+    synchronized (this) {
+      final WebSocketSession existingWebSocketSession = channelSessionDictionary.get(channel);
+      if (existingWebSocketSession == null) {
+        webSocketSession = new WebSocketSession(channel, name);
+        channelSessionDictionary.put(channel, webSocketSession);
+        isNewChannel = true;
+      } else {
+        webSocketSession = existingWebSocketSession;
+        nameSessionDictionary.remove(webSocketSession.name, webSocketSession);
+        webSocketSession.name = name;
+        isNewChannel = false;
+      }
+      nameSessionDictionary.put(name, webSocketSession);
+    }
+    if (isNewChannel) {
+      channel.getCloseFuture().addListener((ChannelFuture channelFuture) -> {
+        deregister(channel);
+      });
+    }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("registered " + webSocketSession);
+    }
+    return webSocketSession;
+  }
+
+  /**
+   * Deregisters the session of the given channel, if any.
+   *
+   * @param channel the web socket channel
+   */
+  public void deregister(final Channel channel) {
+    //Preconditions
+    assert channel != null : "channel must not be null";
+
+    synchronized (this) {
+      final WebSocketSession webSocketSession = channelSessionDictionary.remove(channel);
+      if (webSocketSession != null) {
+        nameSessionDictionary.remove(webSocketSession.name, webSocketSession);
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("deregistered " + webSocketSession);
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the session of the given channel.
+   *
+   * @param channel the web socket channel
+   *
+   * @return the session, or null if the channel is not registered
+   */
+  public WebSocketSession getSession(final Channel channel) {
+    //Preconditions
+    assert channel != null : "channel must not be null";
+
+    return channelSessionDictionary.get(channel);
+  }
+
+  /**
+   * Gets the session registered under the given name.
+   *
+   * @param name the session name
+   *
+   * @return the session, or null if no channel is registered under the name
+   */
+  public WebSocketSession getSession(final String name) {
+    //Preconditions
+    assert name != null : "name must not be null";
+
+    return nameSessionDictionary.get(name);
+  }
+
+  /**
+   * Gets the session name of the given channel.
+   *
+   * @param channel the web socket channel
+   *
+   * @return the session name, or null if the channel is not registered
+   */
+  public String getName(final Channel channel) {
+    final WebSocketSession webSocketSession = getSession(channel);
+    return webSocketSession == null ? null : webSocketSession.name;
+  }
+
+  /**
+   * Sends the given text to the given channel, which need not be registered.
+   *
+   * @param channel the web socket channel
+   * @param text the text
+   *
+   * @return whether the frame was written
+   */
+  public boolean send(
+          final Channel channel,
+          final String text) {
+    //Preconditions
+    assert channel != null : "channel must not be null";
+    assert text != null : "text must not be null";
+
+    final WebSocketSession webSocketSession = channelSessionDictionary.get(channel);
+    if (webSocketSession == null) {
+      if (!channel.isConnected()) {
+        framesDroppedCount.incrementAndGet();
+        return false;
+      }
+      final ChannelBuffer content = encode(text);
+      framesSentCount.incrementAndGet();
+      bytesSentCount.addAndGet(content.readableBytes());
+      channel.write(new TextWebSocketFrame(content));
+      return true;
+    } else {
+      return write(webSocketSession, encode(text));
+    }
+  }
+
+  /**
+   * Sends the given text to the channel registered under the given name.
+   *
+   * @param name the session name
+   * @param text the text
+   *
+   * @return whether the frame was written, which is false when no channel is registered under the name
+   */
+  public boolean send(
+          final String name,
+          final String text) {
+    //Preconditions
+    assert name != null : "name must not be null";
+    assert text != null : "text must not be null";
+
+    final WebSocketSession webSocketSession = nameSessionDictionary.get(name);
+    if (webSocketSession == null) {
+      framesDroppedCount.incrementAndGet();
+      return false;
+    }
+    return write(webSocketSession, encode(text));
+  }
+
+  /**
+   * Broadcasts the given text to every registered session.
+   *
+   * @param text the text
+   *
+   * @return the number of sessions to which the frame was written
+   */
+  public int broadcast(final String text) {
+    //Preconditions
+    assert text != null : "text must not be null";
+
+    broadcastCount.incrementAndGet();
+    final ChannelBuffer content = encode(text);
+    int sentCount = 0;
+    for (final WebSocketSession webSocketSession : channelSessionDictionary.values()) {
+      if (write(webSocketSession, content)) {
+        sentCount++;
+      }
+    }
+    return sentCount;
+  }
+
+  /**
+   * Broadcasts the given text to the sessions registered under the given names, skipping the names having no session.
+   *
+   * @param text the text
+   * @param names the session names
+   *
+   * @return the number of sessions to which the frame was written
+   */
+  public int broadcast(
+          final String text,
+          final Collection<String> names) {
+    //Preconditions
+    assert text != null : "text must not be null";
+    assert names != null : "names must not be null";
+
+    broadcastCount.incrementAndGet();
+    final ChannelBuffer content = encode(text);
+    int sentCount = 0;
+    for (final String name : names) {
+      final WebSocketSession webSocketSession = nameSessionDictionary.get(name);
+      if (webSocketSession == null) {
+        framesDroppedCount.incrementAndGet();
+      } else if (write(webSocketSession, content)) {
+        sentCount++;
+      }
+    }
+    return sentCount;
+  }
+
+  /**
+   * Writes a frame holding a duplicate of the given encoded content to the given session, disconnecting the client if its pending bytes
+   * would exceed the bound.
+   *
+   * @param webSocketSession the session
+   * @param content the encoded text, whose reader index is not changed
+   *
+   * @return whether the frame was written
+   */
+  private boolean write(
+          final WebSocketSession webSocketSession,
+          final ChannelBuffer content) {
+    //Preconditions
+    assert webSocketSession != null : "webSocketSession must not be null";
+    assert content != null : "content must not be null";
+
+    final Channel channel = webSocketSession.channel;
+    if (webSocketSession.isDisconnecting.get() || !channel.isConnected()) {
+      framesDroppedCount.incrementAndGet();
+      return false;
+    }
+    final int length = content.readableBytes();
+    final long pendingByteCount = webSocketSession.pendingByteCount.addAndGet(length);
+    // a frame longer than the bound is written when nothing else is pending
+    if (pendingByteCount > maxPendingByteCount && pendingByteCount > length) {
+      webSocketSession.pendingByteCount.addAndGet(-length);
+      framesDroppedCount.incrementAndGet();
+      disconnectSlowClient(webSocketSession);
+      return false;
+    }
+    framesSentCount.incrementAndGet();
+    bytesSentCount.addAndGet(length);
+    channel.write(new TextWebSocketFrame(content.duplicate())).addListener((ChannelFuture channelFuture) -> {
+      webSocketSession.pendingByteCount.addAndGet(-length);
+    });
+    return true;
+  }
+
+  /**
+   * Disconnects the given slow client, once.
+   *
+   * @param webSocketSession the session of the slow client
+   */
+  private void disconnectSlowClient(final WebSocketSession webSocketSession) {
+    //Preconditions
+    assert webSocketSession != null : "webSocketSession must not be null";
+
+    if (webSocketSession.isDisconnecting.compareAndSet(false, true)) {
+      slowClientDisconnectCount.incrementAndGet();
+      LOGGER.warn("disconnecting the slow client " + webSocketSession);
+      webSocketSession.channel.close();
+    }
+  }
+
+  /**
+   * Encodes the given text as a UTF-8 buffer.
+   *
+   * @param text the given text
+   *
+   * @return the encoded text
+   */
+  private static ChannelBuffer encode(final String text) {
+    return ChannelBuffers.copiedBuffer(text, CharsetUtil.UTF_8);
+  }
+
+  /**
+   * Gets the registered session names.
+   *
+   * @return a snapshot of the registered session names
+   */
+  public List<String> getNames() {
+    return new ArrayList<>(nameSessionDictionary.keySet());
+  }
+
+  /**
+   * Gets the number of registered sessions.
+   *
+   * @return the number of registered sessions
+   */
+  public int getSessionCount() {
+    return channelSessionDictionary.size();
+  }
+
+  /**
+   * Gets the maximum number of written but unflushed bytes per session.
+   *
+   * @return the maximum number of pending bytes per session
+   */
+  public long getMaxPendingByteCount() {
+    return maxPendingByteCount;
+  }
+
+  /**
+   * Gets the number of frames written.
+   *
+   * @return the number of frames written
+   */
+  public long getFramesSentCount() {
+    return framesSentCount.get();
+  }
+
+  /**
+   * Gets the number of frame bytes written.
+   *
+   * @return the number of frame bytes written
+   */
+  public long getBytesSentCount() {
+    return bytesSentCount.get();
+  }
+
+  /**
+   * Gets the number of broadcasts.
+   *
+   * @return the number of broadcasts
+   */
+  public long getBroadcastCount() {
+    return broadcastCount.get();
+  }
+
+  /**
+   * Gets the number of frames dropped because the recipient was not connected or was too slow.
+   *
+   * @return the number of dropped frames
+   */
+  public long getFramesDroppedCount() {
+    return framesDroppedCount.get();
+  }
+
+  /**
+   * Gets the number of slow clients disconnected.
+   *
+   * @return the number of slow clients disconnected
+   */
+  public long getSlowClientDisconnectCount() {
+    return slowClientDisconnectCount.get();
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[WebSocketSessionRegistry, sessions: " + channelSessionDictionary.size()
+            + ", frames sent: " + framesSentCount.get()
+            + ", bytes sent: " + bytesSentCount.get()
+            + ", broadcasts: " + broadcastCount.get()
+            + ", frames dropped: " + framesDroppedCount.get()
+            + ", slow clients disconnected: " + slowClientDisconnectCount.get() + "]";
+  }
+
+  /** Contains a web socket session, which is a registered channel and its pending write bookkeeping. */
+  @ThreadSafe
+  public static final class WebSocketSession {
+
+    // the web socket channel
+    private final Channel channel;
+    // the session name, e.g. the logged-in username
+    private volatile String name;
+    // the number of bytes written to the channel but not yet flushed to the socket
+    private final AtomicLong pendingByteCount = new AtomicLong();
+    // the indicator whether the slow client is being disconnected
+    private final AtomicBoolean isDisconnecting = new AtomicBoolean();
+
+    /**
+     * Constructs a new WebSocketSession instance.
+     *
+     * @param channel the web socket channel
+     * @param name the session name
+     */
+    WebSocketSession(
+            final Channel channel,
+            final String name) {
+      this.channel = channel;
+      this.name = name;
+    }
+
+    /**
+     * Gets the web socket channel.
+     *
+     * @return the web socket channel
+     */
+    public Channel getChannel() {
+      return channel;
+    }
+
+    /**
+     * Gets the session name.
+     *
+     * @return the session name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Gets the number of bytes written to the channel but not yet flushed to the socket.
+     *
+     * @return the number of pending bytes
+     */
+    public long getPendingByteCount() {
+      return pendingByteCount.get();
+    }
+
+    /**
+     * Returns a string representation of this object, which identifies the session by its channel rather than by its name.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+      return "[WebSocketSession channel " + channel.getId() + " " + channel.getRemoteAddress() + ", pending bytes: "
+              + pendingByteCount.get() + "]";
+    }
+  }
+}
@@ -9,6 +9,7 @@
  */
 package org.texai.network.netty.pipeline;
 
+import java.net.InetSocketAddress;
 import net.jcip.annotations.NotThreadSafe;
 import org.apache.log4j.Logger;
 import org.jboss.netty.channel.ChannelPipeline;
@@ -45,6 +46,26 @@ public final class AlbusHCNMessageClientPipelineFactory {
   public static ChannelPipeline getPipeline(
           final AbstractAlbusHCSMessageHandler albusHCNMessageHandler,
           final X509SecurityInfo x509SecurityInfo) {
+    return getPipeline(
+            albusHCNMessageHandler,
+            x509SecurityInfo,
+            null); // peerAddress
+  }
+
+  /**
+   * Returns a client pipeline to handle Albus hierarchical control system messages, which are serialized Java objects. The SSL session
+   * of an earlier connection to the given peer is resumed.
+   *
+   * @param albusHCNMessageHandler the Albus HCN message handler
+   * @param x509SecurityInfo the X.509 security information
+   * @param peerAddress the peer address, or null if unknown
+   *
+   * @return the configured pipeline
+   */
+  public static ChannelPipeline getPipeline(
+          final AbstractAlbusHCSMessageHandler albusHCNMessageHandler,
+          final X509SecurityInfo x509SecurityInfo,
+          final InetSocketAddress peerAddress) {
     //Preconditions
     assert albusHCNMessageHandler != null : "albusHCNMessageHandler must not be null";
     assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
@@ -53,7 +74,8 @@ public final class AlbusHCNMessageClientPipelineFactory {
             true, // useClientMode
             x509SecurityInfo,
             true, // needClientAuth
-            !x509SecurityInfo.isPublicCertificate()); // isStrongCiphers
+            !x509SecurityInfo.isPublicCertificate(), // isStrongCiphers
+            peerAddress);
     channelPipeline.addLast("decoder", new TaggedObjectDecoder());
     channelPipeline.addLast("encoder", new TaggedObjectEncoder());
     channelPipeline.addLast("albus-handler", albusHCNMessageHandler);
@@ -36,6 +36,10 @@ public class PortUnificationChannelPipelineFactory implements ChannelPipelineFac
   private final X509SecurityInfo x509SecurityInfo;
   // the indicator whether the HTTP connection is encrypted, i.e. HTTPS
   private final boolean isHTTPS;
+  // the indicator whether HTTP bodies are streamed as HTTP chunks rather than aggregated
+  private final boolean isHTTPStreaming;
+  // the protocol counters of the accepted connections
+  private final PortUnificationHandler.ProtocolCounters protocolCounters = new PortUnificationHandler.ProtocolCounters();
 
   /**
    * Constructs a new PortUnificationChannelPipelineFactory instance.
@@ -51,6 +55,31 @@ public class PortUnificationChannelPipelineFactory implements ChannelPipelineFac
           final AbstractHTTPRequestHandlerFactory httpRequestHandlerFactory,
           final X509SecurityInfo x509SecurityInfo,
           final boolean isHTTPS) {
+    this(
+            albusHCSMessageHandlerFactory,
+            httpRequestHandlerFactory,
+            x509SecurityInfo,
+            isHTTPS,
+            false); // isHTTPStreaming
+  }
+
+  /**
+   * Constructs a new PortUnificationChannelPipelineFactory instance.
+   *
+   * @param albusHCSMessageHandlerFactory the Albus HCN message handler factory
+   * @param httpRequestHandlerFactory the HTTP request handler factory
+   * @param x509SecurityInfo the X.509 security information
+   * @param isHTTPS the indicator whether the HTTP connection is encrypted, i.e. HTTPS
+   * @param isHTTPStreaming the indicator whether HTTP bodies are streamed to the HTTP request handler as HTTP chunks rather than
+   * aggregated, for large uploads
+   *
+   */
+  public PortUnificationChannelPipelineFactory(
+          final AbstractAlbusHCSMessageHandlerFactory albusHCSMessageHandlerFactory,
+          final AbstractHTTPRequestHandlerFactory httpRequestHandlerFactory,
+          final X509SecurityInfo x509SecurityInfo,
+          final boolean isHTTPS,
+          final boolean isHTTPStreaming) {
     //Preconditions
     assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
 
@@ -58,6 +87,7 @@ public class PortUnificationChannelPipelineFactory implements ChannelPipelineFac
     this.httpRequestHandlerFactory = httpRequestHandlerFactory;
     this.x509SecurityInfo = x509SecurityInfo;
     this.isHTTPS = isHTTPS;
+    this.isHTTPStreaming = isHTTPStreaming;
   }
 
   /**
@@ -74,20 +104,38 @@ public class PortUnificationChannelPipelineFactory implements ChannelPipelineFac
     if (httpRequestHandlerFactory != null) {
       portUnificationHandler.setHttpRequestHandler(httpRequestHandlerFactory.getHandler());
     }
+    portUnificationHandler.setHTTPStreaming(isHTTPStreaming);
+    portUnificationHandler.setProtocolCounters(protocolCounters);
+    // if this pipeline only expects HTTPS messages, then configure it not to require client X509 certificates
+    final boolean needClientAuth = albusHCSMessageHandlerFactory != null || httpRequestHandlerFactory == null;
     final ChannelPipeline channelPipeline;
     if (isHTTPS) {
-      // if this pipeline only expects HTTPS messages, then configure it not to require client X509 certificates
-      final boolean needClientAuth = albusHCSMessageHandlerFactory != null || httpRequestHandlerFactory == null;
       channelPipeline = SSLPipelineFactory.getPipeline(
               false, // useClientMode
               x509SecurityInfo,
               needClientAuth,
               !x509SecurityInfo.isPublicCertificate()); // isStrongCiphers
     } else {
+      // a TLS connection to the unencrypted port is recognized by its ClientHello
+      portUnificationHandler.setTLSConfiguration(
+              x509SecurityInfo,
+              needClientAuth,
+              !x509SecurityInfo.isPublicCertificate()); // isStrongCiphers
       channelPipeline = new DefaultChannelPipeline();
     }
     channelPipeline.addLast("port-unification", portUnificationHandler);
-    LOGGER.info(channelPipeline);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(channelPipeline);
+    }
     return channelPipeline;
   }
+
+  /**
+   * Gets the protocol counters of the accepted connections.
+   *
+   * @return the protocol counters
+   */
+  public PortUnificationHandler.ProtocolCounters getProtocolCounters() {
+    return protocolCounters;
+  }
 }
@@ -9,7 +9,7 @@
  */
 package org.texai.network.netty.pipeline;
 
-import javax.net.ssl.SSLContext;
+import java.net.InetSocketAddress;
 import javax.net.ssl.SSLEngine;
 import net.jcip.annotations.NotThreadSafe;
 import org.apache.log4j.Logger;
@@ -51,6 +51,32 @@ public final class SSLPipelineFactory {
           final X509SecurityInfo x509SecurityInfo,
           final boolean needClientAuth,
           final boolean isStrongCiphers) {
+    return getPipeline(
+            useClientMode,
+            x509SecurityInfo,
+            needClientAuth,
+            isStrongCiphers,
+            null); // peerAddress
+  }
+
+  /**
+   * Creates a new pipeline in which a SslHandler is the sole handler. A client pipeline given the peer address resumes the SSL session
+   * of an earlier connection to that peer.
+   *
+   * @param useClientMode the indicator whether the SSL engine is operating in client mode
+   * @param x509SecurityInfo the X.509 security information
+   * @param needClientAuth the indicator whether the server authenticates the client's SSL certificate
+   * @param isStrongCiphers the indicator whether strong ciphers are used, e.g. for the P2P network as opposed to the web server
+   * @param peerAddress the peer address, or null if unknown
+   *
+   * @return the configured pipeline having a SslHandler is the sole handler
+   */
+  public static ChannelPipeline getPipeline(
+          final boolean useClientMode,
+          final X509SecurityInfo x509SecurityInfo,
+          final boolean needClientAuth,
+          final boolean isStrongCiphers,
+          final InetSocketAddress peerAddress) {
     // Preconditions
     assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
 
@@ -61,7 +87,8 @@ public final class SSLPipelineFactory {
             useClientMode,
             x509SecurityInfo,
             needClientAuth,
-            isStrongCiphers);
+            isStrongCiphers,
+            peerAddress);
     final SslHandler sslHandler = new SslHandler(sslEngine);
     configuredPipeline.addFirst("ssl", sslHandler);
     if (LOGGER.isDebugEnabled()) {
@@ -77,6 +104,7 @@ public final class SSLPipelineFactory {
    * @param x509SecurityInfo the X.509 security information
    * @param needClientAuth te indicator whether the SSL client is authenticated by the server
    * @param isStrongCiphers the indicator whether strong ciphers are used, e.g. for the P2P network as opposed to the web server
+   * @param peerAddress the peer address, or null if unknown
    *
    * @return the configured SSL engine
    */
@@ -84,12 +112,17 @@ public final class SSLPipelineFactory {
           final boolean useClientMode,
           final X509SecurityInfo x509SecurityInfo,
           final boolean needClientAuth,
-          final boolean isStrongCiphers) {
+          final boolean isStrongCiphers,
+          final InetSocketAddress peerAddress) {
     // Preconditions
     assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
 
-    final SSLContext sslContext = TexaiSSLContextFactory.getSSLContext(x509SecurityInfo);
-    final SSLEngine sslEngine = sslContext.createSSLEngine();
+    final SSLEngine sslEngine;
+    if (peerAddress == null) {
+      sslEngine = TexaiSSLContextFactory.createSSLEngine(x509SecurityInfo, null, -1);
+    } else {
+      sslEngine = TexaiSSLContextFactory.createSSLEngine(x509SecurityInfo, peerAddress.getHostString(), peerAddress.getPort());
+    }
     TexaiSSLContextFactory.configureSSLEngine(sslEngine, useClientMode, needClientAuth, isStrongCiphers);
     return sslEngine;
   }
@@ -0,0 +1,237 @@
+/*
+ * ChunkedHeapChannelBufferFactory.java
+ *
+ * Created on Oct 19, 2026, 9:04:17 PM
+ *
+ * Description: Provides a heap channel buffer factory which slices small buffers from large per-thread chunks.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.network.netty.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+import org.jboss.netty.buffer.AbstractChannelBufferFactory;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferFactory;
+import org.jboss.netty.buffer.ChannelBuffers;
+
+/**
+ * Provides a heap channel buffer factory which slices small buffers from large per-thread chunks, in the manner of Netty's
+ * DirectChannelBufferFactory, so that the many small buffers of read and encoded messages cost one array allocation per chunk rather
+ * than one apiece. Netty buffers are not reference counted, so a chunk is never reused, and it is garbage collected with the last of
+ * its slices. Buffers larger than an eighth of a chunk are allocated singly.
+ *
+ * @author reed
+ */
+@ThreadSafe
+public final class ChunkedHeapChannelBufferFactory extends AbstractChannelBufferFactory {
+
+  // the default chunk size
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+  // the shared big endian instance
+  private static final ChunkedHeapChannelBufferFactory INSTANCE_BE = new ChunkedHeapChannelBufferFactory(ByteOrder.BIG_ENDIAN);
+  // the shared little endian instance
+  private static final ChunkedHeapChannelBufferFactory INSTANCE_LE = new ChunkedHeapChannelBufferFactory(ByteOrder.LITTLE_ENDIAN);
+  // the chunk size
+  private final int chunkSize;
+  // the largest buffer which is sliced from a chunk
+  private final int maximumSlicedCapacity;
+  // the current chunk of each thread
+  private final ThreadLocal<Chunk> currentChunk = new ThreadLocal<>();
+  // the number of allocated chunks
+  private final AtomicLong chunkCount = new AtomicLong();
+  // the number of buffers sliced from chunks
+  private final AtomicLong slicedBufferCount = new AtomicLong();
+  // the number of buffers allocated singly
+  private final AtomicLong unslicedBufferCount = new AtomicLong();
+
+  /**
+   * Constructs a new ChunkedHeapChannelBufferFactory instance having the default chunk size.
+   *
+   * @param defaultOrder the default byte order of the buffers
+   */
+  public ChunkedHeapChannelBufferFactory(final ByteOrder defaultOrder) {
+    this(defaultOrder, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructs a new ChunkedHeapChannelBufferFactory instance.
+   *
+   * @param defaultOrder the default byte order of the buffers
+   * @param chunkSize the chunk size
+   */
+  public ChunkedHeapChannelBufferFactory(
+          final ByteOrder defaultOrder,
+          final int chunkSize) {
+    super(defaultOrder);
+    //Preconditions
+    if (chunkSize < 64) {
+      throw new IllegalArgumentException("chunkSize: " + chunkSize);
+    }
+
+    this.chunkSize = chunkSize;
+    maximumSlicedCapacity = chunkSize >>> 3;
+  }
+
+  /**
+   * Gets the shared big endian instance.
+   *
+   * @return the shared big endian instance
+   */
+  public static ChannelBufferFactory getInstance() {
+    return INSTANCE_BE;
+  }
+
+  /**
+   * Gets the shared instance having the given default byte order.
+   *
+   * @param defaultOrder the default byte order of the buffers
+   * @return the shared instance
+   */
+  public static ChannelBufferFactory getInstance(final ByteOrder defaultOrder) {
+    //Preconditions
+    assert defaultOrder != null : "defaultOrder must not be null";
+
+    return defaultOrder == ByteOrder.BIG_ENDIAN ? INSTANCE_BE : INSTANCE_LE;
+  }
+
+  /**
+   * Returns an empty buffer having the given byte order and capacity.
+   *
+   * @param order the byte order
+   * @param capacity the capacity
+   * @return an empty buffer
+   */
+  @Override
+  public ChannelBuffer getBuffer(final ByteOrder order, final int capacity) {
+    //Preconditions
+    if (order == null) {
+      throw new NullPointerException("order");
+    }
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity: " + capacity);
+    }
+
+    if (capacity == 0) {
+      return ChannelBuffers.EMPTY_BUFFER;
+    }
+    if (capacity > maximumSlicedCapacity) {
+      unslicedBufferCount.incrementAndGet();
+      return ChannelBuffers.buffer(order, capacity);
+    }
+    Chunk chunk = currentChunk.get();
+    if (chunk == null || chunk.array.length - chunk.position < capacity) {
+      chunk = new Chunk(new byte[chunkSize]);
+      currentChunk.set(chunk);
+      chunkCount.incrementAndGet();
+    }
+    final ChannelBuffer slice = ChannelBuffers.wrappedBuffer(order, chunk.array, chunk.position, capacity);
+    slice.clear();
+    // keep the slices aligned on 8 byte boundaries
+    chunk.position = Math.min(chunk.array.length, chunk.position + ((capacity + 7) & ~7));
+    slicedBufferCount.incrementAndGet();
+    return slice;
+  }
+
+  /**
+   * Returns a buffer having the given byte order, whose content is a copy of the given array range.
+   *
+   * @param order the byte order
+   * @param array the given array
+   * @param offset the offset of the range
+   * @param length the length of the range
+   * @return a buffer containing the copied bytes
+   */
+  @Override
+  public ChannelBuffer getBuffer(
+          final ByteOrder order,
+          final byte[] array,
+          final int offset,
+          final int length) {
+    if (length == 0) {
+      return ChannelBuffers.EMPTY_BUFFER;
+    }
+    final ChannelBuffer channelBuffer = getBuffer(order, length);
+    channelBuffer.writeBytes(array, offset, length);
+    return channelBuffer;
+  }
+
+  /**
+   * Returns a buffer whose content is the remaining bytes of the given NIO buffer, which is wrapped if it has an accessible array and
+   * copied otherwise.
+   *
+   * @param nioBuffer the given NIO buffer
+   * @return a buffer containing the remaining bytes
+   */
+  @Override
+  public ChannelBuffer getBuffer(final ByteBuffer nioBuffer) {
+    if (!nioBuffer.isReadOnly() && nioBuffer.hasArray()) {
+      return ChannelBuffers.wrappedBuffer(nioBuffer);
+    }
+    final ChannelBuffer channelBuffer = getBuffer(nioBuffer.order(), nioBuffer.remaining());
+    final int position = nioBuffer.position();
+    channelBuffer.writeBytes(nioBuffer);
+    nioBuffer.position(position);
+    return channelBuffer;
+  }
+
+  /**
+   * Gets the number of allocated chunks.
+   *
+   * @return the number of allocated chunks
+   */
+  public long getChunkCount() {
+    return chunkCount.get();
+  }
+
+  /**
+   * Gets the number of buffers sliced from chunks.
+   *
+   * @return the number of buffers sliced from chunks
+   */
+  public long getSlicedBufferCount() {
+    return slicedBufferCount.get();
+  }
+
+  /**
+   * Gets the number of buffers allocated singly because they are too large to slice from a chunk.
+   *
+   * @return the number of buffers allocated singly
+   */
+  public long getUnslicedBufferCount() {
+    return unslicedBufferCount.get();
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[ChunkedHeapChannelBufferFactory chunks: " + chunkCount.get()
+            + ", sliced: " + slicedBufferCount.get()
+            + ", unsliced: " + unslicedBufferCount.get() + "]";
+  }
+
+  /** Contains a chunk from which buffers are sliced by its owning thread. */
+  private static final class Chunk {
+
+    // the chunk bytes
+    private final byte[] array;
+    // the position of the next slice
+    private int position = 0;
+
+    /**
+     * Constructs a new Chunk instance.
+     *
+     * @param array the chunk bytes
+     */
+    Chunk(final byte[] array) {
+      this.array = array;
+    }
+  }
+}
@@ -53,6 +53,8 @@ public final class ConnectionUtils {
   private static final Logger LOGGER = Logger.getLogger(ConnectionUtils.class);
   // the connected channel dictionary, channel latch --> channel
   private final static Map<Object, Channel> connectedChannelDictionary = new HashMap<>();
+  // the dictionary of servers which use shared thread pools, server bootstrap --> bound server channel
+  private final static Map<ServerBootstrap, Channel> sharedServerChannelDictionary = new HashMap<>();
 
   /**
    * Prevents the instantiation of this utility class.
@@ -83,10 +85,81 @@ public final class ConnectionUtils {
           final Executor workerExecutor,
           final boolean isHTTPS) {
     //Preconditions
-    assert port >= 0 && port <= 65535 : "invalid port number";
     assert bossExecutor != null : "bossExecutor must not be null";
     assert workerExecutor != null : "workerExecutor must not be null";
 
+    final ServerBootstrap serverBootstrap = new ServerBootstrap(new NioServerSocketChannelFactory(
+            bossExecutor,
+            workerExecutor));
+    bindPortUnificationServer(
+            serverBootstrap,
+            port,
+            x509SecurityInfo,
+            albusHCSMessageHandlerFactory,
+            httpRequestHandlerFactory,
+            isHTTPS);
+    return serverBootstrap;
+  }
+
+  /**
+   * Creates a port unification server, handling Albus hierarchical control system messages, bit torrent messages, and HTTP requests, using
+   * a single shared socket with SSL encryption. The server uses the node's shared server channel factory.
+   *
+   * @param port the server port
+   * @param x509SecurityInfo the X.509 security information
+   * @param albusHCSMessageHandlerFactory the Albus hierarchical control system message handler factory
+   * @param httpRequestHandlerFactory the HTTP request message handler factory
+   * @param nettyIOThreadPools the node's shared Netty I/O thread pools
+   * @param isHTTPS the indicator whether the HTTP connection is encrypted, i.e. HTTPS
+   *
+   * @return the server bootstrap, which contains a new server-side channel and accepts incoming connections
+   */
+  public static ServerBootstrap createPortUnificationServer(
+          final int port,
+          final X509SecurityInfo x509SecurityInfo,
+          final AbstractAlbusHCSMessageHandlerFactory albusHCSMessageHandlerFactory,
+          final AbstractHTTPRequestHandlerFactory httpRequestHandlerFactory,
+          final NettyIOThreadPools nettyIOThreadPools,
+          final boolean isHTTPS) {
+    //Preconditions
+    assert nettyIOThreadPools != null : "nettyIOThreadPools must not be null";
+
+    final ServerBootstrap serverBootstrap = new ServerBootstrap(nettyIOThreadPools.getServerSocketChannelFactory());
+    final Channel serverChannel = bindPortUnificationServer(
+            serverBootstrap,
+            port,
+            x509SecurityInfo,
+            albusHCSMessageHandlerFactory,
+            httpRequestHandlerFactory,
+            isHTTPS);
+    synchronized (sharedServerChannelDictionary) {
+      sharedServerChannelDictionary.put(serverBootstrap, serverChannel);
+    }
+    return serverBootstrap;
+  }
+
+  /**
+   * Configures the given port unification server bootstrap, and binds it to the given port.
+   *
+   * @param serverBootstrap the given server bootstrap
+   * @param port the server port
+   * @param x509SecurityInfo the X.509 security information
+   * @param albusHCSMessageHandlerFactory the Albus hierarchical control system message handler factory
+   * @param httpRequestHandlerFactory the HTTP request message handler factory
+   * @param isHTTPS the indicator whether the HTTP connection is encrypted, i.e. HTTPS
+   *
+   * @return the bound server channel
+   */
+  private static Channel bindPortUnificationServer(
+          final ServerBootstrap serverBootstrap,
+          final int port,
+          final X509SecurityInfo x509SecurityInfo,
+          final AbstractAlbusHCSMessageHandlerFactory albusHCSMessageHandlerFactory,
+          final AbstractHTTPRequestHandlerFactory httpRequestHandlerFactory,
+          final boolean isHTTPS) {
+    //Preconditions
+    assert port >= 0 && port <= 65535 : "invalid port number";
+
     // configure the server channel pipeline factory
     final ChannelPipelineFactory channelPipelineFactory = new PortUnificationChannelPipelineFactory(
             albusHCSMessageHandlerFactory,
@@ -94,31 +167,38 @@ public final class ConnectionUtils {
             x509SecurityInfo,
             isHTTPS);
 
-    // configure the server
-    final ServerBootstrap serverBootstrap = new ServerBootstrap(new NioServerSocketChannelFactory(
-            bossExecutor,
-            workerExecutor));
-
     serverBootstrap.setPipelineFactory(channelPipelineFactory);
+    // slice the many small read and encoded buffers from shared chunks
+    serverBootstrap.setOption("child.bufferFactory", ChunkedHeapChannelBufferFactory.getInstance());
 
     // bind and start to accept incoming connections
     final InetSocketAddress inetSocketAddress = new InetSocketAddress(port);
-    serverBootstrap.bind(inetSocketAddress);
+    final Channel serverChannel = serverBootstrap.bind(inetSocketAddress);
     try {
       LOGGER.info("accepting connections on " + InetAddress.getLocalHost() + ":" + inetSocketAddress.getPort());
     } catch (UnknownHostException ex) {
       // ignore
     }
-    return serverBootstrap;
+    return serverChannel;
   }
 
   /**
-   * Releases the resources held by the port unification server, and closes its associated thread pools.
+   * Releases the resources held by the port unification server, and closes its associated thread pools unless they are the node's shared
+   * thread pools.
    *
    * @param serverBootstrap the server bootstrap
    */
   public static void closePortUnificationServer(final ServerBootstrap serverBootstrap) {
-    serverBootstrap.releaseExternalResources();
+    final Channel serverChannel;
+    synchronized (sharedServerChannelDictionary) {
+      serverChannel = sharedServerChannelDictionary.remove(serverBootstrap);
+    }
+    if (serverChannel == null) {
+      serverBootstrap.releaseExternalResources();
+    } else {
+      // the shared thread pools remain in use by the node's other channels
+      serverChannel.close().awaitUninterruptibly();
+    }
   }
 
   /**
@@ -139,9 +219,6 @@ public final class ConnectionUtils {
           final Executor bossExecutor,
           final Executor workerExecutor) {
     //Preconditions
-    assert inetSocketAddress != null : "inetSocketAddress must not be null";
-    assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
-    assert albusHCSMessageHandler != null : "albusHCSMessageHandler must not be null";
     assert bossExecutor != null : "bossExecutor must not be null";
     assert workerExecutor != null : "workerExecutor must not be null";
 
@@ -151,6 +228,63 @@ public final class ConnectionUtils {
     final ClientBootstrap clientBootstrap = new ClientBootstrap(new NioClientSocketChannelFactory(
             bossExecutor,
             workerExecutor));
+    return connectAlbusHCS(
+            clientBootstrap,
+            inetSocketAddress,
+            x509SecurityInfo,
+            albusHCSMessageHandler,
+            bossExecutor);
+  }
+
+  /**
+   * Opens an Albus hierarchical control system message connection using SSL encryption. The connection uses the node's shared client
+   * channel factory.
+   *
+   * @param inetSocketAddress the IP socket address, host & port
+   * @param x509SecurityInfo the X.509 security information
+   * @param albusHCSMessageHandler the Albus hierarchical control system message handler
+   * @param nettyIOThreadPools the node's shared Netty I/O thread pools
+   *
+   * @return the communication channel
+   */
+  public static Channel openAlbusHCSConnection(
+          final InetSocketAddress inetSocketAddress,
+          final X509SecurityInfo x509SecurityInfo,
+          final AbstractAlbusHCSMessageHandler albusHCSMessageHandler,
+          final NettyIOThreadPools nettyIOThreadPools) {
+    //Preconditions
+    assert nettyIOThreadPools != null : "nettyIOThreadPools must not be null";
+
+    final ClientBootstrap clientBootstrap = new ClientBootstrap(nettyIOThreadPools.getClientSocketChannelFactory());
+    return connectAlbusHCS(
+            clientBootstrap,
+            inetSocketAddress,
+            x509SecurityInfo,
+            albusHCSMessageHandler,
+            (final Runnable runnable) -> runnable.run()); // the connection attempt is asynchronous
+  }
+
+  /**
+   * Configures the given Albus client bootstrap and connects it to the given address.
+   *
+   * @param clientBootstrap the given client bootstrap
+   * @param inetSocketAddress the IP socket address, host & port
+   * @param x509SecurityInfo the X.509 security information
+   * @param albusHCSMessageHandler the Albus hierarchical control system message handler
+   * @param connectorExecutor the Executor which will start the connection attempt
+   *
+   * @return the communication channel, or null if the connection attempt failed
+   */
+  private static Channel connectAlbusHCS(
+          final ClientBootstrap clientBootstrap,
+          final InetSocketAddress inetSocketAddress,
+          final X509SecurityInfo x509SecurityInfo,
+          final AbstractAlbusHCSMessageHandler albusHCSMessageHandler,
+          final Executor connectorExecutor) {
+    //Preconditions
+    assert inetSocketAddress != null : "inetSocketAddress must not be null";
+    assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
+    assert albusHCSMessageHandler != null : "albusHCSMessageHandler must not be null";
 
     // configure the client pipeline
     if (LOGGER.isDebugEnabled()) {
@@ -158,13 +292,15 @@ public final class ConnectionUtils {
     }
     final ChannelPipeline channelPipeline = AlbusHCNMessageClientPipelineFactory.getPipeline(
             albusHCSMessageHandler,
-            x509SecurityInfo);
+            x509SecurityInfo,
+            inetSocketAddress); // the peer address, by which a reconnection resumes the SSL session
     clientBootstrap.setPipeline(channelPipeline);
+    clientBootstrap.setOption("bufferFactory", ChunkedHeapChannelBufferFactory.getInstance());
 
     // start the connection attempt
     final Semaphore channelConnection_lock = new Semaphore(
             0); // permits
-    bossExecutor.execute(new ChannelConnector(
+    connectorExecutor.execute(new ChannelConnector(
             clientBootstrap,
             inetSocketAddress,
             channelConnection_lock));
@@ -442,6 +578,7 @@ public final class ConnectionUtils {
             httpResponseHandler,
             x509SecurityInfo);
     clientBootstrap.setPipeline(channelPipeline);
+    clientBootstrap.setOption("bufferFactory", ChunkedHeapChannelBufferFactory.getInstance());
 
     // start the connection attempt
     final ChannelFuture channelFuture = clientBootstrap.connect(inetSocketAddress);
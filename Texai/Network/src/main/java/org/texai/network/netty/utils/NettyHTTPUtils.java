@@ -276,7 +276,7 @@ public final class NettyHTTPUtils {
    * @param httpRequest the HTTP request
    * @param httpResponse the HTTP response
    */
-  private static void setAccessControl(
+  public static void setAccessControl(
           final HttpRequest httpRequest,
           final HttpResponse httpResponse) {
     //Preconditions
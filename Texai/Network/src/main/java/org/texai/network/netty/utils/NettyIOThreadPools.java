@@ -0,0 +1,240 @@
+/*
+ * NettyIOThreadPools.java
+ *
+ * Created on Oct 19, 2026, 10:18:52 PM
+ *
+ * Description: Provides a node's shared Netty NIO channel factories and their bounded boss and worker thread pools.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.network.netty.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.jboss.netty.channel.socket.ClientSocketChannelFactory;
+import org.jboss.netty.channel.socket.ServerSocketChannelFactory;
+import org.jboss.netty.channel.socket.nio.NioClientSocketChannelFactory;
+import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.texai.util.StringUtils;
+import org.texai.util.TexaiException;
+
+/**
+ * Provides a node's shared Netty NIO channel factories and their bounded boss and worker thread pools. All the outbound connections of
+ * the node share one client channel factory, and its listening servers share one server channel factory, so the number of selectors and
+ * I/O threads does not grow with the number of peers. Netty runs one boss thread for each bound server channel and one for the client
+ * factory, and exactly the configured number of worker threads for each factory.
+ *
+ * The application work triggered by received messages belongs on the node's own executor, not on these I/O threads.
+ *
+ * @author reed
+ */
+@ThreadSafe
+public final class NettyIOThreadPools {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(NettyIOThreadPools.class);
+  // the system property which configures the number of server I/O worker threads
+  public static final String SERVER_WORKER_COUNT_PROPERTY = "org.texai.network.serverWorkerCount";
+  // the system property which configures the number of client I/O worker threads
+  public static final String CLIENT_WORKER_COUNT_PROPERTY = "org.texai.network.clientWorkerCount";
+  // the default number of I/O worker threads for each channel factory, which is the Netty default
+  public static final int DEFAULT_WORKER_COUNT = Runtime.getRuntime().availableProcessors() * 2;
+  // the name, which prefixes the thread names
+  private final String name;
+  // the number of server I/O worker threads
+  private final int serverWorkerCount;
+  // the number of client I/O worker threads
+  private final int clientWorkerCount;
+  // the boss thread pool
+  private final ExecutorService bossExecutor;
+  // the server worker thread pool
+  private final ExecutorService serverWorkerExecutor;
+  // the client worker thread pool
+  private final ExecutorService clientWorkerExecutor;
+  // the shared server channel factory, which is created when first needed
+  private NioServerSocketChannelFactory serverSocketChannelFactory;
+  // the shared client channel factory, which is created when first needed
+  private NioClientSocketChannelFactory clientSocketChannelFactory;
+  // the indicator whether the thread pools are released
+  private boolean isReleased = false;
+
+  /**
+   * Constructs a new NettyIOThreadPools instance.
+   *
+   * @param name the name, which prefixes the thread names, e.g. the container name
+   * @param serverWorkerCount the number of server I/O worker threads
+   * @param clientWorkerCount the number of client I/O worker threads
+   */
+  public NettyIOThreadPools(
+          final String name,
+          final int serverWorkerCount,
+          final int clientWorkerCount) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(name) : "name must be a non-empty string";
+    if (serverWorkerCount < 1) {
+      throw new IllegalArgumentException("serverWorkerCount: " + serverWorkerCount);
+    }
+    if (clientWorkerCount < 1) {
+      throw new IllegalArgumentException("clientWorkerCount: " + clientWorkerCount);
+    }
+
+    this.name = name;
+    this.serverWorkerCount = serverWorkerCount;
+    this.clientWorkerCount = clientWorkerCount;
+    // Netty submits a fixed number of long running tasks, so cached pools are bounded by the channel factories
+    bossExecutor = Executors.newCachedThreadPool(new IOThreadFactory(name + "-io-boss"));
+    serverWorkerExecutor = Executors.newCachedThreadPool(new IOThreadFactory(name + "-io-server-worker"));
+    clientWorkerExecutor = Executors.newCachedThreadPool(new IOThreadFactory(name + "-io-client-worker"));
+  }
+
+  /**
+   * Creates a new NettyIOThreadPools instance whose worker thread counts are given by the system properties
+   * org.texai.network.serverWorkerCount and org.texai.network.clientWorkerCount, which default to twice the number of processors.
+   *
+   * @param name the name, which prefixes the thread names, e.g. the container name
+   *
+   * @return the new instance
+   */
+  public static NettyIOThreadPools newInstance(final String name) {
+    return new NettyIOThreadPools(
+            name,
+            Integer.getInteger(SERVER_WORKER_COUNT_PROPERTY, DEFAULT_WORKER_COUNT),
+            Integer.getInteger(CLIENT_WORKER_COUNT_PROPERTY, DEFAULT_WORKER_COUNT));
+  }
+
+  /**
+   * Gets the shared server channel factory.
+   *
+   * @return the shared server channel factory
+   */
+  public synchronized ServerSocketChannelFactory getServerSocketChannelFactory() {
+    if (isReleased) {
+      throw new TexaiException("the Netty I/O thread pools of " + name + " are released");
+    }
+    if (serverSocketChannelFactory == null) {
+      serverSocketChannelFactory = new NioServerSocketChannelFactory(
+              bossExecutor,
+              serverWorkerExecutor,
+              serverWorkerCount);
+    }
+    return serverSocketChannelFactory;
+  }
+
+  /**
+   * Gets the shared client channel factory.
+   *
+   * @return the shared client channel factory
+   */
+  public synchronized ClientSocketChannelFactory getClientSocketChannelFactory() {
+    if (isReleased) {
+      throw new TexaiException("the Netty I/O thread pools of " + name + " are released");
+    }
+    if (clientSocketChannelFactory == null) {
+      clientSocketChannelFactory = new NioClientSocketChannelFactory(
+              bossExecutor,
+              clientWorkerExecutor,
+              clientWorkerCount);
+    }
+    return clientSocketChannelFactory;
+  }
+
+  /**
+   * Gets the number of server I/O worker threads.
+   *
+   * @return the number of server I/O worker threads
+   */
+  public int getServerWorkerCount() {
+    return serverWorkerCount;
+  }
+
+  /**
+   * Gets the number of client I/O worker threads.
+   *
+   * @return the number of client I/O worker threads
+   */
+  public int getClientWorkerCount() {
+    return clientWorkerCount;
+  }
+
+  /**
+   * Gets the number of live I/O threads, bosses and workers.
+   *
+   * @return the number of live I/O threads
+   */
+  public int getIOThreadCount() {
+    return ((ThreadPoolExecutor) bossExecutor).getPoolSize()
+            + ((ThreadPoolExecutor) serverWorkerExecutor).getPoolSize()
+            + ((ThreadPoolExecutor) clientWorkerExecutor).getPoolSize();
+  }
+
+  /**
+   * Releases the channel factories and terminates their threads. The channels which they created should be closed beforehand.
+   */
+  public synchronized void releaseExternalResources() {
+    if (isReleased) {
+      return;
+    }
+    isReleased = true;
+    LOGGER.info("releasing the Netty I/O thread pools of " + name);
+    if (serverSocketChannelFactory != null) {
+      serverSocketChannelFactory.releaseExternalResources();
+    }
+    if (clientSocketChannelFactory != null) {
+      clientSocketChannelFactory.releaseExternalResources();
+    }
+    bossExecutor.shutdownNow();
+    serverWorkerExecutor.shutdownNow();
+    clientWorkerExecutor.shutdownNow();
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[NettyIOThreadPools " + name
+            + ", server workers: " + serverWorkerCount
+            + ", client workers: " + clientWorkerCount
+            + ", live I/O threads: " + getIOThreadCount() + "]";
+  }
+
+  /**
+   * Provides a factory of named daemon I/O threads.
+   */
+  private static final class IOThreadFactory implements ThreadFactory {
+
+    // the thread name prefix
+    private final String namePrefix;
+    // the thread number
+    private final AtomicInteger threadNumber = new AtomicInteger(0);
+
+    /**
+     * Constructs a new IOThreadFactory instance.
+     *
+     * @param namePrefix the thread name prefix
+     */
+    IOThreadFactory(final String namePrefix) {
+      this.namePrefix = namePrefix;
+    }
+
+    /**
+     * Creates a new thread which runs the given runnable.
+     *
+     * @param runnable the given runnable
+     * @return the new thread
+     */
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread = new Thread(runnable, namePrefix + "-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * BitcoinProtocolDecoderTest.java
+ *
+ * Created on Oct 19, 2026, 8:40:12 PM
+ *
+ * Description: .
+ *
+ * Copyright (C) Oct 19, 2026 reed.
+ *
+ */
+package org.texai.network.netty.handler;
+
+import com.google.bitcoin.core.BitcoinSerializer;
+import com.google.bitcoin.core.Message;
+import com.google.bitcoin.core.NetworkParameters;
+import com.google.bitcoin.core.Ping;
+import com.google.bitcoin.params.MainNetParams;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.apache.log4j.Logger;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.embedder.DecoderEmbedder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author reed
+ */
+public class BitcoinProtocolDecoderTest {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(BitcoinProtocolDecoderTest.class);
+  // the network parameters
+  private static final NetworkParameters NETWORK_PARAMETERS = MainNetParams.get();
+
+  public BitcoinProtocolDecoderTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws Exception {
+  }
+
+  /**
+   * Test of decode method, of class BitcoinProtocolDecoder.
+   */
+  @Test
+  public void testDecode() throws IOException {
+    LOGGER.info("decode");
+    final BitcoinProtocolDecoder bitcoinProtocolDecoder = new BitcoinProtocolDecoder(NETWORK_PARAMETERS);
+    final DecoderEmbedder<Message> decoderEmbedder = new DecoderEmbedder<>(bitcoinProtocolDecoder);
+    final byte[] messageBytes = serialize(new Ping(1L));
+    final byte[] messageBytes2 = serialize(new Ping(2L));
+    assertEquals(BitcoinProtocolDecoder.HEADER_LENGTH + 8, messageBytes.length);
+
+    // a message received in two fragments, followed by a second message
+    assertFalse(decoderEmbedder.offer(ChannelBuffers.wrappedBuffer(messageBytes, 0, 10)));
+    assertFalse(decoderEmbedder.offer(ChannelBuffers.wrappedBuffer(messageBytes, 10, 20)));
+    final byte[] remainingBytes = new byte[messageBytes.length - 30 + messageBytes2.length];
+    System.arraycopy(messageBytes, 30, remainingBytes, 0, messageBytes.length - 30);
+    System.arraycopy(messageBytes2, 0, remainingBytes, messageBytes.length - 30, messageBytes2.length);
+    assertTrue(decoderEmbedder.offer(ChannelBuffers.wrappedBuffer(remainingBytes)));
+    assertEquals(1L, ((Ping) decoderEmbedder.poll()).getNonce());
+    assertEquals(2L, ((Ping) decoderEmbedder.poll()).getNonce());
+    assertNull(decoderEmbedder.poll());
+    assertEquals(2, bitcoinProtocolDecoder.getDecodedMessageCount());
+    assertEquals(0, bitcoinProtocolDecoder.getDiscardedByteCount());
+    decoderEmbedder.finish();
+  }
+
+  /**
+   * Test that the decoder discards bytes which are not a valid message.
+   */
+  @Test
+  public void testDiscard() throws IOException {
+    LOGGER.info("discard");
+    final BitcoinProtocolDecoder bitcoinProtocolDecoder = new BitcoinProtocolDecoder(NETWORK_PARAMETERS);
+    final DecoderEmbedder<Message> decoderEmbedder = new DecoderEmbedder<>(bitcoinProtocolDecoder);
+    final byte[] corruptMessageBytes = serialize(new Ping(1L));
+    // corrupt the checksum
+    corruptMessageBytes[20]++;
+    final byte[] messageBytes = serialize(new Ping(2L));
+    final byte[] bytes = new byte[5 + corruptMessageBytes.length + messageBytes.length];
+    // garbage preceding the first message
+    for (int i = 0; i < 5; i++) {
+      bytes[i] = (byte) i;
+    }
+    System.arraycopy(corruptMessageBytes, 0, bytes, 5, corruptMessageBytes.length);
+    System.arraycopy(messageBytes, 0, bytes, 5 + corruptMessageBytes.length, messageBytes.length);
+
+    assertTrue(decoderEmbedder.offer(ChannelBuffers.wrappedBuffer(bytes)));
+    assertEquals(2L, ((Ping) decoderEmbedder.poll()).getNonce());
+    assertNull(decoderEmbedder.poll());
+    assertEquals(1, bitcoinProtocolDecoder.getDecodedMessageCount());
+    assertEquals(5 + corruptMessageBytes.length, bitcoinProtocolDecoder.getDiscardedByteCount());
+    decoderEmbedder.finish();
+  }
+
+  /**
+   * Serializes the given message in the Bitcoin wire protocol.
+   *
+   * @param message the given message
+   * @return the serialized message bytes
+   * @throws IOException if an input/output error occurs
+   */
+  private static byte[] serialize(final Message message) throws IOException {
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    new BitcoinSerializer(NETWORK_PARAMETERS).serialize(message, byteArrayOutputStream);
+    return byteArrayOutputStream.toByteArray();
+  }
+}
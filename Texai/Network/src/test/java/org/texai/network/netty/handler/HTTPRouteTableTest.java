@@ -0,0 +1,116 @@
+/*
+ * HTTPRouteTableTest.java
+ *
+ * Created on Oct 20, 2026, 12:21:37 AM
+ *
+ * Description: .
+ *
+ * Copyright (C) Oct 20, 2026 reed.
+ *
+ */
+package org.texai.network.netty.handler;
+
+import java.util.Arrays;
+import org.apache.log4j.Logger;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.handler.codec.http.HttpMethod;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+import org.jboss.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author reed
+ */
+public class HTTPRouteTableTest {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(HTTPRouteTableTest.class);
+
+  public HTTPRouteTableTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws Exception {
+  }
+
+  /**
+   * Test of lookup method, of class HTTPRouteTable.
+   */
+  @Test
+  public void testLookup() {
+    LOGGER.info("lookup");
+    final TexaiHTTPRequestHandler fallbackHandler = new TestHandler();
+    final TexaiHTTPRequestHandler chatHandler = new TestHandler();
+    final TexaiHTTPRequestHandler loginHandler = new TestHandler();
+    final TexaiHTTPRequestHandler uploadHandler = new TestHandler();
+    final HTTPRouteTable instance = HTTPRouteTable.EMPTY
+            .add(fallbackHandler, null, "/")
+            .add(chatHandler, null, "/chat")
+            .add(loginHandler, HttpMethod.POST, "/chat/login/")
+            .add(uploadHandler, HttpMethod.POST, "/upload");
+    LOGGER.info(instance);
+    assertEquals(4, instance.size());
+
+    assertEquals(Arrays.asList(fallbackHandler), instance.lookup(HttpMethod.GET, "/index.html"));
+    assertEquals(Arrays.asList(fallbackHandler), instance.lookup(HttpMethod.GET, "/"));
+    assertEquals(Arrays.asList(fallbackHandler), instance.lookup(HttpMethod.GET, ""));
+    // the longest matching prefix is first
+    assertEquals(Arrays.asList(chatHandler, fallbackHandler), instance.lookup(HttpMethod.GET, "/chat"));
+    assertEquals(Arrays.asList(chatHandler, fallbackHandler), instance.lookup(HttpMethod.GET, "/chat/login"));
+    assertEquals(Arrays.asList(loginHandler, chatHandler, fallbackHandler), instance.lookup(HttpMethod.POST, "/chat//login/form"));
+    // a prefix matches whole segments
+    assertEquals(Arrays.asList(fallbackHandler), instance.lookup(HttpMethod.GET, "/chatter"));
+    assertEquals(Arrays.asList(fallbackHandler), instance.lookup(HttpMethod.GET, "/upload"));
+    assertEquals(Arrays.asList(uploadHandler, fallbackHandler), instance.lookup(HttpMethod.POST, "/upload"));
+  }
+
+  /**
+   * Test of add and remove methods, of class HTTPRouteTable.
+   */
+  @Test
+  public void testAddAndRemove() {
+    LOGGER.info("addAndRemove");
+    final TexaiHTTPRequestHandler handler1 = new TestHandler();
+    final TexaiHTTPRequestHandler handler2 = new TestHandler();
+    final HTTPRouteTable routeTable1 = HTTPRouteTable.EMPTY.add(handler1, null, "/");
+    final HTTPRouteTable routeTable2 = routeTable1
+            .add(handler2, null, "/")
+            .add(handler1, HttpMethod.GET, "/a");
+    // the tables are immutable
+    assertEquals(1, routeTable1.size());
+    assertEquals(Arrays.asList(handler1), routeTable1.getTexaiHTTPRequestHandlers());
+    assertEquals(3, routeTable2.size());
+    assertEquals(Arrays.asList(handler1, handler2), routeTable2.getTexaiHTTPRequestHandlers());
+    // a handler having several matching routes is offered the request once
+    assertEquals(Arrays.asList(handler1, handler2), routeTable2.lookup(HttpMethod.GET, "/a/b"));
+
+    final HTTPRouteTable routeTable3 = routeTable2.remove(handler1);
+    assertEquals(1, routeTable3.size());
+    assertEquals(Arrays.asList(handler2), routeTable3.lookup(HttpMethod.GET, "/a/b"));
+    assertEquals(3, routeTable2.size());
+  }
+
+  /**
+   * Provides a Texai HTTP request handler which handles nothing.
+   */
+  private static final class TestHandler implements TexaiHTTPRequestHandler {
+
+    @Override
+    public boolean httpRequestReceived(final HttpRequest httpRequest, final Channel channel) {
+      return false;
+    }
+
+    @Override
+    public boolean textWebSocketFrameReceived(final Channel channel, final TextWebSocketFrame textWebSocketFrame) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,295 @@
+package org.texai.network.netty.handler;
+
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import org.apache.log4j.Logger;
+import org.jboss.netty.bootstrap.ServerBootstrap;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.jboss.netty.handler.codec.http.HttpChunk;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.texai.network.netty.handler.PortUnificationHandler.Protocol;
+import org.texai.ssl.TexaiSSLContextFactory;
+import org.texai.x509.KeyStoreUtils;
+import org.texai.x509.X509SecurityInfo;
+
+/**
+ * PortUnificationHandlerTest.java
+ *
+ * Description: Tests the protocol recognition and pipeline specialization of the port unification handler.
+ *
+ * Copyright (C) Oct 20, 2026, Stephen L. Reed.
+ */
+public class PortUnificationHandlerTest {
+
+  // the log4j logger
+  private static final Logger LOGGER = Logger.getLogger(PortUnificationHandlerTest.class);
+  // the HTTP request body length, which exceeds the HTTP decoder's maximum chunk size
+  private static final int BODY_LENGTH = 20000;
+  // the protocol counters
+  private static final PortUnificationHandler.ProtocolCounters protocolCounters = new PortUnificationHandler.ProtocolCounters();
+  // the protocol counters of the server which recognizes TLS
+  private static final PortUnificationHandler.ProtocolCounters tlsProtocolCounters = new PortUnificationHandler.ProtocolCounters();
+  // the messages received by the HTTP request handler
+  private static final BlockingQueue<Object> httpMessages = new LinkedBlockingQueue<>();
+  // the indicator whether HTTP bodies are streamed
+  private static volatile boolean isHTTPStreaming;
+  // the server bootstrap
+  private static ServerBootstrap serverBootstrap;
+  // the server channel
+  private static Channel serverChannel;
+  // the server bootstrap which recognizes TLS
+  private static ServerBootstrap tlsServerBootstrap;
+  // the server channel which recognizes TLS
+  private static Channel tlsServerChannel;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    serverBootstrap = createServerBootstrap(null, protocolCounters);
+    serverChannel = serverBootstrap.bind(new InetSocketAddress("localhost", 0));
+    tlsServerBootstrap = createServerBootstrap(KeyStoreUtils.getServerX509SecurityInfo(), tlsProtocolCounters);
+    tlsServerChannel = tlsServerBootstrap.bind(new InetSocketAddress("localhost", 0));
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws Exception {
+    serverChannel.close().awaitUninterruptibly();
+    serverBootstrap.releaseExternalResources();
+    tlsServerChannel.close().awaitUninterruptibly();
+    tlsServerBootstrap.releaseExternalResources();
+  }
+
+  /**
+   * Creates a new instance of PortUnificationHandlerTest.
+   */
+  public PortUnificationHandlerTest() {
+  }
+
+  /**
+   * Test of the aggregating and streaming HTTP pipelines, of class PortUnificationHandler.
+   *
+   * @throws Exception when an error occurs
+   */
+  @Test
+  public void testHTTP() throws Exception {
+    LOGGER.info("testHTTP");
+
+    // the aggregating pipeline delivers the whole body in the request
+    isHTTPStreaming = false;
+    final long httpCount = protocolCounters.getCount(Protocol.HTTP);
+    try (final Socket socket = connect()) {
+      writeRequest(socket);
+      final HttpRequest httpRequest = (HttpRequest) httpMessages.poll(5, TimeUnit.SECONDS);
+      assertNotNull(httpRequest);
+      assertFalse(httpRequest.isChunked());
+      assertEquals(BODY_LENGTH, httpRequest.getContent().readableBytes());
+    }
+    assertEquals(httpCount + 1, protocolCounters.getCount(Protocol.HTTP));
+
+    // the streaming pipeline delivers the body as HTTP chunks which follow the request
+    isHTTPStreaming = true;
+    final long streamingHTTPCount = protocolCounters.getCount(Protocol.STREAMING_HTTP);
+    try (final Socket socket = connect()) {
+      writeRequest(socket);
+      final HttpRequest httpRequest = (HttpRequest) httpMessages.poll(5, TimeUnit.SECONDS);
+      assertNotNull(httpRequest);
+      assertTrue(httpRequest.isChunked());
+      int length = 0;
+      int chunkCount = 0;
+      while (true) {
+        final HttpChunk httpChunk = (HttpChunk) httpMessages.poll(5, TimeUnit.SECONDS);
+        assertNotNull(httpChunk);
+        length += httpChunk.getContent().readableBytes();
+        chunkCount++;
+        if (httpChunk.isLast()) {
+          break;
+        }
+      }
+      assertEquals(BODY_LENGTH, length);
+      assertTrue(chunkCount > 1);
+    }
+    assertEquals(streamingHTTPCount + 1, protocolCounters.getCount(Protocol.STREAMING_HTTP));
+  }
+
+  /**
+   * Test of the Albus frame and unknown protocol recognition, of class PortUnificationHandler.
+   *
+   * @throws Exception when an error occurs
+   */
+  @Test
+  public void testAlbusAndUnknown() throws Exception {
+    LOGGER.info("testAlbusAndUnknown");
+
+    // the protocol byte and a valid serialized object length select the Albus pipeline
+    final long albusCount = protocolCounters.getCount(Protocol.ALBUS_HCN);
+    try (final Socket socket = connect()) {
+      final DataOutputStream dataOutputStream = new DataOutputStream(socket.getOutputStream());
+      dataOutputStream.write(1);
+      dataOutputStream.flush();
+      // the protocol is not recognized until the length arrives
+      Thread.sleep(200);
+      assertEquals(albusCount, protocolCounters.getCount(Protocol.ALBUS_HCN));
+      dataOutputStream.writeInt(100);
+      dataOutputStream.flush();
+      awaitCount(protocolCounters, Protocol.ALBUS_HCN, albusCount + 1);
+    }
+
+    // an Albus frame having an invalid length, a TLS ClientHello when TLS is not configured, and other bytes are rejected
+    final byte[][] unknownPrefixes = {
+      {1, 0, 0, 0, 0},
+      {0x16, 3, 1, 0, 0x40},
+      {'X', 'Y'}};
+    for (final byte[] unknownPrefix : unknownPrefixes) {
+      final long unknownCount = protocolCounters.getCount(Protocol.UNKNOWN);
+      try (final Socket socket = connect()) {
+        socket.getOutputStream().write(unknownPrefix);
+        socket.getOutputStream().flush();
+        // the server closes the connection
+        assertEquals(-1, socket.getInputStream().read());
+      }
+      awaitCount(protocolCounters, Protocol.UNKNOWN, unknownCount + 1);
+    }
+    assertEquals(albusCount + 1, protocolCounters.getCount(Protocol.ALBUS_HCN));
+    assertEquals(0, protocolCounters.getCount(Protocol.TLS));
+  }
+
+  /**
+   * Test of the TLS recognition on an unencrypted port, of class PortUnificationHandler.
+   *
+   * @throws Exception when an error occurs
+   */
+  @Test
+  public void testTLS() throws Exception {
+    LOGGER.info("testTLS");
+
+    isHTTPStreaming = false;
+    final long tlsCount = tlsProtocolCounters.getCount(Protocol.TLS);
+    final long httpCount = tlsProtocolCounters.getCount(Protocol.HTTP);
+    final SSLContext sslContext = TexaiSSLContextFactory.getSSLContext(KeyStoreUtils.getClientX509SecurityInfo());
+    try (final SSLSocket sslSocket = (SSLSocket) sslContext.getSocketFactory().createSocket(
+            "localhost",
+            ((InetSocketAddress) tlsServerChannel.getLocalAddress()).getPort())) {
+      sslSocket.setSoTimeout(5000);
+      // the Texai trust manager expects the RSA key exchange
+      sslSocket.setEnabledProtocols(new String[]{"TLSv1.2"});
+      sslSocket.setEnabledCipherSuites(new String[]{"TLS_RSA_WITH_AES_128_CBC_SHA"});
+      sslSocket.startHandshake();
+      awaitCount(tlsProtocolCounters, Protocol.TLS, tlsCount + 1);
+
+      // the decrypted bytes are recognized as an HTTP request
+      writeRequest(sslSocket);
+      final HttpRequest httpRequest = (HttpRequest) httpMessages.poll(5, TimeUnit.SECONDS);
+      assertNotNull(httpRequest);
+      assertEquals("/upload", httpRequest.getUri());
+      assertEquals(BODY_LENGTH, httpRequest.getContent().readableBytes());
+    }
+    assertEquals(httpCount + 1, tlsProtocolCounters.getCount(Protocol.HTTP));
+    assertEquals(0, tlsProtocolCounters.getCount(Protocol.UNKNOWN));
+  }
+
+  /**
+   * Creates a test server bootstrap.
+   *
+   * @param x509SecurityInfo the X.509 security information for recognizing TLS, or null if TLS is not recognized
+   * @param serverProtocolCounters the protocol counters of the server
+   *
+   * @return the server bootstrap
+   */
+  private static ServerBootstrap createServerBootstrap(
+          final X509SecurityInfo x509SecurityInfo,
+          final PortUnificationHandler.ProtocolCounters serverProtocolCounters) {
+    final AbstractHTTPRequestHandler httpRequestHandler = new AbstractHTTPRequestHandler() {
+      @Override
+      public void messageReceived(
+              final ChannelHandlerContext channelHandlerContext,
+              final MessageEvent messageEvent) {
+        httpMessages.add(messageEvent.getMessage());
+      }
+    };
+    final ServerBootstrap bootstrap = new ServerBootstrap(new NioServerSocketChannelFactory(
+            Executors.newCachedThreadPool(),
+            Executors.newCachedThreadPool()));
+    bootstrap.setPipelineFactory(() -> {
+      final PortUnificationHandler portUnificationHandler = new PortUnificationHandler();
+      portUnificationHandler.setAlbusHCNMessageHandler(new AbstractAlbusHCSMessageHandler() {
+      });
+      portUnificationHandler.setHttpRequestHandler(httpRequestHandler);
+      portUnificationHandler.setHTTPStreaming(isHTTPStreaming);
+      portUnificationHandler.setProtocolCounters(serverProtocolCounters);
+      if (x509SecurityInfo != null) {
+        portUnificationHandler.setTLSConfiguration(
+                x509SecurityInfo,
+                false, // needClientAuth
+                false); // isStrongCiphers
+      }
+      final ChannelPipeline channelPipeline = Channels.pipeline();
+      channelPipeline.addLast("port-unification", portUnificationHandler);
+      return channelPipeline;
+    });
+    return bootstrap;
+  }
+
+  /**
+   * Connects to the test server.
+   *
+   * @return the client socket
+   *
+   * @throws Exception when an error occurs
+   */
+  private static Socket connect() throws Exception {
+    final Socket socket = new Socket("localhost", ((InetSocketAddress) serverChannel.getLocalAddress()).getPort());
+    socket.setSoTimeout(5000);
+    return socket;
+  }
+
+  /**
+   * Writes an HTTP POST request whose body exceeds the HTTP decoder's maximum chunk size.
+   *
+   * @param socket the client socket
+   *
+   * @throws Exception when an error occurs
+   */
+  private static void writeRequest(final Socket socket) throws Exception {
+    final OutputStream outputStream = socket.getOutputStream();
+    outputStream.write(("POST /upload HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + BODY_LENGTH + "\r\n\r\n")
+            .getBytes(StandardCharsets.US_ASCII));
+    outputStream.write(new byte[BODY_LENGTH]);
+    outputStream.flush();
+  }
+
+  /**
+   * Waits for the count of the given protocol to reach the expected count.
+   *
+   * @param serverProtocolCounters the protocol counters of the server
+   * @param protocol the protocol
+   * @param expectedCount the expected count
+   *
+   * @throws InterruptedException when the thread is interrupted
+   */
+  private static void awaitCount(
+          final PortUnificationHandler.ProtocolCounters serverProtocolCounters,
+          final Protocol protocol,
+          final long expectedCount) throws InterruptedException {
+    for (int i = 0; i < 100 && serverProtocolCounters.getCount(protocol) < expectedCount; i++) {
+      Thread.sleep(50);
+    }
+    assertEquals(expectedCount, serverProtocolCounters.getCount(protocol));
+  }
+}
@@ -0,0 +1,360 @@
+/*
+ * StaticFileHandlerTest.java
+ *
+ * Created on Oct 19, 2026, 11:24:06 PM
+ *
+ * Description: .
+ *
+ * Copyright (C) Oct 19, 2026 reed.
+ *
+ */
+package org.texai.network.netty.handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import javax.net.ssl.SSLContext;
+import org.apache.log4j.Logger;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelPipeline;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.FileRegion;
+import org.jboss.netty.handler.codec.http.DefaultHttpRequest;
+import org.jboss.netty.handler.codec.http.HttpHeaders;
+import org.jboss.netty.handler.codec.http.HttpMethod;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+import org.jboss.netty.handler.codec.http.HttpResponse;
+import org.jboss.netty.handler.codec.http.HttpResponseStatus;
+import org.jboss.netty.handler.codec.http.HttpVersion;
+import org.jboss.netty.handler.ssl.SslHandler;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author reed
+ */
+public class StaticFileHandlerTest {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(StaticFileHandlerTest.class);
+  // the temporary root directory
+  private static File rootDirectory;
+
+  public StaticFileHandlerTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    rootDirectory = Files.createTempDirectory("static-files").toFile();
+    final StringBuilder stringBuilder = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      stringBuilder.append("<p>paragraph ").append(i).append("</p>\n");
+    }
+    Files.write(new File(rootDirectory, "index.html").toPath(), stringBuilder.toString().getBytes("UTF-8"));
+    Files.write(new File(rootDirectory, "a.png").toPath(), new byte[3000]);
+    Files.write(new File(rootDirectory, "b.png").toPath(), new byte[3000]);
+    Files.write(new File(rootDirectory, "large.bin").toPath(), new byte[150000]);
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws Exception {
+    for (final File file : rootDirectory.listFiles()) {
+      file.delete();
+    }
+    rootDirectory.delete();
+  }
+
+  /**
+   * Test of serveFile method, of class StaticFileHandler.
+   *
+   * @throws IOException if a file cannot be read
+   */
+  @Test
+  public void testServeFile() throws IOException {
+    LOGGER.info("serveFile");
+    final StaticFileHandler instance = new StaticFileHandler(rootDirectory, 100000, 10000);
+    final List<Object> writtenMessages = new ArrayList<>();
+    final Channel channel = createChannel(writtenMessages);
+
+    // a miss, then a hit
+    assertTrue(instance.serveFile(createRequest("/index.html"), "/index.html", channel));
+    assertTrue(instance.serveFile(createRequest("/index.html"), "/index.html", channel));
+    assertEquals(1, instance.getCacheMissCount());
+    assertEquals(1, instance.getCacheHitCount());
+    assertEquals(2, writtenMessages.size());
+    final HttpResponse httpResponse = (HttpResponse) writtenMessages.get(1);
+    assertEquals(HttpResponseStatus.OK, httpResponse.getStatus());
+    assertEquals("text/html; charset=UTF-8", httpResponse.getHeader(HttpHeaders.Names.CONTENT_TYPE));
+    final String eTag = httpResponse.getHeader(HttpHeaders.Names.ETAG);
+    assertNotNull(eTag);
+    final File indexFile = new File(rootDirectory, "index.html");
+    assertEquals(indexFile.length(), httpResponse.getContent().readableBytes());
+
+    // gzip encoding
+    final HttpRequest gzipRequest = createRequest("/index.html");
+    gzipRequest.setHeader(HttpHeaders.Names.ACCEPT_ENCODING, "gzip, deflate");
+    assertTrue(instance.serveFile(gzipRequest, "/index.html", channel));
+    final HttpResponse gzipResponse = (HttpResponse) writtenMessages.get(2);
+    assertEquals(HttpHeaders.Values.GZIP, gzipResponse.getHeader(HttpHeaders.Names.CONTENT_ENCODING));
+    final ChannelBuffer gzippedContent = gzipResponse.getContent();
+    assertTrue(gzippedContent.readableBytes() < indexFile.length());
+    final byte[] gzippedBytes = new byte[gzippedContent.readableBytes()];
+    gzippedContent.getBytes(gzippedContent.readerIndex(), gzippedBytes);
+    final byte[] unzippedBytes = new byte[(int) indexFile.length()];
+    try (final GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(gzippedBytes))) {
+      int position = 0;
+      int count;
+      while ((count = gzipInputStream.read(unzippedBytes, position, unzippedBytes.length - position)) > 0) {
+        position += count;
+      }
+    }
+    assertArrayEquals(Files.readAllBytes(indexFile.toPath()), unzippedBytes);
+    assertEquals(1, instance.getGzipResponseCount());
+    // each coding has its own entity tag, and the responses vary by the accepted encoding
+    final String gzipETag = gzipResponse.getHeader(HttpHeaders.Names.ETAG);
+    assertEquals(StaticFileHandler.createGzipETag(eTag), gzipETag);
+    assertTrue(gzipETag.endsWith("-gz\""));
+    assertEquals(HttpHeaders.Names.ACCEPT_ENCODING, httpResponse.getHeader(HttpHeaders.Names.VARY));
+    assertEquals(HttpHeaders.Names.ACCEPT_ENCODING, gzipResponse.getHeader(HttpHeaders.Names.VARY));
+
+    // a matching conditional request
+    final HttpRequest conditionalRequest = createRequest("/index.html");
+    conditionalRequest.setHeader(HttpHeaders.Names.IF_NONE_MATCH, eTag);
+    assertTrue(instance.serveFile(conditionalRequest, "/index.html", channel));
+    final HttpResponse notModifiedResponse = (HttpResponse) writtenMessages.get(3);
+    assertEquals(HttpResponseStatus.NOT_MODIFIED, notModifiedResponse.getStatus());
+    assertEquals(HttpHeaders.Names.ACCEPT_ENCODING, notModifiedResponse.getHeader(HttpHeaders.Names.VARY));
+    assertEquals(1, instance.getNotModifiedCount());
+
+    // the identity entity tag does not match the gzip encoding, whose own entity tag does
+    final HttpRequest conditionalGzipRequest = createRequest("/index.html");
+    conditionalGzipRequest.setHeader(HttpHeaders.Names.ACCEPT_ENCODING, "gzip");
+    conditionalGzipRequest.setHeader(HttpHeaders.Names.IF_NONE_MATCH, eTag);
+    assertTrue(instance.serveFile(conditionalGzipRequest, "/index.html", channel));
+    assertEquals(HttpResponseStatus.OK, ((HttpResponse) writtenMessages.get(4)).getStatus());
+    conditionalGzipRequest.setHeader(HttpHeaders.Names.IF_NONE_MATCH, gzipETag);
+    assertTrue(instance.serveFile(conditionalGzipRequest, "/index.html", channel));
+    assertEquals(HttpResponseStatus.NOT_MODIFIED, ((HttpResponse) writtenMessages.get(5)).getStatus());
+    assertEquals(2, instance.getNotModifiedCount());
+
+    // a missing file, and a path outside the root directory
+    assertFalse(instance.serveFile(createRequest("/missing.html"), "/missing.html", channel));
+    final File outsideFile = new File(rootDirectory.getParentFile(), rootDirectory.getName() + ".txt");
+    Files.write(outsideFile.toPath(), new byte[10]);
+    try {
+      assertFalse(instance.serveFile(createRequest("/x"), "/../" + outsideFile.getName(), channel));
+    } finally {
+      outsideFile.delete();
+    }
+    LOGGER.info(instance);
+  }
+
+  /**
+   * Test of the cache eviction, of class StaticFileHandler.
+   *
+   * @throws IOException if a file cannot be read
+   */
+  @Test
+  public void testEviction() throws IOException {
+    LOGGER.info("eviction");
+    final StaticFileHandler instance = new StaticFileHandler(rootDirectory, 5000, 10000);
+    final List<Object> writtenMessages = new ArrayList<>();
+    final Channel channel = createChannel(writtenMessages);
+
+    assertTrue(instance.serveFile(createRequest("/a.png"), "/a.png", channel));
+    assertTrue(instance.serveFile(createRequest("/b.png"), "/b.png", channel));
+    // the budget holds one of the two files
+    assertEquals(1, instance.getEvictionCount());
+    assertEquals(1, instance.getCachedFileCount());
+    assertEquals(3000, instance.getCachedByteCount());
+    assertTrue(instance.serveFile(createRequest("/b.png"), "/b.png", channel));
+    assertEquals(1, instance.getCacheHitCount());
+    instance.clearCache();
+    assertEquals(0, instance.getCachedByteCount());
+    LOGGER.info(instance);
+  }
+
+  /**
+   * Test of serving a file which is too long to cache, of class StaticFileHandler.
+   *
+   * @throws IOException if a file cannot be read
+   */
+  @Test
+  public void testServeLongFile() throws IOException {
+    LOGGER.info("serveLongFile");
+    final StaticFileHandler instance = new StaticFileHandler(rootDirectory, 100000, 10000);
+    final List<Object> writtenMessages = new ArrayList<>();
+    final Channel channel = createChannel(writtenMessages);
+
+    assertTrue(instance.serveFile(createRequest("/large.bin"), "/large.bin", channel));
+    assertEquals(2, writtenMessages.size());
+    assertEquals("150000", ((HttpResponse) writtenMessages.get(0)).getHeader(HttpHeaders.Names.CONTENT_LENGTH));
+    final FileRegion fileRegion = (FileRegion) writtenMessages.get(1);
+    assertEquals(150000, fileRegion.getCount());
+    assertEquals(1, instance.getZeroCopyResponseCount());
+    assertEquals(0, instance.getCachedFileCount());
+    assertEquals(150000, instance.getBytesServed());
+  }
+
+  /**
+   * Test of serving a file which is too long to cache to an SSL channel, of class StaticFileHandler.
+   *
+   * @throws Exception if a file cannot be read or the SSL engine cannot be created
+   */
+  @Test
+  public void testServeLongFileWithSSL() throws Exception {
+    LOGGER.info("serveLongFileWithSSL");
+    final StaticFileHandler instance = new StaticFileHandler(rootDirectory, 100000, 10000);
+    final List<Object> writtenMessages = new ArrayList<>();
+    final Channel channel = createChannel(writtenMessages);
+    channel.getPipeline().addLast("ssl", new SslHandler(SSLContext.getDefault().createSSLEngine()));
+
+    assertTrue(instance.serveFile(createRequest("/large.bin"), "/large.bin", channel));
+    // the response headers, and the content in pieces
+    final int pieceCount = (150000 + StaticFileHandler.PIECE_LENGTH - 1) / StaticFileHandler.PIECE_LENGTH;
+    assertEquals(1 + pieceCount, writtenMessages.size());
+    int contentLength = 0;
+    for (int i = 1; i < writtenMessages.size(); i++) {
+      contentLength += ((ChannelBuffer) writtenMessages.get(i)).readableBytes();
+    }
+    assertEquals(150000, contentLength);
+    assertEquals(0, instance.getZeroCopyResponseCount());
+    assertEquals(150000, instance.getBytesServed());
+  }
+
+  /**
+   * Test of closing a keep-alive connection when the content cannot be written, of class StaticFileHandler.
+   *
+   * @throws Exception if a file cannot be read or the SSL engine cannot be created
+   */
+  @Test
+  public void testWriteFailure() throws Exception {
+    LOGGER.info("writeFailure");
+    final StaticFileHandler instance = new StaticFileHandler(rootDirectory, 100000, 10000);
+
+    // the file region of a plain channel
+    final AtomicBoolean isClosed = new AtomicBoolean();
+    assertTrue(instance.serveFile(createRequest("/large.bin"), "/large.bin", createFailingChannel(isClosed)));
+    assertTrue(isClosed.get());
+
+    // the pieces written to an SSL channel
+    isClosed.set(false);
+    final Channel sslChannel = createFailingChannel(isClosed);
+    sslChannel.getPipeline().addLast("ssl", new SslHandler(SSLContext.getDefault().createSSLEngine()));
+    assertTrue(instance.serveFile(createRequest("/large.bin"), "/large.bin", sslChannel));
+    assertTrue(isClosed.get());
+  }
+
+  /**
+   * Test of getContentType method, of class StaticFileHandler.
+   */
+  @Test
+  public void testGetContentType() {
+    LOGGER.info("getContentType");
+    assertEquals("text/css; charset=UTF-8", StaticFileHandler.getContentType("/styles/main.CSS"));
+    assertEquals("image/jpeg", StaticFileHandler.getContentType("/photo.jpg"));
+    assertEquals("application/octet-stream", StaticFileHandler.getContentType("/chat"));
+  }
+
+  /**
+   * Test of isNotModified method, of class StaticFileHandler.
+   */
+  @Test
+  public void testIsNotModified() {
+    LOGGER.info("isNotModified");
+    final long lastModified = 1400000000123L;
+    final String eTag = StaticFileHandler.createETag(lastModified, 100);
+    final HttpRequest httpRequest = createRequest("/index.html");
+    assertFalse(StaticFileHandler.isNotModified(httpRequest, eTag, lastModified));
+    httpRequest.setHeader(HttpHeaders.Names.IF_MODIFIED_SINCE, StaticFileHandler.formatHTTPDate(lastModified));
+    assertTrue(StaticFileHandler.isNotModified(httpRequest, eTag, lastModified));
+    assertFalse(StaticFileHandler.isNotModified(httpRequest, eTag, lastModified + 1000));
+    // the entity tag takes precedence
+    httpRequest.setHeader(HttpHeaders.Names.IF_NONE_MATCH, "\"other\"");
+    assertFalse(StaticFileHandler.isNotModified(httpRequest, eTag, lastModified));
+    httpRequest.setHeader(HttpHeaders.Names.IF_NONE_MATCH, "\"other\", " + eTag);
+    assertTrue(StaticFileHandler.isNotModified(httpRequest, eTag, lastModified));
+  }
+
+  /**
+   * Creates a keep-alive GET request for the given URI.
+   *
+   * @param uri the given URI
+   * @return the request
+   */
+  private static HttpRequest createRequest(final String uri) {
+    return new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+  }
+
+  /**
+   * Creates a channel whose writes fail, and whose pipeline is initially empty.
+   *
+   * @param isClosed the indicator which is set when the channel is closed
+   * @return the channel
+   */
+  private static Channel createFailingChannel(final AtomicBoolean isClosed) {
+    final ChannelPipeline channelPipeline = Channels.pipeline();
+    final Channel[] channel = new Channel[1];
+    channel[0] = (Channel) Proxy.newProxyInstance(
+            StaticFileHandlerTest.class.getClassLoader(),
+            new Class<?>[]{Channel.class},
+            (final Object proxy, final java.lang.reflect.Method method, final Object[] args) -> {
+              switch (method.getName()) {
+                case "write":
+                  return Channels.failedFuture(channel[0], new IOException("connection reset"));
+                case "close":
+                  isClosed.set(true);
+                  return Channels.succeededFuture(channel[0]);
+                case "getPipeline":
+                  return channelPipeline;
+                case "hashCode":
+                  return System.identityHashCode(proxy);
+                case "equals":
+                  return proxy == args[0];
+                default:
+                  return null;
+              }
+            });
+    return channel[0];
+  }
+
+  /**
+   * Creates a channel which records its written messages, and whose pipeline is initially empty.
+   *
+   * @param writtenMessages the written messages
+   * @return the channel
+   */
+  private static Channel createChannel(final List<Object> writtenMessages) {
+    final ChannelPipeline channelPipeline = Channels.pipeline();
+    final Channel[] channel = new Channel[1];
+    channel[0] = (Channel) Proxy.newProxyInstance(
+            StaticFileHandlerTest.class.getClassLoader(),
+            new Class<?>[]{Channel.class},
+            (final Object proxy, final java.lang.reflect.Method method, final Object[] args) -> {
+              switch (method.getName()) {
+                case "write":
+                  writtenMessages.add(args[0]);
+                  return Channels.succeededFuture(channel[0]);
+                case "getPipeline":
+                  return channelPipeline;
+                case "hashCode":
+                  return System.identityHashCode(proxy);
+                case "equals":
+                  return proxy == args[0];
+                default:
+                  return null;
+              }
+            });
+    return channel[0];
+  }
+}
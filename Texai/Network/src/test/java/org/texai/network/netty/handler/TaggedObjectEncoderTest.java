@@ -0,0 +1,110 @@
+/*
+ * TaggedObjectEncoderTest.java
+ *
+ * Created on Oct 19, 2026, 9:20:44 PM
+ *
+ * Description: .
+ *
+ * Copyright (C) Oct 19, 2026 reed.
+ *
+ */
+package org.texai.network.netty.handler;
+
+import java.nio.ByteOrder;
+import org.apache.log4j.Logger;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.texai.network.netty.NetworkConstants;
+import org.texai.network.netty.utils.ChunkedHeapChannelBufferFactory;
+
+/**
+ *
+ * @author reed
+ */
+public class TaggedObjectEncoderTest {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(TaggedObjectEncoderTest.class);
+
+  public TaggedObjectEncoderTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws Exception {
+  }
+
+  /**
+   * Test of encode method, of class TaggedObjectEncoder.
+   */
+  @Test
+  public void testEncode() {
+    LOGGER.info("encode");
+    final ChunkedHeapChannelBufferFactory channelBufferFactory = new ChunkedHeapChannelBufferFactory(ByteOrder.BIG_ENDIAN, 4096);
+    final TaggedObjectEncoder instance = new TaggedObjectEncoder();
+    final EncoderEmbedder<ChannelBuffer> encoderEmbedder = new EncoderEmbedder<>(channelBufferFactory, instance);
+
+    // short messages shrink the prediction
+    for (int i = 0; i < 40; i++) {
+      assertTrue(encoderEmbedder.offer("message " + i));
+      final ChannelBuffer encoded = encoderEmbedder.poll();
+      assertEquals(NetworkConstants.OBJECT_SERIALIZATION_PROTOCOL, encoded.getByte(0));
+      assertEquals(encoded.writerIndex() - 5, encoded.getInt(1));
+    }
+    assertEquals(40, instance.getEncodedCount());
+    assertEquals(0, instance.getExpansionCount());
+    assertTrue(instance.getPredictedLength() < 512);
+    assertTrue(channelBufferFactory.getSlicedBufferCount() >= 40);
+    assertTrue(channelBufferFactory.getChunkCount() < 40);
+
+    // a long message expands the buffer once, after which the prediction fits it
+    final String longMessage = new String(new char[10000]).replace('\0', 'x');
+    assertTrue(encoderEmbedder.offer(longMessage));
+    encoderEmbedder.poll();
+    final long expansionCount = instance.getExpansionCount();
+    assertTrue(expansionCount > 0);
+    assertTrue(instance.getPredictedLength() >= 10000);
+    assertTrue(encoderEmbedder.offer(longMessage));
+    encoderEmbedder.poll();
+    assertEquals(expansionCount, instance.getExpansionCount());
+    assertTrue(channelBufferFactory.getUnslicedBufferCount() > 0);
+    LOGGER.info(channelBufferFactory);
+    encoderEmbedder.finish();
+  }
+
+  /**
+   * Test of the EncodedLengthPredictor class.
+   */
+  @Test
+  public void testEncodedLengthPredictor() {
+    LOGGER.info("encodedLengthPredictor");
+    assertEquals(1, EncodedLengthPredictor.roundUpToPowerOfTwo(0));
+    assertEquals(64, EncodedLengthPredictor.roundUpToPowerOfTwo(64));
+    assertEquals(128, EncodedLengthPredictor.roundUpToPowerOfTwo(65));
+    final EncodedLengthPredictor instance = new EncodedLengthPredictor(64, 500, 4096);
+    assertEquals(512, instance.nextLength());
+    instance.record(600);
+    assertEquals(1024, instance.nextLength());
+    instance.record(100000);
+    assertEquals(4096, instance.nextLength());
+    for (int i = 0; i < EncodedLengthPredictor.SHRINK_THRESHOLD - 1; i++) {
+      instance.record(10);
+    }
+    assertEquals(4096, instance.nextLength());
+    // a message which does not fit in a quarter of the prediction restarts the count
+    instance.record(2000);
+    instance.record(10);
+    assertEquals(4096, instance.nextLength());
+    for (int i = 0; i < EncodedLengthPredictor.SHRINK_THRESHOLD; i++) {
+      instance.record(10);
+    }
+    assertEquals(2048, instance.nextLength());
+  }
+}
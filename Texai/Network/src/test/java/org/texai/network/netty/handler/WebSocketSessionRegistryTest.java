@@ -0,0 +1,185 @@
+/*
+ * WebSocketSessionRegistryTest.java
+ *
+ * Created on Oct 20, 2026, 1:42:08 AM
+ *
+ * Description: .
+ *
+ * Copyright (C) Oct 20, 2026 reed.
+ *
+ */
+package org.texai.network.netty.handler;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.log4j.Logger;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author reed
+ */
+public class WebSocketSessionRegistryTest {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(WebSocketSessionRegistryTest.class);
+
+  public WebSocketSessionRegistryTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws Exception {
+  }
+
+  /**
+   * Test of register, send and broadcast methods, of class WebSocketSessionRegistry.
+   */
+  @Test
+  public void testBroadcast() {
+    LOGGER.info("broadcast");
+    final WebSocketSessionRegistry instance = new WebSocketSessionRegistry();
+    final TestChannel alice = new TestChannel(true);
+    final TestChannel bob = new TestChannel(true);
+    instance.register(alice.channel, "Alice");
+    instance.register(bob.channel, "Bob");
+    assertEquals(2, instance.getSessionCount());
+    assertEquals("Alice", instance.getName(alice.channel));
+    assertSame(bob.channel, instance.getSession("Bob").getChannel());
+    // the session name is kept out of the log
+    assertFalse(instance.getSession("Alice").toString().contains("Alice"));
+
+    assertEquals(2, instance.broadcast("{\"operation\": \"hello\"}"));
+    final TextWebSocketFrame aliceFrame = (TextWebSocketFrame) alice.writtenMessages.get(0);
+    final TextWebSocketFrame bobFrame = (TextWebSocketFrame) bob.writtenMessages.get(0);
+    assertEquals("{\"operation\": \"hello\"}", aliceFrame.getText());
+    assertEquals("{\"operation\": \"hello\"}", bobFrame.getText());
+    // the text is encoded once, and each frame has its own view of the shared content
+    assertNotSame(aliceFrame.getBinaryData(), bobFrame.getBinaryData());
+    assertSame(aliceFrame.getBinaryData().array(), bobFrame.getBinaryData().array());
+
+    assertTrue(instance.send("Bob", "to Bob"));
+    assertFalse(instance.send("Carol", "to Carol"));
+    assertEquals(1, instance.broadcast("to Alice and Carol", Arrays.asList("Alice", "Carol")));
+    assertEquals(2, alice.writtenMessages.size());
+    assertEquals(2, bob.writtenMessages.size());
+    assertEquals(4, instance.getFramesSentCount());
+    assertEquals(2, instance.getFramesDroppedCount());
+
+    // a session is removed when its channel closes
+    bob.closeFuture.setSuccess();
+    assertEquals(1, instance.getSessionCount());
+    assertNull(instance.getSession("Bob"));
+    assertEquals(Arrays.asList("Alice"), instance.getNames());
+    LOGGER.info(instance);
+  }
+
+  /**
+   * Test of the disconnection of a slow client, of class WebSocketSessionRegistry.
+   */
+  @Test
+  public void testSlowClient() {
+    LOGGER.info("slowClient");
+    final WebSocketSessionRegistry instance = new WebSocketSessionRegistry(100);
+    // the slow client's writes do not complete
+    final TestChannel slow = new TestChannel(false);
+    final TestChannel fast = new TestChannel(true);
+    instance.register(slow.channel, "slow");
+    instance.register(fast.channel, "fast");
+
+    final String text = "0123456789012345678901234567890123456789";
+    assertEquals(2, instance.broadcast(text));
+    assertEquals(2, instance.broadcast(text));
+    assertEquals(2, fast.writtenMessages.size());
+    assertEquals(80, instance.getSession("slow").getPendingByteCount());
+    assertEquals(0, instance.getSession("fast").getPendingByteCount());
+    // the third frame would exceed the slow client's bound
+    assertEquals(1, instance.broadcast(text));
+    assertTrue(slow.isCloseRequested);
+    assertEquals(1, instance.getSlowClientDisconnectCount());
+    assertEquals(2, slow.writtenMessages.size());
+    assertEquals(3, fast.writtenMessages.size());
+
+    // the writes complete as the channel closes
+    for (final ChannelFuture writeFuture : slow.writeFutures) {
+      writeFuture.setSuccess();
+    }
+    slow.closeFuture.setSuccess();
+    assertEquals(Arrays.asList("fast"), instance.getNames());
+    assertEquals(1, instance.broadcast(text));
+    assertEquals(1, instance.getSlowClientDisconnectCount());
+  }
+
+  /**
+   * Provides a connected channel which records the written messages.
+   */
+  private static final class TestChannel {
+
+    // the channel
+    private final Channel channel;
+    // the written messages
+    private final List<Object> writtenMessages = new ArrayList<>();
+    // the futures of the incomplete writes
+    private final List<ChannelFuture> writeFutures = new ArrayList<>();
+    // the close future
+    private ChannelFuture closeFuture;
+    // the indicator whether the channel was asked to close
+    private boolean isCloseRequested = false;
+
+    /**
+     * Constructs a new TestChannel instance.
+     *
+     * @param isWriteCompleted the indicator whether the writes complete immediately
+     */
+    TestChannel(final boolean isWriteCompleted) {
+      final Channel[] channel1 = new Channel[1];
+      channel1[0] = (Channel) Proxy.newProxyInstance(
+              WebSocketSessionRegistryTest.class.getClassLoader(),
+              new Class<?>[]{Channel.class},
+              (proxy, method, args) -> {
+                switch (method.getName()) {
+                  case "write":
+                    writtenMessages.add(args[0]);
+                    if (isWriteCompleted) {
+                      return Channels.succeededFuture(channel1[0]);
+                    } else {
+                      final ChannelFuture writeFuture = Channels.future(channel1[0]);
+                      writeFutures.add(writeFuture);
+                      return writeFuture;
+                    }
+                  case "isConnected":
+                    return !isCloseRequested;
+                  case "close":
+                    isCloseRequested = true;
+                    return closeFuture;
+                  case "getCloseFuture":
+                    return closeFuture;
+                  case "getRemoteAddress":
+                    return null;
+                  case "getId":
+                    return System.identityHashCode(proxy);
+                  case "hashCode":
+                    return System.identityHashCode(proxy);
+                  case "equals":
+                    return proxy == args[0];
+                  default:
+                    throw new UnsupportedOperationException(method.getName());
+                }
+              });
+      channel = channel1[0];
+      closeFuture = Channels.future(channel);
+    }
+  }
+}
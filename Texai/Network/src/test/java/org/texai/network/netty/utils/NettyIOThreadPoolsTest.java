@@ -0,0 +1,79 @@
+/*
+ * NettyIOThreadPoolsTest.java
+ *
+ * Created on Oct 19, 2026, 10:41:15 PM
+ *
+ * Description: .
+ *
+ * Copyright (C) Oct 19, 2026 reed.
+ *
+ */
+package org.texai.network.netty.utils;
+
+import org.apache.log4j.Logger;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.texai.util.TexaiException;
+
+/**
+ *
+ * @author reed
+ */
+public class NettyIOThreadPoolsTest {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(NettyIOThreadPoolsTest.class);
+
+  public NettyIOThreadPoolsTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws Exception {
+  }
+
+  /**
+   * Test of getServerSocketChannelFactory and getClientSocketChannelFactory methods, of class NettyIOThreadPools.
+   */
+  @Test
+  public void testGetChannelFactories() {
+    LOGGER.info("getChannelFactories");
+    final NettyIOThreadPools instance = new NettyIOThreadPools("test", 2, 3);
+    assertEquals(2, instance.getServerWorkerCount());
+    assertEquals(3, instance.getClientWorkerCount());
+    assertSame(instance.getServerSocketChannelFactory(), instance.getServerSocketChannelFactory());
+    assertSame(instance.getClientSocketChannelFactory(), instance.getClientSocketChannelFactory());
+    LOGGER.info(instance);
+    instance.releaseExternalResources();
+    // releasing twice is harmless
+    instance.releaseExternalResources();
+    try {
+      instance.getClientSocketChannelFactory();
+      fail();
+    } catch (TexaiException ex) {
+      // expected
+    }
+  }
+
+  /**
+   * Test of the NettyIOThreadPools constructor, of class NettyIOThreadPools.
+   */
+  @Test
+  public void testInvalidWorkerCount() {
+    LOGGER.info("invalidWorkerCount");
+    try {
+      new NettyIOThreadPools("test", 0, 1);
+      fail();
+    } catch (IllegalArgumentException ex) {
+      // expected
+    }
+    final NettyIOThreadPools instance = NettyIOThreadPools.newInstance("test");
+    assertEquals(NettyIOThreadPools.DEFAULT_WORKER_COUNT, instance.getServerWorkerCount());
+    instance.releaseExternalResources();
+  }
+}
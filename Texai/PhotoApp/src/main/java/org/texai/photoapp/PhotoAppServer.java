@@ -14,35 +14,39 @@ import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.S3Object;
-import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.UploadPartRequest;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.crypto.SecretKey;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
+import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.handler.codec.http.HttpMethod;
 import org.jboss.netty.handler.codec.http.HttpRequest;
+import org.jboss.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 import org.jboss.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.jboss.netty.handler.codec.http.websocketx.WebSocketFrame;
 import org.joda.time.DateTime;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import org.texai.network.netty.handler.HTTPRequestHandler;
+import org.texai.network.netty.handler.ParsedHTTPRequest;
+import org.texai.network.netty.handler.StaticFileHandler;
 import org.texai.network.netty.handler.TexaiHTTPRequestHandler;
+import org.texai.network.netty.handler.WebSocketSessionRegistry;
 import org.texai.network.netty.utils.NettyHTTPUtils;
 import static org.texai.photoapp.S3ClientDemo.BUCKET;
 import org.texai.util.Base64Coder;
-import org.texai.util.HTTPUtils;
 import org.texai.util.StringUtils;
 import org.texai.util.TexaiException;
 import org.texai.x509.SymmetricKeyUtils;
@@ -62,12 +66,22 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
    * the root path
    */
   private static final File ROOT_PATH = new File("data/files");
+  // the secret key file
+  private static final File SECRET_KEY_FILE = new File("data/aes-key.txt");
+  // the maximum length of a stored photo
+  private static final long MAX_PHOTO_LENGTH = 32L * 1024L * 1024L;
+  // the static file handler, which caches the served files
+  private final StaticFileHandler staticFileHandler = new StaticFileHandler(ROOT_PATH);
   // the users initialization object
   private final InitializedUsers initializedUsers = new InitializedUsers();
-  // the user dictionary, channel --> username
-  private final Map<Channel, String> userDictionary = new HashMap<>();
-  // the channel dictionary, username --> channel
-  private final Map<String, Channel> channelDictionary = new HashMap<>();
+  // the web socket session registry, whose session names are the logged-in usernames
+  private final WebSocketSessionRegistry webSocketSessionRegistry = new WebSocketSessionRegistry();
+  // the photo blob store, which holds the encrypted photos named by their hashes
+  private final PhotoBlobStore photoBlobStore = new PhotoBlobStore(new File("data/photos"));
+  // the photo uploads in progress, channel --> photo upload
+  private final Map<Channel, PhotoUpload> photoUploadDictionary = new ConcurrentHashMap<>();
+  // the cached secret key which encrypts the stored photos
+  private SecretKey secretKey;
   // the indicator whether this is a unit test
   private boolean isUnitTest = false;
 
@@ -77,6 +91,20 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
   public PhotoAppServer() {
   }
 
+  /**
+   * Registers this server with the given HTTP request handler for the requests that it handles, i.e. the static file GET and HEAD
+   * requests under the root path. The photo operations arrive as web socket frames.
+   *
+   * @param httpRequestHandler the given HTTP request handler
+   */
+  public void registerRoutes(final HTTPRequestHandler httpRequestHandler) {
+    //Preconditions
+    assert httpRequestHandler != null : "httpRequestHandler must not be null";
+
+    httpRequestHandler.register(this, HttpMethod.GET, "/");
+    httpRequestHandler.register(this, HttpMethod.HEAD, "/");
+  }
+
   /**
    * Handles the HTTP request.
    *
@@ -89,34 +117,35 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
   public boolean httpRequestReceived(
           final HttpRequest httpRequest,
           final Channel channel) {
+    return httpRequestReceived(new ParsedHTTPRequest(httpRequest), channel);
+  }
+
+  /**
+   * Handles the HTTP request whose URI has been parsed.
+   *
+   * @param parsedHTTPRequest the HTTP request and its parsed URI
+   * @param channel the channel
+   *
+   * @return the indicator whether the HTTP request was handled
+   */
+  @Override
+  public boolean httpRequestReceived(
+          final ParsedHTTPRequest parsedHTTPRequest,
+          final Channel channel) {
     //Preconditions
-    assert httpRequest != null : "httpRequest must not be null";
+    assert parsedHTTPRequest != null : "parsedHTTPRequest must not be null";
     assert channel != null : "channel must not be null";
 
-    LOGGER.info("httpRequest: " + httpRequest);
-    LOGGER.info("method: " + httpRequest.getMethod());
-    LOGGER.info("protocol version: " + httpRequest.getProtocolVersion());
-    LOGGER.info("method: " + httpRequest.getMethod());
-    LOGGER.info("uri: " + httpRequest.getUri());
-    for (final String headerName : httpRequest.getHeaderNames()) {
-      LOGGER.info("header: " + headerName + " " + httpRequest.getHeader(headerName));
-    }
-    final URI uri;
-    try {
-      uri = new URI(httpRequest.getUri());
-    } catch (URISyntaxException ex) {
-      throw new TexaiException(ex);
+    final HttpRequest httpRequest = parsedHTTPRequest.getHttpRequest();
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("httpRequest: " + httpRequest);
+      for (final String headerName : httpRequest.getHeaderNames()) {
+        LOGGER.debug("header: " + headerName + " " + httpRequest.getHeader(headerName));
+      }
     }
-    final String path = uri.getPath();
+    final String path = parsedHTTPRequest.getPath();
     if (LOGGER.isInfoEnabled()) {
       LOGGER.info("path: " + path);
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug(httpRequest.getMethod() + " " + path);
-      }
-    }
-    final Map<String, String> parameterDictionary = new HashMap<>();
-    if (uri.getRawQuery() != null && !uri.getRawQuery().isEmpty()) {
-      parameterDictionary.putAll(HTTPUtils.getQueryMap(uri.getRawQuery()));
     }
 
     try {
@@ -133,44 +162,8 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
       }
 
       // serve file
-      File file;
-      FileInputStream fileInputStream = null;
-      try {
-        file = new File(ROOT_PATH, filePath);
-        LOGGER.info("serving file: " + file);
-        fileInputStream = new FileInputStream(file);
-      } catch (final FileNotFoundException ex) {
+      if (!staticFileHandler.serveFile(httpRequest, path, channel)) {
         LOGGER.info("file not found: " + filePath);
-        if (fileInputStream != null) {
-          fileInputStream.close();
-        }
-        return true;
-      }
-      assert file != null;
-      assert fileInputStream != null;
-      final byte[] chunk = new byte[(int) file.length()];
-      int count;
-      int pos = 0;
-
-      while ((count = fileInputStream.read(chunk, pos, chunk.length - pos)) > 0) {
-        pos += count;
-      }
-      if (path.endsWith(".html")) {
-        NettyHTTPUtils.writeHTMLResponse(
-                httpRequest,
-                new String(chunk, "US-ASCII"),
-                channel,
-                null); // sessionCookie
-      } else if (path.endsWith(".js")) {
-        NettyHTTPUtils.writeTextResponse(httpRequest, new String(chunk, "US-ASCII"), channel);
-      } else if (path.endsWith(".css")) {
-        NettyHTTPUtils.writeCSSResponse(httpRequest, new String(chunk, "US-ASCII"), channel);
-      } else {
-        NettyHTTPUtils.writeBinaryResponse(
-                httpRequest,
-                chunk,
-                channel,
-                null); // sessionCookie
       }
       return true;
     } catch (final IOException ex) {
@@ -243,12 +236,90 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
     return true;
   }
 
+  /**
+   * Handles a received binary web socket frame, or a continuation frame, which carries the plain bytes of a photo to store. A large
+   * photo is sent as a fragmented binary message, whose fragments are hashed and encrypted into the photo blob store as they arrive, and
+   * the storage response follows the final fragment.
+   *
+   * @param channel the channel
+   * @param webSocketFrame the binary frame or continuation frame
+   *
+   * @return the indicator whether the web socket frame was handled
+   */
+  @Override
+  public boolean binaryWebSocketFrameReceived(
+          final Channel channel,
+          final WebSocketFrame webSocketFrame) {
+    //Preconditions
+    assert channel != null : "channel must not be null";
+    assert webSocketFrame != null : "webSocketFrame must not be null";
+
+    final String username = webSocketSessionRegistry.getName(channel);
+    if (username == null) {
+      sendErrorMessage(
+              "user not logged in",
+              channel);
+      return true;
+    }
+    PhotoUpload photoUpload = photoUploadDictionary.get(channel);
+    try {
+      if (webSocketFrame instanceof BinaryWebSocketFrame) {
+        if (photoUpload != null) {
+          // a new binary message abandons the unfinished one
+          photoUpload.abort();
+        }
+        LOGGER.info("operation: storePhoto (binary) from " + username);
+        photoUpload = new PhotoUpload(photoBlobStore, getSecretKey(), MAX_PHOTO_LENGTH);
+        photoUploadDictionary.put(channel, photoUpload);
+      } else if (photoUpload == null) {
+        sendErrorMessage(
+                "no photo upload in progress",
+                channel);
+        return true;
+      }
+      final ChannelBuffer content = webSocketFrame.getBinaryData();
+      final boolean isAccepted;
+      if (content.hasArray()) {
+        isAccepted = photoUpload.write(content.array(), content.arrayOffset() + content.readerIndex(), content.readableBytes());
+      } else {
+        final byte[] bytes = new byte[content.readableBytes()];
+        content.getBytes(content.readerIndex(), bytes);
+        isAccepted = photoUpload.write(bytes, 0, bytes.length);
+      }
+      if (!isAccepted) {
+        photoUploadDictionary.remove(channel);
+        photoUpload.abort();
+        sendErrorMessage(
+                "photo exceeds " + MAX_PHOTO_LENGTH + " bytes",
+                channel);
+        return true;
+      }
+      if (webSocketFrame.isFinalFragment()) {
+        photoUploadDictionary.remove(channel);
+        final String photoHashBase64 = photoUpload.complete();
+        LOGGER.info("stored photo " + photoHashBase64 + ", length " + photoUpload.getLength());
+        sendStorageResponse(photoHashBase64, photoUpload.isDuplicate(), channel);
+      }
+    } catch (IOException ex) {
+      photoUploadDictionary.remove(channel);
+      if (photoUpload != null) {
+        photoUpload.abort();
+      }
+      LOGGER.error(StringUtils.getStackTraceAsString(ex));
+      sendErrorMessage(
+              "photo not stored",
+              channel);
+    }
+    return true;
+  }
+
   /**
    * Logs in the given user, and responds by provisioning the user.
    *
    * @param username the given user name
    * @param channel the channel used for the response
    */
+  @SuppressWarnings("unchecked")
   public void loginUser(
           final String username,
           final Channel channel) {
@@ -266,8 +337,16 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
     }
     LOGGER.info("operation: loginUser");
     LOGGER.info("username: " + username);
-    userDictionary.put(channel, username);
-    channelDictionary.put(username, channel);
+    if (webSocketSessionRegistry.getSession(channel) == null) {
+      // discard the unfinished photo upload of a closed channel
+      channel.getCloseFuture().addListener((ChannelFuture channelFuture) -> {
+        final PhotoUpload photoUpload = photoUploadDictionary.remove(channel);
+        if (photoUpload != null) {
+          photoUpload.abort();
+        }
+      });
+    }
+    webSocketSessionRegistry.register(channel, username);
 
     LOGGER.info("********** server sending ************");
     // provisionUser
@@ -281,17 +360,14 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
     } else {
       buddyUsername = "Alice";
     }
-    final StringBuilder stringBuilder = new StringBuilder();
-    final String jsonString = stringBuilder
-            .append("{\n")
-            .append("\"operation\": \"provisionUser\",\n")
-            .append("\"buddyList\": {\"1\": \"")
-            .append(buddyUsername)
-            .append("\"}\n")
-            .append("}\n")
-            .toString();
+    final JSONObject buddyListJSONObject = new JSONObject();
+    buddyListJSONObject.put("1", buddyUsername);
+    final JSONObject jsonObject = new JSONObject();
+    jsonObject.put("operation", "provisionUser");
+    jsonObject.put("buddyList", buddyListJSONObject);
+    final String jsonString = jsonObject.toJSONString();
     LOGGER.info("server sending: " + jsonString);
-    channel.write(new TextWebSocketFrame(jsonString));
+    webSocketSessionRegistry.send(channel, jsonString);
   }
 
   /**
@@ -300,6 +376,7 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
    * @param errorMessage the error message
    * @param channel the channel used for the response
    */
+  @SuppressWarnings("unchecked")
   public void sendErrorMessage(
           final String errorMessage,
           final Channel channel) {
@@ -313,21 +390,16 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
     //    "operation": "errorNotification",
     //    "errorMessage": "[for example] recipient not logged in"
     //  }
-    final StringBuilder stringBuilder = new StringBuilder();
-    final String jsonString = stringBuilder
-            .append("{\n")
-            .append("\"operation\": \"errorNotification\",\n")
-            .append("\"errorMessage\": \"")
-            .append(errorMessage)
-            .append("\"\n")
-            .append("}\n")
-            .toString();
+    final JSONObject jsonObject = new JSONObject();
+    jsonObject.put("operation", "errorNotification");
+    jsonObject.put("errorMessage", errorMessage);
+    final String jsonString = jsonObject.toJSONString();
     LOGGER.info("server sending: " + jsonString);
-    channel.write(new TextWebSocketFrame(jsonString));
+    webSocketSessionRegistry.send(channel, jsonString);
   }
 
   /**
-   * Stores the given photoBase64 in to the Amazon S3 cloud, and responds with an acknowledgement.
+   * Stores the given photoBase64 in the photo blob store, and responds with an acknowledgement.
    *
    * @param photoBase64 photoBase64 encoded in Base 64 notation
    * @param photoHashBase64 the SHA-1 hash of the photoBase64 encoded in Base 64 notation
@@ -352,7 +424,7 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
     if (channel == null) {
       throw new TexaiException("channel must not be null");
     }
-    final String username = userDictionary.get(channel);
+    final String username = webSocketSessionRegistry.getName(channel);
     if (username == null) {
       sendErrorMessage(
               "user not logged in",
@@ -378,76 +450,72 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
         throw new TexaiException(ex);
       }
     }
-    // encrypt the photoBase64 with a symmetric key for storage
-    final File secretKeyFile = new File("data/aes-key.txt");
-    SecretKey secretKey = SymmetricKeyUtils.loadKey(secretKeyFile);
-    if (secretKey == null) {
-      secretKey = SymmetricKeyUtils.generateKey();
-      SymmetricKeyUtils.saveKey(secretKey, secretKeyFile);
-    }
-    LOGGER.info("photoBytes length:          " + photoBytes.length);
-    final byte[] encryptedPhotoBytes = SymmetricKeyUtils.encrypt(photoBytes, secretKey);
-    LOGGER.info("encryptedPhotoBytes length: " + encryptedPhotoBytes.length);
-
-    // is the photoBase64 stored on Amazon S3?
-    S3Object s3Object = getDocument(
-            BUCKET,
-            photoHashBase64); // key
-    final boolean isDuplicate;
-    if (s3Object == null) {
-      isDuplicate = false;
-      // store the photoBase64 on Amazon S3, using a temp file uniquely named by the hash
-      final String filePath = "data/" + photoHashBase64;
-      final File tempFile = new File(filePath);
-      try {
-        FileUtils.writeByteArrayToFile(tempFile, photoBytes);
-      } catch (IOException ex) {
-        throw new TexaiException(ex);
-      }
-      uploadObject(BUCKET,
-              photoHashBase64, // key
-              filePath);
-      final boolean isOK = tempFile.delete();
-      if (!isOK) {
-        LOGGER.info(filePath + " not deleted - error");
+    // hash and encrypt the photo into the photo blob store
+    final PhotoUpload photoUpload;
+    final String storedPhotoHashBase64;
+    try {
+      photoUpload = new PhotoUpload(photoBlobStore, getSecretKey(), MAX_PHOTO_LENGTH);
+      if (!photoUpload.write(photoBytes, 0, photoBytes.length)) {
+        photoUpload.abort();
+        sendErrorMessage(
+                "photo exceeds " + MAX_PHOTO_LENGTH + " bytes",
+                channel);
+        return;
       }
-      listBucketObjects();
-    } else {
-      isDuplicate = true;
+      // the photo is committed only if its hash is the claimed one
+      storedPhotoHashBase64 = photoUpload.complete(photoHashBase64);
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    LOGGER.info("photoBytes length: " + photoBytes.length);
+    if (storedPhotoHashBase64 == null) {
+      sendErrorMessage(
+              "photoHash does not match the photo",
+              channel);
+      return;
     }
+    sendStorageResponse(storedPhotoHashBase64, photoUpload.isDuplicate(), channel);
+  }
 
+  /**
+   * Responds with the acknowledgement that a photo is stored.
+   *
+   * @param photoHashBase64 the SHA-1 hash of the photo encoded in Base 64 notation
+   * @param isDuplicate whether the photo was already stored
+   * @param channel the channel used for the response
+   */
+  @SuppressWarnings("unchecked")
+  private void sendStorageResponse(
+          final String photoHashBase64,
+          final boolean isDuplicate,
+          final Channel channel) {
     LOGGER.info("********** server sending ************");
     // storageResponse
     //    {
     //      "operation": "storageResponse",
-    //      "timestamp": "the date and time that the photoBase64 was stored in the Amazon cloud, as a UTC string",
+    //      "photoHash": "the SHA-1 hash of the stored photo encoded in Base 64 notation",
+    //      "timestamp": "the date and time that the photo was stored, as a UTC string",
     //      "duplicate": "yes or no"
     //    }
-    final String duplicate = isDuplicate ? "yes" : "no";
-    final StringBuilder stringBuilder = new StringBuilder();
-    final String jsonString = stringBuilder
-            .append("{\n")
-            .append("\"operation\": \"storageResponse\",\n")
-            .append("\"timestamp\": \"")
-            .append((new DateTime()).toString())
-            .append("\",\n")
-            .append("\"duplicate\": \"")
-            .append(duplicate)
-            .append("\"\n")
-            .append("}\n")
-            .toString();
+    final JSONObject jsonObject = new JSONObject();
+    jsonObject.put("operation", "storageResponse");
+    jsonObject.put("photoHash", photoHashBase64);
+    jsonObject.put("timestamp", (new DateTime()).toString());
+    jsonObject.put("duplicate", isDuplicate ? "yes" : "no");
+    final String jsonString = jsonObject.toJSONString();
     LOGGER.info("server sending: " + jsonString);
-    channel.write(new TextWebSocketFrame(jsonString));
+    webSocketSessionRegistry.send(channel, jsonString);
   }
 
   /**
-   * Sends the specified photo from the Amazon cloud to the specified buddy user. The photoHashBase64 verifies that the photo has not been
-   * tampered with.
+   * Sends the specified photo from the photo blob store to the specified buddy user. The photoHashBase64 verifies that the photo has not
+   * been tampered with.
    *
    * @param photoHashBase64 the SHA-1 hash of the photo encoded in Base 64 notation
    * @param recipient the user name of the recipient
    * @param channel the channel used for the response
    */
+  @SuppressWarnings("unchecked")
   public void sendPhoto(
           final String photoHashBase64,
           final String recipient,
@@ -467,7 +535,7 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
               channel);
       return;
     }
-    final String username = userDictionary.get(channel);
+    final String username = webSocketSessionRegistry.getName(channel);
     if (username == null) {
       sendErrorMessage(
               "user not logged in",
@@ -479,19 +547,21 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
     LOGGER.info("photoHashBase64: " + photoHashBase64);
     LOGGER.info("recipient: " + recipient);
 
-    // get the photo from Amazon S3
-    S3Object s3Object = getDocument(
-            BUCKET,
-            photoHashBase64); // key
-    final S3ObjectInputStream s3ObjectInputStream = s3Object.getObjectContent();
-    final byte[] s3ObjectBytes;
-    try {
-      s3ObjectBytes = IOUtils.toByteArray(s3ObjectInputStream);
+    // get the photo from the photo blob store, decrypting it as it is read
+    final byte[] photoBytes;
+    try (final InputStream blobInputStream = photoBlobStore.openBlob(photoHashBase64)) {
+      if (blobInputStream == null) {
+        sendErrorMessage(
+                "photo not found",
+                channel);
+        return;
+      }
+      photoBytes = IOUtils.toByteArray(SymmetricKeyUtils.createDecryptingInputStream(blobInputStream, getSecretKey()));
     } catch (IOException ex) {
       throw new TexaiException(ex);
     }
-    LOGGER.info("s3ObjectBytes length=" + s3ObjectBytes.length);
-    final String photoBase64 = new String(Base64Coder.encode(s3ObjectBytes));
+    LOGGER.info("photoBytes length=" + photoBytes.length);
+    final String photoBase64 = new String(Base64Coder.encode(photoBytes));
     LOGGER.info("photoBase64 length=" + photoBase64.length());
     final String truncatedPhotoBase64;
     if (photoBase64.length() > 50) {
@@ -509,33 +579,19 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
     //    "timestamp": "the date and time that the photo was stored in the Amazon cloud, as a UTC string"
     //    "sender": "Alice"
     //  }
-    final Channel recipientChannel = channelDictionary.get(recipient);
-    if (recipientChannel == null) {
+    final JSONObject receivePhotoJSONObject = new JSONObject();
+    receivePhotoJSONObject.put("operation", "receivePhoto");
+    receivePhotoJSONObject.put("photo", photoBase64);
+    receivePhotoJSONObject.put("photoHash", photoHashBase64);
+    receivePhotoJSONObject.put("timestamp", (new DateTime()).toString());
+    receivePhotoJSONObject.put("sender", username);
+    LOGGER.info("server sending receivePhoto, photo length=" + photoBase64.length());
+    if (!webSocketSessionRegistry.send(recipient, receivePhotoJSONObject.toJSONString())) {
       sendErrorMessage(
-              "recipient channel must not be null",
+              "recipient not logged in",
               channel);
       return;
     }
-    final StringBuilder stringBuilder = new StringBuilder();
-    String jsonString = stringBuilder
-            .append("{\n")
-            .append("\"operation\": \"receivePhoto\",\n")
-            .append("\"photo\": \"")
-            .append(photoBase64)
-            .append("\",\n")
-            .append("\"photoHash\": \"")
-            .append(photoHashBase64)
-            .append("\",\n")
-            .append("\"timestamp\": \"")
-            .append((new DateTime()).toString())
-            .append("\",\n")
-            .append("\"sender\": \"")
-            .append(username)
-            .append("\"\n")
-            .append("}\n")
-            .toString();
-    LOGGER.info("server sending: " + jsonString);
-    recipientChannel.write(new TextWebSocketFrame(jsonString));
 
     LOGGER.info("********** server sending to " + username + " ************");
     //    {
@@ -544,22 +600,49 @@ public class PhotoAppServer implements TexaiHTTPRequestHandler {
     //      "timestamp": "the date and time that the photo was delivered, as a UTC string"
     //      "recipient": "Bob"
     //    }
-    jsonString = (new StringBuilder())
-            .append("{\n")
-            .append("\"operation\": \"photoDelivered\",\n")
-            .append("\"photoHash\": \"")
-            .append(initializedUsers.getPhotoHashBase64())
-            .append("\",\n")
-            .append("\"timestamp\": \"")
-            .append((new DateTime()).toString())
-            .append("\",\n")
-            .append("\"recipient\": \"")
-            .append(recipient)
-            .append("\"\n")
-            .append("}\n")
-            .toString();
+    final JSONObject photoDeliveredJSONObject = new JSONObject();
+    photoDeliveredJSONObject.put("operation", "photoDelivered");
+    photoDeliveredJSONObject.put("photoHash", initializedUsers.getPhotoHashBase64());
+    photoDeliveredJSONObject.put("timestamp", (new DateTime()).toString());
+    photoDeliveredJSONObject.put("recipient", recipient);
+    final String jsonString = photoDeliveredJSONObject.toJSONString();
     LOGGER.info("server sending: " + jsonString);
-    channel.write(new TextWebSocketFrame(jsonString));
+    webSocketSessionRegistry.send(channel, jsonString);
+  }
+
+  /**
+   * Gets the web socket session registry, whose session names are the logged-in usernames.
+   *
+   * @return the web socket session registry
+   */
+  public WebSocketSessionRegistry getWebSocketSessionRegistry() {
+    return webSocketSessionRegistry;
+  }
+
+  /**
+   * Gets the secret key which encrypts the stored photos, loading it once from its file, or generating and saving it when the file is
+   * absent.
+   *
+   * @return the secret key
+   */
+  private synchronized SecretKey getSecretKey() {
+    if (secretKey == null) {
+      secretKey = SymmetricKeyUtils.loadKey(SECRET_KEY_FILE);
+      if (secretKey == null) {
+        secretKey = SymmetricKeyUtils.generateKey();
+        SymmetricKeyUtils.saveKey(secretKey, SECRET_KEY_FILE);
+      }
+    }
+    return secretKey;
+  }
+
+  /**
+   * Gets the photo blob store.
+   *
+   * @return the photo blob store
+   */
+  public PhotoBlobStore getPhotoBlobStore() {
+    return photoBlobStore;
   }
 
   /**
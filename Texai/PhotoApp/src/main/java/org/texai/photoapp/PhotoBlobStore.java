@@ -0,0 +1,202 @@
+package org.texai.photoapp;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.texai.util.Base64Coder;
+import org.texai.util.ByteUtils;
+import org.texai.util.StringUtils;
+import org.texai.util.TexaiException;
+
+/**
+ * PhotoBlobStore.java
+ *
+ * Description: Provides a content-addressed local store of encrypted photo blobs.
+ *
+ * Copyright (C) Oct 20, 2026, Stephen L. Reed.
+ */
+@ThreadSafe
+public final class PhotoBlobStore {
+
+  // the log4j logger
+  private static final Logger LOGGER = Logger.getLogger(PhotoBlobStore.class);
+  // the file name prefix of a blob which is still being written
+  private static final String PENDING_PREFIX = "pending-";
+  // the blob directory
+  private final File directory;
+
+  /**
+   * Creates a new instance of PhotoBlobStore. A blob is named by the hexadecimal SHA-1 hash of the plain photo, so that a photo which is
+   * stored twice occupies one blob. The pending blobs left by an interrupted upload are deleted.
+   *
+   * @param directory the blob directory, which is created if absent
+   */
+  public PhotoBlobStore(final File directory) {
+    //Preconditions
+    assert directory != null : "directory must not be null";
+
+    this.directory = directory;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new TexaiException("cannot create the photo blob directory " + directory);
+    }
+    final File[] files = directory.listFiles();
+    if (files != null) {
+      for (final File file : files) {
+        if (file.getName().startsWith(PENDING_PREFIX) && !file.delete()) {
+          LOGGER.warn("cannot delete the pending blob " + file);
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates a pending blob, to which an upload writes its encrypted bytes as they arrive. The photo hash, and therefore the blob name, is
+   * known only when the upload completes.
+   *
+   * @return the pending blob
+   *
+   * @throws IOException when the pending blob cannot be created
+   */
+  public PendingBlob createPendingBlob() throws IOException {
+    return new PendingBlob(new File(directory, PENDING_PREFIX + UUID.randomUUID()));
+  }
+
+  /**
+   * Returns whether the photo having the given hash is stored.
+   *
+   * @param photoHashBase64 the SHA-1 hash of the photo encoded in Base 64 notation
+   *
+   * @return whether the photo is stored
+   */
+  public boolean contains(final String photoHashBase64) {
+    return getBlobFile(photoHashBase64).isFile();
+  }
+
+  /**
+   * Opens the encrypted blob of the photo having the given hash.
+   *
+   * @param photoHashBase64 the SHA-1 hash of the photo encoded in Base 64 notation
+   *
+   * @return the blob input stream, or null if the photo is not stored
+   *
+   * @throws IOException when the blob cannot be opened
+   */
+  public InputStream openBlob(final String photoHashBase64) throws IOException {
+    final File blobFile = getBlobFile(photoHashBase64);
+    if (!blobFile.isFile()) {
+      return null;
+    }
+    return new FileInputStream(blobFile);
+  }
+
+  /**
+   * Gets the blob file of the photo having the given hash.
+   *
+   * @param photoHashBase64 the SHA-1 hash of the photo encoded in Base 64 notation
+   *
+   * @return the blob file, which exists only if the photo is stored
+   */
+  public File getBlobFile(final String photoHashBase64) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(photoHashBase64) : "photoHashBase64 must be a non-empty string";
+
+    return new File(directory, ByteUtils.toHex(Base64Coder.decode(photoHashBase64)));
+  }
+
+  /**
+   * Gets the blob directory.
+   *
+   * @return the blob directory
+   */
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[PhotoBlobStore " + directory + "]";
+  }
+
+  /**
+   * Contains a blob which is being written, and which is either committed under its photo hash or discarded.
+   */
+  public final class PendingBlob {
+
+    // the pending blob file
+    private final File pendingFile;
+    // the output stream to the pending blob file
+    private final OutputStream outputStream;
+
+    /**
+     * Creates a new instance of PendingBlob.
+     *
+     * @param pendingFile the pending blob file
+     *
+     * @throws IOException when the pending blob file cannot be created
+     */
+    PendingBlob(final File pendingFile) throws IOException {
+      this.pendingFile = pendingFile;
+      outputStream = new FileOutputStream(pendingFile);
+    }
+
+    /**
+     * Gets the output stream to which the encrypted bytes are written, which the caller must close before committing.
+     *
+     * @return the output stream
+     */
+    public OutputStream getOutputStream() {
+      return outputStream;
+    }
+
+    /**
+     * Commits this blob under the given photo hash, unless the photo is already stored, in which case this blob is discarded.
+     *
+     * @param photoHashBase64 the SHA-1 hash of the photo encoded in Base 64 notation
+     *
+     * @return whether the photo was already stored
+     *
+     * @throws IOException when the blob cannot be renamed
+     */
+    public boolean commit(final String photoHashBase64) throws IOException {
+      final File blobFile = getBlobFile(photoHashBase64);
+      if (blobFile.isFile()) {
+        discard();
+        return true;
+      }
+      try {
+        Files.move(pendingFile.toPath(), blobFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException ex) {
+        Files.move(pendingFile.toPath(), blobFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      return false;
+    }
+
+    /**
+     * Discards this blob.
+     */
+    public void discard() {
+      try {
+        outputStream.close();
+      } catch (IOException ex) {
+        LOGGER.warn("cannot close the pending blob " + pendingFile + ", " + ex.getMessage());
+      }
+      if (pendingFile.exists() && !pendingFile.delete()) {
+        LOGGER.warn("cannot delete the pending blob " + pendingFile);
+      }
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package org.texai.photoapp;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import javax.crypto.SecretKey;
+import net.jcip.annotations.NotThreadSafe;
+import org.texai.util.Base64Coder;
+import org.texai.util.TexaiException;
+import org.texai.x509.SymmetricKeyUtils;
+
+/**
+ * PhotoUpload.java
+ *
+ * Description: Streams an uploaded photo through SHA-1 hashing and AES encryption into a pending photo blob.
+ *
+ * Copyright (C) Oct 20, 2026, Stephen L. Reed.
+ */
+@NotThreadSafe
+public final class PhotoUpload {
+
+  // the output buffer length, which batches the small writes of the cipher stream into the blob file
+  private static final int BUFFER_LENGTH = 64 * 1024;
+  // the pending blob
+  private final PhotoBlobStore.PendingBlob pendingBlob;
+  // the SHA-1 message digest of the plain photo bytes
+  private final MessageDigest messageDigest;
+  // the encrypting output stream into the pending blob
+  private final OutputStream encryptingOutputStream;
+  // the maximum photo length
+  private final long maxLength;
+  // the number of plain photo bytes written
+  private long length = 0;
+  // the SHA-1 hash of the photo encoded in Base 64 notation, which is set when the upload completes
+  private String photoHashBase64;
+  // the indicator whether the photo was already stored, which is set when the upload completes
+  private boolean isDuplicate;
+  // the indicator whether the upload is completed or aborted
+  private boolean isClosed = false;
+
+  /**
+   * Creates a new instance of PhotoUpload.
+   *
+   * @param photoBlobStore the photo blob store
+   * @param secretKey the secret key which encrypts the stored photo
+   * @param maxLength the maximum photo length
+   *
+   * @throws IOException when the pending blob cannot be created
+   */
+  public PhotoUpload(
+          final PhotoBlobStore photoBlobStore,
+          final SecretKey secretKey,
+          final long maxLength) throws IOException {
+    //Preconditions
+    assert photoBlobStore != null : "photoBlobStore must not be null";
+    assert secretKey != null : "secretKey must not be null";
+    assert maxLength > 0 : "maxLength must be positive";
+
+    try {
+      messageDigest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new TexaiException(ex);
+    }
+    this.maxLength = maxLength;
+    pendingBlob = photoBlobStore.createPendingBlob();
+    encryptingOutputStream = SymmetricKeyUtils.createEncryptingOutputStream(
+            new BufferedOutputStream(pendingBlob.getOutputStream(), BUFFER_LENGTH),
+            secretKey);
+  }
+
+  /**
+   * Hashes and encrypts the given photo bytes.
+   *
+   * @param bytes the byte array containing the photo bytes
+   * @param offset the offset of the photo bytes
+   * @param count the number of photo bytes
+   *
+   * @return whether the bytes were accepted, which is false when the photo would exceed the maximum length
+   *
+   * @throws IOException when the pending blob cannot be written
+   */
+  public boolean write(
+          final byte[] bytes,
+          final int offset,
+          final int count) throws IOException {
+    //Preconditions
+    assert bytes != null : "bytes must not be null";
+    assert !isClosed : "the upload must not be closed";
+
+    if (length + count > maxLength) {
+      return false;
+    }
+    messageDigest.update(bytes, offset, count);
+    encryptingOutputStream.write(bytes, offset, count);
+    length += count;
+    return true;
+  }
+
+  /**
+   * Completes the upload, committing the blob under the photo hash unless the photo is already stored.
+   *
+   * @return the SHA-1 hash of the photo encoded in Base 64 notation
+   *
+   * @throws IOException when the blob cannot be written or committed
+   */
+  public String complete() throws IOException {
+    return complete(null);
+  }
+
+  /**
+   * Completes the upload, committing the blob under the photo hash only if it equals the given expected hash, and unless the photo is
+   * already stored. A photo whose hash differs from the expected one is discarded without being committed.
+   *
+   * @param expectedPhotoHashBase64 the SHA-1 hash of the photo encoded in Base 64 notation which the client claims, or null to commit
+   * the photo under its computed hash
+   *
+   * @return the SHA-1 hash of the photo encoded in Base 64 notation, or null if it differs from the expected hash
+   *
+   * @throws IOException when the blob cannot be written or committed
+   */
+  public String complete(final String expectedPhotoHashBase64) throws IOException {
+    //Preconditions
+    assert !isClosed : "the upload must not be closed";
+
+    isClosed = true;
+    try {
+      // write the final cipher block
+      encryptingOutputStream.close();
+      photoHashBase64 = new String(Base64Coder.encode(messageDigest.digest()));
+      if (expectedPhotoHashBase64 != null && !expectedPhotoHashBase64.equals(photoHashBase64)) {
+        pendingBlob.discard();
+        return null;
+      }
+      isDuplicate = pendingBlob.commit(photoHashBase64);
+    } catch (IOException | RuntimeException ex) {
+      pendingBlob.discard();
+      throw ex;
+    }
+    return photoHashBase64;
+  }
+
+  /**
+   * Aborts the upload, discarding the pending blob.
+   */
+  public void abort() {
+    if (!isClosed) {
+      isClosed = true;
+      pendingBlob.discard();
+    }
+  }
+
+  /**
+   * Gets the number of photo bytes written.
+   *
+   * @return the number of photo bytes written
+   */
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * Gets the SHA-1 hash of the photo encoded in Base 64 notation.
+   *
+   * @return the photo hash, or null if the upload is not completed
+   */
+  public String getPhotoHashBase64() {
+    return photoHashBase64;
+  }
+
+  /**
+   * Gets whether the photo was already stored.
+   *
+   * @return whether the photo was already stored
+   */
+  public boolean isDuplicate() {
+    return isDuplicate;
+  }
+}
@@ -57,7 +57,7 @@ public class TestWebServer implements TexaiHTTPRequestHandler {
 
     // configure the HTTP request handler by registering the photo app server
     final HTTPRequestHandler httpRequestHandler = new HTTPRequestHandler();
-    httpRequestHandler.register(photoAppServer);
+    photoAppServer.registerRoutes(httpRequestHandler);
 
     // configure the server channel pipeline factory
     final AbstractHTTPRequestHandlerFactory httpRequestHandlerFactory = new HTTPRequestHandlerFactory(httpRequestHandler);
@@ -78,7 +78,7 @@ public class TestWebServer implements TexaiHTTPRequestHandler {
 
     // configure the websocket request handler by registering the photo app server
     final HTTPRequestHandler webSocketRequestHandler = new HTTPRequestHandler();
-    webSocketRequestHandler.register(photoAppServer);
+    photoAppServer.registerRoutes(webSocketRequestHandler);
 
     // configure the server channel pipeline factory
     final AbstractHTTPRequestHandlerFactory webSocketRequestHandlerFactory = new HTTPRequestHandlerFactory(webSocketRequestHandler);
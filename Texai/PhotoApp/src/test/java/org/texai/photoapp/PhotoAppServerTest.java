@@ -95,7 +95,7 @@ public class PhotoAppServerTest {
 
     // configure the HTTP request handler by registering the photo app server
     final HTTPRequestHandler httpRequestHandler = new HTTPRequestHandler();
-    httpRequestHandler.register(photoAppServer);
+    photoAppServer.registerRoutes(httpRequestHandler);
 
     // initialize the test keystores
     KeyStoreUtils.initializeServerTestKeyStore();
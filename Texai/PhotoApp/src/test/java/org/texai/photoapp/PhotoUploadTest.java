@@ -0,0 +1,122 @@
+package org.texai.photoapp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import javax.crypto.SecretKey;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import org.texai.util.Base64Coder;
+import org.texai.x509.SymmetricKeyUtils;
+
+/**
+ * PhotoUploadTest.java
+ *
+ * Description: Tests the streaming photo upload into the photo blob store.
+ *
+ * Copyright (C) Oct 20, 2026, Stephen L. Reed.
+ */
+public class PhotoUploadTest {
+
+  // the log4j logger
+  private static final Logger LOGGER = Logger.getLogger(PhotoUploadTest.class);
+  // the test blob directory
+  private static final File DIRECTORY = new File("data/photo-upload-test");
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    FileUtils.deleteDirectory(DIRECTORY);
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws Exception {
+    FileUtils.deleteDirectory(DIRECTORY);
+  }
+
+  /**
+   * Creates a new instance of PhotoUploadTest.
+   */
+  public PhotoUploadTest() {
+  }
+
+  /**
+   * Test of class PhotoUpload.
+   *
+   * @throws Exception when an error occurs
+   */
+  @Test
+  public void testPhotoUpload() throws Exception {
+    LOGGER.info("testPhotoUpload");
+
+    final PhotoBlobStore photoBlobStore = new PhotoBlobStore(DIRECTORY);
+    final SecretKey secretKey = SymmetricKeyUtils.generateKey();
+    final byte[] photoBytes = new byte[200000];
+    for (int i = 0; i < photoBytes.length; i++) {
+      photoBytes[i] = (byte) (i % 251);
+    }
+    final String expectedPhotoHashBase64 = new String(Base64Coder.encode(MessageDigest.getInstance("SHA-1").digest(photoBytes)));
+
+    // write the photo in fragments, as a fragmented binary web socket message arrives
+    final PhotoUpload photoUpload = new PhotoUpload(photoBlobStore, secretKey, photoBytes.length);
+    assertEquals(1, DIRECTORY.list().length);
+    for (int offset = 0; offset < photoBytes.length; offset += 65536) {
+      assertTrue(photoUpload.write(photoBytes, offset, Math.min(65536, photoBytes.length - offset)));
+    }
+    assertEquals(photoBytes.length, photoUpload.getLength());
+    assertEquals(expectedPhotoHashBase64, photoUpload.complete());
+    assertFalse(photoUpload.isDuplicate());
+    assertTrue(photoBlobStore.contains(expectedPhotoHashBase64));
+    // only the committed blob remains
+    assertEquals(1, DIRECTORY.list().length);
+
+    // the blob is encrypted, and decrypts to the photo
+    final byte[] blobBytes = FileUtils.readFileToByteArray(photoBlobStore.getBlobFile(expectedPhotoHashBase64));
+    assertFalse(Arrays.equals(photoBytes, Arrays.copyOf(blobBytes, photoBytes.length)));
+    try (final InputStream inputStream = photoBlobStore.openBlob(expectedPhotoHashBase64)) {
+      assertTrue(Arrays.equals(photoBytes, IOUtils.toByteArray(SymmetricKeyUtils.createDecryptingInputStream(inputStream, secretKey))));
+    }
+
+    // storing the photo again is detected as a duplicate
+    final PhotoUpload duplicatePhotoUpload = new PhotoUpload(photoBlobStore, secretKey, photoBytes.length);
+    assertTrue(duplicatePhotoUpload.write(photoBytes, 0, photoBytes.length));
+    assertEquals(expectedPhotoHashBase64, duplicatePhotoUpload.complete());
+    assertTrue(duplicatePhotoUpload.isDuplicate());
+    assertEquals(1, DIRECTORY.list().length);
+  }
+
+  /**
+   * Test of the maximum length and abort, of class PhotoUpload.
+   *
+   * @throws IOException when an input/output error occurs
+   */
+  @Test
+  public void testAbort() throws IOException {
+    LOGGER.info("testAbort");
+
+    final PhotoBlobStore photoBlobStore = new PhotoBlobStore(DIRECTORY);
+    final int blobCount = DIRECTORY.list().length;
+    final PhotoUpload photoUpload = new PhotoUpload(photoBlobStore, SymmetricKeyUtils.generateKey(), 10);
+    assertTrue(photoUpload.write(new byte[8], 0, 8));
+    assertFalse(photoUpload.write(new byte[8], 0, 8));
+    assertEquals(8, photoUpload.getLength());
+    photoUpload.abort();
+    assertEquals(blobCount, DIRECTORY.list().length);
+    assertNull(photoBlobStore.openBlob(new String(Base64Coder.encode(new byte[20]))));
+
+    // a photo whose hash differs from the claimed one is not committed
+    final PhotoUpload mismatchedPhotoUpload = new PhotoUpload(photoBlobStore, SymmetricKeyUtils.generateKey(), 10);
+    assertTrue(mismatchedPhotoUpload.write(new byte[8], 0, 8));
+    final String claimedPhotoHashBase64 = new String(Base64Coder.encode(new byte[20]));
+    assertNull(mismatchedPhotoUpload.complete(claimedPhotoHashBase64));
+    assertEquals(blobCount, DIRECTORY.list().length);
+    assertFalse(photoBlobStore.contains(claimedPhotoHashBase64));
+    assertFalse(photoBlobStore.contains(mismatchedPhotoUpload.getPhotoHashBase64()));
+  }
+}
@@ -16,10 +16,11 @@ import java.util.concurrent.locks.ReentrantLock;
 import net.jcip.annotations.ThreadSafe;
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
+import org.texai.kb.persistence.KBCacheRegistry;
 
 /** This class has static methods that initialize the ehcache caches used by the semantic annotation persistence framework.
  * The Constants class contains a list of cache names and initializeCaches() method iterates over those.  New caches may be added without
- * modifying this class.
+ * modifying this class. Resetting the caches also resets the typed caches in the KBCacheRegistry.
  *
  * @author reed
  */
@@ -103,6 +104,7 @@ public final class CacheInitializer {
     try {
       cacheAccessLock.lock();
       areCachesInitialized = false;
+      KBCacheRegistry.resetAll();
       final CacheManager cacheManager = CacheManager.getInstance();
       for (final String namedCache : dynamicallyNamedCacheList) {
         if (cacheManager.cacheExists(namedCache)) {
@@ -130,6 +132,9 @@ public final class CacheInitializer {
 
     cacheAccessLock.lock();
     try {
+      if (KBCacheRegistry.reset(namedCache)) {
+        return;
+      }
       final CacheManager cacheManager = CacheManager.getInstance();
       if (cacheManager.cacheExists(namedCache)) {
         final Cache cache = cacheManager.getCache(namedCache);
@@ -17,8 +17,11 @@ import net.jcip.annotations.NotThreadSafe;
 import net.sf.ehcache.CacheManager;
 import org.apache.log4j.Logger;
 import org.openrdf.model.Statement;
+import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.nativerdf.NativeStore;
 import org.texai.kb.persistence.DistributedRepositoryManager;
 import org.texai.kb.persistence.RDFEntityManager;
 import org.texai.kb.persistence.RDFUtility;
@@ -36,6 +39,8 @@ public final class KBInitializer implements ParsedTurtleStatementHandler {
 
   /** the logger */
   private static final Logger LOGGER = Logger.getLogger(KBInitializer.class);
+  /** the indicator whether debug logging is enabled */
+  private static final boolean IS_DEBUG_LOGGING_ENABLED = LOGGER.isDebugEnabled();
   /** the RDF entity manager */
   private final RDFEntityManager rdfEntityManager;
   /** the statement file path */
@@ -46,6 +51,8 @@ public final class KBInitializer implements ParsedTurtleStatementHandler {
   private int statementCount = 0;
   /** the repository connection */
   private RepositoryConnection repositoryConnection;
+  /** the indicator whether statements are added in large batches by a loader thread */
+  private boolean isBulkLoad = false;
 
   /** Constructs a new KBInitializer instance.
    * @param rdfEntityManager the RDF entity manager
@@ -94,10 +101,30 @@ public final class KBInitializer implements ParsedTurtleStatementHandler {
     try {
       assert (new File(statementFilePath).exists()) : statementFilePath + " not found";
       inputStream = new BufferedInputStream(new FileInputStream(statementFilePath));
-      final TurtleStatementParser turtleStatementParser = TurtleStatementParser.makeTurtleStatementParser(
-              inputStream,
-              this); // parsedTurtleStatementHandler
-      turtleStatementParser.getStatements(); // see handleStatement method
+      if (isBulkLoad) {
+        final StatementBulkLoader statementBulkLoader = new StatementBulkLoader(repositoryConnection);
+        final TurtleStatementParser turtleStatementParser = TurtleStatementParser.makeTurtleStatementParser(
+                inputStream,
+                statementBulkLoader); // parsedTurtleStatementHandler
+        boolean isParsed = false;
+        try {
+          turtleStatementParser.getStatements();
+          isParsed = true;
+        } finally {
+          // always stop the loader thread, discarding the unloaded statements if parsing failed
+          if (isParsed) {
+            statementBulkLoader.finish();
+          } else {
+            statementBulkLoader.abort();
+          }
+        }
+        statementCount = (int) statementBulkLoader.getStatementCount();
+      } else {
+        final TurtleStatementParser turtleStatementParser = TurtleStatementParser.makeTurtleStatementParser(
+                inputStream,
+                this); // parsedTurtleStatementHandler
+        turtleStatementParser.getStatements(); // see handleStatement method
+      }
       inputStream.close();
     } catch (IOException ex) {
       throw new TexaiException(ex);
@@ -122,7 +149,9 @@ public final class KBInitializer implements ParsedTurtleStatementHandler {
   @Override
   @SuppressWarnings("deprecation")
   public void handleStatement(final Statement statement) {
-    LOGGER.debug("statement: " + RDFUtility.formatStatementAsTurtle(statement));
+    if (IS_DEBUG_LOGGING_ENABLED) {
+      LOGGER.debug("statement: " + RDFUtility.formatStatementAsTurtle(statement));
+    }
     try {
       repositoryConnection.add(statement);
       statementCount++;
@@ -139,6 +168,77 @@ public final class KBInitializer implements ParsedTurtleStatementHandler {
     }
   }
 
+  /** Bulk loads the statements from the given file into the native store in the given data directory, deferring the
+   * construction of every index but the first until the statements are loaded. The native store then builds each deferred
+   * index in a single pass when it is reopened with the complete index specification. The repository must not be open
+   * elsewhere.
+   *
+   * @param statementFilePath the turtle-format statement file path
+   * @param dataDirectory the native store data directory
+   * @param indices the complete index specification, e.g. "spoc,posc"
+   * @return the number of loaded statements
+   */
+  public static long bulkLoadWithDeferredIndices(
+          final String statementFilePath,
+          final File dataDirectory,
+          final String indices) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(statementFilePath) : "statementFilePath must be a non-empty string";
+    assert dataDirectory != null : "dataDirectory must not be null";
+    assert StringUtils.isNonEmptyString(indices) : "indices must be a non-empty string";
+
+    final String primaryIndex = indices.split(",")[0].trim();
+    LOGGER.info("bulk loading " + statementFilePath + " into " + dataDirectory + " using the " + primaryIndex + " index");
+    final long statementCount;
+    try {
+      final Repository loadingRepository = new SailRepository(new NativeStore(dataDirectory, primaryIndex));
+      loadingRepository.initialize();
+      final RepositoryConnection loadingRepositoryConnection = loadingRepository.getConnection();
+      final KBInitializer kbInitializer = new KBInitializer(loadingRepositoryConnection);
+      kbInitializer.setStatementFilePath(statementFilePath);
+      kbInitializer.setIsBulkLoad(true);
+      kbInitializer.process();
+      statementCount = kbInitializer.statementCount;
+      loadingRepositoryConnection.close();
+      loadingRepository.shutDown();
+
+      LOGGER.info("building the deferred indices " + indices);
+      final long startMillis = System.currentTimeMillis();
+      final Repository indexingRepository = new SailRepository(new NativeStore(dataDirectory, indices));
+      indexingRepository.initialize();
+      indexingRepository.shutDown();
+      LOGGER.info("deferred indices built in " + (System.currentTimeMillis() - startMillis) + " milliseconds");
+    } catch (final RepositoryException ex) {
+      throw new TexaiException(ex);
+    }
+    return statementCount;
+  }
+
+  /** Gets the number of loaded statements.
+   *
+   * @return the number of loaded statements
+   */
+  public int getStatementCount() {
+    return statementCount;
+  }
+
+  /** Gets the indicator whether statements are added in large batches by a loader thread.
+   *
+   * @return the indicator whether statements are added in large batches by a loader thread
+   */
+  public boolean isBulkLoad() {
+    return isBulkLoad;
+  }
+
+  /** Sets the indicator whether statements are added in large batches by a loader thread. Bulk loading skips the per-statement
+   * logging and commits every batch.
+   *
+   * @param isBulkLoad the indicator whether statements are added in large batches by a loader thread
+   */
+  public void setIsBulkLoad(final boolean isBulkLoad) {
+    this.isBulkLoad = isBulkLoad;
+  }
+
   /** Gets the statement file path.
    *
    * @return the statement file path
@@ -0,0 +1,234 @@
+/*
+ * StatementBulkLoader.java
+ *
+ * Created on Oct 19, 2026, 9:42:10 AM
+ *
+ * Description: Provides a bulk loader that adds parsed turtle statements to a repository in large batches.
+ *
+ * Copyright (C) Oct 19, 2026, Stephen L. Reed.
+ */
+package org.texai.kb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.openrdf.model.Statement;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.texai.turtleStatementParser.misc.ParsedTurtleStatementHandler;
+import org.texai.util.TexaiException;
+
+/** Provides a bulk loader that adds parsed turtle statements to a repository in large batches. The parser thread enqueues
+ * each parsed statement onto a bounded queue, which a loader thread drains, adding each batch of statements with a single
+ * repository call followed by a commit. The repository connection must not be used by other threads between the
+ * construction of this loader and the return of its finish or abort method, one of which must be called, e.g. from a
+ * finally block, to stop the loader thread.
+ *
+ * @author reed
+ */
+@ThreadSafe
+public final class StatementBulkLoader implements ParsedTurtleStatementHandler {
+
+  /** the logger */
+  private static final Logger LOGGER = Logger.getLogger(StatementBulkLoader.class);
+  /** the default number of statements added and committed together */
+  public static final int DEFAULT_BATCH_SIZE = 10000;
+  /** the default capacity of the statement queue */
+  public static final int DEFAULT_QUEUE_CAPACITY = 100000;
+  /** the number of loaded statements between progress reports */
+  private static final long PROGRESS_INTERVAL = 100000;
+  /** the end of statements marker, which is compared by identity */
+  private static final Statement END_OF_STATEMENTS = new StatementImpl(
+          new URIImpl(Constants.TEXAI_NAMESPACE + "endOfStatements"),
+          new URIImpl(Constants.TEXAI_NAMESPACE + "endOfStatements"),
+          new URIImpl(Constants.TEXAI_NAMESPACE + "endOfStatements"));
+  /** the repository connection */
+  private final RepositoryConnection repositoryConnection;
+  /** the number of statements added and committed together */
+  private final int batchSize;
+  /** the bounded statement queue */
+  private final BlockingQueue<Statement> statementQueue;
+  /** the loader thread */
+  private final Thread loaderThread;
+  /** the number of loaded statements */
+  private final AtomicLong statementCount = new AtomicLong(0);
+  /** the load starting time in milliseconds */
+  private final long startMillis;
+  /** the load ending time in milliseconds, or zero if the load is in progress */
+  private volatile long endMillis = 0;
+  /** the exception thrown by the loader thread, or null if none */
+  private volatile RuntimeException loaderException;
+  /** the indicator whether the load is aborted */
+  private volatile boolean isAborted = false;
+
+  /** Constructs a new StatementBulkLoader instance having the default batch size and queue capacity, and starts its loader
+   * thread.
+   *
+   * @param repositoryConnection the repository connection, which is not in auto-commit mode
+   */
+  public StatementBulkLoader(final RepositoryConnection repositoryConnection) {
+    this(repositoryConnection, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /** Constructs a new StatementBulkLoader instance, and starts its loader thread.
+   *
+   * @param repositoryConnection the repository connection, which is not in auto-commit mode
+   * @param batchSize the number of statements added and committed together
+   * @param queueCapacity the capacity of the statement queue
+   */
+  public StatementBulkLoader(
+          final RepositoryConnection repositoryConnection,
+          final int batchSize,
+          final int queueCapacity) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+    assert batchSize > 0 : "batchSize must be positive";
+    assert queueCapacity >= batchSize : "queueCapacity must not be less than batchSize";
+
+    this.repositoryConnection = repositoryConnection;
+    this.batchSize = batchSize;
+    statementQueue = new ArrayBlockingQueue<>(queueCapacity);
+    startMillis = System.currentTimeMillis();
+    loaderThread = new Thread(new StatementLoader(), "statement bulk loader");
+    loaderThread.setDaemon(true);
+    loaderThread.start();
+  }
+
+  /** Handles a parsed turtle statement by enqueuing it for the loader thread, waiting while the queue is full.
+   *
+   * @param statement the statement
+   */
+  @Override
+  public void handleStatement(final Statement statement) {
+    //Preconditions
+    assert statement != null : "statement must not be null";
+    assert endMillis == 0 : "the bulk load is finished";
+
+    enqueue(statement);
+  }
+
+  /** Waits until every enqueued statement is loaded and committed, and then stops the loader thread. */
+  public void finish() {
+    enqueue(END_OF_STATEMENTS);
+    try {
+      loaderThread.join();
+    } catch (InterruptedException ex) {
+      throw new TexaiException(ex);
+    }
+    if (loaderException != null) {
+      throw loaderException;
+    }
+    LOGGER.info(statementCount.get() + " statements bulk loaded in " + (endMillis - startMillis) + " milliseconds, "
+            + getStatementsPerSecond() + " statements per second");
+  }
+
+  /** Aborts the load, e.g. when parsing fails, discarding the statements that are not yet loaded and rolling back the batch
+   * that is not yet committed, and then stops the loader thread. The batches that were already committed remain loaded.
+   */
+  public void abort() {
+    isAborted = true;
+    statementQueue.clear();
+    if (loaderException == null) {
+      try {
+        enqueue(END_OF_STATEMENTS);
+      } catch (final TexaiException ex) {
+        // the loader thread failed while the marker was enqueued, and has stopped
+        LOGGER.warn("the bulk loader failed while aborting: " + ex.getMessage());
+      }
+    }
+    try {
+      loaderThread.join();
+    } catch (InterruptedException ex) {
+      throw new TexaiException(ex);
+    }
+    LOGGER.info("bulk load aborted after " + statementCount.get() + " statements");
+  }
+
+  /** Gets the number of loaded statements.
+   *
+   * @return the number of loaded statements
+   */
+  public long getStatementCount() {
+    return statementCount.get();
+  }
+
+  /** Gets the load rate in statements per second, which is measured up to now while the load is in progress.
+   *
+   * @return the load rate in statements per second
+   */
+  public long getStatementsPerSecond() {
+    final long currentEndMillis = endMillis == 0 ? System.currentTimeMillis() : endMillis;
+    final long elapsedMillis = Math.max(1, currentEndMillis - startMillis);
+    return statementCount.get() * 1000 / elapsedMillis;
+  }
+
+  /** Enqueues the given statement, waiting while the queue is full, unless the loader thread has failed.
+   *
+   * @param statement the given statement
+   */
+  private void enqueue(final Statement statement) {
+    try {
+      while (!statementQueue.offer(statement, 100, TimeUnit.MILLISECONDS)) {
+        if (loaderException != null) {
+          throw loaderException;
+        }
+      }
+    } catch (InterruptedException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /** Drains the statement queue in batches into the repository. */
+  private final class StatementLoader implements Runnable {
+
+    /** Runs the loader. */
+    @Override
+    public void run() {
+      final List<Statement> batch = new ArrayList<>(batchSize);
+      long nextProgressCount = PROGRESS_INTERVAL;
+      boolean isEndOfStatements = false;
+      try {
+        while (!isEndOfStatements) {
+          batch.add(statementQueue.take());
+          statementQueue.drainTo(batch, batchSize - 1);
+          final Statement lastStatement = batch.get(batch.size() - 1);
+          if (lastStatement == END_OF_STATEMENTS) {
+            batch.remove(batch.size() - 1);
+            isEndOfStatements = true;
+          }
+          if (isAborted) {
+            batch.clear();
+          }
+          if (!batch.isEmpty()) {
+            repositoryConnection.add(batch);
+            repositoryConnection.commit();
+            final long count = statementCount.addAndGet(batch.size());
+            batch.clear();
+            if (count >= nextProgressCount) {
+              LOGGER.info(count + " statements loaded, " + getStatementsPerSecond() + " statements per second");
+              nextProgressCount += PROGRESS_INTERVAL;
+            }
+          }
+        }
+        if (isAborted) {
+          repositoryConnection.rollback();
+        }
+      } catch (final RepositoryException ex) {
+        loaderException = new TexaiException(ex);
+      } catch (final InterruptedException ex) {
+        loaderException = new TexaiException(ex);
+      } catch (final RuntimeException ex) {
+        loaderException = ex;
+      } finally {
+        endMillis = System.currentTimeMillis();
+      }
+    }
+  }
+}
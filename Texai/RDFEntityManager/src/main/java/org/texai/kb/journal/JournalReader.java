@@ -47,7 +47,7 @@ public final class JournalReader {
 
   /** Reads the journal entries from the given journal file path and applies them to the appropriate repository.
    *
-   * @param journalFilePath the given journal file path, e.g. /home/reed/svn/RDFEntityManager/journals/test/test-2009-03-18T22:44:10.017-05:00.jrnl
+   * @param journalFilePath the given journal file path, e.g. /home/reed/svn/RDFEntityManager/journals/test/test-2009-03-19T03_44_10.017Z.jrnl
    */
   public void read(final String journalFilePath) {
     //Preconditions
@@ -59,7 +59,7 @@ public final class JournalReader {
 
   /** Reads the journal entries from the given journal file path and applies them to the given repository.
    *
-   * @param journalFilePath the given journal file path, e.g. /home/reed/svn/RDFEntityManager/journals/test/test-2009-03-18T22:44:10.017-05:00.jrnl
+   * @param journalFilePath the given journal file path, e.g. /home/reed/svn/RDFEntityManager/journals/test/test-2009-03-19T03_44_10.017Z.jrnl
    * @param dataDirectoryPath the repository data directory path, or null if the repository is in the default location and its name
    * should be extracted from the given journal file path
    */
@@ -104,14 +104,38 @@ public final class JournalReader {
       }
     }
     assert repositoryConnection != null;
-    try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(canonicalJournalFilePath), "UTF-8"))) {
+    replay(canonicalJournalFilePath, repositoryConnection);
+    try {
+      repositoryConnection.close();
+    } catch (RepositoryException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /** Reads the journal entries from the given journal file path and applies them using the given repository connection, which
+   * remains open.
+   *
+   * @param journalFilePath the given journal file path
+   * @param repositoryConnection the repository connection
+   */
+  public void replay(final String journalFilePath, final RepositoryConnection repositoryConnection) {
+    //Preconditions
+    assert journalFilePath != null : "journalFilePath must not be null";
+    assert !journalFilePath.isEmpty() : "journalFilePath must not be empty";
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+
+    int index;
+    final TurtleStatementParser turtleStatementParser = TurtleStatementParser.makeResettableTurtleStatementParser();
+    try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(new FileInputStream(journalFilePath), "UTF-8"))) {
       while (true) {
         final String line = bufferedReader.readLine();
         if (line == null) {
           bufferedReader.close();
           break;
         }
-        LOGGER.info(line);
+        if (IS_DEBUG_LOGGING_ENABLED) {
+          LOGGER.debug(line);
+        }
         index = line.indexOf(' ');
         final int index2 = line.indexOf(' ', index + 1);
         index = line.indexOf(' ', index2 + 1);
@@ -119,11 +143,9 @@ public final class JournalReader {
         if (IS_DEBUG_LOGGING_ENABLED) {
           LOGGER.debug("  operation: " + operation);
         }
-        final String turtleStatementString = line.substring(index + 1);
-        final TurtleStatementParser turtleStatementParser = TurtleStatementParser.makeTurtleStatementParser(turtleStatementString);
         Statement statement = null;
         try {
-          statement = turtleStatementParser.Statement();
+          statement = turtleStatementParser.parseStatement(line, index + 1, line.length());
           if (IS_DEBUG_LOGGING_ENABLED) {
             LOGGER.debug("  parsed statement: " + RDFUtility.formatStatementAsTurtle(statement));
           }
@@ -152,11 +174,6 @@ public final class JournalReader {
           throw new TexaiException(ex);
         }
       }
-      try {
-        repositoryConnection.close();
-      } catch (RepositoryException ex) {
-        throw new TexaiException(ex);
-      }
     } catch (final IOException ex) {
       throw new TexaiException(ex);
     }
@@ -23,6 +23,7 @@ import java.util.Map;
 import net.jcip.annotations.ThreadSafe;
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.texai.util.TexaiException;
 
 /** Provides a thread-safe journal writer.
@@ -38,6 +39,8 @@ public final class JournalWriter {
   private static final boolean IS_DEBUG_LOGGING_ENABLED = LOGGER.isDebugEnabled();
   /** the journal file writer dictionary, repository name --> print writer */
   private static final Map<String, PrintWriter> JOURNAL_FILE_WRITER_DICTIONARY = new HashMap<>();
+  /** the journal file path dictionary, repository name --> path of the journal file currently being written */
+  private static final Map<String, String> JOURNAL_FILE_PATH_DICTIONARY = new HashMap<>();
   /** the indicator that the print writers are closed */
   private static boolean arePrintWritersClosed = false;
   /** the indicator whether to inefficiently, but safely, flush the buffer when each operation is written */
@@ -101,37 +104,49 @@ public final class JournalWriter {
     assert directory.exists() : "./journals does not exist, current working directory is " + System.getProperty("user.dir");
     final DateTime dateTime = new DateTime();
     int suffixNbr = 0;
-    for (final JournalRequest transactionJournalRequest : transactionJournalRequests) {
-      PrintWriter journalFileWriter = JOURNAL_FILE_WRITER_DICTIONARY.get(transactionJournalRequest.getRepositoryName());
-      if (journalFileWriter == null) {
-        journalFilePath = "./journals/" + transactionJournalRequest.getRepositoryName() + "-" + (new DateTime()).toString().replace(':', '_') + ".jrnl";
-        try {
-          final File journalFile = new File(journalFilePath);
-          if (!journalFile.exists()) {
+    synchronized (JOURNAL_FILE_WRITER_DICTIONARY) {
+      for (final JournalRequest transactionJournalRequest : transactionJournalRequests) {
+        PrintWriter journalFileWriter = JOURNAL_FILE_WRITER_DICTIONARY.get(transactionJournalRequest.getRepositoryName());
+        if (journalFileWriter == null) {
+          // the UTC time stamp keeps the journal file names of a repository in the order written, across daylight saving time
+          // changes
+          final String journalFilePathPrefix = "./journals/" + transactionJournalRequest.getRepositoryName() + "-"
+                  + (new DateTime(DateTimeZone.UTC)).toString().replace(':', '_');
+          journalFilePath = journalFilePathPrefix + ".jrnl";
+          try {
+            // a journal file rolled within the same millisecond must not be overwritten, and the zero-padded roll number sorts
+            // after the unnumbered name
+            File journalFile = new File(journalFilePath);
+            int rollNbr = 0;
+            while (journalFile.exists()) {
+              journalFilePath = journalFilePathPrefix + "_" + String.format("%06d", ++rollNbr) + ".jrnl";
+              journalFile = new File(journalFilePath);
+            }
             final boolean wasFileCreated = journalFile.createNewFile();
             if (!wasFileCreated) {
               throw new TexaiException("file was not created: " + journalFilePath);
             }
+            journalFileWriter = new PrintWriter(new OutputStreamWriter(new FileOutputStream(journalFilePath), "UTF-8"));
+          } catch (final IOException ex) {
+            LOGGER.error("problem with file " + journalFilePath);
+            throw new TexaiException(ex);
           }
-          journalFileWriter = new PrintWriter(new OutputStreamWriter(new FileOutputStream(journalFilePath), "UTF-8"));
-        } catch (final IOException ex) {
-          LOGGER.error("problem with file " + journalFilePath);
-          throw new TexaiException(ex);
+          JOURNAL_FILE_WRITER_DICTIONARY.put(transactionJournalRequest.getRepositoryName(), journalFileWriter);
+          JOURNAL_FILE_PATH_DICTIONARY.put(transactionJournalRequest.getRepositoryName(), journalFilePath);
+        }
+        final JournalEntry journalEntry = new JournalEntry(
+                dateTime,
+                ++suffixNbr,
+                transactionJournalRequest.getOperation(),
+                transactionJournalRequest.getStatement());
+        final String journalEntryString = journalEntry.toString();
+        if (IS_DEBUG_LOGGING_ENABLED) {
+          LOGGER.debug("writing: " + journalEntryString);
+        }
+        journalFileWriter.println(journalEntryString);
+        if (isWrittenImmediately) {
+          journalFileWriter.flush();
         }
-        JOURNAL_FILE_WRITER_DICTIONARY.put(transactionJournalRequest.getRepositoryName(), journalFileWriter);
-      }
-      final JournalEntry journalEntry = new JournalEntry(
-              dateTime,
-              ++suffixNbr,
-              transactionJournalRequest.getOperation(),
-              transactionJournalRequest.getStatement());
-      final String journalEntryString = journalEntry.toString();
-      if (IS_DEBUG_LOGGING_ENABLED) {
-        LOGGER.debug("writing: " + journalEntryString);
-      }
-      journalFileWriter.println(journalEntryString);
-      if (isWrittenImmediately) {
-        journalFileWriter.flush();
       }
     }
     transactionJournalRequests.clear();
@@ -145,12 +160,39 @@ public final class JournalWriter {
   /** Closes the journal file writers. */
   public static synchronized void close() {
     if (!arePrintWritersClosed) {
-      for (final PrintWriter journalFileWriter : JOURNAL_FILE_WRITER_DICTIONARY.values()) {
+      synchronized (JOURNAL_FILE_WRITER_DICTIONARY) {
+        for (final PrintWriter journalFileWriter : JOURNAL_FILE_WRITER_DICTIONARY.values()) {
+          journalFileWriter.flush();
+          journalFileWriter.close();
+        }
+        arePrintWritersClosed = true;
+        JOURNAL_FILE_WRITER_DICTIONARY.clear();
+        JOURNAL_FILE_PATH_DICTIONARY.clear();
+      }
+    }
+  }
+
+  /** Closes the journal file currently being written for the given repository, so that the next committed journal entry for
+   * the repository starts a new journal file. The returned path marks a consistent journal position for a checkpoint, every
+   * journal entry in it or in an earlier journal file for the repository having been committed.
+   *
+   * @param repositoryName the repository name
+   * @return the path of the closed journal file, or null if no journal file is open for the repository
+   */
+  public static String rollJournalFile(final String repositoryName) {
+    //Preconditions
+    assert repositoryName != null : "repositoryName must not be null";
+    assert !repositoryName.isEmpty() : "repositoryName must not be empty";
+
+    synchronized (JOURNAL_FILE_WRITER_DICTIONARY) {
+      final PrintWriter journalFileWriter = JOURNAL_FILE_WRITER_DICTIONARY.remove(repositoryName);
+      final String rolledJournalFilePath = JOURNAL_FILE_PATH_DICTIONARY.remove(repositoryName);
+      if (journalFileWriter != null) {
         journalFileWriter.flush();
         journalFileWriter.close();
+        LOGGER.info("rolled journal file: " + rolledJournalFilePath);
       }
-      arePrintWritersClosed = true;
-      JOURNAL_FILE_WRITER_DICTIONARY.clear();
+      return rolledJournalFilePath;
     }
   }
 
@@ -9,17 +9,45 @@
  */
 package org.texai.kb.journal;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
 import net.jcip.annotations.NotThreadSafe;
 import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
 import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.nativerdf.NativeStore;
+import org.texai.util.ByteUtils;
 import org.texai.util.TexaiException;
 
 /** Provides a repository archiver.
+ *
+ * Besides the full copy made by archive(), the archiver supports incremental checkpoints. A checkpoint stores each changed
+ * repository data file once, named by its SHA-256 content digest, in the blobs subdirectory of the archive directory, and
+ * writes a checkpoint manifest that maps the data file names to their digests and records the journal position, i.e. the
+ * journal file that was rolled when the checkpoint was taken. Journal files up to that position, together with the
+ * blobs and manifests of earlier checkpoints, are then deleted. Restoring copies back only the data files that differ from
+ * the latest checkpoint, and replays the journal files written since then.
+ *
+ * The repository must be shut down, or otherwise quiescent, while it is checkpointed or restored.
  *
  * @author Stephen L. Reed
  */
@@ -28,6 +56,30 @@ public final class RepositoryArchiver {
 
   /** the log4j logger */
   private static final Logger LOGGER = Logger.getLogger(RepositoryArchiver.class);
+  /** the name of the archive subdirectory that holds the content-addressed data file copies */
+  private static final String BLOBS_DIRECTORY_NAME = "blobs";
+  /** the checkpoint manifest file name prefix */
+  private static final String CHECKPOINT_PREFIX = "checkpoint-";
+  /** the checkpoint manifest file name suffix */
+  private static final String CHECKPOINT_SUFFIX = ".manifest";
+  /** the manifest property key prefix for a data file digest */
+  private static final String DIGEST_KEY_PREFIX = "digest.";
+  /** the manifest property key prefix for a data file length */
+  private static final String LENGTH_KEY_PREFIX = "length.";
+  /** the manifest property key prefix for a data file last-modified time */
+  private static final String LAST_MODIFIED_KEY_PREFIX = "lastModified.";
+  /** the manifest property key for the checkpoint number */
+  private static final String CHECKPOINT_NUMBER_KEY = "checkpointNumber";
+  /** the manifest property key for the checkpoint date time */
+  private static final String CHECKPOINT_DATE_TIME_KEY = "checkpointDateTime";
+  /** the manifest property key for the name of the journal file rolled at the checkpoint */
+  private static final String JOURNAL_FILE_NAME_KEY = "journalFileName";
+  /** the pattern of the part of a journal file name that follows the repository name and its dash separator, i.e. the UTC time
+   * stamp, an optional roll number and the extension */
+  private static final Pattern JOURNAL_FILE_NAME_SUFFIX_PATTERN = Pattern.compile(
+          "\\d{4}-\\d{2}-\\d{2}T\\d{2}_\\d{2}_\\d{2}\\.\\d{3}Z(_\\d+)?\\.jrnl");
+  /** the journals directory path */
+  private static final String JOURNALS_DIRECTORY_PATH = "./journals";
   /** the repository data directory path */
   private final String dataDirectoryPath;
 
@@ -62,18 +114,15 @@ public final class RepositoryArchiver {
 
     // open archive directory
     final String absolutePath = dataDirectory.getAbsolutePath();
-    final File archiveDirectory;
-    if (absolutePath.contains("repositories")) {
-      archiveDirectory = new File(absolutePath.replace("repositories", "archiveRepositories"));
-    } else if (absolutePath.contains("Repositories")) {
-      archiveDirectory = new File(absolutePath.replace("Repositories", "archiveRepositories"));
-    } else {
-      archiveDirectory = new File(absolutePath + "/archiveRepositories");
-    }
+    final File archiveDirectory = getArchiveDirectory();
 
     if (archiveDirectory.exists()) {
       final File[] files = archiveDirectory.listFiles();
       for (final File file : files) {
+        if (file.isDirectory() || file.getName().startsWith(CHECKPOINT_PREFIX)) {
+          // keep the incremental checkpoints
+          continue;
+        }
         LOGGER.info("deleting previous archive file: " + file);
         final boolean wasFileDeleted = file.delete();
         if (!wasFileDeleted) {
@@ -91,8 +140,7 @@ public final class RepositoryArchiver {
 
     // copy files
     for (final File dataFile : dataDirectory.listFiles()) {
-      final String dataFileName = dataFile.getName();
-      if (dataFileName.equals("lock") || dataFileName.equals(".svn")) {
+      if (!isArchivable(dataFile)) {
         continue;
       }
       final File archiveFile;
@@ -129,4 +177,373 @@ public final class RepositoryArchiver {
       }
     }
   }
+
+  /** Checkpoints the repository incrementally. Only the data files whose content is not already stored in the archive are
+   * copied, and the journal files that are covered by this checkpoint are deleted.
+   *
+   * @return the checkpoint number
+   */
+  public long checkpoint() {
+    final File dataDirectory = new File(dataDirectoryPath);
+    assert dataDirectory.isDirectory() : "dataDirectoryPath must be a directory " + dataDirectoryPath;
+
+    final File blobsDirectory = new File(getArchiveDirectory(), BLOBS_DIRECTORY_NAME);
+    if (!blobsDirectory.exists()) {
+      LOGGER.info("  creating " + blobsDirectory);
+      final boolean wasDirectoryCreated = blobsDirectory.mkdirs();
+      if (!wasDirectoryCreated) {
+        throw new TexaiException("blobs directory was not created: " + blobsDirectory);
+      }
+    }
+    final File previousManifestFile = getLatestManifestFile();
+    final Properties previousManifest = previousManifestFile == null ? new Properties() : loadManifest(previousManifestFile);
+    final long checkpointNumber = previousManifestFile == null
+            ? 1
+            : Long.parseLong(previousManifest.getProperty(CHECKPOINT_NUMBER_KEY)) + 1;
+
+    // the journal position is taken first, so that every journal entry not in the rolled file or in an earlier one has yet
+    // to be applied to the data files
+    final String rolledJournalFilePath = JournalWriter.rollJournalFile(dataDirectory.getName());
+    final Properties manifest = new Properties();
+    manifest.setProperty(CHECKPOINT_NUMBER_KEY, String.valueOf(checkpointNumber));
+    manifest.setProperty(CHECKPOINT_DATE_TIME_KEY, new DateTime().toString());
+    if (rolledJournalFilePath != null) {
+      manifest.setProperty(JOURNAL_FILE_NAME_KEY, new File(rolledJournalFilePath).getName());
+    } else if (previousManifest.getProperty(JOURNAL_FILE_NAME_KEY) != null) {
+      manifest.setProperty(JOURNAL_FILE_NAME_KEY, previousManifest.getProperty(JOURNAL_FILE_NAME_KEY));
+    }
+
+    int nbrFilesCopied = 0;
+    for (final File dataFile : dataDirectory.listFiles()) {
+      if (!isArchivable(dataFile)) {
+        continue;
+      }
+      final String dataFileName = dataFile.getName();
+      final String length = String.valueOf(dataFile.length());
+      final String lastModified = String.valueOf(dataFile.lastModified());
+      String digest = previousManifest.getProperty(DIGEST_KEY_PREFIX + dataFileName);
+      if (digest == null
+              || !length.equals(previousManifest.getProperty(LENGTH_KEY_PREFIX + dataFileName))
+              || !lastModified.equals(previousManifest.getProperty(LAST_MODIFIED_KEY_PREFIX + dataFileName))) {
+        digest = computeDigest(dataFile);
+      }
+      final File blobFile = new File(blobsDirectory, digest);
+      if (!blobFile.exists()) {
+        LOGGER.info("copying changed " + dataFile + " to " + blobFile);
+        final File temporaryBlobFile = new File(blobsDirectory, digest + ".tmp");
+        copyFile(dataFile, temporaryBlobFile);
+        if (!temporaryBlobFile.renameTo(blobFile)) {
+          throw new TexaiException("blob file was not renamed: " + temporaryBlobFile);
+        }
+        nbrFilesCopied++;
+      }
+      manifest.setProperty(DIGEST_KEY_PREFIX + dataFileName, digest);
+      manifest.setProperty(LENGTH_KEY_PREFIX + dataFileName, length);
+      manifest.setProperty(LAST_MODIFIED_KEY_PREFIX + dataFileName, lastModified);
+    }
+
+    // the manifest is written under a temporary name and renamed, so that a partially written manifest is never the latest one
+    final File manifestFile = new File(getArchiveDirectory(), CHECKPOINT_PREFIX + checkpointNumber + CHECKPOINT_SUFFIX);
+    final File temporaryManifestFile = new File(getArchiveDirectory(), CHECKPOINT_PREFIX + checkpointNumber + ".tmp");
+    try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(temporaryManifestFile))) {
+      manifest.store(outputStream, "checkpoint of " + dataDirectoryPath);
+    } catch (final IOException ex) {
+      throw new TexaiException(ex);
+    }
+    if (!temporaryManifestFile.renameTo(manifestFile)) {
+      throw new TexaiException("checkpoint manifest was not renamed: " + temporaryManifestFile);
+    }
+    LOGGER.info("checkpoint " + checkpointNumber + " of " + dataDirectoryPath + " copied " + nbrFilesCopied + " changed data files");
+
+    removeObsoleteCheckpoints(manifestFile, manifest);
+    truncateJournal(dataDirectory.getName(), manifest.getProperty(JOURNAL_FILE_NAME_KEY));
+    return checkpointNumber;
+  }
+
+  /** Restores the repository from the latest checkpoint, and then replays the journal files written since the checkpoint.
+   * Only the data files whose length or last-modified time differs from the checkpoint manifest are copied back, and they are
+   * given the last-modified time recorded in the manifest.
+   *
+   * @return the number of replayed journal files
+   */
+  public int restore() {
+    final File manifestFile = getLatestManifestFile();
+    if (manifestFile == null) {
+      throw new TexaiException("no checkpoint found for " + dataDirectoryPath);
+    }
+    final Properties manifest = loadManifest(manifestFile);
+    final File dataDirectory = new File(dataDirectoryPath);
+    if (!dataDirectory.exists()) {
+      final boolean wasDirectoryCreated = dataDirectory.mkdirs();
+      if (!wasDirectoryCreated) {
+        throw new TexaiException("data directory was not created: " + dataDirectory);
+      }
+    }
+    final File blobsDirectory = new File(getArchiveDirectory(), BLOBS_DIRECTORY_NAME);
+
+    // remove data files created after the checkpoint
+    for (final File dataFile : dataDirectory.listFiles()) {
+      if (isArchivable(dataFile) && manifest.getProperty(DIGEST_KEY_PREFIX + dataFile.getName()) == null) {
+        LOGGER.info("deleting data file created after the checkpoint: " + dataFile);
+        final boolean wasFileDeleted = dataFile.delete();
+        if (!wasFileDeleted) {
+          throw new TexaiException("data file was not deleted: " + dataFile);
+        }
+      }
+    }
+
+    // copy back the data files that changed since the checkpoint
+    for (final String key : manifest.stringPropertyNames()) {
+      if (!key.startsWith(DIGEST_KEY_PREFIX)) {
+        continue;
+      }
+      final String dataFileName = key.substring(DIGEST_KEY_PREFIX.length());
+      final String digest = manifest.getProperty(key);
+      final String lastModified = manifest.getProperty(LAST_MODIFIED_KEY_PREFIX + dataFileName);
+      final File dataFile = new File(dataDirectory, dataFileName);
+      if (dataFile.exists()
+              && String.valueOf(dataFile.length()).equals(manifest.getProperty(LENGTH_KEY_PREFIX + dataFileName))
+              && String.valueOf(dataFile.lastModified()).equals(lastModified)) {
+        continue;
+      }
+      final File blobFile = new File(blobsDirectory, digest);
+      if (!blobFile.exists()) {
+        throw new TexaiException("checkpoint blob file not found: " + blobFile);
+      }
+      LOGGER.info("restoring " + dataFile + " from " + blobFile);
+      copyFile(blobFile, dataFile);
+      // the next checkpoint or restore then recognizes the file as unchanged without hashing it
+      if (!dataFile.setLastModified(Long.parseLong(lastModified))) {
+        LOGGER.warn("last-modified time not set: " + dataFile);
+      }
+    }
+
+    // replay the journal files written after the checkpoint
+    final List<File> journalFiles = getJournalFilesAfter(dataDirectory.getName(), manifest.getProperty(JOURNAL_FILE_NAME_KEY));
+    if (!journalFiles.isEmpty()) {
+      final Repository repository = new SailRepository(new NativeStore(dataDirectory, "spoc,posc"));
+      try {
+        repository.initialize();
+        final RepositoryConnection repositoryConnection = repository.getConnection();
+        try {
+          final JournalReader journalReader = new JournalReader();
+          for (final File journalFile : journalFiles) {
+            LOGGER.info("replaying " + journalFile);
+            journalReader.replay(journalFile.getPath(), repositoryConnection);
+          }
+        } finally {
+          repositoryConnection.close();
+          repository.shutDown();
+        }
+      } catch (final RepositoryException ex) {
+        throw new TexaiException(ex);
+      }
+    }
+    return journalFiles.size();
+  }
+
+  /** Gets the archive directory.
+   *
+   * @return the archive directory
+   */
+  private File getArchiveDirectory() {
+    final String absolutePath = new File(dataDirectoryPath).getAbsolutePath();
+    if (absolutePath.contains("repositories")) {
+      return new File(absolutePath.replace("repositories", "archiveRepositories"));
+    } else if (absolutePath.contains("Repositories")) {
+      return new File(absolutePath.replace("Repositories", "archiveRepositories"));
+    } else {
+      return new File(absolutePath + "/archiveRepositories");
+    }
+  }
+
+  /** Returns whether the given data directory file is archived.
+   *
+   * @param dataFile the given data directory file
+   * @return whether the given data directory file is archived
+   */
+  private static boolean isArchivable(final File dataFile) {
+    final String dataFileName = dataFile.getName();
+    return !dataFile.isDirectory() && !dataFileName.equals("lock") && !dataFileName.equals(".svn");
+  }
+
+  /** Gets the latest checkpoint manifest file.
+   *
+   * @return the latest checkpoint manifest file, or null if the repository has not been checkpointed
+   */
+  private File getLatestManifestFile() {
+    final File archiveDirectory = getArchiveDirectory();
+    if (!archiveDirectory.isDirectory()) {
+      return null;
+    }
+    File latestManifestFile = null;
+    long latestCheckpointNumber = 0;
+    for (final File file : archiveDirectory.listFiles()) {
+      final String fileName = file.getName();
+      if (fileName.startsWith(CHECKPOINT_PREFIX) && fileName.endsWith(CHECKPOINT_SUFFIX)) {
+        final long checkpointNumber = Long.parseLong(
+                fileName.substring(CHECKPOINT_PREFIX.length(), fileName.length() - CHECKPOINT_SUFFIX.length()));
+        if (checkpointNumber > latestCheckpointNumber) {
+          latestCheckpointNumber = checkpointNumber;
+          latestManifestFile = file;
+        }
+      }
+    }
+    return latestManifestFile;
+  }
+
+  /** Loads the given checkpoint manifest file.
+   *
+   * @param manifestFile the given checkpoint manifest file
+   * @return the checkpoint manifest
+   */
+  private static Properties loadManifest(final File manifestFile) {
+    final Properties manifest = new Properties();
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(manifestFile))) {
+      manifest.load(inputStream);
+    } catch (final IOException ex) {
+      throw new TexaiException(ex);
+    }
+    return manifest;
+  }
+
+  /** Deletes the checkpoint manifests that precede the given one, and the blobs that the given manifest does not reference.
+   *
+   * @param manifestFile the latest checkpoint manifest file
+   * @param manifest the latest checkpoint manifest
+   */
+  private void removeObsoleteCheckpoints(final File manifestFile, final Properties manifest) {
+    final Set<String> referencedDigests = new HashSet<>();
+    for (final String key : manifest.stringPropertyNames()) {
+      if (key.startsWith(DIGEST_KEY_PREFIX)) {
+        referencedDigests.add(manifest.getProperty(key));
+      }
+    }
+    for (final File file : getArchiveDirectory().listFiles()) {
+      final String fileName = file.getName();
+      if (fileName.startsWith(CHECKPOINT_PREFIX) && !file.equals(manifestFile)) {
+        LOGGER.info("deleting obsolete checkpoint manifest: " + file);
+        if (!file.delete()) {
+          LOGGER.warn("obsolete checkpoint manifest not deleted: " + file);
+        }
+      }
+    }
+    for (final File blobFile : new File(getArchiveDirectory(), BLOBS_DIRECTORY_NAME).listFiles()) {
+      if (!referencedDigests.contains(blobFile.getName())) {
+        LOGGER.info("deleting unreferenced blob: " + blobFile);
+        if (!blobFile.delete()) {
+          LOGGER.warn("unreferenced blob not deleted: " + blobFile);
+        }
+      }
+    }
+  }
+
+  /** Deletes the journal files of the given repository that are covered by the checkpoint, i.e. the given journal file and
+   * the earlier ones.
+   *
+   * @param repositoryName the repository name
+   * @param checkpointJournalFileName the name of the journal file rolled at the checkpoint, or null if none
+   */
+  private static void truncateJournal(final String repositoryName, final String checkpointJournalFileName) {
+    //Preconditions
+    assert repositoryName != null : "repositoryName must not be null";
+
+    if (checkpointJournalFileName == null) {
+      return;
+    }
+    final File journalsDirectory = new File(JOURNALS_DIRECTORY_PATH);
+    if (!journalsDirectory.isDirectory()) {
+      return;
+    }
+    for (final File journalFile : journalsDirectory.listFiles()) {
+      final String journalFileName = journalFile.getName();
+      if (isJournalFileOf(journalFileName, repositoryName) && journalFileName.compareTo(checkpointJournalFileName) <= 0) {
+        LOGGER.info("deleting journal file covered by the checkpoint: " + journalFile);
+        if (!journalFile.delete()) {
+          LOGGER.warn("journal file not deleted: " + journalFile);
+        }
+      }
+    }
+  }
+
+  /** Gets the journal files of the given repository that were written after the checkpoint, in the order written.
+   *
+   * @param repositoryName the repository name
+   * @param checkpointJournalFileName the name of the journal file rolled at the checkpoint, or null if none
+   * @return the journal files written after the checkpoint
+   */
+  private static List<File> getJournalFilesAfter(final String repositoryName, final String checkpointJournalFileName) {
+    //Preconditions
+    assert repositoryName != null : "repositoryName must not be null";
+
+    final List<File> journalFiles = new ArrayList<>();
+    final File journalsDirectory = new File(JOURNALS_DIRECTORY_PATH);
+    if (!journalsDirectory.isDirectory()) {
+      return journalFiles;
+    }
+    final File[] files = journalsDirectory.listFiles();
+    Arrays.sort(files);
+    for (final File journalFile : files) {
+      final String journalFileName = journalFile.getName();
+      if (isJournalFileOf(journalFileName, repositoryName)
+              && (checkpointJournalFileName == null || journalFileName.compareTo(checkpointJournalFileName) > 0)) {
+        journalFiles.add(journalFile);
+      }
+    }
+    return journalFiles;
+  }
+
+  /** Returns whether the given journal file name belongs to the given repository, i.e. whether it consists of exactly the
+   * repository name, the dash separator and the journal time stamp, so that the journal files of a repository whose name
+   * extends the given one are excluded.
+   *
+   * @param journalFileName the given journal file name
+   * @param repositoryName the repository name
+   * @return whether the given journal file name belongs to the given repository
+   */
+  static boolean isJournalFileOf(final String journalFileName, final String repositoryName) {
+    //Preconditions
+    assert journalFileName != null : "journalFileName must not be null";
+    assert repositoryName != null : "repositoryName must not be null";
+
+    final String prefix = repositoryName + "-";
+    return journalFileName.startsWith(prefix)
+            && JOURNAL_FILE_NAME_SUFFIX_PATTERN.matcher(journalFileName.substring(prefix.length())).matches();
+  }
+
+  /** Computes the SHA-256 content digest of the given file.
+   *
+   * @param file the given file
+   * @return the hexadecimal content digest
+   */
+  private static String computeDigest(final File file) {
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+      final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      final byte[] buffer = new byte[65536];
+      while (true) {
+        final int nbrBytesRead = inputStream.read(buffer);
+        if (nbrBytesRead == -1) {
+          break;
+        }
+        messageDigest.update(buffer, 0, nbrBytesRead);
+      }
+      return ByteUtils.toHex(messageDigest.digest());
+    } catch (final IOException | NoSuchAlgorithmException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /** Copies the given source file to the given destination file.
+   *
+   * @param sourceFile the given source file
+   * @param destinationFile the given destination file
+   */
+  private static void copyFile(final File sourceFile, final File destinationFile) {
+    try (FileChannel sourceFileChannel = new FileInputStream(sourceFile).getChannel();
+            FileChannel destinationFileChannel = new FileOutputStream(destinationFile).getChannel()) {
+      destinationFileChannel.transferFrom(sourceFileChannel, 0, sourceFileChannel.size());
+    } catch (final IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
 }
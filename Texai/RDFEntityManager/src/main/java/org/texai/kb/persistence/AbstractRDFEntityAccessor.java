@@ -509,6 +509,21 @@ public abstract class AbstractRDFEntityAccessor {          // NOPMD
     return fieldAnnotationDictionary;
   }
 
+  /**
+   * Gets the fields that have an RDFProperty annotation.
+   *
+   * @return the fields that have an RDFProperty annotation
+   */
+  protected final List<Field> getRDFPropertyFields() {
+    final List<Field> rdfPropertyFields = new ArrayList<>(fieldAnnotationDictionary.size());
+    for (final Map.Entry<Field, Annotation> entry : fieldAnnotationDictionary.entrySet()) {
+      if (entry.getValue() instanceof RDFProperty) {
+        rdfPropertyFields.add(entry.getKey());
+      }
+    }
+    return rdfPropertyFields;
+  }
+
   /**
    * Gets the super classes of this RDF entity.
    *
@@ -903,78 +918,95 @@ public abstract class AbstractRDFEntityAccessor {          // NOPMD
           final RDFEntityManager rdfEntityManager,
           final List<Value> valueList,
           final BufferedWriter writer) {
+    return addRDFList(
+            repositoryConnection,
+            rdfEntityManager,
+            valueList,
+            RDF.NIL,
+            writer,
+            null);
+  }
+
+  /**
+   * Adds the given list of RDF values to the repository as an RDF list structure whose last element is linked to the given tail, which is
+   * either rdf:nil or the remainder of an existing RDF list.
+   *
+   * @param repositoryConnection the repository connection
+   * @param rdfEntityManager the entity manager
+   * @param valueList the given list of RDF values
+   * @param tail the given tail
+   * @param writer the export output writer, or null when objects are ordinarily persisted to the given RDF quad store
+   * @param rdfListNodes the list to which the created blank nodes are appended, or null if they are not required
+   *
+   * @return the blank node that heads the RDF list structure
+   */
+  protected final BNode addRDFList(
+          final RepositoryConnection repositoryConnection,
+          final RDFEntityManager rdfEntityManager,
+          final List<Value> valueList,
+          final Value tail,
+          final BufferedWriter writer,
+          final List<BNode> rdfListNodes) {
     //Preconditions
     assert repositoryConnection != null : "repositoryConnection must not be null";
     assert valueList != null : "valueList must not be null";
     assert !valueList.isEmpty() : "valueList must not be empty";
     assert rdfEntityManager != null : "rdfEntityManager must not be null";
+    assert tail != null : "tail must not be null";
 
     BNode element = valueFactory.createBNode();
     final BNode rdfListHead = element;
-    Statement statement;
-    final int sizeLessOne = valueList.size() - 1;
-    int index = 0;
-    for (; index < sizeLessOne; index++) {
-      // link all but the last value onto the RDF list
-      final Value value = valueList.get(index);
-      statement = valueFactory.createStatement(
-              element,
-              RDF.FIRST,
-              value,
-              getEffectiveContextURI());
-      if (writer == null) {
-        rdfEntityManager.addStatement(repositoryConnection, statement);
-      } else {
-        try {
-          writer.write(RDFUtility.formatStatementAsTurtle(statement));
-          writer.newLine();
-        } catch (IOException ex) {
-          throw new TexaiException(ex);
-        }
+    final int valueList_size = valueList.size();
+    for (int index = 0; index < valueList_size; index++) {
+      if (rdfListNodes != null) {
+        rdfListNodes.add(element);
       }
-      getLogger().info("added: " + RDFUtility.formatStatement(statement) + " to " + repositoryConnection.getRepository().getDataDir().getName());
-      final BNode nextElement = valueFactory.createBNode();
-      statement = valueFactory.createStatement(
-              element,
-              RDF.REST,
-              nextElement,
-              getEffectiveContextURI());
-      if (writer == null) {
-        rdfEntityManager.addStatement(repositoryConnection, statement);
+      // link each value onto the RDF list, and the final one to the tail
+      final Value rest;
+      if (index < valueList_size - 1) {
+        rest = valueFactory.createBNode();
       } else {
-        try {
-          writer.write(RDFUtility.formatStatementAsTurtle(statement));
-          writer.newLine();
-        } catch (IOException ex) {
-          throw new TexaiException(ex);
-        }
+        rest = tail;
       }
-      getLogger().info("added: " + RDFUtility.formatStatement(statement) + " to " + repositoryConnection.getRepository().getDataDir().getName());
-      element = nextElement;
-    }
-    // the final RDF list value is linked to nil
-    final Value value = valueList.get(index);
-    statement = valueFactory.createStatement(
-            element,
-            RDF.FIRST,
-            value,
-            getEffectiveContextURI());
-    if (writer == null) {
-      rdfEntityManager.addStatement(repositoryConnection, statement);
-    } else {
-      try {
-        writer.write(RDFUtility.formatStatementAsTurtle(statement));
-        writer.newLine();
-      } catch (IOException ex) {
-        throw new TexaiException(ex);
+      addRDFListStatement(
+              repositoryConnection,
+              rdfEntityManager,
+              valueFactory.createStatement(
+                      element,
+                      RDF.FIRST,
+                      valueList.get(index),
+                      getEffectiveContextURI()),
+              writer);
+      addRDFListStatement(
+              repositoryConnection,
+              rdfEntityManager,
+              valueFactory.createStatement(
+                      element,
+                      RDF.REST,
+                      rest,
+                      getEffectiveContextURI()),
+              writer);
+      if (rest instanceof BNode) {
+        element = (BNode) rest;
       }
     }
-    getLogger().info("added: " + RDFUtility.formatStatement(statement) + " to " + repositoryConnection.getRepository().getDataDir().getName());
-    statement = valueFactory.createStatement(
-            element,
-            RDF.REST,
-            RDF.NIL,
-            getEffectiveContextURI());
+
+    return rdfListHead;
+  }
+
+  /**
+   * Adds the given RDF list statement to the repository, or writes it to the export output.
+   *
+   * @param repositoryConnection the repository connection
+   * @param rdfEntityManager the entity manager
+   * @param statement the given statement
+   * @param writer the export output writer, or null when objects are ordinarily persisted to the given RDF quad store
+   */
+  private void addRDFListStatement(
+          final RepositoryConnection repositoryConnection,
+          final RDFEntityManager rdfEntityManager,
+          final Statement statement,
+          final BufferedWriter writer) {
     if (writer == null) {
       rdfEntityManager.addStatement(repositoryConnection, statement);
     } else {
@@ -986,8 +1018,6 @@ public abstract class AbstractRDFEntityAccessor {          // NOPMD
       }
     }
     getLogger().info("added: " + RDFUtility.formatStatement(statement) + " to " + repositoryConnection.getRepository().getDataDir().getName());
-
-    return rdfListHead;
   }
 
   /**
@@ -1001,6 +1031,22 @@ public abstract class AbstractRDFEntityAccessor {          // NOPMD
   public final List<Value> getRDFListValues(
           final RepositoryConnection repositoryConnection,
           final BNode rdfListHead) {
+    return getRDFListValues(repositoryConnection, rdfListHead, null);
+  }
+
+  /**
+   * Returns the list of RDF values linked from the given RDF list head, and gathers the blank nodes of the RDF list.
+   *
+   * @param repositoryConnection the repository connection
+   * @param rdfListHead the blank node that heads the RDF list
+   * @param rdfListNodes the list to which the blank nodes of the RDF list are appended, or null if they are not required
+   *
+   * @return the list of RDF values linked from the given RDF list head
+   */
+  public final List<Value> getRDFListValues(
+          final RepositoryConnection repositoryConnection,
+          final BNode rdfListHead,
+          final List<BNode> rdfListNodes) {
     //Preconditions
     assert repositoryConnection != null : "repositoryConnection must not be null";
     assert rdfListHead != null : "rdfListHead must not be null";
@@ -1008,12 +1054,13 @@ public abstract class AbstractRDFEntityAccessor {          // NOPMD
 
     final List<Value> rdfValueList = new ArrayList<>();
     getLogger().debug(stackLevel() + "    getting existing RDF list values, head: " + rdfListHead);
-    Value[] firstAndRest = getRDFListComponents(repositoryConnection, (Resource) rdfListHead);
-    rdfValueList.add(firstAndRest[0]);
-    Value rest = firstAndRest[1];
+    Value rest = rdfListHead;
     while (!rest.equals(RDF.NIL)) {
-      assert rest instanceof Resource;
-      firstAndRest = getRDFListComponents(repositoryConnection, (Resource) rest);
+      assert rest instanceof BNode : "RDF list node must be a blank node " + rest;
+      if (rdfListNodes != null) {
+        rdfListNodes.add((BNode) rest);
+      }
+      final Value[] firstAndRest = getRDFListComponents(repositoryConnection, (Resource) rest);
       rdfValueList.add(firstAndRest[0]);
       rest = firstAndRest[1];
     }
@@ -1024,6 +1071,103 @@ public abstract class AbstractRDFEntityAccessor {          // NOPMD
     return rdfValueList;
   }
 
+  /**
+   * Gets the container membership property, rdf:_1, rdf:_2 and so forth, that relates an indexed RDF list to its element at the given
+   * index.
+   *
+   * @param index the given zero-based index
+   *
+   * @return the container membership property
+   */
+  protected final URI getMembershipPropertyURI(final int index) {
+    //Preconditions
+    assert index >= 0 : "index must not be negative";
+
+    return valueFactory.createURI(RDF.NAMESPACE, "_" + (index + 1));
+  }
+
+  /**
+   * Returns the list of RDF values of the given indexed RDF list, which relates each of its elements by a container membership property.
+   * The whole list is read by a single repository access, rather than by one per element as for an RDF collection.
+   *
+   * @param repositoryConnection the repository connection
+   * @param indexedListNode the blank node of the indexed RDF list
+   *
+   * @return the list of RDF values in index order
+   */
+  public final List<Value> getIndexedRDFListValues(
+          final RepositoryConnection repositoryConnection,
+          final BNode indexedListNode) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+    assert indexedListNode != null : "indexedListNode must not be null";
+
+    final Map<Integer, Value> indexDictionary = new HashMap<>();
+    try {
+      final RepositoryResult<Statement> repositoryResult = repositoryConnection.getStatements(
+              indexedListNode,
+              null,
+              null,
+              false);
+      while (repositoryResult.hasNext()) {
+        final Statement statement = repositoryResult.next();
+        final URI predicate = statement.getPredicate();
+        if (RDF.NAMESPACE.equals(predicate.getNamespace()) && predicate.getLocalName().startsWith("_")) {
+          indexDictionary.put(Integer.valueOf(predicate.getLocalName().substring(1)) - 1, statement.getObject());
+        }
+      }
+      repositoryResult.close();
+    } catch (final RepositoryException | NumberFormatException ex) {
+      throw new TexaiException(ex);
+    }
+    final List<Value> rdfValueList = new ArrayList<>(indexDictionary.size());
+    for (int index = 0; index < indexDictionary.size(); index++) {
+      final Value rdfValue = indexDictionary.get(index);
+      if (rdfValue == null) {
+        throw new TexaiException("missing element " + (index + 1) + " of the indexed RDF list at " + indexedListNode);
+      }
+      rdfValueList.add(rdfValue);
+    }
+    return rdfValueList;
+  }
+
+  /**
+   * Removes the given indexed RDF list.
+   *
+   * @param repositoryConnection the repository connection
+   * @param rdfEntityManager the entity manager
+   * @param indexedListNode the blank node of the indexed RDF list
+   */
+  protected final void removeIndexedRDFList(
+          final RepositoryConnection repositoryConnection,
+          final RDFEntityManager rdfEntityManager,
+          final BNode indexedListNode) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+    assert rdfEntityManager != null : "rdfEntityManager must not be null";
+    assert indexedListNode != null : "indexedListNode must not be null";
+
+    final List<Statement> statements = new ArrayList<>();
+    try {
+      final RepositoryResult<Statement> repositoryResult = repositoryConnection.getStatements(
+              indexedListNode,
+              null,
+              null,
+              false,
+              effectiveContextURI);
+      while (repositoryResult.hasNext()) {
+        statements.add(repositoryResult.next());
+      }
+      repositoryResult.close();
+    } catch (final RepositoryException ex) {
+      throw new TexaiException(ex);
+    }
+    rdfEntityManager.removeStatements(repositoryConnection, statements);
+    if (getLogger().isDebugEnabled()) {
+      getLogger().debug(stackLevel() + "removed the " + statements.size() + " statements of the indexed RDF list " + indexedListNode);
+    }
+  }
+
 // Disabled because the lazy initialized query fails to find some valid RDF statements at a certain point.
 //  /** Returns the URI array [first, rest] whose elements are the first element of the given list node, and the rest of the list at the
 //   * given node.
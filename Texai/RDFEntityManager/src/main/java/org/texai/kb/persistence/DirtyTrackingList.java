@@ -0,0 +1,210 @@
+/*
+ * DirtyTrackingList.java
+ *
+ * Created on Oct 19, 2026, 5:02:14 PM
+ *
+ * Description: Provides a list that tracks which of its elements changed since it was loaded from, or last persisted to, the RDF store.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.persistence;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import net.jcip.annotations.NotThreadSafe;
+import org.openrdf.model.BNode;
+
+/** Provides a list that tracks which of its elements changed since it was loaded from, or last persisted to, the RDF store. The RDF
+ * entity loader populates List fields with instances of this class, and the RDF entity persister uses the tracked changes to edit the
+ * persisted RDF list in place rather than rewriting it.
+ *
+ * The list does not log its operations, it narrows two marks: the number of leading elements, and the number of trailing elements, that
+ * are unchanged since the list was persisted. Appending an element leaves every persisted element in the leading run, and inserting,
+ * removing or replacing an element at index i leaves the elements before i in the leading run and those after it in the trailing run.
+ * Whatever the sequence of operations, the persister rewrites only the span between the two runs. Elements are assumed to be immutable
+ * with respect to their persisted RDF values, as are the elements of a set.
+ *
+ * @param <E> the element type
+ * @author reed
+ */
+@NotThreadSafe
+public final class DirtyTrackingList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+
+  /** the serial version UID */
+  private static final long serialVersionUID = 1L;
+  /** the elements */
+  private final ArrayList<E> elements;
+  /** the blank nodes of the persisted RDF list, one per persisted element, or the single blank node of a persisted indexed list */
+  private List<BNode> rdfListNodes;
+  /** the number of persisted elements */
+  private int persistedSize;
+  /** the number of leading elements that are unchanged since the list was persisted */
+  private int cleanPrefixLength;
+  /** the number of trailing elements that are unchanged since the list was persisted */
+  private int cleanSuffixLength;
+
+  /** Creates a new instance of DirtyTrackingList that has not been persisted. */
+  public DirtyTrackingList() {
+    this(Collections.<E>emptyList(), Collections.<BNode>emptyList());
+  }
+
+  /** Creates a new instance of DirtyTrackingList whose elements are persisted in the RDF list having the given blank nodes.
+   *
+   * @param elements the persisted elements
+   * @param rdfListNodes the blank nodes of the persisted RDF list, one per element, or the single blank node of a persisted indexed list
+   */
+  DirtyTrackingList(
+          final Collection<? extends E> elements,
+          final List<BNode> rdfListNodes) {
+    //Preconditions
+    assert elements != null : "elements must not be null";
+    assert rdfListNodes != null : "rdfListNodes must not be null";
+
+    this.elements = new ArrayList<>(elements);
+    markPersisted(rdfListNodes);
+  }
+
+  /** Gets the element at the given index.
+   *
+   * @param index the given index
+   * @return the element
+   */
+  @Override
+  public E get(final int index) {
+    return elements.get(index);
+  }
+
+  /** Gets the number of elements.
+   *
+   * @return the number of elements
+   */
+  @Override
+  public int size() {
+    return elements.size();
+  }
+
+  /** Replaces the element at the given index.
+   *
+   * @param index the given index
+   * @param element the new element
+   * @return the replaced element
+   */
+  @Override
+  public E set(final int index, final E element) {
+    final E previousElement = elements.set(index, element);
+    narrowCleanRuns(index, elements.size() - index - 1);
+    return previousElement;
+  }
+
+  /** Inserts the given element at the given index.
+   *
+   * @param index the given index
+   * @param element the given element
+   */
+  @Override
+  public void add(final int index, final E element) {
+    final int size = elements.size();
+    elements.add(index, element);
+    modCount++;
+    narrowCleanRuns(index, size - index);
+  }
+
+  /** Removes the element at the given index.
+   *
+   * @param index the given index
+   * @return the removed element
+   */
+  @Override
+  public E remove(final int index) {
+    final int size = elements.size();
+    final E removedElement = elements.remove(index);
+    modCount++;
+    narrowCleanRuns(index, size - index - 1);
+    return removedElement;
+  }
+
+  /** Removes the elements in the given index range.
+   *
+   * @param fromIndex the index of the first removed element
+   * @param toIndex the index after the last removed element
+   */
+  @Override
+  protected void removeRange(final int fromIndex, final int toIndex) {
+    final int size = elements.size();
+    elements.subList(fromIndex, toIndex).clear();
+    modCount++;
+    narrowCleanRuns(fromIndex, size - toIndex);
+  }
+
+  /** Returns whether this list changed since it was persisted.
+   *
+   * @return whether this list changed since it was persisted
+   */
+  public boolean isDirty() {
+    return cleanPrefixLength < persistedSize || elements.size() != persistedSize;
+  }
+
+  /** Returns whether this list is persisted in the RDF list that is headed by the given blank node.
+   *
+   * @param rdfListHead the given blank node
+   * @return whether this list is persisted in the RDF list
+   */
+  boolean isPersistedAt(final BNode rdfListHead) {
+    return !rdfListNodes.isEmpty() && rdfListNodes.get(0).equals(rdfListHead);
+  }
+
+  /** Gets the blank nodes of the persisted RDF list.
+   *
+   * @return the blank nodes of the persisted RDF list, one per persisted element, or the single blank node of a persisted indexed list
+   */
+  List<BNode> getRDFListNodes() {
+    return rdfListNodes;
+  }
+
+  /** Gets the number of leading elements that are unchanged since the list was persisted, and that remain in the list.
+   *
+   * @return the number of leading unchanged elements
+   */
+  int getCleanPrefixLength() {
+    return Math.min(cleanPrefixLength, elements.size());
+  }
+
+  /** Gets the number of trailing elements that are unchanged since the list was persisted, excluding the leading unchanged elements.
+   *
+   * @return the number of trailing unchanged elements
+   */
+  int getCleanSuffixLength() {
+    return Math.min(cleanSuffixLength, Math.min(persistedSize, elements.size()) - getCleanPrefixLength());
+  }
+
+  /** Records that this list is persisted in the RDF list having the given blank nodes.
+   *
+   * @param rdfListNodes the blank nodes of the persisted RDF list, one per element, or the single blank node of a persisted indexed list
+   */
+  void markPersisted(final List<BNode> rdfListNodes) {
+    //Preconditions
+    assert rdfListNodes != null : "rdfListNodes must not be null";
+
+    this.rdfListNodes = new ArrayList<>(rdfListNodes);
+    persistedSize = elements.size();
+    cleanPrefixLength = persistedSize;
+    cleanSuffixLength = persistedSize;
+  }
+
+  /** Narrows the unchanged leading and trailing runs to exclude a change at the given index.
+   *
+   * @param index the index of the changed element
+   * @param nbrTrailingElements the number of elements after the change that keep their persisted order
+   */
+  private void narrowCleanRuns(
+          final int index,
+          final int nbrTrailingElements) {
+    cleanPrefixLength = Math.min(cleanPrefixLength, index);
+    cleanSuffixLength = Math.min(cleanSuffixLength, nbrTrailingElements);
+  }
+}
@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +40,7 @@ import org.texai.kb.persistence.domainEntity.RepositoryContentDescription;
 import org.texai.kb.persistence.domainEntity.RepositoryContentDescriptionItem;
 import org.texai.kb.persistence.parser.ParseException;
 import org.texai.kb.persistence.parser.RepositoryContentDescriptionParser;
+import org.texai.kb.readOnlyStore.ReadOnlyIndexedStore;
 import org.texai.util.FileSystemUtils;
 import org.texai.util.StringUtils;
 import org.texai.util.TexaiException;
@@ -80,6 +82,8 @@ public final class DistributedRepositoryManager {
   private Set<RepositoryContentDescription> repositoryContentDescriptions;
   /** the repository path dictionary, repository name --> path to data directory */
   private static final Map<String, String> REPOSITORY_PATH_DICTIONARY = new HashMap<>();
+  /** the names of the local repositories that are served from a read-only indexed store */
+  private static final Set<String> READ_ONLY_REPOSITORY_NAMES = new HashSet<>();
   /** the Sesame server host URL, or null to use the local native store */
   private static String sesameServerAddress = null;
   /** the directory in which the production repositories are located */
@@ -153,6 +157,21 @@ public final class DistributedRepositoryManager {
     }
   }
 
+  /** Adds the given repository name to the set of local repositories that are served from a read-only indexed store, such as
+   * OpenCyc, which is not modified at run time. The indices are built from the repository's native store the first time that
+   * the repository is accessed.
+   *
+   * @param repositoryName the repository name
+   */
+  public static void addReadOnlyRepositoryName(final String repositoryName) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(repositoryName) : "repositoryName must not be empty";
+
+    synchronized (READ_ONLY_REPOSITORY_NAMES) {
+      READ_ONLY_REPOSITORY_NAMES.add(repositoryName);
+    }
+  }
+
   /** Adds the given test repository name and its looked-up path entry to the repository path dictionary.
    *
    * @param repositoryName the repository name
@@ -326,6 +345,7 @@ public final class DistributedRepositoryManager {
 
   /** Shuts down the initialized repositories. */
   public static synchronized void shutDown() {
+    LOGGER.info(PreparedQueryCache.toStatisticsString());
     if (distributedRepositoryManager != null) {
       for (final Repository repository : distributedRepositoryManager.localRepositoryDictionary.values()) {
         if (repository instanceof LazyRepository) {
@@ -607,8 +627,22 @@ public final class DistributedRepositoryManager {
               repositoryPath = REPOSITORIES_DIRECTORY + "/" + repositoryName;
             }
             final File dataDirectory = new File(repositoryPath);
-            LOGGER.info("accessing local Sesame2 repository in " + dataDirectory.toString());
-            repository = new SailRepository(new NativeStore(dataDirectory, indices));
+            final boolean isReadOnly;
+            synchronized (READ_ONLY_REPOSITORY_NAMES) {
+              isReadOnly = READ_ONLY_REPOSITORY_NAMES.contains(repositoryName);
+            }
+            if (isReadOnly) {
+              final File indexDirectory = new File(dataDirectory, ReadOnlyIndexedStore.INDEX_DIRECTORY_NAME);
+              final String sourceStamp = getSourceStamp(dataDirectory);
+              if (!ReadOnlyIndexedStore.isBuilt(indexDirectory, sourceStamp)) {
+                buildReadOnlyIndex(dataDirectory, indexDirectory, sourceStamp);
+              }
+              LOGGER.info("accessing read-only indexed repository in " + indexDirectory.toString());
+              repository = new SailRepository(new ReadOnlyIndexedStore(indexDirectory));
+            } else {
+              LOGGER.info("accessing local Sesame2 repository in " + dataDirectory.toString());
+              repository = new SailRepository(new NativeStore(dataDirectory, indices));
+            }
           } else {
             LOGGER.info("accessing remote Sesame2 repository at " + sesameServerAddress + "/" + repositoryName);
             repository = new HTTPRepository(sesameServerAddress, repositoryName);
@@ -623,6 +657,53 @@ public final class DistributedRepositoryManager {
       }
     }
 
+    /** Gets the stamp of the current state of the native store in the given data directory, which consists of the number, total
+     * length and latest modification time of its files.
+     *
+     * @param dataDirectory the native store data directory
+     * @return the stamp of the native store's current state
+     */
+    private String getSourceStamp(final File dataDirectory) {
+      int nbrFiles = 0;
+      long totalLength = 0;
+      long lastModified = 0;
+      final File[] files = dataDirectory.listFiles();
+      if (files != null) {
+        for (final File file : files) {
+          // the read-only index subdirectory is skipped
+          if (file.isFile()) {
+            nbrFiles++;
+            totalLength += file.length();
+            lastModified = Math.max(lastModified, file.lastModified());
+          }
+        }
+      }
+      return nbrFiles + " files, " + totalLength + " bytes, last modified " + lastModified;
+    }
+
+    /** Builds the read-only index of this repository from its native store.
+     *
+     * @param dataDirectory the native store data directory
+     * @param indexDirectory the read-only index directory
+     * @param sourceStamp the stamp of the native store's state, which is obtained before the build begins
+     * @throws RepositoryException when a repository error occurs
+     */
+    private void buildReadOnlyIndex(
+            final File dataDirectory,
+            final File indexDirectory,
+            final String sourceStamp) throws RepositoryException {
+      LOGGER.info("building the read-only index of " + repositoryName);
+      final Repository nativeRepository = new SailRepository(new NativeStore(dataDirectory, indices));
+      nativeRepository.initialize();
+      final RepositoryConnection repositoryConnection = nativeRepository.getConnection();
+      try {
+        ReadOnlyIndexedStore.build(repositoryConnection, indexDirectory, sourceStamp);
+      } finally {
+        repositoryConnection.close();
+        nativeRepository.shutDown();
+      }
+    }
+
     /** Sets the directory where data and logging for this repository is stored.
      *
      * @param dataDir the directory where data for this repository is stored
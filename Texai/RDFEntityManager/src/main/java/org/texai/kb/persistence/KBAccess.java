@@ -12,13 +12,12 @@ package org.texai.kb.persistence;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import net.jcip.annotations.Immutable;
 import net.jcip.annotations.NotThreadSafe;
-import net.sf.ehcache.Cache;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.Element;
 import org.apache.log4j.Logger;
 import org.openrdf.OpenRDFException;
 import org.openrdf.model.Resource;
@@ -72,12 +71,36 @@ public final class KBAccess {
   private final RDFEntityManager rdfEntityManager;
   /** the rdf:type URI string */
   public static final String TERM_RDF_TYPE = RDF.TYPE.toString();
-  /** the KB objects cache */
-  private final Cache kbObjectsCache = CacheManager.getInstance().getCache(Constants.CACHE_KB_OBJECTS);
-  /** the property restrictions cache */
-  private final Cache propertyRestrictionsCache = CacheManager.getInstance().getCache(Constants.CACHE_PROPERTY_RESTRICTIONS);
-  /** the subject property restrictions cache */
-  private final Cache subjectPropertyRestrictionsCache = CacheManager.getInstance().getCache(Constants.CACHE_SUBJECT_PROPERTY_RESTRICTIONS);
+  /** the maximum number of cached KB objects */
+  private static final int KB_OBJECTS_CACHE_MAXIMUM_SIZE = 10000;
+  /** the maximum number of statements in the cached KB objects */
+  private static final long KB_OBJECTS_CACHE_MAXIMUM_WEIGHT = 500000;
+  /** the maximum number of cached restriction sets, in each restrictions cache */
+  private static final int RESTRICTIONS_CACHE_MAXIMUM_SIZE = 10000;
+  /** the maximum number of restrictions in the cached restriction sets, in each restrictions cache */
+  private static final long RESTRICTIONS_CACHE_MAXIMUM_WEIGHT = 100000;
+  /** the KB objects cache, repository and subject --> KB object, which is weighed by its number of statements */
+  private static final KBCache<TermKey, AbstractKBObject> KB_OBJECTS_CACHE = KBCacheRegistry.register(
+          new KBCache<TermKey, AbstractKBObject>(
+                  Constants.CACHE_KB_OBJECTS,
+                  KB_OBJECTS_CACHE_MAXIMUM_SIZE,
+                  KB_OBJECTS_CACHE_MAXIMUM_WEIGHT,
+                  (final TermKey termKey, final AbstractKBObject kbObject) -> kbObject.getStatements().size() + 1));
+  /** the property restrictions cache, repository and predicate --> unmodifiable restriction set, which is weighed by its size */
+  private static final KBCache<TermKey, Set<AbstractRestriction>> PROPERTY_RESTRICTIONS_CACHE = KBCacheRegistry.register(
+          new KBCache<TermKey, Set<AbstractRestriction>>(
+                  Constants.CACHE_PROPERTY_RESTRICTIONS,
+                  RESTRICTIONS_CACHE_MAXIMUM_SIZE,
+                  RESTRICTIONS_CACHE_MAXIMUM_WEIGHT,
+                  (final TermKey termKey, final Set<AbstractRestriction> restrictions) -> restrictions.size() + 1));
+  /** the subject property restrictions cache, repository, subject and predicate --> unmodifiable restriction set, which is weighed by
+   * its size */
+  private static final KBCache<TermPairKey, Set<AbstractRestriction>> SUBJECT_PROPERTY_RESTRICTIONS_CACHE = KBCacheRegistry.register(
+          new KBCache<TermPairKey, Set<AbstractRestriction>>(
+                  Constants.CACHE_SUBJECT_PROPERTY_RESTRICTIONS,
+                  RESTRICTIONS_CACHE_MAXIMUM_SIZE,
+                  RESTRICTIONS_CACHE_MAXIMUM_WEIGHT,
+                  (final TermPairKey termPairKey, final Set<AbstractRestriction> restrictions) -> restrictions.size() + 1));
 
   /** Constructs a new KBAccess instance.
    *
@@ -89,11 +112,6 @@ public final class KBAccess {
 
     uriUniversalVocabularyMt = new URIImpl(Constants.TERM_UNIVERSAL_VOCABULARY_MT);
     this.rdfEntityManager = rdfEntityManager;
-
-    //Postconditions
-    assert kbObjectsCache != null : "cache not found for: " + Constants.CACHE_KB_OBJECTS;
-    assert propertyRestrictionsCache != null : "cache not found for: " + Constants.CACHE_PROPERTY_RESTRICTIONS;
-    assert subjectPropertyRestrictionsCache != null : "cache not found for: " + Constants.CACHE_SUBJECT_PROPERTY_RESTRICTIONS;
   }
 
   /** Returns the KB object having the given subject, as a wrapped statement set as contrasted with a semantically annotated domain entity.
@@ -110,12 +128,8 @@ public final class KBAccess {
     assert !repositoryName.isEmpty() : "repositoryName must not be empty";
     assert subject != null : "subject must not be null";
 
-    // look in the cache first for the KB object
-    final String key = repositoryName + "," + subject;
-
-    Element element = kbObjectsCache.get(key);
-    if (element == null) {
-      // not found in the cache, so query its constituent statements from the given repository
+    // look in the cache first for the KB object, otherwise query its constituent statements from the given repository
+    return KB_OBJECTS_CACHE.get(new TermKey(repositoryName, subject), (final TermKey termKey) -> {
       final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
       final Set<Statement> statements = new HashSet<>();
       try {
@@ -127,25 +141,19 @@ public final class KBAccess {
       } catch (final Exception ex) {
         throw new TexaiException(ex);
       }
-      final AbstractKBObject kbObject;
       if (rdfEntityManager.isClassTerm(repositoryName, subject)) {
-        kbObject = new ClassKBObject(statements, repositoryName);
+        return new ClassKBObject(statements, repositoryName);
       } else if (rdfEntityManager.isContextTerm(repositoryName, subject)) {
-        kbObject = new ContextKBObject(statements, repositoryName);
+        return new ContextKBObject(statements, repositoryName);
       } else if (rdfEntityManager.isPropertyTerm(repositoryName, subject)) {
-        kbObject = new PropertyKBObject(statements, repositoryName);
+        return new PropertyKBObject(statements, repositoryName);
       } else if (rdfEntityManager.isIndividualTerm(repositoryName, subject)) {
-        kbObject = new IndividualKBObject(statements, repositoryName);
+        return new IndividualKBObject(statements, repositoryName);
       } else {
         assert false : "undefined term: " + subject;
         return null;
       }
-      // save the KB object in the cache
-      kbObjectsCache.put(new Element(key, kbObject));
-      return kbObject;
-    } else {
-      return (AbstractKBObject) element.getValue();
-    }
+    });
   }
 
   /** Persists the given KB object, which is a wrapped statement set as contrasted with a semantically annotated domain entity.
@@ -169,8 +177,7 @@ public final class KBAccess {
     } catch (RepositoryException ex) {
       throw new TexaiException(ex);
     }
-    final String key = repositoryName + "," + kbObject.getSubject();
-    kbObjectsCache.put(new Element(key, kbObject));
+    KB_OBJECTS_CACHE.put(new TermKey(repositoryName, kbObject.getSubject()), kbObject);
   }
 
   /** Adds the given type relationship.
@@ -293,31 +300,13 @@ public final class KBAccess {
               subject,
               restriction.getId());
 
-      String key = repositoryName + "," + RDFUtility.formatResource(restriction.getOnProperty());
-      Element element = propertyRestrictionsCache.get(key);
-      if (element == null) {
-        final Set<AbstractRestriction> restrictions = new HashSet<>();
-        restrictions.add(restriction);
-        propertyRestrictionsCache.put(new Element(key, restrictions));
-      } else {
-        @SuppressWarnings("unchecked")
-        final Set<AbstractRestriction> restrictions = (Set<AbstractRestriction>) element.getValue();
-        restrictions.add(restriction);
-        propertyRestrictionsCache.put(element);
-      }
-
-      key = repositoryName + "," + RDFUtility.formatResource(subject) + "," + RDFUtility.formatResource(restriction.getOnProperty());
-      element = subjectPropertyRestrictionsCache.get(key);
-      if (element == null) {
-        final Set<AbstractRestriction> restrictions = new HashSet<>();
-        restrictions.add(restriction);
-        subjectPropertyRestrictionsCache.put(new Element(key, restrictions));
-      } else {
-        @SuppressWarnings("unchecked")
-        final Set<AbstractRestriction> restrictions = (Set<AbstractRestriction>) element.getValue();
-        restrictions.add(restriction);
-        subjectPropertyRestrictionsCache.put(element);
-      }
+      // cached restriction sets are replaced rather than modified, and those not cached are loaded with the new restriction
+      PROPERTY_RESTRICTIONS_CACHE.update(
+              new TermKey(repositoryName, restriction.getOnProperty()),
+              (final Set<AbstractRestriction> restrictions) -> addToCopy(restrictions, restriction));
+      SUBJECT_PROPERTY_RESTRICTIONS_CACHE.update(
+              new TermPairKey(repositoryName, subject, restriction.getOnProperty()),
+              (final Set<AbstractRestriction> restrictions) -> addToCopy(restrictions, restriction));
     }
   }
 
@@ -396,29 +385,43 @@ public final class KBAccess {
     assert restriction != null : "restriction must not be null";
     assert subject != null : "subject must not be null";
 
-    String key = repositoryName + "," + RDFUtility.formatResource(restriction.getOnProperty());
-    Element element = propertyRestrictionsCache.get(key);
-    if (element != null) {
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("removing restriction from cache, key: " + key + ", cache: " + Constants.CACHE_PROPERTY_RESTRICTIONS);
-      }
-      @SuppressWarnings("unchecked")
-      final Set<AbstractRestriction> restrictions = (Set<AbstractRestriction>) element.getValue();
-      restrictions.remove(restriction);
-      propertyRestrictionsCache.put(element);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("removing restriction from caches: " + restriction);
     }
+    PROPERTY_RESTRICTIONS_CACHE.update(
+            new TermKey(repositoryName, restriction.getOnProperty()),
+            (final Set<AbstractRestriction> restrictions) -> removeFromCopy(restrictions, restriction));
+    SUBJECT_PROPERTY_RESTRICTIONS_CACHE.update(
+            new TermPairKey(repositoryName, subject, restriction.getOnProperty()),
+            (final Set<AbstractRestriction> restrictions) -> removeFromCopy(restrictions, restriction));
+  }
 
-    key = repositoryName + "," + RDFUtility.formatResource(subject) + "," + RDFUtility.formatResource(restriction.getOnProperty());
-    element = subjectPropertyRestrictionsCache.get(key);
-    if (element != null) {
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("removing restriction from cache, key: " + key + ", cache: " + Constants.CACHE_SUBJECT_PROPERTY_RESTRICTIONS);
-      }
-      @SuppressWarnings("unchecked")
-      final Set<AbstractRestriction> restrictions = (Set<AbstractRestriction>) element.getValue();
-      restrictions.remove(restriction);
-      subjectPropertyRestrictionsCache.put(element);
-    }
+  /** Returns an unmodifiable copy of the given restriction set with the given restriction added.
+   *
+   * @param restrictions the given restriction set
+   * @param restriction the given restriction
+   * @return the copy of the restriction set with the given restriction added
+   */
+  private static Set<AbstractRestriction> addToCopy(
+          final Set<AbstractRestriction> restrictions,
+          final AbstractRestriction restriction) {
+    final Set<AbstractRestriction> restrictions1 = new HashSet<>(restrictions);
+    restrictions1.add(restriction);
+    return Collections.unmodifiableSet(restrictions1);
+  }
+
+  /** Returns an unmodifiable copy of the given restriction set with the given restriction removed.
+   *
+   * @param restrictions the given restriction set
+   * @param restriction the given restriction
+   * @return the copy of the restriction set with the given restriction removed
+   */
+  private static Set<AbstractRestriction> removeFromCopy(
+          final Set<AbstractRestriction> restrictions,
+          final AbstractRestriction restriction) {
+    final Set<AbstractRestriction> restrictions1 = new HashSet<>(restrictions);
+    restrictions1.remove(restriction);
+    return Collections.unmodifiableSet(restrictions1);
   }
 
   /** Adds the given all-values-from property restriction as a super class of the given subject class.
@@ -590,9 +593,8 @@ public final class KBAccess {
    *
    * @param repositoryName the repository name
    * @param predicate the predicate (property)
-   * @return all the applicable property restrictions for the given predicate
+   * @return all the applicable property restrictions for the given predicate, as an unmodifiable set
    */
-  @SuppressWarnings("unchecked")
   public Set<AbstractRestriction> getRestrictionsByPredicate(
           final String repositoryName,
           final URI predicate) {
@@ -601,9 +603,7 @@ public final class KBAccess {
     assert !repositoryName.isEmpty() : "repositoryName must not be empty";
     assert predicate != null : "predicate must not be null";
 
-    final String key = repositoryName + "," + RDFUtility.formatResource(predicate);
-    Element element = propertyRestrictionsCache.get(key);
-    if (element == null) {
+    return PROPERTY_RESTRICTIONS_CACHE.get(new TermKey(repositoryName, predicate), (final TermKey termKey) -> {
       final Set<AbstractRestriction> restrictions = new HashSet<>();
       restrictions.addAll(rdfEntityManager.find(
               new URIImpl(Constants.OWL_NAMESPACE + "onProperty"),
@@ -635,11 +635,8 @@ public final class KBAccess {
               predicate,
               SomeValuesFromRestriction.class,
               repositoryName));
-      propertyRestrictionsCache.put(new Element(key, restrictions));
-      return restrictions;
-    } else {
-      return (Set<AbstractRestriction>) element.getValue();
-    }
+      return Collections.unmodifiableSet(restrictions);
+    });
   }
 
   /** Gets all the applicable property restrictions for the given subject and predicate.
@@ -647,9 +644,8 @@ public final class KBAccess {
    * @param repositoryName the repository name
    * @param subject the subject term, which can be a class or individual
    * @param predicate the predicate (property)
-   * @return all the applicable property restrictions for the given subject and predicate
+   * @return all the applicable property restrictions for the given subject and predicate, as an unmodifiable set
    */
-  @SuppressWarnings("unchecked")
   public Set<AbstractRestriction> getRestrictions(
           final String repositoryName,
           final URI subject,
@@ -660,9 +656,7 @@ public final class KBAccess {
     assert subject != null : "subject must not be null";
     assert predicate != null : "predicate must not be null";
 
-    final String key = repositoryName + "," + RDFUtility.formatResource(subject) + "," + RDFUtility.formatResource(predicate);
-    Element element = subjectPropertyRestrictionsCache.get(key);
-    if (element == null) {
+    return SUBJECT_PROPERTY_RESTRICTIONS_CACHE.get(new TermPairKey(repositoryName, subject, predicate), (final TermPairKey termPairKey) -> {
       final Set<AbstractRestriction> restrictions = new HashSet<>();
       final Set<URI> classes = new HashSet<>();
       if (rdfEntityManager.isClassTerm(repositoryName, subject)) {
@@ -682,11 +676,8 @@ public final class KBAccess {
           restrictions.add(candidateRestriction);
         }
       }
-      subjectPropertyRestrictionsCache.put(new Element(key, restrictions));
-      return restrictions;
-    } else {
-      return (Set<AbstractRestriction>) element.getValue();
-    }
+      return Collections.unmodifiableSet(restrictions);
+    });
   }
 
   /** Returns whether the given term is the subject of any statement.
@@ -701,8 +692,7 @@ public final class KBAccess {
     assert !repositoryName.isEmpty() : "repositoryName must not be empty";
     assert term != null : "term must not be null";
 
-    final String key = repositoryName + "," + term;
-    if (kbObjectsCache.isKeyInCache(key)) {
+    if (KB_OBJECTS_CACHE.containsKey(new TermKey(repositoryName, term))) {
       return true;
     }
 
@@ -732,7 +722,8 @@ public final class KBAccess {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     try {
       LOGGER.info("removing statements having subject " + term);
-      final TupleQuery subjectTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery subjectTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SPARQL,
               "SELECT ?p ?o WHERE { ?s ?p  ?o }");
       subjectTupleQuery.setBinding("s", term);
@@ -746,7 +737,8 @@ public final class KBAccess {
         rdfEntityManager.removeStatement(repositoryConnection, statement);
       }
       LOGGER.info("removing statements having object " + term);
-      final TupleQuery objectTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery objectTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SPARQL,
               "SELECT ?s ?o WHERE { ?s ?p  ?o }");
       objectTupleQuery.setBinding("o", term);
@@ -762,8 +754,7 @@ public final class KBAccess {
     } catch (final RepositoryException | MalformedQueryException | QueryEvaluationException ex) {
       throw new TexaiException(ex);
     }
-    final String key = repositoryName + "," + term;
-    kbObjectsCache.remove(key);
+    KB_OBJECTS_CACHE.remove(new TermKey(repositoryName, term));
   }
 
   /** Asserts the defining statements for a new RDF class.  This method is useful in the case where a new RDF class is required
@@ -1217,7 +1208,7 @@ public final class KBAccess {
         if (statementCount > 1000 && !isExternalTransaction) {
           statementCount = 0;
           // commit transaction
-          repositoryConnection.commit();
+          rdfEntityManager.commit(repositoryConnection);
         }
       }
 
@@ -1254,7 +1245,7 @@ public final class KBAccess {
         if (statementCount > 1000 && !isExternalTransaction) {
           statementCount = 0;
           // commit transaction
-          repositoryConnection.commit();
+          rdfEntityManager.commit(repositoryConnection);
         }
       }
 
@@ -1291,7 +1282,7 @@ public final class KBAccess {
         if (statementCount > 1000 && !isExternalTransaction) {
           statementCount = 0;
           // commit transaction
-          repositoryConnection.commit();
+          rdfEntityManager.commit(repositoryConnection);
         }
       }
 
@@ -1319,18 +1310,155 @@ public final class KBAccess {
         if (statementCount > 1000 && !isExternalTransaction) {
           statementCount = 0;
           // commit transaction
-          repositoryConnection.commit();
+          rdfEntityManager.commit(repositoryConnection);
         }
       }
 
       if (!isExternalTransaction) {
         // commit final transaction
         assert !repositoryConnection.isAutoCommit();
-        repositoryConnection.commit();
+        rdfEntityManager.commit(repositoryConnection);
         repositoryConnection.setAutoCommit(true);
       }
     } catch (final RepositoryException ex) {
       throw new TexaiException(ex);
     }
   }
+
+  /** Provides a cache key consisting of a repository name and a term. */
+  @Immutable
+  private static final class TermKey {
+
+    /** the repository name */
+    private final String repositoryName;
+    /** the term */
+    private final URI term;
+    /** the hash code */
+    private final int hashCode;
+
+    /** Constructs a new TermKey instance.
+     *
+     * @param repositoryName the repository name
+     * @param term the term
+     */
+    TermKey(
+            final String repositoryName,
+            final URI term) {
+      //Preconditions
+      assert repositoryName != null : "repositoryName must not be null";
+      assert term != null : "term must not be null";
+
+      this.repositoryName = repositoryName;
+      this.term = term;
+      hashCode = 31 * repositoryName.hashCode() + term.hashCode();
+    }
+
+    /** Returns whether some other object equals this one.
+     *
+     * @param obj the other object
+     * @return whether some other object equals this one
+     */
+    @Override
+    public boolean equals(final Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (!(obj instanceof TermKey)) {
+        return false;
+      }
+      final TermKey that = (TermKey) obj;
+      return hashCode == that.hashCode && term.equals(that.term) && repositoryName.equals(that.repositoryName);
+    }
+
+    /** Returns a hash code for this object.
+     *
+     * @return a hash code for this object
+     */
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    /** Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+      return "[" + repositoryName + ", " + RDFUtility.formatResource(term) + "]";
+    }
+  }
+
+  /** Provides a cache key consisting of a repository name, a subject term and a predicate term. */
+  @Immutable
+  private static final class TermPairKey {
+
+    /** the repository name */
+    private final String repositoryName;
+    /** the subject term */
+    private final URI subject;
+    /** the predicate term */
+    private final URI predicate;
+    /** the hash code */
+    private final int hashCode;
+
+    /** Constructs a new TermPairKey instance.
+     *
+     * @param repositoryName the repository name
+     * @param subject the subject term
+     * @param predicate the predicate term
+     */
+    TermPairKey(
+            final String repositoryName,
+            final URI subject,
+            final URI predicate) {
+      //Preconditions
+      assert repositoryName != null : "repositoryName must not be null";
+      assert subject != null : "subject must not be null";
+      assert predicate != null : "predicate must not be null";
+
+      this.repositoryName = repositoryName;
+      this.subject = subject;
+      this.predicate = predicate;
+      hashCode = 31 * (31 * repositoryName.hashCode() + subject.hashCode()) + predicate.hashCode();
+    }
+
+    /** Returns whether some other object equals this one.
+     *
+     * @param obj the other object
+     * @return whether some other object equals this one
+     */
+    @Override
+    public boolean equals(final Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (!(obj instanceof TermPairKey)) {
+        return false;
+      }
+      final TermPairKey that = (TermPairKey) obj;
+      return hashCode == that.hashCode
+              && subject.equals(that.subject)
+              && predicate.equals(that.predicate)
+              && repositoryName.equals(that.repositoryName);
+    }
+
+    /** Returns a hash code for this object.
+     *
+     * @return a hash code for this object
+     */
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    /** Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+      return "[" + repositoryName + ", " + RDFUtility.formatResource(subject) + ", " + RDFUtility.formatResource(predicate) + "]";
+    }
+  }
 }
@@ -0,0 +1,608 @@
+/*
+ * KBCache.java
+ *
+ * Created on Oct 19, 2026, 7:02:37 PM
+ *
+ * Description: Provides a typed, thread-safe cache that is bounded by the number of entries and by their total weight, and that loads
+ * each missing entry once.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+import java.util.function.UnaryOperator;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.texai.util.TexaiException;
+
+/** Provides a typed, thread-safe cache that is bounded by the number of entries and by their total weight, and that loads each missing
+ * entry once. When several threads request the same missing entry, one of them loads it and the others wait for that load, rather than
+ * each querying the repository and overwriting the others' result.
+ *
+ * When either bound is exceeded, the least recently used entries are evicted until the cache is back within nine tenths of both bounds,
+ * so that the cost of finding them is shared by many insertions. Cached values are replaced, never mutated, so that a reader never sees
+ * a value that is being modified.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author reed
+ */
+@ThreadSafe
+public final class KBCache<K, V> {
+
+  /** the logger */
+  private static final Logger LOGGER = Logger.getLogger(KBCache.class);
+  /** the cache name */
+  private final String name;
+  /** the maximum number of entries */
+  private final int maximumSize;
+  /** the maximum total weight of the entries */
+  private final long maximumWeight;
+  /** the weigher, which gives the weight of an entry */
+  private final ToIntBiFunction<? super K, ? super V> weigher;
+  /** the entry dictionary, key --> cache entry */
+  private final ConcurrentHashMap<K, CacheEntry<V>> entryDictionary = new ConcurrentHashMap<>();
+  /** the access clock, which orders entry accesses for eviction */
+  private final AtomicLong accessClock = new AtomicLong(0);
+  /** the total weight of the loaded entries */
+  private final AtomicLong totalWeight = new AtomicLong(0);
+  /** the lock that admits one evicting thread at a time */
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  /** the number of requests that found their entry */
+  private final AtomicLong hitCount = new AtomicLong(0);
+  /** the number of requests that did not find their entry */
+  private final AtomicLong missCount = new AtomicLong(0);
+  /** the number of loaded entries */
+  private final AtomicLong loadCount = new AtomicLong(0);
+  /** the total time spent loading entries, in nanoseconds */
+  private final AtomicLong totalLoadNanos = new AtomicLong(0);
+  /** the number of evicted entries */
+  private final AtomicLong evictionCount = new AtomicLong(0);
+
+  /** Constructs a new KBCache instance.
+   *
+   * @param name the cache name
+   * @param maximumSize the maximum number of entries
+   * @param maximumWeight the maximum total weight of the entries
+   * @param weigher the weigher, which gives the weight of an entry
+   */
+  public KBCache(
+          final String name,
+          final int maximumSize,
+          final long maximumWeight,
+          final ToIntBiFunction<? super K, ? super V> weigher) {
+    //Preconditions
+    assert name != null : "name must not be null";
+    assert !name.isEmpty() : "name must not be empty";
+    assert maximumSize > 0 : "maximumSize must be positive";
+    assert maximumWeight > 0 : "maximumWeight must be positive";
+    assert weigher != null : "weigher must not be null";
+
+    this.name = name;
+    this.maximumSize = maximumSize;
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+  }
+
+  /** Gets the cache name.
+   *
+   * @return the cache name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /** Gets the value of the given key, or null if it is not cached.
+   *
+   * @param key the given key
+   * @return the cached value, or null if it is not cached
+   */
+  public V get(final K key) {
+    //Preconditions
+    assert key != null : "key must not be null";
+
+    final CacheEntry<V> cacheEntry = entryDictionary.get(key);
+    if (cacheEntry == null) {
+      missCount.incrementAndGet();
+      return null;
+    }
+    hitCount.incrementAndGet();
+    cacheEntry.lastAccess = accessClock.incrementAndGet();
+    return cacheEntry.getValue();
+  }
+
+  /** Gets the value of the given key, loading it with the given loader if it is not cached. A null loaded value is returned but not
+   * cached. The loader must not request the same key from this cache.
+   *
+   * @param key the given key
+   * @param loader the loader, which obtains the value of a missing key
+   * @return the value, or null if the loader found none
+   */
+  public V get(
+          final K key,
+          final Function<? super K, ? extends V> loader) {
+    //Preconditions
+    assert key != null : "key must not be null";
+    assert loader != null : "loader must not be null";
+
+    CacheEntry<V> cacheEntry = entryDictionary.get(key);
+    if (cacheEntry == null) {
+      final CacheEntry<V> newCacheEntry = new CacheEntry<>(accessClock.incrementAndGet());
+      cacheEntry = entryDictionary.putIfAbsent(key, newCacheEntry);
+      if (cacheEntry == null) {
+        missCount.incrementAndGet();
+        return load(key, newCacheEntry, loader);
+      }
+    }
+    // found, or being loaded by another thread
+    hitCount.incrementAndGet();
+    cacheEntry.lastAccess = accessClock.incrementAndGet();
+    return cacheEntry.getValue();
+  }
+
+  /** Returns whether the given key is cached or being loaded, without counting a hit or a miss.
+   *
+   * @param key the given key
+   * @return whether the given key is cached or being loaded
+   */
+  public boolean containsKey(final K key) {
+    //Preconditions
+    assert key != null : "key must not be null";
+
+    return entryDictionary.containsKey(key);
+  }
+
+  /** Caches the given value for the given key, replacing any cached value.
+   *
+   * @param key the given key
+   * @param value the given value
+   */
+  public void put(
+          final K key,
+          final V value) {
+    //Preconditions
+    assert key != null : "key must not be null";
+    assert value != null : "value must not be null";
+
+    final CacheEntry<V> cacheEntry = new CacheEntry<>(accessClock.incrementAndGet());
+    final CacheEntry<V> replacedCacheEntry = entryDictionary.put(key, cacheEntry);
+    if (replacedCacheEntry != null) {
+      replacedCacheEntry.markRemoved(totalWeight);
+    }
+    cacheEntry.complete(value, weigher.applyAsInt(key, value), totalWeight);
+    evictIfRequired();
+  }
+
+  /** Atomically replaces the cached value of the given key with the result of the given update function, if the key is cached. A key
+   * whose value is still being loaded is removed instead, because the load may not reflect the update.
+   *
+   * @param key the given key
+   * @param updater the update function, which returns a new value rather than modifying the given one
+   */
+  public void update(
+          final K key,
+          final UnaryOperator<V> updater) {
+    //Preconditions
+    assert key != null : "key must not be null";
+    assert updater != null : "updater must not be null";
+
+    final boolean[] isReplaced = {false};
+    entryDictionary.computeIfPresent(key, (final K key1, final CacheEntry<V> cacheEntry) -> {
+      if (!cacheEntry.future.isDone() || cacheEntry.future.isCompletedExceptionally()) {
+        cacheEntry.markRemoved(totalWeight);
+        return null;
+      }
+      final V value = updater.apply(cacheEntry.future.join());
+      cacheEntry.markRemoved(totalWeight);
+      if (value == null) {
+        return null;
+      }
+      final CacheEntry<V> updatedCacheEntry = new CacheEntry<>(accessClock.incrementAndGet());
+      updatedCacheEntry.complete(value, weigher.applyAsInt(key1, value), totalWeight);
+      isReplaced[0] = true;
+      return updatedCacheEntry;
+    });
+    if (isReplaced[0]) {
+      evictIfRequired();
+    }
+  }
+
+  /** Removes the given key.
+   *
+   * @param key the given key
+   */
+  public void remove(final K key) {
+    //Preconditions
+    assert key != null : "key must not be null";
+
+    final CacheEntry<V> cacheEntry = entryDictionary.remove(key);
+    if (cacheEntry != null) {
+      cacheEntry.markRemoved(totalWeight);
+    }
+  }
+
+  /** Removes all entries. */
+  public void clear() {
+    for (final K key : entryDictionary.keySet()) {
+      remove(key);
+    }
+  }
+
+  /** Clears the statistics. */
+  public void clearStatistics() {
+    hitCount.set(0);
+    missCount.set(0);
+    loadCount.set(0);
+    totalLoadNanos.set(0);
+    evictionCount.set(0);
+  }
+
+  /** Gets the number of entries, including those being loaded.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return entryDictionary.size();
+  }
+
+  /** Gets the total weight of the loaded entries.
+   *
+   * @return the total weight of the loaded entries
+   */
+  public long getWeight() {
+    return totalWeight.get();
+  }
+
+  /** Gets the statistics of this cache.
+   *
+   * @return the statistics of this cache
+   */
+  public Statistics getStatistics() {
+    return new Statistics(
+            name,
+            entryDictionary.size(),
+            totalWeight.get(),
+            hitCount.get(),
+            missCount.get(),
+            loadCount.get(),
+            totalLoadNanos.get(),
+            evictionCount.get());
+  }
+
+  /** Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return getStatistics().toString();
+  }
+
+  /** Loads the value of the given key into the given new cache entry.
+   *
+   * @param key the given key
+   * @param cacheEntry the given new cache entry
+   * @param loader the loader, which obtains the value of a missing key
+   * @return the value, or null if the loader found none
+   */
+  private V load(
+          final K key,
+          final CacheEntry<V> cacheEntry,
+          final Function<? super K, ? extends V> loader) {
+    final long startNanos = System.nanoTime();
+    final V value;
+    try {
+      value = loader.apply(key);
+    } catch (final RuntimeException ex) {
+      entryDictionary.remove(key, cacheEntry);
+      cacheEntry.markRemoved(totalWeight);
+      cacheEntry.future.completeExceptionally(ex);
+      throw ex;
+    }
+    loadCount.incrementAndGet();
+    totalLoadNanos.addAndGet(System.nanoTime() - startNanos);
+    if (value == null) {
+      entryDictionary.remove(key, cacheEntry);
+      cacheEntry.markRemoved(totalWeight);
+      cacheEntry.future.complete(null);
+    } else {
+      cacheEntry.complete(value, weigher.applyAsInt(key, value), totalWeight);
+      evictIfRequired();
+    }
+    return value;
+  }
+
+  /** Evicts the least recently used entries when either bound is exceeded, unless another thread is already evicting. */
+  private void evictIfRequired() {
+    if ((entryDictionary.size() <= maximumSize && totalWeight.get() <= maximumWeight) || !evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      final long sizeTarget = maximumSize - maximumSize / 10;
+      final long weightTarget = maximumWeight - maximumWeight / 10;
+      // the access times are copied before sorting, because concurrent readers keep updating them
+      final List<EvictionCandidate<K, V>> evictionCandidates = new ArrayList<>(entryDictionary.size());
+      for (final Entry<K, CacheEntry<V>> entry : entryDictionary.entrySet()) {
+        final CacheEntry<V> cacheEntry = entry.getValue();
+        if (cacheEntry.future.isDone()) {
+          evictionCandidates.add(new EvictionCandidate<>(entry.getKey(), cacheEntry, cacheEntry.lastAccess));
+        }
+      }
+      Collections.sort(evictionCandidates, new Comparator<EvictionCandidate<K, V>>() {
+        @Override
+        public int compare(final EvictionCandidate<K, V> evictionCandidate1, final EvictionCandidate<K, V> evictionCandidate2) {
+          return Long.compare(evictionCandidate1.lastAccess, evictionCandidate2.lastAccess);
+        }
+      });
+      int nbrEvicted = 0;
+      for (final EvictionCandidate<K, V> evictionCandidate : evictionCandidates) {
+        if (entryDictionary.size() <= sizeTarget && totalWeight.get() <= weightTarget) {
+          break;
+        }
+        if (entryDictionary.remove(evictionCandidate.key, evictionCandidate.cacheEntry)) {
+          evictionCandidate.cacheEntry.markRemoved(totalWeight);
+          nbrEvicted++;
+        }
+      }
+      evictionCount.addAndGet(nbrEvicted);
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("evicted " + nbrEvicted + " entries from " + this);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Provides a cache entry, whose value may be still loading.
+   *
+   * @param <V> the value type
+   */
+  private static final class CacheEntry<V> {
+
+    /** the future value */
+    private final CompletableFuture<V> future = new CompletableFuture<>();
+    /** the access clock value of the most recent access */
+    private volatile long lastAccess;
+    /** the weight counted in the cache's total weight, which is zero until the value is loaded and after the entry is removed */
+    private int weight = 0;
+    /** the indicator whether this entry was removed from the cache */
+    private boolean isRemoved = false;
+
+    /** Constructs a new CacheEntry instance.
+     *
+     * @param lastAccess the access clock value of the creating access
+     */
+    CacheEntry(final long lastAccess) {
+      this.lastAccess = lastAccess;
+    }
+
+    /** Completes this entry with the given loaded value, counting its weight unless the entry was removed while it was loading.
+     *
+     * @param value the loaded value
+     * @param weight the weight of the value
+     * @param totalWeight the cache's total weight
+     */
+    synchronized void complete(
+            final V value,
+            final int weight,
+            final AtomicLong totalWeight) {
+      if (!isRemoved) {
+        this.weight = weight;
+        totalWeight.addAndGet(weight);
+      }
+      future.complete(value);
+    }
+
+    /** Marks this entry removed, uncounting its weight.
+     *
+     * @param totalWeight the cache's total weight
+     */
+    synchronized void markRemoved(final AtomicLong totalWeight) {
+      if (!isRemoved) {
+        isRemoved = true;
+        totalWeight.addAndGet(-weight);
+        weight = 0;
+      }
+    }
+
+    /** Gets the value, waiting for it to be loaded.
+     *
+     * @return the value
+     */
+    V getValue() {
+      try {
+        return future.join();
+      } catch (final CompletionException ex) {
+        if (ex.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) ex.getCause();
+        } else {
+          throw new TexaiException(ex.getCause());
+        }
+      }
+    }
+  }
+
+  /** Provides a cache entry considered for eviction, with its access clock value as of the start of the eviction.
+   *
+   * @param <K> the key type
+   * @param <V> the value type
+   */
+  private static final class EvictionCandidate<K, V> {
+
+    /** the key */
+    private final K key;
+    /** the cache entry */
+    private final CacheEntry<V> cacheEntry;
+    /** the access clock value of the most recent access, which does not change while the candidates are sorted */
+    private final long lastAccess;
+
+    /** Constructs a new EvictionCandidate instance.
+     *
+     * @param key the key
+     * @param cacheEntry the cache entry
+     * @param lastAccess the access clock value of the most recent access
+     */
+    EvictionCandidate(
+            final K key,
+            final CacheEntry<V> cacheEntry,
+            final long lastAccess) {
+      this.key = key;
+      this.cacheEntry = cacheEntry;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+  /** Provides the statistics of a cache. */
+  @Immutable
+  public static final class Statistics {
+
+    /** the cache name */
+    private final String name;
+    /** the number of entries */
+    private final int size;
+    /** the total weight of the entries */
+    private final long weight;
+    /** the number of requests that found their entry */
+    private final long hitCount;
+    /** the number of requests that did not find their entry */
+    private final long missCount;
+    /** the number of loaded entries */
+    private final long loadCount;
+    /** the total time spent loading entries, in nanoseconds */
+    private final long totalLoadNanos;
+    /** the number of evicted entries */
+    private final long evictionCount;
+
+    /** Constructs a new Statistics instance.
+     *
+     * @param name the cache name
+     * @param size the number of entries
+     * @param weight the total weight of the entries
+     * @param hitCount the number of requests that found their entry
+     * @param missCount the number of requests that did not find their entry
+     * @param loadCount the number of loaded entries
+     * @param totalLoadNanos the total time spent loading entries, in nanoseconds
+     * @param evictionCount the number of evicted entries
+     */
+    Statistics(
+            final String name,
+            final int size,
+            final long weight,
+            final long hitCount,
+            final long missCount,
+            final long loadCount,
+            final long totalLoadNanos,
+            final long evictionCount) {
+      this.name = name;
+      this.size = size;
+      this.weight = weight;
+      this.hitCount = hitCount;
+      this.missCount = missCount;
+      this.loadCount = loadCount;
+      this.totalLoadNanos = totalLoadNanos;
+      this.evictionCount = evictionCount;
+    }
+
+    /** Gets the cache name.
+     *
+     * @return the cache name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /** Gets the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int getSize() {
+      return size;
+    }
+
+    /** Gets the total weight of the entries.
+     *
+     * @return the total weight of the entries
+     */
+    public long getWeight() {
+      return weight;
+    }
+
+    /** Gets the number of requests that found their entry.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+      return hitCount;
+    }
+
+    /** Gets the number of requests that did not find their entry.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+      return missCount;
+    }
+
+    /** Gets the number of loaded entries.
+     *
+     * @return the number of loads
+     */
+    public long getLoadCount() {
+      return loadCount;
+    }
+
+    /** Gets the total time spent loading entries.
+     *
+     * @return the total load time in nanoseconds
+     */
+    public long getTotalLoadNanos() {
+      return totalLoadNanos;
+    }
+
+    /** Gets the number of evicted entries.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+      return evictionCount;
+    }
+
+    /** Gets the fraction of requests that found their entry.
+     *
+     * @return the hit ratio, or zero if there were no requests
+     */
+    public double getHitRatio() {
+      final long requestCount = hitCount + missCount;
+      return requestCount == 0 ? 0.0d : (double) hitCount / requestCount;
+    }
+
+    /** Returns a string representation of this object.
+     *
+     * @return a string representation of this object
+     */
+    @Override
+    public String toString() {
+      final long averageLoadMicros = loadCount == 0 ? 0 : totalLoadNanos / loadCount / 1000;
+      return "[" + name + " size: " + size
+              + ", weight: " + weight
+              + ", hits: " + hitCount
+              + ", misses: " + missCount
+              + ", loads: " + loadCount
+              + ", average load: " + averageLoadMicros + " microseconds"
+              + ", evictions: " + evictionCount + "]";
+    }
+  }
+}
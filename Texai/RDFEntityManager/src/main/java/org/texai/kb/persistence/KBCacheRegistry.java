@@ -0,0 +1,97 @@
+/*
+ * KBCacheRegistry.java
+ *
+ * Created on Oct 19, 2026, 7:31:12 PM
+ *
+ * Description: Provides a registry of the named knowledge base caches, through which their statistics are obtained and they are reset.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import net.jcip.annotations.ThreadSafe;
+
+/** Provides a registry of the named knowledge base caches, through which their statistics are obtained and they are reset. The
+ * CacheInitializer resets the registered caches along with the ehcache caches.
+ *
+ * @author reed
+ */
+@ThreadSafe
+public final class KBCacheRegistry {
+
+  /** the cache dictionary, cache name --> cache */
+  private static final ConcurrentSkipListMap<String, KBCache<?, ?>> CACHE_DICTIONARY = new ConcurrentSkipListMap<>();
+
+  /** Prevents the instantiation of this utility class. */
+  private KBCacheRegistry() {
+  }
+
+  /** Registers the given cache, replacing any cache having the same name.
+   *
+   * @param <K> the key type
+   * @param <V> the value type
+   * @param kbCache the given cache
+   * @return the given cache
+   */
+  public static <K, V> KBCache<K, V> register(final KBCache<K, V> kbCache) {
+    //Preconditions
+    assert kbCache != null : "kbCache must not be null";
+
+    CACHE_DICTIONARY.put(kbCache.getName(), kbCache);
+    return kbCache;
+  }
+
+  /** Gets the named cache.
+   *
+   * @param name the cache name
+   * @return the named cache, or null if none is registered
+   */
+  public static KBCache<?, ?> getCache(final String name) {
+    //Preconditions
+    assert name != null : "name must not be null";
+
+    return CACHE_DICTIONARY.get(name);
+  }
+
+  /** Gets the statistics of the registered caches, ordered by cache name.
+   *
+   * @return the statistics of the registered caches
+   */
+  public static List<KBCache.Statistics> getStatistics() {
+    final List<KBCache.Statistics> statisticsList = new ArrayList<>(CACHE_DICTIONARY.size());
+    for (final KBCache<?, ?> kbCache : CACHE_DICTIONARY.values()) {
+      statisticsList.add(kbCache.getStatistics());
+    }
+    return Collections.unmodifiableList(statisticsList);
+  }
+
+  /** Empties the named cache and clears its statistics.
+   *
+   * @param name the cache name
+   * @return whether the named cache is registered
+   */
+  public static boolean reset(final String name) {
+    //Preconditions
+    assert name != null : "name must not be null";
+
+    final KBCache<?, ?> kbCache = CACHE_DICTIONARY.get(name);
+    if (kbCache == null) {
+      return false;
+    }
+    kbCache.clear();
+    kbCache.clearStatistics();
+    return true;
+  }
+
+  /** Empties the registered caches and clears their statistics. */
+  public static void resetAll() {
+    for (final KBCache<?, ?> kbCache : CACHE_DICTIONARY.values()) {
+      kbCache.clear();
+      kbCache.clearStatistics();
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * PreparedQueryCache.java
+ *
+ * Created on Oct 19, 2026, 1:12:48 PM
+ *
+ * Description: Provides a thread-safe cache of parsed tuple queries, keyed by query language and query text.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.persistence;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.openrdf.query.MalformedQueryException;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.TupleQuery;
+import org.openrdf.query.parser.ParsedTupleQuery;
+import org.openrdf.query.parser.QueryParserUtil;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.sail.SailRepositoryConnection;
+import org.openrdf.repository.sail.SailTupleQuery;
+
+/** Provides a thread-safe cache of parsed tuple queries, keyed by query language and query text. The loader, persister and
+ * subsumption reasoners evaluate the same few constant query strings very many times, and preparing a tuple query from its text
+ * parses it again each time.
+ *
+ * A parsed query holds no connection state and its tuple expression is cloned by the native and memory stores before
+ * optimization, so one parsed query is shared by every connection and thread. Each call returns a new tuple query over the
+ * cached parsed query, having its own empty bindings, so that a query obtained from the cache can be evaluated while another
+ * one for the same text still has an open result. Connections to a remote repository are not backed by a sail, and their
+ * queries are prepared in the usual way.
+ *
+ * @author Stephen L. Reed
+ */
+@ThreadSafe
+public final class PreparedQueryCache {
+
+  /** the logger */
+  private static final Logger LOGGER = Logger.getLogger(PreparedQueryCache.class);
+  /** the maximum number of cached parsed queries, which bounds the cache should a caller build query text dynamically */
+  private static final int MAX_CACHE_SIZE = 1000;
+  /** the parsed tuple query dictionary, query key --> parsed tuple query */
+  private static final ConcurrentHashMap<QueryKey, ParsedTupleQuery> PARSED_TUPLE_QUERY_DICTIONARY = new ConcurrentHashMap<>();
+  /** the number of queries obtained from the cache */
+  private static final AtomicLong HIT_COUNT = new AtomicLong(0);
+  /** the number of queries that were parsed */
+  private static final AtomicLong MISS_COUNT = new AtomicLong(0);
+
+  /** Prevents the instantiation of this utility class. */
+  private PreparedQueryCache() {
+  }
+
+  /** Prepares a tuple query for evaluation on the given repository connection, parsing the query text only the first time that
+   * it is prepared.
+   *
+   * @param repositoryConnection the repository connection
+   * @param queryLanguage the query language
+   * @param queryString the query text
+   * @return a tuple query having no bindings
+   * @throws RepositoryException when a repository error occurs
+   * @throws MalformedQueryException when the query text cannot be parsed
+   */
+  public static TupleQuery prepareTupleQuery(
+          final RepositoryConnection repositoryConnection,
+          final QueryLanguage queryLanguage,
+          final String queryString) throws RepositoryException, MalformedQueryException {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+    assert queryLanguage != null : "queryLanguage must not be null";
+    assert queryString != null : "queryString must not be null";
+
+    if (!(repositoryConnection instanceof SailRepositoryConnection)) {
+      MISS_COUNT.incrementAndGet();
+      return repositoryConnection.prepareTupleQuery(queryLanguage, queryString);
+    }
+    final QueryKey queryKey = new QueryKey(queryLanguage, queryString);
+    ParsedTupleQuery parsedTupleQuery = PARSED_TUPLE_QUERY_DICTIONARY.get(queryKey);
+    if (parsedTupleQuery == null) {
+      MISS_COUNT.incrementAndGet();
+      parsedTupleQuery = QueryParserUtil.parseTupleQuery(queryLanguage, queryString, null);
+      if (PARSED_TUPLE_QUERY_DICTIONARY.size() < MAX_CACHE_SIZE) {
+        PARSED_TUPLE_QUERY_DICTIONARY.putIfAbsent(queryKey, parsedTupleQuery);
+      } else {
+        LOGGER.warn("prepared query cache is full, not caching: " + queryString);
+      }
+    } else {
+      HIT_COUNT.incrementAndGet();
+    }
+    return new CachedSailTupleQuery(parsedTupleQuery, (SailRepositoryConnection) repositoryConnection);
+  }
+
+  /** Gets the number of queries obtained from the cache.
+   *
+   * @return the number of queries obtained from the cache
+   */
+  public static long getHitCount() {
+    return HIT_COUNT.get();
+  }
+
+  /** Gets the number of queries that were parsed.
+   *
+   * @return the number of queries that were parsed
+   */
+  public static long getMissCount() {
+    return MISS_COUNT.get();
+  }
+
+  /** Gets the fraction of prepared queries that were obtained from the cache.
+   *
+   * @return the cache hit rate, or zero if no queries have been prepared
+   */
+  public static double getHitRate() {
+    final long hitCount = HIT_COUNT.get();
+    final long totalCount = hitCount + MISS_COUNT.get();
+    return totalCount == 0 ? 0.0d : (double) hitCount / (double) totalCount;
+  }
+
+  /** Gets the number of cached parsed queries.
+   *
+   * @return the number of cached parsed queries
+   */
+  public static int size() {
+    return PARSED_TUPLE_QUERY_DICTIONARY.size();
+  }
+
+  /** Clears the cache and its statistics. */
+  public static void clear() {
+    PARSED_TUPLE_QUERY_DICTIONARY.clear();
+    HIT_COUNT.set(0);
+    MISS_COUNT.set(0);
+  }
+
+  /** Returns a brief string representation of the cache statistics.
+   *
+   * @return a brief string representation of the cache statistics
+   */
+  public static String toStatisticsString() {
+    return "[prepared query cache, size: " + size() + ", hits: " + HIT_COUNT.get() + ", misses: " + MISS_COUNT.get() + "]";
+  }
+
+  /** Provides a sail tuple query over a cached parsed tuple query. */
+  private static final class CachedSailTupleQuery extends SailTupleQuery {
+
+    /** Constructs a new CachedSailTupleQuery instance.
+     *
+     * @param parsedTupleQuery the cached parsed tuple query
+     * @param sailRepositoryConnection the sail repository connection
+     */
+    CachedSailTupleQuery(
+            final ParsedTupleQuery parsedTupleQuery,
+            final SailRepositoryConnection sailRepositoryConnection) {
+      super(parsedTupleQuery, sailRepositoryConnection);
+    }
+  }
+
+  /** Provides a query key consisting of the query language and the query text. */
+  @Immutable
+  private static final class QueryKey {
+
+    /** the query language */
+    private final QueryLanguage queryLanguage;
+    /** the query text */
+    private final String queryString;
+
+    /** Constructs a new QueryKey instance.
+     *
+     * @param queryLanguage the query language
+     * @param queryString the query text
+     */
+    QueryKey(final QueryLanguage queryLanguage, final String queryString) {
+      this.queryLanguage = queryLanguage;
+      this.queryString = queryString;
+    }
+
+    /** Returns whether some other object equals this one.
+     *
+     * @param obj the other object
+     * @return whether some other object equals this one
+     */
+    @Override
+    public boolean equals(final Object obj) {
+      if (obj instanceof QueryKey) {
+        final QueryKey that = (QueryKey) obj;
+        return queryString.equals(that.queryString) && queryLanguage.equals(that.queryLanguage);
+      } else {
+        return false;
+      }
+    }
+
+    /** Returns a hash code for this object.
+     *
+     * @return a hash code for this object
+     */
+    @Override
+    public int hashCode() {
+      return queryString.hashCode() * 31 + queryLanguage.hashCode();
+    }
+  }
+}
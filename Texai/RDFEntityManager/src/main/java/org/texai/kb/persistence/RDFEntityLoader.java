@@ -17,6 +17,7 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -331,6 +332,7 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
       throw new TexaiException(ex.getMessage()
               + "\npredicateValuesDictionary: " + predicateValuesDictionary, ex);
     }
+    RDFEntitySnapshots.takeField(rdfEntity, field);
     return value;
   }
 
@@ -398,7 +400,8 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
       try {
         if (overrideContextURI == null || overrideContextURI.equals(getContextURI())) {
           // query the type statement
-          final TupleQuery subjectsOfTypeTupleQuery = repositoryConnection.prepareTupleQuery(
+          final TupleQuery subjectsOfTypeTupleQuery = PreparedQueryCache.prepareTupleQuery(
+                  repositoryConnection,
                   QueryLanguage.SERQL,
                   "SELECT s FROM {s} rdf:type {o}");
           subjectsOfTypeTupleQuery.setBinding("o", getClassURI());
@@ -409,7 +412,8 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
           tupleQueryResult.close();
         } else {
           // query the overrideContext statement
-          final TupleQuery subjectsOfTypeTupleQuery = repositoryConnection.prepareTupleQuery(
+          final TupleQuery subjectsOfTypeTupleQuery = PreparedQueryCache.prepareTupleQuery(
+                  repositoryConnection,
                   QueryLanguage.SERQL,
                   "SELECT s FROM {s} p {o}");
           subjectsOfTypeTupleQuery.setBinding("p", URI_OVERRIDE_CONTEXT);
@@ -576,7 +580,8 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
     final String rdfEntityClassName = rdfEntityClass.getName();
     final List<URI> instanceURIs = new ArrayList<>();
     try {
-      final TupleQuery subjectsTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery subjectsTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               "SELECT s, c FROM CONTEXT c {s} p {o}");
       subjectsTupleQuery.setBinding("p", predicate);
@@ -672,6 +677,8 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
     assert repositoryConnection != null : "repositoryConnection must not be null";
     assert getInstanceURI() != null : "instanceURI must not be null";
 
+    // the single value fields that have no stored value, and which keep their initial values
+    final List<Field> unstoredFields = new ArrayList<>();
     for (final Field field : getFieldAnnotationDictionary().keySet()) {
       final Annotation annotation = getFieldAnnotationDictionary().get(field);
       if (isDebugEnabled) {
@@ -687,11 +694,13 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
           final Class<?> fieldType = field.getType();
           final RDFProperty rdfProperty = (RDFProperty) annotation;
           if (rdfProperty.fetch().equals(FetchType.EAGER)) {
-            loadField(
+            if (loadField(
                     repositoryConnection,
                     field,
                     rdfProperty,
-                    predicateValuesDictionary);
+                    predicateValuesDictionary) == null) {
+              unstoredFields.add(field);
+            }
           } else {
             // default behavior is lazy loading
             if (Set.class.isAssignableFrom(fieldType)) {
@@ -739,17 +748,28 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
                       predicateValuesDictionary);
             } else {
               // otherwise load the value now
-              loadField(
+              if (loadField(
                       repositoryConnection,
                       field,
                       rdfProperty,
-                      predicateValuesDictionary);
+                      predicateValuesDictionary) == null) {
+                unstoredFields.add(field);
+              }
             }
 
           }
         }
       }
     }
+    // record the loaded state, so that persisting the entity writes only the fields that change
+    RDFEntitySnapshots.take(
+            getRDFEntity(),
+            getRDFPropertyFields(),
+            repositoryConnection.getRepository().getDataDir().getName(),
+            getEffectiveContextURI(),
+            getInstanceURI(),
+            unstoredFields,
+            null); // repositoryConnection
   }
 
   /** Sets the field to a dynamically created proxy, using cglib that will lazily load the RDF entity field.  If the URI value
@@ -782,7 +802,8 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
     if (rdfProperty.inverse()) {
       try {
         rdfValues = new ArrayList<>();
-        final TupleQuery subjectsTupleQuery = repositoryConnection.prepareTupleQuery(
+        final TupleQuery subjectsTupleQuery = PreparedQueryCache.prepareTupleQuery(
+                repositoryConnection,
                 QueryLanguage.SERQL,
                 "SELECT s, c FROM CONTEXT c {s} p {o}");
         subjectsTupleQuery.setBinding("p", predicate);
@@ -853,7 +874,8 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
 
     final Map<URI, List<Value>> tempPredicateValuesDictionary = new HashMap<>();
     try {
-      final TupleQuery predicatesAndObjectsTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery predicatesAndObjectsTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               "SELECT p, o FROM {s} p {o}");
       predicatesAndObjectsTupleQuery.setBinding("s", getInstanceURI());
@@ -932,12 +954,12 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
               repositoryConnection);
 
     } else if (fieldType.equals(List.class)) {
-      // load a List field
-      final List<Object> list = new ArrayList<>();
-      for (final Object value : values) {
-        list.add(value);
+      // load a List field, which tracks its changes so that the persister can edit the persisted RDF list in place
+      if (values instanceof DirtyTrackingList<?>) {
+        loadedValue = values;
+      } else {
+        loadedValue = new DirtyTrackingList<>(values, Collections.<BNode>emptyList());
       }
-      loadedValue = list;
       setFieldValue(field, loadedValue, fieldType, repositoryConnection);
 
     } else if (fieldType.equals(Map.class)) {
@@ -1050,13 +1072,20 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
       }
 
       // if the field is a List or an array then the value is the blank node that heads the actual value list
+      List<BNode> rdfListNodes = null;
       if (List.class.isAssignableFrom(fieldType) || fieldType.isArray()) {
         assert rdfValues.size() == 1 : "only one blank node must be present " + rdfValues
                 + " in " + repositoryConnection.getRepository().getDataDir();
         assert rdfValues.get(
                 0) instanceof BNode : "RDF value must be a blank node " + rdfValues.get(0);
         final BNode rdfListHead = (BNode) rdfValues.get(0);
-        rdfValues = getRDFListValues(repositoryConnection, rdfListHead);
+        if (rdfProperty.indexedList()) {
+          rdfValues = getIndexedRDFListValues(repositoryConnection, rdfListHead);
+          rdfListNodes = Collections.singletonList(rdfListHead);
+        } else {
+          rdfListNodes = new ArrayList<>();
+          rdfValues = getRDFListValues(repositoryConnection, rdfListHead, rdfListNodes);
+        }
 
       } else if (Map.class.isAssignableFrom(fieldType)) {
         // if the field is a Map then the RDF values are the blank nodes that each relates a map entry key and map entry value
@@ -1075,6 +1104,9 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
                   field.getType()));
         }
       }
+      if (rdfListNodes != null && fieldType.equals(List.class)) {
+        values = new DirtyTrackingList<>(values, rdfListNodes);
+      }
     }
     if (isBooleanField) {
       if (isDebugEnabled) {
@@ -1274,7 +1306,8 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
     List<Value> rdfValues = new ArrayList<>();
     if (isInverseProperty) {
       try {
-        final TupleQuery subjectsTupleQuery = repositoryConnection.prepareTupleQuery(
+        final TupleQuery subjectsTupleQuery = PreparedQueryCache.prepareTupleQuery(
+                repositoryConnection,
                 QueryLanguage.SERQL,
                 "SELECT s, c FROM CONTEXT c {s} p {o}");
         subjectsTupleQuery.setBinding("p", predicate);
@@ -1296,7 +1329,8 @@ public final class RDFEntityLoader extends AbstractRDFEntityAccessor {   // NOPM
 
     } else {
       try {
-        final TupleQuery objectsTupleQuery = repositoryConnection.prepareTupleQuery(
+        final TupleQuery objectsTupleQuery = PreparedQueryCache.prepareTupleQuery(
+                repositoryConnection,
                 QueryLanguage.SERQL,
                 "SELECT o, c FROM CONTEXT c {s} p {o}");
         objectsTupleQuery.setBinding("s", getInstanceURI());
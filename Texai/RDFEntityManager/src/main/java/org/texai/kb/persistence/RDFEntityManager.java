@@ -16,6 +16,7 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -46,6 +47,8 @@ import org.texai.util.TexaiException;
 /** This class provides a facade for public methods in RDFEntityLoader, RDFEntityPersister, RDFEntityRemover, RDFUtility
  * and it provides a facade for commonly used methods (e.g. transactions) in the Sesame RepositoryConnection.
  *
+ * An instance is used by one thread at a time. Threads that share instances borrow them from an RDFEntityManagerPool.
+ *
  * @author reed
  */
 @NotThreadSafe
@@ -96,7 +99,7 @@ public final class RDFEntityManager {
           if (!repositoryConnection.isAutoCommit()) {
             LOGGER.info("commiting any pending transaction for " + repositoryConnection
                     + " to " + repositoryConnection.getRepository().getDataDir().getName());
-            repositoryConnection.commit();
+            commit(repositoryConnection);
           }
           repositoryConnection.close();
         }
@@ -115,6 +118,29 @@ public final class RDFEntityManager {
     return isClosed;
   }
 
+  /** Returns whether this RDF entity manager can be reused by another operation, i.e. it is not closed and its repository connections
+   * are open and have no pending transaction.
+   *
+   * @return whether this RDF entity manager can be reused
+   */
+  @SuppressWarnings("deprecation")
+  boolean isReusable() {
+    if (isClosed) {
+      return false;
+    }
+    try {
+      for (final RepositoryConnection repositoryConnection : repositoryConnectionDictionary.values()) {
+        if (!repositoryConnection.isOpen() || !repositoryConnection.isAutoCommit()) {
+          return false;
+        }
+      }
+    } catch (final RepositoryException ex) {
+      LOGGER.warn("cannot determine the state of a repository connection: " + ex.getMessage());
+      return false;
+    }
+    return true;
+  }
+
   /** Get the singleton distributed repository manager.
    *
    * @return the singleton distributed repository manager
@@ -1297,15 +1323,76 @@ public final class RDFEntityManager {
     }
   }
 
-  /** Rolls back all updates that have been performed as part of this connection so far.
+  /** Removes the given statements from the repository in one batch, journaling them together.
    *
    * @param repositoryConnection the repository connection
+   * @param statements the given statements, each of which is removed from its own context
    */
-  protected void rollback(final RepositoryConnection repositoryConnection) {
+  protected void removeStatements(
+          final RepositoryConnection repositoryConnection,
+          final Collection<Statement> statements) {
     //Preconditions
     assert repositoryConnection != null : "repositoryConnection must not be null";
+    assert statements != null : "statements must not be null";
 
+    if (statements.isEmpty()) {
+      return;
+    }
+    final String repositoryName = repositoryConnection.getRepository().getDataDir().getName();
+    final List<JournalRequest> journalRequests = new ArrayList<>(statements.size());
+    for (final Statement statement : statements) {
+      journalRequests.add(new JournalRequest(
+              repositoryName,
+              Constants.REMOVE_OPERATION,
+              statement));
+    }
     try {
+      repositoryConnection.remove(statements);
+    } catch (final RepositoryException ex) {
+      throw new TexaiException(ex);
+    }
+    journalWriter.write(journalRequests);
+    if (isAutoCommit) {
+      journalWriter.commit();
+    }
+  }
+
+  /** Commits all updates that have been performed as part of this connection so far, together with their journal entries, and keeps the
+   * snapshots of the entities that were persisted by them. A transaction that persists RDF entities should be committed by this method
+   * rather than directly on the repository connection.
+   *
+   * @param repositoryConnection the repository connection
+   */
+  public void commit(final RepositoryConnection repositoryConnection) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+
+    try {
+      repositoryConnection.commit();
+    } catch (final RepositoryException ex) {
+      throw new TexaiException(ex);
+    }
+    journalWriter.commit();
+    RDFEntitySnapshots.commitTransaction(repositoryConnection);
+  }
+
+  /** Rolls back all updates that have been performed as part of this connection so far, and discards the snapshots of the entities that
+   * were persisted by them. Snapshots enlisted by a transaction that was already committed directly on the repository connection are
+   * kept when no transaction is active.
+   *
+   * @param repositoryConnection the repository connection
+   */
+  @SuppressWarnings("deprecation")
+  public void rollback(final RepositoryConnection repositoryConnection) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+
+    try {
+      if (repositoryConnection.isAutoCommit()) {
+        RDFEntitySnapshots.commitTransaction(repositoryConnection);
+      } else {
+        RDFEntitySnapshots.discardTransaction(repositoryConnection);
+      }
       repositoryConnection.rollback();
       journalWriter.rollback();
     } catch (final RepositoryException ex) {
@@ -11,40 +11,374 @@
 package org.texai.kb.persistence;
 
 
-import net.jcip.annotations.NotThreadSafe;
-import org.apache.commons.pool.PoolableObjectFactory;
-import org.apache.commons.pool.impl.StackObjectPool;
-
-/** Given a PoolableObjectFactory, this class will maintain a simple pool of RDF entity manager instances. A finite number of "sleeping"
- * or idle instances is enforced, but when the pool is empty, new instances are created to support the new load.
- * Hence this class places no limit on the number of "active" instances created by the pool, but is quite useful
- * for re-using Objects without introducing artificial limits.
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.texai.util.TexaiException;
+
+/** Provides a bounded, thread-safe pool of RDF entity manager instances. An RDF entity manager is not thread-safe, having a stateful
+ * loader, persister and remover and a cache of repository connections, so each thread borrows one for the duration of an operation and
+ * returns it, keeping its repository connections open for the next borrower.
+ *
+ * At most maxTotal instances are borrowed at once. A thread that finds none available waits up to maxWaitMillis, in first come first
+ * served order so that request threads are not starved by threads that borrow repeatedly, and then fails with a TexaiException. At most
+ * maxIdle returned instances are kept, the others are closed. A thread that borrows again before returning its instance, for example
+ * from a nested operation, is given the same instance, and the instance is returned to the pool by the outermost return, which must be
+ * made on the borrowing thread.
+ *
+ * <pre>
+ * final URI id = rdfEntityManagerPool.execute((final RDFEntityManager rdfEntityManager) -> rdfEntityManager.persist(rdfEntity));
+ * </pre>
  *
  * @author Stephen L. Reed
  */
-@NotThreadSafe
-public final class RDFEntityManagerPool extends StackObjectPool {
+@ThreadSafe
+public final class RDFEntityManagerPool {
 
+  /** the log4j logger */
+  private static final Logger LOGGER = Logger.getLogger(RDFEntityManagerPool.class);
   /** the RDF entity manager factory */
-  private final PoolableObjectFactory rdfEntityManagerFactory;
+  private final RDFEntityManagerFactory rdfEntityManagerFactory;
+  /** the maximum number of borrowed instances */
+  private final int maxTotal;
+  /** the maximum number of idle instances */
+  private final int maxIdle;
+  /** the maximum time that a borrower waits for an instance, in milliseconds */
+  private final long maxWaitMillis;
+  /** the borrowing permits, which are granted in first come first served order */
+  private final Semaphore permits;
+  /** the idle instances, the most recently returned first so that it is reused while its connections are warm */
+  private final LinkedBlockingDeque<RDFEntityManager> idleRDFEntityManagers = new LinkedBlockingDeque<>();
+  /** the instance borrowed by the current thread */
+  private final ThreadLocal<Lease> currentLease = new ThreadLocal<>();
+  /** the number of borrows, excluding nested ones */
+  private final AtomicLong borrowCount = new AtomicLong(0);
+  /** the number of borrows that waited for an instance */
+  private final AtomicLong waitCount = new AtomicLong(0);
+  /** the total time that borrowers waited for an instance, in nanoseconds */
+  private final AtomicLong totalWaitNanos = new AtomicLong(0);
+  /** the longest time that a borrower waited for an instance, in nanoseconds */
+  private final AtomicLong maxWaitNanos = new AtomicLong(0);
+  /** the number of borrows that timed out */
+  private final AtomicLong timeoutCount = new AtomicLong(0);
+  /** the number of created instances */
+  private final AtomicLong createdCount = new AtomicLong(0);
+  /** the number of closed instances */
+  private final AtomicLong destroyedCount = new AtomicLong(0);
+  /** the indicator whether this pool is closed */
+  private volatile boolean isClosed = false;
 
   /**
    * Creates a new instance of RDFEntityManagerPool.
    *
-   * @param rdfEntityManagerFactory the PoolableObjectFactory to use to create, validate and destroy objects
+   * @param rdfEntityManagerFactory the factory that creates and destroys RDF entity manager instances
+   * @param maxTotal the maximum number of borrowed instances
    * @param maxIdle cap on the number of "sleeping" instances in the pool
+   * @param maxWaitMillis the maximum time that a borrower waits for an instance, in milliseconds
    */
-  public RDFEntityManagerPool(final PoolableObjectFactory rdfEntityManagerFactory, final int maxIdle) {
-    super(rdfEntityManagerFactory, maxIdle);
+  public RDFEntityManagerPool(
+          final RDFEntityManagerFactory rdfEntityManagerFactory,
+          final int maxTotal,
+          final int maxIdle,
+          final long maxWaitMillis) {
+    //Preconditions
+    assert rdfEntityManagerFactory != null : "rdfEntityManagerFactory must not be null";
+    assert maxTotal > 0 : "maxTotal must be positive";
+    assert maxIdle >= 0 : "maxIdle must not be negative";
+    assert maxIdle <= maxTotal : "maxIdle must not exceed maxTotal";
+    assert maxWaitMillis >= 0 : "maxWaitMillis must not be negative";
 
     this.rdfEntityManagerFactory = rdfEntityManagerFactory;
+    this.maxTotal = maxTotal;
+    this.maxIdle = maxIdle;
+    this.maxWaitMillis = maxWaitMillis;
+    permits = new Semaphore(maxTotal, true); // fair
   }
 
   /** Gets the RDF entity manager factory.
    *
    * @return the RDF entity manager factory
    */
-  public PoolableObjectFactory getRDFEntityLoaderFactory() {
+  public RDFEntityManagerFactory getRDFEntityLoaderFactory() {
     return rdfEntityManagerFactory;
   }
+
+  /** Borrows an RDF entity manager instance, waiting up to maxWaitMillis for one to become available. The instance must be returned
+   * on this thread by calling returnRDFEntityManager.
+   *
+   * @return an RDF entity manager instance
+   */
+  public RDFEntityManager borrowRDFEntityManager() {
+    final Lease lease = currentLease.get();
+    if (lease != null) {
+      // a nested borrow by the thread that holds the instance
+      lease.borrowDepth++;
+      return lease.rdfEntityManager;
+    }
+    if (isClosed) {
+      throw new TexaiException("the RDF entity manager pool is closed");
+    }
+    acquirePermit();
+    RDFEntityManager rdfEntityManager = idleRDFEntityManagers.pollFirst();
+    if (rdfEntityManager == null) {
+      try {
+        rdfEntityManager = (RDFEntityManager) rdfEntityManagerFactory.makeObject();
+      } catch (final RuntimeException ex) {
+        permits.release();
+        throw ex;
+      }
+      createdCount.incrementAndGet();
+    }
+    borrowCount.incrementAndGet();
+    currentLease.set(new Lease(rdfEntityManager));
+    return rdfEntityManager;
+  }
+
+  /** Returns the given RDF entity manager instance, which was borrowed on this thread. An instance that has a pending transaction or
+   * a closed repository connection is closed rather than kept.
+   *
+   * @param rdfEntityManager the given RDF entity manager instance
+   */
+  public void returnRDFEntityManager(final RDFEntityManager rdfEntityManager) {
+    //Preconditions
+    assert rdfEntityManager != null : "rdfEntityManager must not be null";
+
+    final Lease lease = currentLease.get();
+    if (lease == null || lease.rdfEntityManager != rdfEntityManager) {
+      throw new TexaiException("the RDF entity manager was not borrowed from this pool by the current thread");
+    }
+    if (--lease.borrowDepth > 0) {
+      return;
+    }
+    currentLease.remove();
+    try {
+      if (!rdfEntityManager.isReusable() || !offerIdle(rdfEntityManager)) {
+        destroy(rdfEntityManager);
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  /** Performs the given operation with a borrowed RDF entity manager instance, which is returned when the operation completes.
+   *
+   * @param <T> the operation result type
+   * @param operation the given operation
+   * @return the operation result
+   */
+  public <T> T execute(final Function<RDFEntityManager, T> operation) {
+    //Preconditions
+    assert operation != null : "operation must not be null";
+
+    final RDFEntityManager rdfEntityManager = borrowRDFEntityManager();
+    try {
+      return operation.apply(rdfEntityManager);
+    } finally {
+      returnRDFEntityManager(rdfEntityManager);
+    }
+  }
+
+  /** Closes this pool and its idle instances. Borrowed instances are closed when they are returned. */
+  public synchronized void close() {
+    isClosed = true;
+    RDFEntityManager rdfEntityManager = idleRDFEntityManagers.pollFirst();
+    while (rdfEntityManager != null) {
+      destroy(rdfEntityManager);
+      rdfEntityManager = idleRDFEntityManagers.pollFirst();
+    }
+  }
+
+  /** Gets the maximum number of borrowed instances.
+   *
+   * @return the maximum number of borrowed instances
+   */
+  public int getMaxTotal() {
+    return maxTotal;
+  }
+
+  /** Gets the maximum number of idle instances.
+   *
+   * @return the maximum number of idle instances
+   */
+  public int getMaxIdle() {
+    return maxIdle;
+  }
+
+  /** Gets the maximum time that a borrower waits for an instance.
+   *
+   * @return the maximum wait in milliseconds
+   */
+  public long getMaxWaitMillis() {
+    return maxWaitMillis;
+  }
+
+  /** Gets the number of borrowed instances.
+   *
+   * @return the number of borrowed instances
+   */
+  public int getNumActive() {
+    return maxTotal - permits.availablePermits();
+  }
+
+  /** Gets the number of idle instances.
+   *
+   * @return the number of idle instances
+   */
+  public int getNumIdle() {
+    return idleRDFEntityManagers.size();
+  }
+
+  /** Gets the number of threads that are waiting to borrow an instance.
+   *
+   * @return the number of waiting threads
+   */
+  public int getNumWaiters() {
+    return permits.getQueueLength();
+  }
+
+  /** Gets the number of borrows, excluding nested ones.
+   *
+   * @return the number of borrows
+   */
+  public long getBorrowCount() {
+    return borrowCount.get();
+  }
+
+  /** Gets the number of borrows that waited for an instance.
+   *
+   * @return the number of borrows that waited
+   */
+  public long getWaitCount() {
+    return waitCount.get();
+  }
+
+  /** Gets the average time that borrows waited for an instance, over the borrows that waited.
+   *
+   * @return the average wait in milliseconds
+   */
+  public double getAverageWaitMillis() {
+    final long waitCount1 = waitCount.get();
+    return waitCount1 == 0 ? 0.0d : totalWaitNanos.get() / 1000000.0d / waitCount1;
+  }
+
+  /** Gets the longest time that a borrow waited for an instance.
+   *
+   * @return the longest wait in milliseconds
+   */
+  public double getMaxWaitedMillis() {
+    return maxWaitNanos.get() / 1000000.0d;
+  }
+
+  /** Gets the number of borrows that timed out.
+   *
+   * @return the number of borrows that timed out
+   */
+  public long getTimeoutCount() {
+    return timeoutCount.get();
+  }
+
+  /** Gets the number of created instances.
+   *
+   * @return the number of created instances
+   */
+  public long getCreatedCount() {
+    return createdCount.get();
+  }
+
+  /** Gets the number of closed instances.
+   *
+   * @return the number of closed instances
+   */
+  public long getDestroyedCount() {
+    return destroyedCount.get();
+  }
+
+  /** Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[RDFEntityManagerPool active: " + getNumActive() + "/" + maxTotal
+            + ", idle: " + getNumIdle()
+            + ", waiters: " + getNumWaiters()
+            + ", borrows: " + borrowCount.get()
+            + ", waits: " + waitCount.get()
+            + ", timeouts: " + timeoutCount.get()
+            + ", created: " + createdCount.get()
+            + ", destroyed: " + destroyedCount.get() + "]";
+  }
+
+  /** Acquires a borrowing permit, waiting up to maxWaitMillis for one, and records the wait. */
+  private void acquirePermit() {
+    try {
+      // a zero timeout, unlike the untimed tryAcquire, does not barge ahead of waiting threads
+      if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+        return;
+      }
+      waitCount.incrementAndGet();
+      final long startNanos = System.nanoTime();
+      final boolean isAcquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+      final long waitNanos = System.nanoTime() - startNanos;
+      totalWaitNanos.addAndGet(waitNanos);
+      long maxWaitNanos1 = maxWaitNanos.get();
+      while (waitNanos > maxWaitNanos1 && !maxWaitNanos.compareAndSet(maxWaitNanos1, waitNanos)) {
+        maxWaitNanos1 = maxWaitNanos.get();
+      }
+      if (!isAcquired) {
+        timeoutCount.incrementAndGet();
+        throw new TexaiException("timed out after " + maxWaitMillis + " milliseconds waiting for an RDF entity manager " + this);
+      }
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TexaiException(ex);
+    }
+  }
+
+  /** Adds the given instance to the idle instances unless there are already maxIdle of them, or this pool is closed.
+   *
+   * @param rdfEntityManager the given instance
+   * @return whether the instance was added
+   */
+  private synchronized boolean offerIdle(final RDFEntityManager rdfEntityManager) {
+    if (isClosed || idleRDFEntityManagers.size() >= maxIdle) {
+      return false;
+    }
+    idleRDFEntityManagers.offerFirst(rdfEntityManager);
+    return true;
+  }
+
+  /** Closes the given instance.
+   *
+   * @param rdfEntityManager the given instance
+   */
+  private void destroy(final RDFEntityManager rdfEntityManager) {
+    try {
+      rdfEntityManagerFactory.destroyObject(rdfEntityManager);
+    } catch (final RuntimeException ex) {
+      LOGGER.warn("cannot close an RDF entity manager: " + ex.getMessage());
+    }
+    destroyedCount.incrementAndGet();
+  }
+
+  /** Contains an instance borrowed by a thread. */
+  private static final class Lease {
+
+    /** the borrowed instance */
+    private final RDFEntityManager rdfEntityManager;
+    /** the number of borrows that are not yet returned */
+    private int borrowDepth = 1;
+
+    /** Creates a new instance of Lease.
+     *
+     * @param rdfEntityManager the borrowed instance
+     */
+    Lease(final RDFEntityManager rdfEntityManager) {
+      this.rdfEntityManager = rdfEntityManager;
+    }
+  }
 }
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
@@ -201,6 +202,8 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
     try {
       isAutoCommit = repositoryConnection.isAutoCommit();
       if (isAutoCommit) {
+        // no transaction is active, so the snapshots enlisted with the connection belong to a transaction that was committed directly
+        RDFEntitySnapshots.commitTransaction(repositoryConnection);
         // perform persistence operations within a transaction to avoid the otherwise unsatisfactory performance resulting from auto-commiting each
         // operation
         repositoryConnection.setAutoCommit(false);
@@ -229,20 +232,51 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
       definedClassAndPredicateURIs.add(getClassURI());
     }
     final boolean isExport = writer != null;
-    findOrCreateDomainInstanceURI(
-            repositoryConnection,
-            writer);
-    persistFields(
-            repositoryConnection,
-            writer);
+    final String repositoryName = repositoryConnection.getRepository().getDataDir().getName();
+    // the fields that changed since the entity was loaded or last persisted, or null if all fields are to be persisted
+    final Set<Field> dirtyFields;
+    if (isExport) {
+      dirtyFields = null;
+    } else {
+      dirtyFields = RDFEntitySnapshots.getDirtyFields(rdfEntity, repositoryName, getEffectiveContextURI());
+    }
+    if (dirtyFields != null && dirtyFields.isEmpty()) {
+      // the entity is unchanged since it was loaded or last persisted
+      setInstanceURI(rdfEntity.getId());
+      identityCache.put(new Element(System.identityHashCode(rdfEntity), getInstanceURI()));
+      if (isDebugEnabled) {
+        logger.debug(stackLevel() + "  skipping unchanged " + rdfEntity);
+      }
+    } else {
+      findOrCreateDomainInstanceURI(
+              repositoryConnection,
+              writer);
+      persistFields(
+              repositoryConnection,
+              dirtyFields,
+              writer);
+      if (!isExport) {
+        RDFEntitySnapshots.take(
+                rdfEntity,
+                getRDFPropertyFields(),
+                repositoryName,
+                getEffectiveContextURI(),
+                getInstanceURI(),
+                Collections.<Field>emptySet(),
+                repositoryConnection);
+      }
+    }
     if (!isExport) {
       if (isAutoCommit) {
         try {
           repositoryConnection.commit();
           repositoryConnection.setAutoCommit(true);
         } catch (final RepositoryException ex) {
+          // the snapshots taken in the failed transaction do not describe the persisted state
+          RDFEntitySnapshots.discardTransaction(repositoryConnection);
           throw new TexaiException(ex);
         }
+        RDFEntitySnapshots.commitTransaction(repositoryConnection);
       }
     }
 
@@ -378,7 +412,8 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
 
     final Set<URI> existingTypeURIs = new HashSet<>();
     try {
-      final TupleQuery existingTypesTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery existingTypesTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               "SELECT typeTerm FROM {s} rdf:type {typeTerm}");
       existingTypesTupleQuery.setBinding("s", getClassURI());
@@ -405,7 +440,8 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
 
     final Set<URI> existingSubClassOfURIs = new HashSet<>();
     try {
-      final TupleQuery existingSubClassOfsTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery existingSubClassOfsTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               "SELECT superClassTerm FROM {classTerm} rdfs:subClassOf {superClassTerm}");
       existingSubClassOfsTupleQuery.setBinding("classTerm", getClassURI());
@@ -671,10 +707,12 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
    * to the RDF store as propositions.
    *
    * @param repositoryConnection the repository connection
+   * @param dirtyFields the fields that changed since the entity was loaded or last persisted, or null if all fields are to be persisted
    * @param writer the export output writer, or null when objects are ordinarily persisted to the given RDF quad store
    */
   private void persistFields(
           final RepositoryConnection repositoryConnection,
+          final Set<Field> dirtyFields,
           final BufferedWriter writer) {
     //Preconditions
     assert repositoryConnection != null : "repositoryConnection must not be null";                                // NOPMD
@@ -688,6 +726,10 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
         if (isDebugEnabled) {
           logger.debug(stackLevel() + "  skipping Id field");
         }
+      } else if (dirtyFields != null && !dirtyFields.contains(field)) {
+        if (isDebugEnabled) {
+          logger.debug(stackLevel() + "  skipping unchanged field");
+        }
       } else {
         if (annotation instanceof RDFProperty) {
           persistField(
@@ -762,7 +804,8 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
       existingRDFValues = new ArraySet<>();
     } else if (rdfProperty.inverse()) {
       try {
-        final TupleQuery subjectsTupleQuery = repositoryConnection.prepareTupleQuery(
+        final TupleQuery subjectsTupleQuery = PreparedQueryCache.prepareTupleQuery(
+                repositoryConnection,
                 QueryLanguage.SERQL,
                 "SELECT s, c FROM CONTEXT c {s} p {o}");
         subjectsTupleQuery.setBinding("p", predicateURI);
@@ -779,7 +822,8 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
       }
     } else {
       try {
-        final TupleQuery objectsTupleQuery = repositoryConnection.prepareTupleQuery(
+        final TupleQuery objectsTupleQuery = PreparedQueryCache.prepareTupleQuery(
+                repositoryConnection,
                 QueryLanguage.SERQL,
                 "SELECT o, c FROM CONTEXT c {s} p {o}");
         objectsTupleQuery.setBinding("s", getInstanceURI());
@@ -929,30 +973,28 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
     assert existingRDFValues != null : "existingRDFValues must not be null";
     assert predicate != null : "predicate must not be null";
 
-    // delete previous associations if no longer applicable
+    if (existingRDFValues.isEmpty()) {
+      return;
+    }
+    // delete previous associations if no longer applicable, comparing canonical keys to determine equal RDF literals
+    final Set<String> newRDFValueKeys = new HashSet<>(newRDFValues.size() * 2);
+    for (final Value newRDFValue : newRDFValues) {
+      newRDFValueKeys.add(RDFUtility.canonicalValueKey(newRDFValue));
+    }
+    final List<Statement> obsoleteStatements = new ArrayList<>();
     for (final Value existingRDFValue : existingRDFValues) {
-      // weaker form of the membership test to determine equal RDF literals
-      boolean isObsoleteValue = true;
-      final String existingRDFValueString = existingRDFValue.toString();
-      for (final Value newRDFValue : newRDFValues) {
-        if (newRDFValue.toString().equals(existingRDFValueString)) {
-          isObsoleteValue = false;
-          break;
-        }
-      }
-      if (isObsoleteValue) {
-        if (isDebugEnabled) {
-          logger.debug(stackLevel() + "deleting obsolete value: " + existingRDFValue + " for predicate: " + predicate);
-        }
-        final Statement statement = getValueFactory().createStatement(
+      if (!newRDFValueKeys.contains(RDFUtility.canonicalValueKey(existingRDFValue))) {
+        obsoleteStatements.add(getValueFactory().createStatement(
                 getInstanceURI(),
                 predicate,
                 existingRDFValue,
-                getEffectiveContextURI());
-        rdfEntityManager.removeStatement(repositoryConnection, statement);
-        if (logger.isInfoEnabled()) {
-          logger.info("removed: " + RDFUtility.formatStatement(statement));
-        }
+                getEffectiveContextURI()));
+      }
+    }
+    if (!obsoleteStatements.isEmpty()) {
+      rdfEntityManager.removeStatements(repositoryConnection, obsoleteStatements);
+      if (isDebugEnabled) {
+        logger.debug(stackLevel() + "removed " + obsoleteStatements.size() + " obsolete values for predicate: " + predicate);
       }
     }
   }
@@ -989,7 +1031,8 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
       if (writer == null) {
         // not exporting
         try {
-          final TupleQuery existingTypesTupleQuery = repositoryConnection.prepareTupleQuery(
+          final TupleQuery existingTypesTupleQuery = PreparedQueryCache.prepareTupleQuery(
+                  repositoryConnection,
                   QueryLanguage.SERQL,
                   "SELECT typeTerm FROM {s} rdf:type {typeTerm}");
           existingTypesTupleQuery.setBinding("s", predicate);
@@ -1060,7 +1103,8 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
         final Set<URI> existingTypes = new HashSet<>();
         TupleQuery existingTypesTupleQuery;
         TupleQueryResult tupleQueryResult;
-        existingTypesTupleQuery = repositoryConnection.prepareTupleQuery(
+        existingTypesTupleQuery = PreparedQueryCache.prepareTupleQuery(
+                repositoryConnection,
                 QueryLanguage.SERQL,
                 "SELECT typeTerm FROM {s} rdf:type {typeTerm}");
         existingTypesTupleQuery.setBinding("s", trueClass);
@@ -1371,19 +1415,15 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
 
     final Set<Value> assertedRDFValues = new HashSet<>();
     final List<Value> rdfValues = createRDFValueTerms(repositoryConnection, valueList, rdfProperty);
+    // weaker form of the membership test to determine equal RDF literals
+    final Set<String> existingRDFValueKeys = new HashSet<>(existingRDFValues.size() * 2);
+    for (final Value existingRDFValue : existingRDFValues) {
+      existingRDFValueKeys.add(RDFUtility.canonicalValueKey(existingRDFValue));
+    }
     final Iterator<Value> rdfValues_iter = rdfValues.iterator();
     while (rdfValues_iter.hasNext()) {
       final Value rdfValue = rdfValues_iter.next();
-      // weaker form of the membership test to determine equal RDF literals
-      final String rdfValueString = rdfValue.toString();
-      boolean isNewValue = true;
-      for (final Value existingRDFValue : existingRDFValues) {
-        if (existingRDFValue.toString().equals(rdfValueString)) {
-          isNewValue = false;
-          break;
-        }
-      }
-      if (isNewValue) {
+      if (!existingRDFValueKeys.contains(RDFUtility.canonicalValueKey(rdfValue))) {
         Statement statement;
         if (rdfProperty.inverse()) {
           if (!(rdfValue instanceof URI)) {
@@ -1426,7 +1466,10 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
     return assertedRDFValues;
   }
 
-  /** Persists the field values as an RDF collection.
+  /** Persists the field values as an RDF collection. An existing RDF collection is edited in place: the elements that are unchanged at
+   * its start and at its end are kept, elements whose value changed in between are rewritten, and only the elements that were inserted or
+   * removed are linked into or out of the chain of blank nodes. When the field value is a list that tracks its changes since it was loaded,
+   * the unchanged elements are known without reading the existing RDF collection.
    *
    * @param repositoryConnection the repository connection
    * @param valueList the list of java values
@@ -1453,46 +1496,349 @@ public final class RDFEntityPersister extends AbstractRDFEntityAccessor {  // NO
       // no new values to persist and no existing values to remove
       return;
     }
-    final List<Value> rdfValues = createRDFValueTerms(repositoryConnection, valueList, rdfProperty);
-    if (existingRDFListHead != null) {
-      final List<Value> existingRDFValues = getRDFListValues(repositoryConnection, existingRDFListHead);
-      if (existingRDFValues.equals(rdfValues)) {
-        // no change in the list
+    DirtyTrackingList<?> dirtyTrackingList = null;
+    if (writer == null && valueList instanceof DirtyTrackingList<?>) {
+      dirtyTrackingList = (DirtyTrackingList<?>) valueList;
+      if (existingRDFListHead != null && dirtyTrackingList.isPersistedAt(existingRDFListHead) && !dirtyTrackingList.isDirty()) {
+        // no change in the list since it was loaded or last persisted
         return;
       }
     }
-    // add new list
-    final BNode newListRDFHead = addRDFList(
-            repositoryConnection,
-            rdfEntityManager,
-            rdfValues,
-            writer);
-    Statement statement = getValueFactory().createStatement(
-            getInstanceURI(),
-            predicateURI,
-            newListRDFHead,
-            getEffectiveContextURI());
-    if (writer == null) {
-      rdfEntityManager.addStatement(repositoryConnection, statement);
-    } else {
-      try {
-        writer.write(RDFUtility.formatStatementAsTurtle(statement));
-        writer.newLine();
-      } catch (IOException ex) {
-        throw new TexaiException(ex);
+    if (rdfProperty.indexedList()) {
+      persistFieldValueListAsIndexedList(
+              repositoryConnection,
+              valueList,
+              existingRDFListHead,
+              rdfProperty,
+              predicateURI,
+              writer,
+              dirtyTrackingList);
+      return;
+    }
+    final List<Value> rdfValues = createRDFValueTerms(repositoryConnection, valueList, rdfProperty);
+    if (existingRDFListHead == null) {
+      // add new list
+      final List<BNode> rdfListNodes = new ArrayList<>(rdfValues.size());
+      final BNode newListRDFHead = addRDFList(
+              repositoryConnection,
+              rdfEntityManager,
+              rdfValues,
+              RDF.NIL,
+              writer,
+              rdfListNodes);
+      final Statement statement = getValueFactory().createStatement(
+              getInstanceURI(),
+              predicateURI,
+              newListRDFHead,
+              getEffectiveContextURI());
+      if (writer == null) {
+        rdfEntityManager.addStatement(repositoryConnection, statement);
+      } else {
+        try {
+          writer.write(RDFUtility.formatStatementAsTurtle(statement));
+          writer.newLine();
+        } catch (IOException ex) {
+          throw new TexaiException(ex);
+        }
       }
+      if (dirtyTrackingList != null) {
+        dirtyTrackingList.markPersisted(rdfListNodes);
+      }
+      return;
     }
-    if (existingRDFListHead != null) {
+    assert writer == null;
+    if (rdfValues.isEmpty()) {
       // remove existing RDF list
       removeRDFList(repositoryConnection, rdfEntityManager, existingRDFListHead);
-      statement = getValueFactory().createStatement(
+      final Statement statement = getValueFactory().createStatement(
               getInstanceURI(),
               predicateURI,
               existingRDFListHead,
               getEffectiveContextURI());
-      assert writer == null;
       rdfEntityManager.removeStatement(repositoryConnection, statement);
       getLogger().info("removed: " + RDFUtility.formatStatement(statement));
+      if (dirtyTrackingList != null) {
+        dirtyTrackingList.markPersisted(new ArrayList<BNode>(0));
+      }
+      return;
+    }
+    List<BNode> rdfListNodes = null;
+    if (dirtyTrackingList != null && dirtyTrackingList.isPersistedAt(existingRDFListHead)) {
+      rdfListNodes = spliceRDFList(
+              repositoryConnection,
+              dirtyTrackingList.getRDFListNodes(),
+              null,
+              rdfValues,
+              dirtyTrackingList.getCleanPrefixLength(),
+              dirtyTrackingList.getCleanSuffixLength(),
+              predicateURI);
+      if (rdfListNodes == null) {
+        getLogger().warn("the persisted RDF list changed since it was loaded, predicate: " + predicateURI + ", instance: " + getInstanceURI());
+      }
+    }
+    if (rdfListNodes == null) {
+      // compare the existing RDF list with the new values to find the unchanged elements at its start and at its end
+      final List<BNode> existingRDFListNodes = new ArrayList<>();
+      final List<Value> existingRDFValues = getRDFListValues(repositoryConnection, existingRDFListHead, existingRDFListNodes);
+      final int minSize = Math.min(existingRDFValues.size(), rdfValues.size());
+      int prefixLength = 0;
+      while (prefixLength < minSize
+              && RDFUtility.canonicalValueKey(existingRDFValues.get(prefixLength)).equals(RDFUtility.canonicalValueKey(rdfValues.get(prefixLength)))) {
+        prefixLength++;
+      }
+      int suffixLength = 0;
+      while (suffixLength < minSize - prefixLength
+              && RDFUtility.canonicalValueKey(existingRDFValues.get(existingRDFValues.size() - 1 - suffixLength)).equals(
+                      RDFUtility.canonicalValueKey(rdfValues.get(rdfValues.size() - 1 - suffixLength)))) {
+        suffixLength++;
+      }
+      rdfListNodes = spliceRDFList(
+              repositoryConnection,
+              existingRDFListNodes,
+              existingRDFValues,
+              rdfValues,
+              prefixLength,
+              suffixLength,
+              predicateURI);
+      assert rdfListNodes != null;
+    }
+    if (dirtyTrackingList != null) {
+      dirtyTrackingList.markPersisted(rdfListNodes);
+    }
+  }
+
+  /** Edits the existing RDF collection so that it holds the given RDF values, given the number of elements that are unchanged at its start
+   * and at its end. Between those, as many existing elements as possible are kept and have their values rewritten, and the remaining
+   * existing elements are unlinked, or the remaining new values are linked in, at a single point in the chain of blank nodes.
+   *
+   * @param repositoryConnection the repository connection
+   * @param existingRDFListNodes the blank nodes of the existing RDF collection
+   * @param existingRDFValues the values of the existing RDF collection, or null if they are to be read as required
+   * @param rdfValues the given RDF values
+   * @param prefixLength the number of unchanged elements at the start
+   * @param suffixLength the number of unchanged elements at the end
+   * @param predicateURI the predicate that relates the instance to the head of the RDF collection
+   * @return the blank nodes of the edited RDF collection, or null if the existing RDF collection is not as expected, in which case
+   * it is not edited
+   */
+  private List<BNode> spliceRDFList(
+          final RepositoryConnection repositoryConnection,
+          final List<BNode> existingRDFListNodes,
+          final List<Value> existingRDFValues,
+          final List<Value> rdfValues,
+          final int prefixLength,
+          final int suffixLength,
+          final URI predicateURI) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+    assert existingRDFListNodes != null : "existingRDFListNodes must not be null";
+    assert !existingRDFListNodes.isEmpty() : "existingRDFListNodes must not be empty";
+    assert rdfValues != null : "rdfValues must not be null";
+    assert !rdfValues.isEmpty() : "rdfValues must not be empty";
+    assert prefixLength + suffixLength <= Math.min(existingRDFListNodes.size(), rdfValues.size()) : "invalid unchanged element counts";
+
+    final int existingSize = existingRDFListNodes.size();
+    final int newSize = rdfValues.size();
+    // the index, in both the existing and the new list, at which elements are unlinked or linked in
+    final int spliceIndex = prefixLength + Math.min(existingSize - prefixLength - suffixLength, newSize - prefixLength - suffixLength);
+    final List<Statement> removedStatements = new ArrayList<>();
+    final List<Statement> addedStatements = new ArrayList<>();
+    // rewrite the values of the kept elements that changed
+    for (int index = prefixLength; index < spliceIndex; index++) {
+      final BNode rdfListNode = existingRDFListNodes.get(index);
+      final Value existingRDFValue = getExistingRDFListValue(repositoryConnection, rdfListNode, existingRDFValues, index);
+      if (existingRDFValue == null) {
+        return null;
+      }
+      final Value rdfValue = rdfValues.get(index);
+      if (!RDFUtility.canonicalValueKey(existingRDFValue).equals(RDFUtility.canonicalValueKey(rdfValue))) {
+        removedStatements.add(getValueFactory().createStatement(rdfListNode, RDF.FIRST, existingRDFValue, getEffectiveContextURI()));
+        addedStatements.add(getValueFactory().createStatement(rdfListNode, RDF.FIRST, rdfValue, getEffectiveContextURI()));
+      }
+    }
+    final int removedEndIndex = existingSize - suffixLength;
+    final int addedEndIndex = newSize - suffixLength;
+    final List<BNode> addedRDFListNodes = new ArrayList<>(addedEndIndex - spliceIndex);
+    if (spliceIndex < removedEndIndex || spliceIndex < addedEndIndex) {
+      final Value oldNext = spliceIndex < existingSize ? existingRDFListNodes.get(spliceIndex) : RDF.NIL;
+      final Value tail = removedEndIndex < existingSize ? existingRDFListNodes.get(removedEndIndex) : RDF.NIL;
+      // verify the link that is replaced
+      if (spliceIndex > 0) {
+        final Value rest = RDFUtility.getObjectGivenSubjectAndPredicate(
+                existingRDFListNodes.get(spliceIndex - 1), RDF.REST, getEffectiveContextURI(), repositoryConnection);
+        if (!oldNext.equals(rest)) {
+          return null;
+        }
+      }
+      // unlink the removed elements
+      for (int index = spliceIndex; index < removedEndIndex; index++) {
+        final BNode rdfListNode = existingRDFListNodes.get(index);
+        final Value existingRDFValue = getExistingRDFListValue(repositoryConnection, rdfListNode, existingRDFValues, index);
+        if (existingRDFValue == null) {
+          return null;
+        }
+        removedStatements.add(getValueFactory().createStatement(rdfListNode, RDF.FIRST, existingRDFValue, getEffectiveContextURI()));
+        removedStatements.add(getValueFactory().createStatement(
+                rdfListNode,
+                RDF.REST,
+                index + 1 < existingSize ? existingRDFListNodes.get(index + 1) : RDF.NIL,
+                getEffectiveContextURI()));
+      }
+      // link in the added elements
+      Value newNext = tail;
+      if (spliceIndex < addedEndIndex) {
+        newNext = addRDFList(
+                repositoryConnection,
+                rdfEntityManager,
+                rdfValues.subList(spliceIndex, addedEndIndex),
+                tail,
+                null,
+                addedRDFListNodes);
+      }
+      final Statement previousLinkStatement;
+      final Statement linkStatement;
+      if (spliceIndex > 0) {
+        final BNode previousRDFListNode = existingRDFListNodes.get(spliceIndex - 1);
+        previousLinkStatement = getValueFactory().createStatement(previousRDFListNode, RDF.REST, oldNext, getEffectiveContextURI());
+        linkStatement = getValueFactory().createStatement(previousRDFListNode, RDF.REST, newNext, getEffectiveContextURI());
+      } else {
+        // the list has a new head
+        previousLinkStatement = getValueFactory().createStatement(getInstanceURI(), predicateURI, oldNext, getEffectiveContextURI());
+        linkStatement = getValueFactory().createStatement(getInstanceURI(), predicateURI, newNext, getEffectiveContextURI());
+      }
+      removedStatements.add(previousLinkStatement);
+      addedStatements.add(linkStatement);
+    }
+    rdfEntityManager.removeStatements(repositoryConnection, removedStatements);
+    for (final Statement statement : addedStatements) {
+      rdfEntityManager.addStatement(repositoryConnection, statement);
+    }
+    if (isDebugEnabled) {
+      logger.debug(stackLevel() + "edited the RDF list for predicate " + predicateURI + ", kept " + prefixLength + " + " + suffixLength
+              + " of " + existingSize + " elements, rewrote " + addedStatements.size() + " statements, unlinked "
+              + (removedEndIndex - spliceIndex) + " and linked in " + addedRDFListNodes.size() + " elements");
+    }
+
+    final List<BNode> rdfListNodes = new ArrayList<>(newSize);
+    rdfListNodes.addAll(existingRDFListNodes.subList(0, spliceIndex));
+    rdfListNodes.addAll(addedRDFListNodes);
+    rdfListNodes.addAll(existingRDFListNodes.subList(removedEndIndex, existingSize));
+
+    //Postconditions
+    assert rdfListNodes.size() == newSize : "rdfListNodes must have one node per value";
+
+    return rdfListNodes;
+  }
+
+  /** Gets the value of the given existing RDF collection element.
+   *
+   * @param repositoryConnection the repository connection
+   * @param rdfListNode the blank node of the given element
+   * @param existingRDFValues the values of the existing RDF collection, or null if they are to be read
+   * @param index the index of the given element
+   * @return the value, or null if the element has none
+   */
+  private Value getExistingRDFListValue(
+          final RepositoryConnection repositoryConnection,
+          final BNode rdfListNode,
+          final List<Value> existingRDFValues,
+          final int index) {
+    if (existingRDFValues == null) {
+      return RDFUtility.getObjectGivenSubjectAndPredicate(rdfListNode, RDF.FIRST, getEffectiveContextURI(), repositoryConnection);
+    } else {
+      return existingRDFValues.get(index);
+    }
+  }
+
+  /** Persists the field values as an indexed list, a blank node that relates each value by the container membership property for its
+   * index. Only the indices whose value changed are rewritten.
+   *
+   * @param repositoryConnection the repository connection
+   * @param valueList the list of java values
+   * @param existingIndexedListNode the existing RDF value which if present is the blank node of the indexed list
+   * @param rdfProperty the RDF property annotation
+   * @param predicateURI the predicate that represents the association
+   * @param writer the export output writer, or null when objects are ordinarily persisted to the given RDF quad store
+   * @param dirtyTrackingList the field value when it is a list that tracks its changes, otherwise null
+   */
+  private void persistFieldValueListAsIndexedList(
+          final RepositoryConnection repositoryConnection,
+          final List<?> valueList,
+          final BNode existingIndexedListNode,
+          final RDFProperty rdfProperty,
+          final URI predicateURI,
+          final BufferedWriter writer,
+          final DirtyTrackingList<?> dirtyTrackingList) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+    assert valueList != null : "valueList must not be null";
+    assert rdfProperty != null : "rdfProperty must not be null";
+    assert predicateURI != null : "predicateURI must not be null";
+
+    final List<Value> rdfValues = createRDFValueTerms(repositoryConnection, valueList, rdfProperty);
+    final List<Value> existingRDFValues;
+    final BNode indexedListNode;
+    final List<Statement> removedStatements = new ArrayList<>();
+    final List<Statement> addedStatements = new ArrayList<>();
+    if (existingIndexedListNode == null) {
+      existingRDFValues = new ArrayList<>(0);
+      indexedListNode = getValueFactory().createBNode();
+      addedStatements.add(getValueFactory().createStatement(getInstanceURI(), predicateURI, indexedListNode, getEffectiveContextURI()));
+    } else {
+      existingRDFValues = getIndexedRDFListValues(repositoryConnection, existingIndexedListNode);
+      indexedListNode = existingIndexedListNode;
+      if (rdfValues.isEmpty()) {
+        removedStatements.add(getValueFactory().createStatement(getInstanceURI(), predicateURI, indexedListNode, getEffectiveContextURI()));
+      }
+    }
+    final int maxSize = Math.max(existingRDFValues.size(), rdfValues.size());
+    for (int index = 0; index < maxSize; index++) {
+      final Value existingRDFValue = index < existingRDFValues.size() ? existingRDFValues.get(index) : null;
+      final Value rdfValue = index < rdfValues.size() ? rdfValues.get(index) : null;
+      if (existingRDFValue != null && rdfValue != null
+              && RDFUtility.canonicalValueKey(existingRDFValue).equals(RDFUtility.canonicalValueKey(rdfValue))) {
+        continue;
+      }
+      if (existingRDFValue != null) {
+        removedStatements.add(getValueFactory().createStatement(
+                indexedListNode,
+                getMembershipPropertyURI(index),
+                existingRDFValue,
+                getEffectiveContextURI()));
+      }
+      if (rdfValue != null) {
+        addedStatements.add(getValueFactory().createStatement(
+                indexedListNode,
+                getMembershipPropertyURI(index),
+                rdfValue,
+                getEffectiveContextURI()));
+      }
+    }
+    if (writer == null) {
+      rdfEntityManager.removeStatements(repositoryConnection, removedStatements);
+      for (final Statement statement : addedStatements) {
+        rdfEntityManager.addStatement(repositoryConnection, statement);
+      }
+    } else {
+      try {
+        for (final Statement statement : addedStatements) {
+          writer.write(RDFUtility.formatStatementAsTurtle(statement));
+          writer.newLine();
+        }
+      } catch (IOException ex) {
+        throw new TexaiException(ex);
+      }
+    }
+    if (isDebugEnabled) {
+      logger.debug(stackLevel() + "edited the indexed list for predicate " + predicateURI + ", removed " + removedStatements.size()
+              + " and added " + addedStatements.size() + " statements");
+    }
+    if (dirtyTrackingList != null) {
+      if (rdfValues.isEmpty()) {
+        dirtyTrackingList.markPersisted(new ArrayList<BNode>(0));
+      } else {
+        dirtyTrackingList.markPersisted(Collections.singletonList(indexedListNode));
+      }
     }
   }
 
@@ -98,10 +98,17 @@ public final class RDFEntityRemover extends AbstractRDFEntityAccessor {
                       repositoryConnection);
               if (listNode != null) {
                 logger.info("removing statements in the RDF list for field " + field);
-                removeRDFList(
-                        repositoryConnection,
-                        rdfEntityManager,
-                        listNode);
+                if (((RDFProperty) annotation).indexedList()) {
+                  removeIndexedRDFList(
+                          repositoryConnection,
+                          rdfEntityManager,
+                          listNode);
+                } else {
+                  removeRDFList(
+                          repositoryConnection,
+                          rdfEntityManager,
+                          listNode);
+                }
               }
             } else if (Map.class.isAssignableFrom(fieldType)) {
               // the field is a Map whose entry values are persisted as blank nodes,
@@ -137,12 +144,14 @@ public final class RDFEntityRemover extends AbstractRDFEntityAccessor {
         rdfEntityManager.removeStatement(repositoryConnection, repositoryResult.next());
       }
       if (isAutoCommit) {
-        repositoryConnection.commit();
+        rdfEntityManager.commit(repositoryConnection);
         repositoryConnection.setAutoCommit(true);
       }
     } catch (final RepositoryException ex) {
       throw new TexaiException(ex);
     }
+    // persisting the entity again writes all of its fields
+    RDFEntitySnapshots.discard(rdfEntity);
   }
 
   /** Finds the domain instance URI. */
@@ -0,0 +1,517 @@
+/*
+ * RDFEntitySnapshots.java
+ *
+ * Created on Oct 19, 2026, 6:10:41 PM
+ *
+ * Description: Records the persisted state of loaded and persisted RDF entities, so that the persister can determine which of their
+ * fields changed.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.persistence;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import net.jcip.annotations.ThreadSafe;
+import net.sf.cglib.proxy.Factory;
+import org.joda.time.DateTime;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.repository.RepositoryConnection;
+import org.texai.kb.persistence.lazy.LazyList;
+import org.texai.kb.persistence.lazy.LazyMap;
+import org.texai.kb.persistence.lazy.LazySet;
+import org.texai.util.TexaiException;
+
+/** Records the persisted state of loaded and persisted RDF entities, so that the persister can determine which of their fields changed.
+ * A snapshot is taken when the loader loads an entity and when the persister persists one. It holds a fingerprint of each RDF property
+ * field value, together with the repository, context and instance URI to which it applies.
+ *
+ * A fingerprint is the value itself for immutable values, the id of an RDF entity, a copy of a date or calendar, and a collection of
+ * element fingerprints for arrays, collections and maps. Lists that track their own changes, and lazily loaded fields that are not yet
+ * loaded, are fingerprinted by identity. A value of any other type is assumed to be mutable, and its field is always persisted.
+ *
+ * Snapshots are held weakly, by entity identity, so that they do not keep their entities from being collected. The snapshots that the
+ * persister takes within a transaction are enlisted with its repository connection, and are discarded when the RDF entity manager rolls
+ * the transaction back or when the persister fails to commit it. The enlistment ends when the RDF entity manager commits the
+ * transaction, and, for a transaction committed directly on the repository connection, when the persister next begins a transaction of
+ * its own or when a rollback finds no transaction active. An application that changes the persisted propositions of an entity by other
+ * means, or that rolls back a transaction directly on the repository connection, should discard the entity's snapshot, so that its next
+ * persist writes all fields.
+ *
+ * @author reed
+ */
+@ThreadSafe
+public final class RDFEntitySnapshots {
+
+  /** the snapshot dictionary, entity identity --> snapshot */
+  private static final Map<EntityReference, Snapshot> SNAPSHOT_DICTIONARY = new ConcurrentHashMap<>();
+  /** the queue of references to collected entities */
+  private static final ReferenceQueue<Object> REFERENCE_QUEUE = new ReferenceQueue<>();
+  /** the transaction dictionary, repository connection --> references to the entities whose snapshots were taken in its transaction */
+  private static final Map<RepositoryConnection, List<EntityReference>> TRANSACTION_DICTIONARY = new WeakHashMap<>();
+
+  /** Prevents the instantiation of this utility class. */
+  private RDFEntitySnapshots() {
+  }
+
+  /** Discards the snapshot of the given RDF entity, so that its next persist writes all of its fields.
+   *
+   * @param rdfEntity the given RDF entity
+   */
+  public static void discard(final RDFPersistent rdfEntity) {
+    //Preconditions
+    assert rdfEntity != null : "rdfEntity must not be null";
+
+    expungeCollectedEntities();
+    SNAPSHOT_DICTIONARY.remove(new EntityReference(rdfEntity, null));
+  }
+
+  /** Discards all snapshots. */
+  public static void clear() {
+    SNAPSHOT_DICTIONARY.clear();
+    synchronized (TRANSACTION_DICTIONARY) {
+      TRANSACTION_DICTIONARY.clear();
+    }
+  }
+
+  /** Discards the snapshots that were taken in the transaction of the given repository connection, which is being rolled back.
+   *
+   * @param repositoryConnection the given repository connection
+   */
+  public static void discardTransaction(final RepositoryConnection repositoryConnection) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+
+    final List<EntityReference> entityReferences;
+    synchronized (TRANSACTION_DICTIONARY) {
+      entityReferences = TRANSACTION_DICTIONARY.remove(repositoryConnection);
+    }
+    if (entityReferences != null) {
+      for (final EntityReference entityReference : entityReferences) {
+        SNAPSHOT_DICTIONARY.remove(entityReference);
+      }
+    }
+  }
+
+  /** Keeps the snapshots that were taken in the transaction of the given repository connection, which has been committed, ending their
+   * enlistment.
+   *
+   * @param repositoryConnection the given repository connection
+   */
+  static void commitTransaction(final RepositoryConnection repositoryConnection) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+
+    synchronized (TRANSACTION_DICTIONARY) {
+      TRANSACTION_DICTIONARY.remove(repositoryConnection);
+    }
+  }
+
+  /** Returns whether the given RDF entity has a snapshot.
+   *
+   * @param rdfEntity the given RDF entity
+   * @return whether the given RDF entity has a snapshot
+   */
+  public static boolean hasSnapshot(final RDFPersistent rdfEntity) {
+    //Preconditions
+    assert rdfEntity != null : "rdfEntity must not be null";
+
+    return SNAPSHOT_DICTIONARY.containsKey(new EntityReference(rdfEntity, null));
+  }
+
+  /** Takes a snapshot of the given fields of the given RDF entity.
+   *
+   * @param rdfEntity the given RDF entity
+   * @param fields the given fields
+   * @param repositoryName the name of the repository in which the entity is persisted
+   * @param contextURI the context in which the entity is persisted
+   * @param instanceURI the instance URI of the entity
+   * @param unstoredFields the fields that have no stored value, and whose values are therefore snapshot as null
+   * @param repositoryConnection the repository connection in whose transaction the entity was persisted, or null if the entity was loaded
+   */
+  static void take(
+          final RDFPersistent rdfEntity,
+          final Collection<Field> fields,
+          final String repositoryName,
+          final URI contextURI,
+          final URI instanceURI,
+          final Collection<Field> unstoredFields,
+          final RepositoryConnection repositoryConnection) {
+    //Preconditions
+    assert rdfEntity != null : "rdfEntity must not be null";
+    assert fields != null : "fields must not be null";
+    assert repositoryName != null : "repositoryName must not be null";
+    assert contextURI != null : "contextURI must not be null";
+    assert instanceURI != null : "instanceURI must not be null";
+    assert unstoredFields != null : "unstoredFields must not be null";
+
+    final Snapshot snapshot = new Snapshot(repositoryName, contextURI, instanceURI);
+    for (final Field field : fields) {
+      if (unstoredFields.contains(field)) {
+        // a field that keeps its initial value when nothing is stored for it is persisted if that value is not null
+        snapshot.fingerprintDictionary.put(field, new Fingerprint(null));
+      } else {
+        snapshot.fingerprintDictionary.put(field, new Fingerprint(fingerprint(getFieldValue(rdfEntity, field))));
+      }
+    }
+    expungeCollectedEntities();
+    final EntityReference entityReference = new EntityReference(rdfEntity, REFERENCE_QUEUE);
+    SNAPSHOT_DICTIONARY.put(entityReference, snapshot);
+    if (repositoryConnection != null) {
+      synchronized (TRANSACTION_DICTIONARY) {
+        List<EntityReference> entityReferences = TRANSACTION_DICTIONARY.get(repositoryConnection);
+        if (entityReferences == null) {
+          entityReferences = new ArrayList<>();
+          TRANSACTION_DICTIONARY.put(repositoryConnection, entityReferences);
+        }
+        entityReferences.add(entityReference);
+      }
+    }
+  }
+
+  /** Updates the snapshot of the given RDF entity, if it has one, for the given field whose value has just been loaded.
+   *
+   * @param rdfEntity the given RDF entity
+   * @param field the given field
+   */
+  static void takeField(
+          final RDFPersistent rdfEntity,
+          final Field field) {
+    //Preconditions
+    assert rdfEntity != null : "rdfEntity must not be null";
+    assert field != null : "field must not be null";
+
+    final Snapshot snapshot = SNAPSHOT_DICTIONARY.get(new EntityReference(rdfEntity, null));
+    if (snapshot != null && snapshot.fingerprintDictionary.containsKey(field)) {
+      snapshot.fingerprintDictionary.put(field, new Fingerprint(fingerprint(getFieldValue(rdfEntity, field))));
+    }
+  }
+
+  /** Gets the fields of the given RDF entity that changed since its snapshot was taken.
+   *
+   * @param rdfEntity the given RDF entity
+   * @param repositoryName the name of the repository in which the entity is to be persisted
+   * @param contextURI the context in which the entity is to be persisted
+   * @return the changed fields, or null if the entity has no snapshot that applies to the given repository and context
+   */
+  static Set<Field> getDirtyFields(
+          final RDFPersistent rdfEntity,
+          final String repositoryName,
+          final URI contextURI) {
+    //Preconditions
+    assert rdfEntity != null : "rdfEntity must not be null";
+    assert repositoryName != null : "repositoryName must not be null";
+    assert contextURI != null : "contextURI must not be null";
+
+    final Snapshot snapshot = SNAPSHOT_DICTIONARY.get(new EntityReference(rdfEntity, null));
+    if (snapshot == null
+            || !snapshot.repositoryName.equals(repositoryName)
+            || !snapshot.contextURI.equals(contextURI)
+            || !snapshot.instanceURI.equals(rdfEntity.getId())) {
+      return null;
+    }
+    final Set<Field> dirtyFields = new HashSet<>();
+    for (final Entry<Field, Fingerprint> entry : snapshot.fingerprintDictionary.entrySet()) {
+      final Field field = entry.getKey();
+      if (!Objects.equals(entry.getValue().value, fingerprint(getFieldValue(rdfEntity, field)))) {
+        dirtyFields.add(field);
+      }
+    }
+    return dirtyFields;
+  }
+
+  /** Gets the instance URI recorded in the snapshot of the given RDF entity.
+   *
+   * @param rdfEntity the given RDF entity
+   * @return the instance URI, or null if the entity has no snapshot
+   */
+  static URI getInstanceURI(final RDFPersistent rdfEntity) {
+    //Preconditions
+    assert rdfEntity != null : "rdfEntity must not be null";
+
+    final Snapshot snapshot = SNAPSHOT_DICTIONARY.get(new EntityReference(rdfEntity, null));
+    if (snapshot == null) {
+      return null;
+    } else {
+      return snapshot.instanceURI;
+    }
+  }
+
+  /** Gets the number of snapshots enlisted with the transaction of the given repository connection.
+   *
+   * @param repositoryConnection the given repository connection
+   * @return the number of enlisted snapshots
+   */
+  static int getTransactionSize(final RepositoryConnection repositoryConnection) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+
+    synchronized (TRANSACTION_DICTIONARY) {
+      final List<EntityReference> entityReferences = TRANSACTION_DICTIONARY.get(repositoryConnection);
+      return entityReferences == null ? 0 : entityReferences.size();
+    }
+  }
+
+  /** Gets the number of snapshots.
+   *
+   * @return the number of snapshots
+   */
+  static int size() {
+    expungeCollectedEntities();
+    return SNAPSHOT_DICTIONARY.size();
+  }
+
+  /** Gets the fingerprint of the given field value, which equals the fingerprint of the value as it was persisted if the value has not
+   * changed since.
+   *
+   * @param value the given field value
+   * @return the fingerprint
+   */
+  static Object fingerprint(final Object value) {
+    if (value == null
+            || value instanceof String
+            || value instanceof Boolean
+            || value instanceof Character
+            || value instanceof Byte
+            || value instanceof Short
+            || value instanceof Integer
+            || value instanceof Long
+            || value instanceof Float
+            || value instanceof Double
+            || value instanceof BigInteger
+            || value instanceof BigDecimal
+            || value instanceof UUID
+            || value instanceof DateTime
+            || value instanceof Value
+            || value instanceof java.net.URI
+            || value instanceof Enum<?>) {
+      return value;
+    } else if (value instanceof RDFPersistent && !(value instanceof Factory)) {
+      final URI id = ((RDFPersistent) value).getId();
+      if (id == null) {
+        // a new entity, which is persisted with the field
+        return new Object();
+      } else {
+        return id;
+      }
+    } else if (value instanceof Date) {
+      return ((Date) value).clone();
+    } else if (value instanceof Calendar) {
+      return ((Calendar) value).clone();
+    } else if (value instanceof DirtyTrackingList<?>) {
+      if (((DirtyTrackingList<?>) value).isDirty()) {
+        return new Object();
+      } else {
+        return new IdentityFingerprint(value);
+      }
+    } else if (value instanceof LazyList || value instanceof LazySet || value instanceof LazyMap || value instanceof Factory) {
+      // not yet loaded
+      return new IdentityFingerprint(value);
+    } else if (value.getClass().isArray()) {
+      final int length = Array.getLength(value);
+      final List<Object> fingerprints = new ArrayList<>(length);
+      for (int i = 0; i < length; i++) {
+        fingerprints.add(fingerprint(Array.get(value, i)));
+      }
+      return fingerprints;
+    } else if (value instanceof Set<?>) {
+      final Set<Object> fingerprints = new HashSet<>(((Set<?>) value).size() * 2);
+      for (final Object element : (Set<?>) value) {
+        fingerprints.add(fingerprint(element));
+      }
+      return fingerprints;
+    } else if (value instanceof Collection<?>) {
+      final List<Object> fingerprints = new ArrayList<>(((Collection<?>) value).size());
+      for (final Object element : (Collection<?>) value) {
+        fingerprints.add(fingerprint(element));
+      }
+      return fingerprints;
+    } else if (value instanceof Map<?, ?>) {
+      final Map<Object, Object> fingerprints = new HashMap<>(((Map<?, ?>) value).size() * 2);
+      for (final Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        fingerprints.put(fingerprint(entry.getKey()), fingerprint(entry.getValue()));
+      }
+      return fingerprints;
+    } else {
+      // a value of another type may be mutated in place, so it is always persisted
+      return new Object();
+    }
+  }
+
+  /** Gets the value of the given field of the given RDF entity.
+   *
+   * @param rdfEntity the given RDF entity
+   * @param field the given field
+   * @return the field value
+   */
+  private static Object getFieldValue(
+          final RDFPersistent rdfEntity,
+          final Field field) {
+    if (!field.isAccessible()) {
+      field.setAccessible(true);
+    }
+    try {
+      return field.get(rdfEntity);
+    } catch (final IllegalArgumentException | IllegalAccessException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /** Removes the snapshots of collected entities. */
+  private static void expungeCollectedEntities() {
+    Reference<?> reference = REFERENCE_QUEUE.poll();
+    while (reference != null) {
+      SNAPSHOT_DICTIONARY.remove((EntityReference) reference);
+      reference = REFERENCE_QUEUE.poll();
+    }
+  }
+
+  /** Provides a snapshot of an RDF entity. */
+  private static final class Snapshot {
+
+    /** the name of the repository in which the entity is persisted */
+    private final String repositoryName;
+    /** the context in which the entity is persisted */
+    private final URI contextURI;
+    /** the instance URI of the entity */
+    private final URI instanceURI;
+    /** the fingerprint dictionary, field --> fingerprint of the persisted value */
+    private final Map<Field, Fingerprint> fingerprintDictionary = new ConcurrentHashMap<>();
+
+    /** Creates a new instance of Snapshot.
+     *
+     * @param repositoryName the name of the repository in which the entity is persisted
+     * @param contextURI the context in which the entity is persisted
+     * @param instanceURI the instance URI of the entity
+     */
+    Snapshot(
+            final String repositoryName,
+            final URI contextURI,
+            final URI instanceURI) {
+      this.repositoryName = repositoryName;
+      this.contextURI = contextURI;
+      this.instanceURI = instanceURI;
+    }
+  }
+
+  /** Provides a holder for a fingerprint, which may be null. */
+  private static final class Fingerprint {
+
+    /** the fingerprint */
+    private final Object value;
+
+    /** Creates a new instance of Fingerprint.
+     *
+     * @param value the fingerprint
+     */
+    Fingerprint(final Object value) {
+      this.value = value;
+    }
+  }
+
+  /** Provides a fingerprint that equals another only if both refer to the same object, which it does not keep from being collected. */
+  private static final class IdentityFingerprint {
+
+    /** the reference to the object */
+    private final WeakReference<Object> reference;
+    /** the identity hash code of the object */
+    private final int hashCode;
+
+    /** Creates a new instance of IdentityFingerprint.
+     *
+     * @param object the object
+     */
+    IdentityFingerprint(final Object object) {
+      reference = new WeakReference<>(object);
+      hashCode = System.identityHashCode(object);
+    }
+
+    /** Returns whether the given object refers to the same object as this one.
+     *
+     * @param obj the given object
+     * @return whether the given object refers to the same object as this one
+     */
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof IdentityFingerprint)) {
+        return false;
+      }
+      final Object object = reference.get();
+      return object != null && object == ((IdentityFingerprint) obj).reference.get();
+    }
+
+    /** Returns a hash code for this object.
+     *
+     * @return a hash code for this object
+     */
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /** Provides a weak reference to an RDF entity that is compared by entity identity. */
+  private static final class EntityReference extends WeakReference<Object> {
+
+    /** the identity hash code of the entity */
+    private final int hashCode;
+
+    /** Creates a new instance of EntityReference.
+     *
+     * @param rdfEntity the RDF entity
+     * @param referenceQueue the queue on which the reference is enqueued when the entity is collected, or null for a lookup key
+     */
+    EntityReference(
+            final Object rdfEntity,
+            final ReferenceQueue<Object> referenceQueue) {
+      super(rdfEntity, referenceQueue);
+      hashCode = System.identityHashCode(rdfEntity);
+    }
+
+    /** Returns whether the given object refers to the same entity as this one, or is this reference.
+     *
+     * @param obj the given object
+     * @return whether the given object refers to the same entity as this one
+     */
+    @Override
+    public boolean equals(final Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (!(obj instanceof EntityReference)) {
+        return false;
+      }
+      final Object rdfEntity = get();
+      return rdfEntity != null && rdfEntity == ((EntityReference) obj).get();
+    }
+
+    /** Returns a hash code for this object.
+     *
+     * @return a hash code for this object
+     */
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
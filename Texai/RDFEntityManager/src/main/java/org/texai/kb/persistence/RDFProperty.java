@@ -100,4 +100,13 @@ public @interface RDFProperty {
    */
   String mapValueType() default "";
 
+  /** (Optional, and applicable only for a List or array association) Defines whether the list is persisted as a blank node that
+   * relates each element by its index, using the container membership properties rdf:_1, rdf:_2 and so forth, rather than as an RDF
+   * collection. An indexed list is read by a single repository access and an appended element is persisted by a single statement, but
+   * the list is not an RDF collection for other RDF consumers, and inserting or removing an element re-indexes the elements after it.
+   *
+   * @return whether the list is persisted as an indexed list
+   */
+  boolean indexedList() default false;
+
 }
@@ -20,6 +20,7 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.TimeZone;
 import javax.xml.bind.DatatypeConverter;
@@ -33,6 +34,7 @@ import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
 import org.openrdf.model.Value;
 import org.openrdf.model.ValueFactory;
+import org.openrdf.model.datatypes.XMLDatatypeUtil;
 import org.openrdf.model.impl.URIImpl;
 import org.openrdf.model.impl.ValueFactoryImpl;
 import org.openrdf.model.vocabulary.XMLSchema;
@@ -514,6 +516,45 @@ public final class RDFUtility {
     return formattedValue;
   }
 
+  /**
+   * Gets the canonical key of the given value, by which RDF values that denote the same thing compare equal. A literal's key has its
+   * label in the canonical lexical form of its built-in datatype, e.g. "01" and "1" as xsd:int, and its language tag in lower case.
+   *
+   * @param value the given value
+   *
+   * @return the canonical value key
+   */
+  public static String canonicalValueKey(final Value value) {
+    //preconditions
+    assert value != null : "value must not be null";
+
+    if (!(value instanceof Literal)) {
+      return value.toString();
+    }
+    final Literal literal = (Literal) value;
+    final URI datatype = literal.getDatatype();
+    String label = literal.getLabel();
+    if (datatype != null && XMLDatatypeUtil.isBuiltInDatatype(datatype)) {
+      try {
+        label = XMLDatatypeUtil.normalize(label, datatype);
+      } catch (IllegalArgumentException ex) {
+        // an invalid lexical form is kept as is
+      }
+    }
+    final StringBuilder stringBuilder = new StringBuilder(label.length() + 48);
+    stringBuilder.append('"');
+    stringBuilder.append(label);
+    stringBuilder.append('"');
+    if (literal.getLanguage() != null) {
+      stringBuilder.append('@');
+      stringBuilder.append(literal.getLanguage().toLowerCase(Locale.ENGLISH));
+    } else if (datatype != null) {
+      stringBuilder.append("^^");
+      stringBuilder.append(datatype.stringValue());
+    }
+    return stringBuilder.toString();
+  }
+
   /**
    * Formats the given URI with common namespaces. See http://www.w3.org/TeamSubmission/turtle/ .
    *
@@ -902,7 +943,8 @@ public final class RDFUtility {
     final Set<Value> values = new HashSet<>();
     try {
       // get the persisted map entry key RDF value
-      final TupleQuery objectsTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery objectsTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               "SELECT o, c FROM CONTEXT c {s} p {o}");
       objectsTupleQuery.setBinding("s", subject);
@@ -943,7 +985,8 @@ public final class RDFUtility {
     final Value value;
     try {
       // get the persisted map entry key RDF value
-      final TupleQuery objectsTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery objectsTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               "SELECT o, c FROM CONTEXT c {s} p {o}");
       objectsTupleQuery.setBinding("s", subject);
@@ -0,0 +1,233 @@
+/*
+ * AbstractLazyField.java
+ *
+ * Created on Oct 19, 2026, 4:12:37 PM
+ *
+ * Description: Provides the loading behavior shared by the lazily loaded RDF entity fields.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.persistence.lazy;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.jcip.annotations.ThreadSafe;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.repository.RepositoryConnection;
+import org.texai.kb.persistence.RDFPersistent;
+import org.texai.kb.persistence.RDFProperty;
+import org.texai.util.StringUtils;
+import org.texai.util.TexaiException;
+
+/** Provides the loading behavior shared by the lazily loaded RDF entity fields. The field value is loaded at most once, within the
+ * current thread's lazy loading session when there is one. The loaded value is published by way of a volatile field, and the load
+ * itself is synchronized. Subclasses obtain the loaded value before synchronizing their delegated methods, so that no lazy field's
+ * monitor is held while the load prefetches sibling lazy fields. A call made by the loading thread while the value is being loaded,
+ * e.g. from the hashCode method of an element under construction, sees no value.
+ *
+ * @param <V> the field value type
+ * @author reed
+ */
+@ThreadSafe
+@edu.umd.cs.findbugs.annotations.SuppressWarnings({"SE_BAD_FIELD", "SE_TRANSIENT_FIELD_NOT_RESTORED"})
+abstract class AbstractLazyField<V> implements Serializable {
+
+  /** the serial version UID */
+  private static final long serialVersionUID = 1L;
+  /** the resolved field dictionary, class name and field name --> field */
+  private static final Map<String, Field> FIELD_DICTIONARY = new ConcurrentHashMap<>();
+  /** the repository name */
+  private final String repositoryName;
+  /** the RDF instance */
+  private final RDFPersistent rdfEntity;
+  /** the RDF instance field, which is resolved again by name after deserialization */
+  private transient Field field;
+  /** the RDF instance field name */
+  private final String fieldName;
+  /** the RDF property */
+  private final RDFProperty rdfProperty;
+  /** the predicate values dictionary, predicate --> RDF values */
+  private final Map<URI, List<Value>> predicateValuesDictionary;
+  /** the loaded value */
+  private volatile V loadedValue;
+  /** the thread that is loading the value, or null when it is not being loaded */
+  private transient volatile Thread loadingThread;
+
+  /** Creates a new instance of AbstractLazyField, and registers it with the current lazy loading session if there is one.
+   *
+   * @param repositoryConnection the repository connection
+   * @param rdfEntity the RDF instance
+   * @param field the RDF instance field
+   * @param rdfProperty the RDF property
+   * @param predicateValuesDictionary the predicate values dictionary, predicate --> RDF values
+   */
+  AbstractLazyField(
+          final RepositoryConnection repositoryConnection,
+          final RDFPersistent rdfEntity,
+          final Field field,
+          final RDFProperty rdfProperty,
+          final Map<URI, List<Value>> predicateValuesDictionary) {
+    super();
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+    assert rdfEntity != null : "rdfEntity must not be null";
+    assert field != null : "field must not be null";
+    assert rdfProperty != null : "rdfProperty must not be null";
+    assert predicateValuesDictionary != null : "predicateValuesDictionary must not be null";
+
+    repositoryName = repositoryConnection.getRepository().getDataDir().getName();
+    this.rdfEntity = rdfEntity;
+    this.field = field;
+    this.fieldName = field.getName();
+    this.rdfProperty = rdfProperty;
+    this.predicateValuesDictionary = predicateValuesDictionary;
+    LazyLoadingSession.register(this);
+  }
+
+  /** Gets the loaded value, loading it if required.
+   *
+   * @return the loaded value, or null when called by the thread that is loading it
+   */
+  final V getLoadedValue() {
+    final V value = loadedValue;
+    if (value != null || loadingThread == Thread.currentThread()) {
+      return value;
+    }
+    load();
+    return loadedValue;
+  }
+
+  /** Gets the loaded value without loading it.
+   *
+   * @return the loaded value, or null if it is not yet loaded
+   */
+  final V peekLoadedValue() {
+    return loadedValue;
+  }
+
+  /** Returns whether the value is loaded.
+   *
+   * @return whether the value is loaded
+   */
+  final boolean isLoaded() {
+    return loadedValue != null;
+  }
+
+  /** Loads the value unless it is already loaded or being loaded by the current thread, and then prefetches the sibling lazy fields that
+   * are pending in the current lazy loading session, unless the caller holds this lazy field's monitor, e.g. while iterating over it.
+   */
+  @SuppressWarnings("unchecked")
+  final void load() {
+    synchronized (this) {
+      if (loadedValue != null || loadingThread != null) {
+        return;
+      }
+      loadingThread = Thread.currentThread();
+      try {
+        loadedValue = (V) LazyLoadingSession.loadLazyField(this);
+      } finally {
+        loadingThread = null;
+      }
+    }
+    if (!Thread.holdsLock(this)) {
+      LazyLoadingSession.prefetchSiblings(this);
+    }
+  }
+
+  /** Gets the repository name.
+   *
+   * @return the repository name
+   */
+  final String getRepositoryName() {
+    return repositoryName;
+  }
+
+  /** Gets the RDF instance.
+   *
+   * @return the RDF instance
+   */
+  final RDFPersistent getRDFEntity() {
+    return rdfEntity;
+  }
+
+  /** Gets the RDF instance field, resolving it by name after deserialization.
+   *
+   * @return the RDF instance field
+   */
+  final Field getField() {
+    if (field == null) {
+      field = resolveField(rdfEntity.getClass(), fieldName);
+    }
+    return field;
+  }
+
+  /** Gets the RDF property.
+   *
+   * @return the RDF property
+   */
+  final RDFProperty getRDFProperty() {
+    return rdfProperty;
+  }
+
+  /** Gets the predicate values dictionary.
+   *
+   * @return the predicate values dictionary, predicate --> RDF values
+   */
+  final Map<URI, List<Value>> getPredicateValuesDictionary() {
+    return predicateValuesDictionary;
+  }
+
+  /** Gets the key that groups this lazy field with its siblings, i.e. the same field of other instances of the same class.
+   *
+   * @return the class name and field name
+   */
+  final String getSiblingKey() {
+    return rdfEntity.getClass().getName() + "." + fieldName;
+  }
+
+  /** Resolves the named field of the given class, or of one of its superclasses, caching the result.
+   *
+   * @param clazz the given class
+   * @param fieldName the field name
+   * @return the field
+   */
+  private static Field resolveField(
+          final Class<?> clazz,
+          final String fieldName) {
+    final String key = clazz.getName() + "." + fieldName;
+    Field field = FIELD_DICTIONARY.get(key);
+    if (field == null) {
+      for (Class<?> clazz1 = clazz; clazz1 != null && field == null; clazz1 = clazz1.getSuperclass()) {
+        try {
+          field = clazz1.getDeclaredField(fieldName);
+        } catch (NoSuchFieldException ex) {
+          // try the superclass
+        }
+      }
+      if (field == null) {
+        final StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append("missing field '");
+        stringBuilder.append(fieldName);
+        stringBuilder.append("' in class ");
+        stringBuilder.append(clazz.getName());
+        stringBuilder.append("\ndeclared fields...");
+        for (final Field field1 : clazz.getDeclaredFields()) {
+          stringBuilder.append("\n  field name: '");
+          stringBuilder.append(field1.getName());
+          stringBuilder.append("'");
+          if (field1.getName().length() == fieldName.length() && !field1.getName().equals(fieldName)) {
+            StringUtils.logStringCharacterDifferences(field1.getName(), fieldName);
+          }
+        }
+        throw new TexaiException(stringBuilder.toString());
+      }
+      field.setAccessible(true);
+      FIELD_DICTIONARY.put(key, field);
+    }
+    return field;
+  }
+}
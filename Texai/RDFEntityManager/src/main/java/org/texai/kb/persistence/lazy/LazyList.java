@@ -9,7 +9,6 @@
  */
 package org.texai.kb.persistence.lazy;
 
-import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -21,9 +20,6 @@ import net.jcip.annotations.ThreadSafe;
 import org.openrdf.model.URI;
 import org.openrdf.model.Value;
 import org.openrdf.repository.RepositoryConnection;
-import org.openrdf.repository.RepositoryException;
-import org.texai.kb.persistence.DistributedRepositoryManager;
-import org.texai.kb.persistence.RDFEntityLoader;
 import org.texai.kb.persistence.RDFPersistent;
 import org.texai.kb.persistence.RDFProperty;
 import org.texai.util.TexaiException;
@@ -33,30 +29,18 @@ import org.texai.util.TexaiException;
  * not-yet-loaded lazy lists are not persisted to the RDF store, before they are copied into another persistent field they should first be
  * initialized (loaded) by invoking any of their defined methods (e.g. size()).
  *
+ * <p>The delegated methods are synchronized on this lazy list once it is loaded, and the load itself takes place before the lock is
+ * acquired. As with {@link java.util.Collections#synchronizedList(List)}, the caller must synchronize on this lazy list while iterating
+ * over it.
+ *
  * @author reed
  */
 @ThreadSafe
 @edu.umd.cs.findbugs.annotations.SuppressWarnings({"SE_BAD_FIELD", "SE_TRANSIENT_FIELD_NOT_RESTORED"})
-public final class LazyList implements List, Serializable {
+public final class LazyList extends AbstractLazyField<List> implements List {
 
   /** the serial version UID */
   private static final long serialVersionUID = 1L;
-  /** the repository name */
-  private final String repositoryName;
-  /** the RDF instance */
-  private final RDFPersistent rdfEntity;
-  /** the RDF instance field */
-  private transient Field field;
-  /** the RDF instance field name */
-  private final String fieldName;
-  /** the RDF property */
-  private final RDFProperty rdfProperty;
-  /** the predicate values dictionary, predicate --> RDF values */
-  private final Map<URI, List<Value>> predicateValuesDictionary;
-  /** the loaded list */
-  private List loadedList;
-  /** the indicator that the lazy list is currently being loaded */
-  private boolean isLoading = false;
 
   /*** Creates a new instance of LazyList.
    *
@@ -72,65 +56,15 @@ public final class LazyList implements List, Serializable {
           final Field field,
           final RDFProperty rdfProperty,
           final Map<URI, List<Value>> predicateValuesDictionary) {
-    super();
-    //Preconditions
-    assert repositoryConnection != null : "repositoryConnection must not be null";
-    assert rdfEntity != null : "rdfEntity must not be null";
-    assert field != null : "field must not be null";
-    assert rdfProperty != null : "rdfProperty must not be null";
-    assert predicateValuesDictionary != null : "predicateValuesDictionary must not be null";
-
-    repositoryName = repositoryConnection.getRepository().getDataDir().getName();
-    this.rdfEntity = rdfEntity;
-    this.field = field;
-    this.fieldName = field.getName();
-    this.rdfProperty = rdfProperty;
-    this.predicateValuesDictionary = predicateValuesDictionary;
+    super(repositoryConnection, rdfEntity, field, rdfProperty, predicateValuesDictionary);
   }
 
   /** Gets the loaded list.
    *
    * @return the loaded list
    */
-  public synchronized List getLoadedList() {
-    if (isLoading) {
-      return null;                                                   // NOPMD
-    } else {
-      loadTheList();
-      return loadedList;
-    }
-  }
-
-  /** Lazily loads the list. */
-  private synchronized void loadTheList() {
-    if (!isLoading && loadedList == null) {
-      isLoading = true;
-      final RDFEntityLoader rdfEntityLoader = new RDFEntityLoader();
-      // obtain a new repository connection from the named repository
-      final RepositoryConnection repositoryConnection =
-              DistributedRepositoryManager.getInstance().getRepositoryConnectionForRepositoryName(repositoryName);
-      if (field == null) {
-        try {
-          field = rdfEntity.getClass().getField(fieldName);
-        } catch (NoSuchFieldException | SecurityException ex) {
-          throw new TexaiException(ex);
-        }
-      }
-      loadedList = (List) rdfEntityLoader.loadLazyRDFEntityField(
-              repositoryConnection,
-              rdfEntity,
-              field,
-              rdfProperty,
-              predicateValuesDictionary);
-      assert loadedList != null : "loadedList must not be null";
-      try {
-        repositoryConnection.close();
-      } catch (final RepositoryException ex) {
-        throw new TexaiException(ex);
-      } finally {
-        isLoading = false;
-      }
-    }
+  public List getLoadedList() {
+    return getLoadedValue();
   }
 
   /**
@@ -140,9 +74,10 @@ public final class LazyList implements List, Serializable {
    */
   @Override
   public String toString() {
+    final List loadedList = peekLoadedValue();
     String string;
-    if (loadedList == null || isLoading) {
-      string = "[LazyList for " + rdfProperty + "]";
+    if (loadedList == null) {
+      string = "[LazyList for " + getRDFProperty() + "]";
     } else {
       string = loadedList.toString();
     }
@@ -158,13 +93,15 @@ public final class LazyList implements List, Serializable {
    * @return the number of elements in this list
    */
   @Override
-  public synchronized int size() {
+  public int size() {
     int size;
-    if (isLoading) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       size = 0;
     } else {
-      loadTheList();
-      size = loadedList.size();
+      synchronized (this) {
+        size = loadedList.size();
+      }
     }
     return size;
   }
@@ -175,12 +112,14 @@ public final class LazyList implements List, Serializable {
    * @return <tt>true</tt> if this list contains no elements
    */
   @Override
-  public synchronized boolean isEmpty() {
-    if (isLoading) {
+  public boolean isEmpty() {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       return true;                                                   // NOPMD
     } else {
-      loadTheList();
-      return loadedList.isEmpty();
+      synchronized (this) {
+        return loadedList.isEmpty();
+      }
     }
   }
 
@@ -194,12 +133,14 @@ public final class LazyList implements List, Serializable {
    * @return <tt>true</tt> if this list contains the specified element
    */
   @Override
-  public synchronized boolean contains(final Object element) {
-    if (isLoading) {
+  public boolean contains(final Object element) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");           // NOPMD
     } else {
-      loadTheList();
-      return loadedList.contains(element);
+      synchronized (this) {
+        return loadedList.contains(element);
+      }
     }
   }
 
@@ -209,13 +150,15 @@ public final class LazyList implements List, Serializable {
    * @return an iterator over the elements in this list in proper sequence
    */
   @Override
-  public synchronized Iterator<?> iterator() {
+  public Iterator<?> iterator() {
     Iterator<?> iterator;
-    if (isLoading) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       iterator = (new ArrayList(0)).iterator();
     } else {
-      loadTheList();
-      iterator = loadedList.iterator();
+      synchronized (this) {
+        iterator = loadedList.iterator();
+      }
     }
     return iterator;
   }
@@ -236,12 +179,14 @@ public final class LazyList implements List, Serializable {
    *         sequence
    */
   @Override
-  public synchronized Object[] toArray() {
-    if (isLoading) {
+  public Object[] toArray() {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.toArray();
+      synchronized (this) {
+        return loadedList.toArray();
+      }
     }
   }
 
@@ -281,12 +226,14 @@ public final class LazyList implements List, Serializable {
    */
   @Override
   @SuppressWarnings("unchecked")
-  public synchronized Object[] toArray(final Object[] array) {
-    if (isLoading) {
+  public Object[] toArray(final Object[] array) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.toArray(array);
+      synchronized (this) {
+        return loadedList.toArray(array);
+      }
     }
   }
 
@@ -307,12 +254,14 @@ public final class LazyList implements List, Serializable {
    */
   @Override
   @SuppressWarnings("unchecked")
-  public synchronized boolean add(final Object element) {
-    if (isLoading) {
+  public boolean add(final Object element) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.add(element);
+      synchronized (this) {
+        return loadedList.add(element);
+      }
     }
   }
 
@@ -330,12 +279,14 @@ public final class LazyList implements List, Serializable {
    * @return <tt>true</tt> if this list contained the specified element
    */
   @Override
-  public synchronized boolean remove(final Object element) {
-    if (isLoading) {
+  public boolean remove(final Object element) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.remove(element);
+      synchronized (this) {
+        return loadedList.remove(element);
+      }
     }
   }
 
@@ -350,12 +301,14 @@ public final class LazyList implements List, Serializable {
    * @see #contains(Object)
    */
   @SuppressWarnings("unchecked")
-  public synchronized boolean containsAll(final Collection collection) {
-    if (isLoading) {
+  public boolean containsAll(final Collection collection) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.containsAll(collection);
+      synchronized (this) {
+        return loadedList.containsAll(collection);
+      }
     }
   }
 
@@ -373,12 +326,14 @@ public final class LazyList implements List, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized boolean addAll(final Collection collection) {
-    if (isLoading) {
+  public boolean addAll(final Collection collection) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.addAll(collection);
+      synchronized (this) {
+        return loadedList.addAll(collection);
+      }
     }
   }
 
@@ -399,12 +354,14 @@ public final class LazyList implements List, Serializable {
    * @return <tt>true</tt> if this list changed as a result of the call
    */
   @SuppressWarnings("unchecked")
-  public synchronized boolean addAll(final int index, final Collection collection) {
-    if (isLoading) {
+  public boolean addAll(final int index, final Collection collection) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.addAll(index, collection);
+      synchronized (this) {
+        return loadedList.addAll(index, collection);
+      }
     }
   }
 
@@ -419,12 +376,14 @@ public final class LazyList implements List, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized boolean removeAll(final Collection collection) {
-    if (isLoading) {
+  public boolean removeAll(final Collection collection) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.removeAll(collection);
+      synchronized (this) {
+        return loadedList.removeAll(collection);
+      }
     }
   }
 
@@ -441,12 +400,14 @@ public final class LazyList implements List, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized boolean retainAll(final Collection collection) {
-    if (isLoading) {
+  public boolean retainAll(final Collection collection) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.retainAll(collection);
+      synchronized (this) {
+        return loadedList.retainAll(collection);
+      }
     }
   }
 
@@ -455,12 +416,14 @@ public final class LazyList implements List, Serializable {
    * The list will be empty after this call returns.
    */
   @Override
-  public synchronized void clear() {
-    if (isLoading) {
+  public void clear() {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      loadedList.clear();
+      synchronized (this) {
+        loadedList.clear();
+      }
     }
   }
 
@@ -481,12 +444,14 @@ public final class LazyList implements List, Serializable {
    */
   @Override
   @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
-  public synchronized boolean equals(final Object obj) {
-    if (isLoading) {
+  public boolean equals(final Object obj) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       return super.equals(obj);                              // NOPMD
     } else {
-      loadTheList();
-      return loadedList.equals(obj);
+      synchronized (this) {
+        return loadedList.equals(obj);
+      }
     }
   }
 
@@ -511,12 +476,14 @@ public final class LazyList implements List, Serializable {
    * @see #equals(Object)
    */
   @Override
-  public synchronized int hashCode() {
-    if (isLoading) {
+  public int hashCode() {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       return super.hashCode();                                       // NOPMD
     } else {
-      loadTheList();
-      return loadedList.hashCode();
+      synchronized (this) {
+        return loadedList.hashCode();
+      }
     }
   }
 
@@ -528,12 +495,14 @@ public final class LazyList implements List, Serializable {
    * @return the element at the specified position in this list
    */
   @Override
-  public synchronized Object get(final int index) {
-    if (isLoading) {
+  public Object get(final int index) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.get(index);
+      synchronized (this) {
+        return loadedList.get(index);
+      }
     }
   }
 
@@ -547,12 +516,14 @@ public final class LazyList implements List, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized Object set(final int index, final Object element) {
-    if (isLoading) {
+  public Object set(final int index, final Object element) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.set(index, element);
+      synchronized (this) {
+        return loadedList.set(index, element);
+      }
     }
   }
 
@@ -567,12 +538,14 @@ public final class LazyList implements List, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized void add(final int index, final Object element) {
-    if (isLoading) {
+  public void add(final int index, final Object element) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      loadedList.add(index, element);
+      synchronized (this) {
+        loadedList.add(index, element);
+      }
     }
   }
 
@@ -586,12 +559,14 @@ public final class LazyList implements List, Serializable {
    * @return the element previously at the specified position
    */
   @Override
-  public synchronized Object remove(final int index) {
-    if (isLoading) {
+  public Object remove(final int index) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.remove(index);
+      synchronized (this) {
+        return loadedList.remove(index);
+      }
     }
   }
 
@@ -608,12 +583,14 @@ public final class LazyList implements List, Serializable {
    *         this list, or -1 if this list does not contain the element
    */
   @Override
-  public synchronized int indexOf(final Object element) {
-    if (isLoading) {
+  public int indexOf(final Object element) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.indexOf(element);
+      synchronized (this) {
+        return loadedList.indexOf(element);
+      }
     }
   }
 
@@ -629,12 +606,14 @@ public final class LazyList implements List, Serializable {
    *         this list, or -1 if this list does not contain the element
    */
   @Override
-  public synchronized int lastIndexOf(final Object element) {
-    if (isLoading) {
+  public int lastIndexOf(final Object element) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.lastIndexOf(element);
+      synchronized (this) {
+        return loadedList.lastIndexOf(element);
+      }
     }
   }
 
@@ -647,13 +626,15 @@ public final class LazyList implements List, Serializable {
    *         sequence)
    */
   @Override
-  public synchronized ListIterator<?> listIterator() {
+  public ListIterator<?> listIterator() {
     ListIterator<?> listIterator;
-    if (isLoading) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       listIterator = (new ArrayList(0)).listIterator();
     } else {
-      loadTheList();
-      listIterator = loadedList.listIterator();
+      synchronized (this) {
+        listIterator = loadedList.listIterator();
+      }
     }
     return listIterator;
   }
@@ -672,12 +653,14 @@ public final class LazyList implements List, Serializable {
    *         sequence), starting at the specified position in this list
   final    */
   @Override
-  public synchronized ListIterator<?> listIterator(final int index) {
-    if (isLoading) {
+  public ListIterator<?> listIterator(final int index) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.listIterator(index);
+      synchronized (this) {
+        return loadedList.listIterator(index);
+      }
     }
   }
 
@@ -714,12 +697,14 @@ public final class LazyList implements List, Serializable {
    * @return a view of the specified range within this list
    */
   @Override
-  public synchronized List subList(final int fromIndex, final int toIndex) {
-    if (isLoading) {
+  public List subList(final int fromIndex, final int toIndex) {
+    final List loadedList = getLoadedValue();
+    if (loadedList == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheList();
-      return loadedList.subList(fromIndex, toIndex);
+      synchronized (this) {
+        return loadedList.subList(fromIndex, toIndex);
+      }
     }
   }
 }
@@ -0,0 +1,283 @@
+/*
+ * LazyLoadingSession.java
+ *
+ * Created on Oct 19, 2026, 4:20:05 PM
+ *
+ * Description: Provides a lazy loading session, within which lazily loaded RDF entity fields share a repository connection and an
+ * RDF entity loader.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.persistence.lazy;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import net.jcip.annotations.NotThreadSafe;
+import org.apache.log4j.Logger;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.texai.kb.persistence.DistributedRepositoryManager;
+import org.texai.kb.persistence.RDFEntityLoader;
+import org.texai.util.TexaiException;
+
+/** Provides a lazy loading session, which is bound to the current thread while it is open. Within the session, lazily loaded RDF
+ * entity fields share one repository connection per repository and one RDF entity loader, rather than each load opening a connection
+ * of its own. The lazy fields that are created while the session is open are registered with it, and when one of them is loaded, up to
+ * PREFETCH_BATCH_SIZE pending siblings, i.e. the same field of other instances of the same class, are loaded with it, as happens when
+ * iterating over a graph of loaded entities.
+ *
+ * Sessions nest: opening a session while one is open on the current thread returns the open session, which the outermost close closes.
+ * A lazy field that is loaded on a thread without an open session is loaded within a session of its own, as before.
+ *
+ * <pre>
+ * try (final LazyLoadingSession lazyLoadingSession = LazyLoadingSession.open()) {
+ *   // load entities and traverse their lazy fields
+ * }
+ * </pre>
+ *
+ * @author reed
+ */
+@NotThreadSafe
+public final class LazyLoadingSession implements AutoCloseable {
+
+  /** the logger */
+  private static final Logger LOGGER = Logger.getLogger(LazyLoadingSession.class);
+  /** the maximum number of sibling lazy fields that are prefetched when one of them is loaded */
+  public static final int PREFETCH_BATCH_SIZE = 64;
+  /** the lazy loading session that is open on the current thread */
+  private static final ThreadLocal<LazyLoadingSession> CURRENT_SESSION = new ThreadLocal<>();
+  /** the thread on which this session is open */
+  private final Thread thread = Thread.currentThread();
+  /** the repository connection dictionary, repository name --> repository connection */
+  private final Map<String, RepositoryConnection> repositoryConnectionDictionary = new HashMap<>();
+  /** the shared RDF entity loader */
+  private final RDFEntityLoader rdfEntityLoader = new RDFEntityLoader();
+  /** the pending lazy fields dictionary, class name and field name --> weak references to the lazy fields registered with this session,
+   * which do not keep the lazy fields and their RDF instances reachable for the lifetime of the session
+   */
+  private final Map<String, Deque<WeakReference<AbstractLazyField<?>>>> pendingLazyFieldsDictionary = new HashMap<>();
+  /** the number of opens that are not yet closed */
+  private int openCount = 1;
+  /** the indicator whether the shared RDF entity loader is loading a field */
+  private boolean isLoaderInUse = false;
+  /** the indicator whether sibling lazy fields are being prefetched */
+  private boolean isPrefetching = false;
+  /** the number of loaded lazy fields */
+  private int loadCount = 0;
+  /** the number of prefetched lazy fields */
+  private int prefetchCount = 0;
+
+  /** Creates a new instance of LazyLoadingSession. */
+  private LazyLoadingSession() {
+  }
+
+  /** Opens a lazy loading session on the current thread, or joins the one that is already open.
+   *
+   * @return the lazy loading session
+   */
+  public static LazyLoadingSession open() {
+    LazyLoadingSession lazyLoadingSession = CURRENT_SESSION.get();
+    if (lazyLoadingSession == null) {
+      lazyLoadingSession = new LazyLoadingSession();
+      CURRENT_SESSION.set(lazyLoadingSession);
+    } else {
+      lazyLoadingSession.openCount++;
+    }
+    return lazyLoadingSession;
+  }
+
+  /** Gets the lazy loading session that is open on the current thread.
+   *
+   * @return the lazy loading session, or null if none is open
+   */
+  public static LazyLoadingSession getCurrentSession() {
+    return CURRENT_SESSION.get();
+  }
+
+  /** Closes this session unless an enclosing open is not yet closed, closing its repository connections. */
+  @Override
+  public void close() {
+    //Preconditions
+    assert Thread.currentThread() == thread : "session must be closed on the thread that opened it";
+    assert openCount > 0 : "session must not be already closed";
+
+    openCount--;
+    if (openCount > 0) {
+      return;
+    }
+    CURRENT_SESSION.remove();
+    for (final RepositoryConnection repositoryConnection : repositoryConnectionDictionary.values()) {
+      try {
+        repositoryConnection.close();
+      } catch (final RepositoryException ex) {
+        LOGGER.warn("cannot close the repository connection: " + ex.getMessage());
+      }
+    }
+    repositoryConnectionDictionary.clear();
+    pendingLazyFieldsDictionary.clear();
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("closed " + this);
+    }
+  }
+
+  /** Gets the number of loaded lazy fields, including the prefetched ones.
+   *
+   * @return the number of loaded lazy fields
+   */
+  public int getLoadCount() {
+    return loadCount;
+  }
+
+  /** Gets the number of prefetched lazy fields.
+   *
+   * @return the number of prefetched lazy fields
+   */
+  public int getPrefetchCount() {
+    return prefetchCount;
+  }
+
+  /** Gets the number of repository connections opened by this session.
+   *
+   * @return the number of repository connections
+   */
+  public int getConnectionCount() {
+    return repositoryConnectionDictionary.size();
+  }
+
+  /** Registers the given lazy field with the session that is open on the current thread, if there is one.
+   *
+   * @param lazyField the given lazy field
+   */
+  static void register(final AbstractLazyField<?> lazyField) {
+    //Preconditions
+    assert lazyField != null : "lazyField must not be null";
+
+    final LazyLoadingSession lazyLoadingSession = CURRENT_SESSION.get();
+    if (lazyLoadingSession != null) {
+      final String siblingKey = lazyField.getSiblingKey();
+      Deque<WeakReference<AbstractLazyField<?>>> pendingLazyFields = lazyLoadingSession.pendingLazyFieldsDictionary.get(siblingKey);
+      if (pendingLazyFields == null) {
+        pendingLazyFields = new ArrayDeque<>();
+        lazyLoadingSession.pendingLazyFieldsDictionary.put(siblingKey, pendingLazyFields);
+      }
+      pendingLazyFields.add(new WeakReference<>(lazyField));
+    }
+  }
+
+  /** Loads the value of the given lazy field within the session that is open on the current thread, or within a session of its own.
+   *
+   * @param lazyField the given lazy field
+   * @return the loaded value
+   */
+  static Object loadLazyField(final AbstractLazyField<?> lazyField) {
+    //Preconditions
+    assert lazyField != null : "lazyField must not be null";
+
+    final LazyLoadingSession lazyLoadingSession = CURRENT_SESSION.get();
+    if (lazyLoadingSession == null) {
+      try (final LazyLoadingSession lazyLoadingSession1 = open()) {
+        return lazyLoadingSession1.loadField(lazyField);
+      }
+    } else {
+      return lazyLoadingSession.loadField(lazyField);
+    }
+  }
+
+  /** Prefetches a batch of the pending siblings of the given lazy field, within the session that is open on the current thread.
+   *
+   * @param lazyField the given lazy field, which was just loaded
+   */
+  static void prefetchSiblings(final AbstractLazyField<?> lazyField) {
+    //Preconditions
+    assert lazyField != null : "lazyField must not be null";
+
+    final LazyLoadingSession lazyLoadingSession = CURRENT_SESSION.get();
+    if (lazyLoadingSession == null || lazyLoadingSession.isPrefetching) {
+      return;
+    }
+    final String siblingKey = lazyField.getSiblingKey();
+    final Deque<WeakReference<AbstractLazyField<?>>> pendingLazyFields = lazyLoadingSession.pendingLazyFieldsDictionary.get(siblingKey);
+    if (pendingLazyFields == null) {
+      return;
+    }
+    lazyLoadingSession.isPrefetching = true;
+    try {
+      int nbrPrefetched = 0;
+      while (nbrPrefetched < PREFETCH_BATCH_SIZE && !pendingLazyFields.isEmpty()) {
+        final AbstractLazyField<?> siblingLazyField = pendingLazyFields.poll().get();
+        // skip the siblings that are no longer reachable, or that were loaded when first accessed
+        if (siblingLazyField != null && !siblingLazyField.isLoaded()) {
+          try {
+            siblingLazyField.load();
+            nbrPrefetched++;
+          } catch (final TexaiException ex) {
+            // the sibling remains unloaded, and loads when it is first accessed
+            LOGGER.warn("cannot prefetch " + siblingLazyField.getSiblingKey() + ": " + ex.getMessage());
+          }
+        }
+      }
+      lazyLoadingSession.prefetchCount += nbrPrefetched;
+      if (pendingLazyFields.isEmpty()) {
+        lazyLoadingSession.pendingLazyFieldsDictionary.remove(siblingKey);
+      }
+    } finally {
+      lazyLoadingSession.isPrefetching = false;
+    }
+  }
+
+  /** Loads the value of the given lazy field using the session's repository connection and RDF entity loader.
+   *
+   * @param lazyField the given lazy field
+   * @return the loaded value
+   */
+  private Object loadField(final AbstractLazyField<?> lazyField) {
+    final RepositoryConnection repositoryConnection = getRepositoryConnection(lazyField.getRepositoryName());
+    // a field that is loaded while another is being loaded, e.g. from an element's hashCode method, needs a loader of its own
+    final boolean wasLoaderInUse = isLoaderInUse;
+    final RDFEntityLoader rdfEntityLoader1 = wasLoaderInUse ? new RDFEntityLoader() : rdfEntityLoader;
+    isLoaderInUse = true;
+    try {
+      final Object loadedValue = rdfEntityLoader1.loadLazyRDFEntityField(
+              repositoryConnection,
+              lazyField.getRDFEntity(),
+              lazyField.getField(),
+              lazyField.getRDFProperty(),
+              lazyField.getPredicateValuesDictionary());
+      loadCount++;
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("lazily loaded " + lazyField.getField());
+      }
+      return loadedValue;
+    } finally {
+      isLoaderInUse = wasLoaderInUse;
+    }
+  }
+
+  /** Gets the session's connection to the named repository, opening it if required.
+   *
+   * @param repositoryName the repository name
+   * @return the repository connection
+   */
+  private RepositoryConnection getRepositoryConnection(final String repositoryName) {
+    RepositoryConnection repositoryConnection = repositoryConnectionDictionary.get(repositoryName);
+    if (repositoryConnection == null) {
+      repositoryConnection = DistributedRepositoryManager.getInstance().getRepositoryConnectionForRepositoryName(repositoryName);
+      repositoryConnectionDictionary.put(repositoryName, repositoryConnection);
+    }
+    return repositoryConnection;
+  }
+
+  /** Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[LazyLoadingSession connections: " + repositoryConnectionDictionary.size()
+            + ", loaded: " + loadCount
+            + ", prefetched: " + prefetchCount + "]";
+  }
+}
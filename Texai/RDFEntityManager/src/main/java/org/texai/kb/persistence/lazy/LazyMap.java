@@ -9,7 +9,6 @@
  */
 package org.texai.kb.persistence.lazy;
 
-import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.Collection;
 import java.util.List;
@@ -19,9 +18,6 @@ import net.jcip.annotations.NotThreadSafe;
 import org.openrdf.model.URI;
 import org.openrdf.model.Value;
 import org.openrdf.repository.RepositoryConnection;
-import org.openrdf.repository.RepositoryException;
-import org.texai.kb.persistence.DistributedRepositoryManager;
-import org.texai.kb.persistence.RDFEntityLoader;
 import org.texai.kb.persistence.RDFPersistent;
 import org.texai.kb.persistence.RDFProperty;
 import org.texai.util.TexaiException;
@@ -32,26 +28,10 @@ import org.texai.util.TexaiException;
  */
 @NotThreadSafe
 @edu.umd.cs.findbugs.annotations.SuppressWarnings({"SE_BAD_FIELD", "SE_TRANSIENT_FIELD_NOT_RESTORED"})
-public class LazyMap implements Map, Serializable {
+public class LazyMap extends AbstractLazyField<Map> implements Map {
 
   /** the serial version UID */
   private static final long serialVersionUID = 1L;
-  /** the repository name */
-  private final String repositoryName;
-  /** the RDF instance */
-  private final RDFPersistent rdfEntity;
-  /** the RDF instance field */
-  private transient Field field;
-  /** the RDF instance field name */
-  private final String fieldName;
-  /** the RDF property */
-  private final RDFProperty rdfProperty;
-  /** the predicate values dictionary, predicate --> RDF values */
-  private final Map<URI, List<Value>> predicateValuesDictionary;
-  /** the loaded set */
-  private Map loadedMap;
-  /** the indicator that the lazy set is currently being loaded */
-  private boolean isLoading = false;
 
   /** Creates a new instance of LazySet.
    *
@@ -67,68 +47,15 @@ public class LazyMap implements Map, Serializable {
           final Field field,
           final RDFProperty rdfProperty,
           final Map<URI, List<Value>> predicateValuesDictionary) {
-    super();
-    //Preconditions
-    assert repositoryConnection != null : "repositoryConnection must not be null";
-    assert rdfEntity != null : "rdfInstance must not be null";
-    assert field != null : "field must not be null";
-    assert rdfProperty != null : "rdfProperty must not be null";
-    assert predicateValuesDictionary != null : "predicateValuesDictionary must not be null";
-
-    repositoryName = repositoryConnection.getRepository().getDataDir().getName();
-    this.rdfEntity = rdfEntity;
-    this.field = field;
-    this.fieldName = field.getName();
-    this.rdfProperty = rdfProperty;
-    this.predicateValuesDictionary = predicateValuesDictionary;
+    super(repositoryConnection, rdfEntity, field, rdfProperty, predicateValuesDictionary);
   }
 
   /** Gets the loaded map.
    *
    * @return the loaded map
    */
-  public synchronized Map getLoadedMap() {
-    if (isLoading) {
-      return null;                                                   // NOPMD
-    } else {
-      loadTheMap();
-      return loadedMap;
-    }
-  }
-
-  /** Lazily loads the set. Also replaces the lazy set with the loaded set on the RDF entity so that subsequent
-   * field value will directly access the set.
-   */
-  @SuppressWarnings("unchecked")                                     // NOPMD
-  private synchronized void loadTheMap() {
-    if (!isLoading && loadedMap == null) {
-      isLoading = true;
-      final RDFEntityLoader rdfEntityLoader = new RDFEntityLoader();
-      // obtain a new repository connection from the named repository
-      final RepositoryConnection repositoryConnection =
-              DistributedRepositoryManager.getInstance().getRepositoryConnectionForRepositoryName(repositoryName);
-      if (field == null) {
-        try {
-          field = rdfEntity.getClass().getField(fieldName);
-        } catch (NoSuchFieldException | SecurityException ex) {
-          throw new TexaiException(ex);
-        }
-      }
-      loadedMap = (Map) rdfEntityLoader.loadLazyRDFEntityField(
-              repositoryConnection,
-              rdfEntity,
-              field,
-              rdfProperty,
-              predicateValuesDictionary);
-      assert loadedMap != null : "loadedSet must not be null";
-      try {
-        repositoryConnection.close();
-      } catch (final RepositoryException ex) {
-        throw new TexaiException(ex);
-      } finally {
-        isLoading = false;
-      }
-    }
+  public Map getLoadedMap() {
+    return getLoadedValue();
   }
 
   /** Returns a string representation of this object.
@@ -137,9 +64,10 @@ public class LazyMap implements Map, Serializable {
    */
   @Override
   public String toString() {
+    final Map loadedMap = peekLoadedValue();
     String string;
     if (loadedMap == null) {
-      string = "[LazyMap for " + rdfProperty + "]";
+      string = "[LazyMap for " + getRDFProperty() + "]";
     } else {
       string = loadedMap.toString();
     }
@@ -156,8 +84,8 @@ public class LazyMap implements Map, Serializable {
   @Override
   public int size() {
     int size;
-    loadTheMap();
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       size = 0;
     } else {
       size = loadedMap.size();
@@ -172,8 +100,8 @@ public class LazyMap implements Map, Serializable {
   @Override
   public boolean isEmpty() {
     boolean isEmpty;
-    loadTheMap();
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       isEmpty = true;
     } else {
       isEmpty = loadedMap.isEmpty();
@@ -197,10 +125,10 @@ public class LazyMap implements Map, Serializable {
    */
   @Override
   public boolean containsKey(final Object key) {
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       throw new TexaiException("recursive call while loading lazy map");
     } else {
-      loadTheMap();
       return loadedMap.containsKey(key);
     }
   }
@@ -222,10 +150,10 @@ public class LazyMap implements Map, Serializable {
    */
   @Override
   public boolean containsValue(final Object value) {
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       throw new TexaiException("recursive call while loading lazy map");
     } else {
-      loadTheMap();
       return loadedMap.containsValue(value);
     }
   }
@@ -254,10 +182,10 @@ public class LazyMap implements Map, Serializable {
    */
   @Override
   public Object get(final Object key) {
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       throw new TexaiException("recursive call while loading lazy map");
     } else {
-      loadTheMap();
       return loadedMap.get(key);
     }
   }
@@ -289,10 +217,10 @@ public class LazyMap implements Map, Serializable {
   @Override
   @SuppressWarnings("unchecked")
   public Object put(final Object key, final Object value) {
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       throw new TexaiException("recursive call while loading lazy map");
     } else {
-      loadTheMap();
       return loadedMap.put(key, value);
     }
   }
@@ -326,10 +254,10 @@ public class LazyMap implements Map, Serializable {
    */
   @Override
   public Object remove(final Object key) {
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       throw new TexaiException("recursive call while loading lazy map");
     } else {
-      loadTheMap();
       return loadedMap.remove(key);
     }
   }
@@ -356,10 +284,10 @@ public class LazyMap implements Map, Serializable {
   @Override
   @SuppressWarnings("unchecked")
   public void putAll(final Map m) {
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       throw new TexaiException("recursive call while loading lazy map");
     } else {
-      loadTheMap();
       loadedMap.putAll(m);
     }
   }
@@ -372,10 +300,10 @@ public class LazyMap implements Map, Serializable {
    */
   @Override
   public void clear() {
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       throw new TexaiException("recursive call while loading lazy map");
     } else {
-      loadTheMap();
       loadedMap.clear();
     }
   }
@@ -397,10 +325,10 @@ public class LazyMap implements Map, Serializable {
    */
   @Override
   public Set keySet() {
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       throw new TexaiException("recursive call while loading lazy map");
     } else {
-      loadTheMap();
       return loadedMap.keySet();
     }
   }
@@ -421,10 +349,10 @@ public class LazyMap implements Map, Serializable {
    */
   @Override
   public Collection values() {
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       throw new TexaiException("recursive call while loading lazy map");
     } else {
-      loadTheMap();
       return loadedMap.values();
     }
   }
@@ -446,10 +374,10 @@ public class LazyMap implements Map, Serializable {
    */
   @Override
   public Set entrySet() {
-    if (isLoading) {
+    final Map loadedMap = getLoadedValue();
+    if (loadedMap == null) {
       throw new TexaiException("recursive call while loading lazy map");
     } else {
-      loadTheMap();
       return loadedMap.entrySet();
     }
   }
@@ -9,7 +9,6 @@
  */
 package org.texai.kb.persistence.lazy;
 
-import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -21,12 +20,8 @@ import net.jcip.annotations.ThreadSafe;
 import org.openrdf.model.URI;
 import org.openrdf.model.Value;
 import org.openrdf.repository.RepositoryConnection;
-import org.openrdf.repository.RepositoryException;
-import org.texai.kb.persistence.DistributedRepositoryManager;
-import org.texai.kb.persistence.RDFEntityLoader;
 import org.texai.kb.persistence.RDFPersistent;
 import org.texai.kb.persistence.RDFProperty;
-import org.texai.util.StringUtils;
 import org.texai.util.TexaiException;
 
 /** Provides a facility that lazily loads a set field. The set value is loaded automatically from the RDF store when any of its methods are invoked.
@@ -34,30 +29,18 @@ import org.texai.util.TexaiException;
  * not-yet-loaded lazy sets are not persisted to the RDF store, before they are copied into another persistent field they should first be
  * initialized (loaded) by invoking any of their defined methods (e.g. size()).
  *
+ * <p>The delegated methods are synchronized on this lazy set once it is loaded, and the load itself takes place before the lock is
+ * acquired. As with {@link java.util.Collections#synchronizedSet(Set)}, the caller must synchronize on this lazy set while iterating
+ * over it.
+ *
  * @author reed
  */
 @ThreadSafe
 @edu.umd.cs.findbugs.annotations.SuppressWarnings({"SE_BAD_FIELD", "SE_TRANSIENT_FIELD_NOT_RESTORED"})
-public final class LazySet implements Set, Serializable {
+public final class LazySet extends AbstractLazyField<Set> implements Set {
 
   /** the default serial version UID */
   private static final long serialVersionUID = 1L;
-  /** the repository name */
-  private final String repositoryName;
-  /** the RDF instance */
-  private final RDFPersistent rdfEntity;
-  /** the RDF instance field */
-  private transient Field field;
-  /** the RDF instance field name */
-  private final String fieldName;
-  /** the RDF property */
-  private final RDFProperty rdfProperty;
-  /** the predicate values dictionary, predicate --> RDF values */
-  private final Map<URI, List<Value>> predicateValuesDictionary;
-  /** the loaded set */
-  private Set loadedSet;
-  /** the indicator that the lazy set is currently being loaded */
-  private boolean isLoading = false;
 
   /** Creates a new instance of LazySet.
    *
@@ -73,96 +56,15 @@ public final class LazySet implements Set, Serializable {
           final Field field,
           final RDFProperty rdfProperty,
           final Map<URI, List<Value>> predicateValuesDictionary) {
-    super();
-    //Preconditions
-    assert repositoryConnection != null : "repositoryConnection must not be null";
-    assert rdfEntity != null : "rdfInstance must not be null";
-    assert field != null : "field must not be null";
-    assert rdfProperty != null : "rdfProperty must not be null";
-    assert predicateValuesDictionary != null : "predicateValuesDictionary must not be null";
-
-    repositoryName = repositoryConnection.getRepository().getDataDir().getName();
-    this.rdfEntity = rdfEntity;
-    this.field = field;
-    this.fieldName = field.getName();
-    this.rdfProperty = rdfProperty;
-    this.predicateValuesDictionary = predicateValuesDictionary;
+    super(repositoryConnection, rdfEntity, field, rdfProperty, predicateValuesDictionary);
   }
 
   /** Gets the loaded set.
    *
    * @return the loaded set
    */
-  public synchronized Set getLoadedSet() {
-    if (isLoading) {
-      return null;                                                   // NOPMD
-    } else {
-      loadTheSet();
-      return loadedSet;
-    }
-  }
-
-  /** Lazily loads the set. Also replaces the lazy set with the loaded set on the RDF entity so that subsequent
-   * field value will directly access the set.
-   */
-  @SuppressWarnings("unchecked")                                     // NOPMD
-  private synchronized void loadTheSet() {
-    if (!isLoading && loadedSet == null) {
-      isLoading = true;
-      final RDFEntityLoader rdfEntityLoader = new RDFEntityLoader();
-      // obtain a new repository connection from the named repository
-      final RepositoryConnection repositoryConnection =
-              DistributedRepositoryManager.getInstance().getRepositoryConnectionForRepositoryName(repositoryName);
-      if (field == null) {
-        try {
-          field = rdfEntity.getClass().getField(fieldName);
-        } catch (Exception ex) {
-          final StringBuilder stringBuilder = new StringBuilder();
-          stringBuilder.append("repositoryName: ");
-          stringBuilder.append(repositoryName);
-          stringBuilder.append("\nrdfEntity class: ");
-          final Class<?> clazz = rdfEntity.getClass();
-          stringBuilder.append(clazz.getName());
-          stringBuilder.append("\nfieldName: '");
-          stringBuilder.append(fieldName);
-          stringBuilder.append("'\nrdfEntity: ");
-          stringBuilder.append(rdfEntity);
-          stringBuilder.append("\ndeclared fields...");
-          for (final Field field1 : clazz.getDeclaredFields()) {
-            stringBuilder.append("\nfield: ");
-            stringBuilder.append(field1);
-            stringBuilder.append("\n  field name: '");
-            stringBuilder.append(field1.getName());
-            stringBuilder.append("'");
-            if (field1.getName().length() == fieldName.length()) {
-              if (field1.getName().equals(fieldName)) {
-                stringBuilder.append(" - equals fieldName");
-              } else {
-                StringUtils.logStringCharacterDifferences(field1.getName(), fieldName);
-              }
-            }
-          }
-          stringBuilder.append("\nexception: ");
-          stringBuilder.append(ex.getClass().getName());
-          stringBuilder.append(ex.getMessage());
-          throw new TexaiException(stringBuilder.toString());
-        }
-      }
-      loadedSet = (Set) rdfEntityLoader.loadLazyRDFEntityField(
-              repositoryConnection,
-              rdfEntity,
-              field,
-              rdfProperty,
-              predicateValuesDictionary);
-      assert loadedSet != null : "loadedSet must not be null";
-      try {
-        repositoryConnection.close();
-      } catch (final RepositoryException ex) {
-        throw new TexaiException(ex);
-      } finally {
-        isLoading = false;
-      }
-    }
+  public Set getLoadedSet() {
+    return getLoadedValue();
   }
 
   /**
@@ -172,9 +74,10 @@ public final class LazySet implements Set, Serializable {
    */
   @Override
   public String toString() {
+    final Set loadedSet = peekLoadedValue();
     String string;
     if (loadedSet == null) {
-      string = "[LazySet for " + rdfProperty + "]";
+      string = "[LazySet for " + getRDFProperty() + "]";
     } else {
       string = loadedSet.toString();
     }
@@ -190,13 +93,15 @@ public final class LazySet implements Set, Serializable {
    * @return the number of elements in this set (its cardinality).
    */
   @Override
-  public synchronized int size() {
+  public int size() {
     int size;
-    loadTheSet();
-    if (isLoading) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       size = 0;
     } else {
-      size = loadedSet.size();
+      synchronized (this) {
+        size = loadedSet.size();
+      }
     }
     return size;
   }
@@ -207,13 +112,15 @@ public final class LazySet implements Set, Serializable {
    * @return <tt>true</tt> if this set contains no elements.
    */
   @Override
-  public synchronized boolean isEmpty() {
+  public boolean isEmpty() {
     boolean isEmpty;
-    loadTheSet();
-    if (isLoading) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       isEmpty = true;
     } else {
-      isEmpty = loadedSet.isEmpty();
+      synchronized (this) {
+        isEmpty = loadedSet.isEmpty();
+      }
     }
     return isEmpty;
   }
@@ -228,12 +135,14 @@ public final class LazySet implements Set, Serializable {
    * @return <tt>true</tt> if this set contains the specified element.
    */
   @Override
-  public synchronized boolean contains(final Object element) {                       // NOPMD
-    if (isLoading) {
+  public boolean contains(final Object element) {                       // NOPMD
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       throw new TexaiException("recursive call while loading lazy set");      // NOPMD
     } else {
-      loadTheSet();
-      return loadedSet.contains(element);
+      synchronized (this) {
+        return loadedSet.contains(element);
+      }
     }
   }
 
@@ -245,13 +154,15 @@ public final class LazySet implements Set, Serializable {
    * @return an iterator over the elements in this set.
    */
   @Override
-  public synchronized Iterator iterator() {
+  public Iterator iterator() {
     Iterator iter;
-    if (isLoading) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       iter = (new ArrayList(0)).iterator();
     } else {
-      loadTheSet();
-      iter = loadedSet.iterator();
+      synchronized (this) {
+        iter = loadedSet.iterator();
+      }
     }
     return iter;
   }
@@ -263,12 +174,14 @@ public final class LazySet implements Set, Serializable {
    * @return an array containing all of the elements in this set.
    */
   @Override
-  public synchronized Object[] toArray() {
-    if (isLoading) {
+  public Object[] toArray() {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheSet();
-      return loadedSet.toArray();
+      synchronized (this) {
+        return loadedSet.toArray();
+      }
     }
   }
 
@@ -285,12 +198,14 @@ public final class LazySet implements Set, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized Object[] toArray(final Object[] array) {
-    if (isLoading) {
+  public Object[] toArray(final Object[] array) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheSet();
-      return loadedSet.toArray(array);
+      synchronized (this) {
+        return loadedSet.toArray(array);
+      }
     }
   }
 
@@ -318,12 +233,14 @@ public final class LazySet implements Set, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized boolean add(final Object element) {
-    if (isLoading) {
+  public boolean add(final Object element) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheSet();
-      return loadedSet.add(element);
+      synchronized (this) {
+        return loadedSet.add(element);
+      }
     }
   }
 
@@ -340,12 +257,14 @@ public final class LazySet implements Set, Serializable {
    * @return true if the set contained the specified element.
    */
   @Override
-  public synchronized boolean remove(final Object element) {
-    if (isLoading) {
+  public boolean remove(final Object element) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheSet();
-      return loadedSet.remove(element);
+      synchronized (this) {
+        return loadedSet.remove(element);
+      }
     }
   }
 
@@ -361,12 +280,14 @@ public final class LazySet implements Set, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized boolean containsAll(final Collection collection) {
-    if (isLoading) {
+  public boolean containsAll(final Collection collection) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheSet();
-      return loadedSet.containsAll(collection);
+      synchronized (this) {
+        return loadedSet.containsAll(collection);
+      }
     }
   }
 
@@ -385,12 +306,14 @@ public final class LazySet implements Set, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized boolean addAll(final Collection collection) {
-    if (isLoading) {
+  public boolean addAll(final Collection collection) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheSet();
-      return loadedSet.addAll(collection);
+      synchronized (this) {
+        return loadedSet.addAll(collection);
+      }
     }
   }
 
@@ -409,12 +332,14 @@ public final class LazySet implements Set, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized boolean retainAll(final Collection collection) {
-    if (isLoading) {
+  public boolean retainAll(final Collection collection) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheSet();
-      return loadedSet.retainAll(collection);
+      synchronized (this) {
+        return loadedSet.retainAll(collection);
+      }
     }
   }
 
@@ -432,12 +357,14 @@ public final class LazySet implements Set, Serializable {
    */
   @SuppressWarnings("unchecked")
   @Override
-  public synchronized boolean removeAll(final Collection collection) {
-    if (isLoading) {
+  public boolean removeAll(final Collection collection) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheSet();
-      return loadedSet.removeAll(collection);
+      synchronized (this) {
+        return loadedSet.removeAll(collection);
+      }
     }
   }
 
@@ -447,12 +374,14 @@ public final class LazySet implements Set, Serializable {
    * exception).
    */
   @Override
-  public synchronized void clear() {
-    if (isLoading) {
+  public void clear() {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       throw new TexaiException("recursive call while loading lazy list");
     } else {
-      loadTheSet();
-      loadedSet.clear();
+      synchronized (this) {
+        loadedSet.clear();
+      }
     }
   }
 
@@ -470,13 +399,15 @@ public final class LazySet implements Set, Serializable {
    */
   @Override
   @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
-  public synchronized boolean equals(final Object obj) {
+  public boolean equals(final Object obj) {
     boolean isEqual;
-    if (isLoading) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       isEqual = super.equals(obj);
     } else {
-      loadTheSet();
-      isEqual = loadedSet.equals(obj);
+      synchronized (this) {
+        isEqual = loadedSet.equals(obj);
+      }
     }
     return isEqual;
   }
@@ -497,13 +428,15 @@ public final class LazySet implements Set, Serializable {
    * @see Set#equals(Object)
    */
   @Override
-  public synchronized int hashCode() {
+  public int hashCode() {
     int hashCode;
-    if (isLoading) {
+    final Set loadedSet = getLoadedValue();
+    if (loadedSet == null) {
       hashCode = super.hashCode();
     } else {
-      loadTheSet();
-      hashCode = loadedSet.hashCode();
+      synchronized (this) {
+        hashCode = loadedSet.hashCode();
+      }
     }
     return hashCode;
   }
@@ -9,22 +9,16 @@
  */
 package org.texai.kb.persistence.lazy;
 
-import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
 import net.jcip.annotations.ThreadSafe;
 import net.sf.cglib.proxy.LazyLoader;
-import org.apache.log4j.Logger;
 import org.openrdf.model.URI;
 import org.openrdf.model.Value;
 import org.openrdf.repository.RepositoryConnection;
-import org.openrdf.repository.RepositoryException;
-import org.texai.kb.persistence.RDFEntityLoader;
 import org.texai.kb.persistence.RDFProperty;
-import org.texai.kb.persistence.DistributedRepositoryManager;
 import org.texai.kb.persistence.RDFPersistent;
-import org.texai.util.TexaiException;
 
 /**  Provides a facility that lazily loads an RDF entity field. The RDF entity value is loaded automatically from the RDF store when any of its
  * defined methods are invoked. The method call is delegated to the loaded RDF entity.  Subsequent references to the RDF entity field obtain the
@@ -37,28 +31,10 @@ import org.texai.util.TexaiException;
  */
 @ThreadSafe
 @edu.umd.cs.findbugs.annotations.SuppressWarnings({"SE_BAD_FIELD", "SE_TRANSIENT_FIELD_NOT_RESTORED"})
-public final class RDFEntityLazyLoader implements LazyLoader, Serializable {
+public final class RDFEntityLazyLoader extends AbstractLazyField<Object> implements LazyLoader {
 
-  /** the logger */
-  private static final Logger LOGGER = Logger.getLogger(RDFEntityLazyLoader.class);
   /** the serial version UID */
   private static final long serialVersionUID = 1L;
-  /** the repository name */
-  private final String repositoryName;
-  /** the RDF instance */
-  private final RDFPersistent rdfEntity;
-  /** the RDF instance field */
-  private transient Field field;
-  /** the RDF instance field name */
-  private final String fieldName;
-  /** the RDF property */
-  private final RDFProperty rdfProperty;
-  /** the predicate values dictionary, predicate --> RDF values */
-  private final Map<URI, List<Value>> predicateValuesDictionary;
-  /** the loaded object */
-  private Object loadedObject;
-  /** the indicator that the lazy object is currently being loaded */
-  private boolean isLoading = false;
 
   /** Creates a new instance of RDFEntityLazyLoader.
    *
@@ -74,20 +50,7 @@ public final class RDFEntityLazyLoader implements LazyLoader, Serializable {
           final Field field,
           final RDFProperty rdfProperty,
           final Map<URI, List<Value>> predicateValuesDictionary) {
-    super();
-    //Preconditions
-    assert repositoryConnection != null : "repositoryConnection must not be null";
-    assert rdfInstance != null : "rdfInstance must not be null";
-    assert field != null : "field must not be null";
-    assert rdfProperty != null : "rdfProperty must not be null";
-    assert predicateValuesDictionary != null : "predicateValuesDictionary must not be null";
-    this.predicateValuesDictionary = predicateValuesDictionary;
-
-    repositoryName = repositoryConnection.getRepository().getDataDir().getName();
-    this.rdfEntity = rdfInstance;
-    this.field = field;
-    this.fieldName = field.getName();
-    this.rdfProperty = rdfProperty;
+    super(repositoryConnection, rdfInstance, field, rdfProperty, predicateValuesDictionary);
   }
 
   /** Returns the object to which the original method invocation should be dispatched.
@@ -95,33 +58,9 @@ public final class RDFEntityLazyLoader implements LazyLoader, Serializable {
    * invocations will directly access the object.
    *
    * @return the object to which the original method invocation should be dispatched
-   * @throws RepositoryException when a repository error occurs
    */
   @Override
-  public synchronized Object loadObject() throws RepositoryException {
-    if (!isLoading && loadedObject == null) {
-      isLoading = true;
-      final RDFEntityLoader rdfEntityLoader = new RDFEntityLoader();
-      // obtain a new repository connection from the named repository
-      final RepositoryConnection repositoryConnection =
-              DistributedRepositoryManager.getInstance().getRepositoryConnectionForRepositoryName(repositoryName);
-      if (field == null) {
-        try {
-          field = rdfEntity.getClass().getField(fieldName);
-        } catch (NoSuchFieldException | SecurityException ex) {
-        throw new TexaiException(ex);
-        }
-      }
-      loadedObject = rdfEntityLoader.loadLazyRDFEntityField(
-              repositoryConnection,
-              rdfEntity,
-              field,
-              rdfProperty,
-              predicateValuesDictionary);
-      repositoryConnection.close();
-      isLoading = false;
-      LOGGER.debug("dynamically loaded " + loadedObject + " for field " + field);
-    }
-    return loadedObject;
+  public Object loadObject() {
+    return getLoadedValue();
   }
 }
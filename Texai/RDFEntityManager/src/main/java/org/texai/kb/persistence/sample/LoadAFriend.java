@@ -93,11 +93,7 @@ public final class LoadAFriend {
     // persist the RDF entity and commit the transaction
     rdfEntityManager.persist(friend);
     friendId = friend.getId();
-    try {
-      repositoryConnection.commit();
-    } catch (final RepositoryException ex) {
-      throw new TexaiException(ex);
-    }
+    rdfEntityManager.commit(repositoryConnection);
   }
 
   /** Loads a persisted Friend instance. */
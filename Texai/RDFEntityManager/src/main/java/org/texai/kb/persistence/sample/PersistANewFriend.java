@@ -89,11 +89,7 @@ public final class PersistANewFriend {
 
     // persist the RDF entity and commit the transaction
     rdfEntityManager.persist(friend);
-    try {
-      repositoryConnection.commit();
-    } catch (final RepositoryException ex) {
-      throw new TexaiException(ex);
-    }
+    rdfEntityManager.commit(repositoryConnection);
 
     // export the respository in RDF
     try {
@@ -88,11 +88,7 @@ public final class RemoveAFriend {
     // persist the friend and commit the transaction
     rdfEntityManager.persist(friend);
     friendId = friend.getId();
-    try {
-      repositoryConnection.commit();
-    } catch (final RepositoryException ex) {
-      throw new TexaiException(ex);
-    }
+    rdfEntityManager.commit(repositoryConnection);
   }
 
   /** Removes the friend. */
@@ -107,11 +103,7 @@ public final class RemoveAFriend {
     // remove the friend and commit the transaction
     friendId = friend.getId();
     rdfEntityManager.remove(friend);
-    try {
-      repositoryConnection.commit();
-    } catch (final RepositoryException ex) {
-      throw new TexaiException(ex);
-    }
+    rdfEntityManager.commit(repositoryConnection);
 
     // attempt to load the friend
     friend = rdfEntityManager.find(
@@ -87,11 +87,7 @@ public final class UpdateAFriend {
     // persist the friend and commit the transaction
     rdfEntityManager.persist(friend);
     friendId = friend.getId();
-    try {
-      repositoryConnection.commit();
-    } catch (final RepositoryException ex) {
-      throw new TexaiException(ex);
-    }
+    rdfEntityManager.commit(repositoryConnection);
   }
 
   /** Loads, updates, persists and reloads the friend. */
@@ -106,11 +102,7 @@ public final class UpdateAFriend {
     // persist the friend and commit the transaction
     rdfEntityManager.persist(friend);
     friendId = friend.getId();
-    try {
-      repositoryConnection.commit();
-    } catch (final RepositoryException ex) {
-      throw new TexaiException(ex);
-    }
+    rdfEntityManager.commit(repositoryConnection);
 
     // load the friend
     friend = rdfEntityManager.find(
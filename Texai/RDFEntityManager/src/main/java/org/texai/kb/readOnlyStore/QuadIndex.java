@@ -0,0 +1,284 @@
+/*
+ * QuadIndex.java
+ *
+ * Created on Oct 19, 2026, 2:31:47 PM
+ *
+ * Description: Provides a sorted, memory-mapped index of dictionary-encoded statements.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.readOnlyStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import net.jcip.annotations.ThreadSafe;
+import org.texai.util.TexaiException;
+
+/** Provides a sorted, memory-mapped index of dictionary-encoded statements. Each statement is a record of four long
+ * identifiers, subject, predicate, object and context, stored in the field order of the index, e.g. predicate, object,
+ * subject, context for the POSC index, and the records are sorted lexicographically in that order. A statement pattern
+ * whose bound fields form a prefix of the field order is therefore answered by a binary search followed by a sequential scan.
+ *
+ * @author Stephen L. Reed
+ */
+@ThreadSafe
+public final class QuadIndex {
+
+  /** the number of fields in a record */
+  public static final int RECORD_LENGTH = 4;
+  /** the subject field */
+  public static final int SUBJECT = 0;
+  /** the predicate field */
+  public static final int PREDICATE = 1;
+  /** the object field */
+  public static final int OBJECT = 2;
+  /** the context field */
+  public static final int CONTEXT = 3;
+  /** the index name, e.g. posc */
+  private final String name;
+  /** the field order, i.e. the statement field stored at each record position */
+  private final int[] fieldOrder;
+  /** the record positions, i.e. the record position at which each statement field is stored */
+  private final int[] recordPositions = new int[RECORD_LENGTH];
+  /** the memory-mapped records */
+  private final LongBuffer records;
+  /** the number of records */
+  private final int nbrRecords;
+
+  /** Constructs a new QuadIndex instance by memory-mapping the given index file.
+   *
+   * @param name the index name, which is a permutation of "spoc" ending with "c"
+   * @param file the given index file
+   */
+  public QuadIndex(final String name, final File file) {
+    //Preconditions
+    assert name != null : "name must not be null";
+    assert file != null : "file must not be null";
+
+    this.name = name;
+    fieldOrder = parseFieldOrder(name);
+    for (int i = 0; i < RECORD_LENGTH; i++) {
+      recordPositions[fieldOrder[i]] = i;
+    }
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+      final FileChannel fileChannel = randomAccessFile.getChannel();
+      final long size = fileChannel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new TexaiException("index file exceeds the maximum mappable size: " + file);
+      }
+      // the mapping remains valid after the channel is closed
+      final MappedByteBuffer mappedByteBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      records = mappedByteBuffer.order(ByteOrder.BIG_ENDIAN).asLongBuffer();
+    } catch (final IOException ex) {
+      throw new TexaiException(ex);
+    }
+    nbrRecords = records.capacity() / RECORD_LENGTH;
+  }
+
+  /** Sorts the given statement records into the field order of the named index and writes them to the given file.
+   *
+   * @param name the index name, which is a permutation of "spoc" ending with "c"
+   * @param statementRecords the statement records, in subject, predicate, object, context field order, which are not modified
+   * @param file the given index file
+   */
+  public static void write(final String name, final long[] statementRecords, final File file) {
+    //Preconditions
+    assert name != null : "name must not be null";
+    assert statementRecords != null : "statementRecords must not be null";
+    assert statementRecords.length % RECORD_LENGTH == 0 : "statementRecords must consist of whole records";
+    assert file != null : "file must not be null";
+
+    final int[] fieldOrder = parseFieldOrder(name);
+    final int nbrRecords = statementRecords.length / RECORD_LENGTH;
+    long[] records = new long[statementRecords.length];
+    for (int i = 0; i < nbrRecords; i++) {
+      for (int j = 0; j < RECORD_LENGTH; j++) {
+        records[i * RECORD_LENGTH + j] = statementRecords[i * RECORD_LENGTH + fieldOrder[j]];
+      }
+    }
+    records = sortRecords(records, nbrRecords);
+    final long size = (long) records.length * 8;
+    if (size > Integer.MAX_VALUE) {
+      throw new TexaiException("index exceeds the maximum mappable size: " + file);
+    }
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      randomAccessFile.setLength(0);
+      final FileChannel fileChannel = randomAccessFile.getChannel();
+      final ByteBuffer byteBuffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.BIG_ENDIAN);
+      for (final long record : records) {
+        if (!byteBuffer.hasRemaining()) {
+          byteBuffer.flip();
+          while (byteBuffer.hasRemaining()) {
+            fileChannel.write(byteBuffer);
+          }
+          byteBuffer.clear();
+        }
+        byteBuffer.putLong(record);
+      }
+      byteBuffer.flip();
+      while (byteBuffer.hasRemaining()) {
+        fileChannel.write(byteBuffer);
+      }
+    } catch (final IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /** Gets the index name.
+   *
+   * @return the index name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /** Gets the number of records.
+   *
+   * @return the number of records
+   */
+  public int size() {
+    return nbrRecords;
+  }
+
+  /** Returns the number of leading record positions that the given statement pattern binds, which is the length of the
+   * prefix that a scan of this index can search.
+   *
+   * @param pattern the statement pattern, in subject, predicate, object, context field order, whose unbound fields are -1
+   * @return the number of leading record positions bound by the given statement pattern
+   */
+  public int boundPrefixLength(final long[] pattern) {
+    int prefixLength = 0;
+    while (prefixLength < RECORD_LENGTH && pattern[fieldOrder[prefixLength]] >= 0) {
+      prefixLength++;
+    }
+    return prefixLength;
+  }
+
+  /** Gets the first record number whose leading fields are not less than the given prefix of the given statement pattern.
+   *
+   * @param pattern the statement pattern, in subject, predicate, object, context field order
+   * @param prefixLength the number of leading record positions to compare
+   * @return the first record number whose leading fields are not less than the given prefix
+   */
+  public int lowerBound(final long[] pattern, final int prefixLength) {
+    int low = 0;
+    int high = nbrRecords;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (comparePrefix(middle, pattern, prefixLength) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /** Compares the leading fields of the given record with the given prefix of the given statement pattern.
+   *
+   * @param recordNbr the given record number
+   * @param pattern the statement pattern, in subject, predicate, object, context field order
+   * @param prefixLength the number of leading record positions to compare
+   * @return a negative number, zero, or a positive number as the record prefix is less than, equal to, or greater than the
+   * pattern prefix
+   */
+  public int comparePrefix(final int recordNbr, final long[] pattern, final int prefixLength) {
+    final int base = recordNbr * RECORD_LENGTH;
+    for (int i = 0; i < prefixLength; i++) {
+      final int comparison = Long.compare(records.get(base + i), pattern[fieldOrder[i]]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return 0;
+  }
+
+  /** Gets the given statement field of the given record.
+   *
+   * @param recordNbr the given record number
+   * @param field the statement field, e.g. SUBJECT
+   * @return the term identifier
+   */
+  public long getField(final int recordNbr, final int field) {
+    return records.get(recordNbr * RECORD_LENGTH + recordPositions[field]);
+  }
+
+  /** Parses the field order from the given index name.
+   *
+   * @param name the index name, e.g. posc
+   * @return the field order
+   */
+  private static int[] parseFieldOrder(final String name) {
+    if (name.length() != RECORD_LENGTH) {
+      throw new TexaiException("invalid index name " + name);
+    }
+    final int[] fieldOrder = new int[RECORD_LENGTH];
+    for (int i = 0; i < RECORD_LENGTH; i++) {
+      final int field = "spoc".indexOf(name.charAt(i));
+      if (field == -1) {
+        throw new TexaiException("invalid index name " + name);
+      }
+      fieldOrder[i] = field;
+    }
+    return fieldOrder;
+  }
+
+  /** Sorts the given records lexicographically with a bottom-up merge sort.
+   *
+   * @param records the given records
+   * @param nbrRecords the number of records
+   * @return the sorted records, which may be the given array or a new one
+   */
+  private static long[] sortRecords(final long[] records, final int nbrRecords) {
+    long[] source = records;
+    long[] target = new long[records.length];
+    for (int width = 1; width < nbrRecords; width *= 2) {
+      for (int left = 0; left < nbrRecords; left += 2 * width) {
+        final int middle = Math.min(left + width, nbrRecords);
+        final int right = Math.min(left + 2 * width, nbrRecords);
+        int i = left;
+        int j = middle;
+        int k = left;
+        while (i < middle && j < right) {
+          if (compareRecords(source, i, source, j) <= 0) {
+            System.arraycopy(source, i++ * RECORD_LENGTH, target, k++ * RECORD_LENGTH, RECORD_LENGTH);
+          } else {
+            System.arraycopy(source, j++ * RECORD_LENGTH, target, k++ * RECORD_LENGTH, RECORD_LENGTH);
+          }
+        }
+        System.arraycopy(source, i * RECORD_LENGTH, target, k * RECORD_LENGTH, (middle - i) * RECORD_LENGTH);
+        k += middle - i;
+        System.arraycopy(source, j * RECORD_LENGTH, target, k * RECORD_LENGTH, (right - j) * RECORD_LENGTH);
+      }
+      final long[] temp = source;
+      source = target;
+      target = temp;
+    }
+    return source;
+  }
+
+  /** Compares two records lexicographically.
+   *
+   * @param records1 the array holding the first record
+   * @param recordNbr1 the first record number
+   * @param records2 the array holding the second record
+   * @param recordNbr2 the second record number
+   * @return a negative number, zero, or a positive number as the first record is less than, equal to, or greater than the
+   * second one
+   */
+  private static int compareRecords(final long[] records1, final int recordNbr1, final long[] records2, final int recordNbr2) {
+    for (int i = 0; i < RECORD_LENGTH; i++) {
+      final int comparison = Long.compare(records1[recordNbr1 * RECORD_LENGTH + i], records2[recordNbr2 * RECORD_LENGTH + i]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return 0;
+  }
+}
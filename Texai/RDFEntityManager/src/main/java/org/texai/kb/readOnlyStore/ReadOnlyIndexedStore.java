@@ -0,0 +1,527 @@
+/*
+ * ReadOnlyIndexedStore.java
+ *
+ * Created on Oct 19, 2026, 3:02:16 PM
+ *
+ * Description: Provides a read-only sail whose statements are dictionary-encoded in memory-mapped, sorted indices.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.readOnlyStore;
+
+import info.aduna.iteration.CloseableIteration;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.model.impl.ValueFactoryImpl;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+import org.openrdf.sail.SailConnection;
+import org.openrdf.sail.SailException;
+import org.openrdf.sail.helpers.SailBase;
+import org.texai.util.TexaiException;
+
+/** Provides a read-only sail whose statements are dictionary-encoded in memory-mapped, sorted indices. Each term is held
+ * once in a term dictionary, and the statements are kept as records of four long identifiers in the SPOC, POSC and OSPC
+ * indices, so that a statement pattern lookup is a binary search over a memory-mapped file that allocates neither index
+ * entries nor terms. The store is intended for a repository, such as OpenCyc, that is not modified at run time. It is built
+ * from an existing repository by the build method, and is served through the Sesame repository interface by wrapping it in a
+ * SailRepository.
+ *
+ * The build writes each file under a temporary name and renames it into place, and then writes a marker file that records the
+ * state of the source repository, so that an interrupted build is never taken for a complete one, and an index whose source has
+ * since changed is rebuilt.
+ *
+ * @author Stephen L. Reed
+ */
+@ThreadSafe
+public final class ReadOnlyIndexedStore extends SailBase {
+
+  /** the logger */
+  private static final Logger LOGGER = Logger.getLogger(ReadOnlyIndexedStore.class);
+  /** the name of the index subdirectory within a repository data directory */
+  public static final String INDEX_DIRECTORY_NAME = "readOnlyIndex";
+  /** the term dictionary file name */
+  private static final String TERMS_FILE_NAME = "terms.dict";
+  /** the marker file name, which is written when the build is complete and which holds the source stamp */
+  private static final String BUILT_MARKER_FILE_NAME = "built.marker";
+  /** the suffix of the files that are being built */
+  private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+  /** the index names */
+  private static final String[] INDEX_NAMES = {"spoc", "posc", "ospc"};
+  /** the value factory */
+  private final ValueFactory valueFactory = ValueFactoryImpl.getInstance();
+  /** the term dictionary */
+  private TermDictionary termDictionary;
+  /** the SPOC index */
+  private QuadIndex spocIndex;
+  /** the POSC index */
+  private QuadIndex poscIndex;
+  /** the OSPC index */
+  private QuadIndex ospcIndex;
+  /** the distinct non-null contexts, which are found when first requested */
+  private List<Resource> contexts;
+
+  /** Constructs a new ReadOnlyIndexedStore instance.
+   *
+   * @param indexDirectory the directory that contains the term dictionary and the index files
+   */
+  public ReadOnlyIndexedStore(final File indexDirectory) {
+    //Preconditions
+    assert indexDirectory != null : "indexDirectory must not be null";
+
+    setDataDir(indexDirectory);
+  }
+
+  /** Returns whether the given directory contains a completely built read-only index.
+   *
+   * @param indexDirectory the given directory
+   * @return whether the given directory contains a completely built read-only index
+   */
+  public static boolean isBuilt(final File indexDirectory) {
+    //Preconditions
+    assert indexDirectory != null : "indexDirectory must not be null";
+
+    return getSourceStamp(indexDirectory) != null;
+  }
+
+  /** Returns whether the given directory contains a completely built read-only index of the source repository having the given
+   * stamp.
+   *
+   * @param indexDirectory the given directory
+   * @param sourceStamp the stamp of the source repository's current state
+   * @return whether the given directory contains a read-only index that is built from the source repository's current state
+   */
+  public static boolean isBuilt(final File indexDirectory, final String sourceStamp) {
+    //Preconditions
+    assert indexDirectory != null : "indexDirectory must not be null";
+    assert sourceStamp != null : "sourceStamp must not be null";
+
+    return sourceStamp.equals(getSourceStamp(indexDirectory));
+  }
+
+  /** Gets the stamp of the source repository that the read-only index in the given directory was built from.
+   *
+   * @param indexDirectory the given directory
+   * @return the source stamp, or null if the directory does not contain a completely built read-only index
+   */
+  public static String getSourceStamp(final File indexDirectory) {
+    //Preconditions
+    assert indexDirectory != null : "indexDirectory must not be null";
+
+    final File builtMarkerFile = new File(indexDirectory, BUILT_MARKER_FILE_NAME);
+    if (!builtMarkerFile.isFile() || !new File(indexDirectory, TERMS_FILE_NAME).isFile()) {
+      return null;
+    }
+    for (final String indexName : INDEX_NAMES) {
+      if (!new File(indexDirectory, indexName + ".idx").isFile()) {
+        return null;
+      }
+    }
+    try {
+      return new String(Files.readAllBytes(builtMarkerFile.toPath()), StandardCharsets.UTF_8);
+    } catch (final IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /** Builds the term dictionary and the indices in the given directory from every statement in the given repository.
+   *
+   * @param repositoryConnection the connection to the source repository
+   * @param indexDirectory the directory that will contain the term dictionary and the index files
+   * @return the number of indexed statements
+   */
+  public static int build(final RepositoryConnection repositoryConnection, final File indexDirectory) {
+    return build(repositoryConnection, indexDirectory, "");
+  }
+
+  /** Builds the term dictionary and the indices in the given directory from every statement in the given repository, replacing
+   * any previously built index, and records the given stamp of the source repository's state.
+   *
+   * @param repositoryConnection the connection to the source repository
+   * @param indexDirectory the directory that will contain the term dictionary and the index files
+   * @param sourceStamp the stamp of the source repository's state, which is obtained before the build begins
+   * @return the number of indexed statements
+   */
+  public static int build(
+          final RepositoryConnection repositoryConnection,
+          final File indexDirectory,
+          final String sourceStamp) {
+    //Preconditions
+    assert repositoryConnection != null : "repositoryConnection must not be null";
+    assert indexDirectory != null : "indexDirectory must not be null";
+    assert sourceStamp != null : "sourceStamp must not be null";
+
+    if (!indexDirectory.isDirectory() && !indexDirectory.mkdirs()) {
+      throw new TexaiException("index directory was not created: " + indexDirectory);
+    }
+    LOGGER.info("building the read-only index in " + indexDirectory);
+    // the previous index is no longer complete once any of its files is replaced
+    final File builtMarkerFile = new File(indexDirectory, BUILT_MARKER_FILE_NAME);
+    if (builtMarkerFile.exists() && !builtMarkerFile.delete()) {
+      throw new TexaiException("built marker was not deleted: " + builtMarkerFile);
+    }
+    final TermDictionary termDictionary = new TermDictionary();
+    long[] statementRecords = new long[1024 * QuadIndex.RECORD_LENGTH];
+    int nbrStatements = 0;
+    try {
+      final RepositoryResult<Statement> repositoryResult = repositoryConnection.getStatements(
+              null, // subj
+              null, // pred
+              null, // obj
+              false); // includeInferred
+      while (repositoryResult.hasNext()) {
+        final Statement statement = repositoryResult.next();
+        if ((nbrStatements + 1) * QuadIndex.RECORD_LENGTH > statementRecords.length) {
+          final long[] newStatementRecords = new long[statementRecords.length * 2];
+          System.arraycopy(statementRecords, 0, newStatementRecords, 0, statementRecords.length);
+          statementRecords = newStatementRecords;
+        }
+        final int base = nbrStatements * QuadIndex.RECORD_LENGTH;
+        statementRecords[base + QuadIndex.SUBJECT] = termDictionary.encode(statement.getSubject());
+        statementRecords[base + QuadIndex.PREDICATE] = termDictionary.encode(statement.getPredicate());
+        statementRecords[base + QuadIndex.OBJECT] = termDictionary.encode(statement.getObject());
+        statementRecords[base + QuadIndex.CONTEXT] = termDictionary.encode(statement.getContext());
+        nbrStatements++;
+      }
+      repositoryResult.close();
+    } catch (final RepositoryException ex) {
+      throw new TexaiException(ex);
+    }
+    final long[] trimmedStatementRecords = new long[nbrStatements * QuadIndex.RECORD_LENGTH];
+    System.arraycopy(statementRecords, 0, trimmedStatementRecords, 0, trimmedStatementRecords.length);
+    final File termsTemporaryFile = new File(indexDirectory, TERMS_FILE_NAME + TEMPORARY_FILE_SUFFIX);
+    termDictionary.write(termsTemporaryFile);
+    for (final String indexName : INDEX_NAMES) {
+      QuadIndex.write(indexName, trimmedStatementRecords, new File(indexDirectory, indexName + ".idx" + TEMPORARY_FILE_SUFFIX));
+    }
+    moveIntoPlace(termsTemporaryFile);
+    for (final String indexName : INDEX_NAMES) {
+      moveIntoPlace(new File(indexDirectory, indexName + ".idx" + TEMPORARY_FILE_SUFFIX));
+    }
+    final File builtMarkerTemporaryFile = new File(indexDirectory, BUILT_MARKER_FILE_NAME + TEMPORARY_FILE_SUFFIX);
+    try {
+      Files.write(builtMarkerTemporaryFile.toPath(), sourceStamp.getBytes(StandardCharsets.UTF_8));
+    } catch (final IOException ex) {
+      throw new TexaiException(ex);
+    }
+    moveIntoPlace(builtMarkerTemporaryFile);
+    LOGGER.info("indexed " + nbrStatements + " statements having " + termDictionary.size() + " terms");
+    return nbrStatements;
+  }
+
+  /** Forces the given temporary file to the storage device, and atomically renames it to its name without the temporary suffix.
+   *
+   * @param temporaryFile the given temporary file
+   */
+  private static void moveIntoPlace(final File temporaryFile) {
+    final String name = temporaryFile.getName();
+    final File file = new File(temporaryFile.getParentFile(), name.substring(0, name.length() - TEMPORARY_FILE_SUFFIX.length()));
+    try {
+      try (FileChannel fileChannel = FileChannel.open(temporaryFile.toPath(), StandardOpenOption.WRITE)) {
+        fileChannel.force(true);
+      }
+      Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (final IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /** Initializes this store by loading the term dictionary and memory-mapping the indices, which is called by the initialize method
+   * of the superclass.
+   *
+   * @throws SailException if the index has not been built
+   */
+  @Override
+  protected synchronized void initializeInternal() throws SailException {
+    final File indexDirectory = getDataDir();
+    if (!isBuilt(indexDirectory)) {
+      throw new SailException("read-only index not built in " + indexDirectory);
+    }
+    termDictionary = TermDictionary.read(new File(indexDirectory, TERMS_FILE_NAME));
+    spocIndex = new QuadIndex("spoc", new File(indexDirectory, "spoc.idx"));
+    poscIndex = new QuadIndex("posc", new File(indexDirectory, "posc.idx"));
+    ospcIndex = new QuadIndex("ospc", new File(indexDirectory, "ospc.idx"));
+    LOGGER.info("initialized the read-only index in " + indexDirectory + ", " + spocIndex.size() + " statements");
+  }
+
+  /** Shuts down this store. The memory-mapped indices are released when they are garbage collected. */
+  @Override
+  protected synchronized void shutDownInternal() {
+    termDictionary = null;
+    contexts = null;
+    spocIndex = null;
+    poscIndex = null;
+    ospcIndex = null;
+  }
+
+  /** Returns a new connection to this store.
+   *
+   * @return a new connection to this store
+   */
+  @Override
+  protected SailConnection getConnectionInternal() {
+    return new ReadOnlyIndexedStoreConnection(this);
+  }
+
+  /** Returns whether this store is writable, which it is not.
+   *
+   * @return false
+   */
+  @Override
+  public boolean isWritable() {
+    return false;
+  }
+
+  /** Gets the value factory.
+   *
+   * @return the value factory
+   */
+  @Override
+  public ValueFactory getValueFactory() {
+    return valueFactory;
+  }
+
+  /** Gets the number of statements in the given contexts, or in the store if no contexts are given.
+   *
+   * @param contexts the given contexts, where a null element denotes the null context
+   * @return the number of statements
+   */
+  long size(final Resource... contexts) {
+    if (contexts.length == 0) {
+      return spocIndex.size();
+    }
+    long size = 0;
+    for (final Resource context : contexts) {
+      try (StatementIteration statementIteration = new StatementIteration(null, null, null, context)) {
+        while (statementIteration.hasNext()) {
+          statementIteration.next();
+          size++;
+        }
+      }
+    }
+    return size;
+  }
+
+  /** Gets the distinct non-null contexts of the statements.
+   *
+   * @return the distinct non-null contexts
+   */
+  synchronized List<Resource> getContexts() {
+    if (contexts == null) {
+      final Set<Long> contextIds = new HashSet<>();
+      final int nbrRecords = spocIndex.size();
+      for (int recordNbr = 0; recordNbr < nbrRecords; recordNbr++) {
+        final long contextId = spocIndex.getField(recordNbr, QuadIndex.CONTEXT);
+        if (contextId != TermDictionary.NULL_CONTEXT_ID) {
+          contextIds.add(contextId);
+        }
+      }
+      final List<Resource> contexts1 = new ArrayList<>(contextIds.size());
+      for (final Long contextId : contextIds) {
+        contexts1.add((Resource) termDictionary.decode(contextId));
+      }
+      contexts = Collections.unmodifiableList(contexts1);
+    }
+    return contexts;
+  }
+
+  /** Returns an iteration over the statements that match the given pattern in the given context.
+   *
+   * @param subject the subject, or null for any
+   * @param predicate the predicate, or null for any
+   * @param object the object, or null for any
+   * @param context the context, which is ignored when anyContext is true
+   * @param anyContext the indicator whether statements in every context match
+   * @return an iteration over the matching statements
+   */
+  StatementIteration getStatements(
+          final Resource subject,
+          final URI predicate,
+          final Value object,
+          final Resource context,
+          final boolean anyContext) {
+    return anyContext
+            ? new StatementIteration(subject, predicate, object)
+            : new StatementIteration(subject, predicate, object, context);
+  }
+
+  /** Provides an iteration over the statements that match a pattern, which scans the index whose field order best fits the
+   * bound fields of the pattern.
+   */
+  final class StatementIteration implements CloseableIteration<Statement, SailException>, AutoCloseable {
+
+    /** the statement pattern, in subject, predicate, object, context field order, whose unbound fields are -1 */
+    private final long[] pattern = new long[QuadIndex.RECORD_LENGTH];
+    /** the scanned index */
+    private final QuadIndex quadIndex;
+    /** the number of leading record positions searched */
+    private final int prefixLength;
+    /** the next record number to examine */
+    private int recordNbr;
+    /** the next matching statement, or null if it has not been found */
+    private Statement nextStatement;
+    /** the indicator whether the iteration is exhausted */
+    private boolean isExhausted = false;
+
+    /** Constructs a new StatementIteration instance that matches statements in every context.
+     *
+     * @param subject the subject, or null for any
+     * @param predicate the predicate, or null for any
+     * @param object the object, or null for any
+     */
+    StatementIteration(final Resource subject, final URI predicate, final Value object) {
+      this(subject, predicate, object, -1, false);
+    }
+
+    /** Constructs a new StatementIteration instance that matches statements in the given context.
+     *
+     * @param subject the subject, or null for any
+     * @param predicate the predicate, or null for any
+     * @param object the object, or null for any
+     * @param context the context, or null for the null context
+     */
+    StatementIteration(
+            final Resource subject,
+            final URI predicate,
+            final Value object,
+            final Resource context) {
+      this(subject, predicate, object, termDictionary.lookup(context), true);
+    }
+
+    /** Constructs a new StatementIteration instance.
+     *
+     * @param subject the subject, or null for any
+     * @param predicate the predicate, or null for any
+     * @param object the object, or null for any
+     * @param contextId the context identifier, or -1 for any context
+     * @param isContextBound the indicator whether a context was given, in which case an unknown context matches no statement
+     */
+    private StatementIteration(
+            final Resource subject,
+            final URI predicate,
+            final Value object,
+            final long contextId,
+            final boolean isContextBound) {
+      pattern[QuadIndex.SUBJECT] = subject == null ? -1 : termDictionary.lookup(subject);
+      pattern[QuadIndex.PREDICATE] = predicate == null ? -1 : termDictionary.lookup(predicate);
+      pattern[QuadIndex.OBJECT] = object == null ? -1 : termDictionary.lookup(object);
+      pattern[QuadIndex.CONTEXT] = contextId;
+      if ((subject != null && pattern[QuadIndex.SUBJECT] == TermDictionary.UNKNOWN_TERM_ID)
+              || (predicate != null && pattern[QuadIndex.PREDICATE] == TermDictionary.UNKNOWN_TERM_ID)
+              || (object != null && pattern[QuadIndex.OBJECT] == TermDictionary.UNKNOWN_TERM_ID)
+              || (isContextBound && contextId == TermDictionary.UNKNOWN_TERM_ID)) {
+        // a term that is not in the dictionary matches no statement
+        isExhausted = true;
+      }
+      if (subject != null && (object == null || predicate != null)) {
+        quadIndex = spocIndex;
+      } else if (predicate != null) {
+        quadIndex = poscIndex;
+      } else if (object != null) {
+        quadIndex = ospcIndex;
+      } else {
+        quadIndex = spocIndex;
+      }
+      prefixLength = quadIndex.boundPrefixLength(pattern);
+      recordNbr = isExhausted ? quadIndex.size() : quadIndex.lowerBound(pattern, prefixLength);
+    }
+
+    /** Returns whether there is another matching statement.
+     *
+     * @return whether there is another matching statement
+     */
+    @Override
+    public boolean hasNext() {
+      if (nextStatement != null) {
+        return true;
+      }
+      while (!isExhausted) {
+        if (recordNbr >= quadIndex.size() || quadIndex.comparePrefix(recordNbr, pattern, prefixLength) != 0) {
+          isExhausted = true;
+          break;
+        }
+        final int currentRecordNbr = recordNbr++;
+        if (matches(currentRecordNbr)) {
+          nextStatement = decode(currentRecordNbr);
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Returns the next matching statement.
+     *
+     * @return the next matching statement
+     */
+    @Override
+    public Statement next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Statement statement = nextStatement;
+      nextStatement = null;
+      return statement;
+    }
+
+    /** Removes the last returned statement, which is not supported by this read-only store. */
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("read-only store");
+    }
+
+    /** Closes this iteration. */
+    @Override
+    public void close() {
+      isExhausted = true;
+      nextStatement = null;
+    }
+
+    /** Returns whether the given record matches the bound fields of the pattern that lie beyond the searched prefix.
+     *
+     * @param recordNbr the given record number
+     * @return whether the given record matches the pattern
+     */
+    private boolean matches(final int recordNbr) {
+      for (int field = 0; field < QuadIndex.RECORD_LENGTH; field++) {
+        if (pattern[field] >= 0 && quadIndex.getField(recordNbr, field) != pattern[field]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Decodes the given record into a statement whose terms are held by the term dictionary.
+     *
+     * @param recordNbr the given record number
+     * @return the statement
+     */
+    private Statement decode(final int recordNbr) {
+      final Resource subject = (Resource) termDictionary.decode(quadIndex.getField(recordNbr, QuadIndex.SUBJECT));
+      final URI predicate = (URI) termDictionary.decode(quadIndex.getField(recordNbr, QuadIndex.PREDICATE));
+      final Value object = termDictionary.decode(quadIndex.getField(recordNbr, QuadIndex.OBJECT));
+      final Resource context = (Resource) termDictionary.decode(quadIndex.getField(recordNbr, QuadIndex.CONTEXT));
+      return context == null
+              ? valueFactory.createStatement(subject, predicate, object)
+              : valueFactory.createStatement(subject, predicate, object, context);
+    }
+  }
+}
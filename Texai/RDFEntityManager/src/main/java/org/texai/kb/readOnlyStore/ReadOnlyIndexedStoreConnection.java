@@ -0,0 +1,329 @@
+/*
+ * ReadOnlyIndexedStoreConnection.java
+ *
+ * Created on Oct 19, 2026, 3:40:08 PM
+ *
+ * Description: Provides a connection to a read-only indexed store.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.readOnlyStore;
+
+import info.aduna.iteration.CloseableIteration;
+import info.aduna.iteration.CloseableIteratorIteration;
+import info.aduna.iteration.EmptyIteration;
+import info.aduna.iteration.ExceptionConvertingIteration;
+import info.aduna.iteration.Iteration;
+import info.aduna.iteration.UnionIteration;
+import java.util.ArrayList;
+import java.util.List;
+import net.jcip.annotations.NotThreadSafe;
+import org.openrdf.model.Namespace;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.ValueFactory;
+import org.openrdf.query.BindingSet;
+import org.openrdf.query.Dataset;
+import org.openrdf.query.QueryEvaluationException;
+import org.openrdf.query.algebra.QueryRoot;
+import org.openrdf.query.algebra.TupleExpr;
+import org.openrdf.query.algebra.evaluation.EvaluationStrategy;
+import org.openrdf.query.algebra.evaluation.TripleSource;
+import org.openrdf.query.algebra.evaluation.impl.BindingAssigner;
+import org.openrdf.query.algebra.evaluation.impl.CompareOptimizer;
+import org.openrdf.query.algebra.evaluation.impl.ConjunctiveConstraintSplitter;
+import org.openrdf.query.algebra.evaluation.impl.ConstantOptimizer;
+import org.openrdf.query.algebra.evaluation.impl.DisjunctiveConstraintOptimizer;
+import org.openrdf.query.algebra.evaluation.impl.EvaluationStatistics;
+import org.openrdf.query.algebra.evaluation.impl.EvaluationStrategyImpl;
+import org.openrdf.query.algebra.evaluation.impl.FilterOptimizer;
+import org.openrdf.query.algebra.evaluation.impl.IterativeEvaluationOptimizer;
+import org.openrdf.query.algebra.evaluation.impl.OrderLimitOptimizer;
+import org.openrdf.query.algebra.evaluation.impl.QueryJoinOptimizer;
+import org.openrdf.query.algebra.evaluation.impl.QueryModelNormalizer;
+import org.openrdf.query.algebra.evaluation.impl.SameTermFilterOptimizer;
+import org.openrdf.sail.SailException;
+import org.openrdf.sail.helpers.SailConnectionBase;
+
+/** Provides a connection to a read-only indexed store. Statement patterns are answered from the store's indices, and queries
+ * are evaluated by the Sesame evaluation strategy over those patterns. Every operation that would modify the store fails.
+ *
+ * @author Stephen L. Reed
+ */
+@NotThreadSafe
+public final class ReadOnlyIndexedStoreConnection extends SailConnectionBase {
+
+  /** the read-only indexed store */
+  private final ReadOnlyIndexedStore readOnlyIndexedStore;
+
+  /** Constructs a new ReadOnlyIndexedStoreConnection instance.
+   *
+   * @param readOnlyIndexedStore the read-only indexed store
+   */
+  ReadOnlyIndexedStoreConnection(final ReadOnlyIndexedStore readOnlyIndexedStore) {
+    super(readOnlyIndexedStore);
+    //Preconditions
+    assert readOnlyIndexedStore != null : "readOnlyIndexedStore must not be null";
+
+    this.readOnlyIndexedStore = readOnlyIndexedStore;
+  }
+
+  /** Closes this connection, which holds no resources. */
+  @Override
+  protected void closeInternal() {
+    // the indices are owned by the store
+  }
+
+  /** Evaluates the given query expression.
+   *
+   * @param tupleExpr the query expression
+   * @param dataset the dataset, or null to query every context
+   * @param bindings the variable bindings
+   * @param includeInferred the indicator whether to include inferred statements, which this store does not distinguish
+   * @return an iteration over the query results
+   * @throws SailException when the query cannot be evaluated
+   */
+  @Override
+  protected CloseableIteration<? extends BindingSet, QueryEvaluationException> evaluateInternal(
+          final TupleExpr tupleExpr,
+          final Dataset dataset,
+          final BindingSet bindings,
+          final boolean includeInferred) throws SailException {
+    // the optimizers modify the expression, which may be a cached parsed query
+    TupleExpr tupleExpr1 = tupleExpr.clone();
+    if (!(tupleExpr1 instanceof QueryRoot)) {
+      tupleExpr1 = new QueryRoot(tupleExpr1);
+    }
+    final EvaluationStrategy evaluationStrategy = new EvaluationStrategyImpl(new IndexTripleSource(), dataset);
+    new BindingAssigner().optimize(tupleExpr1, dataset, bindings);
+    new ConstantOptimizer(evaluationStrategy).optimize(tupleExpr1, dataset, bindings);
+    new CompareOptimizer().optimize(tupleExpr1, dataset, bindings);
+    new ConjunctiveConstraintSplitter().optimize(tupleExpr1, dataset, bindings);
+    new DisjunctiveConstraintOptimizer().optimize(tupleExpr1, dataset, bindings);
+    new SameTermFilterOptimizer().optimize(tupleExpr1, dataset, bindings);
+    new QueryModelNormalizer().optimize(tupleExpr1, dataset, bindings);
+    new QueryJoinOptimizer(new EvaluationStatistics()).optimize(tupleExpr1, dataset, bindings);
+    new IterativeEvaluationOptimizer().optimize(tupleExpr1, dataset, bindings);
+    new FilterOptimizer().optimize(tupleExpr1, dataset, bindings);
+    new OrderLimitOptimizer().optimize(tupleExpr1, dataset, bindings);
+    try {
+      return evaluationStrategy.evaluate(tupleExpr1, bindings);
+    } catch (final QueryEvaluationException ex) {
+      throw new SailException(ex);
+    }
+  }
+
+  /** Gets the distinct non-null contexts.
+   *
+   * @return an iteration over the distinct non-null contexts
+   */
+  @Override
+  protected CloseableIteration<? extends Resource, SailException> getContextIDsInternal() {
+    return new CloseableIteratorIteration<>(readOnlyIndexedStore.getContexts().iterator());
+  }
+
+  /** Gets the statements that match the given pattern.
+   *
+   * @param subj the subject, or null for any
+   * @param pred the predicate, or null for any
+   * @param obj the object, or null for any
+   * @param includeInferred the indicator whether to include inferred statements, which this store does not distinguish
+   * @param contexts the contexts, where none denotes every context and a null element denotes the null context
+   * @return an iteration over the matching statements
+   */
+  @Override
+  protected CloseableIteration<? extends Statement, SailException> getStatementsInternal(
+          final Resource subj,
+          final URI pred,
+          final Value obj,
+          final boolean includeInferred,
+          final Resource... contexts) {
+    return getStatements(subj, pred, obj, contexts);
+  }
+
+  /** Gets the number of statements in the given contexts.
+   *
+   * @param contexts the contexts, where none denotes every context and a null element denotes the null context
+   * @return the number of statements
+   */
+  @Override
+  protected long sizeInternal(final Resource... contexts) {
+    return readOnlyIndexedStore.size(contexts);
+  }
+
+  /** Starts a transaction, which has no effect on this read-only store. */
+  @Override
+  protected void startTransactionInternal() {
+    // nothing to do
+  }
+
+  /** Commits the transaction, which has no effect on this read-only store. */
+  @Override
+  protected void commitInternal() {
+    // nothing to do
+  }
+
+  /** Rolls back the transaction, which has no effect on this read-only store. */
+  @Override
+  protected void rollbackInternal() {
+    // nothing to do
+  }
+
+  /** Adds a statement, which is not supported by this read-only store.
+   *
+   * @param subj the subject
+   * @param pred the predicate
+   * @param obj the object
+   * @param contexts the contexts
+   * @throws SailException always
+   */
+  @Override
+  protected void addStatementInternal(
+          final Resource subj,
+          final URI pred,
+          final Value obj,
+          final Resource... contexts) throws SailException {
+    throw new SailException("read-only store");
+  }
+
+  /** Removes statements, which is not supported by this read-only store.
+   *
+   * @param subj the subject
+   * @param pred the predicate
+   * @param obj the object
+   * @param contexts the contexts
+   * @throws SailException always
+   */
+  @Override
+  protected void removeStatementsInternal(
+          final Resource subj,
+          final URI pred,
+          final Value obj,
+          final Resource... contexts) throws SailException {
+    throw new SailException("read-only store");
+  }
+
+  /** Clears statements, which is not supported by this read-only store.
+   *
+   * @param contexts the contexts
+   * @throws SailException always
+   */
+  @Override
+  protected void clearInternal(final Resource... contexts) throws SailException {
+    throw new SailException("read-only store");
+  }
+
+  /** Gets the namespaces, which this store does not keep.
+   *
+   * @return an empty iteration
+   */
+  @Override
+  protected CloseableIteration<? extends Namespace, SailException> getNamespacesInternal() {
+    return new EmptyIteration<>();
+  }
+
+  /** Gets the namespace having the given prefix, which this store does not keep.
+   *
+   * @param prefix the prefix
+   * @return null
+   */
+  @Override
+  protected String getNamespaceInternal(final String prefix) {
+    return null;
+  }
+
+  /** Sets a namespace, which is not supported by this read-only store.
+   *
+   * @param prefix the prefix
+   * @param name the namespace name
+   * @throws SailException always
+   */
+  @Override
+  protected void setNamespaceInternal(final String prefix, final String name) throws SailException {
+    throw new SailException("read-only store");
+  }
+
+  /** Removes a namespace, which is not supported by this read-only store.
+   *
+   * @param prefix the prefix
+   * @throws SailException always
+   */
+  @Override
+  protected void removeNamespaceInternal(final String prefix) throws SailException {
+    throw new SailException("read-only store");
+  }
+
+  /** Clears the namespaces, which is not supported by this read-only store.
+   *
+   * @throws SailException always
+   */
+  @Override
+  protected void clearNamespacesInternal() throws SailException {
+    throw new SailException("read-only store");
+  }
+
+  /** Gets the statements that match the given pattern in the given contexts.
+   *
+   * @param subj the subject, or null for any
+   * @param pred the predicate, or null for any
+   * @param obj the object, or null for any
+   * @param contexts the contexts, where none denotes every context and a null element denotes the null context
+   * @return an iteration over the matching statements
+   */
+  private CloseableIteration<Statement, SailException> getStatements(
+          final Resource subj,
+          final URI pred,
+          final Value obj,
+          final Resource... contexts) {
+    if (contexts.length == 0) {
+      return readOnlyIndexedStore.getStatements(subj, pred, obj, null, true);
+    } else if (contexts.length == 1) {
+      return readOnlyIndexedStore.getStatements(subj, pred, obj, contexts[0], false);
+    } else {
+      final List<Iteration<? extends Statement, SailException>> iterations = new ArrayList<>(contexts.length);
+      for (final Resource context : contexts) {
+        iterations.add(readOnlyIndexedStore.getStatements(subj, pred, obj, context, false));
+      }
+      return new UnionIteration<>(iterations);
+    }
+  }
+
+  /** Provides the statements of the store to the query evaluation strategy. */
+  private final class IndexTripleSource implements TripleSource {
+
+    /** Gets the statements that match the given pattern in the given contexts.
+     *
+     * @param subj the subject, or null for any
+     * @param pred the predicate, or null for any
+     * @param obj the object, or null for any
+     * @param contexts the contexts, where none denotes every context and a null element denotes the null context
+     * @return an iteration over the matching statements
+     */
+    @Override
+    public CloseableIteration<? extends Statement, QueryEvaluationException> getStatements(
+            final Resource subj,
+            final URI pred,
+            final Value obj,
+            final Resource... contexts) {
+      return new ExceptionConvertingIteration<Statement, QueryEvaluationException>(
+              ReadOnlyIndexedStoreConnection.this.getStatements(subj, pred, obj, contexts)) {
+
+                @Override
+                protected QueryEvaluationException convert(final Exception ex) {
+                  return new QueryEvaluationException(ex);
+                }
+              };
+    }
+
+    /** Gets the value factory.
+     *
+     * @return the value factory
+     */
+    @Override
+    public ValueFactory getValueFactory() {
+      return readOnlyIndexedStore.getValueFactory();
+    }
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * TermDictionary.java
+ *
+ * Created on Oct 19, 2026, 2:05:31 PM
+ *
+ * Description: Provides a dictionary that encodes RDF terms as long identifiers.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.kb.readOnlyStore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.jcip.annotations.NotThreadSafe;
+import org.openrdf.model.BNode;
+import org.openrdf.model.Literal;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.model.impl.BNodeImpl;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.texai.util.TexaiException;
+
+/** Provides a dictionary that encodes RDF terms as long identifiers. Identifiers are assigned densely from one, so that the
+ * identifier zero denotes the null context, and each term is held once, so that statements decoded from the indices share
+ * their term objects. The dictionary is not modified once it is loaded, and may then be read by many threads.
+ *
+ * @author Stephen L. Reed
+ */
+@NotThreadSafe
+public final class TermDictionary {
+
+  /** the identifier that denotes the null context */
+  public static final long NULL_CONTEXT_ID = 0;
+  /** the identifier returned for a term that is not in the dictionary */
+  public static final long UNKNOWN_TERM_ID = -1;
+  /** the URI term kind */
+  private static final byte URI_KIND = 0;
+  /** the blank node term kind */
+  private static final byte BNODE_KIND = 1;
+  /** the plain literal term kind */
+  private static final byte PLAIN_LITERAL_KIND = 2;
+  /** the typed literal term kind */
+  private static final byte TYPED_LITERAL_KIND = 3;
+  /** the language-tagged literal term kind */
+  private static final byte LANGUAGE_LITERAL_KIND = 4;
+  /** the terms, indexed by identifier, where the zeroth element is unused */
+  private final List<Value> terms = new ArrayList<>();
+  /** the identifier dictionary, term --> identifier */
+  private final Map<Value, Long> idDictionary = new HashMap<>();
+
+  /** Constructs a new, empty TermDictionary instance. */
+  public TermDictionary() {
+    terms.add(null);
+  }
+
+  /** Gets the identifier of the given term, adding the term if it is not yet in the dictionary.
+   *
+   * @param term the given term, or null for the null context
+   * @return the identifier of the given term
+   */
+  public long encode(final Value term) {
+    if (term == null) {
+      return NULL_CONTEXT_ID;
+    }
+    final Long id = idDictionary.get(term);
+    if (id == null) {
+      final long newId = terms.size();
+      terms.add(term);
+      idDictionary.put(term, newId);
+      return newId;
+    } else {
+      return id;
+    }
+  }
+
+  /** Gets the identifier of the given term, without adding it.
+   *
+   * @param term the given term, or null for the null context
+   * @return the identifier of the given term, or UNKNOWN_TERM_ID if the term is not in the dictionary
+   */
+  public long lookup(final Value term) {
+    if (term == null) {
+      return NULL_CONTEXT_ID;
+    }
+    final Long id = idDictionary.get(term);
+    return id == null ? UNKNOWN_TERM_ID : id;
+  }
+
+  /** Gets the term having the given identifier.
+   *
+   * @param id the given identifier
+   * @return the term, or null for the null context
+   */
+  public Value decode(final long id) {
+    //Preconditions
+    assert id >= 0 && id < terms.size() : "id out of range " + id;
+
+    return terms.get((int) id);
+  }
+
+  /** Gets the number of terms.
+   *
+   * @return the number of terms
+   */
+  public int size() {
+    return terms.size() - 1;
+  }
+
+  /** Writes this dictionary to the given file, in identifier order.
+   *
+   * @param file the given file
+   */
+  public void write(final File file) {
+    //Preconditions
+    assert file != null : "file must not be null";
+
+    try (DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+      dataOutputStream.writeInt(size());
+      for (int id = 1; id < terms.size(); id++) {
+        final Value term = terms.get(id);
+        if (term instanceof URI) {
+          dataOutputStream.writeByte(URI_KIND);
+          writeString(dataOutputStream, term.stringValue());
+        } else if (term instanceof BNode) {
+          dataOutputStream.writeByte(BNODE_KIND);
+          writeString(dataOutputStream, ((BNode) term).getID());
+        } else {
+          final Literal literal = (Literal) term;
+          if (literal.getDatatype() != null) {
+            dataOutputStream.writeByte(TYPED_LITERAL_KIND);
+            writeString(dataOutputStream, literal.getLabel());
+            writeString(dataOutputStream, literal.getDatatype().stringValue());
+          } else if (literal.getLanguage() != null) {
+            dataOutputStream.writeByte(LANGUAGE_LITERAL_KIND);
+            writeString(dataOutputStream, literal.getLabel());
+            writeString(dataOutputStream, literal.getLanguage());
+          } else {
+            dataOutputStream.writeByte(PLAIN_LITERAL_KIND);
+            writeString(dataOutputStream, literal.getLabel());
+          }
+        }
+      }
+    } catch (final IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /** Reads a dictionary from the given file.
+   *
+   * @param file the given file
+   * @return the dictionary
+   */
+  public static TermDictionary read(final File file) {
+    //Preconditions
+    assert file != null : "file must not be null";
+
+    final TermDictionary termDictionary = new TermDictionary();
+    try (DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      final int nbrTerms = dataInputStream.readInt();
+      for (int i = 0; i < nbrTerms; i++) {
+        final byte kind = dataInputStream.readByte();
+        final Value term;
+        switch (kind) {
+          case URI_KIND:
+            term = new URIImpl(readString(dataInputStream));
+            break;
+          case BNODE_KIND:
+            term = new BNodeImpl(readString(dataInputStream));
+            break;
+          case PLAIN_LITERAL_KIND:
+            term = new LiteralImpl(readString(dataInputStream));
+            break;
+          case TYPED_LITERAL_KIND: {
+            final String label = readString(dataInputStream);
+            term = new LiteralImpl(label, (URI) termDictionary.intern(new URIImpl(readString(dataInputStream))));
+            break;
+          }
+          case LANGUAGE_LITERAL_KIND: {
+            final String label = readString(dataInputStream);
+            term = new LiteralImpl(label, readString(dataInputStream));
+            break;
+          }
+          default:
+            throw new TexaiException("invalid term kind " + kind + " in " + file);
+        }
+        termDictionary.encode(term);
+      }
+    } catch (final IOException ex) {
+      throw new TexaiException(ex);
+    }
+    return termDictionary;
+  }
+
+  /** Returns the dictionary's own instance of the given term if it has one, otherwise the given term.
+   *
+   * @param term the given term
+   * @return the dictionary's own instance of the given term if it has one, otherwise the given term
+   */
+  private Value intern(final Value term) {
+    final Long id = idDictionary.get(term);
+    return id == null ? term : terms.get(id.intValue());
+  }
+
+  /** Writes the given string as a length-prefixed UTF-8 byte sequence, which unlike writeUTF is not limited to 64K bytes.
+   *
+   * @param dataOutputStream the data output stream
+   * @param string the given string
+   * @throws IOException when an input/output error occurs
+   */
+  private static void writeString(final DataOutputStream dataOutputStream, final String string) throws IOException {
+    final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    dataOutputStream.writeInt(bytes.length);
+    dataOutputStream.write(bytes);
+  }
+
+  /** Reads a length-prefixed UTF-8 string.
+   *
+   * @param dataInputStream the data input stream
+   * @return the string
+   * @throws IOException when an input/output error occurs
+   */
+  private static String readString(final DataInputStream dataInputStream) throws IOException {
+    final byte[] bytes = new byte[dataInputStream.readInt()];
+    dataInputStream.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
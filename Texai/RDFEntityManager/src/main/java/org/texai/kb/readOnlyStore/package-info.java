@@ -0,0 +1,2 @@
+/** The read-only, dictionary-encoded indexed store classes. */
+package org.texai.kb.readOnlyStore;
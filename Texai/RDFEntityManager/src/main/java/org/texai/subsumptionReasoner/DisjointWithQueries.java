@@ -29,6 +29,7 @@ import org.openrdf.query.TupleQuery;
 import org.openrdf.query.TupleQueryResult;
 import org.openrdf.repository.RepositoryConnection;
 import org.texai.kb.Constants;
+import org.texai.kb.persistence.PreparedQueryCache;
 import org.texai.kb.persistence.RDFEntityManager;
 import org.texai.kb.persistence.RDFUtility;
 import org.texai.subsumptionGraph.CachedSubsumptionGraph;
@@ -71,7 +72,8 @@ public class DisjointWithQueries {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository("OpenCyc");
     assert repositoryConnection != null;
     try {
-      disjointWithQuery = repositoryConnection.prepareTupleQuery(
+      disjointWithQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               DISJOINT_WITH_QUERY_STRING);
     } catch (final MalformedQueryException ex) {
@@ -28,6 +28,7 @@ import org.openrdf.query.TupleQuery;
 import org.openrdf.query.TupleQueryResult;
 import org.openrdf.repository.RepositoryConnection;
 import org.texai.kb.Constants;
+import org.texai.kb.persistence.PreparedQueryCache;
 import org.texai.kb.persistence.RDFEntityManager;
 import org.texai.kb.persistence.RDFUtility;
 import org.texai.subsumptionGraph.CachedSubsumptionGraph;
@@ -100,7 +101,8 @@ public class SubClassOfQueries {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     boolean isDirectSubClassOf;
     try {
-      final TupleQuery subClassOfTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery subClassOfTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               SUBCLASSOF_QUERY_STRING);
       subClassOfTupleQuery.setBinding("s", term);
@@ -304,7 +306,8 @@ public class SubClassOfQueries {
       final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
       final Set<URI> directSuperClassTerms = new ArraySet<>();
       try {
-        final TupleQuery subClassOfTupleQuery = repositoryConnection.prepareTupleQuery(
+        final TupleQuery subClassOfTupleQuery = PreparedQueryCache.prepareTupleQuery(
+                repositoryConnection,
                 QueryLanguage.SERQL,
                 SUBCLASSOF_QUERY_STRING);
         subClassOfTupleQuery.setBinding("s", term);
@@ -398,7 +401,8 @@ public class SubClassOfQueries {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     final Set<URI> directSubClassTerms = new ArraySet<>();
     try {
-      final TupleQuery subClassOfTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery subClassOfTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               SUBCLASSOF_QUERY_STRING);
       subClassOfTupleQuery.setBinding("o", term);
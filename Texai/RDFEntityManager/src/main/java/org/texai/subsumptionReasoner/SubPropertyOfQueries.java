@@ -26,6 +26,7 @@ import org.openrdf.query.TupleQuery;
 import org.openrdf.query.TupleQueryResult;
 import org.openrdf.repository.RepositoryConnection;
 import org.texai.kb.Constants;
+import org.texai.kb.persistence.PreparedQueryCache;
 import org.texai.kb.persistence.RDFEntityManager;
 import org.texai.util.ArraySet;
 import org.texai.util.LRUMap;
@@ -80,7 +81,8 @@ public class SubPropertyOfQueries {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     boolean isDirectSubPropertyOf;
     try {
-      final TupleQuery subPropertyOfTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery subPropertyOfTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               SUBCLASSOF_QUERY_STRING);
       subPropertyOfTupleQuery.setBinding("s", property);
@@ -153,7 +155,8 @@ public class SubPropertyOfQueries {
 
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     try {
-      final TupleQuery subPropertyOfTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery subPropertyOfTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               SUBCLASSOF_QUERY_STRING);
       subPropertyOfTupleQuery.setBinding("s", property1);
@@ -209,7 +212,8 @@ public class SubPropertyOfQueries {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     final Set<URI> directSuperPropertyTerms = new ArraySet<>();
     try {
-      final TupleQuery subPropertyOfTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery subPropertyOfTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               SUBCLASSOF_QUERY_STRING);
       subPropertyOfTupleQuery.setBinding("s", term);
@@ -300,7 +304,8 @@ public class SubPropertyOfQueries {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     final Set<URI> directSubPropertyTerms = new ArraySet<>();
     try {
-      final TupleQuery subPropertyOfTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery subPropertyOfTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               SUBCLASSOF_QUERY_STRING);
       subPropertyOfTupleQuery.setBinding("o", term);
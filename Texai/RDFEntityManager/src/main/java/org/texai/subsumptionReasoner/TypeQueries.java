@@ -28,6 +28,7 @@ import org.openrdf.query.TupleQuery;
 import org.openrdf.query.TupleQueryResult;
 import org.openrdf.repository.RepositoryConnection;
 import org.texai.kb.Constants;
+import org.texai.kb.persistence.PreparedQueryCache;
 import org.texai.kb.persistence.RDFEntityManager;
 import org.texai.kb.persistence.RDFUtility;
 import org.texai.util.LRUMap;
@@ -99,7 +100,8 @@ public class TypeQueries {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     boolean isDirectType;
     try {
-      final TupleQuery typeTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery typeTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               TYPE_QUERY_STRING);
       typeTupleQuery.setBinding("s", term);
@@ -146,7 +148,8 @@ public class TypeQueries {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     try {
       final List<URI> directTypeTerms = new ArrayList<>();
-      final TupleQuery typeTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery typeTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               TYPE_QUERY_STRING);
       typeTupleQuery.setBinding("s", term);
@@ -252,7 +255,8 @@ public class TypeQueries {
     boolean isType = false;
     try {
       final List<URI> directTypeTerms = new ArrayList<>();
-      final TupleQuery typeTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery typeTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               TYPE_QUERY_STRING);
       typeTupleQuery.setBinding("s", term);
@@ -317,7 +321,8 @@ public class TypeQueries {
 
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     try {
-      final TupleQuery subClassOfTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery subClassOfTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               SUBCLASSOF_QUERY_STRING);
       subClassOfTupleQuery.setBinding("s", typeTerm1);
@@ -396,7 +401,8 @@ public class TypeQueries {
     }
 
     try {
-      final TupleQuery subClassOfTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery subClassOfTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               SUBCLASSOF_QUERY_STRING);
       subClassOfTupleQuery.setBinding("s", typeTerm1);
@@ -475,7 +481,8 @@ public class TypeQueries {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     directTypeTerms = new HashSet<>();
     try {
-      final TupleQuery typeTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery typeTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               TYPE_QUERY_STRING);
       typeTupleQuery.setBinding("s", term);
@@ -513,7 +520,8 @@ public class TypeQueries {
     final RepositoryConnection repositoryConnection = rdfEntityManager.getConnectionToNamedRepository(repositoryName);
     final Set<URI> directInstances = new HashSet<>();
     try {
-      final TupleQuery typeTupleQuery = repositoryConnection.prepareTupleQuery(
+      final TupleQuery typeTupleQuery = PreparedQueryCache.prepareTupleQuery(
+              repositoryConnection,
               QueryLanguage.SERQL,
               TYPE_QUERY_STRING);
       typeTupleQuery.setBinding("o", typeTerm);
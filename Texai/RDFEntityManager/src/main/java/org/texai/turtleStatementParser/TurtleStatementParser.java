@@ -2,7 +2,6 @@
 package org.texai.turtleStatementParser;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -19,7 +18,9 @@ import org.openrdf.model.impl.NumericLiteralImpl;
 import org.openrdf.model.impl.StatementImpl;
 import org.openrdf.model.impl.URIImpl;
 import org.texai.kb.Constants;
+import org.texai.turtleStatementParser.misc.CharSequenceReader;
 import org.texai.turtleStatementParser.misc.ParsedTurtleStatementHandler;
+import org.texai.util.LRUMap;
 import org.texai.util.TexaiException;
 
 /**  Provides lexicon and grammar for the turtle RDF statement format. */
@@ -32,14 +33,31 @@ public class TurtleStatementParser implements TurtleStatementParserConstants {
 
   /** the URI namespace dictionary, prefix --> namespace */
   private final HashMap<String, String> namespaceDictionary = new HashMap<>();
+  /** the maximum number of cached URIs */
+  private static final int URI_CACHE_CAPACITY = 10000;
+  /** the URI cache, URI or qualified name token image --> URI, which lets repeated IRIs share one URI object */
+  private final LRUMap<String, URI> uriCache = new LRUMap<>(100, URI_CACHE_CAPACITY);
+  /** the re-pointable reader used by a resettable parser, or null if this parser reads a given stream */
+  private CharSequenceReader charSequenceReader;
 
   /** Returns a statement parser for the given string.
    * @param string the given string
    * @return a statement parser for the given string
    */
   public static TurtleStatementParser makeTurtleStatementParser(final String string) {
-    final TurtleStatementParser turtleStatementParser
-            = new TurtleStatementParser(new BufferedInputStream(new ByteArrayInputStream(string.getBytes())));
+    final TurtleStatementParser turtleStatementParser = new TurtleStatementParser(new CharSequenceReader(string));
+    turtleStatementParser.initialize();
+    return turtleStatementParser;
+  }
+
+  /** Returns a resettable statement parser, which is re-pointed at each statement to parse by the parseStatement method,
+   * reusing its character buffers, token manager and URI cache.
+   * @return a resettable statement parser
+   */
+  public static TurtleStatementParser makeResettableTurtleStatementParser() {
+    final CharSequenceReader charSequenceReader = new CharSequenceReader("");
+    final TurtleStatementParser turtleStatementParser = new TurtleStatementParser(charSequenceReader);
+    turtleStatementParser.charSequenceReader = charSequenceReader;
     turtleStatementParser.initialize();
     return turtleStatementParser;
   }
@@ -87,6 +105,35 @@ public class TurtleStatementParser implements TurtleStatementParserConstants {
     }
   }
 
+  /** Parses the statement in the given range of the given character sequence, such as a journal line or a char buffer.
+   * This parser must have been made by makeResettableTurtleStatementParser.
+   *
+   * @param charSequence the given character sequence
+   * @param start the index of the first character of the statement
+   * @param end the index following the last character of the statement
+   * @return the parsed statement
+   * @throws ParseException if the statement cannot be parsed
+   */
+  public Statement parseStatement(final CharSequence charSequence, final int start, final int end) throws ParseException {
+    //Preconditions
+    assert charSequenceReader != null : "this parser must be resettable";
+
+    charSequenceReader.reset(charSequence, start, end);
+    ReInit(charSequenceReader);
+    return Statement();
+  }
+
+  /** Caches the given URI for the given token image.
+   *
+   * @param tokenImage the given URI or qualified name token image
+   * @param uri the given URI
+   * @return the given URI
+   */
+  private URI cacheURI(final String tokenImage, final URI uri) {
+    uriCache.put(tokenImage, uri);
+    return uri;
+  }
+
   /** Sets the parsed turtle statement handler.
    *
    * @param parsedTurtleStatementHandler the parsed turtle statement handler
@@ -227,6 +274,14 @@ public class TurtleStatementParser implements TurtleStatementParserConstants {
 
   final public Resource QName() throws ParseException {
     jj_consume_token(QNAME);
+    final URI cachedURI = uriCache.get(token.image);
+    if (cachedURI != null) {
+      {
+        if (true) {
+          return cachedURI;
+        }
+      }
+    }
     String uriString = token.image;
     int index = uriString.indexOf(":");
     if (index > -1) {
@@ -250,7 +305,7 @@ public class TurtleStatementParser implements TurtleStatementParserConstants {
       } else {
         {
           if (true) {
-            return new URIImpl(namespace + localName);
+            return cacheURI(token.image, new URIImpl(namespace + localName));
           }
         }
       }
@@ -280,6 +335,14 @@ public class TurtleStatementParser implements TurtleStatementParserConstants {
         jj_consume_token(-1);
         throw new ParseException();
     }
+    final URI cachedURI = uriCache.get(token.image);
+    if (cachedURI != null) {
+      {
+        if (true) {
+          return cachedURI;
+        }
+      }
+    }
     if (token.image.startsWith("<") && token.image.endsWith(">")) {
       String uriString = token.image.substring(1, token.image.length() - 1);
       int index = uriString.indexOf(":");
@@ -297,7 +360,7 @@ public class TurtleStatementParser implements TurtleStatementParserConstants {
         } else {
           {
             if (true) {
-              return new URIImpl(namespace + localName);
+              return cacheURI(token.image, new URIImpl(namespace + localName));
             }
           }
         }
@@ -311,7 +374,7 @@ public class TurtleStatementParser implements TurtleStatementParserConstants {
     } else {
       {
         if (true) {
-          return new URIImpl(Constants.TEXAI_NAMESPACE + token.image);
+          return cacheURI(token.image, new URIImpl(Constants.TEXAI_NAMESPACE + token.image));
         }
       }
     }
@@ -0,0 +1,104 @@
+/*
+ * CharSequenceReader.java
+ *
+ * Created on Oct 19, 2026, 11:05:37 AM
+ *
+ * Description: Provides a reader over a character sequence that can be re-pointed at another character sequence.
+ *
+ * Copyright (C) Oct 19, 2026, Stephen L. Reed, Texai.org.
+ *
+ */
+package org.texai.turtleStatementParser.misc;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
+import net.jcip.annotations.NotThreadSafe;
+
+/** Provides a reader over a character sequence, such as a string or a char buffer, that can be re-pointed at another
+ * character sequence without allocating a new reader. The characters are read directly from the sequence, rather than
+ * being encoded to bytes and decoded again as when a string is parsed through an input stream.
+ *
+ * @author reed
+ */
+@NotThreadSafe
+public final class CharSequenceReader extends Reader {
+
+  /** the character sequence */
+  private CharSequence charSequence;
+  /** the index of the next character to read */
+  private int position;
+  /** the index following the last character to read */
+  private int end;
+
+  /** Constructs a new CharSequenceReader instance.
+   *
+   * @param charSequence the character sequence
+   */
+  public CharSequenceReader(final CharSequence charSequence) {
+    //Preconditions
+    assert charSequence != null : "charSequence must not be null";
+
+    reset(charSequence, 0, charSequence.length());
+  }
+
+  /** Re-points this reader at the given character sequence.
+   *
+   * @param charSequence the given character sequence
+   */
+  public void reset(final CharSequence charSequence) {
+    //Preconditions
+    assert charSequence != null : "charSequence must not be null";
+
+    reset(charSequence, 0, charSequence.length());
+  }
+
+  /** Re-points this reader at the given range of the given character sequence.
+   *
+   * @param charSequence the given character sequence
+   * @param start the index of the first character to read
+   * @param end the index following the last character to read
+   */
+  public void reset(final CharSequence charSequence, final int start, final int end) {
+    //Preconditions
+    assert charSequence != null : "charSequence must not be null";
+    assert start >= 0 && start <= end : "start must be in the range [0, end]";
+    assert end <= charSequence.length() : "end must not exceed the length of charSequence";
+
+    this.charSequence = charSequence;
+    this.position = start;
+    this.end = end;
+  }
+
+  /** Reads characters into a portion of an array.
+   *
+   * @param chars the destination buffer
+   * @param offset the offset at which to start storing characters
+   * @param length the maximum number of characters to read
+   * @return the number of characters read, or -1 if the end of the character sequence has been reached
+   */
+  @Override
+  public int read(final char[] chars, final int offset, final int length) {
+    if (position >= end) {
+      return -1;
+    }
+    final int nbrChars = Math.min(length, end - position);
+    if (charSequence instanceof String) {
+      ((String) charSequence).getChars(position, position + nbrChars, chars, offset);
+    } else if (charSequence instanceof CharBuffer && ((CharBuffer) charSequence).hasArray()) {
+      final CharBuffer charBuffer = (CharBuffer) charSequence;
+      System.arraycopy(charBuffer.array(), charBuffer.arrayOffset() + charBuffer.position() + position, chars, offset, nbrChars);
+    } else {
+      for (int i = 0; i < nbrChars; i++) {
+        chars[offset + i] = charSequence.charAt(position + i);
+      }
+    }
+    position += nbrChars;
+    return nbrChars;
+  }
+
+  /** Closes this reader, which has no effect because no resources are held. */
+  @Override
+  public void close() {
+    // no resources are held
+  }
+}
@@ -13,11 +13,16 @@ import net.sf.ehcache.CacheManager;
 import org.apache.log4j.Logger;
 import org.junit.After;
 import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDFS;
 import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
 import org.texai.kb.persistence.DistributedRepositoryManager;
 import org.texai.kb.persistence.RDFEntityManager;
 
@@ -89,4 +94,33 @@ public class KBInitializerTest {
     rdfEntityManager.close();
   }
 
+  /**
+   * Test of process method in bulk load mode, of class KBInitializer.
+   *
+   * @throws RepositoryException when a repository error occurs
+   */
+  @Test
+  public void process3Test() throws RepositoryException {
+    LOGGER.info("process3Test");
+    DistributedRepositoryManager.addTestRepositoryPath(
+            TEST,
+            true); // isRepositoryDirectoryCleaned
+    final RDFEntityManager rdfEntityManager = new RDFEntityManager();
+    final RepositoryConnection repositoryConnection = DistributedRepositoryManager.getInstance().getRepositoryConnectionForRepositoryName(TEST);
+    assertNotNull(repositoryConnection);
+    final KBInitializer kbInitializer = new KBInitializer(repositoryConnection);
+    kbInitializer.setIsBulkLoad(true);
+    assertTrue(kbInitializer.isBulkLoad());
+    kbInitializer.process();
+    // the statements file holds 290 distinct statements, which are loaded into the cleaned repository
+    assertEquals(290, kbInitializer.getStatementCount());
+    assertEquals(290, repositoryConnection.size());
+    assertTrue(repositoryConnection.hasStatement(
+            new URIImpl(Constants.TEXAI_NAMESPACE + "AbsenceOfActivitySituation"),
+            RDFS.SUBCLASSOF,
+            new URIImpl(Constants.CYC_NAMESPACE + "Situation"),
+            false)); // includeInferred
+    rdfEntityManager.close();
+  }
+
 }
@@ -1,16 +1,28 @@
 package org.texai.kb.journal;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.log4j.Logger;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import org.junit.Test;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDF;
 import org.openrdf.repository.Repository;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.sail.SailRepository;
 import org.openrdf.sail.nativerdf.NativeStore;
+import org.texai.kb.Constants;
+import org.texai.util.FileSystemUtils;
 
 /**
  *
@@ -60,4 +72,143 @@ public class RepositoryArchiverTest {
     RepositoryArchiver instance = new RepositoryArchiver(dataDirectoryPath);
     instance.archive();
   }
+
+  /**
+   * Test of checkpoint and restore methods, of class RepositoryArchiver.
+   */
+  @Test
+  public void testCheckpointAndRestore() {
+    LOGGER.info("checkpoint and restore");
+
+    String testRepositoryPath = System.getenv("REPOSITORIES_TMPFS");
+    assertFalse(testRepositoryPath.isEmpty());
+
+    final String dataDirectoryPath = testRepositoryPath + "/" + TEST_REPOSITORY_NAME;
+    try {
+      final Repository repository = new SailRepository(new NativeStore(new File(dataDirectoryPath), "spoc,posc"));
+      repository.initialize();
+      repository.getConnection().close();
+      repository.shutDown();
+    } catch (RepositoryException ex) {
+      ex.printStackTrace();
+      fail(ex.getMessage());
+    }
+    RepositoryArchiver instance = new RepositoryArchiver(dataDirectoryPath);
+    final long checkpointNumber = instance.checkpoint();
+    assertTrue(checkpointNumber > 0);
+    assertEquals(checkpointNumber + 1, instance.checkpoint());
+
+    // a deleted data file is restored from the latest checkpoint
+    File deletedDataFile = null;
+    for (final File dataFile : new File(dataDirectoryPath).listFiles()) {
+      if (dataFile.isFile() && !dataFile.getName().equals("lock")) {
+        deletedDataFile = dataFile;
+        break;
+      }
+    }
+    assertNotNull(deletedDataFile);
+    assertTrue(deletedDataFile.delete());
+    instance.restore();
+    assertTrue(deletedDataFile.exists());
+  }
+
+  /**
+   * Test of the incremental copying, the content deduplication and the journal truncation of the checkpoint method, of class
+   * RepositoryArchiver.
+   *
+   * @throws IOException when an input/output error occurs
+   */
+  @Test
+  public void testIncrementalCheckpoint() throws IOException {
+    LOGGER.info("incremental checkpoint");
+
+    final File testDirectory = Files.createTempDirectory("archiverTest").toFile();
+    final File dataDirectory = new File(testDirectory, "Incremental");
+    assertTrue(dataDirectory.mkdir());
+    final File dataFileA = new File(dataDirectory, "a.dat");
+    final File dataFileB = new File(dataDirectory, "b.dat");
+    final File dataFileC = new File(dataDirectory, "c.dat");
+    Files.write(dataFileA.toPath(), "same content".getBytes(StandardCharsets.UTF_8));
+    Files.write(dataFileB.toPath(), "original content".getBytes(StandardCharsets.UTF_8));
+    Files.write(dataFileC.toPath(), "same content".getBytes(StandardCharsets.UTF_8));
+    final File blobsDirectory = new File(new File(dataDirectory, "archiveRepositories"), "blobs");
+
+    // the journal of the repository, and the journal of a repository whose name extends it
+    writeJournalEntry("Incremental");
+    final File otherJournalFile = new File("./journals/Incremental-Other-2000-01-01T00_00_00.000Z.jrnl");
+    Files.write(otherJournalFile.toPath(), new byte[0]);
+    assertEquals(1, listJournalFiles("Incremental").size());
+
+    final RepositoryArchiver instance = new RepositoryArchiver(dataDirectory.getPath());
+    assertEquals(1, instance.checkpoint());
+    // the files having the same content are stored once
+    assertEquals(2, blobsDirectory.listFiles().length);
+    // the journal file covered by the checkpoint is deleted, and the other repository's journal file is kept
+    assertTrue(listJournalFiles("Incremental").isEmpty());
+    assertTrue(otherJournalFile.exists());
+
+    // only the changed file is copied by the next checkpoint
+    for (final File blobFile : blobsDirectory.listFiles()) {
+      assertTrue(blobFile.setLastModified(1000000000000L));
+    }
+    Files.write(dataFileB.toPath(), "changed content".getBytes(StandardCharsets.UTF_8));
+    writeJournalEntry("Incremental");
+    assertEquals(2, instance.checkpoint());
+    final File[] blobFiles = blobsDirectory.listFiles();
+    assertEquals(2, blobFiles.length);
+    int nbrCopiedBlobFiles = 0;
+    for (final File blobFile : blobFiles) {
+      if (blobFile.lastModified() != 1000000000000L) {
+        nbrCopiedBlobFiles++;
+      }
+    }
+    assertEquals(1, nbrCopiedBlobFiles);
+    assertTrue(listJournalFiles("Incremental").isEmpty());
+
+    // a changed data file is restored, and an unchanged one is left untouched
+    final long lastModifiedA = dataFileA.lastModified();
+    Files.write(dataFileB.toPath(), "content after the checkpoint".getBytes(StandardCharsets.UTF_8));
+    assertEquals(0, instance.restore());
+    assertEquals("changed content", new String(Files.readAllBytes(dataFileB.toPath()), StandardCharsets.UTF_8));
+    assertEquals(lastModifiedA, dataFileA.lastModified());
+
+    assertTrue(otherJournalFile.delete());
+    FileSystemUtils.deleteRecursively(testDirectory);
+  }
+
+  /**
+   * Writes and rolls a journal entry for the given repository.
+   *
+   * @param repositoryName the repository name
+   */
+  private static void writeJournalEntry(final String repositoryName) {
+    final List<JournalRequest> journalRequests = new ArrayList<>();
+    journalRequests.add(new JournalRequest(
+            repositoryName,
+            Constants.ADD_OPERATION,
+            new StatementImpl(
+            new URIImpl(Constants.TERM_ARITY),
+            RDF.TYPE,
+            new URIImpl(Constants.TERM_BINARY_PREDICATE))));
+    final JournalWriter journalWriter = new JournalWriter();
+    journalWriter.setIsUnitTest(true);
+    journalWriter.write(journalRequests);
+    journalWriter.commit();
+  }
+
+  /**
+   * Lists the journal files of the given repository.
+   *
+   * @param repositoryName the repository name
+   * @return the journal files of the given repository
+   */
+  private static List<File> listJournalFiles(final String repositoryName) {
+    final List<File> journalFiles = new ArrayList<>();
+    for (final File journalFile : new File("./journals").listFiles()) {
+      if (RepositoryArchiver.isJournalFileOf(journalFile.getName(), repositoryName)) {
+        journalFiles.add(journalFile);
+      }
+    }
+    return journalFiles;
+  }
 }
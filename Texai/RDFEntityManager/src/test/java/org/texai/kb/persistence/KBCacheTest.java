@@ -0,0 +1,187 @@
+/*
+ * KBCacheTest.java
+ *
+ * Created on Oct 19, 2026, 7:48:25 PM
+ *
+ * Description: .
+ *
+ * Copyright (C) Oct 19, 2026 reed.
+ */
+package org.texai.kb.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.log4j.Logger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.texai.kb.CacheInitializer;
+
+/**
+ *
+ * @author reed
+ */
+public class KBCacheTest {
+
+  /** the logger */
+  private static final Logger LOGGER = Logger.getLogger(KBCacheTest.class);
+
+  public KBCacheTest() {
+  }
+
+  /**
+   * Test of get, put, update and remove methods, of class KBCache.
+   */
+  @Test
+  public void testGetAndLoad() {
+    LOGGER.info("getAndLoad");
+    final KBCache<String, String> kbCache = new KBCache<>("test", 100, 1000, (final String key, final String value) -> value.length());
+    assertNull(kbCache.get("a"));
+    assertEquals("A", kbCache.get("a", (final String key) -> key.toUpperCase()));
+    assertEquals("A", kbCache.get("a", (final String key) -> "not loaded"));
+    assertEquals("A", kbCache.get("a"));
+    // a null loaded value is not cached
+    assertNull(kbCache.get("b", (final String key) -> null));
+    assertFalse(kbCache.containsKey("b"));
+    kbCache.put("c", "ccc");
+    assertEquals(4, kbCache.getWeight());
+    kbCache.update("c", (final String value) -> value + "c");
+    assertEquals("cccc", kbCache.get("c"));
+    assertEquals(5, kbCache.getWeight());
+    // a missing key is not updated
+    kbCache.update("d", (final String value) -> value + "d");
+    assertFalse(kbCache.containsKey("d"));
+    kbCache.remove("a");
+    assertEquals(1, kbCache.size());
+    assertEquals(4, kbCache.getWeight());
+
+    final KBCache.Statistics statistics = kbCache.getStatistics();
+    assertEquals(3, statistics.getHitCount());
+    assertEquals(3, statistics.getMissCount());
+    assertEquals(2, statistics.getLoadCount());
+    assertEquals(0.5d, statistics.getHitRatio(), 0.0001d);
+  }
+
+  /**
+   * Test of eviction, of class KBCache.
+   */
+  @Test
+  public void testEviction() {
+    LOGGER.info("eviction");
+    final KBCache<Integer, String> kbCache = new KBCache<>("test", 10, 100, (final Integer key, final String value) -> value.length());
+    for (int i = 0; i < 10; i++) {
+      kbCache.put(i, "x");
+    }
+    assertEquals(10, kbCache.size());
+    // access the first entry so that it is not the least recently used
+    kbCache.get(0);
+    kbCache.put(10, "x");
+    assertTrue(kbCache.size() <= 9);
+    assertTrue(kbCache.containsKey(0));
+    assertFalse(kbCache.containsKey(1));
+    assertTrue(kbCache.getStatistics().getEvictionCount() >= 2);
+
+    // a heavy entry evicts by weight
+    kbCache.put(11, new String(new char[95]));
+    assertTrue(kbCache.getWeight() <= 90);
+  }
+
+  /**
+   * Test that concurrent requests for a missing key load it once.
+   */
+  @Test
+  public void testConcurrentLoad() throws Exception {
+    LOGGER.info("concurrentLoad");
+    final KBCache<String, String> kbCache = new KBCache<>("test", 100, 1000, (final String key, final String value) -> 1);
+    final AtomicInteger loadCount = new AtomicInteger(0);
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    final List<Future<String>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(executor.submit(() -> {
+        startLatch.await();
+        return kbCache.get("key", (final String key) -> {
+          loadCount.incrementAndGet();
+          try {
+            Thread.sleep(50);
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          }
+          return "value";
+        });
+      }));
+    }
+    startLatch.countDown();
+    for (final Future<String> future : futures) {
+      assertEquals("value", future.get(10, TimeUnit.SECONDS));
+    }
+    executor.shutdown();
+    assertEquals(1, loadCount.get());
+    assertEquals(1, kbCache.getStatistics().getLoadCount());
+  }
+
+  /**
+   * Test that concurrent reads, which update the access times, do not disturb eviction.
+   */
+  @Test
+  public void testConcurrentGetWhileEvicting() throws Exception {
+    LOGGER.info("concurrentGetWhileEvicting");
+    final int maximumSize = 500;
+    final KBCache<Integer, String> kbCache = new KBCache<>("test", maximumSize, 100000, (final Integer key, final String value) -> 1);
+    final AtomicBoolean isDone = new AtomicBoolean(false);
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    final List<Future<?>> readerFutures = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      final int offset = i;
+      readerFutures.add(executor.submit(() -> {
+        int key = offset;
+        while (!isDone.get()) {
+          kbCache.get(key);
+          key = (key + 7) % (maximumSize * 2);
+        }
+      }));
+    }
+    try {
+      for (int i = 0; i < 20000; i++) {
+        kbCache.put(i % (maximumSize * 2), "x");
+        assertTrue(kbCache.size() <= maximumSize + 1);
+      }
+    } finally {
+      isDone.set(true);
+    }
+    for (final Future<?> readerFuture : readerFutures) {
+      readerFuture.get(10, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    assertTrue(kbCache.getStatistics().getEvictionCount() > 0);
+  }
+
+  /**
+   * Test that the cache initializer resets registered caches.
+   */
+  @Test
+  public void testResetCaches() {
+    LOGGER.info("resetCaches");
+    final KBCache<String, String> kbCache = KBCacheRegistry.register(
+            new KBCache<String, String>("KBCacheTest", 100, 1000, (final String key, final String value) -> 1));
+    kbCache.put("a", "A");
+    assertEquals("A", kbCache.get("a"));
+    assertTrue(KBCacheRegistry.getStatistics().toString().contains("KBCacheTest"));
+    CacheInitializer.resetCache("KBCacheTest");
+    assertEquals(0, kbCache.size());
+    assertEquals(0, kbCache.getStatistics().getHitCount());
+    kbCache.put("a", "A");
+    CacheInitializer.resetCaches();
+    assertEquals(0, kbCache.size());
+    assertEquals(0, kbCache.getWeight());
+  }
+}
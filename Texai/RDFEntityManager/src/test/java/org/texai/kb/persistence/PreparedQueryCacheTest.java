@@ -0,0 +1,84 @@
+/*
+ * PreparedQueryCacheTest.java
+ *
+ * Created on Oct 19, 2026, 1:40:02 PM
+ *
+ * Description: .
+ *
+ * Copyright (C) Oct 19, 2026 reed.
+ */
+package org.texai.kb.persistence;
+
+import org.apache.log4j.Logger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.TupleQuery;
+import org.openrdf.query.TupleQueryResult;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+
+/**
+ *
+ * @author reed
+ */
+public class PreparedQueryCacheTest {
+
+  /** the logger */
+  private static final Logger LOGGER = Logger.getLogger(PreparedQueryCacheTest.class);
+
+  public PreparedQueryCacheTest() {
+  }
+
+  /**
+   * Test of prepareTupleQuery method, of class PreparedQueryCache.
+   */
+  @Test
+  public void testPrepareTupleQuery() throws Exception {
+    LOGGER.info("prepareTupleQuery");
+    PreparedQueryCache.clear();
+    final Repository repository = new SailRepository(new MemoryStore());
+    repository.initialize();
+    final RepositoryConnection repositoryConnection = repository.getConnection();
+    final URI dog = new URIImpl("http://texai.org/texai/Dog");
+    final URI fido = new URIImpl("http://texai.org/texai/Fido");
+    final URI cat = new URIImpl("http://texai.org/texai/Cat");
+    repositoryConnection.add(fido, RDF.TYPE, dog);
+
+    final TupleQuery tupleQuery1 = PreparedQueryCache.prepareTupleQuery(
+            repositoryConnection,
+            QueryLanguage.SERQL,
+            "SELECT s FROM {s} rdf:type {o}");
+    tupleQuery1.setBinding("o", dog);
+    final TupleQuery tupleQuery2 = PreparedQueryCache.prepareTupleQuery(
+            repositoryConnection,
+            QueryLanguage.SERQL,
+            "SELECT s FROM {s} rdf:type {o}");
+    assertEquals(1, PreparedQueryCache.getHitCount());
+    assertEquals(1, PreparedQueryCache.getMissCount());
+    assertEquals(1, PreparedQueryCache.size());
+    assertEquals(0.5d, PreparedQueryCache.getHitRate(), 0.0001d);
+
+    // the second query does not share the bindings of the first one
+    tupleQuery2.setBinding("o", cat);
+    final TupleQueryResult tupleQueryResult1 = tupleQuery1.evaluate();
+    assertTrue(tupleQueryResult1.hasNext());
+    assertEquals(fido, tupleQueryResult1.next().getBinding("s").getValue());
+    tupleQueryResult1.close();
+    final TupleQueryResult tupleQueryResult2 = tupleQuery2.evaluate();
+    assertFalse(tupleQueryResult2.hasNext());
+    tupleQueryResult2.close();
+
+    repositoryConnection.close();
+    repository.shutDown();
+    PreparedQueryCache.clear();
+    assertEquals(0, PreparedQueryCache.size());
+  }
+}
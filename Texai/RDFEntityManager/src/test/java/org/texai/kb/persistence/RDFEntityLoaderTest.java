@@ -30,6 +30,7 @@ import org.junit.After;
 import org.junit.AfterClass;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import org.junit.Before;
@@ -51,6 +52,8 @@ import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.openrdf.repository.RepositoryResult;
 import org.texai.kb.CacheInitializer;
+import org.texai.kb.Constants;
+import org.texai.kb.persistence.lazy.LazyLoadingSession;
 import org.texai.util.ArraySet;
 
 /**
@@ -471,6 +474,34 @@ public class RDFEntityLoaderTest {
     LOGGER.info("  rdfEntityIterator OK");
   }
 
+  /** Tests lazy loading within a lazy loading session. */
+  @Test
+  public void testLazyLoadingSession() {
+    LOGGER.info("lazy loading session");
+
+    try (final LazyLoadingSession lazyLoadingSession = LazyLoadingSession.open()) {
+      final RDFEntityLoader instance = new RDFEntityLoader();
+      final Iterator<RDFTestEntity> iterator = instance.rdfEntityIterator(
+              repositoryConnection,
+              RDFTestEntity.class, null);
+      int count = 0;
+      while (iterator.hasNext()) {
+        final RDFTestEntity rdfTestEntity = iterator.next();
+        assertNotNull(rdfTestEntity.mapField);
+        if (rdfTestEntity.getId().equals(uri1)) {
+          assertEquals(3, rdfTestEntity.mapField.size());  // load lazy field
+        }
+        count++;
+      }
+      assertEquals(2, count);
+      // the lazy fields share the session's connection, rather than each opening its own
+      assertEquals(1, lazyLoadingSession.getConnectionCount());
+      assertTrue(lazyLoadingSession.getLoadCount() >= 2);
+    }
+    assertNull(LazyLoadingSession.getCurrentSession());
+    LOGGER.info("  lazy loading session OK");
+  }
+
   /** Tests list and array field edits. */
   @Test
   @SuppressWarnings("deprecation")
@@ -559,4 +590,190 @@ public class RDFEntityLoaderTest {
     assertEquals("[h, i, j, k]", Arrays.asList(rdfTestEntity3.getComments()).toString());
     LOGGER.info("  list and array field edits OK");
   }
+
+  /** Tests the in-place editing of a persisted list field. */
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testIncrementalListFieldEdits() {
+    LOGGER.info("incremental list field edits");
+
+    final RDFEntityLoader instance = new RDFEntityLoader();
+    final RDFEntityPersister rdfEntityPersister = new RDFEntityPersister(rdfEntityManager);
+    RDFTestEntity rdfTestEntity = instance.find(repositoryConnection, RDFTestEntity.class, uri1);
+    final List<Integer> integerList = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      integerList.add(i);
+    }
+    rdfTestEntity.setIntegerList(integerList);
+    rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+
+    rdfTestEntity = instance.find(repositoryConnection, RDFTestEntity.class, uri1);
+    rdfTestEntity.getIntegerList().size();  // load the lazy-loaded field
+    assertTrue(rdfTestEntity.getIntegerList() instanceof DirtyTrackingList);
+    final DirtyTrackingList<Integer> loadedIntegerList = (DirtyTrackingList<Integer>) rdfTestEntity.getIntegerList();
+    assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", loadedIntegerList.toString());
+    assertTrue(!loadedIntegerList.isDirty());
+    loadedIntegerList.add(10);
+    loadedIntegerList.add(4, 44);
+    loadedIntegerList.remove(0);
+    loadedIntegerList.set(8, 88);
+    assertTrue(loadedIntegerList.isDirty());
+    rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+    assertTrue(!loadedIntegerList.isDirty());
+    // a second edit uses the blank nodes recorded by the first
+    loadedIntegerList.remove(loadedIntegerList.size() - 1);
+    rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+
+    rdfTestEntity = instance.find(repositoryConnection, RDFTestEntity.class, uri1);
+    rdfTestEntity.getIntegerList().size();  // load the lazy-loaded field
+    assertEquals("[1, 2, 3, 44, 4, 5, 6, 7, 88, 9]", rdfTestEntity.getIntegerList().toString());
+
+    // a list that does not track its changes is compared with the persisted list
+    final List<Integer> integerList2 = new ArrayList<>(rdfTestEntity.getIntegerList());
+    integerList2.add(0, 0);
+    rdfTestEntity.setIntegerList(integerList2);
+    rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+    rdfTestEntity = instance.find(repositoryConnection, RDFTestEntity.class, uri1);
+    rdfTestEntity.getIntegerList().size();  // load the lazy-loaded field
+    assertEquals("[0, 1, 2, 3, 44, 4, 5, 6, 7, 88, 9]", rdfTestEntity.getIntegerList().toString());
+
+    rdfTestEntity.getIntegerList().clear();
+    rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+    rdfTestEntity = instance.find(repositoryConnection, RDFTestEntity.class, uri1);
+    rdfTestEntity.getIntegerList().size();  // load the lazy-loaded field
+    assertEquals("[]", rdfTestEntity.getIntegerList().toString());
+    LOGGER.info("  incremental list field edits OK");
+  }
+
+  /**
+   * Test that persisting a loaded entity writes only its changed fields.
+   */
+  @Test
+  public void testPersistChangedFieldsOnly() {
+    LOGGER.info("persist changed fields only");
+
+    final RDFEntityLoader instance = new RDFEntityLoader();
+    final RDFEntityPersister rdfEntityPersister = new RDFEntityPersister(rdfEntityManager);
+    final URI namePredicate = new URIImpl(Constants.CYC_NAMESPACE + "prettyString-Canonical");
+    final URI numberOfCrewPredicate = new URIImpl(Constants.CYC_NAMESPACE + "numberOfCrew");
+    RDFTestEntity rdfTestEntity = instance.find(repositoryConnection, RDFTestEntity.class, uri1);
+    assertTrue(RDFEntitySnapshots.hasSnapshot(rdfTestEntity));
+    try {
+      // the persister skips an unchanged entity, so propositions removed behind its back are not restored
+      repositoryConnection.remove(uri1, namePredicate, null);
+      repositoryConnection.remove(uri1, numberOfCrewPredicate, null);
+      assertEquals(uri1, rdfEntityPersister.persist(repositoryConnection, rdfTestEntity));
+      assertTrue(!repositoryConnection.hasStatement(uri1, namePredicate, null, false));
+      assertTrue(!repositoryConnection.hasStatement(uri1, numberOfCrewPredicate, null, false));
+
+      // only the changed field is written
+      rdfTestEntity.setName("TestDomainEntity 1 renamed");
+      rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+      assertTrue(repositoryConnection.hasStatement(uri1, namePredicate, null, false));
+      assertTrue(!repositoryConnection.hasStatement(uri1, numberOfCrewPredicate, null, false));
+
+      // discarding the snapshot writes all fields
+      RDFEntitySnapshots.discard(rdfTestEntity);
+      rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+      assertTrue(repositoryConnection.hasStatement(uri1, numberOfCrewPredicate, null, false));
+    } catch (RepositoryException ex) {
+      ex.printStackTrace();
+      fail();
+    }
+    rdfTestEntity = instance.find(repositoryConnection, RDFTestEntity.class, uri1);
+    assertEquals("TestDomainEntity 1 renamed", rdfTestEntity.getName());
+    assertEquals(1, rdfTestEntity.getNumberOfCrew());
+    LOGGER.info("  persist changed fields only OK");
+  }
+
+  /**
+   * Test that persisting an entity again after its transaction was rolled back writes its changed fields.
+   */
+  @Test
+  public void testPersistAfterRollback() {
+    LOGGER.info("persist after rollback");
+
+    final RDFEntityLoader instance = new RDFEntityLoader();
+    final RDFEntityPersister rdfEntityPersister = new RDFEntityPersister(rdfEntityManager);
+    final RDFTestEntity rdfTestEntity = instance.find(repositoryConnection, RDFTestEntity.class, uri1);
+    final String name = rdfTestEntity.getName();
+    final String changedName = name + " changed";
+    try {
+      // the rollback discards the snapshot taken by the persist
+      repositoryConnection.setAutoCommit(false);
+      rdfTestEntity.setName(changedName);
+      rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+      assertTrue(RDFEntitySnapshots.hasSnapshot(rdfTestEntity));
+      rdfEntityManager.rollback(repositoryConnection);
+      repositoryConnection.setAutoCommit(true);
+      assertTrue(!RDFEntitySnapshots.hasSnapshot(rdfTestEntity));
+      assertEquals(name, instance.find(repositoryConnection, RDFTestEntity.class, uri1).getName());
+
+      // persisting again writes the changed name
+      rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+      assertEquals(changedName, instance.find(repositoryConnection, RDFTestEntity.class, uri1).getName());
+    } catch (RepositoryException ex) {
+      ex.printStackTrace();
+      fail();
+    }
+    rdfTestEntity.setName(name);
+    rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+    assertEquals(name, instance.find(repositoryConnection, RDFTestEntity.class, uri1).getName());
+    LOGGER.info("  persist after rollback OK");
+  }
+
+  /**
+   * Test that a transaction committed directly on the repository connection ends the enlistment of its snapshots, so that a later
+   * rollback does not discard them.
+   */
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testCommitThenRollback() {
+    LOGGER.info("commit then rollback");
+
+    final RDFEntityLoader instance = new RDFEntityLoader();
+    final RDFEntityPersister rdfEntityPersister = new RDFEntityPersister(rdfEntityManager);
+    final RDFTestEntity rdfTestEntity = instance.find(repositoryConnection, RDFTestEntity.class, uri1);
+    final String name = rdfTestEntity.getName();
+    final String changedName = name + " committed";
+    try {
+      // commit directly on the repository connection
+      repositoryConnection.setAutoCommit(false);
+      rdfTestEntity.setName(changedName);
+      rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+      assertEquals(1, RDFEntitySnapshots.getTransactionSize(repositoryConnection));
+      repositoryConnection.commit();
+      assertTrue(repositoryConnection.isAutoCommit());
+
+      // a rollback with no active transaction keeps the committed snapshot
+      rdfEntityManager.rollback(repositoryConnection);
+      assertTrue(RDFEntitySnapshots.hasSnapshot(rdfTestEntity));
+      assertEquals(0, RDFEntitySnapshots.getTransactionSize(repositoryConnection));
+      assertEquals(changedName, instance.find(repositoryConnection, RDFTestEntity.class, uri1).getName());
+
+      // a persist outside a transaction ends the enlistment of a directly committed transaction
+      repositoryConnection.setAutoCommit(false);
+      rdfTestEntity.setName(name);
+      rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+      repositoryConnection.commit();
+      assertEquals(1, RDFEntitySnapshots.getTransactionSize(repositoryConnection));
+      rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+      assertEquals(0, RDFEntitySnapshots.getTransactionSize(repositoryConnection));
+
+      // a transaction committed by the RDF entity manager ends the enlistment of its snapshots
+      repositoryConnection.setAutoCommit(false);
+      rdfTestEntity.setName(changedName);
+      rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+      rdfEntityManager.commit(repositoryConnection);
+      assertEquals(0, RDFEntitySnapshots.getTransactionSize(repositoryConnection));
+      assertTrue(RDFEntitySnapshots.hasSnapshot(rdfTestEntity));
+    } catch (RepositoryException ex) {
+      ex.printStackTrace();
+      fail();
+    }
+    rdfTestEntity.setName(name);
+    rdfEntityPersister.persist(repositoryConnection, rdfTestEntity);
+    assertEquals(name, instance.find(repositoryConnection, RDFTestEntity.class, uri1).getName());
+    LOGGER.info("  commit then rollback OK");
+  }
 }
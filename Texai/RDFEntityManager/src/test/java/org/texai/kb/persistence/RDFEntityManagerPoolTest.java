@@ -0,0 +1,154 @@
+/*
+ * RDFEntityManagerPoolTest.java
+ *
+ * Created on Oct 19, 2026, 8:21:40 PM
+ *
+ * Description: .
+ *
+ * Copyright (C) Oct 19, 2026 reed.
+ */
+package org.texai.kb.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sf.ehcache.CacheManager;
+import org.apache.log4j.Logger;
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.texai.kb.CacheInitializer;
+import org.texai.util.TexaiException;
+
+/**
+ *
+ * @author reed
+ */
+public class RDFEntityManagerPoolTest {
+
+  /** the logger */
+  private static final Logger LOGGER = Logger.getLogger(RDFEntityManagerPoolTest.class);
+
+  public RDFEntityManagerPoolTest() {
+  }
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    CacheInitializer.resetCaches();
+    CacheInitializer.initializeCaches();
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws Exception {
+    CacheManager.getInstance().shutdown();
+  }
+
+  /**
+   * Test of borrowRDFEntityManager and returnRDFEntityManager methods, of class RDFEntityManagerPool.
+   */
+  @Test
+  public void testBorrowAndReturn() {
+    LOGGER.info("borrowAndReturn");
+    final RDFEntityManagerPool instance = new RDFEntityManagerPool(new RDFEntityManagerFactory(), 2, 1, 100);
+    final RDFEntityManager rdfEntityManager1 = instance.borrowRDFEntityManager();
+    // a nested borrow on the same thread is given the same instance
+    assertSame(rdfEntityManager1, instance.borrowRDFEntityManager());
+    assertEquals(1, instance.getNumActive());
+    instance.returnRDFEntityManager(rdfEntityManager1);
+    assertEquals(1, instance.getNumActive());
+    instance.returnRDFEntityManager(rdfEntityManager1);
+    assertEquals(0, instance.getNumActive());
+    assertEquals(1, instance.getNumIdle());
+
+    // the idle instance is reused
+    assertSame(rdfEntityManager1, instance.execute((final RDFEntityManager rdfEntityManager) -> rdfEntityManager));
+    assertEquals(1, instance.getCreatedCount());
+    assertEquals(2, instance.getBorrowCount());
+    instance.close();
+    assertEquals(0, instance.getNumIdle());
+    assertTrue(rdfEntityManager1.isClosed());
+  }
+
+  /**
+   * Test that borrowers wait for, and time out waiting for, an instance.
+   */
+  @Test
+  public void testLimits() throws Exception {
+    LOGGER.info("limits");
+    final RDFEntityManagerPool instance = new RDFEntityManagerPool(new RDFEntityManagerFactory(), 2, 2, 50);
+    final CountDownLatch borrowedLatch = new CountDownLatch(2);
+    final CountDownLatch releaseLatch = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    for (int i = 0; i < 2; i++) {
+      executor.submit(() -> instance.execute((final RDFEntityManager rdfEntityManager) -> {
+        borrowedLatch.countDown();
+        try {
+          releaseLatch.await();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        return null;
+      }));
+    }
+    assertTrue(borrowedLatch.await(10, TimeUnit.SECONDS));
+    assertEquals(2, instance.getNumActive());
+    try {
+      instance.borrowRDFEntityManager();
+      fail();
+    } catch (TexaiException ex) {
+      assertTrue(ex.getMessage().startsWith("timed out"));
+    }
+    assertEquals(1, instance.getTimeoutCount());
+    assertEquals(1, instance.getWaitCount());
+    releaseLatch.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(0, instance.getNumActive());
+    instance.close();
+  }
+
+  /**
+   * Test that concurrent operations never share an instance.
+   */
+  @Test
+  public void testConcurrentOperations() throws Exception {
+    LOGGER.info("concurrentOperations");
+    final RDFEntityManagerPool instance = new RDFEntityManagerPool(new RDFEntityManagerFactory(), 3, 3, 10000);
+    final AtomicInteger nbrConcurrentOperations = new AtomicInteger(0);
+    final AtomicInteger maxConcurrentOperations = new AtomicInteger(0);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    final List<Future<RDFEntityManager>> futures = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      futures.add(executor.submit(() -> instance.execute((final RDFEntityManager rdfEntityManager) -> {
+        final int nbrConcurrentOperations1 = nbrConcurrentOperations.incrementAndGet();
+        maxConcurrentOperations.accumulateAndGet(nbrConcurrentOperations1, Math::max);
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        nbrConcurrentOperations.decrementAndGet();
+        return rdfEntityManager;
+      })));
+    }
+    for (final Future<RDFEntityManager> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+    executor.shutdown();
+    assertTrue(maxConcurrentOperations.get() <= 3);
+    assertTrue(instance.getCreatedCount() <= 3);
+    assertEquals(40, instance.getBorrowCount());
+    assertTrue(instance.getWaitCount() > 0);
+    LOGGER.info(instance);
+    instance.close();
+  }
+}
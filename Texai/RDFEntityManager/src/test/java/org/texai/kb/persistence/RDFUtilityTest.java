@@ -35,9 +35,11 @@ import org.openrdf.model.Statement;
 import org.openrdf.model.URI;
 import org.openrdf.model.impl.BNodeImpl;
 import org.openrdf.model.impl.ContextStatementImpl;
+import org.openrdf.model.impl.LiteralImpl;
 import org.openrdf.model.impl.StatementImpl;
 import org.openrdf.model.impl.URIImpl;
 import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.XMLSchema;
 import org.openrdf.repository.RepositoryConnection;
 import org.openrdf.repository.RepositoryException;
 import org.texai.kb.CacheInitializer;
@@ -266,6 +268,29 @@ public class RDFUtilityTest {
     assertTrue(RDFUtility.isInstanceURI(new URIImpl("http://texai.org/texai/Cat1")));
   }
 
+  /**
+   * Test of canonicalValueKey method, of class org.texai.kb.persistence.RDFUtility.
+   */
+  @Test
+  public void testCanonicalValueKey() {
+    LOGGER.info("canonicalValueKey");
+    assertEquals("http://texai.org/texai/a", RDFUtility.canonicalValueKey(new URIImpl("http://texai.org/texai/a")));
+    assertEquals(
+            RDFUtility.canonicalValueKey(new LiteralImpl("1", XMLSchema.INT)),
+            RDFUtility.canonicalValueKey(new LiteralImpl("01", XMLSchema.INT)));
+    assertEquals(
+            RDFUtility.canonicalValueKey(new LiteralImpl("true", XMLSchema.BOOLEAN)),
+            RDFUtility.canonicalValueKey(new LiteralImpl("1", XMLSchema.BOOLEAN)));
+    assertEquals(
+            RDFUtility.canonicalValueKey(new LiteralImpl("chat", "en-US")),
+            RDFUtility.canonicalValueKey(new LiteralImpl("chat", "en-us")));
+    assertFalse(RDFUtility.canonicalValueKey(new LiteralImpl("1", XMLSchema.INT)).equals(
+            RDFUtility.canonicalValueKey(new LiteralImpl("1", XMLSchema.LONG))));
+    assertFalse(RDFUtility.canonicalValueKey(new LiteralImpl("abc")).equals(
+            RDFUtility.canonicalValueKey(new LiteralImpl("abc", XMLSchema.STRING))));
+    assertEquals("\"x\"^^http://www.w3.org/2001/XMLSchema#int", RDFUtility.canonicalValueKey(new LiteralImpl("x", XMLSchema.INT)));
+  }
+
   /**
    * Test of decodeNamespace method, of class org.texai.kb.persistence.RDFUtility.
    */
@@ -0,0 +1,147 @@
+/*
+ * ReadOnlyIndexedStoreTest.java
+ *
+ * Created on Oct 19, 2026, 4:12:55 PM
+ *
+ * Description: .
+ *
+ * Copyright (C) Oct 19, 2026 reed.
+ */
+package org.texai.kb.readOnlyStore;
+
+import java.io.File;
+import java.nio.file.Files;
+import org.apache.log4j.Logger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.RDF;
+import org.openrdf.model.vocabulary.RDFS;
+import org.openrdf.query.QueryLanguage;
+import org.openrdf.query.TupleQuery;
+import org.openrdf.query.TupleQueryResult;
+import org.openrdf.repository.Repository;
+import org.openrdf.repository.RepositoryConnection;
+import org.openrdf.repository.RepositoryException;
+import org.openrdf.repository.RepositoryResult;
+import org.openrdf.repository.sail.SailRepository;
+import org.openrdf.sail.memory.MemoryStore;
+import org.texai.util.FileSystemUtils;
+
+/**
+ *
+ * @author reed
+ */
+public class ReadOnlyIndexedStoreTest {
+
+  /** the logger */
+  private static final Logger LOGGER = Logger.getLogger(ReadOnlyIndexedStoreTest.class);
+
+  public ReadOnlyIndexedStoreTest() {
+  }
+
+  /**
+   * Test of build method and of statement and query access, of class ReadOnlyIndexedStore.
+   */
+  @Test
+  public void testBuildAndQuery() throws Exception {
+    LOGGER.info("buildAndQuery");
+    final URI dog = new URIImpl("http://texai.org/texai/Dog");
+    final URI mammal = new URIImpl("http://texai.org/texai/Mammal");
+    final URI fido = new URIImpl("http://texai.org/texai/Fido");
+    final URI rover = new URIImpl("http://texai.org/texai/Rover");
+    final URI context = new URIImpl("http://texai.org/texai/TestContext");
+    final Literal fidoLabel = new LiteralImpl("Fido", "en");
+
+    final Repository sourceRepository = new SailRepository(new MemoryStore());
+    sourceRepository.initialize();
+    final RepositoryConnection sourceRepositoryConnection = sourceRepository.getConnection();
+    sourceRepositoryConnection.add(dog, RDFS.SUBCLASSOF, mammal);
+    sourceRepositoryConnection.add(fido, RDF.TYPE, dog);
+    sourceRepositoryConnection.add(rover, RDF.TYPE, dog, context);
+    sourceRepositoryConnection.add(fido, RDFS.LABEL, fidoLabel);
+    final File indexDirectory = Files.createTempDirectory("readOnlyIndex").toFile();
+    assertFalse(ReadOnlyIndexedStore.isBuilt(indexDirectory));
+    assertEquals(4, ReadOnlyIndexedStore.build(sourceRepositoryConnection, indexDirectory, "stamp-1"));
+    assertTrue(ReadOnlyIndexedStore.isBuilt(indexDirectory));
+    assertTrue(ReadOnlyIndexedStore.isBuilt(indexDirectory, "stamp-1"));
+    // an index that is built from a previous state of the source is stale
+    assertFalse(ReadOnlyIndexedStore.isBuilt(indexDirectory, "stamp-2"));
+    for (final File file : indexDirectory.listFiles()) {
+      assertFalse(file.getName().endsWith(".tmp"));
+    }
+    // an index without its completion marker, as left by an interrupted build, is not built
+    final File builtMarkerFile = new File(indexDirectory, "built.marker");
+    assertTrue(builtMarkerFile.delete());
+    assertFalse(ReadOnlyIndexedStore.isBuilt(indexDirectory));
+    assertEquals(4, ReadOnlyIndexedStore.build(sourceRepositoryConnection, indexDirectory, "stamp-2"));
+    assertTrue(ReadOnlyIndexedStore.isBuilt(indexDirectory, "stamp-2"));
+    sourceRepositoryConnection.close();
+    sourceRepository.shutDown();
+
+    final Repository repository = new SailRepository(new ReadOnlyIndexedStore(indexDirectory));
+    repository.initialize();
+    assertFalse(repository.isWritable());
+    final RepositoryConnection repositoryConnection = repository.getConnection();
+    assertEquals(4, repositoryConnection.size());
+    assertEquals(1, repositoryConnection.size(context));
+
+    // predicate and object bound
+    RepositoryResult<Statement> repositoryResult = repositoryConnection.getStatements(null, RDF.TYPE, dog, false);
+    int count = 0;
+    while (repositoryResult.hasNext()) {
+      final Statement statement = repositoryResult.next();
+      assertTrue(statement.getSubject().equals(fido) || statement.getSubject().equals(rover));
+      count++;
+    }
+    repositoryResult.close();
+    assertEquals(2, count);
+
+    // subject bound, restricted to a context
+    repositoryResult = repositoryConnection.getStatements(rover, null, null, false, context);
+    assertTrue(repositoryResult.hasNext());
+    assertEquals(context, repositoryResult.next().getContext());
+    assertFalse(repositoryResult.hasNext());
+    repositoryResult.close();
+
+    // a term that is not in the dictionary
+    repositoryResult = repositoryConnection.getStatements(new URIImpl("http://texai.org/texai/Cat"), null, null, false);
+    assertFalse(repositoryResult.hasNext());
+    repositoryResult.close();
+
+    // literal object
+    assertTrue(repositoryConnection.hasStatement(fido, RDFS.LABEL, fidoLabel, false));
+
+    final TupleQuery tupleQuery = repositoryConnection.prepareTupleQuery(
+            QueryLanguage.SERQL,
+            "SELECT s FROM {s} rdf:type {c}, {c} rdfs:subClassOf {m}");
+    tupleQuery.setBinding("m", mammal);
+    final TupleQueryResult tupleQueryResult = tupleQuery.evaluate();
+    count = 0;
+    while (tupleQueryResult.hasNext()) {
+      tupleQueryResult.next();
+      count++;
+    }
+    tupleQueryResult.close();
+    assertEquals(2, count);
+
+    try {
+      repositoryConnection.add(rover, RDFS.LABEL, new LiteralImpl("Rover"));
+      repositoryConnection.commit();
+      fail("expected RepositoryException");
+    } catch (final RepositoryException ex) {
+      // expected
+    }
+
+    repositoryConnection.close();
+    repository.shutDown();
+    FileSystemUtils.deleteRecursively(indexDirectory);
+  }
+}
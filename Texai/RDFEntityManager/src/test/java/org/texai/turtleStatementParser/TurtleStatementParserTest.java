@@ -182,4 +182,26 @@ public class TurtleStatementParserTest {
     }
 
   }
+
+  /**
+   * Test of makeResettableTurtleStatementParser and parseStatement methods, of class TurtleStatementParser.
+   */
+  @Test
+  public void testParseStatement() {
+    LOGGER.info("parseStatement");
+    final TurtleStatementParser turtleStatementParser = TurtleStatementParser.makeResettableTurtleStatementParser();
+    final String line1 = "2009-03-18T22:44:10.017-05:00 1 add texai:ListAccessor4 texai:listAccessor_Index \"1\"^^<http://www.w3.org/2001/XMLSchema#int> .";
+    final String line2 = "2009-03-18T22:44:10.017-05:00 2 add texai:ListAccessor5 texai:listAccessor_Index \"2\"^^<http://www.w3.org/2001/XMLSchema#int> .";
+    try {
+      final Statement statement1 = turtleStatementParser.parseStatement(line1, line1.indexOf("texai:"), line1.length());
+      assertEquals("(http://texai.org/texai/ListAccessor4, http://texai.org/texai/listAccessor_Index, \"1\"^^<http://www.w3.org/2001/XMLSchema#int>)", statement1.toString());
+      final Statement statement2 = turtleStatementParser.parseStatement(line2, line2.indexOf("texai:"), line2.length());
+      assertEquals("(http://texai.org/texai/ListAccessor5, http://texai.org/texai/listAccessor_Index, \"2\"^^<http://www.w3.org/2001/XMLSchema#int>)", statement2.toString());
+      // the repeated predicate is obtained from the URI cache
+      assertTrue(statement1.getPredicate() == statement2.getPredicate());
+    } catch (final ParseException ex) {
+      ex.printStackTrace();
+      fail(ex.getMessage());
+    }
+  }
 }
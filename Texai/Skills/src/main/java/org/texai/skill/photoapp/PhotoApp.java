@@ -205,7 +205,7 @@ public final class PhotoApp extends AbstractNetworkSingletonSkill {
 
     // configure the HTTP request handler by registering the photo app server
     final HTTPRequestHandler httpRequestHandler = new HTTPRequestHandler();
-    httpRequestHandler.register(photoAppServer);
+    photoAppServer.registerRoutes(httpRequestHandler);
 
     // configure the server channel pipeline factory
     final AbstractHTTPRequestHandlerFactory httpRequestHandlerFactory = new HTTPRequestHandlerFactory(httpRequestHandler);
@@ -223,7 +223,7 @@ public final class PhotoApp extends AbstractNetworkSingletonSkill {
 
     // configure the websocket request handler by registering the photo app server
     final HTTPRequestHandler webSocketRequestHandler = new HTTPRequestHandler();
-    webSocketRequestHandler.register(photoAppServer);
+    photoAppServer.registerRoutes(webSocketRequestHandler);
 
     // configure the server channel pipeline factory
     final AbstractHTTPRequestHandlerFactory webSocketRequestHandlerFactory = new HTTPRequestHandlerFactory(webSocketRequestHandler);
@@ -1,17 +1,28 @@
 package org.texai.tamperEvidentLogs;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.security.cert.X509Certificate;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.SignatureException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import net.jcip.annotations.ThreadSafe;
 import org.apache.log4j.Logger;
@@ -53,10 +64,26 @@ public class TELogAccess {
 
   // the logger
   private static final Logger LOGGER = Logger.getLogger(TELogAccess.class);
-  // the RDF entity manager
+  // the number of entries verified by each parallel verification task
+  private static final int VERIFICATION_CHUNK_SIZE = 16384;
+  // the executor of the parallel verification tasks, which is shared by all logs and whose daemon threads do not prevent the JVM exit
+  private static final ExecutorService VERIFICATION_EXECUTOR = Executors.newFixedThreadPool(
+          Runtime.getRuntime().availableProcessors(),
+          (Runnable runnable) -> {
+            final Thread thread = new Thread(runnable, "TE log verification");
+            thread.setDaemon(true);
+            return thread;
+          });
+  // the RDF entity manager, or null when the logs are kept in segment stores
   private final RDFEntityManager rdfEntityManager;
+  // the directory containing the segment store directories, or null when the logs are persisted as RDF entities
+  private final File logsDirectory;
   // the tamper-evident log header dictionary, name --> tamper-evident log header
   private final Map<String, TELogHeader> teLogHeaderDictionary = new HashMap<>();
+  // the segment store dictionary, name --> segment store
+  private final Map<String, TELogSegmentStore> teLogSegmentStoreDictionary = new HashMap<>();
+  // the sequencer dictionary, name --> sequencer, which orders, chains and persists each log's appended entries
+  private final Map<String, TELogSequencer> teLogSequencerDictionary = new HashMap<>();
 
   /**
    * Constructs a new TELogAccess instance.
@@ -68,6 +95,21 @@ public class TELogAccess {
     assert rdfEntityManager != null : "rdfEntityManager must not be null";
 
     this.rdfEntityManager = rdfEntityManager;
+    logsDirectory = null;
+  }
+
+  /**
+   * Constructs a new TELogAccess instance that keeps each log in an append-only segment store, rather than persisting its entries as RDF
+   * entities. Each log is stored in its own subdirectory of the given directory.
+   *
+   * @param logsDirectory the directory containing the segment store directories
+   */
+  public TELogAccess(final File logsDirectory) {
+    //Preconditions
+    assert logsDirectory != null : "logsDirectory must not be null";
+
+    rdfEntityManager = null;
+    this.logsDirectory = logsDirectory;
   }
 
   /**
@@ -90,7 +132,11 @@ public class TELogAccess {
       }
       final TELogHeader teLogHeader = new TELogHeader(name);
       teLogHeaderDictionary.put(name, teLogHeader);
-      rdfEntityManager.persist(teLogHeader);
+      if (logsDirectory == null) {
+        rdfEntityManager.persist(teLogHeader);
+      } else {
+        teLogSegmentStoreDictionary.put(name, new TELogSegmentStore(getLogDirectory(name)));
+      }
       return teLogHeader;
     }
   }
@@ -109,7 +155,19 @@ public class TELogAccess {
     TELogHeader teLogHeader;
     synchronized (teLogHeaderDictionary) {
       teLogHeader = teLogHeaderDictionary.get(name);
-      if (teLogHeader == null) {
+      if (teLogHeader == null && logsDirectory != null) {
+        final File logDirectory = getLogDirectory(name);
+        if (!logDirectory.isDirectory()) {
+          return null;
+        }
+        final TELogSegmentStore teLogSegmentStore = new TELogSegmentStore(logDirectory);
+        teLogSegmentStoreDictionary.put(name, teLogSegmentStore);
+        teLogHeader = new TELogHeader(name);
+        if (teLogSegmentStore.getTailTELogEntry() != null) {
+          teLogHeader.setHeadTELogEntry(teLogSegmentStore.getTailTELogEntry());
+        }
+        teLogHeaderDictionary.put(name, teLogHeader);
+      } else if (teLogHeader == null) {
         final List<TELogHeader> results = rdfEntityManager.find(
                 TELogHeader.NAME_FIELD_PREDICATE_TERM, // predicate
                 name, // value
@@ -131,7 +189,29 @@ public class TELogAccess {
    * Clears the tamper-evident log header dictionary - used to tear down unit tests.
    */
   protected void clearTELogHeaderDictionary() {
-    teLogHeaderDictionary.clear();
+    final List<TELogSequencer> teLogSequencers;
+    synchronized (teLogHeaderDictionary) {
+      teLogSequencers = new ArrayList<>(teLogSequencerDictionary.values());
+      teLogSequencerDictionary.clear();
+    }
+    // stop the sequencers outside the lock, because their workers take it to persist their final batches
+    for (final TELogSequencer teLogSequencer : teLogSequencers) {
+      teLogSequencer.stop();
+    }
+    synchronized (teLogHeaderDictionary) {
+      teLogHeaderDictionary.clear();
+      for (final TELogSegmentStore teLogSegmentStore : teLogSegmentStoreDictionary.values()) {
+        teLogSegmentStore.close();
+      }
+      teLogSegmentStoreDictionary.clear();
+    }
+  }
+
+  /**
+   * Closes the segment stores, if any.
+   */
+  public void close() {
+    clearTELogHeaderDictionary();
   }
 
   /**
@@ -143,81 +223,60 @@ public class TELogAccess {
    *
    * @return the persisted tamper-evident log item
    */
-  @SuppressWarnings({"SleepWhileInLoop", "SleepWhileHoldingLock"})
   public TELogItemEntry appendTELogItemEntry(
           final String name,
           final Serializable item,
           final String chaosValue) {
+    return waitFor(appendTELogItemEntryAsynchronously(name, item, chaosValue));
+  }
+
+  /**
+   * Appends the given log item to the head of the named log hash chain, without waiting for it to be persisted.
+   *
+   * @param name the name of the log hash chain
+   * @param item the logged item, which must be serializable
+   * @param chaosValue an optional chaos value
+   *
+   * @return the future that is completed with the persisted tamper-evident log item
+   */
+  public CompletableFuture<TELogItemEntry> appendTELogItemEntryAsynchronously(
+          final String name,
+          final Serializable item,
+          final String chaosValue) {
     //Preconditions
     assert StringUtils.isNonEmptyString(name) : "name must be a non-empty string";
     assert item != null : "item must not be null";
 
-    final TELogHeader teLogHeader = findTELogHeader(name);
-    if (teLogHeader == null) {
-      throw new TexaiException("TELogHeader not found for " + name);
-    }
-    synchronized (teLogHeader) {
-      final AbstractTELogEntry previousTELogEntry = teLogHeader.getHeadTELogEntry();
-      int counter = 0;
-      DateTime timestamp;
-      // ensure that timestamps are unique and ordered
-      while (true) {
-        timestamp = new DateTime();
-        if (previousTELogEntry == null) {
-          break;
-        } else if (timestamp.isAfter(previousTELogEntry.getTimestamp())) {
-          break;
-        } else {
-          counter++;
-          if (counter > 10000) {
-            throw new TexaiException("waiting too long for out-of-sync timestamp");
-          }
-          try {
-            Thread.sleep(1);
-          } catch (InterruptedException ex) {
-            throw new TexaiException(ex);
-          }
+    // serialize the item in the caller's thread
+    final String encodedItem = new String(Base64Coder.encode(ByteUtils.serialize(item)));
+    return getTELogSequencer(name).enqueue(new TELogSequencer.PendingTELogEntry<TELogItemEntry>() {
+
+      @Override
+      protected TELogItemEntry makeTELogEntry(
+              final AbstractTELogEntry previousTELogEntry,
+              final DateTime timestamp) {
+        final byte[] digest = TELogItemEntry.makeTELogItemEntryDigest(
+                encodedItem,
+                previousTELogEntry,
+                timestamp,
+                chaosValue);
+        final TELogItemEntry teLogItemEntry = new TELogItemEntry(
+                encodedItem,
+                previousTELogEntry,
+                timestamp,
+                chaosValue,
+                new String(Base64Coder.encode(digest)));
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("chaosValue:       " + teLogItemEntry.getChaosValue());
+          LOGGER.debug("digest:           " + teLogItemEntry.getEncodedDigest());
         }
-      }
-      final String encodedItem = new String(Base64Coder.encode(ByteUtils.serialize(item)));
-      final byte[] digest = TELogItemEntry.makeTELogItemEntryDigest(
-              encodedItem,
-              previousTELogEntry,
-              timestamp,
-              chaosValue);
-      final String encodedDigest = new String(Base64Coder.encode(digest));
-      final TELogItemEntry teLogItemEntry = new TELogItemEntry(
-              encodedItem,
-              previousTELogEntry,
-              timestamp,
-              chaosValue,
-              encodedDigest);
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.info("chaosValue:       " + teLogItemEntry.getChaosValue());
-        LOGGER.info("digest:           " + teLogItemEntry.getEncodedDigest());
-      }
-      final RepositoryConnection repositoryConnection =
-              rdfEntityManager.getConnectionToRepositoryContainingClass(TELogItemEntry.class);
-      try {
-        //repositoryConnection.setAutoCommit(false);
-        repositoryConnection.begin();
-      } catch (RepositoryException ex) {
-        throw new TexaiException(ex);
-      }
-      rdfEntityManager.persist(teLogItemEntry);
-      teLogHeader.setHeadTELogEntry(teLogItemEntry);
-      rdfEntityManager.persist(teLogHeader);
-      try {
-        repositoryConnection.commit();
-      } catch (RepositoryException ex) {
-        throw new TexaiException(ex);
-      }
 
-      //Postconditions
-      assert teLogItemEntry.verifyDigest() : "teLogItemEntry invalid digest";
+        //Postconditions
+        assert teLogItemEntry.verifyDigest() : "teLogItemEntry invalid digest";
 
-      return teLogItemEntry;
-    }
+        return teLogItemEntry;
+      }
+    });
   }
 
   /**
@@ -230,84 +289,66 @@ public class TELogAccess {
    *
    * @return the persisted tamper-evident log item
    */
-  @SuppressWarnings({"SleepWhileInLoop", "SleepWhileHoldingLock"})
   public TEKeyedLogItemEntry appendTEKeyedLogItemEntry(
           final String name,
           final Serializable item,
           final String key,
           final String chaosValue) {
+    return waitFor(appendTEKeyedLogItemEntryAsynchronously(name, item, key, chaosValue));
+  }
+
+  /**
+   * Appends the given keyed log item to the head of the named log hash chain, without waiting for it to be persisted.
+   *
+   * @param name the name of the log hash chain
+   * @param item the logged item, which must be serializable
+   * @param key the key used to retrieve this entry from the persistent store
+   * @param chaosValue an optional chaos value
+   *
+   * @return the future that is completed with the persisted tamper-evident log item
+   */
+  public CompletableFuture<TEKeyedLogItemEntry> appendTEKeyedLogItemEntryAsynchronously(
+          final String name,
+          final Serializable item,
+          final String key,
+          final String chaosValue) {
     //Preconditions
     assert StringUtils.isNonEmptyString(name) : "name must be a non-empty string";
     assert item != null : "item must not be null";
     assert StringUtils.isNonEmptyString(key) : "key must be a non-empty string";
 
-    final TELogHeader teLogHeader = this.findTELogHeader(name);
-    if (teLogHeader == null) {
-      throw new TexaiException("TELogHeader not found for " + name);
-    }
-    synchronized (teLogHeader) {
-      final AbstractTELogEntry previousTELogEntry = teLogHeader.getHeadTELogEntry();
-      int counter = 0;
-      DateTime timestamp;
-      // ensure that timestamps are unique and ordered
-      while (true) {
-        timestamp = new DateTime();
-        if (previousTELogEntry == null) {
-          break;
-        } else if (timestamp.isAfter(previousTELogEntry.getTimestamp())) {
-          break;
-        } else {
-          counter++;
-          if (counter > 10000) {
-            throw new TexaiException("waiting too long for out-of-sync timestamp");
-          }
-          try {
-            Thread.sleep(1);
-          } catch (InterruptedException ex) {
-            throw new TexaiException(ex);
-          }
+    // serialize the item in the caller's thread
+    final String encodedItem = new String(Base64Coder.encode(ByteUtils.serialize(item)));
+    return getTELogSequencer(name).enqueue(new TELogSequencer.PendingTELogEntry<TEKeyedLogItemEntry>() {
+
+      @Override
+      protected TEKeyedLogItemEntry makeTELogEntry(
+              final AbstractTELogEntry previousTELogEntry,
+              final DateTime timestamp) {
+        final byte[] digest = TEKeyedLogItemEntry.makeTEKeyedLogItemEntryDigest(
+                encodedItem,
+                key,
+                previousTELogEntry,
+                timestamp,
+                chaosValue);
+        final TEKeyedLogItemEntry teKeyedLogItemEntry = new TEKeyedLogItemEntry(
+                encodedItem,
+                key,
+                previousTELogEntry,
+                timestamp,
+                chaosValue,
+                new String(Base64Coder.encode(digest)));
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("chaosValue:       " + teKeyedLogItemEntry.getChaosValue());
+          LOGGER.debug("digest:           " + teKeyedLogItemEntry.getEncodedDigest());
         }
-      }
-      final String encodedItem = new String(Base64Coder.encode(ByteUtils.serialize(item)));
-      final byte[] digest = TEKeyedLogItemEntry.makeTEKeyedLogItemEntryDigest(
-              encodedItem,
-              key,
-              previousTELogEntry,
-              timestamp,
-              chaosValue);
-      final String encodedDigest = new String(Base64Coder.encode(digest));
-      final TEKeyedLogItemEntry teKeyedLogItemEntry = new TEKeyedLogItemEntry(
-              encodedItem,
-              key,
-              previousTELogEntry,
-              timestamp,
-              chaosValue,
-              encodedDigest);
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.info("chaosValue:       " + teKeyedLogItemEntry.getChaosValue());
-        LOGGER.info("digest:           " + teKeyedLogItemEntry.getEncodedDigest());
-      }
-      final RepositoryConnection repositoryConnection =
-              rdfEntityManager.getConnectionToRepositoryContainingClass(TEKeyedLogItemEntry.class);
-      try {
-        repositoryConnection.begin();
-      } catch (RepositoryException ex) {
-        throw new TexaiException(ex);
-      }
-      rdfEntityManager.persist(teKeyedLogItemEntry);
-      teLogHeader.setHeadTELogEntry(teKeyedLogItemEntry);
-      rdfEntityManager.persist(teLogHeader);
-      try {
-        repositoryConnection.commit();
-      } catch (RepositoryException ex) {
-        throw new TexaiException(ex);
-      }
 
-      //Postconditions
-      assert teKeyedLogItemEntry.verifyDigest() : "teKeyedLogItemEntry invalid digest";
+        //Postconditions
+        assert teKeyedLogItemEntry.verifyDigest() : "teKeyedLogItemEntry invalid digest";
 
-      return teKeyedLogItemEntry;
-    }
+        return teKeyedLogItemEntry;
+      }
+    });
   }
 
   /**
@@ -327,6 +368,10 @@ public class TELogAccess {
     if (teLogHeader == null) {
       throw new TexaiException("TELogHeader not found for " + name);
     }
+    if (logsDirectory != null) {
+      final TEKeyedLogItemEntry teKeyedLogItemEntry = getTELogSegmentStore(name).findLatestTEKeyedLogItemEntry(key);
+      return teKeyedLogItemEntry == null ? null : teKeyedLogItemEntry.getItem();
+    }
     synchronized (teLogHeader) {
       final List<TEKeyedLogItemEntry> results = rdfEntityManager.find(
               TEKeyedLogItemEntry.KEY_FIELD_PREDICATE_TERM, // predicate
@@ -354,7 +399,6 @@ public class TELogAccess {
    *
    * @return the persisted log authenticator entry
    */
-  @SuppressWarnings({"SleepWhileInLoop", "SleepWhileHoldingLock"})
   public TELogAuthenticatorEntry appendTELogAuthenticatorEntry(
           final String name,
           final String signingAgentName,
@@ -367,75 +411,41 @@ public class TELogAccess {
     assert x509Certificate != null : "x509Certificate must not be null";
     assert privateKey != null : "privateKey must not be null";
 
-    final TELogHeader teLogHeader = findTELogHeader(name);
-    if (teLogHeader == null) {
-      throw new TexaiException("TELogHeader not found for " + name);
-    }
-    synchronized (teLogHeader) {
-      final AbstractTELogEntry previousTELogEntry = teLogHeader.getHeadTELogEntry();
-      if (teLogHeader.getHeadTELogEntry() == null) {
-        throw new TexaiException("previousTELogEntry must not be null");
-      }
-      int counter = 0;
-      DateTime timestamp;
-      // ensure that timestamps are unique and ordered
-      while (true) {
-        timestamp = new DateTime();
-        if (timestamp.isAfter(previousTELogEntry.getTimestamp())) {
-          break;
-        } else {
-          counter++;
-          if (counter > 10000) {
-            throw new TexaiException("waiting too long for out-of-sync timestamp");
-          }
-          try {
-            Thread.sleep(1);
-          } catch (InterruptedException ex) {
-            throw new TexaiException(ex);
-          }
+    return waitFor(getTELogSequencer(name).enqueue(new TELogSequencer.PendingTELogEntry<TELogAuthenticatorEntry>() {
+
+      @Override
+      protected TELogAuthenticatorEntry makeTELogEntry(
+              final AbstractTELogEntry previousTELogEntry,
+              final DateTime timestamp) {
+        if (previousTELogEntry == null) {
+          throw new TexaiException("previousTELogEntry must not be null");
         }
-      }
-      final byte[] signatureBytes = TELogAuthenticatorEntry.signTELogAuthenticatorEntry(
-              previousTELogEntry.getDigest(),
-              x509Certificate,
-              privateKey);
-      final String encodedSignatureBytes = new String(Base64Coder.encode(signatureBytes));
-      final byte[] digest = TELogAuthenticatorEntry.makeTELogAuthenticatorEntryDigest(
-              signingAgentName,
-              TELogAuthenticatorEntry.encodeSignatureBytes(signatureBytes), // encodedSignatureBytes
-              previousTELogEntry,
-              timestamp,
-              chaosValue);
-      final String encodedDigest = new String(Base64Coder.encode(digest));
-      final TELogAuthenticatorEntry teLogAuthenticatorEntry = new TELogAuthenticatorEntry(
-              signingAgentName,
-              encodedSignatureBytes,
-              previousTELogEntry,
-              timestamp,
-              chaosValue,
-              encodedDigest);
-      final RepositoryConnection repositoryConnection =
-              rdfEntityManager.getConnectionToRepositoryContainingClass(TELogAuthenticatorEntry.class);
-      try {
-        repositoryConnection.begin();
-      } catch (RepositoryException ex) {
-        throw new TexaiException(ex);
-      }
-      rdfEntityManager.persist(teLogAuthenticatorEntry);
-      teLogHeader.setHeadTELogEntry(teLogAuthenticatorEntry);
-      rdfEntityManager.persist(teLogHeader);
-      try {
-        repositoryConnection.commit();
-      } catch (RepositoryException ex) {
-        throw new TexaiException(ex);
-      }
+        final byte[] signatureBytes = TELogAuthenticatorEntry.signTELogAuthenticatorEntry(
+                previousTELogEntry.getDigest(),
+                x509Certificate,
+                privateKey);
+        final String encodedSignatureBytes = TELogAuthenticatorEntry.encodeSignatureBytes(signatureBytes);
+        final byte[] digest = TELogAuthenticatorEntry.makeTELogAuthenticatorEntryDigest(
+                signingAgentName,
+                encodedSignatureBytes,
+                previousTELogEntry,
+                timestamp,
+                chaosValue);
+        final TELogAuthenticatorEntry teLogAuthenticatorEntry = new TELogAuthenticatorEntry(
+                signingAgentName,
+                encodedSignatureBytes,
+                previousTELogEntry,
+                timestamp,
+                chaosValue,
+                new String(Base64Coder.encode(digest)));
 
-      //Postconditions
-      assert teLogAuthenticatorEntry.verifyDigest() : "teLogAuthenticatorEntry invalid digest";
-      assert teLogAuthenticatorEntry.verify(x509Certificate) : "x509Certificate failed to verify its signature";
+        //Postconditions
+        assert teLogAuthenticatorEntry.verifyDigest() : "teLogAuthenticatorEntry invalid digest";
+        assert teLogAuthenticatorEntry.verify(x509Certificate) : "x509Certificate failed to verify its signature";
 
-      return teLogAuthenticatorEntry;
-    }
+        return teLogAuthenticatorEntry;
+      }
+    }));
   }
 
   /**
@@ -458,19 +468,396 @@ public class TELogAccess {
     if (teLogHeader == null) {
       throw new TexaiException("missing TELogHeader named " + name);
     }
+    if (logsDirectory != null) {
+      final TELogSegmentStore teLogSegmentStore = getTELogSegmentStore(name);
+      final long size = teLogSegmentStore.size();
+      final long fromSequence = nbrEntries == -1 ? 0 : Math.max(0, size - nbrEntries);
+      return teLogSegmentStore.read(fromSequence, (int) (size - fromSequence));
+    }
+    // walk back from the head only as far as the requested entries, because each hop lazily loads an entity
     AbstractTELogEntry teLogEntry = teLogHeader.getHeadTELogEntry();
-    int count = 0;
-    while (teLogEntry != null) {
-      if (nbrEntries == -1 || count < nbrEntries) {
+    while (teLogEntry != null && (nbrEntries == -1 || teLogEntries.size() < nbrEntries)) {
+      teLogEntries.add(teLogEntry);
+      teLogEntry = teLogEntry.getPreviousTELogEntry();
+    }
+    Collections.reverse(teLogEntries);
+    return teLogEntries;
+  }
+
+  /**
+   * Returns the log entries in the given sequence number range, with 0 indicating the first (oldest) entry. This requires a segment store.
+   *
+   * @param name the name of the log hash chain
+   * @param fromSequence the sequence number of the first entry to return
+   * @param nbrEntries the maximum number of entries to return
+   *
+   * @return the list of specified log entries, in log order
+   */
+  public List<AbstractTELogEntry> getTELogEntriesBySequence(
+          final String name,
+          final long fromSequence,
+          final int nbrEntries) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(name) : "name must be a non-empty string";
+    assert fromSequence >= 0 : "fromSequence must not be negative";
+    assert nbrEntries >= 0 : "nbrEntries must not be negative";
+
+    final TELogSegmentStore teLogSegmentStore = getTELogSegmentStoreForRangeRead(name);
+    final long size = teLogSegmentStore.size();
+    if (fromSequence >= size) {
+      return new ArrayList<>();
+    }
+    return teLogSegmentStore.read(fromSequence, (int) Math.min(nbrEntries, size - fromSequence));
+  }
+
+  /**
+   * Returns the log entries whose timestamps lie in the given time range.
+   *
+   * @param name the name of the log hash chain
+   * @param fromTimestamp the inclusive beginning of the time range
+   * @param toTimestamp the exclusive end of the time range
+   *
+   * @return the list of specified log entries, in log order
+   */
+  public List<AbstractTELogEntry> getTELogEntriesByTime(
+          final String name,
+          final DateTime fromTimestamp,
+          final DateTime toTimestamp) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(name) : "name must be a non-empty string";
+    assert fromTimestamp != null : "fromTimestamp must not be null";
+    assert toTimestamp != null : "toTimestamp must not be null";
+    assert !toTimestamp.isBefore(fromTimestamp) : "toTimestamp must not be before fromTimestamp";
+
+    final TELogHeader teLogHeader = this.findTELogHeader(name);
+    if (teLogHeader == null) {
+      throw new TexaiException("missing TELogHeader named " + name);
+    }
+    if (logsDirectory != null) {
+      final TELogSegmentStore teLogSegmentStore = getTELogSegmentStore(name);
+      final long fromSequence = teLogSegmentStore.findSequence(fromTimestamp);
+      final long toSequence = teLogSegmentStore.findSequence(toTimestamp);
+      return teLogSegmentStore.read(fromSequence, (int) (toSequence - fromSequence));
+    }
+    // timestamps are ordered, so walk back from the head only until the beginning of the time range
+    final List<AbstractTELogEntry> teLogEntries = new ArrayList<>();
+    AbstractTELogEntry teLogEntry = teLogHeader.getHeadTELogEntry();
+    while (teLogEntry != null && !teLogEntry.getTimestamp().isBefore(fromTimestamp)) {
+      if (teLogEntry.getTimestamp().isBefore(toTimestamp)) {
         teLogEntries.add(teLogEntry);
       }
       teLogEntry = teLogEntry.getPreviousTELogEntry();
-      count++;
     }
     Collections.reverse(teLogEntries);
     return teLogEntries;
   }
 
+  /**
+   * Returns an iterator over the log entries beginning with the given sequence number, which reads each entry only when it is reached
+   * rather than materializing the list. Each returned entry refers to a detached copy of its predecessor. This requires a segment store.
+   *
+   * @param name the name of the log hash chain
+   * @param fromSequence the sequence number of the first entry
+   *
+   * @return the iterator over the log entries, in log order, up to those present when the iterator was created
+   */
+  public Iterator<AbstractTELogEntry> iterateTELogEntries(
+          final String name,
+          final long fromSequence) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(name) : "name must be a non-empty string";
+    assert fromSequence >= 0 : "fromSequence must not be negative";
+
+    final TELogSegmentStore teLogSegmentStore = getTELogSegmentStoreForRangeRead(name);
+    final long size = teLogSegmentStore.size();
+    return teLogSegmentStore.iterator(Math.min(fromSequence, size), size);
+  }
+
+  /**
+   * Verifies the named log incrementally. The entry at each stored checkpoint is confirmed against its checkpoint digest, the entries
+   * following the last checkpoint are verified as independent chunks in parallel, each anchored on the entry preceding it, and a new
+   * checkpoint then records the end of each verified chunk, so that the next verification begins after them. Without a segment store, the
+   * whole log is verified.
+   *
+   * @param name the name of the log hash chain
+   * @param x509Certificate the logging agent/role's X.509 certificate
+   *
+   * @return whether the log is valid with respect to its hash chain
+   */
+  public boolean verifyIncrementally(
+          final String name,
+          final X509Certificate x509Certificate) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(name) : "name must be a non-empty string";
+    assert x509Certificate != null : "x509Certificate must not be null";
+
+    return verifyInParallel(name, x509Certificate, true);
+  }
+
+  /**
+   * Audits the named log, verifying every entry. The segments between checkpoints are verified independently in parallel, and each is
+   * confirmed against the checkpoint digest at its end. Without a segment store, the whole log is verified.
+   *
+   * @param name the name of the log hash chain
+   * @param x509Certificate the logging agent/role's X.509 certificate
+   *
+   * @return whether the log is valid with respect to its hash chain
+   */
+  public boolean audit(
+          final String name,
+          final X509Certificate x509Certificate) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(name) : "name must be a non-empty string";
+    assert x509Certificate != null : "x509Certificate must not be null";
+
+    return verifyInParallel(name, x509Certificate, false);
+  }
+
+  /**
+   * Verifies the named log incrementally, and if valid appends a log authenticator entry which signs the verified prefix.
+   *
+   * @param name the name of the log hash chain
+   * @param signingAgentName the signing agent's name
+   * @param x509Certificate the signing agents's X.509 certificate
+   * @param privateKey the private key for the certificate, which is not stored after performing the signature
+   * @param chaosValue an optional chaos value
+   *
+   * @return the persisted log authenticator entry, or null if the log is not valid
+   */
+  public TELogAuthenticatorEntry verifyAndAuthenticate(
+          final String name,
+          final String signingAgentName,
+          final X509Certificate x509Certificate,
+          final PrivateKey privateKey,
+          final String chaosValue) {
+    //Preconditions
+    assert StringUtils.isNonEmptyString(name) : "name must be a non-empty string";
+    assert StringUtils.isNonEmptyString(signingAgentName) : "signingAgentName must be a non-empty string";
+    assert x509Certificate != null : "x509Certificate must not be null";
+    assert privateKey != null : "privateKey must not be null";
+
+    if (verifyIncrementally(name, x509Certificate)) {
+      return appendTELogAuthenticatorEntry(name, signingAgentName, x509Certificate, privateKey, chaosValue);
+    } else {
+      LOGGER.warn("not authenticating the invalid log " + name);
+      return null;
+    }
+  }
+
+  /**
+   * Verifies the named log as independent chunks in parallel, and records a checkpoint at the end of each newly verified chunk.
+   *
+   * @param name the name of the log hash chain
+   * @param x509Certificate the logging agent/role's X.509 certificate
+   * @param isIncremental the indicator whether only the entries at the checkpoints are verified before the last checkpoint, rather than
+   * every entry
+   *
+   * @return whether the log is valid with respect to its hash chain
+   */
+  private boolean verifyInParallel(
+          final String name,
+          final X509Certificate x509Certificate,
+          final boolean isIncremental) {
+    if (findTELogHeader(name) == null) {
+      throw new TexaiException("missing TELogHeader named " + name);
+    }
+    if (logsDirectory == null) {
+      final List<AbstractTELogEntry> teLogEntries = getTELogEntries(name, -1);
+      return teLogEntries.isEmpty() || verify(teLogEntries, x509Certificate);
+    }
+    final TELogSegmentStore teLogSegmentStore = getTELogSegmentStore(name);
+    final long size = teLogSegmentStore.size();
+    final List<Callable<Boolean>> verificationTasks = new ArrayList<>();
+    long fromSequence = 0;
+    for (final TELogSegmentStore.Checkpoint checkpoint : teLogSegmentStore.getCheckpoints()) {
+      verificationTasks.add(new ChunkVerificationTask(
+              teLogSegmentStore,
+              isIncremental ? checkpoint.getSequence() : fromSequence,
+              checkpoint.getSequence() + 1,
+              checkpoint.getDigest()));
+      fromSequence = checkpoint.getSequence() + 1;
+    }
+    final List<Long> newCheckpointSequences = new ArrayList<>();
+    for (long chunkSequence = fromSequence; chunkSequence < size; chunkSequence += VERIFICATION_CHUNK_SIZE) {
+      final long toSequence = Math.min(chunkSequence + VERIFICATION_CHUNK_SIZE, size);
+      verificationTasks.add(new ChunkVerificationTask(teLogSegmentStore, chunkSequence, toSequence, null));
+      newCheckpointSequences.add(toSequence - 1);
+    }
+    if (verificationTasks.isEmpty()) {
+      return true;
+    }
+    try {
+      for (final Future<Boolean> future : VERIFICATION_EXECUTOR.invokeAll(verificationTasks)) {
+        if (!future.get()) {
+          LOGGER.warn("invalid log " + name);
+          return false;
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TexaiException(ex);
+    } catch (ExecutionException ex) {
+      throw new TexaiException(ex.getCause());
+    }
+    // a concurrent verification of the same log may have recorded checkpoints meanwhile, so only those beyond the last one are added
+    synchronized (teLogSegmentStore) {
+      final List<TELogSegmentStore.Checkpoint> checkpoints = teLogSegmentStore.getCheckpoints();
+      long lastCheckpointSequence = checkpoints.isEmpty() ? -1 : checkpoints.get(checkpoints.size() - 1).getSequence();
+      for (final long checkpointSequence : newCheckpointSequences) {
+        if (checkpointSequence > lastCheckpointSequence) {
+          final AbstractTELogEntry teLogEntry = teLogSegmentStore.iterator(checkpointSequence, checkpointSequence + 1).next();
+          teLogSegmentStore.addCheckpoint(checkpointSequence, teLogEntry.getDigest());
+          lastCheckpointSequence = checkpointSequence;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Persists the given new entries, in order, at the head of the given log hash chain. This is called only by the log's sequencer
+   * thread.
+   *
+   * @param teLogHeader the log header
+   * @param teLogEntries the given new entries, each chained to its predecessor
+   */
+  void persistTELogEntries(
+          final TELogHeader teLogHeader,
+          final List<AbstractTELogEntry> teLogEntries) {
+    //Preconditions
+    assert teLogHeader != null : "teLogHeader must not be null";
+    assert teLogEntries != null : "teLogEntries must not be null";
+    assert !teLogEntries.isEmpty() : "teLogEntries must not be empty";
+
+    if (logsDirectory != null) {
+      // the segment store holds the tail entry detached from its predecessors, so that the header does not retain the whole chain
+      final TELogSegmentStore teLogSegmentStore = getTELogSegmentStore(teLogHeader.getName());
+      teLogSegmentStore.append(teLogEntries);
+      synchronized (teLogHeader) {
+        teLogHeader.setHeadTELogEntry(teLogSegmentStore.getTailTELogEntry());
+      }
+      return;
+    }
+    final RepositoryConnection repositoryConnection
+            = rdfEntityManager.getConnectionToRepositoryContainingClass(TELogItemEntry.class);
+    synchronized (teLogHeader) {
+      final AbstractTELogEntry previousHeadTELogEntry = teLogHeader.getHeadTELogEntry();
+      try {
+        repositoryConnection.begin();
+        for (final AbstractTELogEntry teLogEntry : teLogEntries) {
+          rdfEntityManager.persist(teLogEntry);
+        }
+        teLogHeader.setHeadTELogEntry(teLogEntries.get(teLogEntries.size() - 1));
+        rdfEntityManager.persist(teLogHeader);
+        rdfEntityManager.commit(repositoryConnection);
+      } catch (RepositoryException | RuntimeException ex) {
+        // restore the head, which is null when the first batch of an empty log fails
+        teLogHeader.setHeadTELogEntry(previousHeadTELogEntry);
+        try {
+          rdfEntityManager.rollback(repositoryConnection);
+        } catch (TexaiException ex1) {
+          LOGGER.warn("cannot roll back: " + ex1.getMessage());
+        }
+        throw ex instanceof TexaiException ? (TexaiException) ex : new TexaiException(ex);
+      }
+    }
+  }
+
+  /**
+   * Gets the sequencer of the named log, starting it if required.
+   *
+   * @param name the log name
+   *
+   * @return the sequencer
+   */
+  private TELogSequencer getTELogSequencer(final String name) {
+    final TELogHeader teLogHeader = findTELogHeader(name);
+    if (teLogHeader == null) {
+      throw new TexaiException("TELogHeader not found for " + name);
+    }
+    synchronized (teLogHeaderDictionary) {
+      TELogSequencer teLogSequencer = teLogSequencerDictionary.get(name);
+      if (teLogSequencer == null) {
+        teLogSequencer = new TELogSequencer(this, teLogHeader);
+        teLogSequencerDictionary.put(name, teLogSequencer);
+      }
+      return teLogSequencer;
+    }
+  }
+
+  /**
+   * Waits for the given appended entry to be persisted.
+   *
+   * @param <T> the entry type
+   * @param future the future that is completed with the persisted entry
+   *
+   * @return the persisted entry
+   */
+  private static <T extends AbstractTELogEntry> T waitFor(final CompletableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new TexaiException(ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      } else {
+        throw new TexaiException(ex.getCause());
+      }
+    }
+  }
+
+  /**
+   * Gets the segment store of the named log.
+   *
+   * @param name the log name
+   *
+   * @return the segment store
+   */
+  private TELogSegmentStore getTELogSegmentStore(final String name) {
+    final TELogSegmentStore teLogSegmentStore;
+    synchronized (teLogHeaderDictionary) {
+      teLogSegmentStore = teLogSegmentStoreDictionary.get(name);
+    }
+    if (teLogSegmentStore == null) {
+      throw new TexaiException("segment store not open for " + name);
+    }
+    return teLogSegmentStore;
+  }
+
+  /**
+   * Gets the segment store of the named log for a range read, which the RDF store does not support.
+   *
+   * @param name the log name
+   *
+   * @return the segment store
+   */
+  private TELogSegmentStore getTELogSegmentStoreForRangeRead(final String name) {
+    if (logsDirectory == null) {
+      throw new TexaiException("range reads require a segment store");
+    }
+    if (findTELogHeader(name) == null) {
+      throw new TexaiException("missing TELogHeader named " + name);
+    }
+    return getTELogSegmentStore(name);
+  }
+
+  /**
+   * Gets the segment store directory of the named log.
+   *
+   * @param name the log name
+   *
+   * @return the segment store directory
+   */
+  private File getLogDirectory(final String name) {
+    try {
+      return new File(logsDirectory, URLEncoder.encode(name, "UTF-8"));
+    } catch (UnsupportedEncodingException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
   /**
    * Verifies the given list of log entries, and if valid returns a signature using the given X.509 certificate and private key, otherwise
    * returns null.
@@ -537,4 +924,60 @@ public class TELogAccess {
     }
     return true;
   }
+
+  /**
+   * Provides a task that verifies a chunk of a log, anchored on the entry preceding it.
+   */
+  private static final class ChunkVerificationTask implements Callable<Boolean> {
+
+    // the segment store
+    private final TELogSegmentStore teLogSegmentStore;
+    // the sequence number of the first entry
+    private final long fromSequence;
+    // the sequence number following the last entry
+    private final long toSequence;
+    // the expected digest of the last entry, or null if there is no checkpoint at the end of the chunk
+    private final byte[] checkpointDigest;
+
+    /**
+     * Constructs a new ChunkVerificationTask instance.
+     *
+     * @param teLogSegmentStore the segment store
+     * @param fromSequence the sequence number of the first entry
+     * @param toSequence the sequence number following the last entry
+     * @param checkpointDigest the expected digest of the last entry, or null if there is no checkpoint at the end of the chunk
+     */
+    ChunkVerificationTask(
+            final TELogSegmentStore teLogSegmentStore,
+            final long fromSequence,
+            final long toSequence,
+            final byte[] checkpointDigest) {
+      //Preconditions
+      assert teLogSegmentStore != null : "teLogSegmentStore must not be null";
+      assert fromSequence < toSequence : "the chunk must not be empty";
+
+      this.teLogSegmentStore = teLogSegmentStore;
+      this.fromSequence = fromSequence;
+      this.toSequence = toSequence;
+      this.checkpointDigest = checkpointDigest;
+    }
+
+    /**
+     * Verifies the chunk.
+     *
+     * @return whether the chunk is valid with respect to its hash chain and its checkpoint
+     */
+    @Override
+    public Boolean call() {
+      final Iterator<AbstractTELogEntry> teLogEntryIterator = teLogSegmentStore.iterator(fromSequence, toSequence);
+      AbstractTELogEntry teLogEntry = null;
+      while (teLogEntryIterator.hasNext()) {
+        teLogEntry = teLogEntryIterator.next();
+        if (!teLogEntry.verifyDigest()) {
+          return false;
+        }
+      }
+      return teLogEntry != null && (checkpointDigest == null || Arrays.equals(teLogEntry.getDigest(), checkpointDigest));
+    }
+  }
 }
@@ -1,14 +1,22 @@
 package org.texai.tamperEvidentLogs;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import net.sf.ehcache.CacheManager;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
 import org.texai.kb.CacheInitializer;
 import org.texai.kb.journal.JournalWriter;
 import org.texai.kb.persistence.DistributedRepositoryManager;
 import org.texai.kb.persistence.RDFEntityManager;
 import org.texai.kb.persistence.RDFEntityPersister;
 import org.texai.kb.persistence.RDFEntityRemover;
+import org.texai.tamperEvidentLogs.domainEntity.AbstractTELogEntry;
+import org.texai.tamperEvidentLogs.domainEntity.TELogItemEntry;
+import org.texai.util.FileSystemUtils;
+import org.texai.util.TexaiException;
 import org.texai.x509.X509Utils;
 
 /**
@@ -40,6 +48,9 @@ public class TELogBenchmark {
   public TELogBenchmark() {
   }
 
+  /**
+   * Benchmarks appending items to a log persisted as RDF entities.
+   */
   private void benchmark() {
     String name = TEST_LOG;
     Logger.getLogger(RDFEntityPersister.class).setLevel(Level.WARN);
@@ -72,6 +83,50 @@ public class TELogBenchmark {
     JournalWriter.deleteJournalFiles();
   }
 
+  /**
+   * Benchmarks appending items to a log kept in a segment store, and compares it with computing the hash chain digests alone.
+   */
+  private void benchmarkSegmentStore() {
+    X509Utils.addBouncyCastleSecurityProvider();
+    final File logsDirectory;
+    try {
+      logsDirectory = Files.createTempDirectory("TELogBenchmark").toFile();
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    final TELogAccess instance = new TELogAccess(logsDirectory);
+
+    LOGGER.info("segment store benchmark");
+    instance.createTELogHeader(TEST_LOG);
+    final int nbrIterations = 10000;
+    long beginMillis = System.currentTimeMillis();
+    for (int i = 1; i < nbrIterations; i++) {
+      instance.appendTELogItemEntry(TEST_LOG, i, "test chaos value");
+    }
+    long durationMillis = Math.max(1, System.currentTimeMillis() - beginMillis);
+    LOGGER.info("segment store duration milliseconds:  " + durationMillis);
+    LOGGER.info("segment store log entries per second: " + 1000.0 * (float) nbrIterations / (float) durationMillis);
+    instance.close();
+
+    AbstractTELogEntry previousTELogEntry = null;
+    beginMillis = System.currentTimeMillis();
+    for (int i = 1; i < nbrIterations; i++) {
+      final String encodedItem = TELogItemEntry.encodeItem(i);
+      final DateTime timestamp = new DateTime();
+      final byte[] digest = TELogItemEntry.makeTELogItemEntryDigest(encodedItem, previousTELogEntry, timestamp, "test chaos value");
+      previousTELogEntry = new TELogItemEntry(
+              encodedItem,
+              null, // previousTELogEntry
+              timestamp,
+              "test chaos value",
+              AbstractTELogEntry.encodeDigest(digest));
+    }
+    durationMillis = Math.max(1, System.currentTimeMillis() - beginMillis);
+    LOGGER.info("hashing only duration milliseconds:   " + durationMillis);
+    LOGGER.info("hashing only entries per second:      " + 1000.0 * (float) nbrIterations / (float) durationMillis);
+    FileSystemUtils.deleteRecursively(logsDirectory);
+  }
+
   /**
    * Executes this application.
    *
@@ -80,6 +135,7 @@ public class TELogBenchmark {
   public static void main(final String[] args) {
     final TELogBenchmark teLogBenchmark = new TELogBenchmark();
     teLogBenchmark.benchmark();
+    teLogBenchmark.benchmarkSegmentStore();
   }
 
 }
@@ -0,0 +1,1141 @@
+package org.texai.tamperEvidentLogs;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.texai.tamperEvidentLogs.domainEntity.AbstractTELogEntry;
+import org.texai.tamperEvidentLogs.domainEntity.TEKeyedLogItemEntry;
+import org.texai.tamperEvidentLogs.domainEntity.TELogAuthenticatorEntry;
+import org.texai.tamperEvidentLogs.domainEntity.TELogItemEntry;
+import org.texai.util.Base64Coder;
+import org.texai.util.TexaiException;
+
+/**
+ * TELogSegmentStore.java
+ *
+ * Description: Provides an append-only, memory-mapped segment store for a single tamper-evident log.
+ *
+ * Each entry is written once, as a length-prefixed binary record holding the raw serialized item, the timestamp, the chaos value and the
+ * SHA-512 chain digest, into the current memory-mapped segment file. A sparse offset index records the position of every
+ * INDEX_INTERVAL'th entry, so that an entry is located from the preceding index record by a short forward walk. The log header is
+ * reduced to a tail pointer, which is written into one of two alternating checksummed slots after the entry itself, so that a torn
+ * append leaves the previous tail in effect.
+ *
+ * Entries are decoded into the same domain entities that are persisted in the RDF store, whose encoded item, encoded digest and timestamp
+ * are reconstructed exactly, so their verifyDigest methods and the hash chain checks of TELogAccess.verify apply unchanged. A decoded
+ * entry refers to its decoded predecessor, but that predecessor is detached, i.e. it does not itself refer further back, so that holding
+ * an entry does not hold the whole chain.
+ *
+ * A key index maps the key of each keyed item entry to the position of the most recently appended entry having that key, so that keyed
+ * lookups read a single entry. Its file holds, in log order, a record for each keyed entry followed by a watermark record giving the
+ * number of entries covered, which is written after each append of a keyed entry and when the store is forced or closed. Latest wins: a later record for a key replaces an earlier one, because appends never
+ * reorder entries. The index is written before the tail pointer, so after a crash any records beyond the last watermark that the tail
+ * covers are discarded and the entries following it are re-indexed from the log. Deleting the file therefore rebuilds the index.
+ *
+ * Copyright (C) Oct 19, 2026, Stephen L. Reed, Texai.org.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation,
+ * Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+@ThreadSafe
+public final class TELogSegmentStore {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(TELogSegmentStore.class);
+  // the default segment size in bytes
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+  // the number of entries between sparse offset index records
+  public static final int INDEX_INTERVAL = 256;
+  // the tail pointer file name
+  private static final String TAIL_FILE_NAME = "tail.ptr";
+  // the sparse offset index file name
+  private static final String INDEX_FILE_NAME = "sparse.idx";
+  // the key index file name
+  private static final String KEY_INDEX_FILE_NAME = "keys.idx";
+  // the key length that marks a key index watermark record
+  private static final int WATERMARK_KEY_LENGTH = -1;
+  // the key index read buffer size
+  private static final int KEY_INDEX_READ_BUFFER_SIZE = 64 * 1024;
+  // the checkpoint file name
+  private static final String CHECKPOINT_FILE_NAME = "checkpoints.dat";
+  // the length of a checkpoint record, consisting of the sequence number and the SHA-512 digest
+  private static final int CHECKPOINT_RECORD_LENGTH = 8 + 64;
+  // the segment file name prefix
+  private static final String SEGMENT_PREFIX = "segment-";
+  // the segment file name suffix
+  private static final String SEGMENT_SUFFIX = ".seg";
+  // the length of a tail pointer slot, consisting of the number of entries, segment number, offset and check value
+  private static final int TAIL_SLOT_LENGTH = 24;
+  // the value mixed into the tail pointer check value
+  private static final long TAIL_CHECK_MAGIC = 0x54454c6f67546169L;
+  // the length of a sparse offset index record, consisting of the sequence number, segment number and offset
+  private static final int INDEX_RECORD_LENGTH = 16;
+  // the item entry kind
+  private static final byte ITEM_KIND = 1;
+  // the keyed item entry kind
+  private static final byte KEYED_ITEM_KIND = 2;
+  // the authenticator entry kind
+  private static final byte AUTHENTICATOR_KIND = 3;
+  // the log directory
+  private final File directory;
+  // the segment size in bytes
+  private final int segmentSize;
+  // the mapped segments, indexed by segment number
+  private final List<MappedByteBuffer> segments = new ArrayList<>();
+  // the tail pointer file
+  private final RandomAccessFile tailFile;
+  // the mapped tail pointer slots
+  private final MappedByteBuffer tailBuffer;
+  // the sparse offset index file
+  private final RandomAccessFile indexFile;
+  // the sparse offset index positions, each packing the segment number into the high and the offset into the low 32 bits
+  private long[] indexPositions = new long[16];
+  // the number of sparse offset index records
+  private int nbrIndexRecords = 0;
+  // the number of entries
+  private long nbrEntries;
+  // the current segment number
+  private int tailSegmentNumber;
+  // the offset following the last entry in the current segment
+  private int tailOffset;
+  // the tail pointer slot holding the current tail
+  private int tailSlot = 1;
+  // the detached most recent entry, or null if the log is empty
+  private AbstractTELogEntry tailTELogEntry;
+  // the key index file
+  private final RandomAccessFile keyIndexFile;
+  // the key index, key --> packed position of the most recent keyed item entry having the key
+  private final Map<String, Long> keyIndex = new HashMap<>();
+  // the key index records written by the current append, which are flushed with a watermark before the tail pointer is written
+  private final ByteArrayOutputStream keyIndexBuffer = new ByteArrayOutputStream(256);
+  // the key index file length following the last watermark record
+  private long keyIndexLength;
+  // the number of entries covered by the last watermark record
+  private long keyIndexWatermark;
+  // the checkpoint file
+  private final RandomAccessFile checkpointFile;
+  // the checkpoints, in sequence order
+  private final List<Checkpoint> checkpoints = new ArrayList<>();
+  // the reused entry encoding buffer
+  private final ByteArrayOutputStream encodingBuffer = new ByteArrayOutputStream(1024);
+  // the indicator whether this store is closed
+  private boolean isClosed = false;
+
+  /**
+   * Opens the segment store in the given directory, creating it if it does not exist.
+   *
+   * @param directory the log directory
+   */
+  public TELogSegmentStore(final File directory) {
+    this(directory, DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * Opens the segment store in the given directory, creating it if it does not exist.
+   *
+   * @param directory the log directory
+   * @param segmentSize the segment size in bytes
+   */
+  public TELogSegmentStore(
+          final File directory,
+          final int segmentSize) {
+    //Preconditions
+    assert directory != null : "directory must not be null";
+    assert segmentSize >= 1024 : "segmentSize must be at least 1024 bytes";
+
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new TexaiException("cannot create the log directory " + directory);
+    }
+    try {
+      tailFile = new RandomAccessFile(new File(directory, TAIL_FILE_NAME), "rw");
+      tailBuffer = tailFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 2 * TAIL_SLOT_LENGTH);
+      indexFile = new RandomAccessFile(new File(directory, INDEX_FILE_NAME), "rw");
+      keyIndexFile = new RandomAccessFile(new File(directory, KEY_INDEX_FILE_NAME), "rw");
+      checkpointFile = new RandomAccessFile(new File(directory, CHECKPOINT_FILE_NAME), "rw");
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    readTail();
+    for (int segmentNumber = 0; segmentNumber <= tailSegmentNumber; segmentNumber++) {
+      segments.add(mapSegment(segmentNumber, segmentSize));
+    }
+    readIndex();
+    readKeyIndex();
+    readCheckpoints();
+    if (nbrEntries > 0) {
+      tailTELogEntry = detach(read(nbrEntries - 1, 1).get(0));
+    }
+    LOGGER.info("opened " + directory + ", entries: " + nbrEntries);
+  }
+
+  /**
+   * Gets the number of entries.
+   *
+   * @return the number of entries
+   */
+  public synchronized long size() {
+    return nbrEntries;
+  }
+
+  /**
+   * Gets the most recent entry, which is detached from its predecessors.
+   *
+   * @return the most recent entry, or null if the log is empty
+   */
+  public synchronized AbstractTELogEntry getTailTELogEntry() {
+    return tailTELogEntry;
+  }
+
+  /**
+   * Appends the given entry, whose previous entry must be the current tail entry.
+   *
+   * @param teLogEntry the given entry
+   *
+   * @return the sequence number of the appended entry
+   */
+  public synchronized long append(final AbstractTELogEntry teLogEntry) {
+    //Preconditions
+    assert teLogEntry != null : "teLogEntry must not be null";
+    assert !isClosed : "store must not be closed";
+
+    final long sequence = appendRecord(teLogEntry);
+    if (keyIndexBuffer.size() > 0) {
+      writeKeyIndexWatermark();
+    }
+    writeTail();
+    tailTELogEntry = detach(teLogEntry);
+    return sequence;
+  }
+
+  /**
+   * Appends the given entries, each of whose previous entry is the one before it, and the first of whose is the current tail entry. The
+   * tail pointer is written once, after all the entries, so that a torn batch leaves the previous tail in effect.
+   *
+   * @param teLogEntries the given entries
+   *
+   * @return the sequence number of the first appended entry
+   */
+  public synchronized long append(final List<AbstractTELogEntry> teLogEntries) {
+    //Preconditions
+    assert teLogEntries != null : "teLogEntries must not be null";
+    assert !teLogEntries.isEmpty() : "teLogEntries must not be empty";
+    assert !isClosed : "store must not be closed";
+
+    final long firstSequence = nbrEntries;
+    for (final AbstractTELogEntry teLogEntry : teLogEntries) {
+      appendRecord(teLogEntry);
+    }
+    if (keyIndexBuffer.size() > 0) {
+      writeKeyIndexWatermark();
+    }
+    writeTail();
+    tailTELogEntry = detach(teLogEntries.get(teLogEntries.size() - 1));
+    return firstSequence;
+  }
+
+  /**
+   * Reads the given number of entries beginning with the given sequence number. The first returned entry refers to its detached
+   * predecessor, and each following entry to the one before it.
+   *
+   * @param fromSequence the sequence number of the first entry
+   * @param nbrToRead the number of entries to read
+   *
+   * @return the entries in log order
+   */
+  public List<AbstractTELogEntry> read(
+          final long fromSequence,
+          final int nbrToRead) {
+    //Preconditions
+    assert fromSequence >= 0 : "fromSequence must not be negative";
+    assert nbrToRead >= 0 : "nbrToRead must not be negative";
+
+    final List<AbstractTELogEntry> teLogEntries = new ArrayList<>(nbrToRead);
+    final TELogEntryIterator teLogEntryIterator = new TELogEntryIterator(fromSequence, fromSequence + nbrToRead, false);
+    while (teLogEntryIterator.hasNext()) {
+      teLogEntries.add(teLogEntryIterator.next());
+    }
+    return teLogEntries;
+  }
+
+  /**
+   * Returns an iterator over the entries in the given sequence number range, which decodes each entry only when it is reached. Each
+   * returned entry refers to a detached copy of its predecessor, so that the iterated entries are not retained by the iterator.
+   *
+   * @param fromSequence the sequence number of the first entry
+   * @param toSequence the sequence number following the last entry, which is limited to the number of entries
+   *
+   * @return the iterator
+   */
+  public Iterator<AbstractTELogEntry> iterator(
+          final long fromSequence,
+          final long toSequence) {
+    //Preconditions
+    assert fromSequence >= 0 : "fromSequence must not be negative";
+    assert toSequence >= fromSequence : "toSequence must not be less than fromSequence";
+
+    return new TELogEntryIterator(fromSequence, toSequence, true);
+  }
+
+  /**
+   * Finds the sequence number of the first entry whose timestamp is not before the given timestamp. Because timestamps are ordered, this
+   * is a binary search over the sparse offset index, followed by a walk of at most INDEX_INTERVAL entries that reads only their
+   * timestamps.
+   *
+   * @param timestamp the given timestamp
+   *
+   * @return the sequence number of the first entry whose timestamp is not before the given timestamp, or the number of entries if there
+   * is none
+   */
+  public synchronized long findSequence(final DateTime timestamp) {
+    //Preconditions
+    assert timestamp != null : "timestamp must not be null";
+
+    final long millis = timestamp.getMillis();
+    // find the last indexed entry whose timestamp is before the given one
+    int low = 0;
+    int high = nbrIndexRecords - 1;
+    int indexRecordNbr = -1;
+    while (low <= high) {
+      final int middle = (low + high) >>> 1;
+      final long indexPosition = indexPositions[middle];
+      final long[] position = {indexPosition >>> 32, indexPosition & 0xFFFFFFFFL};
+      if (readTimestampMillis(readRecord(position)) < millis) {
+        indexRecordNbr = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    if (indexRecordNbr == -1) {
+      return 0;
+    }
+    long sequence = (long) indexRecordNbr * INDEX_INTERVAL;
+    final long indexPosition = indexPositions[indexRecordNbr];
+    final long[] position = {indexPosition >>> 32, indexPosition & 0xFFFFFFFFL};
+    while (sequence < nbrEntries && readTimestampMillis(readRecord(position)) < millis) {
+      sequence++;
+    }
+    return sequence;
+  }
+
+  /**
+   * Records a checkpoint, i.e. the digest of the last entry of a verified prefix of the log.
+   *
+   * @param sequence the sequence number of the last verified entry
+   * @param digest the digest of the last verified entry
+   */
+  public synchronized void addCheckpoint(
+          final long sequence,
+          final byte[] digest) {
+    //Preconditions
+    assert sequence >= 0 && sequence < nbrEntries : "sequence must be that of an entry";
+    assert digest != null && digest.length == 64 : "digest must be a SHA-512 digest";
+    if (!checkpoints.isEmpty() && sequence <= checkpoints.get(checkpoints.size() - 1).getSequence()) {
+      // a duplicate or out-of-order checkpoint would anchor later verifications on the wrong entry
+      throw new TexaiException("checkpoints must be ordered, sequence: " + sequence + ", last checkpoint: "
+              + checkpoints.get(checkpoints.size() - 1).getSequence());
+    }
+
+    try {
+      checkpointFile.seek((long) checkpoints.size() * CHECKPOINT_RECORD_LENGTH);
+      checkpointFile.writeLong(sequence);
+      checkpointFile.write(digest);
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    checkpoints.add(new Checkpoint(sequence, digest));
+  }
+
+  /**
+   * Gets the checkpoints.
+   *
+   * @return the checkpoints, in sequence order
+   */
+  public synchronized List<Checkpoint> getCheckpoints() {
+    return new ArrayList<>(checkpoints);
+  }
+
+  /**
+   * Finds the most recently appended keyed item entry having the given key, by way of the key index.
+   *
+   * @param key the given key
+   *
+   * @return the most recent keyed item entry having the given key, which is detached from its predecessors, or null if not found
+   */
+  public TEKeyedLogItemEntry findLatestTEKeyedLogItemEntry(final String key) {
+    //Preconditions
+    assert key != null : "key must not be null";
+
+    final Long packedPosition;
+    synchronized (this) {
+      packedPosition = keyIndex.get(key);
+    }
+    if (packedPosition == null) {
+      return null;
+    }
+    final long[] position = {packedPosition >>> 32, packedPosition & 0xFFFFFFFFL};
+    return (TEKeyedLogItemEntry) decode(readRecord(position), null);
+  }
+
+  /**
+   * Rebuilds the key index from the log, e.g. after its file was found to be damaged.
+   */
+  public synchronized void rebuildKeyIndex() {
+    //Preconditions
+    assert !isClosed : "store must not be closed";
+
+    keyIndex.clear();
+    keyIndexBuffer.reset();
+    try {
+      keyIndexFile.setLength(0);
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    keyIndexLength = 0;
+    indexKeys(0);
+    LOGGER.info("rebuilt the key index of " + directory + ", keys: " + keyIndex.size());
+  }
+
+  /**
+   * Flushes the mapped segments, the tail pointer and the key index to the storage device, first advancing the key index watermark over
+   * any unkeyed entries appended since it was last written.
+   */
+  public synchronized void force() {
+    if (!isClosed && keyIndexWatermark < nbrEntries) {
+      writeKeyIndexWatermark();
+    }
+    for (final MappedByteBuffer segment : segments) {
+      segment.force();
+    }
+    tailBuffer.force();
+    try {
+      keyIndexFile.getChannel().force(false);
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /**
+   * Flushes and closes this store. The mappings are released when they are garbage collected.
+   */
+  public synchronized void close() {
+    if (isClosed) {
+      return;
+    }
+    force();
+    try {
+      tailFile.close();
+      indexFile.close();
+      keyIndexFile.close();
+      checkpointFile.close();
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    isClosed = true;
+  }
+
+  /**
+   * Returns a copy of the given entry that does not refer to its predecessor.
+   *
+   * @param teLogEntry the given entry
+   *
+   * @return the detached copy
+   */
+  public static AbstractTELogEntry detach(final AbstractTELogEntry teLogEntry) {
+    //Preconditions
+    assert teLogEntry != null : "teLogEntry must not be null";
+
+    if (teLogEntry.getPreviousTELogEntry() == null) {
+      return teLogEntry;
+    } else if (teLogEntry instanceof TEKeyedLogItemEntry) {
+      final TEKeyedLogItemEntry teKeyedLogItemEntry = (TEKeyedLogItemEntry) teLogEntry;
+      return new TEKeyedLogItemEntry(
+              teKeyedLogItemEntry.getEncodedItem(),
+              teKeyedLogItemEntry.getKey(),
+              null, // previousTELogEntry
+              teKeyedLogItemEntry.getTimestamp(),
+              teKeyedLogItemEntry.getChaosValue(),
+              teKeyedLogItemEntry.getEncodedDigest());
+    } else if (teLogEntry instanceof TELogItemEntry) {
+      final TELogItemEntry teLogItemEntry = (TELogItemEntry) teLogEntry;
+      return new TELogItemEntry(
+              teLogItemEntry.getEncodedItem(),
+              null, // previousTELogEntry
+              teLogItemEntry.getTimestamp(),
+              teLogItemEntry.getChaosValue(),
+              teLogItemEntry.getEncodedDigest());
+    } else {
+      final TELogAuthenticatorEntry teLogAuthenticatorEntry = (TELogAuthenticatorEntry) teLogEntry;
+      return new TELogAuthenticatorEntry(
+              teLogAuthenticatorEntry.getSigningAgentName(),
+              teLogAuthenticatorEntry.getEncodedSignatureBytes(),
+              null, // previousTELogEntry
+              teLogAuthenticatorEntry.getTimestamp(),
+              teLogAuthenticatorEntry.getChaosValue(),
+              teLogAuthenticatorEntry.getEncodedDigest());
+    }
+  }
+
+  /**
+   * Writes the record of the given entry after the tail, without writing the tail pointer.
+   *
+   * @param teLogEntry the given entry
+   *
+   * @return the sequence number of the entry
+   */
+  private long appendRecord(final AbstractTELogEntry teLogEntry) {
+    assert Thread.holdsLock(this);
+
+    final byte[] entryBytes = encode(teLogEntry);
+    final int recordLength = 4 + entryBytes.length;
+    MappedByteBuffer segment = segments.get(tailSegmentNumber);
+    if (tailOffset + recordLength > segment.capacity()) {
+      // mark the end of the full segment and begin a new one, large enough for an oversized entry
+      if (segment.capacity() - tailOffset >= 4) {
+        segment.putInt(tailOffset, 0);
+      }
+      tailSegmentNumber++;
+      tailOffset = 0;
+      segment = mapSegment(tailSegmentNumber, Math.max(segmentSize, recordLength + 4));
+      segments.add(segment);
+    }
+    final long sequence = nbrEntries;
+    final ByteBuffer byteBuffer = segment.duplicate();
+    byteBuffer.position(tailOffset);
+    byteBuffer.putInt(entryBytes.length);
+    byteBuffer.put(entryBytes);
+    if (sequence % INDEX_INTERVAL == 0) {
+      writeIndexRecord(sequence, tailSegmentNumber, tailOffset);
+    }
+    if (teLogEntry instanceof TEKeyedLogItemEntry) {
+      addKeyIndexRecord(((TEKeyedLogItemEntry) teLogEntry).getKey(), ((long) tailSegmentNumber << 32) | tailOffset);
+    }
+    tailOffset += recordLength;
+    nbrEntries++;
+    return sequence;
+  }
+
+  /**
+   * Locates the entry having the given sequence number.
+   *
+   * @param sequence the given sequence number, which must be less than the number of entries
+   *
+   * @return the position of the entry, as a two element array holding the segment number and the offset
+   */
+  private long[] locate(final long sequence) {
+    assert Thread.holdsLock(this);
+    assert sequence < nbrEntries : "sequence must be less than the number of entries";
+
+    final int indexRecordNbr = (int) (sequence / INDEX_INTERVAL);
+    final long indexPosition = indexPositions[indexRecordNbr];
+    final long[] position = {indexPosition >>> 32, indexPosition & 0xFFFFFFFFL};
+    for (long i = (long) indexRecordNbr * INDEX_INTERVAL; i < sequence; i++) {
+      readRecord(position);
+    }
+    return position;
+  }
+
+  /**
+   * Reads the entry record at the given position, and advances the position to the following record.
+   *
+   * @param position the position, as a two element array holding the segment number and the offset
+   *
+   * @return a buffer positioned at the start of the entry bytes and limited to their end
+   */
+  private ByteBuffer readRecord(final long[] position) {
+    MappedByteBuffer segment;
+    synchronized (this) {
+      segment = segments.get((int) position[0]);
+    }
+    if (position[1] + 4 > segment.capacity() || segment.getInt((int) position[1]) == 0) {
+      // end of the segment
+      position[0]++;
+      position[1] = 0;
+      synchronized (this) {
+        segment = segments.get((int) position[0]);
+      }
+    }
+    final int offset = (int) position[1];
+    final int length = segment.getInt(offset);
+    final ByteBuffer entryBuffer = segment.duplicate();
+    entryBuffer.limit(offset + 4 + length);
+    entryBuffer.position(offset + 4);
+    position[1] = offset + 4 + length;
+    return entryBuffer;
+  }
+
+  /**
+   * Encodes the given entry.
+   *
+   * @param teLogEntry the given entry
+   *
+   * @return the entry bytes
+   */
+  private byte[] encode(final AbstractTELogEntry teLogEntry) {
+    encodingBuffer.reset();
+    final DataOutputStream dataOutputStream = new DataOutputStream(encodingBuffer);
+    try {
+      if (teLogEntry instanceof TEKeyedLogItemEntry) {
+        dataOutputStream.writeByte(KEYED_ITEM_KIND);
+        writeBytes(dataOutputStream, ((TEKeyedLogItemEntry) teLogEntry).getKey().getBytes(StandardCharsets.UTF_8));
+        writeBytes(dataOutputStream, Base64Coder.decode(((TELogItemEntry) teLogEntry).getEncodedItem()));
+      } else if (teLogEntry instanceof TELogItemEntry) {
+        dataOutputStream.writeByte(ITEM_KIND);
+        writeBytes(dataOutputStream, Base64Coder.decode(((TELogItemEntry) teLogEntry).getEncodedItem()));
+      } else {
+        final TELogAuthenticatorEntry teLogAuthenticatorEntry = (TELogAuthenticatorEntry) teLogEntry;
+        dataOutputStream.writeByte(AUTHENTICATOR_KIND);
+        writeBytes(dataOutputStream, teLogAuthenticatorEntry.getSigningAgentName().getBytes(StandardCharsets.UTF_8));
+        writeBytes(dataOutputStream, teLogAuthenticatorEntry.getSignatureBytes());
+      }
+      dataOutputStream.writeLong(teLogEntry.getTimestamp().getMillis());
+      writeBytes(dataOutputStream, teLogEntry.getTimestamp().getZone().getID().getBytes(StandardCharsets.UTF_8));
+      if (teLogEntry.getChaosValue() == null) {
+        dataOutputStream.writeInt(-1);
+      } else {
+        writeBytes(dataOutputStream, teLogEntry.getChaosValue().getBytes(StandardCharsets.UTF_8));
+      }
+      writeBytes(dataOutputStream, teLogEntry.getDigest());
+      dataOutputStream.flush();
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    return encodingBuffer.toByteArray();
+  }
+
+  /**
+   * Decodes an entry.
+   *
+   * @param entryBuffer the buffer positioned at the start of the entry bytes
+   * @param previousTELogEntry the previous entry, or null if this is the first or if its predecessor is not wanted
+   *
+   * @return the decoded entry
+   */
+  private static AbstractTELogEntry decode(
+          final ByteBuffer entryBuffer,
+          final AbstractTELogEntry previousTELogEntry) {
+    final byte kind = entryBuffer.get();
+    final String key;
+    final String signingAgentName;
+    final byte[] itemOrSignatureBytes;
+    switch (kind) {
+      case ITEM_KIND:
+        key = null;
+        signingAgentName = null;
+        itemOrSignatureBytes = readBytes(entryBuffer);
+        break;
+      case KEYED_ITEM_KIND:
+        key = new String(readBytes(entryBuffer), StandardCharsets.UTF_8);
+        signingAgentName = null;
+        itemOrSignatureBytes = readBytes(entryBuffer);
+        break;
+      case AUTHENTICATOR_KIND:
+        key = null;
+        signingAgentName = new String(readBytes(entryBuffer), StandardCharsets.UTF_8);
+        itemOrSignatureBytes = readBytes(entryBuffer);
+        break;
+      default:
+        throw new TexaiException("invalid log entry kind " + kind);
+    }
+    final long millis = entryBuffer.getLong();
+    final DateTime timestamp = new DateTime(millis, DateTimeZone.forID(new String(readBytes(entryBuffer), StandardCharsets.UTF_8)));
+    final byte[] chaosValueBytes = readBytes(entryBuffer);
+    final String chaosValue = chaosValueBytes == null ? null : new String(chaosValueBytes, StandardCharsets.UTF_8);
+    final String encodedDigest = AbstractTELogEntry.encodeDigest(readBytes(entryBuffer));
+    final String encodedBytes = new String(Base64Coder.encode(itemOrSignatureBytes));
+    switch (kind) {
+      case ITEM_KIND:
+        return new TELogItemEntry(encodedBytes, previousTELogEntry, timestamp, chaosValue, encodedDigest);
+      case KEYED_ITEM_KIND:
+        return new TEKeyedLogItemEntry(encodedBytes, key, previousTELogEntry, timestamp, chaosValue, encodedDigest);
+      default:
+        return new TELogAuthenticatorEntry(signingAgentName, encodedBytes, previousTELogEntry, timestamp, chaosValue, encodedDigest);
+    }
+  }
+
+  /**
+   * Writes the given length-prefixed bytes.
+   *
+   * @param dataOutputStream the data output stream
+   * @param bytes the given bytes
+   *
+   * @throws IOException when an input/output error occurs
+   */
+  private static void writeBytes(
+          final DataOutputStream dataOutputStream,
+          final byte[] bytes) throws IOException {
+    dataOutputStream.writeInt(bytes.length);
+    dataOutputStream.write(bytes);
+  }
+
+  /**
+   * Reads length-prefixed bytes.
+   *
+   * @param byteBuffer the byte buffer
+   *
+   * @return the bytes, or null if the length is -1
+   */
+  private static byte[] readBytes(final ByteBuffer byteBuffer) {
+    final int length = byteBuffer.getInt();
+    if (length == -1) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    byteBuffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Reads the timestamp of an entry, without decoding the entry.
+   *
+   * @param entryBuffer the buffer positioned at the start of the entry bytes
+   *
+   * @return the timestamp in milliseconds
+   */
+  private static long readTimestampMillis(final ByteBuffer entryBuffer) {
+    int position = entryBuffer.position();
+    final byte kind = entryBuffer.get(position);
+    position++;
+    if (kind != ITEM_KIND) {
+      // skip the key or the signing agent name
+      position += 4 + entryBuffer.getInt(position);
+    }
+    // skip the item or the signature bytes
+    position += 4 + entryBuffer.getInt(position);
+    return entryBuffer.getLong(position);
+  }
+
+  /**
+   * Reads the key index up to its last watermark covered by the tail, discards any records following it, and indexes the remaining
+   * entries from the log.
+   */
+  private void readKeyIndex() {
+    long indexedEntries = 0;
+    try {
+      final long fileLength = keyIndexFile.length();
+      keyIndexFile.getChannel().position(0);
+      // the stream is not closed, because that would close the key index file
+      final DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(
+              Channels.newInputStream(keyIndexFile.getChannel()),
+              KEY_INDEX_READ_BUFFER_SIZE));
+      final Map<String, Long> pendingKeyIndex = new HashMap<>();
+      long position = 0;
+      while (fileLength - position >= 4 + 8) {
+        final int keyLength = dataInputStream.readInt();
+        position += 4;
+        if (keyLength == WATERMARK_KEY_LENGTH) {
+          final long watermark = dataInputStream.readLong();
+          position += 8;
+          if (watermark > nbrEntries) {
+            // written before a crash that prevented the tail pointer from covering the entries
+            break;
+          }
+          keyIndex.putAll(pendingKeyIndex);
+          pendingKeyIndex.clear();
+          indexedEntries = watermark;
+          keyIndexLength = position;
+        } else {
+          if (keyLength < 0 || fileLength - position < keyLength + 8) {
+            // a torn record
+            break;
+          }
+          final byte[] keyBytes = new byte[keyLength];
+          dataInputStream.readFully(keyBytes);
+          pendingKeyIndex.put(new String(keyBytes, StandardCharsets.UTF_8), dataInputStream.readLong());
+          position += keyLength + 8;
+        }
+      }
+      keyIndexFile.setLength(keyIndexLength);
+      keyIndexWatermark = indexedEntries;
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    if (indexedEntries < nbrEntries) {
+      LOGGER.info("indexing the keys of " + (nbrEntries - indexedEntries) + " entries in " + directory);
+      synchronized (this) {
+        indexKeys(indexedEntries);
+      }
+    }
+  }
+
+  /**
+   * Indexes the keys of the entries beginning with the given sequence number, and writes the watermark.
+   *
+   * @param fromSequence the given sequence number
+   */
+  private void indexKeys(final long fromSequence) {
+    assert Thread.holdsLock(this);
+
+    if (fromSequence < nbrEntries) {
+      final long[] position = locate(fromSequence);
+      for (long sequence = fromSequence; sequence < nbrEntries; sequence++) {
+        final ByteBuffer entryBuffer = readRecord(position);
+        if (entryBuffer.get(entryBuffer.position()) == KEYED_ITEM_KIND) {
+          final int keyLength = entryBuffer.getInt(entryBuffer.position() + 1);
+          final byte[] keyBytes = new byte[keyLength];
+          final ByteBuffer keyBuffer = entryBuffer.duplicate();
+          keyBuffer.position(entryBuffer.position() + 5);
+          keyBuffer.get(keyBytes);
+          addKeyIndexRecord(new String(keyBytes, StandardCharsets.UTF_8), (position[0] << 32) | (entryBuffer.position() - 4));
+        }
+      }
+    }
+    writeKeyIndexWatermark();
+  }
+
+  /**
+   * Adds the given key to the key index, and buffers its record until the watermark is written.
+   *
+   * @param key the key
+   * @param packedPosition the position of the keyed item entry, packing the segment number into the high and the offset into the low 32
+   * bits
+   */
+  private void addKeyIndexRecord(
+          final String key,
+          final long packedPosition) {
+    final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+    final ByteBuffer byteBuffer = ByteBuffer.allocate(4 + keyBytes.length + 8);
+    byteBuffer.putInt(keyBytes.length).put(keyBytes).putLong(packedPosition);
+    keyIndexBuffer.write(byteBuffer.array(), 0, byteBuffer.capacity());
+    keyIndex.put(key, packedPosition);
+  }
+
+  /**
+   * Writes the buffered key index records followed by a watermark record giving the number of entries they cover.
+   */
+  private void writeKeyIndexWatermark() {
+    final ByteBuffer byteBuffer = ByteBuffer.allocate(4 + 8);
+    byteBuffer.putInt(WATERMARK_KEY_LENGTH).putLong(nbrEntries);
+    keyIndexBuffer.write(byteBuffer.array(), 0, byteBuffer.capacity());
+    try {
+      keyIndexFile.seek(keyIndexLength);
+      keyIndexFile.write(keyIndexBuffer.toByteArray());
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    keyIndexLength += keyIndexBuffer.size();
+    keyIndexBuffer.reset();
+    keyIndexWatermark = nbrEntries;
+  }
+
+  /**
+   * Reads the checkpoints, ignoring any that lie beyond the tail.
+   */
+  private void readCheckpoints() {
+    try {
+      final long nbrRecords = checkpointFile.length() / CHECKPOINT_RECORD_LENGTH;
+      checkpointFile.seek(0);
+      for (long i = 0; i < nbrRecords; i++) {
+        final long sequence = checkpointFile.readLong();
+        final byte[] digest = new byte[64];
+        checkpointFile.readFully(digest);
+        if (sequence >= nbrEntries) {
+          break;
+        }
+        checkpoints.add(new Checkpoint(sequence, digest));
+      }
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /**
+   * Memory-maps the given segment, creating its file if it does not exist.
+   *
+   * @param segmentNumber the segment number
+   * @param minimumSize the minimum size of a new segment
+   *
+   * @return the mapped segment
+   */
+  private MappedByteBuffer mapSegment(
+          final int segmentNumber,
+          final int minimumSize) {
+    final File segmentFile = new File(directory, String.format("%s%06d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(segmentFile, "rw")) {
+      final long size = Math.max(randomAccessFile.length(), minimumSize);
+      // the mapping remains valid after the file is closed
+      return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /**
+   * Reads the tail pointer, choosing the valid slot having the greater number of entries.
+   */
+  private void readTail() {
+    nbrEntries = 0;
+    tailSegmentNumber = 0;
+    tailOffset = 0;
+    for (int slot = 0; slot < 2; slot++) {
+      final int base = slot * TAIL_SLOT_LENGTH;
+      final long slotNbrEntries = tailBuffer.getLong(base);
+      final int slotSegmentNumber = tailBuffer.getInt(base + 8);
+      final int slotOffset = tailBuffer.getInt(base + 12);
+      final long check = tailBuffer.getLong(base + 16);
+      if (slotNbrEntries > nbrEntries && check == tailCheck(slotNbrEntries, slotSegmentNumber, slotOffset)) {
+        nbrEntries = slotNbrEntries;
+        tailSegmentNumber = slotSegmentNumber;
+        tailOffset = slotOffset;
+        tailSlot = slot;
+      }
+    }
+  }
+
+  /**
+   * Writes the tail pointer into the slot not holding the previous tail.
+   */
+  private void writeTail() {
+    tailSlot = 1 - tailSlot;
+    final int base = tailSlot * TAIL_SLOT_LENGTH;
+    tailBuffer.putLong(base, nbrEntries);
+    tailBuffer.putInt(base + 8, tailSegmentNumber);
+    tailBuffer.putInt(base + 12, tailOffset);
+    tailBuffer.putLong(base + 16, tailCheck(nbrEntries, tailSegmentNumber, tailOffset));
+  }
+
+  /**
+   * Computes the check value of a tail pointer slot.
+   *
+   * @param slotNbrEntries the number of entries
+   * @param slotSegmentNumber the segment number
+   * @param slotOffset the offset
+   *
+   * @return the check value
+   */
+  private static long tailCheck(
+          final long slotNbrEntries,
+          final int slotSegmentNumber,
+          final int slotOffset) {
+    return (slotNbrEntries * 0x9E3779B97F4A7C15L) ^ (((long) slotSegmentNumber << 32) | (slotOffset & 0xFFFFFFFFL)) ^ TAIL_CHECK_MAGIC;
+  }
+
+  /**
+   * Reads the sparse offset index, ignoring any records beyond the tail.
+   */
+  private void readIndex() {
+    try {
+      final long nbrRecords = Math.min(indexFile.length() / INDEX_RECORD_LENGTH, (nbrEntries + INDEX_INTERVAL - 1) / INDEX_INTERVAL);
+      indexFile.seek(0);
+      for (long i = 0; i < nbrRecords; i++) {
+        final long sequence = indexFile.readLong();
+        final int segmentNumber = indexFile.readInt();
+        final int offset = indexFile.readInt();
+        if (sequence != i * INDEX_INTERVAL) {
+          throw new TexaiException("corrupt sparse offset index in " + directory);
+        }
+        addIndexPosition(segmentNumber, offset);
+      }
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /**
+   * Writes a sparse offset index record.
+   *
+   * @param sequence the entry sequence number
+   * @param segmentNumber the entry segment number
+   * @param offset the entry offset
+   */
+  private void writeIndexRecord(
+          final long sequence,
+          final int segmentNumber,
+          final int offset) {
+    try {
+      indexFile.seek((long) nbrIndexRecords * INDEX_RECORD_LENGTH);
+      final ByteBuffer byteBuffer = ByteBuffer.allocate(INDEX_RECORD_LENGTH);
+      byteBuffer.putLong(sequence).putInt(segmentNumber).putInt(offset);
+      indexFile.write(byteBuffer.array());
+    } catch (IOException ex) {
+      throw new TexaiException(ex);
+    }
+    addIndexPosition(segmentNumber, offset);
+  }
+
+  /**
+   * Adds a sparse offset index position.
+   *
+   * @param segmentNumber the entry segment number
+   * @param offset the entry offset
+   */
+  private void addIndexPosition(
+          final int segmentNumber,
+          final int offset) {
+    if (nbrIndexRecords == indexPositions.length) {
+      indexPositions = Arrays.copyOf(indexPositions, indexPositions.length * 2);
+    }
+    indexPositions[nbrIndexRecords++] = ((long) segmentNumber << 32) | (offset & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Provides an iterator over a range of entries.
+   */
+  private final class TELogEntryIterator implements Iterator<AbstractTELogEntry> {
+
+    // the position of the next entry, as a two element array holding the segment number and the offset
+    private final long[] position;
+    // the sequence number of the next entry
+    private long sequence;
+    // the sequence number following the last entry
+    private final long endSequence;
+    // the indicator whether each entry refers to a detached copy of its predecessor, rather than to the predecessor itself
+    private final boolean isDetaching;
+    // the previous entry, or null if the first entry has no predecessor
+    private AbstractTELogEntry previousTELogEntry;
+
+    /**
+     * Constructs a new TELogEntryIterator instance.
+     *
+     * @param fromSequence the sequence number of the first entry
+     * @param toSequence the sequence number following the last entry, which is limited to the number of entries
+     * @param isDetaching the indicator whether each entry refers to a detached copy of its predecessor
+     */
+    TELogEntryIterator(
+            final long fromSequence,
+            final long toSequence,
+            final boolean isDetaching) {
+      this.isDetaching = isDetaching;
+      synchronized (TELogSegmentStore.this) {
+        endSequence = Math.min(toSequence, nbrEntries);
+        if (fromSequence >= endSequence) {
+          position = null;
+          sequence = endSequence;
+          return;
+        }
+        position = locate(fromSequence == 0 ? 0 : fromSequence - 1);
+      }
+      if (fromSequence == 0) {
+        sequence = 0;
+      } else {
+        // the predecessor of the first entry anchors the hash chain
+        previousTELogEntry = decode(readRecord(position), null);
+        sequence = fromSequence;
+      }
+    }
+
+    /**
+     * Returns whether there is another entry.
+     *
+     * @return whether there is another entry
+     */
+    @Override
+    public boolean hasNext() {
+      return sequence < endSequence;
+    }
+
+    /**
+     * Returns the next entry.
+     *
+     * @return the next entry
+     */
+    @Override
+    public AbstractTELogEntry next() {
+      if (sequence >= endSequence) {
+        throw new NoSuchElementException();
+      }
+      final AbstractTELogEntry teLogEntry = decode(
+              readRecord(position),
+              isDetaching && previousTELogEntry != null ? detach(previousTELogEntry) : previousTELogEntry);
+      previousTELogEntry = teLogEntry;
+      sequence++;
+      return teLogEntry;
+    }
+
+    /**
+     * Removes an entry, which is not supported by this append-only store.
+     */
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("append-only store");
+    }
+  }
+
+  /**
+   * Provides a checkpoint, i.e. the digest of the last entry of a verified prefix of the log.
+   */
+  @Immutable
+  public static final class Checkpoint {
+
+    // the sequence number of the last verified entry
+    private final long sequence;
+    // the digest of the last verified entry
+    private final byte[] digest;
+
+    /**
+     * Constructs a new Checkpoint instance.
+     *
+     * @param sequence the sequence number of the last verified entry
+     * @param digest the digest of the last verified entry
+     */
+    Checkpoint(
+            final long sequence,
+            final byte[] digest) {
+      this.sequence = sequence;
+      this.digest = digest.clone();
+    }
+
+    /**
+     * Gets the sequence number of the last verified entry.
+     *
+     * @return the sequence number of the last verified entry
+     */
+    public long getSequence() {
+      return sequence;
+    }
+
+    /**
+     * Gets the digest of the last verified entry.
+     *
+     * @return the digest of the last verified entry
+     */
+    public byte[] getDigest() {
+      return digest.clone();
+    }
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return (new StringBuilder())
+            .append("[TELogSegmentStore ")
+            .append(directory)
+            .append(", entries: ")
+            .append(size())
+            .append(']')
+            .toString();
+  }
+}
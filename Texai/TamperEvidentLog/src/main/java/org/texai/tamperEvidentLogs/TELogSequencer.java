@@ -0,0 +1,274 @@
+package org.texai.tamperEvidentLogs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.texai.tamperEvidentLogs.domainEntity.AbstractTELogEntry;
+import org.texai.tamperEvidentLogs.domainEntity.TELogHeader;
+import org.texai.util.TexaiException;
+
+/**
+ * TELogSequencer.java
+ *
+ * Description: Provides the single sequencer thread of a tamper-evident log, which orders, timestamps, chains and persists appended
+ * entries in batches.
+ *
+ * Callers enqueue pending entries and wait on their futures. The sequencer drains whatever has queued while the previous batch was being
+ * persisted, assigns each entry its timestamp and chains its digest to its predecessor, persists the whole batch at once, and then
+ * completes the callers' futures. A single caller therefore sees one persistence operation per append, while many concurrent callers share
+ * each one.
+ *
+ * An entry is stamped with the wall-clock time, unless the clock has been set back before its predecessor's timestamp, in which case it
+ * shares its predecessor's timestamp. Timestamps are therefore ordered without waiting for the wall clock and never run ahead of it.
+ * Entries appended within the same millisecond share its timestamp, and are ordered by their position in the log, which is their sequence
+ * number in the segment store.
+ *
+ * Copyright (C) Oct 19, 2026, Stephen L. Reed, Texai.org.
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with this program; if not, write to the Free Software Foundation,
+ * Inc., 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+@ThreadSafe
+final class TELogSequencer implements Runnable {
+
+  // the logger
+  private static final Logger LOGGER = Logger.getLogger(TELogSequencer.class);
+  // the maximum number of entries persisted in a batch
+  static final int MAX_BATCH_SIZE = 1000;
+  // the tamper-evident log access, which persists the batches
+  private final TELogAccess teLogAccess;
+  // the log header
+  private final TELogHeader teLogHeader;
+  // the pending entry queue
+  private final BlockingQueue<PendingTELogEntry<?>> pendingTELogEntryQueue = new LinkedBlockingQueue<>();
+  // the pending entry that stops the sequencer
+  private final PendingTELogEntry<AbstractTELogEntry> stopPendingTELogEntry = new PendingTELogEntry<AbstractTELogEntry>() {
+
+    @Override
+    protected AbstractTELogEntry makeTELogEntry(
+            final AbstractTELogEntry previousTELogEntry,
+            final DateTime timestamp) {
+      throw new UnsupportedOperationException();
+    }
+  };
+  // the sequencer thread
+  private final Thread thread;
+  // the number of persisted entries
+  private final AtomicLong entryCount = new AtomicLong(0);
+  // the number of persisted batches
+  private final AtomicLong batchCount = new AtomicLong(0);
+  // the lock which makes enqueuing and stopping mutually exclusive, so that no entry is enqueued behind the stop marker
+  private final Object stopLock = new Object();
+  // the indicator whether this sequencer is stopped, guarded by the stop lock
+  private boolean isStopped = false;
+
+  /**
+   * Constructs and starts a new TELogSequencer instance.
+   *
+   * @param teLogAccess the tamper-evident log access, which persists the batches
+   * @param teLogHeader the log header
+   */
+  TELogSequencer(
+          final TELogAccess teLogAccess,
+          final TELogHeader teLogHeader) {
+    //Preconditions
+    assert teLogAccess != null : "teLogAccess must not be null";
+    assert teLogHeader != null : "teLogHeader must not be null";
+
+    this.teLogAccess = teLogAccess;
+    this.teLogHeader = teLogHeader;
+    thread = new Thread(this, "TE log sequencer " + teLogHeader.getName());
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Enqueues the given pending entry.
+   *
+   * @param <T> the entry type
+   * @param pendingTELogEntry the given pending entry
+   *
+   * @return the future that is completed with the persisted entry
+   */
+  <T extends AbstractTELogEntry> CompletableFuture<T> enqueue(final PendingTELogEntry<T> pendingTELogEntry) {
+    //Preconditions
+    assert pendingTELogEntry != null : "pendingTELogEntry must not be null";
+
+    synchronized (stopLock) {
+      if (isStopped) {
+        pendingTELogEntry.future.completeExceptionally(new TexaiException("sequencer stopped for " + teLogHeader.getName()));
+      } else {
+        pendingTELogEntryQueue.add(pendingTELogEntry);
+      }
+    }
+    return pendingTELogEntry.future;
+  }
+
+  /**
+   * Stops the sequencer after the already enqueued entries are persisted, and waits for it to finish.
+   */
+  void stop() {
+    synchronized (stopLock) {
+      if (!isStopped) {
+        isStopped = true;
+        pendingTELogEntryQueue.add(stopPendingTELogEntry);
+      }
+    }
+    if (Thread.currentThread() != thread) {
+      try {
+        thread.join();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Gets the number of persisted entries.
+   *
+   * @return the number of persisted entries
+   */
+  long getEntryCount() {
+    return entryCount.get();
+  }
+
+  /**
+   * Gets the number of persisted batches.
+   *
+   * @return the number of persisted batches
+   */
+  long getBatchCount() {
+    return batchCount.get();
+  }
+
+  /**
+   * Sequences and persists batches of pending entries until stopped.
+   */
+  @Override
+  public void run() {
+    final List<PendingTELogEntry<?>> batch = new ArrayList<>();
+    boolean isStopping = false;
+    try {
+      while (!isStopping) {
+        batch.clear();
+        try {
+          batch.add(pendingTELogEntryQueue.take());
+        } catch (InterruptedException ex) {
+          break;
+        }
+        pendingTELogEntryQueue.drainTo(batch, MAX_BATCH_SIZE - 1);
+        if (batch.remove(stopPendingTELogEntry)) {
+          isStopping = true;
+        }
+        if (!batch.isEmpty()) {
+          persistBatch(batch);
+        }
+      }
+    } finally {
+      // refuse further entries, and fail every entry still queued, including those of a batch interrupted by an error
+      final List<PendingTELogEntry<?>> remainingPendingTELogEntries = new ArrayList<>(batch);
+      synchronized (stopLock) {
+        isStopped = true;
+        pendingTELogEntryQueue.drainTo(remainingPendingTELogEntries);
+      }
+      for (final PendingTELogEntry<?> pendingTELogEntry : remainingPendingTELogEntries) {
+        if (pendingTELogEntry != stopPendingTELogEntry) {
+          pendingTELogEntry.future.completeExceptionally(new TexaiException("sequencer stopped for " + teLogHeader.getName()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Makes, chains and persists the entries of the given batch, then completes their futures.
+   *
+   * @param batch the given batch of pending entries
+   */
+  private void persistBatch(final List<PendingTELogEntry<?>> batch) {
+    final List<AbstractTELogEntry> teLogEntries = new ArrayList<>(batch.size());
+    final List<PendingTELogEntry<?>> madePendingTELogEntries = new ArrayList<>(batch.size());
+    AbstractTELogEntry previousTELogEntry;
+    synchronized (teLogHeader) {
+      previousTELogEntry = teLogHeader.getHeadTELogEntry();
+    }
+    for (final PendingTELogEntry<?> pendingTELogEntry : batch) {
+      DateTime timestamp = new DateTime();
+      if (previousTELogEntry != null && timestamp.isBefore(previousTELogEntry.getTimestamp())) {
+        timestamp = previousTELogEntry.getTimestamp();
+      }
+      final AbstractTELogEntry teLogEntry;
+      try {
+        teLogEntry = pendingTELogEntry.makeTELogEntry(previousTELogEntry, timestamp);
+      } catch (RuntimeException ex) {
+        // only this entry fails, e.g. an authenticator entry on an empty log
+        pendingTELogEntry.future.completeExceptionally(ex);
+        continue;
+      }
+      teLogEntries.add(teLogEntry);
+      madePendingTELogEntries.add(pendingTELogEntry);
+      previousTELogEntry = teLogEntry;
+    }
+    if (teLogEntries.isEmpty()) {
+      return;
+    }
+    try {
+      teLogAccess.persistTELogEntries(teLogHeader, teLogEntries);
+    } catch (RuntimeException ex) {
+      LOGGER.error("cannot persist " + teLogEntries.size() + " entries of " + teLogHeader.getName(), ex);
+      for (final PendingTELogEntry<?> pendingTELogEntry : madePendingTELogEntries) {
+        pendingTELogEntry.future.completeExceptionally(ex);
+      }
+      return;
+    }
+    entryCount.addAndGet(teLogEntries.size());
+    batchCount.incrementAndGet();
+    for (int i = 0; i < madePendingTELogEntries.size(); i++) {
+      madePendingTELogEntries.get(i).complete(teLogEntries.get(i));
+    }
+  }
+
+  /**
+   * Provides a pending entry, which is made by the sequencer once its predecessor and timestamp are known.
+   *
+   * @param <T> the entry type
+   */
+  abstract static class PendingTELogEntry<T extends AbstractTELogEntry> {
+
+    // the future that is completed with the persisted entry
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    /**
+     * Makes the entry.
+     *
+     * @param previousTELogEntry the previous entry, or null if this is the first
+     * @param timestamp the ordered timestamp, which does not precede the previous entry's timestamp
+     *
+     * @return the entry, whose digest chains it to the previous entry
+     */
+    protected abstract T makeTELogEntry(
+            final AbstractTELogEntry previousTELogEntry,
+            final DateTime timestamp);
+
+    /**
+     * Completes the future with the given persisted entry.
+     *
+     * @param teLogEntry the given persisted entry, which was made by this pending entry
+     */
+    @SuppressWarnings("unchecked")
+    private void complete(final AbstractTELogEntry teLogEntry) {
+      future.complete((T) teLogEntry);
+    }
+  }
+}
@@ -42,7 +42,7 @@ public abstract class AbstractTELogEntry implements RDFPersistent, Comparable<Ab
   // the previous tamper-evident log entry, or empty if this is the first
   @RDFProperty
   private final AbstractTELogEntry previousTELogEntry;
-  // the logger's local timestamp, which is constrained to be unique for ordering the log
+  // the logger's local timestamp, which does not precede the previous entry's timestamp
   @RDFProperty
   private final DateTime timestamp;
   // an optional chaos value
@@ -66,7 +66,7 @@ public abstract class AbstractTELogEntry implements RDFPersistent, Comparable<Ab
    * Constructs a new AbstractTELogEntry.
    *
    * @param previousTELogEntry the previous tamper-evident log entry, or empty if this is the first
-   * @param timestamp the logger's local timestamp, which is constrained to be unique for ordering the log
+   * @param timestamp the logger's local timestamp, which does not precede the previous entry's timestamp
    * @param chaosValue an optional chaos value
    * @param encodedDigest the SHA-512 hash digest of the previous entry's digest, plus this entry's timestamp, chaosValue and implementation
    * fields, encoded in base 64 for persistence
@@ -167,7 +167,8 @@ public abstract class AbstractTELogEntry implements RDFPersistent, Comparable<Ab
 
   /**
    * Compares this object with the specified object for order. Returns a negative integer, zero, or a positive integer as this object is
-   * less than, equal to, or greater than the specified object.
+   * less than, equal to, or greater than the specified object. Entries are ordered by timestamp, and entries of the same log sharing a
+   * timestamp are ordered by their position in the log.
    *
    * @param that the specified object
    */
@@ -176,7 +177,35 @@ public abstract class AbstractTELogEntry implements RDFPersistent, Comparable<Ab
     //Preconditions
     assert that != null : "that must not be null";
 
-    return DateTimeComparator.getInstance().compare(this.timestamp, that.timestamp);
+    final int result = DateTimeComparator.getInstance().compare(this.timestamp, that.getTimestamp());
+    if (result != 0 || this == that) {
+      return result;
+    } else if (isPredecessorOf(that)) {
+      return -1;
+    } else if (that.isPredecessorOf(this)) {
+      return 1;
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * Returns whether this entry precedes the given entry having the same timestamp, walking back from the given entry only over the
+   * entries which share that timestamp.
+   *
+   * @param teLogEntry the given entry
+   *
+   * @return whether this entry precedes the given entry
+   */
+  private boolean isPredecessorOf(final AbstractTELogEntry teLogEntry) {
+    AbstractTELogEntry previousTELogEntry1 = teLogEntry.getPreviousTELogEntry();
+    while (previousTELogEntry1 != null && previousTELogEntry1.getTimestamp().getMillis() == getTimestamp().getMillis()) {
+      if (previousTELogEntry1.getEncodedDigest().equals(getEncodedDigest())) {
+        return true;
+      }
+      previousTELogEntry1 = previousTELogEntry1.getPreviousTELogEntry();
+    }
+    return false;
   }
 
   /**
@@ -66,7 +66,7 @@ public class TELogAuthenticatorEntry extends AbstractTELogEntry {
    * @param signingAgentName the signing agent's name
    * @param encodedSignatureBytes the signing agent's X.509 signature, encoded in base 64 based upon the previous entry's digest
    * @param previousTELogEntry the previous tamper-evident log entry, or empty if this is the first
-   * @param timestamp the logger's local timestamp, which is constrained to be unique for ordering the log
+   * @param timestamp the logger's local timestamp, which does not precede the previous entry's timestamp
    * @param chaosValue an optional chaos value
    * @param encodedDigest the SHA-512 hash digest of the previous entry's digest, plus this entry's timestamp, chaosValue and implementation
    * fields, encoded in base 64
@@ -110,7 +110,7 @@ public class TELogAuthenticatorEntry extends AbstractTELogEntry {
    * @param signingAgentName the signing agent's name
    * @param encodedSignatureBytes the base 64 encoded signature of the previous entries digest
    * @param previousTELogEntry the previous tamper-evident log entry
-   * @param timestamp the logger's local timestamp, which is constrained to be unique for ordering the log
+   * @param timestamp the logger's local timestamp, which does not precede the previous entry's timestamp
    * @param chaosValue an optional chaos value
    *
    * @return a SHA-512 hash digest
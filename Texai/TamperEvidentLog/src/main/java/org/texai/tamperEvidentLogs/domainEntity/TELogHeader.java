@@ -101,12 +101,9 @@ public class TELogHeader implements RDFPersistent {
   /**
    * Set the head of the log item hash chain.
    *
-   * @param headTELogEntry the head of the log item hash chain
+   * @param headTELogEntry the head of the log item hash chain, or null when the log is empty
    */
   public void setHeadTELogEntry(final AbstractTELogEntry headTELogEntry) {
-    //Preconditions
-    assert headTELogEntry != null : "headTELogEntry must not be null";
-
     this.headTELogEntry = headTELogEntry;
   }
 
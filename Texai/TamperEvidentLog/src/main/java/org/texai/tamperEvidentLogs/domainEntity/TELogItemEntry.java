@@ -59,7 +59,7 @@ public class TELogItemEntry extends AbstractTELogEntry {
    *
    * @param encodedItem the logged item, which must be serializable, and encoded in base 64
    * @param previousTELogEntry the previous tamper-evident log entry, or empty if this is the first
-   * @param timestamp the logger's local timestamp, which is constrained to be unique for ordering the log
+   * @param timestamp the logger's local timestamp, which does not precede the previous entry's timestamp
    * @param chaosValue an optional chaos value
    * @param digest the SHA-512 hash digest of the previous entry's digest, plus this entry's timestamp, chaosValue and implementation
    * fields, encoded in base 64
@@ -101,7 +101,7 @@ public class TELogItemEntry extends AbstractTELogEntry {
    *
    * @param encodedItem the logged item, which must be serializable, encoded in base 64
    * @param previousTELogEntry the previous tamper-evident log entry, or empty if this is the first
-   * @param timestamp the logger's local timestamp, which is constrained to be unique for ordering the log
+   * @param timestamp the logger's local timestamp, which does not precede the previous entry's timestamp
    * @param chaosValue an optional chaos value
    *
    * @return a SHA-512 hash digest
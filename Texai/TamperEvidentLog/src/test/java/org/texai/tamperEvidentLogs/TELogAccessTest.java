@@ -12,9 +12,11 @@
  */
 package org.texai.tamperEvidentLogs;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.KeyPair;
@@ -25,10 +27,13 @@ import java.security.SignatureException;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import net.sf.ehcache.CacheManager;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -52,6 +57,7 @@ import org.texai.tamperEvidentLogs.domainEntity.TELogAuthenticatorEntry;
 import org.texai.tamperEvidentLogs.domainEntity.TELogHeader;
 import org.texai.tamperEvidentLogs.domainEntity.TELogItemEntry;
 import org.texai.util.ByteUtils;
+import org.texai.util.FileSystemUtils;
 import org.texai.util.StringUtils;
 import org.texai.util.TexaiException;
 import org.texai.x509.X509Utils;
@@ -588,4 +594,296 @@ public class TELogAccessTest {
 
   }
 
+  /**
+   * Test of the segment store persistence of TELogAccess.
+   */
+  @Test
+  public void testSegmentStore() throws IOException {
+    LOGGER.info("segmentStore");
+    final String name = TEST_LOG;
+    final File logsDirectory = Files.createTempDirectory("TELogAccessTest").toFile();
+    TELogAccess instance = new TELogAccess(logsDirectory);
+    assertNull(instance.findTELogHeader(name));
+    instance.createTELogHeader(name);
+    instance.appendTELogItemEntry(name, 1, "test chaos value 0");
+    instance.appendTEKeyedLogItemEntry(name, "item a", "key a", null);
+    instance.appendTELogItemEntry(name, "test item string 2", "test chaos value 2");
+    instance.appendTEKeyedLogItemEntry(name, "item a2", "key a", "test chaos value 3");
+    try {
+      String signingAgentName = "test-signing-agent";
+      KeyPair keyPair = X509Utils.generateRSAKeyPair3072();
+      X509Certificate x509Certificate = X509Utils.generateSelfSignedEndEntityX509Certificate(
+              keyPair,
+              UUID.randomUUID(), // uid,
+              signingAgentName); // domainComponent
+      final TELogAuthenticatorEntry teLogAuthenticatorEntry = instance.appendTELogAuthenticatorEntry(
+              name,
+              signingAgentName,
+              x509Certificate,
+              keyPair.getPrivate(),
+              "test chaos value 4");
+      assertTrue(teLogAuthenticatorEntry.verify(x509Certificate));
+      instance.appendTELogItemEntry(name, "test item string 5", "test chaos value 5");
+      instance.close();
+
+      // reopen the log from its segment store
+      instance = new TELogAccess(logsDirectory);
+      assertNotNull(instance.findTELogHeader(name));
+      List<AbstractTELogEntry> teLogEntries = instance.getTELogEntries(name, -1);
+      assertEquals(6, teLogEntries.size());
+      assertNull(teLogEntries.get(0).getPreviousTELogEntry());
+      assertEquals(1, ((TELogItemEntry) teLogEntries.get(0)).getItem());
+      assertEquals("item a", ((TEKeyedLogItemEntry) teLogEntries.get(1)).getItem());
+      assertNull(teLogEntries.get(1).getChaosValue());
+      assertTrue(TELogAccess.verify(teLogEntries, x509Certificate));
+      assertTrue(((TELogAuthenticatorEntry) teLogEntries.get(4)).verify(x509Certificate));
+      assertEquals("item a2", instance.findTEKeyedLogItem(name, "key a"));
+      assertNull(instance.findTEKeyedLogItem(name, "wrong key"));
+
+      // the most recent entries
+      teLogEntries = instance.getTELogEntries(name, 2);
+      assertEquals(2, teLogEntries.size());
+      assertEquals("test item string 5", ((TELogItemEntry) teLogEntries.get(1)).getItem());
+      assertTrue(TELogAccess.verify(teLogEntries, x509Certificate));
+
+      // appends continue the hash chain
+      instance.appendTELogItemEntry(name, "test item string 6", "test chaos value 6");
+      teLogEntries = instance.getTELogEntries(name, -1);
+      assertEquals(7, teLogEntries.size());
+      assertTrue(TELogAccess.verify(teLogEntries, x509Certificate));
+    } catch (NoSuchAlgorithmException | NoSuchProviderException | InvalidAlgorithmParameterException | CertificateParsingException | CertificateEncodingException | SignatureException | InvalidKeyException ex) {
+      fail(ex.getMessage());
+    } finally {
+      instance.close();
+      FileSystemUtils.deleteRecursively(logsDirectory);
+    }
+  }
+
+  /**
+   * Test of appendTELogItemEntryAsynchronously method, of class TELogAccess.
+   */
+  @Test
+  public void testAppendTELogItemEntryAsynchronously() throws Exception {
+    LOGGER.info("appendTELogItemEntryAsynchronously");
+    final String name = TEST_LOG;
+    final File logsDirectory = Files.createTempDirectory("TELogAccessTest").toFile();
+    final TELogAccess instance = new TELogAccess(logsDirectory);
+    try {
+      instance.createTELogHeader(name);
+      final int nbrIterations = 2000;
+      final List<CompletableFuture<TELogItemEntry>> futures = new ArrayList<>();
+      for (int i = 0; i < nbrIterations; i++) {
+        futures.add(instance.appendTELogItemEntryAsynchronously(name, i, "test chaos value"));
+      }
+      for (int i = 0; i < nbrIterations; i++) {
+        assertEquals(i, futures.get(i).get().getItem());
+      }
+      final DateTime now = new DateTime();
+      final List<AbstractTELogEntry> teLogEntries = instance.getTELogEntries(name, -1);
+      assertEquals(nbrIterations, teLogEntries.size());
+      // the timestamps are ordered and never run ahead of the wall clock, and entries sharing a timestamp are ordered by their position
+      int nbrSharedTimestamps = 0;
+      for (int i = 1; i < nbrIterations; i++) {
+        final AbstractTELogEntry previousTELogEntry = teLogEntries.get(i - 1);
+        final AbstractTELogEntry teLogEntry = teLogEntries.get(i);
+        assertFalse(teLogEntry.getTimestamp().isBefore(previousTELogEntry.getTimestamp()));
+        if (teLogEntry.getTimestamp().isEqual(previousTELogEntry.getTimestamp())) {
+          nbrSharedTimestamps++;
+        }
+        assertTrue(previousTELogEntry.compareTo(teLogEntry) < 0);
+        assertTrue(teLogEntry.compareTo(previousTELogEntry) > 0);
+        assertEquals(previousTELogEntry, teLogEntry.getPreviousTELogEntry());
+        assertTrue(teLogEntry.verifyDigest());
+      }
+      assertFalse(teLogEntries.get(nbrIterations - 1).getTimestamp().isAfter(now));
+      LOGGER.info(nbrSharedTimestamps + " entries share the timestamp of their predecessor");
+
+      // a time range read returns every entry sharing a timestamp
+      final DateTime timestamp = teLogEntries.get(nbrIterations / 2).getTimestamp();
+      int nbrEntriesAtTimestamp = 0;
+      for (final AbstractTELogEntry teLogEntry : teLogEntries) {
+        if (teLogEntry.getTimestamp().isEqual(timestamp)) {
+          nbrEntriesAtTimestamp++;
+        }
+      }
+      assertEquals(nbrEntriesAtTimestamp, instance.getTELogEntriesByTime(name, timestamp, timestamp.plusMillis(1)).size());
+    } finally {
+      instance.close();
+      FileSystemUtils.deleteRecursively(logsDirectory);
+    }
+  }
+
+  /**
+   * Test of range reads and incremental verification over a segment store.
+   */
+  @Test
+  public void testRangeReadsAndIncrementalVerification() throws Exception {
+    LOGGER.info("rangeReadsAndIncrementalVerification");
+    final String name = TEST_LOG;
+    final File logsDirectory = Files.createTempDirectory("TELogAccessTest").toFile();
+    final TELogAccess instance = new TELogAccess(logsDirectory);
+    try {
+      instance.createTELogHeader(name);
+      final int nbrIterations = 1000;
+      for (int i = 0; i < nbrIterations - 1; i++) {
+        instance.appendTELogItemEntryAsynchronously(name, i, null);
+      }
+      instance.appendTELogItemEntry(name, nbrIterations - 1, null);
+      final List<AbstractTELogEntry> teLogEntries = instance.getTELogEntries(name, -1);
+      assertEquals(nbrIterations, teLogEntries.size());
+
+      List<AbstractTELogEntry> result = instance.getTELogEntriesBySequence(name, 300, 10);
+      assertEquals(10, result.size());
+      assertEquals(teLogEntries.get(300), result.get(0));
+      assertEquals(teLogEntries.get(299), result.get(0).getPreviousTELogEntry());
+      assertEquals(teLogEntries.get(309), result.get(9));
+      assertEquals(2, instance.getTELogEntriesBySequence(name, nbrIterations - 2, 10).size());
+      assertTrue(instance.getTELogEntriesBySequence(name, nbrIterations, 10).isEmpty());
+
+      // entries appended within one millisecond share its timestamp, so the time range is bounded by the first entries at its timestamps
+      final DateTime fromTimestamp = teLogEntries.get(500).getTimestamp();
+      final DateTime toTimestamp = teLogEntries.get(700).getTimestamp();
+      int fromIndex = 500;
+      while (fromIndex > 0 && !teLogEntries.get(fromIndex - 1).getTimestamp().isBefore(fromTimestamp)) {
+        fromIndex--;
+      }
+      int toIndex = 700;
+      while (toIndex > 0 && !teLogEntries.get(toIndex - 1).getTimestamp().isBefore(toTimestamp)) {
+        toIndex--;
+      }
+      result = instance.getTELogEntriesByTime(name, fromTimestamp, toTimestamp);
+      assertEquals(toIndex - fromIndex, result.size());
+      if (!result.isEmpty()) {
+        assertEquals(teLogEntries.get(fromIndex), result.get(0));
+        assertEquals(teLogEntries.get(toIndex - 1), result.get(result.size() - 1));
+      }
+
+      final Iterator<AbstractTELogEntry> teLogEntryIterator = instance.iterateTELogEntries(name, 990);
+      int count = 0;
+      while (teLogEntryIterator.hasNext()) {
+        final AbstractTELogEntry teLogEntry = teLogEntryIterator.next();
+        assertEquals(teLogEntries.get(990 + count), teLogEntry);
+        assertTrue(teLogEntry.verifyDigest());
+        count++;
+      }
+      assertEquals(10, count);
+
+      final String signingAgentName = "test-signing-agent";
+      final KeyPair keyPair = X509Utils.generateRSAKeyPair3072();
+      final X509Certificate x509Certificate = X509Utils.generateSelfSignedEndEntityX509Certificate(
+              keyPair,
+              UUID.randomUUID(), // uid,
+              signingAgentName); // domainComponent
+      final PrivateKey privateKey = keyPair.getPrivate();
+      assertTrue(instance.verifyIncrementally(name, x509Certificate));
+      instance.appendTELogItemEntry(name, "after the checkpoint", null);
+      assertTrue(instance.verifyIncrementally(name, x509Certificate));
+      assertTrue(instance.audit(name, x509Certificate));
+      final TELogAuthenticatorEntry teLogAuthenticatorEntry = instance.verifyAndAuthenticate(
+              name,
+              signingAgentName,
+              x509Certificate,
+              privateKey,
+              null);
+      assertNotNull(teLogAuthenticatorEntry);
+      assertTrue(teLogAuthenticatorEntry.verify(x509Certificate));
+    } finally {
+      instance.close();
+      FileSystemUtils.deleteRecursively(logsDirectory);
+    }
+  }
+
+  /**
+   * Test of full and incremental verification of a log having a tampered persisted entry.
+   */
+  @Test
+  public void testTamperedEntry() throws Exception {
+    LOGGER.info("tamperedEntry");
+    final String name = TEST_LOG;
+    final File logsDirectory = Files.createTempDirectory("TELogAccessTest").toFile();
+    TELogAccess instance = new TELogAccess(logsDirectory);
+    try {
+      final String signingAgentName = "test-signing-agent";
+      final KeyPair keyPair = X509Utils.generateRSAKeyPair3072();
+      final X509Certificate x509Certificate = X509Utils.generateSelfSignedEndEntityX509Certificate(
+              keyPair,
+              UUID.randomUUID(), // uid,
+              signingAgentName); // domainComponent
+      instance.createTELogHeader(name);
+      for (int i = 0; i < 100; i++) {
+        instance.appendTELogItemEntryAsynchronously(name, i, null);
+      }
+      instance.appendTELogItemEntry(name, 100, null);
+      // checkpoint the valid prefix
+      assertTrue(instance.verifyIncrementally(name, x509Certificate));
+      instance.appendTELogItemEntry(name, 101, "tamper target");
+      instance.appendTELogItemEntry(name, 102, null);
+      instance.close();
+
+      // alter the chaos value of the entry following the checkpoint, in place
+      final File logDirectory = logsDirectory.listFiles()[0];
+      boolean isTampered = false;
+      for (final File segmentFile : logDirectory.listFiles()) {
+        if (!segmentFile.getName().endsWith(".seg")) {
+          continue;
+        }
+        final byte[] bytes = Files.readAllBytes(segmentFile.toPath());
+        final byte[] target = "tamper target".getBytes("UTF-8");
+        for (int i = 0; i <= bytes.length - target.length && !isTampered; i++) {
+          if (Arrays.equals(target, Arrays.copyOfRange(bytes, i, i + target.length))) {
+            bytes[i] = 'T';
+            Files.write(segmentFile.toPath(), bytes);
+            isTampered = true;
+          }
+        }
+      }
+      assertTrue(isTampered);
+
+      instance = new TELogAccess(logsDirectory);
+      assertFalse(instance.verifyIncrementally(name, x509Certificate));
+      assertFalse(instance.audit(name, x509Certificate));
+      // the failed verifications record no checkpoint beyond the valid prefix
+      assertFalse(instance.verifyIncrementally(name, x509Certificate));
+    } finally {
+      instance.close();
+      FileSystemUtils.deleteRecursively(logsDirectory);
+    }
+  }
+
+  /**
+   * Test of the key index of a segment store, which finds the latest keyed item and is rebuilt when its file is lost.
+   */
+  @Test
+  public void testKeyIndex() throws IOException {
+    LOGGER.info("keyIndex");
+    final String name = TEST_LOG;
+    final File logsDirectory = Files.createTempDirectory("TELogAccessTest").toFile();
+    TELogAccess instance = new TELogAccess(logsDirectory);
+    try {
+      instance.createTELogHeader(name);
+      for (int i = 0; i < 300; i++) {
+        if (i % 3 == 0) {
+          instance.appendTEKeyedLogItemEntryAsynchronously(name, "value " + i, "key " + (i % 10), null);
+        } else {
+          instance.appendTELogItemEntryAsynchronously(name, i, null);
+        }
+      }
+      instance.appendTEKeyedLogItemEntry(name, "latest", "key 0", null);
+      assertEquals("latest", instance.findTEKeyedLogItem(name, "key 0"));
+      assertEquals("value 297", instance.findTEKeyedLogItem(name, "key 7"));
+      assertNull(instance.findTEKeyedLogItem(name, "missing key"));
+      instance.close();
+
+      final File logDirectory = logsDirectory.listFiles()[0];
+      assertTrue(new File(logDirectory, "keys.idx").delete());
+      instance = new TELogAccess(logsDirectory);
+      assertEquals("latest", instance.findTEKeyedLogItem(name, "key 0"));
+      assertEquals("value 297", instance.findTEKeyedLogItem(name, "key 7"));
+      instance.appendTEKeyedLogItemEntry(name, "after rebuilding", "key 7", null);
+      assertEquals("after rebuilding", instance.findTEKeyedLogItem(name, "key 7"));
+    } finally {
+      instance.close();
+      FileSystemUtils.deleteRecursively(logsDirectory);
+    }
+  }
 }
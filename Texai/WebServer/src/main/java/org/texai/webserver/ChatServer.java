@@ -21,14 +21,8 @@
 package org.texai.webserver;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.InetSocketAddress;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -38,13 +32,14 @@ import org.jboss.netty.channel.Channel;
 import org.jboss.netty.handler.codec.http.HttpMethod;
 import org.jboss.netty.handler.codec.http.HttpRequest;
 import org.jboss.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.texai.network.netty.handler.HTTPRequestHandler;
+import org.texai.network.netty.handler.ParsedHTTPRequest;
+import org.texai.network.netty.handler.StaticFileHandler;
 import org.texai.network.netty.handler.TexaiHTTPRequestHandler;
 import org.texai.network.netty.utils.NettyHTTPUtils;
 import org.texai.network.netty.utils.NettyJSONUtils;
-import org.texai.util.HTTPUtils;
 import org.texai.util.OneWayEncryptionService;
 import org.texai.util.StringUtils;
-import org.texai.util.TexaiException;
 
 /** Handles HTTP requests specifically for chat dialog.
  *
@@ -59,10 +54,10 @@ public class ChatServer implements TexaiHTTPRequestHandler {
   public static final String COOKIE_SESSION_KEY = "cookie";
   /** the log4j logger */
   private static final Logger LOGGER = Logger.getLogger(ChatServer.class);
-  /** the fileInputStream cache, path --> fileInputStream bytes */
-  private final ConcurrentHashMap<String, byte[]> fileCache = new ConcurrentHashMap<>();
   /** the root path */
   private static final File ROOT_PATH = new File("html/");
+  /** the static file handler, which caches the served files */
+  private final StaticFileHandler staticFileHandler = new StaticFileHandler(ROOT_PATH);
   /** the chat actions */
   private WebChatActions chatSession;
   /** the session dictionary dictionary, session cookie --> session dictionary (parameter --> value) */
@@ -77,6 +72,27 @@ public class ChatServer implements TexaiHTTPRequestHandler {
   public ChatServer() {
   }
 
+  /** Registers this server with the given HTTP request handler for the requests that it handles, i.e. the form posts, the
+   * validation requests, and the static file GET and HEAD requests under the root path.
+   *
+   * @param httpRequestHandler the given HTTP request handler
+   */
+  public void registerRoutes(final HTTPRequestHandler httpRequestHandler) {
+    //Preconditions
+    assert httpRequestHandler != null : "httpRequestHandler must not be null";
+
+    httpRequestHandler.register(this, HttpMethod.POST, "/upload-picture");
+    httpRequestHandler.register(this, HttpMethod.POST, "/send-username-new-password");
+    httpRequestHandler.register(this, HttpMethod.POST, "/login");
+    httpRequestHandler.register(this, HttpMethod.POST, "/register");
+    httpRequestHandler.register(this, null, "/availableUsername");
+    httpRequestHandler.register(this, null, "/availableEmailAddress");
+    httpRequestHandler.register(this, null, "/authenticate");
+    httpRequestHandler.register(this, null, "/validateEmailOrUsername");
+    httpRequestHandler.register(this, HttpMethod.GET, "/");
+    httpRequestHandler.register(this, HttpMethod.HEAD, "/");
+  }
+
   /** Handles the HTTP request.
    *
    * @param httpRequest the HTTP request
@@ -85,47 +101,43 @@ public class ChatServer implements TexaiHTTPRequestHandler {
    */
   @Override
   public boolean httpRequestReceived(final HttpRequest httpRequest, final Channel channel) {
+    return httpRequestReceived(new ParsedHTTPRequest(httpRequest), channel);
+  }
+
+  /** Handles the HTTP request whose URI has been parsed.
+   *
+   * @param parsedHTTPRequest the HTTP request and its parsed URI
+   * @param channel the channel
+   * @return the indicator whether the HTTP request was handled
+   */
+  @Override
+  public boolean httpRequestReceived(final ParsedHTTPRequest parsedHTTPRequest, final Channel channel) {
     //Preconditions
-    assert httpRequest != null : "httpRequest must not be null";
+    assert parsedHTTPRequest != null : "parsedHTTPRequest must not be null";
     assert channel != null : "channel must not be null";
     assert chatSession != null : "chatSession must not be null";
 
-    if (LOGGER.isInfoEnabled()) {
-      LOGGER.info("httpRequest: " + httpRequest);
-      LOGGER.info("method: " + httpRequest.getMethod());
-      LOGGER.info("protocol version: " + httpRequest.getProtocolVersion());
-      LOGGER.info("method: " + httpRequest.getMethod());
-      LOGGER.info("uri: " + httpRequest.getUri());
+    final HttpRequest httpRequest = parsedHTTPRequest.getHttpRequest();
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("httpRequest: " + httpRequest);
       for (final String headerName : httpRequest.getHeaderNames()) {
-        LOGGER.info("header: " + headerName + " " + httpRequest.getHeader(headerName));
+        LOGGER.debug("header: " + headerName + " " + httpRequest.getHeader(headerName));
       }
     }
-    final URI uri;
-    try {
-      uri = new URI(httpRequest.getUri());
-    } catch (URISyntaxException ex) {
-      throw new TexaiException(ex);
-    }
-    final String path = uri.getPath();
+    final String path = parsedHTTPRequest.getPath();
     if (LOGGER.isInfoEnabled()) {
       LOGGER.info("path: " + path);
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug(httpRequest.getMethod() + " " + path);
-      }
-    }
-    final Map<String, String> parameterDictionary = new HashMap<>();
-    if (uri.getRawQuery() != null && !uri.getRawQuery().isEmpty()) {
-      parameterDictionary.putAll(HTTPUtils.getQueryMap(uri.getRawQuery()));
     }
+    final Map<String, String> parameterDictionary = parsedHTTPRequest.getParameterDictionary();
 
     final ConcurrentHashMap<String, Object> sessionDictionary = getSessionDictionary(
             null, // sessionCookie
             channel);
     if (path.equals("/clear-file-cache")) {
       if (LOGGER.isInfoEnabled()) {
-        LOGGER.info("clearing the file cache");
+        LOGGER.info("clearing the file cache " + staticFileHandler);
       }
-      fileCache.clear();
+      staticFileHandler.clearCache();
       NettyHTTPUtils.writeHTMLResponse(
               httpRequest,
               "<html><body><h2>File Cache Cleared</h2></body></html>",
@@ -260,52 +272,7 @@ public class ChatServer implements TexaiHTTPRequestHandler {
       }
 
       // serve file
-      byte[] cachedFileContent = fileCache.get(filePath);
-      if (cachedFileContent == null) {
-        File file;
-        InputStream fileInputStream = null;
-        try {
-          file = new File(ROOT_PATH, filePath);
-          LOGGER.info("serving file: " + file);
-          fileInputStream = new FileInputStream(file);
-        } catch (final FileNotFoundException ex) {
-          if (fileInputStream != null) {
-            fileInputStream.close();
-          }
-          return false;
-        }
-        assert file != null;
-        assert fileInputStream != null;
-        final byte[] chunk = new byte[(int) file.length()];
-        int count;
-        int pos = 0;
-
-        while ((count = fileInputStream.read(chunk, pos, chunk.length - pos)) > 0) {
-          pos += count;
-        }
-        cachedFileContent = chunk;
-        fileCache.put(filePath, cachedFileContent);
-
-      } else {
-        LOGGER.info(" ...cached");
-      }
-      assert cachedFileContent != null;
-      if (path.endsWith(".html")) {
-        NettyHTTPUtils.writeHTMLResponse(
-                httpRequest,
-                new String(cachedFileContent, "US-ASCII"),
-                channel,
-                null); // sessionCookie
-      } else if (path.endsWith(".css")) {
-        NettyHTTPUtils.writeCSSResponse(httpRequest, new String(cachedFileContent, "US-ASCII"), channel);
-      } else {
-        NettyHTTPUtils.writeBinaryResponse(
-                httpRequest,
-                cachedFileContent,
-                channel,
-                null); // sessionCookie
-      }
-      return true;
+      return staticFileHandler.serveFile(httpRequest, target, channel);
     } catch (final IOException ex) {
       LOGGER.error("exception message: " + ex.getMessage());
       LOGGER.error("exception: " + ex);
@@ -425,4 +392,12 @@ public class ChatServer implements TexaiHTTPRequestHandler {
   public Map<String, String> getIpAddressCookieDictionary() {
     return ipAddressCookieDictionary;
   }
+
+  /** Gets the static file handler, whose statistics report the served files.
+   *
+   * @return the static file handler
+   */
+  public StaticFileHandler getStaticFileHandler() {
+    return staticFileHandler;
+  }
 }
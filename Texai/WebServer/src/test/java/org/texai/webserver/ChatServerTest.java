@@ -107,7 +107,7 @@ public class ChatServerTest {
 
     // configure the HTTP request handler by registering the chat server
     final HTTPRequestHandler httpRequestHandler = new HTTPRequestHandler();
-    httpRequestHandler.register(chatServer);
+    chatServer.registerRoutes(httpRequestHandler);
 
     // configure the server channel pipeline factory
     final AbstractHTTPRequestHandlerFactory httpRequestHandlerFactory = new HTTPRequestHandlerFactory(httpRequestHandler);
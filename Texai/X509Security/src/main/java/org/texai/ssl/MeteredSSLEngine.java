@@ -0,0 +1,407 @@
+/*
+ * MeteredSSLEngine.java
+ *
+ * Created on Oct 19, 2026, 9:52:36 PM
+ *
+ * Description: Provides an SSL engine which delegates to another, and records the duration of its initial handshake.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.ssl;
+
+import java.nio.ByteBuffer;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Provides an SSL engine which delegates to another, and records the duration of its initial handshake, whether the handshake resumed
+ * a cached session, and the time spent in its delegated tasks. The handshake starts with the first wrap or unwrap, which is how the
+ * Netty SslHandler begins it, or with an explicit beginHandshake.
+ *
+ * @author reed
+ */
+@ThreadSafe
+final class MeteredSSLEngine extends SSLEngine {
+
+  // the SSL engine to which operations are delegated
+  private final SSLEngine sslEngine;
+  // the handshake statistics
+  private final SSLHandshakeStatistics sslHandshakeStatistics;
+  // the nanosecond time at which the initial handshake started, or zero if it has not started
+  private long handshakeStartNanos = 0L;
+  // the millisecond time at which the initial handshake started
+  private long handshakeStartMillis = 0L;
+  // the indicator whether the initial handshake has been recorded
+  private boolean isHandshakeRecorded = false;
+
+  /**
+   * Constructs a new MeteredSSLEngine instance.
+   *
+   * @param sslEngine the SSL engine to which operations are delegated
+   * @param sslHandshakeStatistics the handshake statistics
+   */
+  MeteredSSLEngine(
+          final SSLEngine sslEngine,
+          final SSLHandshakeStatistics sslHandshakeStatistics) {
+    super(sslEngine.getPeerHost(), sslEngine.getPeerPort());
+    //Preconditions
+    assert sslHandshakeStatistics != null : "sslHandshakeStatistics must not be null";
+
+    this.sslEngine = sslEngine;
+    this.sslHandshakeStatistics = sslHandshakeStatistics;
+    sslHandshakeStatistics.recordEngine();
+  }
+
+  /**
+   * Wraps the given application data into SSL/TLS network data.
+   *
+   * @param srcs the buffers containing the outbound application data
+   * @param offset the offset of the first buffer
+   * @param length the number of buffers
+   * @param dst the buffer to hold the outbound network data
+   * @return the operation result
+   * @throws SSLException if an SSL error occurs
+   */
+  @Override
+  public SSLEngineResult wrap(
+          final ByteBuffer[] srcs,
+          final int offset,
+          final int length,
+          final ByteBuffer dst) throws SSLException {
+    startHandshakeMeasurement();
+    return recordResult(sslEngine.wrap(srcs, offset, length, dst));
+  }
+
+  /**
+   * Unwraps the given SSL/TLS network data into application data.
+   *
+   * @param src the buffer containing the inbound network data
+   * @param dsts the buffers to hold the inbound application data
+   * @param offset the offset of the first buffer
+   * @param length the number of buffers
+   * @return the operation result
+   * @throws SSLException if an SSL error occurs
+   */
+  @Override
+  public SSLEngineResult unwrap(
+          final ByteBuffer src,
+          final ByteBuffer[] dsts,
+          final int offset,
+          final int length) throws SSLException {
+    startHandshakeMeasurement();
+    return recordResult(sslEngine.unwrap(src, dsts, offset, length));
+  }
+
+  /**
+   * Returns a delegated handshake task whose running time is recorded.
+   *
+   * @return a delegated task, or null if none is available
+   */
+  @Override
+  public Runnable getDelegatedTask() {
+    final Runnable delegatedTask = sslEngine.getDelegatedTask();
+    if (delegatedTask == null) {
+      return null;
+    }
+    return () -> {
+      final long startNanos = System.nanoTime();
+      try {
+        delegatedTask.run();
+      } finally {
+        sslHandshakeStatistics.recordDelegatedTask(System.nanoTime() - startNanos);
+      }
+    };
+  }
+
+  /**
+   * Signals that no more inbound network data will be sent to this engine.
+   *
+   * @throws SSLException if this engine has not received the proper SSL/TLS close notification message from the peer
+   */
+  @Override
+  public void closeInbound() throws SSLException {
+    recordUnfinishedHandshake();
+    sslEngine.closeInbound();
+  }
+
+  /**
+   * Returns whether the unwrap method will accept any more inbound data messages.
+   *
+   * @return whether the unwrap method will accept any more inbound data messages
+   */
+  @Override
+  public boolean isInboundDone() {
+    return sslEngine.isInboundDone();
+  }
+
+  /**
+   * Signals that no more outbound application data will be sent on this engine.
+   */
+  @Override
+  public void closeOutbound() {
+    recordUnfinishedHandshake();
+    sslEngine.closeOutbound();
+  }
+
+  /**
+   * Returns whether the wrap method will produce any more outbound data messages.
+   *
+   * @return whether the wrap method will produce any more outbound data messages
+   */
+  @Override
+  public boolean isOutboundDone() {
+    return sslEngine.isOutboundDone();
+  }
+
+  /**
+   * Returns the names of the cipher suites which could be enabled for use on this engine.
+   *
+   * @return the supported cipher suite names
+   */
+  @Override
+  public String[] getSupportedCipherSuites() {
+    return sslEngine.getSupportedCipherSuites();
+  }
+
+  /**
+   * Returns the names of the cipher suites which are currently enabled for use on this engine.
+   *
+   * @return the enabled cipher suite names
+   */
+  @Override
+  public String[] getEnabledCipherSuites() {
+    return sslEngine.getEnabledCipherSuites();
+  }
+
+  /**
+   * Sets the cipher suites enabled for use on this engine.
+   *
+   * @param suites the names of the cipher suites to enable
+   */
+  @Override
+  public void setEnabledCipherSuites(final String[] suites) {
+    sslEngine.setEnabledCipherSuites(suites);
+  }
+
+  /**
+   * Returns the names of the protocols which could be enabled for use with this engine.
+   *
+   * @return the supported protocol names
+   */
+  @Override
+  public String[] getSupportedProtocols() {
+    return sslEngine.getSupportedProtocols();
+  }
+
+  /**
+   * Returns the names of the protocol versions which are currently enabled for use with this engine.
+   *
+   * @return the enabled protocol names
+   */
+  @Override
+  public String[] getEnabledProtocols() {
+    return sslEngine.getEnabledProtocols();
+  }
+
+  /**
+   * Sets the protocol versions enabled for use on this engine.
+   *
+   * @param protocols the names of the protocols to enable
+   */
+  @Override
+  public void setEnabledProtocols(final String[] protocols) {
+    sslEngine.setEnabledProtocols(protocols);
+  }
+
+  /**
+   * Returns the session in use by this engine.
+   *
+   * @return the session
+   */
+  @Override
+  public SSLSession getSession() {
+    return sslEngine.getSession();
+  }
+
+  /**
+   * Returns the session being constructed during the handshake.
+   *
+   * @return the handshake session, or null if no handshake is in progress
+   */
+  @Override
+  public SSLSession getHandshakeSession() {
+    return sslEngine.getHandshakeSession();
+  }
+
+  /**
+   * Initiates handshaking on this engine.
+   *
+   * @throws SSLException if a problem was encountered while signaling the beginning of a new handshake
+   */
+  @Override
+  public void beginHandshake() throws SSLException {
+    startHandshakeMeasurement();
+    sslEngine.beginHandshake();
+  }
+
+  /**
+   * Returns the current handshake status of this engine.
+   *
+   * @return the current handshake status
+   */
+  @Override
+  public SSLEngineResult.HandshakeStatus getHandshakeStatus() {
+    return sslEngine.getHandshakeStatus();
+  }
+
+  /**
+   * Configures the engine to use client or server mode when handshaking.
+   *
+   * @param mode the indicator whether the engine starts its handshaking in client mode
+   */
+  @Override
+  public void setUseClientMode(final boolean mode) {
+    sslEngine.setUseClientMode(mode);
+  }
+
+  /**
+   * Returns whether the engine uses client mode when handshaking.
+   *
+   * @return whether the engine uses client mode when handshaking
+   */
+  @Override
+  public boolean getUseClientMode() {
+    return sslEngine.getUseClientMode();
+  }
+
+  /**
+   * Configures the engine to require client authentication.
+   *
+   * @param need the indicator whether client authentication is required
+   */
+  @Override
+  public void setNeedClientAuth(final boolean need) {
+    sslEngine.setNeedClientAuth(need);
+  }
+
+  /**
+   * Returns whether client authentication is required.
+   *
+   * @return whether client authentication is required
+   */
+  @Override
+  public boolean getNeedClientAuth() {
+    return sslEngine.getNeedClientAuth();
+  }
+
+  /**
+   * Configures the engine to request client authentication.
+   *
+   * @param want the indicator whether client authentication is requested
+   */
+  @Override
+  public void setWantClientAuth(final boolean want) {
+    sslEngine.setWantClientAuth(want);
+  }
+
+  /**
+   * Returns whether client authentication is requested.
+   *
+   * @return whether client authentication is requested
+   */
+  @Override
+  public boolean getWantClientAuth() {
+    return sslEngine.getWantClientAuth();
+  }
+
+  /**
+   * Controls whether new SSL sessions may be established by this engine.
+   *
+   * @param flag the indicator whether new sessions may be created
+   */
+  @Override
+  public void setEnableSessionCreation(final boolean flag) {
+    sslEngine.setEnableSessionCreation(flag);
+  }
+
+  /**
+   * Returns whether new SSL sessions may be established by this engine.
+   *
+   * @return whether new sessions may be created
+   */
+  @Override
+  public boolean getEnableSessionCreation() {
+    return sslEngine.getEnableSessionCreation();
+  }
+
+  /**
+   * Returns the SSL parameters in effect for this engine.
+   *
+   * @return the SSL parameters
+   */
+  @Override
+  public SSLParameters getSSLParameters() {
+    return sslEngine.getSSLParameters();
+  }
+
+  /**
+   * Applies the given SSL parameters to this engine.
+   *
+   * @param sslParameters the given SSL parameters
+   */
+  @Override
+  public void setSSLParameters(final SSLParameters sslParameters) {
+    sslEngine.setSSLParameters(sslParameters);
+  }
+
+  /**
+   * Starts measuring the initial handshake unless it is already started.
+   */
+  private synchronized void startHandshakeMeasurement() {
+    if (handshakeStartNanos == 0L) {
+      handshakeStartNanos = System.nanoTime();
+      handshakeStartMillis = System.currentTimeMillis();
+    }
+  }
+
+  /**
+   * Records the initial handshake when the given result finishes it.
+   *
+   * @param sslEngineResult the given result
+   * @return the given result
+   */
+  private SSLEngineResult recordResult(final SSLEngineResult sslEngineResult) {
+    if (sslEngineResult.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.FINISHED) {
+      final long handshakeNanos;
+      synchronized (this) {
+        if (isHandshakeRecorded) {
+          // a renegotiation
+          return sslEngineResult;
+        }
+        isHandshakeRecorded = true;
+        handshakeNanos = System.nanoTime() - handshakeStartNanos;
+      }
+      // a resumed session was created by an earlier handshake
+      final boolean isResumed = sslEngine.getSession().getCreationTime() < handshakeStartMillis;
+      sslHandshakeStatistics.recordHandshake(handshakeNanos, isResumed);
+    }
+    return sslEngineResult;
+  }
+
+  /**
+   * Records the initial handshake as failed if it started but did not finish.
+   */
+  private void recordUnfinishedHandshake() {
+    synchronized (this) {
+      if (handshakeStartNanos == 0L || isHandshakeRecorded) {
+        return;
+      }
+      isHandshakeRecorded = true;
+    }
+    sslHandshakeStatistics.recordFailedHandshake();
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * SSLHandshakeStatistics.java
+ *
+ * Created on Oct 19, 2026, 9:41:08 PM
+ *
+ * Description: Accumulates the SSL handshake statistics of the SSL engines created by the Texai SSL context factory.
+ *
+ * Copyright (C) Oct 19, 2026 Stephen L. Reed.
+ */
+package org.texai.ssl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Accumulates the SSL handshake statistics of the SSL engines created by the Texai SSL context factory. A resumed handshake reuses a
+ * cached session and avoids the public key operations of a full handshake.
+ *
+ * @author reed
+ */
+@ThreadSafe
+public final class SSLHandshakeStatistics {
+
+  // the number of created SSL engines
+  private final AtomicLong engineCount = new AtomicLong();
+  // the number of completed full handshakes
+  private final AtomicLong fullHandshakeCount = new AtomicLong();
+  // the number of completed resumed handshakes
+  private final AtomicLong resumedHandshakeCount = new AtomicLong();
+  // the number of handshakes which were closed before completion
+  private final AtomicLong failedHandshakeCount = new AtomicLong();
+  // the total elapsed nanoseconds of the completed full handshakes
+  private final AtomicLong fullHandshakeNanos = new AtomicLong();
+  // the total elapsed nanoseconds of the completed resumed handshakes
+  private final AtomicLong resumedHandshakeNanos = new AtomicLong();
+  // the maximum elapsed nanoseconds of a completed handshake
+  private final AtomicLong maxHandshakeNanos = new AtomicLong();
+  // the total nanoseconds spent running the delegated handshake tasks, which perform the public key operations
+  private final AtomicLong delegatedTaskNanos = new AtomicLong();
+
+  /**
+   * Constructs a new SSLHandshakeStatistics instance.
+   */
+  SSLHandshakeStatistics() {
+  }
+
+  /**
+   * Records the creation of an SSL engine.
+   */
+  void recordEngine() {
+    engineCount.incrementAndGet();
+  }
+
+  /**
+   * Records a completed handshake.
+   *
+   * @param handshakeNanos the elapsed nanoseconds of the handshake
+   * @param isResumed the indicator whether the handshake resumed a cached session
+   */
+  void recordHandshake(final long handshakeNanos, final boolean isResumed) {
+    if (isResumed) {
+      resumedHandshakeCount.incrementAndGet();
+      resumedHandshakeNanos.addAndGet(handshakeNanos);
+    } else {
+      fullHandshakeCount.incrementAndGet();
+      fullHandshakeNanos.addAndGet(handshakeNanos);
+    }
+    long maxHandshakeNanos1 = maxHandshakeNanos.get();
+    while (handshakeNanos > maxHandshakeNanos1 && !maxHandshakeNanos.compareAndSet(maxHandshakeNanos1, handshakeNanos)) {
+      maxHandshakeNanos1 = maxHandshakeNanos.get();
+    }
+  }
+
+  /**
+   * Records a handshake which was closed before completion.
+   */
+  void recordFailedHandshake() {
+    failedHandshakeCount.incrementAndGet();
+  }
+
+  /**
+   * Records the running of a delegated handshake task.
+   *
+   * @param taskNanos the elapsed nanoseconds of the task
+   */
+  void recordDelegatedTask(final long taskNanos) {
+    delegatedTaskNanos.addAndGet(taskNanos);
+  }
+
+  /**
+   * Gets the number of created SSL engines.
+   *
+   * @return the number of created SSL engines
+   */
+  public long getEngineCount() {
+    return engineCount.get();
+  }
+
+  /**
+   * Gets the number of completed full handshakes.
+   *
+   * @return the number of completed full handshakes
+   */
+  public long getFullHandshakeCount() {
+    return fullHandshakeCount.get();
+  }
+
+  /**
+   * Gets the number of completed resumed handshakes.
+   *
+   * @return the number of completed resumed handshakes
+   */
+  public long getResumedHandshakeCount() {
+    return resumedHandshakeCount.get();
+  }
+
+  /**
+   * Gets the number of handshakes which were closed before completion.
+   *
+   * @return the number of failed handshakes
+   */
+  public long getFailedHandshakeCount() {
+    return failedHandshakeCount.get();
+  }
+
+  /**
+   * Gets the average elapsed milliseconds of the completed full handshakes.
+   *
+   * @return the average full handshake milliseconds
+   */
+  public double getAverageFullHandshakeMillis() {
+    final long fullHandshakeCount1 = fullHandshakeCount.get();
+    return fullHandshakeCount1 == 0 ? 0.0d : fullHandshakeNanos.get() / 1000000.0d / fullHandshakeCount1;
+  }
+
+  /**
+   * Gets the average elapsed milliseconds of the completed resumed handshakes.
+   *
+   * @return the average resumed handshake milliseconds
+   */
+  public double getAverageResumedHandshakeMillis() {
+    final long resumedHandshakeCount1 = resumedHandshakeCount.get();
+    return resumedHandshakeCount1 == 0 ? 0.0d : resumedHandshakeNanos.get() / 1000000.0d / resumedHandshakeCount1;
+  }
+
+  /**
+   * Gets the maximum elapsed milliseconds of a completed handshake.
+   *
+   * @return the maximum handshake milliseconds
+   */
+  public double getMaxHandshakeMillis() {
+    return maxHandshakeNanos.get() / 1000000.0d;
+  }
+
+  /**
+   * Gets the total milliseconds spent running the delegated handshake tasks, which perform the public key operations.
+   *
+   * @return the total delegated task milliseconds
+   */
+  public double getDelegatedTaskMillis() {
+    return delegatedTaskNanos.get() / 1000000.0d;
+  }
+
+  /**
+   * Returns a string representation of this object.
+   *
+   * @return a string representation of this object
+   */
+  @Override
+  public String toString() {
+    return "[SSL handshakes engines: " + engineCount.get()
+            + ", full: " + fullHandshakeCount.get()
+            + ", resumed: " + resumedHandshakeCount.get()
+            + ", failed: " + failedHandshakeCount.get()
+            + ", average full ms: " + String.format("%.3f", getAverageFullHandshakeMillis())
+            + ", average resumed ms: " + String.format("%.3f", getAverageResumedHandshakeMillis())
+            + ", max ms: " + String.format("%.3f", getMaxHandshakeMillis())
+            + ", delegated task ms: " + String.format("%.3f", getDelegatedTaskMillis()) + "]";
+  }
+}
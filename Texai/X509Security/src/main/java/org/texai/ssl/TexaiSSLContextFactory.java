@@ -10,13 +10,23 @@
 package org.texai.ssl;
 
 import java.security.KeyManagementException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.X509TrustManager;
+import net.jcip.annotations.ThreadSafe;
 import org.apache.log4j.Logger;
+import org.texai.util.ByteUtils;
 import org.texai.util.TexaiException;
 import org.texai.x509.X509SecurityInfo;
 import org.texai.x509.X509Utils;
@@ -24,19 +34,42 @@ import org.texai.x509.X509Utils;
 /**
  * Provides a SSL context factory.
  *
+ * The SSL context of each X.509 identity is created once and cached, so that its session caches persist across connections. A client
+ * reconnecting to the same peer host and port, and a server accepting a connection from a client whose session it cached, resume the
+ * session rather than repeat the public key operations of a full handshake. The cache is keyed by the SHA-256 fingerprints of the
+ * certificates whose private keys the identity's key managers offer, so that security information loaded again for the same keys shares
+ * one SSL context, and security information for a public certificate, which offers no keys, shares the single keyless SSL context.
+ *
  * @author reed
  */
+@ThreadSafe
 public final class TexaiSSLContextFactory {
 
   // the logger
   private static final Logger LOGGER = Logger.getLogger(TexaiSSLContextFactory.class);
-  // the enabled SSL cipher suites
-  private static String[] enabledCipherSuites;
+  // the maximum number of cached sessions in each session context
+  public static final int SESSION_CACHE_SIZE = 4096;
+  // the number of seconds after which a cached session expires
+  public static final int SESSION_TIMEOUT_SECONDS = 24 * 60 * 60;
+  // the SSL context dictionary, key material fingerprint --> SSL context
+  private static final ConcurrentHashMap<String, SSLContext> SSL_CONTEXT_DICTIONARY = new ConcurrentHashMap<>();
+  // the handshake statistics
+  private static final SSLHandshakeStatistics SSL_HANDSHAKE_STATISTICS = new SSLHandshakeStatistics();
+  // the enabled strong SSL cipher suites, which are selected once from the supported cipher suites
+  private static volatile String[] enabledCipherSuites;
   // the enabled SSL cipher suites lock
   private static final Object ENABLED_CIPHER_SUITES_LOCK = new Object();
   // the iOS incompatible cipher suites
   private static final List<String> iOSIncompatibleCipherSuites = new ArrayList<>();
 
+  static {
+    // TLS_ECDHE_RSA_WITH_RC4_128_SHA is the negotiated cipher suite for iOS, see CipherSuiteNegotiationSimulation
+    iOSIncompatibleCipherSuites.add("TLS_ECDHE_RSA_WITH_AES_256_CBC_SHA384");
+    iOSIncompatibleCipherSuites.add("TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA256");
+    iOSIncompatibleCipherSuites.add("TLS_ECDHE_RSA_WITH_AES_256_CBC_SHA");
+    iOSIncompatibleCipherSuites.add("TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA");
+  }
+
   /**
    * Prevents this utility class from being instantiated.
    */
@@ -44,7 +77,7 @@ public final class TexaiSSLContextFactory {
   }
 
   /**
-   * Gets the Secure Sockets Layer context.
+   * Gets the Secure Sockets Layer context, which is cached for the key material of the given X.509 security information.
    *
    * @param x509SecurityInfo the X.509 security information
    *
@@ -54,6 +87,57 @@ public final class TexaiSSLContextFactory {
     //Preconditions
     assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
 
+    // security information offering the same certificates and private keys is interchangeable
+    final String key = getKeyMaterialFingerprint(x509SecurityInfo);
+    final SSLContext sslContext = SSL_CONTEXT_DICTIONARY.get(key);
+    if (sslContext != null) {
+      return sslContext;
+    }
+    return SSL_CONTEXT_DICTIONARY.computeIfAbsent(key, (final String key1) -> createSSLContext(x509SecurityInfo));
+  }
+
+  /**
+   * Gets the fingerprint of the key material which the key managers of the given X.509 security information offer, which is the sorted
+   * SHA-256 fingerprints of the certificates of the key store's private key entries. A public certificate has the empty fingerprint.
+   *
+   * @param x509SecurityInfo the X.509 security information
+   *
+   * @return the key material fingerprint
+   */
+  private static String getKeyMaterialFingerprint(final X509SecurityInfo x509SecurityInfo) {
+    //Preconditions
+    assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
+
+    final KeyStore keyStore = x509SecurityInfo.getKeyStore();
+    try {
+      final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      final List<String> certificateFingerprints = new ArrayList<>();
+      for (final String alias : Collections.list(keyStore.aliases())) {
+        if (keyStore.isKeyEntry(alias)) {
+          final Certificate certificate = keyStore.getCertificate(alias);
+          if (certificate != null) {
+            certificateFingerprints.add(ByteUtils.toHex(messageDigest.digest(certificate.getEncoded())));
+          }
+        }
+      }
+      Collections.sort(certificateFingerprints);
+      return String.join(",", certificateFingerprints);
+    } catch (KeyStoreException | NoSuchAlgorithmException | CertificateEncodingException ex) {
+      throw new TexaiException(ex);
+    }
+  }
+
+  /**
+   * Creates and initializes a Secure Sockets Layer context, and configures its session caches.
+   *
+   * @param x509SecurityInfo the X.509 security information
+   *
+   * @return the SSL context
+   */
+  private static SSLContext createSSLContext(final X509SecurityInfo x509SecurityInfo) {
+    //Preconditions
+    assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
+
     // create key manager factory and SSL context
     try {
       final SSLContext sslContext = SSLContext.getInstance("TLS");
@@ -63,12 +147,72 @@ public final class TexaiSSLContextFactory {
               x509SecurityInfo.getKeyManagers(), // the sources of authentication keys
               x509TrustManagers, // the sources of peer authentication trust decisions
               X509Utils.getSecureRandom());  // the source of randomness for this generator or null
+      configureSessionContext(sslContext.getServerSessionContext());
+      configureSessionContext(sslContext.getClientSessionContext());
+      LOGGER.info("created the SSL context for " + (x509SecurityInfo.isPublicCertificate()
+              ? "a public certificate"
+              : x509SecurityInfo.getX509Certificate().getSubjectX500Principal()));
       return sslContext;
     } catch (NoSuchAlgorithmException | KeyManagementException ex) {
       throw new TexaiException(ex);
     }
   }
 
+  /**
+   * Configures the given session context to cache sessions for resumption.
+   *
+   * @param sslSessionContext the given session context, which is null if the provider does not support one
+   */
+  private static void configureSessionContext(final SSLSessionContext sslSessionContext) {
+    if (sslSessionContext != null) {
+      sslSessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+      sslSessionContext.setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+    }
+  }
+
+  /**
+   * Discards the cached SSL contexts, for example after a certificate is replaced.
+   */
+  public static void clearSSLContextCache() {
+    SSL_CONTEXT_DICTIONARY.clear();
+  }
+
+  /**
+   * Creates an SSL engine whose handshakes are recorded in the handshake statistics. A client engine given the peer host and port
+   * resumes a session cached from an earlier connection to the same peer.
+   *
+   * @param x509SecurityInfo the X.509 security information
+   * @param peerHost the peer host name or address, or null if unknown
+   * @param peerPort the peer port, or -1 if unknown
+   *
+   * @return the SSL engine
+   */
+  public static SSLEngine createSSLEngine(
+          final X509SecurityInfo x509SecurityInfo,
+          final String peerHost,
+          final int peerPort) {
+    //Preconditions
+    assert x509SecurityInfo != null : "x509SecurityInfo must not be null";
+
+    final SSLContext sslContext = getSSLContext(x509SecurityInfo);
+    final SSLEngine sslEngine;
+    if (peerHost == null) {
+      sslEngine = sslContext.createSSLEngine();
+    } else {
+      sslEngine = sslContext.createSSLEngine(peerHost, peerPort);
+    }
+    return new MeteredSSLEngine(sslEngine, SSL_HANDSHAKE_STATISTICS);
+  }
+
+  /**
+   * Gets the statistics of the handshakes of the SSL engines created by this factory.
+   *
+   * @return the handshake statistics
+   */
+  public static SSLHandshakeStatistics getSSLHandshakeStatistics() {
+    return SSL_HANDSHAKE_STATISTICS;
+  }
+
   /**
    * Configures the SSL engine for client or for the server. Arranges the enabled ciphers to favor the most secure over the less secure, and
    * omits the least secure ciphers. Requires that the SSL server authenticate the client.
@@ -78,7 +222,7 @@ public final class TexaiSSLContextFactory {
    * @param needClientAuth the indicator whether the server authenticates the client's SSL certificate
    * @param isStrongCiphers the indicator whether strong ciphers are used, e.g. for the P2P network as opposed to the web server
    */
-  public static synchronized void configureSSLEngine(
+  public static void configureSSLEngine(
           final SSLEngine sslEngine,
           final boolean useClientMode,
           final boolean needClientAuth,
@@ -87,63 +231,72 @@ public final class TexaiSSLContextFactory {
     assert sslEngine != null : "sslEngine must not be null";
 
     if (useClientMode) {
-      LOGGER.info("configuring SSL engine for the client side of the connection");
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("configuring SSL engine for the client side of the connection");
+      }
       sslEngine.setUseClientMode(true);
       sslEngine.setNeedClientAuth(false);
     } else {
-      if (needClientAuth) {
-        LOGGER.info("configuring SSL engine for the server side of the connection with required client authorization");
-      } else {
-        LOGGER.info("configuring SSL engine for the server side of the connection without required client authorization");
+      if (LOGGER.isDebugEnabled()) {
+        if (needClientAuth) {
+          LOGGER.debug("configuring SSL engine for the server side of the connection with required client authorization");
+        } else {
+          LOGGER.debug("configuring SSL engine for the server side of the connection without required client authorization");
+        }
       }
       sslEngine.setUseClientMode(false);
       sslEngine.setNeedClientAuth(needClientAuth);
     }
     if (isStrongCiphers) {
-      synchronized (ENABLED_CIPHER_SUITES_LOCK) {
-        if (enabledCipherSuites == null) {
-          iOSIncompatibleCipherSuites.add("TLS_ECDHE_RSA_WITH_AES_256_CBC_SHA384");
-          iOSIncompatibleCipherSuites.add("TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA256");
-          iOSIncompatibleCipherSuites.add("TLS_ECDHE_RSA_WITH_AES_256_CBC_SHA");
-          iOSIncompatibleCipherSuites.add("TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA");
-
-        // TLS_ECDHE_RSA_WITH_RC4_128_SHA is the negotiated cipher suite for iOS
-          // select and arrange the highest security cipher suites and cache the result
-          final String[] supportedCipherSuites = sslEngine.getSupportedCipherSuites();
-          final List<String> enabledCipherSuitesList = new ArrayList<>(supportedCipherSuites.length);
+      sslEngine.setEnabledCipherSuites(getEnabledCipherSuites(sslEngine));
+    }
+  }
+
+  /**
+   * Gets the enabled strong cipher suites, selecting them from the supported cipher suites of the given SSL engine on first use.
+   *
+   * @param sslEngine the given SSL engine
+   *
+   * @return the enabled strong cipher suites
+   */
+  private static String[] getEnabledCipherSuites(final SSLEngine sslEngine) {
+    String[] enabledCipherSuites1 = enabledCipherSuites;
+    if (enabledCipherSuites1 != null) {
+      return enabledCipherSuites1;
+    }
+    synchronized (ENABLED_CIPHER_SUITES_LOCK) {
+      if (enabledCipherSuites == null) {
+        // select and arrange the highest security cipher suites and cache the result
+        final String[] supportedCipherSuites = sslEngine.getSupportedCipherSuites();
+        final List<String> enabledCipherSuitesList = new ArrayList<>(supportedCipherSuites.length);
         // The first pass selects 256 bit ciphers available with the Java Cryptography Extension (JCE)
-          // Unlimited Strength Jurisdiction Policy Files, downloaded and installed from http://java.sun.com/javase/downloads/index.jsp .
-          for (final String supportedCipherSuite : supportedCipherSuites) {
-            if (supportedCipherSuite.contains("_256_") && !supportedCipherSuite.contains("_anon_")) {
-              enabledCipherSuitesList.add(supportedCipherSuite);
-            }
+        // Unlimited Strength Jurisdiction Policy Files, downloaded and installed from http://java.sun.com/javase/downloads/index.jsp .
+        for (final String supportedCipherSuite : supportedCipherSuites) {
+          if (supportedCipherSuite.contains("_256_") && !supportedCipherSuite.contains("_anon_")) {
+            enabledCipherSuitesList.add(supportedCipherSuite);
           }
-          // The second pass selects 128 bit ciphers that use SHA hashing - its more secure than MD5 but slower.
-          for (final String supportedCipherSuite : supportedCipherSuites) {
-            if (supportedCipherSuite.contains("_128_") && !supportedCipherSuite.endsWith("_MD5") && !supportedCipherSuite.contains("_anon_")) {
-              enabledCipherSuitesList.add(supportedCipherSuite);
-            }
+        }
+        // The second pass selects 128 bit ciphers that use SHA hashing - its more secure than MD5 but slower.
+        for (final String supportedCipherSuite : supportedCipherSuites) {
+          if (supportedCipherSuite.contains("_128_") && !supportedCipherSuite.endsWith("_MD5") && !supportedCipherSuite.contains("_anon_")) {
+            enabledCipherSuitesList.add(supportedCipherSuite);
           }
-          // The third pass selects 128 bit ciphers that use MD5 hashing.
-          for (final String supportedCipherSuite : supportedCipherSuites) {
-            if (supportedCipherSuite.contains("_128_") && supportedCipherSuite.endsWith("_MD5") && !supportedCipherSuite.contains("_anon_")) {
-              enabledCipherSuitesList.add(supportedCipherSuite);
-            }
+        }
+        // The third pass selects 128 bit ciphers that use MD5 hashing.
+        for (final String supportedCipherSuite : supportedCipherSuites) {
+          if (supportedCipherSuite.contains("_128_") && supportedCipherSuite.endsWith("_MD5") && !supportedCipherSuite.contains("_anon_")) {
+            enabledCipherSuitesList.add(supportedCipherSuite);
           }
-          // The fourth pass removes the iOS incompatible cipher suites
-          enabledCipherSuitesList.removeAll(iOSIncompatibleCipherSuites);
+        }
+        // The fourth pass removes the iOS incompatible cipher suites
+        enabledCipherSuitesList.removeAll(iOSIncompatibleCipherSuites);
 
-          if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("enabledCipherSuites: " + enabledCipherSuitesList);
-          }
-          final int enabledCipherSuitesList_size = enabledCipherSuitesList.size();
-          enabledCipherSuites = new String[enabledCipherSuitesList_size];
-          for (int i = 0; i < enabledCipherSuitesList_size; i++) {
-            enabledCipherSuites[i] = enabledCipherSuitesList.get(i);
-          }
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("enabledCipherSuites: " + enabledCipherSuitesList);
         }
-        sslEngine.setEnabledCipherSuites(enabledCipherSuites);
+        enabledCipherSuites = enabledCipherSuitesList.toArray(new String[enabledCipherSuitesList.size()]);
       }
+      return enabledCipherSuites;
     }
   }
 }
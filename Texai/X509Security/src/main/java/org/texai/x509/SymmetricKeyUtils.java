@@ -3,11 +3,15 @@ package org.texai.x509;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.KeyGenerator;
 import javax.crypto.NoSuchPaddingException;
@@ -163,6 +167,64 @@ public class SymmetricKeyUtils {
     return decryptedBytes;
   }
 
+  /** Wraps the given output stream so that the plain text bytes written to the wrapper are encrypted as they arrive, using the
+   * symmetric AES algorithm and the given secret key. The encrypted bytes are those which {@link #encrypt(byte[], SecretKey)} returns,
+   * and the wrapper must be closed to write the final block.
+   *
+   * @param outputStream the given output stream, which receives the encrypted bytes
+   * @param secretKey the given secret key
+   * @return the encrypting output stream
+   */
+  public static OutputStream createEncryptingOutputStream(
+          final OutputStream outputStream,
+          final SecretKey secretKey) {
+    //Preconditions
+    assert outputStream != null : "outputStream must not be null";
+    assert secretKey != null : "secretKey must not be null";
+
+    return new CipherOutputStream(outputStream, createCipher(Cipher.ENCRYPT_MODE, secretKey));
+  }
+
+  /** Wraps the given input stream so that the encrypted bytes read from it are decrypted as they are read, using the symmetric AES
+   * algorithm and the given secret key.
+   *
+   * @param inputStream the given input stream, which supplies the encrypted bytes
+   * @param secretKey the given secret key
+   * @return the decrypting input stream
+   */
+  public static InputStream createDecryptingInputStream(
+          final InputStream inputStream,
+          final SecretKey secretKey) {
+    //Preconditions
+    assert inputStream != null : "inputStream must not be null";
+    assert secretKey != null : "secretKey must not be null";
+
+    return new CipherInputStream(inputStream, createCipher(Cipher.DECRYPT_MODE, secretKey));
+  }
+
+  /** Creates an AES cipher initialized with the given mode and secret key.
+   *
+   * @param mode the cipher mode, either Cipher.ENCRYPT_MODE or Cipher.DECRYPT_MODE
+   * @param secretKey the given secret key
+   * @return the initialized cipher
+   */
+  private static Cipher createCipher(
+          final int mode,
+          final SecretKey secretKey) {
+    final Cipher cipher;
+    try {
+      cipher = Cipher.getInstance("AES");
+    } catch (NoSuchAlgorithmException | NoSuchPaddingException ex) {
+      throw new TexaiException(ex);
+    }
+    try {
+      cipher.init(mode, secretKey);
+    } catch (InvalidKeyException ex) {
+      throw new TexaiException(ex);
+    }
+    return cipher;
+  }
+
   /** Encrypt the given plain text using the symmetic AES algorithm, base 64 encoding, and the given secret key.
    *
    * @param plainText the given plain text
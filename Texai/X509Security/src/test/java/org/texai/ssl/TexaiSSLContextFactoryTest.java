@@ -21,10 +21,14 @@
 package org.texai.ssl;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
 import java.util.ArrayList;
 import java.util.List;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
 import org.apache.log4j.Logger;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -139,4 +143,153 @@ public class TexaiSSLContextFactoryTest {
     }
 
   }
+
+  /**
+   * Test that the SSL context is cached for the key material, rather than for the X.509 security information instance.
+   */
+  @Test
+  public void testSSLContextCacheKey() throws Exception {
+    LOGGER.info("sslContextCacheKey");
+    // security information loaded again for the same certificate and private key shares the SSL context
+    final SSLContext serverSSLContext = TexaiSSLContextFactory.getSSLContext(KeyStoreUtils.getServerX509SecurityInfo());
+    assertSame(serverSSLContext, TexaiSSLContextFactory.getSSLContext(KeyStoreUtils.getServerX509SecurityInfo()));
+    final SSLContext clientSSLContext = TexaiSSLContextFactory.getSSLContext(KeyStoreUtils.getClientX509SecurityInfo());
+    assertNotSame(serverSSLContext, clientSSLContext);
+
+    // security information for public certificates, which offer no keys, shares the keyless SSL context
+    final SSLContext publicSSLContext = TexaiSSLContextFactory.getSSLContext(createPublicX509SecurityInfo(
+            KeyStoreUtils.getServerX509SecurityInfo()));
+    assertNotSame(serverSSLContext, publicSSLContext);
+    assertSame(publicSSLContext, TexaiSSLContextFactory.getSSLContext(createPublicX509SecurityInfo(
+            KeyStoreUtils.getClientX509SecurityInfo())));
+  }
+
+  /**
+   * Creates the X.509 security information for the public certificate of the given X.509 security information.
+   *
+   * @param x509SecurityInfo the given X.509 security information
+   * @return the X.509 security information for the public certificate
+   * @throws Exception if an error occurs
+   */
+  private static X509SecurityInfo createPublicX509SecurityInfo(final X509SecurityInfo x509SecurityInfo) throws Exception {
+    final char[] password = "public".toCharArray();
+    final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+    keyStore.load(null, password);
+    keyStore.setCertificateEntry("public", x509SecurityInfo.getX509Certificate());
+    final X509SecurityInfo publicX509SecurityInfo = new X509SecurityInfo(keyStore, password, "public");
+    assertTrue(publicX509SecurityInfo.isPublicCertificate());
+    return publicX509SecurityInfo;
+  }
+
+  /**
+   * Test that the SSL context is cached, and that a client reconnecting to the same peer resumes its session.
+   */
+  @Test
+  public void testSessionResumption() throws SSLException {
+    LOGGER.info("sessionResumption");
+    final X509SecurityInfo serverX509SecurityInfo = KeyStoreUtils.getServerX509SecurityInfo();
+    final X509SecurityInfo clientX509SecurityInfo = KeyStoreUtils.getClientX509SecurityInfo();
+    final SSLContext sslContext = TexaiSSLContextFactory.getSSLContext(serverX509SecurityInfo);
+    assertSame(sslContext, TexaiSSLContextFactory.getSSLContext(serverX509SecurityInfo));
+    assertEquals(TexaiSSLContextFactory.SESSION_CACHE_SIZE, sslContext.getServerSessionContext().getSessionCacheSize());
+
+    final SSLHandshakeStatistics sslHandshakeStatistics = TexaiSSLContextFactory.getSSLHandshakeStatistics();
+    final long fullHandshakeCount = sslHandshakeStatistics.getFullHandshakeCount();
+    final long resumedHandshakeCount = sslHandshakeStatistics.getResumedHandshakeCount();
+    handshake(
+            TexaiSSLContextFactory.createSSLEngine(clientX509SecurityInfo, "peer.texai.org", 5048),
+            TexaiSSLContextFactory.createSSLEngine(serverX509SecurityInfo, null, -1));
+    assertEquals(fullHandshakeCount + 2, sslHandshakeStatistics.getFullHandshakeCount());
+    assertEquals(resumedHandshakeCount, sslHandshakeStatistics.getResumedHandshakeCount());
+
+    // reconnect to the same peer
+    handshake(
+            TexaiSSLContextFactory.createSSLEngine(clientX509SecurityInfo, "peer.texai.org", 5048),
+            TexaiSSLContextFactory.createSSLEngine(serverX509SecurityInfo, null, -1));
+    assertEquals(fullHandshakeCount + 2, sslHandshakeStatistics.getFullHandshakeCount());
+    assertEquals(resumedHandshakeCount + 2, sslHandshakeStatistics.getResumedHandshakeCount());
+    LOGGER.info(sslHandshakeStatistics);
+  }
+
+  /**
+   * Performs an SSL handshake between the given client and server engines, exchanging the network data in memory.
+   *
+   * @param clientSSLEngine the client SSL engine
+   * @param serverSSLEngine the server SSL engine
+   * @throws SSLException if an SSL error occurs
+   */
+  private static void handshake(
+          final SSLEngine clientSSLEngine,
+          final SSLEngine serverSSLEngine) throws SSLException {
+    TexaiSSLContextFactory.configureSSLEngine(
+            clientSSLEngine,
+            true, // useClientMode
+            true, // needClientAuth
+            false); // isStrongCiphers
+    TexaiSSLContextFactory.configureSSLEngine(
+            serverSSLEngine,
+            false, // useClientMode
+            true, // needClientAuth
+            false); // isStrongCiphers
+    // the Texai trust manager expects the RSA key exchange
+    for (final SSLEngine sslEngine : new SSLEngine[]{clientSSLEngine, serverSSLEngine}) {
+      sslEngine.setEnabledProtocols(new String[]{"TLSv1.2"});
+      sslEngine.setEnabledCipherSuites(new String[]{"TLS_RSA_WITH_AES_128_CBC_SHA"});
+    }
+    final ByteBuffer emptyBuffer = ByteBuffer.allocate(0);
+    final ByteBuffer clientNetworkBuffer = ByteBuffer.allocate(65536);
+    final ByteBuffer serverNetworkBuffer = ByteBuffer.allocate(65536);
+    final ByteBuffer applicationBuffer = ByteBuffer.allocate(65536);
+    clientSSLEngine.beginHandshake();
+    serverSSLEngine.beginHandshake();
+    for (int i = 0; i < 100; i++) {
+      if (clientSSLEngine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING
+              && serverSSLEngine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING) {
+        return;
+      }
+      clientSSLEngine.wrap(emptyBuffer, clientNetworkBuffer);
+      runDelegatedTasks(clientSSLEngine);
+      serverSSLEngine.wrap(emptyBuffer, serverNetworkBuffer);
+      runDelegatedTasks(serverSSLEngine);
+      unwrap(clientNetworkBuffer, serverSSLEngine, applicationBuffer);
+      unwrap(serverNetworkBuffer, clientSSLEngine, applicationBuffer);
+    }
+    fail("handshake did not complete");
+  }
+
+  /**
+   * Unwraps the given network data with the given SSL engine.
+   *
+   * @param networkBuffer the buffer containing the network data
+   * @param sslEngine the given SSL engine
+   * @param applicationBuffer the buffer to hold the application data
+   * @throws SSLException if an SSL error occurs
+   */
+  private static void unwrap(
+          final ByteBuffer networkBuffer,
+          final SSLEngine sslEngine,
+          final ByteBuffer applicationBuffer) throws SSLException {
+    networkBuffer.flip();
+    while (networkBuffer.hasRemaining()) {
+      final SSLEngineResult sslEngineResult = sslEngine.unwrap(networkBuffer, applicationBuffer);
+      runDelegatedTasks(sslEngine);
+      if (sslEngineResult.getStatus() != SSLEngineResult.Status.OK) {
+        break;
+      }
+    }
+    networkBuffer.compact();
+  }
+
+  /**
+   * Runs the delegated tasks of the given SSL engine.
+   *
+   * @param sslEngine the given SSL engine
+   */
+  private static void runDelegatedTasks(final SSLEngine sslEngine) {
+    Runnable delegatedTask = sslEngine.getDelegatedTask();
+    while (delegatedTask != null) {
+      delegatedTask.run();
+      delegatedTask = sslEngine.getDelegatedTask();
+    }
+  }
 }
@@ -5,8 +5,14 @@
  */
 package org.texai.x509;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import javax.crypto.SecretKey;
+import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 import org.bouncycastle.util.Arrays;
 import org.junit.After;
@@ -82,4 +88,40 @@ public class SymmetricKeyUtilsTest {
     assertTrue(Arrays.areEqual(plainTextBytes, decryptedTextBytes));
   }
 
+  /**
+   * Test of createEncryptingOutputStream and createDecryptingInputStream methods, of class SymmetricKeyUtils.
+   *
+   * @throws IOException when an input/output error occurs
+   */
+  @Test
+  public void testStreams() throws IOException {
+    LOGGER.info("streams");
+    final SecretKey secretKey = SymmetricKeyUtils.generateKey();
+    final byte[] plainTextBytes = new byte[100000];
+    for (int i = 0; i < plainTextBytes.length; i++) {
+      plainTextBytes[i] = (byte) (i * 31);
+    }
+    // write the plain text in uneven pieces
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (final OutputStream outputStream = SymmetricKeyUtils.createEncryptingOutputStream(byteArrayOutputStream, secretKey)) {
+      int offset = 0;
+      int length = 1;
+      while (offset < plainTextBytes.length) {
+        length = Math.min(length * 3, plainTextBytes.length - offset);
+        outputStream.write(plainTextBytes, offset, length);
+        offset += length;
+      }
+    }
+    final byte[] encryptedTextBytes = byteArrayOutputStream.toByteArray();
+    assertTrue(Arrays.areEqual(SymmetricKeyUtils.encrypt(plainTextBytes, secretKey), encryptedTextBytes));
+
+    final byte[] decryptedTextBytes;
+    try (final InputStream inputStream = SymmetricKeyUtils.createDecryptingInputStream(
+            new ByteArrayInputStream(encryptedTextBytes),
+            secretKey)) {
+      decryptedTextBytes = IOUtils.toByteArray(inputStream);
+    }
+    assertTrue(Arrays.areEqual(plainTextBytes, decryptedTextBytes));
+  }
+
 }